@@ -103,6 +103,12 @@ public interface MessageBus extends Closeable {
 
     MCSequence getPageFrameReduceSubSeq(int shard);
 
+    MPSequence getSortRunPubSeq();
+
+    RingQueue<SortRunTask> getSortRunQueue();
+
+    MCSequence getSortRunSubSeq();
+
     FanOut getTableWriterEventFanOut();
 
     MPSequence getTableWriterEventPubSeq();
@@ -132,4 +138,10 @@ public interface MessageBus extends Closeable {
     RingQueue<WalTxnNotificationTask> getWalTxnNotificationQueue();
 
     MCSequence getWalTxnNotificationSubSequence();
+
+    MPSequence getWindowChunkPubSeq();
+
+    RingQueue<WindowChunkTask> getWindowChunkQueue();
+
+    MCSequence getWindowChunkSubSeq();
 }
@@ -69,6 +69,9 @@ public class MessageBusImpl implements MessageBus {
     private final RingQueue<PageFrameReduceTask>[] pageFrameReduceQueue;
     private final int pageFrameReduceShardCount;
     private final MCSequence[] pageFrameReduceSubSeq;
+    private final MPSequence sortRunPubSeq;
+    private final RingQueue<SortRunTask> sortRunQueue;
+    private final MCSequence sortRunSubSeq;
     private final MPSequence tableWriterEventPubSeq;
     private final RingQueue<TableWriterTask> tableWriterEventQueue;
     private final FanOut tableWriterEventSubSeq;
@@ -85,6 +88,9 @@ public class MessageBusImpl implements MessageBus {
     private final MPSequence walTxnNotificationPubSequence;
     private final RingQueue<WalTxnNotificationTask> walTxnNotificationQueue;
     private final MCSequence walTxnNotificationSubSequence;
+    private final MPSequence windowChunkPubSeq;
+    private final RingQueue<WindowChunkTask> windowChunkQueue;
+    private final MCSequence windowChunkSubSeq;
 
     public MessageBusImpl(@NotNull CairoConfiguration configuration) {
         try {
@@ -188,6 +194,16 @@ public class MessageBusImpl implements MessageBus {
             this.groupByMergeShardPubSeq = new MPSequence(groupByMergeShardQueue.getCycle());
             this.groupByMergeShardSubSeq = new MCSequence(groupByMergeShardQueue.getCycle());
             groupByMergeShardPubSeq.then(groupByMergeShardSubSeq).then(groupByMergeShardPubSeq);
+
+            this.sortRunQueue = new RingQueue<>(SortRunTask::new, configuration.getSortRunQueueCapacity());
+            this.sortRunPubSeq = new MPSequence(sortRunQueue.getCycle());
+            this.sortRunSubSeq = new MCSequence(sortRunQueue.getCycle());
+            sortRunPubSeq.then(sortRunSubSeq).then(sortRunPubSeq);
+
+            this.windowChunkQueue = new RingQueue<>(WindowChunkTask::new, configuration.getWindowChunkQueueCapacity());
+            this.windowChunkPubSeq = new MPSequence(windowChunkQueue.getCycle());
+            this.windowChunkSubSeq = new MCSequence(windowChunkQueue.getCycle());
+            windowChunkPubSeq.then(windowChunkSubSeq).then(windowChunkPubSeq);
         } catch (Throwable th) {
             close();
             throw th;
@@ -205,12 +221,14 @@ public class MessageBusImpl implements MessageBus {
         o3OpenColumnSubSeq.clear();
         o3PartitionSubSeq.clear();
         o3PurgeDiscoverySubSeq.clear();
+        sortRunSubSeq.clear();
         textImportColSeq.clear();
         textImportRequestSubSeq.clear();
         textImportSubSeq.clear();
         vectorAggregateSubSeq.clear();
         walTxnNotificationSubSequence.clear();
         walTxnNotificationSubSequence.clear();
+        windowChunkSubSeq.clear();
         for (int i = 0, n = pageFrameReduceSubSeq.length; i < n; i++) {
             pageFrameReduceSubSeq[i].clear();
         }
@@ -398,6 +416,21 @@ public class MessageBusImpl implements MessageBus {
         return pageFrameReduceSubSeq[shard];
     }
 
+    @Override
+    public MPSequence getSortRunPubSeq() {
+        return sortRunPubSeq;
+    }
+
+    @Override
+    public RingQueue<SortRunTask> getSortRunQueue() {
+        return sortRunQueue;
+    }
+
+    @Override
+    public MCSequence getSortRunSubSeq() {
+        return sortRunSubSeq;
+    }
+
     @Override
     public FanOut getTableWriterEventFanOut() {
         return tableWriterEventSubSeq;
@@ -472,4 +505,19 @@ public class MessageBusImpl implements MessageBus {
     public MCSequence getWalTxnNotificationSubSequence() {
         return walTxnNotificationSubSequence;
     }
+
+    @Override
+    public MPSequence getWindowChunkPubSeq() {
+        return windowChunkPubSeq;
+    }
+
+    @Override
+    public RingQueue<WindowChunkTask> getWindowChunkQueue() {
+        return windowChunkQueue;
+    }
+
+    @Override
+    public MCSequence getWindowChunkSubSeq() {
+        return windowChunkSubSeq;
+    }
 }
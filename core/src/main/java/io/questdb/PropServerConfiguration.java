@@ -72,6 +72,7 @@ public class PropServerConfiguration implements ServerConfiguration {
     public static final String CONFIG_DIRECTORY = "conf";
     public static final String DB_DIRECTORY = "db";
     public static final String SNAPSHOT_DIRECTORY = "snapshot";
+    public static final String SORT_SPILL_DIRECTORY = "sort_spill";
     public static final String TMP_DIRECTORY = "tmp";
     private static final String RELEASE_TYPE = "release.type";
     private static final String RELEASE_VERSION = "release.version";
@@ -84,15 +85,20 @@ public class PropServerConfiguration implements ServerConfiguration {
     private final String backupRoot;
     private final CharSequence backupTempDirName;
     private final int binaryEncodingMaxLength;
+    private final int bloomFilterBitsPerKey;
+    private final boolean bloomFilterEnabled;
     private final BuildInformation buildInformation;
     private final boolean cairoAttachPartitionCopy;
     private final String cairoAttachPartitionSuffix;
     private final CairoConfiguration cairoConfiguration = new PropCairoConfiguration();
     private final int cairoGroupByMergeShardQueueCapacity;
+    private final int cairoSortRunQueueCapacity;
+    private final int cairoWindowChunkQueueCapacity;
     private final boolean cairoGroupByPresizeEnabled;
     private final long cairoGroupByPresizeMaxHeapSize;
     private final long cairoGroupByPresizeMaxSize;
     private final int cairoGroupByShardingThreshold;
+    private final long cairoGroupByVectorKeyEncodingMaxCardinality;
     private final int cairoMaxCrashFiles;
     private final int cairoPageFrameReduceColumnListCapacity;
     private final int cairoPageFrameReduceQueueCapacity;
@@ -218,11 +224,13 @@ public class PropServerConfiguration implements ServerConfiguration {
     private final int o3CallbackQueueCapacity;
     private final int o3ColumnMemorySize;
     private final int o3CopyQueueCapacity;
+    private final int o3DedupParallelMergeThreshold;
     private final int o3LagCalculationWindowsSize;
     private final int o3LastPartitionMaxSplits;
     private final long o3MaxLag;
     private final long o3MinLagUs;
     private final int o3OpenColumnQueueCapacity;
+    private final int o3ParallelSortThreshold;
     private final int o3PartitionPurgeListCapacity;
     private final int o3PartitionQueueCapacity;
     private final long o3PartitionSplitMinSize;
@@ -296,6 +304,7 @@ public class PropServerConfiguration implements ServerConfiguration {
     private final int sqlJitBindVarsMemoryMaxPages;
     private final int sqlJitBindVarsMemoryPageSize;
     private final boolean sqlJitDebugEnabled;
+    private final boolean sqlJitPartialFilterEnabled;
     private final int sqlJitIRMemoryMaxPages;
     private final int sqlJitIRMemoryPageSize;
     private final int sqlJitMode;
@@ -313,8 +322,20 @@ public class PropServerConfiguration implements ServerConfiguration {
     private final int sqlPageFrameMaxRows;
     private final int sqlPageFrameMinRows;
     private final boolean sqlParallelFilterEnabled;
+    private final boolean sqlParallelFilterBatchEnabled;
     private final boolean sqlParallelFilterPreTouchEnabled;
+    private final int sqlParallelFilterReadAheadBufferSize;
+    private final boolean sqlParallelFilterReadAheadEnabled;
+    private final int sqlParallelFilterReadAheadFrames;
     private final boolean sqlParallelGroupByEnabled;
+    private final boolean sqlParallelHashJoinEnabled;
+    private final boolean sqlParallelSampleByEnabled;
+    private final boolean sqlParallelSortEnabled;
+    private final boolean sqlParallelTopKEnabled;
+    private final boolean sqlParallelWindowEnabled;
+    private final boolean sqlResultCacheEnabled;
+    private final int sqlResultCacheMaxRows;
+    private final long sqlResultCacheMemoryBudget;
     private final int sqlQueryRegistryPoolSize;
     private final int sqlRenameTableModelPoolCapacity;
     private final boolean sqlSampleByDefaultAlignment;
@@ -326,6 +347,8 @@ public class PropServerConfiguration implements ServerConfiguration {
     private final int sqlSortLightValueMaxPages;
     private final long sqlSortLightValuePageSize;
     private final int sqlSortValueMaxPages;
+    private final long sqlSortRunMaxSize;
+    private final String sqlSortSpillRoot;
     private final int sqlSortValuePageSize;
     private final int sqlStrFunctionBufferMaxSize;
     private final int sqlTxnScoreboardEntryCount;
@@ -363,6 +386,8 @@ public class PropServerConfiguration implements ServerConfiguration {
     private final VolumeDefinitions volumeDefinitions = new VolumeDefinitions();
     private final boolean walApplyEnabled;
     private final int walApplyLookAheadTransactionCount;
+    private final int walApplySquashMaxTxnCount;
+    private final boolean walApplyParallelSymbolRemapEnabled;
     private final WorkerPoolConfiguration walApplyPoolConfiguration = new PropWalApplyPoolConfiguration();
     private final long walApplySleepTimeout;
     private final long walApplyTableTimeQuota;
@@ -376,12 +401,14 @@ public class PropServerConfiguration implements ServerConfiguration {
     private final long walMaxLagSize;
     private final int walMaxLagTxnCount;
     private final int walMaxSegmentFileDescriptorsCache;
+    private final int walSharedSymbolCacheMaxSize;
     private final long walPurgeInterval;
     private final int walPurgeWaitBeforeDelete;
     private final int walRecreateDistressedSequencerAttempts;
     private final long walSegmentRolloverRowCount;
     private final double walSquashUncommittedRowsMultiplier;
     private final boolean walSupported;
+    private final boolean walWriterBufferedAppendEnabled;
     private final int walTxnNotificationQueueCapacity;
     private final long walWriterDataAppendPageSize;
     private final long walWriterEventAppendPageSize;
@@ -398,6 +425,8 @@ public class PropServerConfiguration implements ServerConfiguration {
     private final long writerMiscAppendPageSize;
     private final boolean writerMixedIOEnabled;
     private final int writerTickRowsCountMod;
+    private final int zoneMapBlockRows;
+    private final boolean zoneMapEnabled;
     protected HttpMinServerConfiguration httpMinServerConfiguration = new PropHttpMinServerConfiguration();
     protected HttpServerConfiguration httpServerConfiguration = new PropHttpServerConfiguration();
     protected JsonQueryProcessorConfiguration jsonQueryProcessorConfiguration = new PropJsonQueryProcessorConfiguration();
@@ -456,7 +485,9 @@ public class PropServerConfiguration implements ServerConfiguration {
     private int lineTcpNetConnectionRcvBuf;
     private long lineTcpNetConnectionTimeout;
     private LineTcpTimestampAdapter lineTcpTimestampAdapter;
+    private boolean lineTcpWalDispatchEnabled;
     private int lineTcpWriterQueueCapacity;
+    private long lineTcpWriterRebalanceInterval;
     private int[] lineTcpWriterWorkerAffinity;
     private int lineTcpWriterWorkerCount;
     private long lineTcpWriterWorkerNapThreshold;
@@ -597,6 +628,9 @@ public class PropServerConfiguration implements ServerConfiguration {
         this.walTxnNotificationQueueCapacity = getQueueCapacity(properties, env, PropertyKey.CAIRO_WAL_TXN_NOTIFICATION_QUEUE_CAPACITY, 4096);
         this.walRecreateDistressedSequencerAttempts = getInt(properties, env, PropertyKey.CAIRO_WAL_RECREATE_DISTRESSED_SEQUENCER_ATTEMPTS, 3);
         this.walSupported = getBoolean(properties, env, PropertyKey.CAIRO_WAL_SUPPORTED, true);
+        this.walWriterBufferedAppendEnabled = getBoolean(properties, env, PropertyKey.CAIRO_WAL_WRITER_BUFFERED_APPEND_ENABLED, false);
+        this.zoneMapEnabled = getBoolean(properties, env, PropertyKey.CAIRO_ZONE_MAP_ENABLED, false);
+        this.bloomFilterEnabled = getBoolean(properties, env, PropertyKey.CAIRO_BLOOM_FILTER_ENABLED, false);
         walApplyEnabled = getBoolean(properties, env, PropertyKey.CAIRO_WAL_APPLY_ENABLED, true);
         this.walSegmentRolloverRowCount = getLong(properties, env, PropertyKey.CAIRO_WAL_SEGMENT_ROLLOVER_ROW_COUNT, 200_000);
         this.walSegmentRolloverSize = getLong(properties, env, PropertyKey.CAIRO_WAL_SEGMENT_ROLLOVER_SIZE, 0);  // disabled by default.
@@ -611,8 +645,11 @@ public class PropServerConfiguration implements ServerConfiguration {
         this.walMaxLagTxnCount = getInt(properties, env, PropertyKey.CAIRO_WAL_MAX_LAG_TXN_COUNT, -1);
         this.walMaxLagSize = getLongSize(properties, env, PropertyKey.CAIRO_WAL_MAX_LAG_SIZE, 75 * Numbers.SIZE_1MB);
         this.walMaxSegmentFileDescriptorsCache = getInt(properties, env, PropertyKey.CAIRO_WAL_MAX_SEGMENT_FILE_DESCRIPTORS_CACHE, 30);
+        this.walSharedSymbolCacheMaxSize = getInt(properties, env, PropertyKey.CAIRO_WAL_SHARED_SYMBOL_CACHE_MAX_SIZE, 100_000);
         this.walApplyTableTimeQuota = getLong(properties, env, PropertyKey.CAIRO_WAL_APPLY_TABLE_TIME_QUOTA, 1000);
         this.walApplyLookAheadTransactionCount = getInt(properties, env, PropertyKey.CAIRO_WAL_APPLY_LOOK_AHEAD_TXN_COUNT, 20);
+        this.walApplySquashMaxTxnCount = getInt(properties, env, PropertyKey.CAIRO_WAL_APPLY_SQUASH_MAX_TXN_COUNT, 20);
+        this.walApplyParallelSymbolRemapEnabled = getBoolean(properties, env, PropertyKey.CAIRO_WAL_APPLY_PARALLEL_SYMBOL_REMAP_ENABLED, true);
         this.tableTypeConversionEnabled = getBoolean(properties, env, PropertyKey.TABLE_TYPE_CONVERSION_ENABLED, true);
         this.tempRenamePendingTablePrefix = getString(properties, env, PropertyKey.CAIRO_WAL_TEMP_PENDING_RENAME_TABLE_PREFIX, "temp_5822f658-31f6-11ee-be56-0242ac120002");
         this.sequencerCheckInterval = getLong(properties, env, PropertyKey.CAIRO_WAL_SEQUENCER_CHECK_INTERVAL, 10_000);
@@ -966,6 +1003,7 @@ public class PropServerConfiguration implements ServerConfiguration {
             this.sqlAsOfJoinLookahead = getInt(properties, env, PropertyKey.CAIRO_SQL_ASOF_JOIN_LOOKAHEAD, 100);
             this.sqlSortValuePageSize = getIntSize(properties, env, PropertyKey.CAIRO_SQL_SORT_VALUE_PAGE_SIZE, 16777216);
             this.sqlSortValueMaxPages = getIntSize(properties, env, PropertyKey.CAIRO_SQL_SORT_VALUE_MAX_PAGES, Integer.MAX_VALUE);
+            this.sqlSortRunMaxSize = getLongSize(properties, env, PropertyKey.CAIRO_SQL_SORT_RUN_MAX_SIZE, 64 * Numbers.SIZE_1MB);
             this.workStealTimeoutNanos = getLong(properties, env, PropertyKey.CAIRO_WORK_STEAL_TIMEOUT_NANOS, 10_000);
             this.parallelIndexingEnabled = getBoolean(properties, env, PropertyKey.CAIRO_PARALLEL_INDEXING_ENABLED, true);
             this.sqlJoinMetadataPageSize = getIntSize(properties, env, PropertyKey.CAIRO_SQL_JOIN_METADATA_PAGE_SIZE, 16384);
@@ -1016,6 +1054,8 @@ public class PropServerConfiguration implements ServerConfiguration {
             this.sqlDistinctTimestampKeyCapacity = getInt(properties, env, PropertyKey.CAIRO_SQL_DISTINCT_TIMESTAMP_KEY_CAPACITY, 512);
             this.sqlDistinctTimestampLoadFactor = getDouble(properties, env, PropertyKey.CAIRO_SQL_DISTINCT_TIMESTAMP_LOAD_FACTOR, "0.5");
             this.sqlPageFrameMinRows = getInt(properties, env, PropertyKey.CAIRO_SQL_PAGE_FRAME_MIN_ROWS, 100_000);
+            this.sqlResultCacheMaxRows = getInt(properties, env, PropertyKey.CAIRO_SQL_RESULT_CACHE_MAX_ROWS, 100_000);
+            this.sqlResultCacheMemoryBudget = getLongSize(properties, env, PropertyKey.CAIRO_SQL_RESULT_CACHE_MEMORY_BUDGET, 64 * Numbers.SIZE_1MB);
             this.sqlPageFrameMaxRows = getInt(properties, env, PropertyKey.CAIRO_SQL_PAGE_FRAME_MAX_ROWS, 1_000_000);
 
             this.sqlJitMode = getSqlJitMode(properties, env);
@@ -1025,6 +1065,7 @@ public class PropServerConfiguration implements ServerConfiguration {
             this.sqlJitBindVarsMemoryMaxPages = getInt(properties, env, PropertyKey.CAIRO_SQL_JIT_BIND_VARS_MEMORY_MAX_PAGES, 8);
             this.sqlJitPageAddressCacheThreshold = getIntSize(properties, env, PropertyKey.CAIRO_SQL_JIT_PAGE_ADDRESS_CACHE_THRESHOLD, 1024 * 1024);
             this.sqlJitDebugEnabled = getBoolean(properties, env, PropertyKey.CAIRO_SQL_JIT_DEBUG_ENABLED, false);
+            this.sqlJitPartialFilterEnabled = getBoolean(properties, env, PropertyKey.CAIRO_SQL_JIT_PARTIAL_FILTER_ENABLED, true);
             this.maxSqlRecompileAttempts = getInt(properties, env, PropertyKey.CAIRO_SQL_MAX_RECOMPILE_ATTEMPTS, 10);
 
             String value = getString(properties, env, PropertyKey.CAIRO_WRITER_FO_OPTS, "o_none");
@@ -1066,6 +1107,16 @@ public class PropServerConfiguration implements ServerConfiguration {
                 throw new ServerConfigurationException("Configuration value for " + PropertyKey.CAIRO_SQL_COPY_WORK_ROOT.getPropertyPath() + " can't point to root, data, conf or snapshot dirs. ");
             }
 
+            // spill directory is wiped on startup, so it must not overlap with anything valuable
+            this.sqlSortSpillRoot = getString(properties, env, PropertyKey.CAIRO_SQL_SORT_SPILL_ROOT, tmpRoot + File.separator + SORT_SPILL_DIRECTORY);
+            if (pathEquals(root, this.sqlSortSpillRoot)
+                    || pathEquals(this.root, this.sqlSortSpillRoot)
+                    || pathEquals(this.confRoot, this.sqlSortSpillRoot)
+                    || pathEquals(this.snapshotRoot, this.sqlSortSpillRoot)
+                    || pathEquals(tmpRoot, this.sqlSortSpillRoot)) {
+                throw new ServerConfigurationException("Configuration value for " + PropertyKey.CAIRO_SQL_SORT_SPILL_ROOT.getPropertyPath() + " can't point to root, data, conf, snapshot or tmp dirs. ");
+            }
+
             String cairoSQLCopyIdSupplier = getString(properties, env, PropertyKey.CAIRO_SQL_COPY_ID_SUPPLIER, "random");
             this.cairoSQLCopyIdSupplier = Chars.equalsLowerCaseAscii(cairoSQLCopyIdSupplier, "sequential") ? 1 : 0;
 
@@ -1089,7 +1140,9 @@ public class PropServerConfiguration implements ServerConfiguration {
             this.o3CallbackQueueCapacity = getQueueCapacity(properties, env, PropertyKey.CAIRO_O3_CALLBACK_QUEUE_CAPACITY, 128);
             this.o3PartitionQueueCapacity = getQueueCapacity(properties, env, PropertyKey.CAIRO_O3_PARTITION_QUEUE_CAPACITY, 128);
             this.o3OpenColumnQueueCapacity = getQueueCapacity(properties, env, PropertyKey.CAIRO_O3_OPEN_COLUMN_QUEUE_CAPACITY, 128);
+            this.o3ParallelSortThreshold = getInt(properties, env, PropertyKey.CAIRO_O3_PARALLEL_SORT_THRESHOLD, 1_000_000);
             this.o3CopyQueueCapacity = getQueueCapacity(properties, env, PropertyKey.CAIRO_O3_COPY_QUEUE_CAPACITY, 128);
+            this.o3DedupParallelMergeThreshold = getInt(properties, env, PropertyKey.CAIRO_O3_DEDUP_PARALLEL_MERGE_THRESHOLD, 1_000_000);
             this.o3LagCalculationWindowsSize = getIntSize(properties, env, PropertyKey.CAIRO_O3_LAG_CALCULATION_WINDOW_SIZE, 4);
             this.o3PurgeDiscoveryQueueCapacity = Numbers.ceilPow2(getInt(properties, env, PropertyKey.CAIRO_O3_PURGE_DISCOVERY_QUEUE_CAPACITY, 128));
             int debugO3MemSize = getInt(properties, env, PropertyKey.DEBUG_CAIRO_O3_COLUMN_MEMORY_SIZE, 0);
@@ -1223,6 +1276,8 @@ public class PropServerConfiguration implements ServerConfiguration {
                 }
                 this.minIdleMsBeforeWriterRelease = getLong(properties, env, PropertyKey.LINE_TCP_MIN_IDLE_MS_BEFORE_WRITER_RELEASE, 500);
                 this.lineTcpDisconnectOnError = getBoolean(properties, env, PropertyKey.LINE_TCP_DISCONNECT_ON_ERROR, true);
+                this.lineTcpWalDispatchEnabled = getBoolean(properties, env, PropertyKey.LINE_TCP_WAL_DISPATCH_ENABLED, false);
+                this.lineTcpWriterRebalanceInterval = getLong(properties, env, PropertyKey.LINE_TCP_WRITER_REBALANCE_INTERVAL, 0);
                 final long heartbeatInterval = LineTcpReceiverConfigurationHelper.calcCommitInterval(
                         this.o3MinLagUs,
                         this.lineTcpCommitIntervalFraction,
@@ -1279,24 +1334,39 @@ public class PropServerConfiguration implements ServerConfiguration {
             final int defaultReduceQueueCapacity = Math.min(2 * sharedWorkerCount, 64);
             this.cairoPageFrameReduceQueueCapacity = Numbers.ceilPow2(getInt(properties, env, PropertyKey.CAIRO_PAGE_FRAME_REDUCE_QUEUE_CAPACITY, defaultReduceQueueCapacity));
             this.cairoGroupByMergeShardQueueCapacity = Numbers.ceilPow2(getInt(properties, env, PropertyKey.CAIRO_SQL_PARALLEL_GROUPBY_MERGE_QUEUE_CAPACITY, defaultReduceQueueCapacity));
+            this.cairoSortRunQueueCapacity = Numbers.ceilPow2(getInt(properties, env, PropertyKey.CAIRO_SQL_PARALLEL_SORT_QUEUE_CAPACITY, defaultReduceQueueCapacity));
+            this.cairoWindowChunkQueueCapacity = Numbers.ceilPow2(getInt(properties, env, PropertyKey.CAIRO_SQL_PARALLEL_WINDOW_QUEUE_CAPACITY, defaultReduceQueueCapacity));
             this.cairoGroupByShardingThreshold = getInt(properties, env, PropertyKey.CAIRO_SQL_PARALLEL_GROUPBY_SHARDING_THRESHOLD, 100_000);
             this.cairoGroupByPresizeEnabled = getBoolean(properties, env, PropertyKey.CAIRO_SQL_PARALLEL_GROUPBY_PRESIZE_ENABLED, true);
             this.cairoGroupByPresizeMaxSize = getLong(properties, env, PropertyKey.CAIRO_SQL_PARALLEL_GROUPBY_PRESIZE_MAX_SIZE, 100_000_000);
             this.cairoGroupByPresizeMaxHeapSize = getLongSize(properties, env, PropertyKey.CAIRO_SQL_PARALLEL_GROUPBY_PRESIZE_MAX_HEAP_SIZE, Numbers.SIZE_1GB);
+            this.cairoGroupByVectorKeyEncodingMaxCardinality = getLong(properties, env, PropertyKey.CAIRO_SQL_PARALLEL_GROUPBY_VECTOR_KEY_ENCODING_MAX_CARDINALITY, 0);
             this.cairoPageFrameReduceRowIdListCapacity = Numbers.ceilPow2(getInt(properties, env, PropertyKey.CAIRO_PAGE_FRAME_ROWID_LIST_CAPACITY, 256));
             this.cairoPageFrameReduceColumnListCapacity = Numbers.ceilPow2(getInt(properties, env, PropertyKey.CAIRO_PAGE_FRAME_COLUMN_LIST_CAPACITY, 16));
             final int defaultReduceShardCount = Math.min(sharedWorkerCount, 4);
             this.cairoPageFrameReduceShardCount = getInt(properties, env, PropertyKey.CAIRO_PAGE_FRAME_SHARD_COUNT, defaultReduceShardCount);
             this.sqlParallelFilterPreTouchEnabled = getBoolean(properties, env, PropertyKey.CAIRO_SQL_PARALLEL_FILTER_PRETOUCH_ENABLED, true);
+            this.sqlParallelFilterReadAheadEnabled = getBoolean(properties, env, PropertyKey.CAIRO_SQL_PARALLEL_FILTER_READ_AHEAD_ENABLED, false);
+            this.sqlParallelFilterReadAheadBufferSize = Math.max(getIntSize(properties, env, PropertyKey.CAIRO_SQL_PARALLEL_FILTER_READ_AHEAD_BUFFER_SIZE, 1024 * 1024), (int) Files.PAGE_SIZE);
+            this.sqlParallelFilterReadAheadFrames = Math.max(getInt(properties, env, PropertyKey.CAIRO_SQL_PARALLEL_FILTER_READ_AHEAD_FRAMES, 4), 1);
             this.sqlCopyModelPoolCapacity = getInt(properties, env, PropertyKey.CAIRO_SQL_COPY_MODEL_POOL_CAPACITY, 32);
 
             boolean defaultParallelSqlEnabled = sharedWorkerCount >= 4;
             this.sqlParallelFilterEnabled = getBoolean(properties, env, PropertyKey.CAIRO_SQL_PARALLEL_FILTER_ENABLED, defaultParallelSqlEnabled);
+            this.sqlParallelFilterBatchEnabled = getBoolean(properties, env, PropertyKey.CAIRO_SQL_PARALLEL_FILTER_BATCH_ENABLED, true);
             this.sqlParallelGroupByEnabled = getBoolean(properties, env, PropertyKey.CAIRO_SQL_PARALLEL_GROUPBY_ENABLED, defaultParallelSqlEnabled);
+            this.sqlParallelHashJoinEnabled = getBoolean(properties, env, PropertyKey.CAIRO_SQL_PARALLEL_HASH_JOIN_ENABLED, false);
+            this.sqlParallelSampleByEnabled = getBoolean(properties, env, PropertyKey.CAIRO_SQL_PARALLEL_SAMPLEBY_ENABLED, false);
+            this.sqlParallelSortEnabled = getBoolean(properties, env, PropertyKey.CAIRO_SQL_PARALLEL_SORT_ENABLED, false);
+            this.sqlParallelTopKEnabled = getBoolean(properties, env, PropertyKey.CAIRO_SQL_PARALLEL_TOPK_ENABLED, false);
+            this.sqlParallelWindowEnabled = getBoolean(properties, env, PropertyKey.CAIRO_SQL_PARALLEL_WINDOW_ENABLED, false);
+            this.sqlResultCacheEnabled = getBoolean(properties, env, PropertyKey.CAIRO_SQL_RESULT_CACHE_ENABLED, false);
             this.metricsEnabled = getBoolean(properties, env, PropertyKey.METRICS_ENABLED, false);
             this.writerAsyncCommandBusyWaitTimeout = getLong(properties, env, PropertyKey.CAIRO_WRITER_ALTER_BUSY_WAIT_TIMEOUT, 500);
             this.writerAsyncCommandMaxWaitTimeout = getLong(properties, env, PropertyKey.CAIRO_WRITER_ALTER_MAX_WAIT_TIMEOUT, 30_000);
             this.writerTickRowsCountMod = Numbers.ceilPow2(getInt(properties, env, PropertyKey.CAIRO_WRITER_TICK_ROWS_COUNT, 1024)) - 1;
+            this.zoneMapBlockRows = Numbers.ceilPow2(getInt(properties, env, PropertyKey.CAIRO_ZONE_MAP_BLOCK_ROWS, 65536));
+            this.bloomFilterBitsPerKey = Math.max(getInt(properties, env, PropertyKey.CAIRO_BLOOM_FILTER_BITS_PER_KEY, 10), 1);
             this.writerAsyncCommandQueueCapacity = Numbers.ceilPow2(getInt(properties, env, PropertyKey.CAIRO_WRITER_COMMAND_QUEUE_CAPACITY, 32));
             this.writerAsyncCommandQueueSlotSize = Numbers.ceilPow2(getLongSize(properties, env, PropertyKey.CAIRO_WRITER_COMMAND_QUEUE_SLOT_SIZE, 2048));
 
@@ -2007,6 +2077,11 @@ public class PropServerConfiguration implements ServerConfiguration {
             return sqlBindVariablePoolSize;
         }
 
+        @Override
+        public int getBloomFilterBitsPerKey() {
+            return bloomFilterBitsPerKey;
+        }
+
         @Override
         public @NotNull BuildInformation getBuildInformation() {
             return buildInformation;
@@ -2230,6 +2305,11 @@ public class PropServerConfiguration implements ServerConfiguration {
             return cairoGroupByShardingThreshold;
         }
 
+        @Override
+        public long getGroupByVectorKeyEncodingMaxCardinality() {
+            return cairoGroupByVectorKeyEncodingMaxCardinality;
+        }
+
         @Override
         public long getIdleCheckInterval() {
             return idleCheckInterval;
@@ -2340,6 +2420,11 @@ public class PropServerConfiguration implements ServerConfiguration {
             return o3CopyQueueCapacity;
         }
 
+        @Override
+        public int getO3DedupParallelMergeThreshold() {
+            return o3DedupParallelMergeThreshold;
+        }
+
         @Override
         public int getO3LagCalculationWindowsSize() {
             return o3LagCalculationWindowsSize;
@@ -2370,6 +2455,11 @@ public class PropServerConfiguration implements ServerConfiguration {
             return o3OpenColumnQueueCapacity;
         }
 
+        @Override
+        public int getO3ParallelSortThreshold() {
+            return o3ParallelSortThreshold;
+        }
+
         @Override
         public int getO3PartitionQueueCapacity() {
             return o3PartitionQueueCapacity;
@@ -2480,6 +2570,11 @@ public class PropServerConfiguration implements ServerConfiguration {
             return snapshotRoot;
         }
 
+        @Override
+        public int getSortRunQueueCapacity() {
+            return cairoSortRunQueueCapacity;
+        }
+
         @Override
         public long getSpinLockTimeout() {
             return spinLockTimeout;
@@ -2665,6 +2760,26 @@ public class PropServerConfiguration implements ServerConfiguration {
             return sqlPageFrameMinRows;
         }
 
+        @Override
+        public int getSqlParallelFilterReadAheadBufferSize() {
+            return sqlParallelFilterReadAheadBufferSize;
+        }
+
+        @Override
+        public int getSqlParallelFilterReadAheadFrames() {
+            return sqlParallelFilterReadAheadFrames;
+        }
+
+        @Override
+        public int getSqlResultCacheMaxRows() {
+            return sqlResultCacheMaxRows;
+        }
+
+        @Override
+        public long getSqlResultCacheMemoryBudget() {
+            return sqlResultCacheMemoryBudget;
+        }
+
         @Override
         public int getSqlSmallMapKeyCapacity() {
             return sqlSmallMapKeyCapacity;
@@ -2695,6 +2810,16 @@ public class PropServerConfiguration implements ServerConfiguration {
             return sqlSortLightValuePageSize;
         }
 
+        @Override
+        public long getSqlSortRunMaxSize() {
+            return sqlSortRunMaxSize;
+        }
+
+        @Override
+        public @NotNull CharSequence getSqlSortSpillRoot() {
+            return sqlSortSpillRoot;
+        }
+
         @Override
         public int getSqlSortValueMaxPages() {
             return sqlSortValueMaxPages;
@@ -2824,6 +2949,11 @@ public class PropServerConfiguration implements ServerConfiguration {
             return walApplyLookAheadTransactionCount;
         }
 
+        @Override
+        public int getWalApplySquashMaxTxnCount() {
+            return walApplySquashMaxTxnCount;
+        }
+
         @Override
         public long getWalApplyTableTimeQuota() {
             return walApplyTableTimeQuota;
@@ -2884,6 +3014,11 @@ public class PropServerConfiguration implements ServerConfiguration {
             return walSegmentRolloverSize;
         }
 
+        @Override
+        public int getWalSharedSymbolCacheMaxSize() {
+            return walSharedSymbolCacheMaxSize;
+        }
+
         @Override
         public double getWalSquashUncommittedRowsMultiplier() {
             return walSquashUncommittedRowsMultiplier;
@@ -2899,6 +3034,11 @@ public class PropServerConfiguration implements ServerConfiguration {
             return walWriterPoolMaxSegments;
         }
 
+        @Override
+        public int getWindowChunkQueueCapacity() {
+            return cairoWindowChunkQueueCapacity;
+        }
+
         @Override
         public int getWindowColumnPoolCapacity() {
             return sqlWindowColumnPoolCapacity;
@@ -2944,6 +3084,16 @@ public class PropServerConfiguration implements ServerConfiguration {
             return writerTickRowsCountMod;
         }
 
+        @Override
+        public int getZoneMapBlockRows() {
+            return zoneMapBlockRows;
+        }
+
+        @Override
+        public boolean isBloomFilterEnabled() {
+            return bloomFilterEnabled;
+        }
+
         @Override
         public boolean isGroupByPresizeEnabled() {
             return cairoGroupByPresizeEnabled;
@@ -2984,21 +3134,66 @@ public class PropServerConfiguration implements ServerConfiguration {
             return sqlJitDebugEnabled;
         }
 
+        @Override
+        public boolean isSqlJitPartialFilterEnabled() {
+            return sqlJitPartialFilterEnabled;
+        }
+
         @Override
         public boolean isSqlParallelFilterEnabled() {
             return sqlParallelFilterEnabled;
         }
 
+        @Override
+        public boolean isSqlParallelFilterBatchEnabled() {
+            return sqlParallelFilterBatchEnabled;
+        }
+
         @Override
         public boolean isSqlParallelFilterPreTouchEnabled() {
             return sqlParallelFilterPreTouchEnabled;
         }
 
+        @Override
+        public boolean isSqlParallelFilterReadAheadEnabled() {
+            return sqlParallelFilterReadAheadEnabled;
+        }
+
         @Override
         public boolean isSqlParallelGroupByEnabled() {
             return sqlParallelGroupByEnabled;
         }
 
+        @Override
+        public boolean isSqlParallelHashJoinEnabled() {
+            return sqlParallelHashJoinEnabled;
+        }
+
+        @Override
+        public boolean isSqlParallelSampleByEnabled() {
+            return sqlParallelSampleByEnabled;
+        }
+
+        @Override
+        public boolean isSqlParallelSortEnabled() {
+            return sqlParallelSortEnabled;
+        }
+
+        @Override
+        public boolean isSqlParallelTopKEnabled() {
+            return sqlParallelTopKEnabled;
+        }
+
+        @Override
+        public boolean isSqlParallelWindowEnabled() {
+            return sqlParallelWindowEnabled;
+        }
+
+        @Override
+        public boolean isSqlResultCacheEnabled() {
+            return sqlResultCacheEnabled;
+        }
+
         @Override
         public boolean isTableTypeConversionEnabled() {
             return tableTypeConversionEnabled;
@@ -3009,15 +3204,30 @@ public class PropServerConfiguration implements ServerConfiguration {
             return walApplyEnabled;
         }
 
+        @Override
+        public boolean isWalApplyParallelSymbolRemapEnabled() {
+            return walApplyParallelSymbolRemapEnabled;
+        }
+
         public boolean isWalSupported() {
             return walSupported;
         }
 
+        @Override
+        public boolean isWalWriterBufferedAppendEnabled() {
+            return walWriterBufferedAppendEnabled;
+        }
+
         @Override
         public boolean isWriterMixedIOEnabled() {
             return writerMixedIOEnabled;
         }
 
+        @Override
+        public boolean isZoneMapEnabled() {
+            return zoneMapEnabled;
+        }
+
         @Override
         public boolean mangleTableDirNames() {
             return false;
@@ -3759,6 +3969,11 @@ public class PropServerConfiguration implements ServerConfiguration {
             return lineTcpWriterQueueCapacity;
         }
 
+        @Override
+        public long getWriterRebalanceInterval() {
+            return lineTcpWriterRebalanceInterval;
+        }
+
         @Override
         public WorkerPoolConfiguration getWriterWorkerPoolConfiguration() {
             return lineTcpWriterWorkerPoolConfiguration;
@@ -3778,6 +3993,11 @@ public class PropServerConfiguration implements ServerConfiguration {
         public boolean isUseLegacyStringDefault() {
             return useLegacyStringDefault;
         }
+
+        @Override
+        public boolean isWalDispatchEnabled() {
+            return lineTcpWalDispatchEnabled;
+        }
     }
 
     private class PropLineTcpReceiverIODispatcherConfiguration implements IODispatcherConfiguration {
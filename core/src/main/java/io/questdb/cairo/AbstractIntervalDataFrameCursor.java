@@ -67,7 +67,12 @@ public abstract class AbstractIntervalDataFrameCursor implements DataFrameCursor
     }
 
     public static long binarySearch(MemoryR column, long value, long low, long high, int scanDir) {
-        return Vect.binarySearch64Bit(column.getPageAddress(0), value, low, high, scanDir);
+        final long address = column.getPageAddress(0);
+        if (address != 0) {
+            return Vect.binarySearch64Bit(address, value, low, high, scanDir);
+        }
+        // compressed partition, values are read through decoded blocks
+        return binarySearchBlocks(column, value, low, high, scanDir);
     }
 
     @Override
@@ -125,6 +130,56 @@ public abstract class AbstractIntervalDataFrameCursor implements DataFrameCursor
         sizeSoFar = 0;
     }
 
+    // same contract as Vect.binarySearch64Bit(), the high boundary is inclusive
+    private static long binarySearchBlocks(MemoryR column, long value, long low, long high, int scanDir) {
+        long diff;
+        while ((diff = high - low) > 65) {
+            final long mid = low + diff / 2;
+            final long midVal = column.getLong(mid << 3);
+            if (midVal < value) {
+                low = mid;
+            } else if (midVal > value) {
+                high = mid - 1;
+            } else {
+                // in case of multiple equal values, find the first or the last one
+                long i = mid;
+                if (scanDir == SCAN_UP) {
+                    while (i > 0 && column.getLong((i - 1) << 3) == midVal) {
+                        i--;
+                    }
+                } else {
+                    while (i < high && column.getLong((i + 1) << 3) == midVal) {
+                        i++;
+                    }
+                }
+                return i;
+            }
+        }
+
+        if (scanDir == SCAN_UP) {
+            for (long i = low; i <= high; i++) {
+                final long that = column.getLong(i << 3);
+                if (that == value) {
+                    return i;
+                }
+                if (that > value) {
+                    return -(i + 1);
+                }
+            }
+            return -(high + 2);
+        }
+        for (long i = high; i >= low; i--) {
+            final long that = column.getLong(i << 3);
+            if (that == value) {
+                return i;
+            }
+            if (that < value) {
+                return -(i + 2);
+            }
+        }
+        return -(low + 1);
+    }
+
     private void calculateRanges(TableReader reader, LongList intervals) {
         size = -1;
         if (intervals.size() > 0) {
@@ -39,7 +39,13 @@ public enum AttachDetachStatus {
     ATTACH_ERR_COPY,
     ATTACH_ERR_MISSING_PARTITION(false),
     ATTACH_ERR_DIR_EXISTS(false),
-    ATTACH_ERR_EMPTY_PARTITION(false);
+    ATTACH_ERR_EMPTY_PARTITION(false),
+    DETACH_ERR_COMPRESSED(false),
+    COMPRESS_ERR_ACTIVE(false),
+    COMPRESS_ERR_MISSING_PARTITION(false),
+    COMPRESS_ERR_READ_ONLY(false),
+    COMPRESS_ERR_SNAPSHOT_IN_PROGRESS(false),
+    COMPRESS_ERR_IO;
 
     private final boolean isCritical;
 
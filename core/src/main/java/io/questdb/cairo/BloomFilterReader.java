@@ -0,0 +1,126 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo;
+
+import io.questdb.std.*;
+import io.questdb.std.str.LPSZ;
+import io.questdb.std.str.Utf8StringSink;
+import io.questdb.std.str.Utf8s;
+
+import static io.questdb.cairo.BloomFilterUtils.*;
+
+/**
+ * Maps Bloom filter of a column file and tests hashes of values against it, see
+ * {@link BloomFilterUtils} for the file layout. The last loaded filter stays mapped
+ * until the reader is cleared.
+ */
+public class BloomFilterReader implements QuietCloseable, Mutable {
+    private final FilesFacade ff;
+    private final Utf8StringSink loadedPath = new Utf8StringSink();
+    private long addr;
+    private long blockCount;
+    private int columnType;
+    private long coveredRowCount;
+    private long size;
+
+    public BloomFilterReader(FilesFacade ff) {
+        this.ff = ff;
+    }
+
+    @Override
+    public void clear() {
+        loadedPath.clear();
+        if (addr != 0) {
+            ff.munmap(addr, size, MemoryTag.MMAP_TABLE_READER);
+            addr = 0;
+            size = 0;
+        }
+    }
+
+    @Override
+    public void close() {
+        clear();
+    }
+
+    /**
+     * @return number of rows of the column file, counting from the column top, that the filter holds
+     */
+    public long getCoveredRowCount() {
+        return coveredRowCount;
+    }
+
+    /**
+     * @param hash value hash, as computed by {@link BloomFilterUtils}
+     * @return false when the value is definitely not in the column file
+     */
+    public boolean mightContain(long hash) {
+        return addr == 0 || BloomFilterUtils.mightContain(addr + HEADER_SIZE, blockCount, hash);
+    }
+
+    /**
+     * Maps Bloom filter file unless it is already mapped.
+     *
+     * @param path       Bloom filter file path
+     * @param columnType expected column type
+     * @return false when the file is missing or does not match the column
+     */
+    public boolean of(LPSZ path, int columnType) {
+        if (Utf8s.equals(loadedPath, path)) {
+            return addr != 0 && this.columnType == columnType;
+        }
+        clear();
+        loadedPath.put(path);
+
+        final int fd = ff.openRO(path);
+        if (fd < 0) {
+            return false;
+        }
+        try {
+            final long fileSize = ff.length(fd);
+            if (fileSize < HEADER_SIZE + BLOCK_SIZE) {
+                return false;
+            }
+            final long mapAddr = ff.mmap(fd, fileSize, 0, Files.MAP_RO, MemoryTag.MMAP_TABLE_READER);
+            if (mapAddr == -1) {
+                return false;
+            }
+            final long blocks = Unsafe.getUnsafe().getLong(mapAddr + HEADER_OFFSET_BLOCK_COUNT);
+            if (Unsafe.getUnsafe().getLong(mapAddr + HEADER_OFFSET_COLUMN_TYPE) != columnType
+                    || blocks < 1
+                    || getFileSize(blocks) != fileSize) {
+                ff.munmap(mapAddr, fileSize, MemoryTag.MMAP_TABLE_READER);
+                return false;
+            }
+            this.addr = mapAddr;
+            this.size = fileSize;
+            this.blockCount = blocks;
+            this.columnType = columnType;
+            this.coveredRowCount = Unsafe.getUnsafe().getLong(mapAddr + HEADER_OFFSET_ROW_COUNT);
+            return true;
+        } finally {
+            ff.close(fd);
+        }
+    }
+}
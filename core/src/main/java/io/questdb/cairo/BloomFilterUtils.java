@@ -0,0 +1,134 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo;
+
+import io.questdb.std.Hash;
+import io.questdb.std.Unsafe;
+import io.questdb.std.str.Path;
+import io.questdb.std.str.Utf8Sequence;
+
+import static io.questdb.cairo.TableUtils.COLUMN_NAME_TXN_NONE;
+
+/**
+ * Bloom filter file layout. A Bloom filter holds hashes of non-null values of a column
+ * file in a partition. The filter is split into 32 byte blocks, each value sets one bit in
+ * every 32-bit word of a single block, so that a lookup touches one cache line.
+ * <p>
+ * Header stores block count, column type, the number of rows of the column file added to
+ * the filter and the number of rows the filter is sized for. Values are never removed from
+ * the filter, it may hold values of rows that have since been rewritten, but it never misses
+ * values of the rows it covers.
+ */
+public final class BloomFilterUtils {
+    public static final int BLOCK_SIZE = 32;
+    public static final int HEADER_OFFSET_BLOCK_COUNT = 0;
+    public static final int HEADER_OFFSET_CAPACITY = 24;
+    public static final int HEADER_OFFSET_COLUMN_TYPE = 8;
+    public static final int HEADER_OFFSET_ROW_COUNT = 16;
+    public static final int HEADER_SIZE = 32;
+    private static final long M2 = 0x517cc1b727220a95L;
+    private static final int[] SALT = {
+            0x47b6137b, 0x44974d91, 0x8824ad5b, 0xa2b7289d,
+            0x705495c7, 0x2df1424b, 0x9efc4947, 0x5c6bfb31
+    };
+
+    private BloomFilterUtils() {
+    }
+
+    public static void add(long blocksAddr, long blockCount, long hash) {
+        final long blockAddr = blocksAddr + getBlockIndex(hash, blockCount) * BLOCK_SIZE;
+        final int key = (int) hash;
+        for (int i = 0; i < SALT.length; i++) {
+            final long wordAddr = blockAddr + ((long) i << 2);
+            Unsafe.getUnsafe().putInt(wordAddr, Unsafe.getUnsafe().getInt(wordAddr) | (1 << ((key * SALT[i]) >>> 27)));
+        }
+    }
+
+    public static Path bloomFilterFileName(Path path, CharSequence name, long columnNameTxn) {
+        path.concat(name).put(".bf");
+        if (columnNameTxn > COLUMN_NAME_TXN_NONE) {
+            path.put('.').put(columnNameTxn);
+        }
+        return path.$();
+    }
+
+    public static long getFileSize(long blockCount) {
+        return HEADER_SIZE + blockCount * BLOCK_SIZE;
+    }
+
+    public static long hashIPv4(int value) {
+        return Hash.hashInt64(value);
+    }
+
+    public static long hashLong(long value) {
+        return Hash.hashLong64(value);
+    }
+
+    public static long hashUuid(long lo, long hi) {
+        return Hash.hashLong128_64(lo, hi);
+    }
+
+    public static long hashVarchar(Utf8Sequence value) {
+        final int size = value.size();
+        long h = size;
+        int i = 0;
+        for (; i + 7 < size; i += 8) {
+            h = h * M2 + value.longAt(i);
+        }
+        for (; i < size; i++) {
+            h = h * M2 + value.byteAt(i);
+        }
+        return Hash.hashLong64(h);
+    }
+
+    public static boolean isSupported(int columnType) {
+        switch (ColumnType.tagOf(columnType)) {
+            case ColumnType.LONG:
+            case ColumnType.UUID:
+            case ColumnType.VARCHAR:
+            case ColumnType.IPv4:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    public static boolean mightContain(long blocksAddr, long blockCount, long hash) {
+        final long blockAddr = blocksAddr + getBlockIndex(hash, blockCount) * BLOCK_SIZE;
+        final int key = (int) hash;
+        for (int i = 0; i < SALT.length; i++) {
+            final int mask = 1 << ((key * SALT[i]) >>> 27);
+            if ((Unsafe.getUnsafe().getInt(blockAddr + ((long) i << 2)) & mask) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long getBlockIndex(long hash, long blockCount) {
+        // maps the upper half of the hash onto [0, blockCount) without division
+        return ((hash >>> 32) * blockCount) >>> 32;
+    }
+}
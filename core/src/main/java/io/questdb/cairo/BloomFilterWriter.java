@@ -0,0 +1,285 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo;
+
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.std.*;
+import io.questdb.std.str.Path;
+import io.questdb.std.str.Utf8Sequence;
+import io.questdb.std.str.Utf8SplitString;
+
+import static io.questdb.cairo.BloomFilterUtils.*;
+
+/**
+ * Maintains Bloom filter of a column file, see {@link BloomFilterUtils} for the file layout.
+ * Values of the rows changed since the last update are added to the existing filter in place.
+ * Once the column file outgrows the capacity of the filter, the filter is rebuilt twice
+ * the size into a temporary file, which then replaces the old one. Readers that have the old
+ * filter mapped keep using it.
+ * <p>
+ * Writer is configured with {@link #of(Path, CharSequence, long, int, long, long)} and then
+ * built by either the table writer or {@link ColumnIndexerJob}, whichever acquires it first.
+ */
+public class BloomFilterWriter implements QuietCloseable {
+    private static final Log LOG = LogFactory.getLog(BloomFilterWriter.class);
+    private static final long MIN_CAPACITY = 1024;
+    private static final long SEQUENCE_OFFSET;
+    private final int bitsPerKey;
+    private final FilesFacade ff;
+    private final long fileOpenOpts;
+    private final Path other = new Path();
+    private final Path path = new Path();
+    private final Utf8SplitString utf8View = new Utf8SplitString(false);
+    private CharSequence columnName;
+    private long columnNameTxn;
+    private int columnType;
+    private long rowCount;
+    private long rowLo;
+    private volatile long sequence = 0L;
+
+    public BloomFilterWriter(CairoConfiguration configuration) {
+        this.ff = configuration.getFilesFacade();
+        this.bitsPerKey = configuration.getBloomFilterBitsPerKey();
+        this.fileOpenOpts = configuration.getWriterFileOpenOpts();
+    }
+
+    /**
+     * Brings Bloom filter of the column file up to date. Filter is removed when it cannot be
+     * updated, the column is then scanned by queries as if the filter never existed.
+     */
+    public void build() {
+        final int plen = path.size();
+        int fd = -1;
+        try {
+            long blockCount = 0;
+            long capacity = 0;
+            long coveredRowCount = 0;
+            if (ff.exists(bloomFilterFileName(path, columnName, columnNameTxn))) {
+                fd = TableUtils.openRW(ff, path.$(), LOG, fileOpenOpts);
+                final long fileSize = ff.length(fd);
+                if (fileSize >= HEADER_SIZE && ff.readNonNegativeLong(fd, HEADER_OFFSET_COLUMN_TYPE) == columnType) {
+                    blockCount = ff.readNonNegativeLong(fd, HEADER_OFFSET_BLOCK_COUNT);
+                    capacity = ff.readNonNegativeLong(fd, HEADER_OFFSET_CAPACITY);
+                    coveredRowCount = Math.max(ff.readNonNegativeLong(fd, HEADER_OFFSET_ROW_COUNT), 0);
+                    if (blockCount < 1 || fileSize != getFileSize(blockCount)) {
+                        blockCount = 0;
+                    }
+                }
+            }
+            path.trimTo(plen);
+
+            if (blockCount > 0 && rowCount <= capacity) {
+                // values are only ever added, readers never miss values of the rows they can see
+                final long fileSize = getFileSize(blockCount);
+                final long addr = TableUtils.mapRW(ff, fd, fileSize, MemoryTag.MMAP_TABLE_WRITER);
+                try {
+                    addValues(addr + HEADER_SIZE, blockCount, Math.max(Math.min(coveredRowCount, rowLo), 0), rowCount);
+                    Unsafe.getUnsafe().putLong(addr + HEADER_OFFSET_ROW_COUNT, rowCount);
+                } finally {
+                    ff.munmap(addr, fileSize, MemoryTag.MMAP_TABLE_WRITER);
+                }
+            } else {
+                if (fd != -1) {
+                    ff.close(fd);
+                    fd = -1;
+                }
+                rebuild();
+            }
+        } catch (CairoException e) {
+            LOG.error().$("could not update Bloom filter, removing [path=").$(path.trimTo(plen))
+                    .$(", column=").utf8(columnName)
+                    .$(", errno=").$(e.getErrno())
+                    .$(", msg=").$(e.getFlyweightMessage())
+                    .I$();
+            if (fd != -1) {
+                ff.close(fd);
+                fd = -1;
+            }
+            ff.removeQuiet(bloomFilterFileName(path.trimTo(plen), columnName, columnNameTxn));
+        } finally {
+            if (fd != -1) {
+                ff.close(fd);
+            }
+            path.trimTo(plen);
+        }
+    }
+
+    @Override
+    public void close() {
+        Misc.free(path);
+        Misc.free(other);
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    /**
+     * Configures the writer for the next build.
+     *
+     * @param partitionPath path to partition directory
+     * @param columnName    column name
+     * @param columnNameTxn column name txn
+     * @param columnType    column type, must be supported by Bloom filters
+     * @param rowLo         first row of the column file that changed since the last update
+     * @param rowCount      row count of the column file
+     * @return this
+     */
+    public BloomFilterWriter of(Path partitionPath, CharSequence columnName, long columnNameTxn, int columnType, long rowLo, long rowCount) {
+        assert isSupported(columnType);
+        this.path.of(partitionPath);
+        this.columnName = columnName;
+        this.columnNameTxn = columnNameTxn;
+        this.columnType = columnType;
+        this.rowLo = rowLo;
+        this.rowCount = rowCount;
+        return this;
+    }
+
+    public boolean tryLock(long expectedSequence) {
+        return Unsafe.cas(this, SEQUENCE_OFFSET, expectedSequence, expectedSequence + 1);
+    }
+
+    private void addValues(long blocksAddr, long blockCount, long lo, long hi) {
+        if (lo >= hi) {
+            return;
+        }
+        final int plen = path.size();
+        if (ColumnType.tagOf(columnType) == ColumnType.VARCHAR) {
+            final long auxSize = hi * VarcharTypeDriver.VARCHAR_AUX_WIDTH_BYTES;
+            final int auxFd = TableUtils.openRO(ff, TableUtils.iFile(path.trimTo(plen), columnName, columnNameTxn), LOG);
+            int dataFd = -1;
+            long auxAddr = 0;
+            long dataAddr = 0;
+            long dataSize = 0;
+            try {
+                auxAddr = TableUtils.mapRO(ff, auxFd, auxSize, MemoryTag.MMAP_TABLE_WRITER);
+                dataSize = VarcharTypeDriver.INSTANCE.getDataVectorSizeAt(auxAddr, hi - 1);
+                if (dataSize > 0) {
+                    dataFd = TableUtils.openRO(ff, TableUtils.dFile(path.trimTo(plen), columnName, columnNameTxn), LOG);
+                    dataAddr = TableUtils.mapRO(ff, dataFd, dataSize, MemoryTag.MMAP_TABLE_WRITER);
+                }
+                for (long row = lo; row < hi; row++) {
+                    final Utf8Sequence value = VarcharTypeDriver.getSplitValue(auxAddr, dataAddr, row, utf8View);
+                    if (value != null) {
+                        add(blocksAddr, blockCount, hashVarchar(value));
+                    }
+                }
+            } finally {
+                if (dataAddr != 0) {
+                    ff.munmap(dataAddr, dataSize, MemoryTag.MMAP_TABLE_WRITER);
+                }
+                if (auxAddr != 0) {
+                    ff.munmap(auxAddr, auxSize, MemoryTag.MMAP_TABLE_WRITER);
+                }
+                if (dataFd != -1) {
+                    ff.close(dataFd);
+                }
+                ff.close(auxFd);
+                path.trimTo(plen);
+            }
+            return;
+        }
+
+        final int shift = ColumnType.pow2SizeOf(columnType);
+        final long dataSize = hi << shift;
+        final int dataFd = TableUtils.openRO(ff, TableUtils.dFile(path.trimTo(plen), columnName, columnNameTxn), LOG);
+        long dataAddr = 0;
+        try {
+            dataAddr = TableUtils.mapRO(ff, dataFd, dataSize, MemoryTag.MMAP_TABLE_WRITER);
+            switch (ColumnType.tagOf(columnType)) {
+                case ColumnType.LONG:
+                    for (long p = dataAddr + (lo << shift), lim = dataAddr + dataSize; p < lim; p += Long.BYTES) {
+                        final long value = Unsafe.getUnsafe().getLong(p);
+                        if (value != Numbers.LONG_NULL) {
+                            add(blocksAddr, blockCount, hashLong(value));
+                        }
+                    }
+                    break;
+                case ColumnType.IPv4:
+                    for (long p = dataAddr + (lo << shift), lim = dataAddr + dataSize; p < lim; p += Integer.BYTES) {
+                        final int value = Unsafe.getUnsafe().getInt(p);
+                        if (value != Numbers.IPv4_NULL) {
+                            add(blocksAddr, blockCount, hashIPv4(value));
+                        }
+                    }
+                    break;
+                default:
+                    // UUID
+                    for (long p = dataAddr + (lo << shift), lim = dataAddr + dataSize; p < lim; p += 2 * Long.BYTES) {
+                        final long valueLo = Unsafe.getUnsafe().getLong(p);
+                        final long valueHi = Unsafe.getUnsafe().getLong(p + Long.BYTES);
+                        if (!Uuid.isNull(valueLo, valueHi)) {
+                            add(blocksAddr, blockCount, hashUuid(valueLo, valueHi));
+                        }
+                    }
+                    break;
+            }
+        } finally {
+            if (dataAddr != 0) {
+                ff.munmap(dataAddr, dataSize, MemoryTag.MMAP_TABLE_WRITER);
+            }
+            ff.close(dataFd);
+            path.trimTo(plen);
+        }
+    }
+
+    private void rebuild() {
+        final int plen = path.size();
+        final long capacity = Math.max(2 * rowCount, MIN_CAPACITY);
+        final long blockCount = (capacity * bitsPerKey + BLOCK_SIZE * Byte.SIZE - 1) / (BLOCK_SIZE * Byte.SIZE);
+        final long fileSize = getFileSize(blockCount);
+        other.of(path).concat(columnName).put(".bf.tmp").$();
+        final int fd = TableUtils.openRW(ff, other, LOG, fileOpenOpts);
+        try {
+            if (!ff.truncate(fd, 0)) {
+                throw CairoException.critical(ff.errno()).put("could not truncate Bloom filter [file=").put(other).put(']');
+            }
+            final long addr = TableUtils.mapRW(ff, fd, fileSize, MemoryTag.MMAP_TABLE_WRITER);
+            try {
+                addValues(addr + HEADER_SIZE, blockCount, 0, rowCount);
+                Unsafe.getUnsafe().putLong(addr + HEADER_OFFSET_BLOCK_COUNT, blockCount);
+                Unsafe.getUnsafe().putLong(addr + HEADER_OFFSET_COLUMN_TYPE, columnType);
+                Unsafe.getUnsafe().putLong(addr + HEADER_OFFSET_ROW_COUNT, rowCount);
+                Unsafe.getUnsafe().putLong(addr + HEADER_OFFSET_CAPACITY, capacity);
+            } finally {
+                ff.munmap(addr, fileSize, MemoryTag.MMAP_TABLE_WRITER);
+            }
+        } finally {
+            ff.close(fd);
+        }
+        if (ff.rename(other, bloomFilterFileName(path.trimTo(plen), columnName, columnNameTxn)) != Files.FILES_RENAME_OK) {
+            final int errno = ff.errno();
+            ff.removeQuiet(other);
+            throw CairoException.critical(errno).put("could not rename Bloom filter [from=").put(other).put(", to=").put(path).put(']');
+        }
+        path.trimTo(plen);
+    }
+
+    static {
+        SEQUENCE_OFFSET = Unsafe.getFieldOffset(BloomFilterWriter.class, "sequence");
+    }
+}
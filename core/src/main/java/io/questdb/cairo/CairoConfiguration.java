@@ -90,6 +90,8 @@ public interface CairoConfiguration {
 
     int getBindVariablePoolSize();
 
+    int getBloomFilterBitsPerKey();
+
     @NotNull
     BuildInformation getBuildInformation();
 
@@ -190,6 +192,8 @@ public interface CairoConfiguration {
 
     int getGroupByShardingThreshold();
 
+    long getGroupByVectorKeyEncodingMaxCardinality();
+
     @NotNull
     default IOURingFacade getIOURingFacade() {
         return IOURingFacadeImpl.INSTANCE;
@@ -252,6 +256,8 @@ public interface CairoConfiguration {
 
     int getO3CopyQueueCapacity();
 
+    int getO3DedupParallelMergeThreshold();
+
     int getO3LagCalculationWindowsSize();
 
     default double getO3LagDecreaseFactor() {
@@ -278,6 +284,8 @@ public interface CairoConfiguration {
 
     int getO3OpenColumnQueueCapacity();
 
+    int getO3ParallelSortThreshold();
+
     int getO3PartitionQueueCapacity();
 
     int getO3PurgeDiscoveryQueueCapacity();
@@ -356,6 +364,8 @@ public interface CairoConfiguration {
     @NotNull
     CharSequence getSnapshotRoot(); // same as root/../snapshot
 
+    int getSortRunQueueCapacity();
+
     long getSpinLockTimeout();
 
     int getSqlAsOfJoinLookAhead();
@@ -436,6 +446,14 @@ public interface CairoConfiguration {
 
     int getSqlPageFrameMinRows();
 
+    int getSqlParallelFilterReadAheadBufferSize();
+
+    int getSqlParallelFilterReadAheadFrames();
+
+    int getSqlResultCacheMaxRows();
+
+    long getSqlResultCacheMemoryBudget();
+
     int getSqlSmallMapKeyCapacity();
 
     long getSqlSmallMapPageSize();
@@ -448,6 +466,11 @@ public interface CairoConfiguration {
 
     long getSqlSortLightValuePageSize();
 
+    long getSqlSortRunMaxSize();
+
+    @NotNull
+    CharSequence getSqlSortSpillRoot(); // same as root/../tmp/sort_spill
+
     int getSqlSortValueMaxPages();
 
     int getSqlSortValuePageSize();
@@ -504,6 +527,8 @@ public interface CairoConfiguration {
 
     int getWalApplyLookAheadTransactionCount();
 
+    int getWalApplySquashMaxTxnCount();
+
     long getWalApplyTableTimeQuota();
 
     long getWalDataAppendPageSize();
@@ -542,12 +567,16 @@ public interface CairoConfiguration {
      */
     long getWalSegmentRolloverSize();
 
+    int getWalSharedSymbolCacheMaxSize();
+
     double getWalSquashUncommittedRowsMultiplier();
 
     int getWalTxnNotificationQueueCapacity();
 
     int getWalWriterPoolMaxSegments();
 
+    int getWindowChunkQueueCapacity();
+
     int getWindowColumnPoolCapacity();
 
     int getWithClauseModelPoolCapacity();
@@ -566,6 +595,10 @@ public interface CairoConfiguration {
 
     int getWriterTickRowsCountMod();
 
+    int getZoneMapBlockRows();
+
+    boolean isBloomFilterEnabled();
+
     boolean isGroupByPresizeEnabled();
 
     boolean isIOURingEnabled();
@@ -587,20 +620,44 @@ public interface CairoConfiguration {
 
     boolean isSqlJitDebugEnabled();
 
+    boolean isSqlJitPartialFilterEnabled();
+
     boolean isSqlParallelFilterEnabled();
 
+    boolean isSqlParallelFilterBatchEnabled();
+
     boolean isSqlParallelFilterPreTouchEnabled();
 
+    boolean isSqlParallelFilterReadAheadEnabled();
+
     boolean isSqlParallelGroupByEnabled();
 
+    boolean isSqlParallelHashJoinEnabled();
+
+    boolean isSqlParallelSampleByEnabled();
+
+    boolean isSqlParallelSortEnabled();
+
+    boolean isSqlParallelTopKEnabled();
+
+    boolean isSqlParallelWindowEnabled();
+
+    boolean isSqlResultCacheEnabled();
+
     boolean isTableTypeConversionEnabled();
 
     boolean isWalApplyEnabled();
 
+    boolean isWalApplyParallelSymbolRemapEnabled();
+
     boolean isWalSupported();
 
+    boolean isWalWriterBufferedAppendEnabled();
+
     boolean isWriterMixedIOEnabled();
 
+    boolean isZoneMapEnabled();
+
     /**
      * This is a flag to enable/disable making table directory names different to table names for non-WAL tables.
      * When it is enabled directory name of table TRADE becomes TRADE~, so that ~ sign is added at the end.
@@ -105,6 +105,11 @@ public class CairoConfigurationWrapper implements CairoConfiguration {
         return getDelegate().getBindVariablePoolSize();
     }
 
+    @Override
+    public int getBloomFilterBitsPerKey() {
+        return getDelegate().getBloomFilterBitsPerKey();
+    }
+
     @Override
     public @NotNull BuildInformation getBuildInformation() {
         return getDelegate().getBuildInformation();
@@ -325,6 +330,11 @@ public class CairoConfigurationWrapper implements CairoConfiguration {
         return getDelegate().getGroupByShardingThreshold();
     }
 
+    @Override
+    public long getGroupByVectorKeyEncodingMaxCardinality() {
+        return getDelegate().getGroupByVectorKeyEncodingMaxCardinality();
+    }
+
     @Override
     public long getIdleCheckInterval() {
         return getDelegate().getIdleCheckInterval();
@@ -440,6 +450,11 @@ public class CairoConfigurationWrapper implements CairoConfiguration {
         return getDelegate().getO3CopyQueueCapacity();
     }
 
+    @Override
+    public int getO3DedupParallelMergeThreshold() {
+        return getDelegate().getO3DedupParallelMergeThreshold();
+    }
+
     @Override
     public int getO3LagCalculationWindowsSize() {
         return getDelegate().getO3LagCalculationWindowsSize();
@@ -470,6 +485,11 @@ public class CairoConfigurationWrapper implements CairoConfiguration {
         return getDelegate().getO3OpenColumnQueueCapacity();
     }
 
+    @Override
+    public int getO3ParallelSortThreshold() {
+        return getDelegate().getO3ParallelSortThreshold();
+    }
+
     @Override
     public int getO3PartitionQueueCapacity() {
         return getDelegate().getO3PartitionQueueCapacity();
@@ -580,6 +600,11 @@ public class CairoConfigurationWrapper implements CairoConfiguration {
         return getDelegate().getSnapshotRoot();
     }
 
+    @Override
+    public int getSortRunQueueCapacity() {
+        return getDelegate().getSortRunQueueCapacity();
+    }
+
     @Override
     public long getSpinLockTimeout() {
         return getDelegate().getSpinLockTimeout();
@@ -765,6 +790,26 @@ public class CairoConfigurationWrapper implements CairoConfiguration {
         return getDelegate().getSqlPageFrameMinRows();
     }
 
+    @Override
+    public int getSqlParallelFilterReadAheadBufferSize() {
+        return getDelegate().getSqlParallelFilterReadAheadBufferSize();
+    }
+
+    @Override
+    public int getSqlParallelFilterReadAheadFrames() {
+        return getDelegate().getSqlParallelFilterReadAheadFrames();
+    }
+
+    @Override
+    public int getSqlResultCacheMaxRows() {
+        return getDelegate().getSqlResultCacheMaxRows();
+    }
+
+    @Override
+    public long getSqlResultCacheMemoryBudget() {
+        return getDelegate().getSqlResultCacheMemoryBudget();
+    }
+
     @Override
     public int getSqlSmallMapKeyCapacity() {
         return getDelegate().getSqlSmallMapKeyCapacity();
@@ -795,6 +840,16 @@ public class CairoConfigurationWrapper implements CairoConfiguration {
         return getDelegate().getSqlSortLightValuePageSize();
     }
 
+    @Override
+    public long getSqlSortRunMaxSize() {
+        return getDelegate().getSqlSortRunMaxSize();
+    }
+
+    @Override
+    public @NotNull CharSequence getSqlSortSpillRoot() {
+        return getDelegate().getSqlSortSpillRoot();
+    }
+
     @Override
     public int getSqlSortValueMaxPages() {
         return getDelegate().getSqlSortValueMaxPages();
@@ -925,6 +980,11 @@ public class CairoConfigurationWrapper implements CairoConfiguration {
         return getDelegate().getWalApplyLookAheadTransactionCount();
     }
 
+    @Override
+    public int getWalApplySquashMaxTxnCount() {
+        return getDelegate().getWalApplySquashMaxTxnCount();
+    }
+
     @Override
     public long getWalApplyTableTimeQuota() {
         return getDelegate().getWalApplyTableTimeQuota();
@@ -985,6 +1045,11 @@ public class CairoConfigurationWrapper implements CairoConfiguration {
         return getDelegate().getWalSegmentRolloverSize();
     }
 
+    @Override
+    public int getWalSharedSymbolCacheMaxSize() {
+        return getDelegate().getWalSharedSymbolCacheMaxSize();
+    }
+
     @Override
     public double getWalSquashUncommittedRowsMultiplier() {
         return getDelegate().getWalSquashUncommittedRowsMultiplier();
@@ -1000,6 +1065,11 @@ public class CairoConfigurationWrapper implements CairoConfiguration {
         return getDelegate().getWalWriterPoolMaxSegments();
     }
 
+    @Override
+    public int getWindowChunkQueueCapacity() {
+        return getDelegate().getWindowChunkQueueCapacity();
+    }
+
     @Override
     public int getWindowColumnPoolCapacity() {
         return getDelegate().getWindowColumnPoolCapacity();
@@ -1045,6 +1115,16 @@ public class CairoConfigurationWrapper implements CairoConfiguration {
         return getDelegate().getWriterTickRowsCountMod();
     }
 
+    @Override
+    public int getZoneMapBlockRows() {
+        return getDelegate().getZoneMapBlockRows();
+    }
+
+    @Override
+    public boolean isBloomFilterEnabled() {
+        return getDelegate().isBloomFilterEnabled();
+    }
+
     @Override
     public boolean isGroupByPresizeEnabled() {
         return getDelegate().isGroupByPresizeEnabled();
@@ -1085,21 +1165,66 @@ public class CairoConfigurationWrapper implements CairoConfiguration {
         return getDelegate().isSqlJitDebugEnabled();
     }
 
+    @Override
+    public boolean isSqlJitPartialFilterEnabled() {
+        return getDelegate().isSqlJitPartialFilterEnabled();
+    }
+
     @Override
     public boolean isSqlParallelFilterEnabled() {
         return getDelegate().isSqlParallelFilterEnabled();
     }
 
+    @Override
+    public boolean isSqlParallelFilterBatchEnabled() {
+        return getDelegate().isSqlParallelFilterBatchEnabled();
+    }
+
     @Override
     public boolean isSqlParallelFilterPreTouchEnabled() {
         return getDelegate().isSqlParallelFilterPreTouchEnabled();
     }
 
+    @Override
+    public boolean isSqlParallelFilterReadAheadEnabled() {
+        return getDelegate().isSqlParallelFilterReadAheadEnabled();
+    }
+
     @Override
     public boolean isSqlParallelGroupByEnabled() {
         return getDelegate().isSqlParallelGroupByEnabled();
     }
 
+    @Override
+    public boolean isSqlParallelHashJoinEnabled() {
+        return getDelegate().isSqlParallelHashJoinEnabled();
+    }
+
+    @Override
+    public boolean isSqlParallelSampleByEnabled() {
+        return getDelegate().isSqlParallelSampleByEnabled();
+    }
+
+    @Override
+    public boolean isSqlParallelSortEnabled() {
+        return getDelegate().isSqlParallelSortEnabled();
+    }
+
+    @Override
+    public boolean isSqlParallelTopKEnabled() {
+        return getDelegate().isSqlParallelTopKEnabled();
+    }
+
+    @Override
+    public boolean isSqlParallelWindowEnabled() {
+        return getDelegate().isSqlParallelWindowEnabled();
+    }
+
+    @Override
+    public boolean isSqlResultCacheEnabled() {
+        return getDelegate().isSqlResultCacheEnabled();
+    }
+
     @Override
     public boolean isTableTypeConversionEnabled() {
         return getDelegate().isTableTypeConversionEnabled();
@@ -1110,15 +1235,30 @@ public class CairoConfigurationWrapper implements CairoConfiguration {
         return getDelegate().isWalApplyEnabled();
     }
 
+    @Override
+    public boolean isWalApplyParallelSymbolRemapEnabled() {
+        return getDelegate().isWalApplyParallelSymbolRemapEnabled();
+    }
+
     public boolean isWalSupported() {
         return getDelegate().isWalSupported();
     }
 
+    @Override
+    public boolean isWalWriterBufferedAppendEnabled() {
+        return getDelegate().isWalWriterBufferedAppendEnabled();
+    }
+
     @Override
     public boolean isWriterMixedIOEnabled() {
         return getDelegate().isWriterMixedIOEnabled();
     }
 
+    @Override
+    public boolean isZoneMapEnabled() {
+        return getDelegate().isZoneMapEnabled();
+    }
+
     @Override
     public boolean mangleTableDirNames() {
         return getDelegate().mangleTableDirNames();
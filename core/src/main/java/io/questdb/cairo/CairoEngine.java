@@ -40,6 +40,7 @@ import io.questdb.griffin.*;
 import io.questdb.griffin.engine.ops.UpdateOperation;
 import io.questdb.log.Log;
 import io.questdb.log.LogFactory;
+import io.questdb.metrics.VirtualLongGaugeWithOneLabel;
 import io.questdb.mp.*;
 import io.questdb.std.*;
 import io.questdb.std.datetime.microtime.MicrosecondClock;
@@ -81,9 +82,11 @@ public class CairoEngine implements Closeable, WriterSource {
     private final Metrics metrics;
     private final Predicate<CharSequence> protectedTableResolver;
     private final QueryRegistry queryRegistry;
+    private final QueryResultCache queryResultCache;
     private final ReaderPool readerPool;
     private final SqlExecutionContext rootExecutionContext;
     private final SequencerMetadataPool sequencerMetadataPool;
+    private final SharedSymbolCacheRegistry sharedSymbolCacheRegistry;
     private final DatabaseSnapshotAgentImpl snapshotAgent;
     private final SqlCompilerPool sqlCompilerPool;
     private final IDGenerator tableIdGenerator;
@@ -94,6 +97,7 @@ public class CairoEngine implements Closeable, WriterSource {
     private final Telemetry<TelemetryWalTask> telemetryWal;
     // initial value of unpublishedWalTxnCount is 1 because we want to scan for non-applied WAL transactions on startup
     private final AtomicLong unpublishedWalTxnCount = new AtomicLong(1);
+    private final WalApplyScheduler walApplyScheduler;
     private final WalWriterPool walWriterPool;
     private final WriterPool writerPool;
     private @NotNull DdlListener ddlListener = DefaultDdlListener.INSTANCE;
@@ -130,10 +134,16 @@ public class CairoEngine implements Closeable, WriterSource {
             this.tableIdGenerator = new IDGenerator(configuration, TableUtils.TAB_INDEX_FILE_NAME);
             this.snapshotAgent = new DatabaseSnapshotAgentImpl(this);
             this.queryRegistry = new QueryRegistry(configuration);
+            this.queryResultCache = new QueryResultCache(configuration);
+            this.walApplyScheduler = new WalApplyScheduler(configuration.getMicrosecondClock(), tableSequencerAPI);
+            this.sharedSymbolCacheRegistry = new SharedSymbolCacheRegistry(configuration);
             this.rootExecutionContext = new SqlExecutionContextImpl(this, 1)
                     .with(AllowAllSecurityContext.INSTANCE);
 
             tableIdGenerator.open();
+            if (!configuration.isReadOnlyInstance()) {
+                removeSortSpillFiles();
+            }
             // Recover snapshot, if necessary.
             snapshotAgent.recoverSnapshot();
 
@@ -145,6 +155,7 @@ public class CairoEngine implements Closeable, WriterSource {
             tableNameRegistry.reload();
 
             this.sqlCompilerPool = new SqlCompilerPool(this);
+            metrics.walMetrics().registerApplyLag(this::scrapeWalApplyLag);
         } catch (Throwable th) {
             close();
             throw th;
@@ -277,6 +288,9 @@ public class CairoEngine implements Closeable, WriterSource {
     public boolean clear() {
         snapshotAgent.clear();
         messageBus.clear();
+        queryResultCache.clear();
+        walApplyScheduler.clear();
+        sharedSymbolCacheRegistry.clear();
         boolean b1 = readerPool.releaseAll();
         boolean b2 = writerPool.releaseAll();
         boolean b3 = tableSequencerAPI.releaseAll();
@@ -301,6 +315,7 @@ public class CairoEngine implements Closeable, WriterSource {
         Misc.free(telemetryWal);
         Misc.free(tableNameRegistry);
         Misc.free(snapshotAgent);
+        Misc.free(queryResultCache);
     }
 
     @TestOnly
@@ -505,6 +520,10 @@ public class CairoEngine implements Closeable, WriterSource {
         return queryRegistry;
     }
 
+    public QueryResultCache getQueryResultCache() {
+        return queryResultCache;
+    }
+
     public TableReader getReader(CharSequence tableName) {
         TableToken tableToken = verifyTableNameForRead(tableName);
         // Do not call getReader(TableToken tableToken), it will do unnecessary token verification
@@ -589,6 +608,10 @@ public class CairoEngine implements Closeable, WriterSource {
         );
     }
 
+    public SharedSymbolCacheRegistry getSharedSymbolCacheRegistry() {
+        return sharedSymbolCacheRegistry;
+    }
+
     public DatabaseSnapshotAgent getSnapshotAgent() {
         return snapshotAgent;
     }
@@ -732,6 +755,10 @@ public class CairoEngine implements Closeable, WriterSource {
         return tableNameRegistry.getTokenByDirName(tableToken.getDirName());
     }
 
+    public WalApplyScheduler getWalApplyScheduler() {
+        return walApplyScheduler;
+    }
+
     public @NotNull WalDirectoryPolicy getWalDirectoryPolicy() {
         return walDirectoryPolicy;
     }
@@ -1364,6 +1391,20 @@ public class CairoEngine implements Closeable, WriterSource {
         }
     }
 
+    private void removeSortSpillFiles() {
+        // parallel ORDER BY removes its spill files on close, so anything left here
+        // belongs to queries interrupted by a crash or a kill
+        final FilesFacade ff = configuration.getFilesFacade();
+        final Path path = Path.getThreadLocal(configuration.getSqlSortSpillRoot());
+        if (ff.exists(path.$())) {
+            if (ff.rmdir(path.slash$())) {
+                LOG.info().$("removed stale sort spill files [path=").$(path).I$();
+            } else {
+                LOG.error().$("could not remove stale sort spill files [path=").$(path).$(", errno=").$(ff.errno()).I$();
+            }
+        }
+    }
+
     private TableToken rename0(Path fromPath, TableToken fromTableToken, Path toPath, CharSequence toTableName) {
 
         // !!! we do not care what is inside the path1 & path2, we will reset them anyway
@@ -1410,6 +1451,15 @@ public class CairoEngine implements Closeable, WriterSource {
         }
     }
 
+    private void scrapeWalApplyLag(VirtualLongGaugeWithOneLabel.SampleSink sink) {
+        tableSequencerAPI.forEachTxnTracker((dirName, seqTxnTracker) -> {
+            final TableToken tableToken = tableNameRegistry.getTableTokenByDirName(Chars.toString(dirName));
+            if (tableToken != null && seqTxnTracker.isInitialised()) {
+                sink.put(tableToken.getTableName(), seqTxnTracker.getLagTxnCount());
+            }
+        });
+    }
+
     private void tryRepairTable(TableToken tableToken, CairoException rethrow) {
         LOG.info()
                 .$("starting table repair [table=").$(tableToken)
@@ -0,0 +1,677 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo;
+
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.std.*;
+import io.questdb.std.str.LPSZ;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Block codec for column files of cold partitions. The compressed file starts with a header
+ * (magic, value size, raw size, block count) and a block index, which holds raw and file offsets
+ * of every block, followed by blocks, each of which is encoded independently:
+ * <ul>
+ *     <li>DOD - delta-of-delta with zigzag bit packing, used for the designated timestamp</li>
+ *     <li>FOR - frame-of-reference bit packing, used for integer-like columns and symbol keys</li>
+ *     <li>DEFLATE - general purpose compression, used for var-size and floating point columns</li>
+ *     <li>RAW - the block as is, used whenever encoding does not make the block smaller</li>
+ * </ul>
+ * Blocks of the data file of a var-size column are cut at value boundaries, so that every value
+ * can be read from a single decoded block. Readers look blocks up in the index and decode only
+ * the blocks they touch.
+ */
+public class ColumnCompressor implements QuietCloseable {
+    public static final int CODEC_DEFLATE = 1;
+    public static final int CODEC_DOD = 3;
+    public static final int CODEC_FOR = 2;
+    public static final int CODEC_RAW = 0;
+    public static final int HEADER_SIZE = 24;
+    private static final int BLOCK_HEADER_SIZE = 12;
+    private static final int BLOCK_INDEX_ENTRY_SIZE = 16;
+    // multiple of the widest fixed-size value, blocks of fixed-size columns never split values
+    private static final int BLOCK_SIZE = 64 * 1024;
+    private static final Log LOG = LogFactory.getLog(ColumnCompressor.class);
+    // "QDB2" in little endian
+    private static final int MAGIC = 0x32424451;
+    private static final int PACKED_HEADER_SIZE = 16;
+    private final LongList blockBounds = new LongList();
+    private DirectLongList blockIndex;
+    private long decodeBuf;
+    private long decodeBufSize;
+    private Deflater deflater;
+    private long encodeBuf;
+    private long encodeBufSize;
+    private byte[] heapIn = new byte[0];
+    private byte[] heapOut = new byte[0];
+    private Inflater inflater;
+
+    /**
+     * Finds the block, which contains the given raw offset. The raw size of the file maps
+     * to the last block.
+     *
+     * @param srcAddr   address of the compressed file content
+     * @param rawOffset offset in the raw file
+     * @return block index
+     */
+    public static int findBlock(long srcAddr, long rawOffset) {
+        int lo = 0;
+        int hi = getBlockCount(srcAddr) - 1;
+        while (lo < hi) {
+            final int mid = (lo + hi + 1) >>> 1;
+            if (getBlockRawLo(srcAddr, mid) <= rawOffset) {
+                lo = mid;
+            } else {
+                hi = mid - 1;
+            }
+        }
+        return lo;
+    }
+
+    public static int getBlockCount(long srcAddr) {
+        return Unsafe.getUnsafe().getInt(srcAddr + 16);
+    }
+
+    /**
+     * @param srcAddr    address of the compressed file content
+     * @param blockIndex block index, block count stands for the end of the last block
+     * @return offset of the first byte of the block in the raw file
+     */
+    public static long getBlockRawLo(long srcAddr, int blockIndex) {
+        return Unsafe.getUnsafe().getLong(srcAddr + HEADER_SIZE + (long) blockIndex * BLOCK_INDEX_ENTRY_SIZE);
+    }
+
+    /**
+     * Picks the block codec for the primary (data) file of a column. Aux files of var-size
+     * columns are always compressed with {@link #CODEC_DEFLATE}.
+     *
+     * @param columnType             column type
+     * @param isDesignatedTimestamp  true when the column is the designated timestamp
+     * @return one of the CODEC_* constants
+     */
+    public static int getDataCodec(int columnType, boolean isDesignatedTimestamp) {
+        if (isDesignatedTimestamp) {
+            return CODEC_DOD;
+        }
+        switch (ColumnType.tagOf(columnType)) {
+            case ColumnType.BYTE:
+            case ColumnType.SHORT:
+            case ColumnType.CHAR:
+            case ColumnType.INT:
+            case ColumnType.LONG:
+            case ColumnType.DATE:
+            case ColumnType.TIMESTAMP:
+            case ColumnType.SYMBOL:
+            case ColumnType.IPv4:
+            case ColumnType.GEOBYTE:
+            case ColumnType.GEOSHORT:
+            case ColumnType.GEOINT:
+            case ColumnType.GEOLONG:
+                return CODEC_FOR;
+            default:
+                return CODEC_DEFLATE;
+        }
+    }
+
+    public static long getRawSize(long srcAddr, long srcSize) {
+        checkHeader(srcAddr, srcSize);
+        return Unsafe.getUnsafe().getLong(srcAddr + 8);
+    }
+
+    @Override
+    public void close() {
+        if (deflater != null) {
+            deflater.end();
+            deflater = null;
+        }
+        if (inflater != null) {
+            inflater.end();
+            inflater = null;
+        }
+        encodeBuf = Unsafe.free(encodeBuf, encodeBufSize, MemoryTag.NATIVE_DEFAULT);
+        encodeBufSize = 0;
+        decodeBuf = Unsafe.free(decodeBuf, decodeBufSize, MemoryTag.NATIVE_DEFAULT);
+        decodeBufSize = 0;
+        blockIndex = Misc.free(blockIndex);
+    }
+
+    /**
+     * Writes compressed copy of the source file to the destination file. The file is cut into
+     * blocks of the same size.
+     *
+     * @param ff         files facade
+     * @param src        path to the raw column file
+     * @param dst        path to the compressed file, the file is created or truncated
+     * @param codec      primary codec, one of CODEC_* constants
+     * @param valueSize  size of a single column value in bytes, ignored by DEFLATE
+     * @param commitMode commit mode to sync the destination file with
+     * @return size of the compressed file
+     */
+    public long compress(FilesFacade ff, LPSZ src, LPSZ dst, int codec, int valueSize, int commitMode) {
+        return compress(ff, src, dst, codec, valueSize, commitMode, null, null, 0);
+    }
+
+    /**
+     * Writes compressed copy of the data file of a var-size column. Blocks are cut at value
+     * boundaries, the offsets of values are read from the raw aux file of the column.
+     *
+     * @param ff         files facade
+     * @param src        path to the raw data file
+     * @param dst        path to the compressed file, the file is created or truncated
+     * @param auxSrc     path to the raw aux file of the column
+     * @param driver     type driver of the column
+     * @param rowCount   number of rows in the column files
+     * @param commitMode commit mode to sync the destination file with
+     * @return size of the compressed file
+     */
+    public long compressVarSizeData(FilesFacade ff, LPSZ src, LPSZ dst, LPSZ auxSrc, ColumnTypeDriver driver, long rowCount, int commitMode) {
+        return compress(ff, src, dst, CODEC_DEFLATE, Byte.BYTES, commitMode, auxSrc, driver, rowCount);
+    }
+
+    /**
+     * Decodes a single block.
+     *
+     * @param srcAddr    address of the compressed file content
+     * @param srcSize    size of the compressed file content
+     * @param blockIndex index of the block to decode
+     * @param dstAddr    destination buffer, must be able to hold the raw size of the block
+     */
+    public void decodeBlock(long srcAddr, long srcSize, int blockIndex, long dstAddr) {
+        final long entry = srcAddr + HEADER_SIZE + (long) blockIndex * BLOCK_INDEX_ENTRY_SIZE;
+        final long rawLen = Unsafe.getUnsafe().getLong(entry + BLOCK_INDEX_ENTRY_SIZE) - Unsafe.getUnsafe().getLong(entry);
+        final long fileOffset = Unsafe.getUnsafe().getLong(entry + 8);
+        if (fileOffset < 0 || fileOffset + BLOCK_HEADER_SIZE > srcSize) {
+            throw corrupt("truncated block header", fileOffset);
+        }
+        final int codec = Unsafe.getUnsafe().getInt(srcAddr + fileOffset);
+        final int blockRawLen = Unsafe.getUnsafe().getInt(srcAddr + fileOffset + 4);
+        final int encLen = Unsafe.getUnsafe().getInt(srcAddr + fileOffset + 8);
+        if (blockRawLen != rawLen || encLen < 0 || fileOffset + BLOCK_HEADER_SIZE + encLen > srcSize) {
+            throw corrupt("invalid block", fileOffset);
+        }
+        decodeBlock(codec, srcAddr + fileOffset + BLOCK_HEADER_SIZE, encLen, dstAddr, blockRawLen, Unsafe.getUnsafe().getInt(srcAddr + 4));
+    }
+
+    /**
+     * Decodes the given range of the raw file. Only the blocks that overlap the range are decoded.
+     *
+     * @param srcAddr address of the compressed file content
+     * @param srcSize size of the compressed file content
+     * @param rawLo   offset of the first raw byte, inclusive
+     * @param rawHi   offset of the last raw byte, exclusive
+     * @param dstAddr destination buffer, must be able to hold rawHi - rawLo bytes
+     */
+    public void decompress(long srcAddr, long srcSize, long rawLo, long rawHi, long dstAddr) {
+        final long rawSize = getRawSize(srcAddr, srcSize);
+        if (rawHi > rawSize) {
+            throw CairoException.critical(0).put("compressed column is too short [rawSize=").put(rawSize).put(", expected=").put(rawHi).put(']');
+        }
+        if (rawLo >= rawHi) {
+            return;
+        }
+        int block = findBlock(srcAddr, rawLo);
+        long lo = rawLo;
+        long dst = dstAddr;
+        try {
+            while (lo < rawHi) {
+                final long blockLo = getBlockRawLo(srcAddr, block);
+                final long blockHi = getBlockRawLo(srcAddr, block + 1);
+                if (blockLo == lo && blockHi <= rawHi) {
+                    decodeBlock(srcAddr, srcSize, block, dst);
+                } else {
+                    // partially covered blocks go through the scratch buffer
+                    ensureDecodeBuf(blockHi - blockLo);
+                    decodeBlock(srcAddr, srcSize, block, decodeBuf);
+                    Vect.memcpy(dst, decodeBuf + lo - blockLo, Math.min(blockHi, rawHi) - lo);
+                }
+                dst += Math.min(blockHi, rawHi) - lo;
+                lo = Math.min(blockHi, rawHi);
+                block++;
+            }
+        } finally {
+            // readers use thread-local compressors, the scratch buffer must not outlive the call
+            decodeBuf = Unsafe.free(decodeBuf, decodeBufSize, MemoryTag.NATIVE_DEFAULT);
+            decodeBufSize = 0;
+        }
+    }
+
+    private static void checkHeader(long srcAddr, long srcSize) {
+        if (
+                srcSize < HEADER_SIZE
+                        || Unsafe.getUnsafe().getInt(srcAddr) != MAGIC
+                        || HEADER_SIZE + (getBlockCount(srcAddr) + 1L) * BLOCK_INDEX_ENTRY_SIZE > srcSize
+        ) {
+            throw CairoException.critical(0).put("not a compressed column file [size=").put(srcSize).put(']');
+        }
+    }
+
+    private static CairoException corrupt(String reason, long offset) {
+        return CairoException.critical(0).put("corrupt compressed column [reason=").put(reason).put(", offset=").put(offset).put(']');
+    }
+
+    private static void decodeDod(long src, long dst, int rawLen) {
+        final int n = rawLen >>> 3;
+        final long first = Unsafe.getUnsafe().getLong(src);
+        long delta = Unsafe.getUnsafe().getLong(src + 8);
+        final int width = Unsafe.getUnsafe().getByte(src + 16);
+        final long packed = src + PACKED_HEADER_SIZE + 8;
+        long value = first;
+        Unsafe.getUnsafe().putLong(dst, value);
+        value += delta;
+        Unsafe.getUnsafe().putLong(dst + 8, value);
+        for (int i = 2; i < n; i++) {
+            final long zigzag = readBits(packed, (long) (i - 2) * width, width);
+            delta += (zigzag >>> 1) ^ -(zigzag & 1);
+            value += delta;
+            Unsafe.getUnsafe().putLong(dst + ((long) i << 3), value);
+        }
+    }
+
+    private static void decodeFor(long src, long dst, int rawLen, int valueSize) {
+        final int n = rawLen / valueSize;
+        final long min = Unsafe.getUnsafe().getLong(src);
+        final int width = Unsafe.getUnsafe().getByte(src + 8);
+        final long packed = src + PACKED_HEADER_SIZE;
+        for (int i = 0; i < n; i++) {
+            putValue(dst + (long) i * valueSize, min + readBits(packed, (long) i * width, width), valueSize);
+        }
+    }
+
+    private static long getValue(long addr, int valueSize) {
+        switch (valueSize) {
+            case 1:
+                return Unsafe.getUnsafe().getByte(addr);
+            case 2:
+                return Unsafe.getUnsafe().getShort(addr);
+            case 4:
+                return Unsafe.getUnsafe().getInt(addr);
+            default:
+                return Unsafe.getUnsafe().getLong(addr);
+        }
+    }
+
+    private static long packedSize(long valueCount, int width) {
+        return ((valueCount * width + 63) >>> 6) << 3;
+    }
+
+    private static void putValue(long addr, long value, int valueSize) {
+        switch (valueSize) {
+            case 1:
+                Unsafe.getUnsafe().putByte(addr, (byte) value);
+                break;
+            case 2:
+                Unsafe.getUnsafe().putShort(addr, (short) value);
+                break;
+            case 4:
+                Unsafe.getUnsafe().putInt(addr, (int) value);
+                break;
+            default:
+                Unsafe.getUnsafe().putLong(addr, value);
+                break;
+        }
+    }
+
+    private static long readBits(long packed, long bitPos, int width) {
+        if (width == 0) {
+            return 0;
+        }
+        final long wordAddr = packed + ((bitPos >>> 6) << 3);
+        final int shift = (int) (bitPos & 63);
+        long value = Unsafe.getUnsafe().getLong(wordAddr) >>> shift;
+        if (shift + width > 64) {
+            value |= Unsafe.getUnsafe().getLong(wordAddr + 8) << (64 - shift);
+        }
+        return value & (-1L >>> (64 - width));
+    }
+
+    private static long write(FilesFacade ff, int fd, LPSZ path, long addr, long len, long offset) {
+        if (ff.write(fd, addr, len, offset) != len) {
+            throw CairoException.critical(ff.errno()).put("could not write compressed column [path=").put(path).put(']');
+        }
+        return len;
+    }
+
+    private static void writeBits(long packed, long bitPos, int width, long value) {
+        if (width == 0) {
+            return;
+        }
+        final long wordAddr = packed + ((bitPos >>> 6) << 3);
+        final int shift = (int) (bitPos & 63);
+        Unsafe.getUnsafe().putLong(wordAddr, Unsafe.getUnsafe().getLong(wordAddr) | (value << shift));
+        if (shift + width > 64) {
+            Unsafe.getUnsafe().putLong(wordAddr + 8, Unsafe.getUnsafe().getLong(wordAddr + 8) | (value >>> (64 - shift)));
+        }
+    }
+
+    private long compress(
+            FilesFacade ff,
+            LPSZ src,
+            LPSZ dst,
+            int codec,
+            int valueSize,
+            int commitMode,
+            @Nullable LPSZ auxSrc,
+            @Nullable ColumnTypeDriver driver,
+            long rowCount
+    ) {
+        final int srcFd = TableUtils.openRO(ff, src, LOG);
+        long srcAddr = 0;
+        long rawSize = 0;
+        int dstFd = -1;
+        try {
+            rawSize = ff.length(srcFd);
+            if (rawSize < 0) {
+                throw CairoException.critical(ff.errno()).put("could not get length [path=").put(src).put(']');
+            }
+            if (rawSize > 0) {
+                srcAddr = TableUtils.mapRO(ff, srcFd, rawSize, MemoryTag.MMAP_DEFAULT);
+            }
+            if (auxSrc != null) {
+                computeValueAlignedBounds(ff, auxSrc, driver, rowCount, rawSize);
+            } else {
+                computeFixedBounds(rawSize);
+            }
+            dstFd = TableUtils.openRW(ff, dst, LOG, CairoConfiguration.O_NONE);
+            if (!ff.truncate(dstFd, 0)) {
+                throw CairoException.critical(ff.errno()).put("could not truncate [path=").put(dst).put(']');
+            }
+
+            final int blockCount = blockBounds.size() - 1;
+            if (blockIndex == null) {
+                blockIndex = new DirectLongList(2L * (blockCount + 1), MemoryTag.NATIVE_DEFAULT);
+            }
+            blockIndex.clear();
+            long dstOffset = HEADER_SIZE + (long) (blockCount + 1) * BLOCK_INDEX_ENTRY_SIZE;
+            for (int i = 0; i < blockCount; i++) {
+                final long lo = blockBounds.getQuick(i);
+                final int rawLen = (int) (blockBounds.getQuick(i + 1) - lo);
+                final long blockAddr = srcAddr + lo;
+                ensureEncodeBuf(BLOCK_HEADER_SIZE + PACKED_HEADER_SIZE + 2L * rawLen);
+                final long payload = encodeBuf + BLOCK_HEADER_SIZE;
+                int blockCodec = codec;
+                int encLen = encodeBlock(codec, blockAddr, rawLen, valueSize, payload);
+                if (encLen < 0 && codec != CODEC_DEFLATE) {
+                    blockCodec = CODEC_DEFLATE;
+                    encLen = encodeBlock(CODEC_DEFLATE, blockAddr, rawLen, valueSize, payload);
+                }
+                if (encLen < 0) {
+                    blockCodec = CODEC_RAW;
+                    encLen = rawLen;
+                    Vect.memcpy(payload, blockAddr, rawLen);
+                }
+                Unsafe.getUnsafe().putInt(encodeBuf, blockCodec);
+                Unsafe.getUnsafe().putInt(encodeBuf + 4, rawLen);
+                Unsafe.getUnsafe().putInt(encodeBuf + 8, encLen);
+                blockIndex.add(lo);
+                blockIndex.add(dstOffset);
+                dstOffset += write(ff, dstFd, dst, encodeBuf, BLOCK_HEADER_SIZE + encLen, dstOffset);
+            }
+            blockIndex.add(rawSize);
+            blockIndex.add(dstOffset);
+
+            ensureEncodeBuf(HEADER_SIZE);
+            Unsafe.getUnsafe().putInt(encodeBuf, MAGIC);
+            Unsafe.getUnsafe().putInt(encodeBuf + 4, valueSize);
+            Unsafe.getUnsafe().putLong(encodeBuf + 8, rawSize);
+            Unsafe.getUnsafe().putInt(encodeBuf + 16, blockCount);
+            Unsafe.getUnsafe().putInt(encodeBuf + 20, 0);
+            write(ff, dstFd, dst, encodeBuf, HEADER_SIZE, 0);
+            write(ff, dstFd, dst, blockIndex.getAddress(), blockIndex.size() * Long.BYTES, HEADER_SIZE);
+
+            if (commitMode != CommitMode.NOSYNC) {
+                ff.fsync(dstFd);
+            }
+            return dstOffset;
+        } finally {
+            if (srcAddr != 0) {
+                ff.munmap(srcAddr, rawSize, MemoryTag.MMAP_DEFAULT);
+            }
+            ff.close(srcFd);
+            if (dstFd != -1) {
+                ff.close(dstFd);
+            }
+        }
+    }
+
+    private void computeFixedBounds(long rawSize) {
+        blockBounds.clear();
+        for (long lo = 0; lo < rawSize; lo += BLOCK_SIZE) {
+            blockBounds.add(lo);
+        }
+        blockBounds.add(rawSize);
+    }
+
+    private void computeValueAlignedBounds(FilesFacade ff, LPSZ auxSrc, ColumnTypeDriver driver, long rowCount, long rawSize) {
+        blockBounds.clear();
+        blockBounds.add(0);
+        if (rowCount > 0 && rawSize > BLOCK_SIZE) {
+            final int auxFd = TableUtils.openRO(ff, auxSrc, LOG);
+            final long auxSize = driver.getAuxVectorSize(rowCount);
+            long auxAddr = 0;
+            try {
+                auxAddr = TableUtils.mapRO(ff, auxFd, auxSize, MemoryTag.MMAP_DEFAULT);
+                long rowLo = 0;
+                long lo = 0;
+                while (lo + BLOCK_SIZE < rawSize) {
+                    // the next block starts at the first value past the block size
+                    final long target = lo + BLOCK_SIZE;
+                    long l = rowLo + 1;
+                    long h = rowCount;
+                    while (l < h) {
+                        final long mid = (l + h) >>> 1;
+                        if (driver.getDataVectorOffset(auxAddr, mid) < target) {
+                            l = mid + 1;
+                        } else {
+                            h = mid;
+                        }
+                    }
+                    if (l == rowCount) {
+                        break;
+                    }
+                    final long cut = driver.getDataVectorOffset(auxAddr, l);
+                    if (cut >= rawSize) {
+                        break;
+                    }
+                    blockBounds.add(cut);
+                    rowLo = l;
+                    lo = cut;
+                }
+            } finally {
+                if (auxAddr != 0) {
+                    ff.munmap(auxAddr, auxSize, MemoryTag.MMAP_DEFAULT);
+                }
+                ff.close(auxFd);
+            }
+        }
+        if (rawSize > 0) {
+            blockBounds.add(rawSize);
+        }
+    }
+
+    private void decodeBlock(int codec, long src, int encLen, long dst, int rawLen, int valueSize) {
+        switch (codec) {
+            case CODEC_RAW:
+                if (encLen != rawLen) {
+                    throw corrupt("raw block size mismatch", encLen);
+                }
+                Vect.memcpy(dst, src, rawLen);
+                break;
+            case CODEC_DEFLATE:
+                inflate(src, encLen, dst, rawLen);
+                break;
+            case CODEC_FOR:
+                decodeFor(src, dst, rawLen, valueSize);
+                break;
+            case CODEC_DOD:
+                decodeDod(src, dst, rawLen);
+                break;
+            default:
+                throw corrupt("unknown codec", codec);
+        }
+    }
+
+    private int deflate(long src, int rawLen, long dst) {
+        if (deflater == null) {
+            deflater = new Deflater();
+        }
+        ensureHeapBuffers(rawLen);
+        Unsafe.getUnsafe().copyMemory(null, src, heapIn, Unsafe.BYTE_OFFSET, rawLen);
+        deflater.reset();
+        deflater.setInput(heapIn, 0, rawLen);
+        deflater.finish();
+        // there is no gain when the output does not fit into the raw size
+        final int encLen = deflater.deflate(heapOut, 0, rawLen);
+        if (!deflater.finished() || encLen >= rawLen) {
+            return -1;
+        }
+        Unsafe.getUnsafe().copyMemory(heapOut, Unsafe.BYTE_OFFSET, null, dst, encLen);
+        return encLen;
+    }
+
+    private int encodeBlock(int codec, long src, int rawLen, int valueSize, long dst) {
+        switch (codec) {
+            case CODEC_FOR:
+                return encodeFor(src, rawLen, valueSize, dst);
+            case CODEC_DOD:
+                return encodeDod(src, rawLen, dst);
+            default:
+                return deflate(src, rawLen, dst);
+        }
+    }
+
+    private int encodeDod(long src, int rawLen, long dst) {
+        final int n = rawLen >>> 3;
+        if (n < 3 || (rawLen & 7) != 0) {
+            return -1;
+        }
+        long bits = 0;
+        long prev = Unsafe.getUnsafe().getLong(src + 8);
+        long prevDelta = prev - Unsafe.getUnsafe().getLong(src);
+        for (int i = 2; i < n; i++) {
+            final long value = Unsafe.getUnsafe().getLong(src + ((long) i << 3));
+            final long delta = value - prev;
+            final long dod = delta - prevDelta;
+            bits |= (dod << 1) ^ (dod >> 63);
+            prev = value;
+            prevDelta = delta;
+        }
+        final int width = 64 - Long.numberOfLeadingZeros(bits);
+        final long encLen = PACKED_HEADER_SIZE + 8 + packedSize(n - 2, width);
+        if (encLen >= rawLen) {
+            return -1;
+        }
+
+        final long first = Unsafe.getUnsafe().getLong(src);
+        Unsafe.getUnsafe().putLong(dst, first);
+        Unsafe.getUnsafe().putLong(dst + 8, Unsafe.getUnsafe().getLong(src + 8) - first);
+        Unsafe.getUnsafe().putLong(dst + 16, width);
+        final long packed = dst + PACKED_HEADER_SIZE + 8;
+        Vect.memset(packed, packedSize(n - 2, width), 0);
+        prev = Unsafe.getUnsafe().getLong(src + 8);
+        prevDelta = prev - first;
+        for (int i = 2; i < n; i++) {
+            final long value = Unsafe.getUnsafe().getLong(src + ((long) i << 3));
+            final long delta = value - prev;
+            final long dod = delta - prevDelta;
+            writeBits(packed, (long) (i - 2) * width, width, (dod << 1) ^ (dod >> 63));
+            prev = value;
+            prevDelta = delta;
+        }
+        return (int) encLen;
+    }
+
+    private int encodeFor(long src, int rawLen, int valueSize, long dst) {
+        if (rawLen % valueSize != 0) {
+            return -1;
+        }
+        final int n = rawLen / valueSize;
+        long min = Long.MAX_VALUE;
+        long max = Long.MIN_VALUE;
+        for (int i = 0; i < n; i++) {
+            final long value = getValue(src + (long) i * valueSize, valueSize);
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+        }
+        // the difference is treated as unsigned, it cannot overflow 64 bits
+        final int width = 64 - Long.numberOfLeadingZeros(max - min);
+        final long encLen = PACKED_HEADER_SIZE + packedSize(n, width);
+        if (width >= valueSize * 8 || encLen >= rawLen) {
+            return -1;
+        }
+
+        Unsafe.getUnsafe().putLong(dst, min);
+        Unsafe.getUnsafe().putLong(dst + 8, width);
+        final long packed = dst + PACKED_HEADER_SIZE;
+        Vect.memset(packed, packedSize(n, width), 0);
+        for (int i = 0; i < n; i++) {
+            writeBits(packed, (long) i * width, width, getValue(src + (long) i * valueSize, valueSize) - min);
+        }
+        return (int) encLen;
+    }
+
+    private void ensureDecodeBuf(long size) {
+        if (decodeBufSize < size) {
+            decodeBuf = Unsafe.realloc(decodeBuf, decodeBufSize, size, MemoryTag.NATIVE_DEFAULT);
+            decodeBufSize = size;
+        }
+    }
+
+    private void ensureEncodeBuf(long size) {
+        if (encodeBufSize < size) {
+            encodeBuf = Unsafe.realloc(encodeBuf, encodeBufSize, size, MemoryTag.NATIVE_DEFAULT);
+            encodeBufSize = size;
+        }
+    }
+
+    private void ensureHeapBuffers(int len) {
+        if (heapIn.length < len) {
+            heapIn = new byte[len];
+            heapOut = new byte[len];
+        }
+    }
+
+    private void inflate(long src, int encLen, long dst, int rawLen) {
+        if (inflater == null) {
+            inflater = new Inflater();
+        }
+        ensureHeapBuffers(Math.max(encLen, rawLen));
+        Unsafe.getUnsafe().copyMemory(null, src, heapIn, Unsafe.BYTE_OFFSET, encLen);
+        inflater.reset();
+        inflater.setInput(heapIn, 0, encLen);
+        try {
+            if (inflater.inflate(heapOut, 0, rawLen) != rawLen || !inflater.finished()) {
+                throw corrupt("deflate block size mismatch", rawLen);
+            }
+        } catch (DataFormatException e) {
+            throw corrupt("invalid deflate block", encLen);
+        }
+        Unsafe.getUnsafe().copyMemory(heapOut, Unsafe.BYTE_OFFSET, null, dst, rawLen);
+    }
+}
@@ -38,6 +38,7 @@ public class ColumnIndexerJob extends AbstractQueueConsumerJob<ColumnIndexerTask
     protected boolean doRun(int workerId, long cursor, RunStatus runStatus) {
         final ColumnIndexerTask queueItem = queue.get(cursor);
         // copy values and release queue item
+        final BloomFilterWriter bloomFilterWriter = queueItem.bloomFilterWriter;
         final ColumnIndexer indexer = queueItem.indexer;
         final long lo = queueItem.lo;
         final long hi = queueItem.hi;
@@ -49,6 +50,14 @@ public class ColumnIndexerJob extends AbstractQueueConsumerJob<ColumnIndexerTask
         // child workers. The reason it is undesirable is that all writers
         // share the same queue and main thread end up indexing content for other writers.
         // Using CAS allows main thread to steal only parts of its own job.
+        if (bloomFilterWriter != null) {
+            if (bloomFilterWriter.tryLock(indexSequence)) {
+                TableWriter.buildBloomFilterAndCountDown(bloomFilterWriter, latch);
+                return true;
+            }
+            return false;
+        }
+
         if (indexer.tryLock(indexSequence)) {
             TableWriter.indexAndCountDown(indexer, lo, hi, latch);
             return true;
@@ -324,6 +324,24 @@ public class ColumnPurgeOperator implements Closeable {
                     }
                 }
 
+                if (ZoneMapUtils.isSupported(columnType)) {
+                    path.trimTo(pathTrimToPartition);
+                    ZoneMapUtils.zoneMapFileName(path, columnName, columnVersion);
+                    if (couldNotRemove(ff, path)) {
+                        allDone = false;
+                        continue;
+                    }
+                }
+
+                if (BloomFilterUtils.isSupported(columnType)) {
+                    path.trimTo(pathTrimToPartition);
+                    BloomFilterUtils.bloomFilterFileName(path, columnName, columnVersion);
+                    if (couldNotRemove(ff, path)) {
+                        allDone = false;
+                        continue;
+                    }
+                }
+
                 // Check if it's symbol, try remove .k and .v files in the partition
                 if (ColumnType.isSymbol(columnType)) {
                     if (isSymbolRootFiles) {
@@ -47,6 +47,7 @@ public class DefaultCairoConfiguration implements CairoConfiguration {
     private final LongSupplier importIDSupplier = () -> getRandom().nextPositiveLong();
     private final String root;
     private final CharSequence snapshotRoot;
+    private final String sortSpillRoot;
     private final DefaultTelemetryConfiguration telemetryConfiguration = new DefaultTelemetryConfiguration();
     private final TextConfiguration textConfiguration;
     private final VolumeDefinitions volumeDefinitions = new VolumeDefinitions();
@@ -57,6 +58,7 @@ public class DefaultCairoConfiguration implements CairoConfiguration {
         this.confRoot = PropServerConfiguration.rootSubdir(root, PropServerConfiguration.CONFIG_DIRECTORY);
         this.textConfiguration = new DefaultTextConfiguration(Chars.toString(confRoot));
         this.snapshotRoot = PropServerConfiguration.rootSubdir(root, PropServerConfiguration.SNAPSHOT_DIRECTORY);
+        this.sortSpillRoot = PropServerConfiguration.rootSubdir(root, PropServerConfiguration.TMP_DIRECTORY) + Files.SEPARATOR + PropServerConfiguration.SORT_SPILL_DIRECTORY;
         Rnd rnd = new Rnd(NanosecondClockImpl.INSTANCE.getTicks(), MicrosecondClockImpl.INSTANCE.getTicks());
         this.databaseIdLo = rnd.nextLong();
         this.databaseIdHi = rnd.nextLong();
@@ -113,6 +115,11 @@ public class DefaultCairoConfiguration implements CairoConfiguration {
         return 8;
     }
 
+    @Override
+    public int getBloomFilterBitsPerKey() {
+        return 10;
+    }
+
     @Override
     public @NotNull BuildInformation getBuildInformation() {
         return buildInformation;
@@ -333,6 +340,11 @@ public class DefaultCairoConfiguration implements CairoConfiguration {
         return 1000;
     }
 
+    @Override
+    public long getGroupByVectorKeyEncodingMaxCardinality() {
+        return 0;
+    }
+
     @Override
     public long getIdleCheckInterval() {
         return 100;
@@ -438,6 +450,11 @@ public class DefaultCairoConfiguration implements CairoConfiguration {
         return 1024;
     }
 
+    @Override
+    public int getO3DedupParallelMergeThreshold() {
+        return 1_000_000;
+    }
+
     @Override
     public int getO3LagCalculationWindowsSize() {
         return 4;
@@ -469,6 +486,11 @@ public class DefaultCairoConfiguration implements CairoConfiguration {
         return 1024;
     }
 
+    @Override
+    public int getO3ParallelSortThreshold() {
+        return 1_000_000;
+    }
+
     @Override
     public int getO3PartitionQueueCapacity() {
         return 1024;
@@ -579,6 +601,11 @@ public class DefaultCairoConfiguration implements CairoConfiguration {
         return snapshotRoot;
     }
 
+    @Override
+    public int getSortRunQueueCapacity() {
+        return 32;
+    }
+
     @Override
     public long getSpinLockTimeout() {
         return 5000;
@@ -766,6 +793,26 @@ public class DefaultCairoConfiguration implements CairoConfiguration {
         return 1_000;
     }
 
+    @Override
+    public int getSqlParallelFilterReadAheadBufferSize() {
+        return 1024 * 1024;
+    }
+
+    @Override
+    public int getSqlParallelFilterReadAheadFrames() {
+        return 4;
+    }
+
+    @Override
+    public int getSqlResultCacheMaxRows() {
+        return 100_000;
+    }
+
+    @Override
+    public long getSqlResultCacheMemoryBudget() {
+        return 64 * Numbers.SIZE_1MB;
+    }
+
     @Override
     public int getSqlSmallMapKeyCapacity() {
         return 64;
@@ -796,6 +843,16 @@ public class DefaultCairoConfiguration implements CairoConfiguration {
         return 8 * Numbers.SIZE_1MB;
     }
 
+    @Override
+    public long getSqlSortRunMaxSize() {
+        return 64 * Numbers.SIZE_1MB;
+    }
+
+    @Override
+    public @NotNull CharSequence getSqlSortSpillRoot() {
+        return sortSpillRoot;
+    }
+
     @Override
     public int getSqlSortValueMaxPages() {
         return 1024;
@@ -926,6 +983,11 @@ public class DefaultCairoConfiguration implements CairoConfiguration {
         return 20;
     }
 
+    @Override
+    public int getWalApplySquashMaxTxnCount() {
+        return 20;
+    }
+
     @Override
     public long getWalApplyTableTimeQuota() {
         return 1000L;
@@ -981,6 +1043,11 @@ public class DefaultCairoConfiguration implements CairoConfiguration {
         return 0;  // watermark level disabled.
     }
 
+    @Override
+    public int getWalSharedSymbolCacheMaxSize() {
+        return 100_000;
+    }
+
     @Override
     public double getWalSquashUncommittedRowsMultiplier() {
         return 20;
@@ -996,6 +1063,11 @@ public class DefaultCairoConfiguration implements CairoConfiguration {
         return 5;
     }
 
+    @Override
+    public int getWindowChunkQueueCapacity() {
+        return 32;
+    }
+
     @Override
     public int getWindowColumnPoolCapacity() {
         return 64;
@@ -1045,6 +1117,16 @@ public class DefaultCairoConfiguration implements CairoConfiguration {
         return 1024 - 1;
     }
 
+    @Override
+    public int getZoneMapBlockRows() {
+        return 65536;
+    }
+
+    @Override
+    public boolean isBloomFilterEnabled() {
+        return false;
+    }
+
     @Override
     public boolean isGroupByPresizeEnabled() {
         return true;
@@ -1085,21 +1167,66 @@ public class DefaultCairoConfiguration implements CairoConfiguration {
         return false;
     }
 
+    @Override
+    public boolean isSqlJitPartialFilterEnabled() {
+        return true;
+    }
+
     @Override
     public boolean isSqlParallelFilterEnabled() {
         return true;
     }
 
+    @Override
+    public boolean isSqlParallelFilterBatchEnabled() {
+        return true;
+    }
+
     @Override
     public boolean isSqlParallelFilterPreTouchEnabled() {
         return true;
     }
 
+    @Override
+    public boolean isSqlParallelFilterReadAheadEnabled() {
+        return false;
+    }
+
     @Override
     public boolean isSqlParallelGroupByEnabled() {
         return true;
     }
 
+    @Override
+    public boolean isSqlParallelHashJoinEnabled() {
+        return false;
+    }
+
+    @Override
+    public boolean isSqlParallelSampleByEnabled() {
+        return false;
+    }
+
+    @Override
+    public boolean isSqlParallelSortEnabled() {
+        return false;
+    }
+
+    @Override
+    public boolean isSqlParallelTopKEnabled() {
+        return false;
+    }
+
+    @Override
+    public boolean isSqlParallelWindowEnabled() {
+        return false;
+    }
+
+    @Override
+    public boolean isSqlResultCacheEnabled() {
+        return false;
+    }
+
     @Override
     public boolean isTableTypeConversionEnabled() {
         return true;
@@ -1110,16 +1237,31 @@ public class DefaultCairoConfiguration implements CairoConfiguration {
         return true;
     }
 
+    @Override
+    public boolean isWalApplyParallelSymbolRemapEnabled() {
+        return true;
+    }
+
     @Override
     public boolean isWalSupported() {
         return true;
     }
 
+    @Override
+    public boolean isWalWriterBufferedAppendEnabled() {
+        return false;
+    }
+
     @Override
     public boolean isWriterMixedIOEnabled() {
         return writerMixedIOEnabled;
     }
 
+    @Override
+    public boolean isZoneMapEnabled() {
+        return false;
+    }
+
     @Override
     public boolean mangleTableDirNames() {
         return false;
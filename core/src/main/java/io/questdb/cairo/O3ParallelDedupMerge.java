@@ -0,0 +1,204 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.cairo;
+
+import io.questdb.MessageBus;
+import io.questdb.mp.RingQueue;
+import io.questdb.mp.SOUnboundedCountDownLatch;
+import io.questdb.mp.Sequence;
+import io.questdb.std.LongList;
+import io.questdb.std.Unsafe;
+import io.questdb.std.Vect;
+import io.questdb.tasks.ColumnTask;
+
+import static io.questdb.cairo.TableWriter.TIMESTAMP_MERGE_ENTRY_BYTES;
+
+/**
+ * Deduplicating merge of a single partition split into timestamp sub-ranges, merged concurrently
+ * on column task workers. Sub-ranges are cut at timestamp boundaries in both the partition data and
+ * the O3 index, so the rows dedup compares with each other always end up in the same sub-range.
+ * Every sub-range uses the same native merge as the single-threaded path, including the typed key
+ * comparers for fixed-size dedup keys, and writes its output at the position of its first input row.
+ * The outputs are then compacted into one contiguous merge index.
+ */
+public class O3ParallelDedupMerge implements TableWriter.ColumnTaskHandler {
+    private static final int RANGE_DATA_HI = 1;
+    private static final int RANGE_DATA_LO = 0;
+    private static final int RANGE_DEST_ADDR = 4;
+    private static final int RANGE_OOO_HI = 3;
+    private static final int RANGE_OOO_LO = 2;
+    private static final int RANGE_ROW_COUNT = 5;
+    private static final int RANGE_SIZE = 6;
+    private final SOUnboundedCountDownLatch doneLatch = new SOUnboundedCountDownLatch();
+    private final LongList ranges = new LongList();
+    private long dedupColBuffs;
+    private int dedupKeyCount;
+    private long sortedTimestampsAddr;
+    private long srcTimestampAddr;
+
+    /**
+     * Merges partition rows [dataLo, dataHi] with O3 rows [oooLo, oooHi], both inclusive, removing
+     * duplicates the same way as {@link Vect#mergeDedupTimestampWithLongIndexAsc} when dedupKeyCount
+     * is 0, and as {@link Vect#mergeDedupTimestampWithLongIndexIntKeys} otherwise.
+     *
+     * @return number of rows written to the destination index
+     */
+    public long merge(
+            MessageBus messageBus,
+            long srcTimestampAddr,
+            long dataLo,
+            long dataHi,
+            long sortedTimestampsAddr,
+            long oooLo,
+            long oooHi,
+            long destIndexAddr,
+            int dedupKeyCount,
+            long dedupColBuffs
+    ) {
+        this.srcTimestampAddr = srcTimestampAddr;
+        this.sortedTimestampsAddr = sortedTimestampsAddr;
+        this.dedupKeyCount = dedupKeyCount;
+        this.dedupColBuffs = dedupColBuffs;
+
+        final int rangeCount = TableWriter.getO3ParallelTaskCount(messageBus);
+        splitRanges(rangeCount, dataLo, dataHi, oooLo, oooHi, destIndexAddr);
+
+        final Sequence pubSeq = messageBus.getColumnTaskPubSeq();
+        final RingQueue<ColumnTask> queue = messageBus.getColumnTaskQueue();
+        doneLatch.reset();
+        int queuedCount = 0;
+        for (int i = 0; i < rangeCount; i++) {
+            long cursor = pubSeq.next();
+            if (cursor > -1) {
+                try {
+                    queue.get(cursor).of(doneLatch, i, ColumnType.TIMESTAMP, -1, 0, 0, 0, 0, 0, this);
+                } finally {
+                    queuedCount++;
+                    pubSeq.done(cursor);
+                }
+            } else {
+                run(i, ColumnType.TIMESTAMP, -1, 0, 0, 0, 0, 0);
+            }
+        }
+        TableWriter.consumeColumnTasks0(queue, queuedCount, messageBus.getColumnTaskSubSeq(), doneLatch);
+
+        long rowCount = 0;
+        for (int i = 0; i < rangeCount; i++) {
+            final int range = i * RANGE_SIZE;
+            final long rangeRowCount = ranges.getQuick(range + RANGE_ROW_COUNT);
+            final long rangeAddr = ranges.getQuick(range + RANGE_DEST_ADDR);
+            final long dst = destIndexAddr + rowCount * TIMESTAMP_MERGE_ENTRY_BYTES;
+            if (rangeAddr != dst && rangeRowCount > 0) {
+                Vect.memmove(dst, rangeAddr, rangeRowCount * TIMESTAMP_MERGE_ENTRY_BYTES);
+            }
+            rowCount += rangeRowCount;
+        }
+        return rowCount;
+    }
+
+    @Override
+    public void run(int rangeIndex, int columnType, int timestampColumnIndex, long long0, long long1, long long2, long long3, long long4) {
+        final int range = rangeIndex * RANGE_SIZE;
+        final long dataLo = ranges.getQuick(range + RANGE_DATA_LO);
+        final long dataHi = ranges.getQuick(range + RANGE_DATA_HI);
+        final long oooLo = ranges.getQuick(range + RANGE_OOO_LO);
+        final long oooHi = ranges.getQuick(range + RANGE_OOO_HI);
+        final long destAddr = ranges.getQuick(range + RANGE_DEST_ADDR);
+        final long rowCount;
+        if (dataLo > dataHi && oooLo > oooHi) {
+            rowCount = 0;
+        } else if (dedupKeyCount == 0) {
+            rowCount = Vect.mergeDedupTimestampWithLongIndexAsc(
+                    srcTimestampAddr,
+                    dataLo,
+                    dataHi,
+                    sortedTimestampsAddr,
+                    oooLo,
+                    oooHi,
+                    destAddr
+            );
+        } else {
+            rowCount = Vect.mergeDedupTimestampWithLongIndexIntKeys(
+                    srcTimestampAddr,
+                    dataLo,
+                    dataHi,
+                    sortedTimestampsAddr,
+                    oooLo,
+                    oooHi,
+                    destAddr,
+                    dedupKeyCount,
+                    dedupColBuffs
+            );
+        }
+        ranges.setQuick(range + RANGE_ROW_COUNT, rowCount);
+    }
+
+    // first row in [lo, hi] with timestamp >= value, or hi + 1 when there is none
+    private static long lowerBound(long addr, long stride, long value, long lo, long hi) {
+        long high = hi + 1;
+        while (lo < high) {
+            final long mid = (lo + high) >>> 1;
+            if (Unsafe.getUnsafe().getLong(addr + mid * stride) < value) {
+                lo = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return lo;
+    }
+
+    private void splitRanges(int rangeCount, long dataLo, long dataHi, long oooLo, long oooHi, long destIndexAddr) {
+        final long dataCount = dataHi - dataLo + 1;
+        final long oooCount = oooHi - oooLo + 1;
+        ranges.setPos(rangeCount * RANGE_SIZE);
+        long dataPos = dataLo;
+        long oooPos = oooLo;
+        for (int i = 0; i < rangeCount; i++) {
+            final long dataCut;
+            final long oooCut;
+            if (i < rangeCount - 1) {
+                // cut timestamps are sampled from the larger side to keep the ranges balanced
+                final long cutTimestamp = dataCount >= oooCount
+                        ? Unsafe.getUnsafe().getLong(srcTimestampAddr + (dataLo + dataCount * (i + 1) / rangeCount) * Long.BYTES)
+                        : TableWriter.getTimestampIndexValue(sortedTimestampsAddr, oooLo + oooCount * (i + 1) / rangeCount);
+                dataCut = lowerBound(srcTimestampAddr, Long.BYTES, cutTimestamp, dataPos, dataHi);
+                oooCut = lowerBound(sortedTimestampsAddr, TIMESTAMP_MERGE_ENTRY_BYTES, cutTimestamp, oooPos, oooHi);
+            } else {
+                dataCut = dataHi + 1;
+                oooCut = oooHi + 1;
+            }
+            final int range = i * RANGE_SIZE;
+            ranges.setQuick(range + RANGE_DATA_LO, dataPos);
+            ranges.setQuick(range + RANGE_DATA_HI, dataCut - 1);
+            ranges.setQuick(range + RANGE_OOO_LO, oooPos);
+            ranges.setQuick(range + RANGE_OOO_HI, oooCut - 1);
+            ranges.setQuick(range + RANGE_DEST_ADDR, destIndexAddr + (dataPos - dataLo + oooPos - oooLo) * TIMESTAMP_MERGE_ENTRY_BYTES);
+            ranges.setQuick(range + RANGE_ROW_COUNT, 0);
+            dataPos = dataCut;
+            oooPos = oooCut;
+        }
+    }
+}
@@ -34,6 +34,7 @@ import io.questdb.log.LogFactory;
 import io.questdb.mp.AbstractQueueConsumerJob;
 import io.questdb.mp.Sequence;
 import io.questdb.std.*;
+import io.questdb.std.ThreadLocal;
 import io.questdb.std.str.Path;
 import io.questdb.tasks.O3OpenColumnTask;
 import io.questdb.tasks.O3PartitionTask;
@@ -47,6 +48,7 @@ import static io.questdb.cairo.TableWriter.*;
 public class O3PartitionJob extends AbstractQueueConsumerJob<O3PartitionTask> {
 
     private static final Log LOG = LogFactory.getLog(O3PartitionJob.class);
+    private static final ThreadLocal<O3ParallelDedupMerge> tlParallelDedupMerge = new ThreadLocal<>(O3ParallelDedupMerge::new);
 
     public O3PartitionJob(MessageBus messageBus) {
         super(messageBus.getO3PartitionQueue(), messageBus.getO3PartitionSubSeq());
@@ -750,6 +752,20 @@ public class O3PartitionJob extends AbstractQueueConsumerJob<O3PartitionTask> {
             long tempIndexAddr
     ) {
         if (dedupCommitAddresses == null || dedupCommitAddresses.getColumnCount() == 0) {
+            if (isParallelDedupMerge(tableWriter, mergeDataLo, mergeDataHi, mergeOOOLo, mergeOOOHi)) {
+                return tlParallelDedupMerge.get().merge(
+                        tableWriter.getMessageBus(),
+                        srcTimestampAddr,
+                        mergeDataLo,
+                        mergeDataHi,
+                        sortedTimestampsAddr,
+                        mergeOOOLo,
+                        mergeOOOHi,
+                        tempIndexAddr,
+                        0,
+                        0
+                );
+            }
             return Vect.mergeDedupTimestampWithLongIndexAsc(
                     srcTimestampAddr,
                     mergeDataLo,
@@ -856,6 +872,20 @@ public class O3PartitionJob extends AbstractQueueConsumerJob<O3PartitionTask> {
                 }
             }
 
+            if (isParallelDedupMerge(tableWriter, mergeDataLo, mergeDataHi, mergeOOOLo, mergeOOOHi)) {
+                return tlParallelDedupMerge.get().merge(
+                        tableWriter.getMessageBus(),
+                        srcTimestampAddr,
+                        mergeDataLo,
+                        mergeDataHi,
+                        sortedTimestampsAddr,
+                        mergeOOOLo,
+                        mergeOOOHi,
+                        tempIndexAddr,
+                        dedupCommitAddresses.getColumnCount(),
+                        dedupCommitAddresses.getAddress(dedupColSinkAddr)
+                );
+            }
             return Vect.mergeDedupTimestampWithLongIndexIntKeys(
                     srcTimestampAddr,
                     mergeDataLo,
@@ -882,6 +912,11 @@ public class O3PartitionJob extends AbstractQueueConsumerJob<O3PartitionTask> {
         }
     }
 
+    private static boolean isParallelDedupMerge(TableWriter tableWriter, long mergeDataLo, long mergeDataHi, long mergeOOOLo, long mergeOOOHi) {
+        final int threshold = tableWriter.getConfiguration().getO3DedupParallelMergeThreshold();
+        return threshold > 0 && mergeDataHi - mergeDataLo + 1 + mergeOOOHi - mergeOOOLo + 1 >= threshold;
+    }
+
     private static void publishOpenColumnTaskContended(
             long cursor,
             int openColumnMode,
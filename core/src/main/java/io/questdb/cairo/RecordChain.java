@@ -55,9 +55,22 @@ public class RecordChain implements Closeable, RecordCursor, Mutable, RecordSink
             @NotNull RecordSink recordSink,
             long pageSize,
             int maxPages
+    ) {
+        this(columnTypes, recordSink, Vm.getARWInstance(pageSize, maxPages, MemoryTag.NATIVE_RECORD_CHAIN));
+    }
+
+    /**
+     * Creates chain on top of the given memory, which the chain takes ownership of.
+     * Since all record references are offsets, the memory can be file-backed, e.g.
+     * to spill records to disk.
+     */
+    public RecordChain(
+            @Transient @NotNull ColumnTypes columnTypes,
+            @NotNull RecordSink recordSink,
+            @NotNull MemoryARW mem
     ) {
         try {
-            this.mem = Vm.getARWInstance(pageSize, maxPages, MemoryTag.NATIVE_RECORD_CHAIN);
+            this.mem = mem;
             this.recordSink = recordSink;
             int count = columnTypes.getColumnCount();
             long varOffset = 0L;
@@ -150,6 +163,13 @@ public class RecordChain implements Closeable, RecordCursor, Mutable, RecordSink
         return recordB;
     }
 
+    /**
+     * Returns number of bytes taken by the records appended so far.
+     */
+    public long getUsedHeapSize() {
+        return varAppendOffset;
+    }
+
     @Override
     public boolean hasNext() {
         if (nextRecordOffset != -1) {
@@ -161,6 +181,14 @@ public class RecordChain implements Closeable, RecordCursor, Mutable, RecordSink
         return false;
     }
 
+    /**
+     * Creates a record, which is not shared with any other user of the chain. Records
+     * can be used to read the chain from multiple threads once the chain is populated.
+     */
+    public Record newRecord() {
+        return new RecordChainRecord();
+    }
+
     public void of(long nextRecordOffset) {
         this.nextRecordOffset = nextRecordOffset;
     }
@@ -186,6 +214,18 @@ public class RecordChain implements Closeable, RecordCursor, Mutable, RecordSink
         }
     }
 
+    /**
+     * Replaces the chain content with a copy of records previously appended to another chain
+     * with the same column types. The block starts at the {@link #addressOf(long) address} of
+     * the first record and is {@link #getUsedHeapSize()} bytes long.
+     */
+    public void putBlock(long address, long size) {
+        mem.jumpTo(0);
+        mem.putBlockOfBytes(address, size);
+        varAppendOffset = size;
+        nextRecordOffset = -1L;
+    }
+
     @Override
     public void putBool(boolean value) {
         mem.putBool(value);
@@ -484,11 +524,18 @@ public class RecordChain implements Closeable, RecordCursor, Mutable, RecordSink
 
         @Override
         public CharSequence getSymA(int col) {
+            if (symbolTableResolver == null) {
+                // symbol values were written as strings
+                return getStrA(col);
+            }
             return symbolTableResolver.getSymbolTable(col).valueOf(getInt(col));
         }
 
         @Override
         public CharSequence getSymB(int col) {
+            if (symbolTableResolver == null) {
+                return getStrB(col);
+            }
             return symbolTableResolver.getSymbolTable(col).valueBOf(getInt(col));
         }
 
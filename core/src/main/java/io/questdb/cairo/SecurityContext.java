@@ -67,6 +67,8 @@ public interface SecurityContext extends Mutable {
 
     void authorizeAlterTableSetType(TableToken tableToken);
 
+    void authorizeAlterTableSetWalPriority(TableToken tableToken);
+
     default void authorizeCancelQuery() {
     }
 
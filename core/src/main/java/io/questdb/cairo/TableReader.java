@@ -27,6 +27,8 @@ package io.questdb.cairo;
 import io.questdb.MessageBus;
 import io.questdb.cairo.sql.StaticSymbolTable;
 import io.questdb.cairo.sql.SymbolTableSource;
+import io.questdb.cairo.vm.CompressedBlockCache;
+import io.questdb.cairo.vm.MemoryCMRCompressedImpl;
 import io.questdb.cairo.vm.NullMemoryMR;
 import io.questdb.cairo.vm.Vm;
 import io.questdb.cairo.vm.api.MemoryMR;
@@ -46,7 +48,10 @@ import java.io.Closeable;
 import static io.questdb.cairo.TableUtils.TXN_FILE_NAME;
 
 public class TableReader implements Closeable, SymbolTableSource {
+    // enough to keep A and B values of aux and data blocks of every column alive while records are compared
+    private static final int COMPRESSED_BLOCK_CACHE_SLOTS_PER_COLUMN = 4;
     private static final Log LOG = LogFactory.getLog(TableReader.class);
+    private static final int MIN_COMPRESSED_BLOCK_CACHE_SLOTS = 16;
     private static final int PARTITIONS_SLOT_OFFSET_COLUMN_VERSION = 3;
     private static final int PARTITIONS_SLOT_OFFSET_NAME_TXN = 2;
     private static final int PARTITIONS_SLOT_OFFSET_SIZE = 1;
@@ -69,6 +74,8 @@ public class TableReader implements Closeable, SymbolTableSource {
     private final TxReader txFile;
     private final TxnScoreboard txnScoreboard;
     private ObjList<BitmapIndexReader> bitmapIndexes;
+    // decoded blocks of compressed partitions, shared by all their column memories
+    private CompressedBlockCache compressedBlockCache;
     private int columnCount;
     private int columnCountShl;
     private LongList columnTops;
@@ -179,6 +186,7 @@ public class TableReader implements Closeable, SymbolTableSource {
             Misc.free(todoMem);
             freeColumns();
             freeTempMem();
+            compressedBlockCache = Misc.free(compressedBlockCache);
             Misc.free(txnScoreboard);
             Misc.free(path);
             Misc.free(columnVersionReader);
@@ -338,6 +346,10 @@ public class TableReader implements Closeable, SymbolTableSource {
     }
 
     public void goPassive() {
+        if (compressedBlockCache != null) {
+            // pooled readers do not hold decompressed data
+            compressedBlockCache.clear();
+        }
         if (releaseTxn() && PartitionBy.isPartitioned(partitionBy)) {
             // check if reader unlocks a transaction in scoreboard
             // to house keep the partition versions
@@ -373,6 +385,54 @@ public class TableReader implements Closeable, SymbolTableSource {
         return tempMem8b != 0L;
     }
 
+    /**
+     * Maps Bloom filter of the column in the given partition, see {@link BloomFilterUtils}.
+     * Partition must be open.
+     *
+     * @param partitionIndex    partition index
+     * @param columnIndex       column index
+     * @param bloomFilterReader reader to map the filter into
+     * @return false when the column has no Bloom filter in the partition
+     */
+    public boolean loadBloomFilter(int partitionIndex, int columnIndex, BloomFilterReader bloomFilterReader) {
+        final int columnType = metadata.getColumnType(columnIndex);
+        if (!BloomFilterUtils.isSupported(columnType)) {
+            return false;
+        }
+        final long partitionTimestamp = txFile.getPartitionTimestampByIndex(partitionIndex);
+        final long columnNameTxn = columnVersionReader.getColumnNameTxn(partitionTimestamp, metadata.getWriterIndex(columnIndex));
+        Path path = pathGenPartitioned(partitionIndex);
+        try {
+            return bloomFilterReader.of(BloomFilterUtils.bloomFilterFileName(path, metadata.getColumnName(columnIndex), columnNameTxn), columnType);
+        } finally {
+            path.trimTo(rootLen);
+        }
+    }
+
+    /**
+     * Loads zone map of the column in the given partition, see {@link ZoneMapUtils}.
+     * Partition must be open.
+     *
+     * @param partitionIndex partition index
+     * @param columnIndex    column index
+     * @param zoneMapReader  reader to load the zone map into
+     * @return false when the column has no zone map in the partition
+     */
+    public boolean loadZoneMap(int partitionIndex, int columnIndex, ZoneMapReader zoneMapReader) {
+        final int columnType = metadata.getColumnType(columnIndex);
+        if (!ZoneMapUtils.isSupported(columnType)) {
+            return false;
+        }
+        final long partitionTimestamp = txFile.getPartitionTimestampByIndex(partitionIndex);
+        final long columnNameTxn = columnVersionReader.getColumnNameTxn(partitionTimestamp, metadata.getWriterIndex(columnIndex));
+        Path path = pathGenPartitioned(partitionIndex);
+        try {
+            return zoneMapReader.of(ZoneMapUtils.zoneMapFileName(path, metadata.getColumnName(columnIndex), columnNameTxn), columnType);
+        } finally {
+            path.trimTo(rootLen);
+        }
+    }
+
     @Override
     public StaticSymbolTable newSymbolTable(int columnIndex) {
         return getSymbolMapReader(columnIndex).newSymbolTableView();
@@ -501,6 +561,12 @@ public class TableReader implements Closeable, SymbolTableSource {
         return Numbers.msb(Numbers.ceilPow2(columnCount) * 2);
     }
 
+    // compressed aux memory is not contiguous, the last aux entry is addressed via its own offset
+    private static long getDataVectorSize(ColumnTypeDriver columnTypeDriver, MemoryR auxMem, long rowCount) {
+        final long auxOffset = columnTypeDriver.getAuxVectorSize(rowCount) - 1;
+        return columnTypeDriver.getDataVectorSizeAt(auxMem.addressOf(auxOffset) - auxOffset, rowCount - 1);
+    }
+
     private static void growColumn(MemoryR mem1, MemoryR mem2, int columnType, long rowCount) {
         if (rowCount > 0) {
             if (ColumnType.isVarSize(columnType)) {
@@ -508,7 +574,7 @@ public class TableReader implements Closeable, SymbolTableSource {
                 ColumnTypeDriver columnTypeDriver = ColumnType.getDriver(columnType);
                 mem2.extend(columnTypeDriver.getAuxVectorSize(rowCount));
                 if (mem1 != null) {
-                    mem1.extend(columnTypeDriver.getDataVectorSizeAt(mem2.addressOf(0), rowCount - 1));
+                    mem1.extend(getDataVectorSize(columnTypeDriver, mem2, rowCount));
                 }
             } else {
                 mem1.extend(rowCount << ColumnType.pow2SizeOf(columnType));
@@ -779,6 +845,13 @@ public class TableReader implements Closeable, SymbolTableSource {
         }
     }
 
+    private CompressedBlockCache getCompressedBlockCache() {
+        if (compressedBlockCache == null) {
+            compressedBlockCache = new CompressedBlockCache(Math.max(MIN_COMPRESSED_BLOCK_CACHE_SLOTS, COMPRESSED_BLOCK_CACHE_SLOTS_PER_COLUMN * columnCount));
+        }
+        return compressedBlockCache;
+    }
+
     private void insertPartition(int partitionIndex, long timestamp) {
         final int columnBase = getColumnBase(partitionIndex);
         final int columnSlotSize = getColumnBase(1);
@@ -834,12 +907,17 @@ public class TableReader implements Closeable, SymbolTableSource {
             ObjList<MemoryMR> columns,
             int primaryIndex,
             @Nullable MemoryMR mem,
-            long columnSize
+            long columnSize,
+            boolean isCompressed
     ) {
-        if (mem != null && mem != NullMemoryMR.INSTANCE) {
+        if (mem != null && mem != NullMemoryMR.INSTANCE && isCompressed == mem instanceof MemoryCMRCompressedImpl) {
             mem.of(ff, path, columnSize, columnSize, MemoryTag.MMAP_TABLE_READER);
         } else {
-            mem = Vm.getMRInstance(ff, path, columnSize, MemoryTag.MMAP_TABLE_READER, true);
+            // partition could have been compressed since the memory was opened
+            Misc.free(mem);
+            mem = isCompressed
+                    ? Vm.getMRCompressedInstance(ff, path, columnSize, getCompressedBlockCache(), true)
+                    : Vm.getMRInstance(ff, path, columnSize, MemoryTag.MMAP_TABLE_READER, true);
             columns.setQuick(primaryIndex, mem);
         }
         return mem;
@@ -1068,6 +1146,7 @@ public class TableReader implements Closeable, SymbolTableSource {
                 columnTxn = columnVersionReader.getDefaultColumnNameTxn(writerIndex);
             }
             final long columnRowCount = partitionRowCount - columnTop;
+            final boolean isCompressed = txFile.isPartitionCompressed(partitionIndex);
 
             // When column is added mid-table existence the top record is only
             // created in the current partition. Older partitions would simply have no
@@ -1082,15 +1161,15 @@ public class TableReader implements Closeable, SymbolTableSource {
                     long auxSize = columnTypeDriver.getAuxVectorSize(columnRowCount);
                     TableUtils.iFile(path.trimTo(plen), name, columnTxn);
                     MemoryMR auxMem = columns.getQuick(secondaryIndex);
-                    auxMem = openOrCreateMemory(path, columns, secondaryIndex, auxMem, auxSize);
-                    long dataSize = columnTypeDriver.getDataVectorSizeAt(auxMem.addressOf(0), columnRowCount - 1);
+                    auxMem = openOrCreateMemory(path, columns, secondaryIndex, auxMem, auxSize, isCompressed);
+                    long dataSize = getDataVectorSize(columnTypeDriver, auxMem, columnRowCount);
                     if (dataSize < columnTypeDriver.getDataVectorMinEntrySize() || dataSize >= (1L << 40)) {
                         LOG.critical().$("Invalid var len column size [column=").$(name).$(", size=").$(dataSize).$(", path=").$(path).I$();
                         throw CairoException.critical(0).put("Invalid column size [column=").put(path).put(", size=").put(dataSize).put(']');
                     }
                     if (columnRowCount > 0) {
                         TableUtils.dFile(path.trimTo(plen), name, columnTxn);
-                        openOrCreateMemory(path, columns, primaryIndex, dataMem, dataSize);
+                        openOrCreateMemory(path, columns, primaryIndex, dataMem, dataSize, isCompressed);
                     }
                 } else {
                     TableUtils.dFile(path.trimTo(plen), name, columnTxn);
@@ -1099,7 +1178,8 @@ public class TableReader implements Closeable, SymbolTableSource {
                             columns,
                             primaryIndex,
                             dataMem,
-                            columnRowCount << ColumnType.pow2SizeOf(columnType)
+                            columnRowCount << ColumnType.pow2SizeOf(columnType),
+                            isCompressed
                     );
                     Misc.free(columns.getAndSetQuick(secondaryIndex, null));
                 }
@@ -79,6 +79,9 @@ public final class TableUtils {
     public static final long META_OFFSET_TABLE_ID = 16;
     public static final long META_OFFSET_TIMESTAMP_INDEX = 8;
     public static final long META_OFFSET_VERSION = 12;
+    // set in the _meta version once a partition is compressed, builds that cannot read compressed
+    // column files check the version for an exact match and refuse to open the table
+    public static final int META_VERSION_COMPRESSED_PARTITIONS = 1 << 30;
     public static final long META_OFFSET_WAL_ENABLED = 40; // BOOLEAN
     public static final String META_PREV_FILE_NAME = "_meta.prev";
     /**
@@ -101,6 +104,7 @@ public final class TableUtils {
     public static final String META_SWAP_FILE_NAME = "_meta.swp";
     public static final int MIN_INDEX_VALUE_BLOCK_SIZE = Numbers.ceilPow2(4);
     public static final int NULL_LEN = -1;
+    public static final String PARQUET_FILE_MARKER = ".parquet";
     public static final String SNAPSHOT_META_FILE_NAME = "_snapshot";
     public static final String SNAPSHOT_META_FILE_NAME_TXT = "_snapshot.txt";
     public static final String SYMBOL_KEY_REMAP_FILE_SUFFIX = ".r";
@@ -1705,7 +1709,9 @@ public final class TableUtils {
     ) {
         try {
             final long memSize = checkMemSize(metaMem, META_OFFSET_COLUMN_TYPES);
-            validateMetaVersion(metaMem, META_OFFSET_VERSION, expectedVersion);
+            if ((metaMem.getInt(META_OFFSET_VERSION) & ~META_VERSION_COMPRESSED_PARTITIONS) != expectedVersion) {
+                validateMetaVersion(metaMem, META_OFFSET_VERSION, expectedVersion);
+            }
             final int columnCount = getColumnCount(metaMem, META_OFFSET_COUNT);
 
             long offset = getColumnNameOffset(columnCount);
@@ -43,6 +43,7 @@ import io.questdb.griffin.*;
 import io.questdb.griffin.engine.ops.AbstractOperation;
 import io.questdb.griffin.engine.ops.AlterOperation;
 import io.questdb.griffin.engine.ops.UpdateOperation;
+import io.questdb.griffin.engine.table.parquet.PartitionDecoder;
 import io.questdb.log.Log;
 import io.questdb.log.LogFactory;
 import io.questdb.log.LogRecord;
@@ -54,6 +55,7 @@ import io.questdb.std.datetime.millitime.DateFormatUtils;
 import io.questdb.std.str.*;
 import io.questdb.tasks.*;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import org.jetbrains.annotations.TestOnly;
 
 import java.io.Closeable;
@@ -108,6 +110,8 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
     // Publisher source is identified by a long value
     private final AlterOperation alterOp = new AlterOperation();
     private final LongConsumer appendTimestampSetter;
+    private final boolean bloomFilterEnabled;
+    private final ObjList<BloomFilterWriter> bloomFilterWriters = new ObjList<>();
     private final ColumnVersionWriter columnVersionWriter;
     private final MPSequence commandPubSeq;
     private final RingQueue<TableWriterTask> commandQueue;
@@ -144,8 +148,10 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
     private final SOUnboundedCountDownLatch o3DoneLatch = new SOUnboundedCountDownLatch();
     private final AtomicInteger o3ErrorCount = new AtomicInteger();
     private final long[] o3LastTimestampSpreads;
+    private final int o3ParallelSortThreshold;
     private final AtomicLong o3PartitionUpdRemaining = new AtomicLong();
     private final boolean o3QuickSortEnabled;
+    private final LongList o3SortShardBounds = new LongList();
     private final Path other;
     private final MessageBus ownMessageBus;
     private final boolean parallelIndexerEnabled;
@@ -159,10 +165,13 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
     private final FragileCode RECOVER_FROM_META_RENAME_FAILURE = this::recoverFromMetaRenameFailure;
     private final Row row = new RowImpl();
     private final LongList rowValueIsNotNull = new LongList();
+    // pairs of partition timestamp and the first row changed in the partition
+    private final LongList skipIndexUpdates = new LongList();
     private final TxReader slaveTxReader;
     private final DatabaseSnapshotAgent snapshotAgent;
     private final ObjList<MapWriter> symbolMapWriters;
-    private final IntList symbolRewriteMap = new IntList();
+    private final IntList symbolRemapColumns = new IntList();
+    private final ObjList<IntList> symbolRewriteMaps = new ObjList<>();
     private final MemoryMARW todoMem = Vm.getMARWInstance();
     private final TxWriter txWriter;
     private final TxnScoreboard txnScoreboard;
@@ -175,6 +184,7 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
     private final WeakClosableObjectPool<IntList> walFdCacheListPool = new WeakClosableObjectPool<>(IntList::new, 5, true);
     private final LongObjHashMap.LongObjConsumer<IntList> walFdCloseCachedFdAction;
     private final ObjList<MemoryCMOR> walMappedColumns = new ObjList<>();
+    private final boolean zoneMapEnabled;
     private ObjList<? extends MemoryA> activeColumns;
     private ObjList<Runnable> activeNullSetters;
     private ColumnVersionReader attachColumnVersionReader;
@@ -183,11 +193,13 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
     private MemoryCMR attachMetaMem;
     private TableWriterMetadata attachMetadata;
     private long attachMinTimestamp;
+    private PartitionDecoder attachParquetDecoder;
     private TxReader attachTxReader;
     private long avgRecordSize;
     private boolean avoidIndexOnCommit = false;
     private int columnCount;
     private long committedMasterRef;
+    private ColumnCompressor columnCompressor;
     private ConvertOperatorImpl convertOperatorImpl;
     private DedupColumnCommitAddresses dedupColumnCommitAddresses;
     private String designatedTimestampColumnName;
@@ -226,11 +238,15 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
     private boolean removeDirOnCancelRow = true;
     private int rowAction = ROW_ACTION_OPEN_PARTITION;
     private TableToken tableToken;
+    private ZoneMapWriter zoneMapWriter;
     private final ColumnTaskHandler cthAppendWalColumnToLastPartition = this::cthAppendWalColumnToLastPartition;
     private final ColumnTaskHandler cthO3SortColumnRef = this::cthO3SortColumn;
+    private final ColumnTaskHandler cthO3MergeIndexShardsRef = this::cthO3MergeIndexShards;
+    private final ColumnTaskHandler cthO3SortIndexShardRef = this::cthO3SortIndexShard;
     private final ColumnTaskHandler cthMergeWalColumnWithLag = this::cthMergeWalColumnWithLag;
     private final ColumnTaskHandler cthO3MoveUncommittedRef = this::cthO3MoveUncommitted;
     private final ColumnTaskHandler cthO3ShiftColumnInLagToTopRef = this::cthO3ShiftColumnInLagToTop;
+    private final ColumnTaskHandler cthRemapWalSymbolsRef = this::cthRemapWalSymbols;
     private long tempMem16b = Unsafe.malloc(16, MemoryTag.NATIVE_TABLE_WRITER);
     private LongConsumer timestampSetter;
     private long todoTxn;
@@ -239,6 +255,7 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
     private final FragileCode RECOVER_FROM_COLUMN_OPEN_FAILURE = this::recoverOpenColumnFailure;
     private UpdateOperatorImpl updateOperatorImpl;
     private int walFdCacheSize;
+    private boolean walLagSquashed;
     private WalTxnDetails walTxnDetails;
 
     public TableWriter(
@@ -264,12 +281,15 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
         this.messageBus = ownMessageBus != null ? ownMessageBus : messageBus;
         this.lifecycleManager = lifecycleManager;
         this.parallelIndexerEnabled = configuration.isParallelIndexingEnabled();
+        this.zoneMapEnabled = configuration.isZoneMapEnabled();
+        this.bloomFilterEnabled = configuration.isBloomFilterEnabled();
         this.ff = configuration.getFilesFacade();
         this.mkDirMode = configuration.getMkDirMode();
         this.detachedMkDirMode = configuration.getDetachedMkDirMode();
         this.fileOperationRetryCount = configuration.getFileOperationRetryCount();
         this.tableToken = tableToken;
         this.o3QuickSortEnabled = configuration.isO3QuickSortEnabled();
+        this.o3ParallelSortThreshold = configuration.getO3ParallelSortThreshold();
         try {
             this.path = new Path().of(root).concat(tableToken);
             this.other = new Path().of(root).concat(tableToken);
@@ -401,6 +421,18 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
         }
     }
 
+    /**
+     * Number of tasks a single large O3 sort or merge is split into. It is a power of two,
+     * bounded by the number of CPUs and by the column task queue capacity.
+     */
+    public static int getO3ParallelTaskCount(MessageBus messageBus) {
+        final int workerCount = Math.min(
+                Runtime.getRuntime().availableProcessors(),
+                messageBus.getColumnTaskQueue().getCycle()
+        );
+        return Integer.highestOneBit(Math.max(2, workerCount));
+    }
+
     public static int getPrimaryColumnIndex(int index) {
         return index * 2;
     }
@@ -598,6 +630,10 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
             throw CairoException.invalidMetadataRecoverable("cannot create index, column type is not SYMBOL", columnName);
         }
 
+        if (hasCompressedPartitions()) {
+            throw CairoException.invalidMetadataRecoverable("cannot create index, table has compressed partitions", columnName);
+        }
+
         final SymbolColumnIndexer indexer = new SymbolColumnIndexer(configuration);
         writeIndex(columnName, indexValueBlockSize, columnIndex, indexer);
         // set index flag in metadata and  create new _meta.swp
@@ -713,7 +749,14 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
 
         boolean checkPassed = false;
         boolean isSoftLink;
+        boolean isParquet = false;
         try {
+            if (forceRenamePartitionDir && !ff.exists(detachedPath) && ff.exists(setPathForParquetPartition(other, timestamp))) {
+                // there is no attachable directory, the partition comes as a Parquet file
+                isParquet = true;
+                attachDecodeParquetPartition(timestamp, detachedPath, detachedRootLen);
+            }
+
             if (ff.exists(detachedPath)) {
 
                 isSoftLink = ff.isSoftLink(detachedPath); // returns false regardless in Windows
@@ -739,7 +782,7 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
                 // main columnVersionWriter is now aligned with the detached partition values read from partition _cv file
                 // in case of an error it has to be clean up
 
-                if (forceRenamePartitionDir && configuration.attachPartitionCopy() && !isSoftLink) { // soft links are read-only, no copy involved
+                if (forceRenamePartitionDir && configuration.attachPartitionCopy() && !isSoftLink && !isParquet) { // soft links are read-only, no copy involved
                     // Copy partition if configured to do so and it's not CSV import
                     if (ff.copyRecursive(detachedPath.trimTo(detachedRootLen), path, configuration.getMkDirMode()) == 0) {
                         LOG.info().$("copied partition dir [from=").$(detachedPath).$(", to=").$(path).I$();
@@ -763,8 +806,17 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
             }
         } finally {
             path.trimTo(rootLen);
+            other.trimTo(rootLen);
             if (!checkPassed) {
                 columnVersionWriter.readUnsafe();
+                if (isParquet) {
+                    // decoded partition directory and symbols added from the Parquet file are not needed anymore
+                    if (!ff.rmdir(detachedPath.trimTo(detachedRootLen).slash$())) {
+                        LOG.error().$("could not remove decoded parquet partition [errno=").$(ff.errno())
+                                .$(", path=").$(detachedPath).I$();
+                    }
+                    rollbackSymbolTables();
+                }
             }
         }
 
@@ -778,7 +830,7 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
             txWriter.beginPartitionSizeUpdate();
             txWriter.updatePartitionSizeByTimestamp(timestamp, partitionSize, getTxn());
             txWriter.finishPartitionSizeUpdate(nextMinTimestamp, nextMaxTimestamp);
-            if (isSoftLink) {
+            if (isSoftLink || isParquet) {
                 txWriter.setPartitionReadOnlyByTimestamp(timestamp, true);
             }
             txWriter.bumpTruncateVersion();
@@ -855,6 +907,11 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
                     .put(tableToken.getTableName()).put(", column=").put(columnName).put(']');
         }
 
+        if (hasCompressedPartitions()) {
+            throw CairoException.nonCritical().put("cannot change column type, table has compressed partitions [table=")
+                    .put(tableToken.getTableName()).put(", column=").put(columnName).put(']');
+        }
+
         ConvertOperatorImpl convertOperator = getConvertOperator();
         try {
             commit();
@@ -997,6 +1054,50 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
         txWriter.commit(denseSymbolMapWriters);
     }
 
+    /**
+     * Commits WAL lag when it can be fully applied to the last partition without sorting,
+     * e.g. transactions squashed with the next one, which is not applied yet.
+     *
+     * @return number of rows committed, 0 if lag is empty or cannot be applied as is
+     */
+    public long commitWalLag() {
+        final int lagTxnCount = txWriter.getLagTxnCount();
+        if (!walLagSquashed || lagTxnCount == 0 || txWriter.getLagRowCount() == 0 || txWriter.getLagMaxTimestamp() > partitionTimestampHi) {
+            return 0L;
+        }
+
+        final long committedRowCount = txWriter.getRowCount();
+        final long rowLo = txWriter.getTransientRowCount();
+        txWriter.beginPartitionSizeUpdate();
+        if (applyFromWalLagToLastPartition(Long.MAX_VALUE) == Long.MIN_VALUE) {
+            return 0L;
+        }
+        assert txWriter.getLagRowCount() == 0;
+
+        final long rowsAdded = txWriter.getRowCount() - committedRowCount;
+        LOG.info().$("committing WAL lag [table=").$(tableToken)
+                .$(", lagTxnCount=").$(lagTxnCount)
+                .$(", rows=").$(rowsAdded)
+                .I$();
+
+        addSkipIndexUpdate(lastPartitionTimestamp, rowLo);
+        columnVersionWriter.commit();
+        txWriter.setSeqTxn(txWriter.getSeqTxn() + lagTxnCount);
+        txWriter.setLagTxnCount(0);
+        txWriter.setLagOrdered(true);
+        walLagSquashed = false;
+
+        syncColumns();
+        updateSkipIndexes();
+        txWriter.setColumnVersion(columnVersionWriter.getVersion());
+        txWriter.commit(denseSymbolMapWriters);
+
+        committedMasterRef = masterRef;
+        metrics.tableWriter().incrementCommits();
+        metrics.tableWriter().addCommittedRows(rowsAdded);
+        return rowsAdded;
+    }
+
     public long commitWalTransaction(
             @Transient Path walPath,
             boolean inOrder,
@@ -1017,6 +1118,7 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
         physicallyWrittenRowsSinceLastCommit.set(0);
         txWriter.beginPartitionSizeUpdate();
         long commitToTimestamp = walTxnDetails.getCommitToTimestamp(seqTxn);
+        boolean squash = false;
 
         if (commitToTimestamp != WalTxnDetails.FORCE_FULL_COMMIT) {
             final int maxLagTxnCount = configuration.getWalMaxLagTxnCount();
@@ -1029,6 +1131,10 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
                 if (canCommitToTxn <= txWriter.getSeqTxn()) {
                     // no transactions will be fully committed anyway, copy to LAG without committing.
                     commitToTimestamp = Long.MIN_VALUE;
+                } else if (canSquashWalTransaction(inOrder, rowHi - rowLo, o3TimestampMin, o3TimestampMax, seqTxn)) {
+                    // the next transaction continues this one, copy to LAG and commit both together.
+                    commitToTimestamp = Long.MIN_VALUE;
+                    squash = true;
                 }
             }
         }
@@ -1056,8 +1162,10 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
             txWriter.setSeqTxn(seqTxn);
             txWriter.setLagTxnCount(0);
             txWriter.setLagOrdered(true);
+            walLagSquashed = false;
 
             syncColumns();
+            updateSkipIndexes();
             txWriter.setColumnVersion(columnVersionWriter.getVersion());
             txWriter.commit(denseSymbolMapWriters);
 
@@ -1077,10 +1185,92 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
         // Nothing was committed to the table, only copied to LAG.
         // Keep in memory last committed seq txn, but do not write it to _txn file.
         txWriter.setLagTxnCount((int) (seqTxn - txWriter.getSeqTxn()));
+        walLagSquashed = squash && (txWriter.getLagTxnCount() == 1 || walLagSquashed);
         shrinkO3Mem();
         return 0L;
     }
 
+    @Override
+    public AttachDetachStatus compressPartition(long timestamp) {
+        // Should be checked by SQL compiler
+        assert metadata.getTimestampIndex() > -1;
+        assert PartitionBy.isPartitioned(partitionBy);
+
+        if (inTransaction()) {
+            LOG.info()
+                    .$("committing open transaction before applying compress partition command [table=")
+                    .utf8(tableToken.getTableName())
+                    .$(", partition=").$ts(timestamp)
+                    .I$();
+            commit();
+        }
+
+        timestamp = txWriter.getLogicalPartitionTimestamp(timestamp);
+        if (timestamp == txWriter.getLogicalPartitionTimestamp(txWriter.getMaxTimestamp())) {
+            return AttachDetachStatus.COMPRESS_ERR_ACTIVE;
+        }
+
+        final int partitionIndex = txWriter.getPartitionIndex(timestamp);
+        if (partitionIndex < 0) {
+            return AttachDetachStatus.COMPRESS_ERR_MISSING_PARTITION;
+        }
+        if (txWriter.isPartitionCompressed(partitionIndex)) {
+            // compressing by age matches the same partitions over and over again
+            LOG.info().$("partition is already compressed [table=").utf8(tableToken.getTableName())
+                    .$(", partition=").$ts(timestamp).I$();
+            return AttachDetachStatus.OK;
+        }
+        if (txWriter.isPartitionReadOnly(partitionIndex)) {
+            return AttachDetachStatus.COMPRESS_ERR_READ_ONLY;
+        }
+        if (snapshotAgent.isInProgress()) {
+            // No overwrite can happen while a snapshot is in-flight.
+            return AttachDetachStatus.COMPRESS_ERR_SNAPSHOT_IN_PROGRESS;
+        }
+
+        markMetaCompressedPartitions();
+
+        // Compressed partition is a single folder, squash the splits first
+        squashPartitionForce(partitionIndex);
+
+        final long partitionNameTxn = txWriter.getPartitionNameTxn(partitionIndex);
+        final long partitionSize = txWriter.getPartitionSize(partitionIndex);
+        try {
+            setPathForPartition(path.trimTo(rootLen), partitionBy, timestamp, partitionNameTxn);
+            setPathForPartition(other.trimTo(rootLen), partitionBy, timestamp, txWriter.txn);
+            if (ff.hardLinkDirRecursive(path.$(), other.$(), configuration.getMkDirMode()) != 0) {
+                throw CairoException.critical(ff.errno()).put("could not hard link partition [from=").put(path)
+                        .put(", to=").put(other).put(']');
+            }
+            try {
+                compressPartitionColumns(timestamp, partitionSize);
+            } catch (Throwable th) {
+                setPathForPartition(other.trimTo(rootLen), partitionBy, timestamp, txWriter.txn);
+                if (!ff.rmdir(other.slash$())) {
+                    LOG.error().$("could not remove compressed partition copy [path=").$(other).$(", errno=").$(ff.errno()).I$();
+                }
+                throw th;
+            }
+        } finally {
+            path.trimTo(rootLen);
+            other.trimTo(rootLen);
+        }
+
+        txWriter.updatePartitionSizeAndTxnByRawIndex(partitionIndex * LONGS_PER_TX_ATTACHED_PARTITION, partitionSize);
+        txWriter.setPartitionCompressedByTimestamp(timestamp);
+        // readers have to reload partition table to pick up the new partition version and flags
+        txWriter.bumpPartitionTableVersion();
+        partitionRemoveCandidates.add(timestamp, partitionNameTxn);
+        txWriter.commit(denseSymbolMapWriters);
+        processPartitionRemoveCandidates();
+
+        LOG.info().$("partition compressed [table=").utf8(tableToken.getTableName())
+                .$(", partition=").$ts(timestamp)
+                .$(", rowCount=").$(partitionSize)
+                .I$();
+        return AttachDetachStatus.OK;
+    }
+
     public void destroy() {
         // Closes all the files and makes this instance unusable e.g. it cannot return to the pool on close.
         LOG.info().$("closing table files [table=").utf8(tableToken.getTableName())
@@ -1114,6 +1304,11 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
             return AttachDetachStatus.DETACH_ERR_MISSING_PARTITION;
         }
 
+        if (txWriter.isPartitionCompressed(partitionIndex)) {
+            // compressed column files cannot be attached back as raw ones
+            return AttachDetachStatus.DETACH_ERR_COMPRESSED;
+        }
+
         // To detach the partition, squash it into single folder if required
         squashPartitionForce(partitionIndex);
 
@@ -1421,6 +1616,10 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
         return txWriter.getMaxTimestamp();
     }
 
+    public MessageBus getMessageBus() {
+        return messageBus;
+    }
+
     @Override
     public int getMetaMaxUncommittedRows() {
         return metadata.getMaxUncommittedRows();
@@ -2629,6 +2828,20 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
         return index;
     }
 
+    private void addSkipIndexUpdate(long partitionTimestamp, long rowLo) {
+        if ((zoneMapEnabled || bloomFilterEnabled) && PartitionBy.isPartitioned(partitionBy)) {
+            // partition can be reported more than once per commit, Bloom filters of the
+            // same column file must not be built concurrently
+            for (int i = 0, n = skipIndexUpdates.size(); i < n; i += 2) {
+                if (skipIndexUpdates.getQuick(i) == partitionTimestamp) {
+                    skipIndexUpdates.setQuick(i + 1, Math.min(skipIndexUpdates.getQuick(i + 1), rowLo));
+                    return;
+                }
+            }
+            skipIndexUpdates.add(partitionTimestamp, rowLo);
+        }
+    }
+
     private long applyFromWalLagToLastPartition(long commitToTimestamp) {
         long lagMinTimestamp = txWriter.getLagMinTimestamp();
         if (!isDeduplicationEnabled()
@@ -2726,6 +2939,89 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
                 || columns.get(getPrimaryColumnIndex(metadata.getTimestampIndex())).getAppendOffset() == (txWriter.getTransientRowCount() + txWriter.getLagRowCount()) * Long.BYTES;
     }
 
+    private void attachDecodeParquetPartition(long partitionTimestamp, Path detachedPath, int detachedRootLen) {
+        setPathForParquetPartition(other, partitionTimestamp);
+        if (attachParquetDecoder == null) {
+            attachParquetDecoder = new PartitionDecoder();
+        }
+        final PartitionDecoder decoder = attachParquetDecoder.of(ff, other);
+        try {
+            final long rowCount = decoder.getRowCount();
+            final int timestampIndex = metadata.getTimestampIndex();
+            if (decoder.getColumnIndex(metadata.getColumnName(timestampIndex)) < 0) {
+                throw CairoException.nonCritical().put("parquet file has no designated timestamp column [path=").put(other)
+                        .put(", column=").put(metadata.getColumnName(timestampIndex))
+                        .put(']');
+            }
+
+            if (ff.mkdirs(detachedPath.trimTo(detachedRootLen).slash$(), configuration.getMkDirMode()) != 0) {
+                throw CairoException.critical(ff.errno()).put("could not create partition directory [path=").put(detachedPath).put(']');
+            }
+            detachedPath.trimTo(detachedRootLen);
+            LOG.info().$("decoding parquet partition [path=").$(other).$(", to=").$(detachedPath).$(", rows=").$(rowCount).I$();
+
+            for (int i = 0; i < columnCount; i++) {
+                final int columnType = metadata.getColumnType(i);
+                if (columnType < 0 || columnVersionWriter.getColumnTop(partitionTimestamp, i) < 0) {
+                    // column is deleted or did not exist when this partition was written
+                    continue;
+                }
+                final String columnName = metadata.getColumnName(i);
+                final int parquetIndex = decoder.getColumnIndex(columnName);
+                if (parquetIndex < 0) {
+                    // partition attach will treat the missing file as a column top
+                    continue;
+                }
+
+                final long columnNameTxn = columnVersionWriter.getDefaultColumnNameTxn(i);
+                final boolean isVarSize = ColumnType.isVarSize(columnType);
+                try (
+                        MemoryCMARW dataMem = Vm.getCMARWInstance();
+                        MemoryCMARW auxMem = isVarSize ? Vm.getCMARWInstance() : null
+                ) {
+                    dataMem.of(ff, dFile(detachedPath.trimTo(detachedRootLen), columnName, columnNameTxn), configuration.getDataAppendPageSize(), MemoryTag.MMAP_TABLE_WRITER, configuration.getWriterFileOpenOpts());
+                    if (auxMem != null) {
+                        auxMem.of(ff, iFile(detachedPath.trimTo(detachedRootLen), columnName, columnNameTxn), configuration.getDataAppendPageSize(), MemoryTag.MMAP_TABLE_WRITER, configuration.getWriterFileOpenOpts());
+                        ColumnType.getDriver(columnType).configureAuxMemMA(auxMem);
+                    }
+                    decoder.decodeColumn(parquetIndex, columnType, dataMem, auxMem, ColumnType.isSymbol(columnType) ? symbolMapWriters.getQuick(i) : null);
+                    if (i == timestampIndex) {
+                        attachValidateParquetTimestamps(dataMem, rowCount, partitionTimestamp);
+                    }
+                    dataMem.close(true, Vm.TRUNCATE_TO_POINTER);
+                    if (auxMem != null) {
+                        auxMem.close(true, Vm.TRUNCATE_TO_POINTER);
+                    }
+                } finally {
+                    detachedPath.trimTo(detachedRootLen);
+                }
+
+                if (ColumnType.isSymbol(columnType) && metadata.isColumnIndexed(i)) {
+                    attachIndexParquetColumn(detachedPath, columnName, columnNameTxn, metadata.getIndexValueBlockCapacity(i), rowCount);
+                }
+            }
+        } finally {
+            decoder.close();
+            detachedPath.trimTo(detachedRootLen);
+        }
+    }
+
+    private void attachIndexParquetColumn(Path partitionPath, CharSequence columnName, long columnNameTxn, int indexValueBlockCapacity, long rowCount) {
+        final int plen = partitionPath.size();
+        createIndexFiles(partitionPath, columnName, columnNameTxn, indexValueBlockCapacity, plen, true);
+        try (SymbolColumnIndexer indexer = new SymbolColumnIndexer(configuration)) {
+            final int fd = TableUtils.openRO(ff, dFile(partitionPath.trimTo(plen), columnName, columnNameTxn), LOG);
+            try {
+                indexer.configureWriter(partitionPath.trimTo(plen), columnName, columnNameTxn, 0);
+                indexer.index(ff, fd, 0, rowCount);
+            } finally {
+                ff.close(fd);
+            }
+        } finally {
+            partitionPath.trimTo(plen);
+        }
+    }
+
     private void attachPartitionCheckFilesMatchFixedColumn(
             int columnType,
             long partitionSize,
@@ -3022,6 +3318,21 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
         }
     }
 
+    private void attachValidateParquetTimestamps(MemoryCMARW timestampMem, long rowCount, long partitionTimestamp) {
+        final long partitionTimestampHi = txWriter.getNextPartitionTimestamp(partitionTimestamp);
+        long prev = partitionTimestamp;
+        for (long i = 0; i < rowCount; i++) {
+            final long ts = timestampMem.getLong(i << 3);
+            if (ts < prev || ts >= partitionTimestampHi) {
+                throw CairoException.nonCritical().put("parquet timestamps must be ascending and within partition [row=").put(i)
+                        .put(", ts=").putAsPrintable(Timestamps.toString(ts))
+                        .put(", partition=").putAsPrintable(Timestamps.toString(partitionTimestamp))
+                        .put(']');
+            }
+            prev = ts;
+        }
+    }
+
     private void attachValidateMetadata(long partitionSize, Path partitionPath, long partitionTimestamp) throws CairoException {
         // for each column, check that file exists in the partition folder
         int rootLen = partitionPath.size();
@@ -3054,6 +3365,75 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
         }
     }
 
+    private void buildBloomFilters(int count) {
+        if (count == 0) {
+            return;
+        }
+        if (!parallelIndexerEnabled || count == 1) {
+            for (int i = 0; i < count; i++) {
+                bloomFilterWriters.getQuick(i).build();
+            }
+            return;
+        }
+
+        indexSequences.clear();
+        indexLatch.setCount(count);
+        final Sequence indexPubSequence = this.messageBus.getIndexerPubSequence();
+        final RingQueue<ColumnIndexerTask> indexerQueue = this.messageBus.getIndexerQueue();
+
+        // build the last filter in this thread while other filters are on the queue
+        for (int i = 0; i < count; i++) {
+            final BloomFilterWriter writer = bloomFilterWriters.getQuick(i);
+            final long sequence = writer.getSequence();
+            indexSequences.add(sequence);
+            if (i == count - 1) {
+                break;
+            }
+
+            long cursor;
+            do {
+                cursor = indexPubSequence.next();
+                if (cursor == -2) {
+                    Os.pause();
+                }
+            } while (cursor == -2);
+
+            if (cursor == -1) {
+                // queue is full, build in the current thread
+                if (writer.tryLock(sequence)) {
+                    buildBloomFilterAndCountDown(writer, indexLatch);
+                }
+                continue;
+            }
+
+            final ColumnIndexerTask queueItem = indexerQueue.get(cursor);
+            queueItem.indexer = null;
+            queueItem.bloomFilterWriter = writer;
+            queueItem.lo = 0;
+            queueItem.hi = 0;
+            queueItem.countDownLatch = indexLatch;
+            queueItem.sequence = sequence;
+            indexPubSequence.done(cursor);
+        }
+
+        final BloomFilterWriter last = bloomFilterWriters.getQuick(count - 1);
+        if (last.tryLock(indexSequences.getQuick(count - 1))) {
+            buildBloomFilterAndCountDown(last, indexLatch);
+        }
+
+        if (!indexLatch.await(configuration.getWorkStealTimeoutNanos())) {
+            // steal the filters workers have not picked up yet
+            for (int i = 0; i < count - 1; i++) {
+                final BloomFilterWriter writer = bloomFilterWriters.getQuick(i);
+                if (writer.tryLock(indexSequences.getQuick(i))) {
+                    buildBloomFilterAndCountDown(writer, indexLatch);
+                }
+            }
+            // wait for the ones we cannot steal
+            indexLatch.await();
+        }
+    }
+
     private void bumpColumnStructureVersion() {
         columnVersionWriter.commit();
         txWriter.setColumnVersion(columnVersionWriter.getVersion());
@@ -3102,6 +3482,26 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
         return txnScoreboard.isRangeAvailable(fromTxn, toTxn);
     }
 
+    private boolean canSquashWalTransaction(boolean inOrder, long rowCount, long o3TimestampMin, long o3TimestampMax, long seqTxn) {
+        // Squash only when the rows can be moved from LAG to the last partition
+        // by the fast path, i.e. without sorting, dedup or O3 merge.
+        final int squashMaxTxnCount = configuration.getWalApplySquashMaxTxnCount();
+        if (squashMaxTxnCount < 1 || txWriter.getLagTxnCount() + 1 >= squashMaxTxnCount) {
+            return false;
+        }
+        if (!inOrder || isDeduplicationEnabled() || txWriter.getPartitionCount() == 0) {
+            return false;
+        }
+        final long lagRowCount = txWriter.getLagRowCount();
+        if (lagRowCount > 0 && (!txWriter.isLagOrdered() || txWriter.getLagMaxTimestamp() > o3TimestampMin)) {
+            return false;
+        }
+        return lagRowCount + rowCount <= getWalMaxLagRows()
+                && txWriter.getMaxTimestamp() <= o3TimestampMin
+                && o3TimestampMax <= partitionTimestampHi
+                && walTxnDetails.isSquashableWithNext(seqTxn);
+    }
+
     private void cancelRowAndBump() {
         rowCancel();
         masterRef++;
@@ -3285,6 +3685,7 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
             updateIndexes();
             syncColumns();
             columnVersionWriter.commit();
+            updateSkipIndexes();
             txWriter.setColumnVersion(columnVersionWriter.getVersion());
             txWriter.commit(denseSymbolMapWriters);
 
@@ -3308,6 +3709,69 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
         return TableSequencer.NO_TXN;
     }
 
+    private void compressColumnFile(int pathLen, int otherLen, int codec, int valueSize, @Nullable Path auxPath, int columnType, long rowCount) {
+        if (!ff.exists(path.$())) {
+            // column top covers the whole partition
+            return;
+        }
+        // the file is a hard link to the source partition, it must not be written over
+        if (!ff.removeQuiet(other.$())) {
+            throw CairoException.critical(ff.errno()).put("could not remove [path=").put(other).put(']');
+        }
+        final long rawSize = ff.length(path);
+        final long compressedSize = auxPath != null
+                ? columnCompressor.compressVarSizeData(ff, path.$(), other.$(), auxPath.$(), ColumnType.getDriver(columnType), rowCount, configuration.getCommitMode())
+                : columnCompressor.compress(ff, path.$(), other.$(), codec, valueSize, configuration.getCommitMode());
+        LOG.debug().$("compressed column file [path=").$(other)
+                .$(", size=").$(rawSize)
+                .$(", compressedSize=").$(compressedSize)
+                .I$();
+        path.trimTo(pathLen);
+        other.trimTo(otherLen);
+    }
+
+    private void compressPartitionColumns(long partitionTimestamp, long partitionSize) {
+        if (columnCompressor == null) {
+            columnCompressor = new ColumnCompressor();
+        }
+        final int pathLen = path.size();
+        final int otherLen = other.size();
+        final int timestampIndex = metadata.getTimestampIndex();
+        for (int i = 0; i < columnCount; i++) {
+            final int columnType = metadata.getColumnType(i);
+            final long columnTop = columnVersionWriter.getColumnTop(partitionTimestamp, i);
+            if (columnType < 0 || columnTop < 0) {
+                // deleted column or column added after the partition
+                continue;
+            }
+            final CharSequence columnName = metadata.getColumnName(i);
+            final long columnNameTxn = columnVersionWriter.getColumnNameTxn(partitionTimestamp, i);
+            dFile(path.trimTo(pathLen), columnName, columnNameTxn);
+            dFile(other.trimTo(otherLen), columnName, columnNameTxn);
+            if (ColumnType.isVarSize(columnType)) {
+                // data blocks are cut at value boundaries, which are read from the raw aux file
+                final Path auxPath = Path.getThreadLocal2(path);
+                iFile(auxPath.trimTo(pathLen), columnName, columnNameTxn);
+                compressColumnFile(pathLen, otherLen, ColumnCompressor.CODEC_DEFLATE, Byte.BYTES, auxPath, columnType, partitionSize - columnTop);
+                iFile(path.trimTo(pathLen), columnName, columnNameTxn);
+                iFile(other.trimTo(otherLen), columnName, columnNameTxn);
+                compressColumnFile(pathLen, otherLen, ColumnCompressor.CODEC_DEFLATE, Long.BYTES, null, columnType, 0);
+            } else {
+                compressColumnFile(
+                        pathLen,
+                        otherLen,
+                        ColumnCompressor.getDataCodec(columnType, i == timestampIndex),
+                        ColumnType.sizeOf(columnType),
+                        null,
+                        columnType,
+                        0
+                );
+            }
+        }
+        path.trimTo(pathLen);
+        other.trimTo(otherLen);
+    }
+
     private void configureAppendPosition() {
         final boolean partitioned = PartitionBy.isPartitioned(partitionBy);
         if (this.txWriter.getMaxTimestamp() > Long.MIN_VALUE || !partitioned) {
@@ -3516,7 +3980,8 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
     }
 
     private void copyVersionAndLagValues() {
-        ddlMem.putInt(ColumnType.VERSION);
+        // keeps the compressed partitions flag
+        ddlMem.putInt(metaMem.getInt(META_OFFSET_VERSION));
         ddlMem.putInt(metaMem.getInt(META_OFFSET_TABLE_ID));
         ddlMem.putInt(metaMem.getInt(META_OFFSET_MAX_UNCOMMITTED_ROWS));
         ddlMem.putLong(metaMem.getLong(META_OFFSET_O3_MAX_LAG));
@@ -3534,6 +3999,10 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
      * @param plen                    path length. This is used to trim shared path object to.
      */
     private void createIndexFiles(CharSequence columnName, long columnNameTxn, int indexValueBlockCapacity, int plen, boolean force) {
+        createIndexFiles(path, columnName, columnNameTxn, indexValueBlockCapacity, plen, force);
+    }
+
+    private void createIndexFiles(Path path, CharSequence columnName, long columnNameTxn, int indexValueBlockCapacity, int plen, boolean force) {
         try {
             keyFileName(path.trimTo(plen), columnName, columnNameTxn);
 
@@ -3917,6 +4386,37 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
         }
     }
 
+    private void cthO3MergeIndexShards(int taskIndex, int columnType, int timestampColumnIndex, long srcAddr, long dstAddr, long shardsPerRun, long long3, long long4) {
+        final int shardLo = (int) (taskIndex * shardsPerRun * 2);
+        final long lo = o3SortShardBounds.getQuick(shardLo);
+        final long mid = o3SortShardBounds.getQuick(shardLo + (int) shardsPerRun);
+        final long hi = o3SortShardBounds.getQuick(shardLo + (int) shardsPerRun * 2);
+        long l = lo;
+        long r = mid;
+        long d = dstAddr + lo * TIMESTAMP_MERGE_ENTRY_BYTES;
+        // on equal timestamps the left run wins, this keeps the merge stable
+        while (l < mid && r < hi) {
+            final long lAddr = srcAddr + l * TIMESTAMP_MERGE_ENTRY_BYTES;
+            final long rAddr = srcAddr + r * TIMESTAMP_MERGE_ENTRY_BYTES;
+            final long src;
+            if (Unsafe.getUnsafe().getLong(rAddr) < Unsafe.getUnsafe().getLong(lAddr)) {
+                src = rAddr;
+                r++;
+            } else {
+                src = lAddr;
+                l++;
+            }
+            Unsafe.getUnsafe().putLong(d, Unsafe.getUnsafe().getLong(src));
+            Unsafe.getUnsafe().putLong(d + Long.BYTES, Unsafe.getUnsafe().getLong(src + Long.BYTES));
+            d += TIMESTAMP_MERGE_ENTRY_BYTES;
+        }
+        if (l < mid) {
+            Vect.memcpy(d, srcAddr + l * TIMESTAMP_MERGE_ENTRY_BYTES, (mid - l) * TIMESTAMP_MERGE_ENTRY_BYTES);
+        } else if (r < hi) {
+            Vect.memcpy(d, srcAddr + r * TIMESTAMP_MERGE_ENTRY_BYTES, (hi - r) * TIMESTAMP_MERGE_ENTRY_BYTES);
+        }
+    }
+
     private void cthO3MoveUncommitted(
             int columnIndex,
             int columnType,
@@ -4166,6 +4666,47 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
         }
     }
 
+    private void cthO3SortIndexShard(int shardIndex, int columnType, int timestampColumnIndex, long indexAddr, long cpyAddr, long long2, long long3, long long4) {
+        final long lo = o3SortShardBounds.getQuick(shardIndex);
+        final long hi = o3SortShardBounds.getQuick(shardIndex + 1);
+        if (hi > lo) {
+            Vect.radixSortLongIndexAscInPlace(
+                    indexAddr + lo * TIMESTAMP_MERGE_ENTRY_BYTES,
+                    hi - lo,
+                    cpyAddr + lo * TIMESTAMP_MERGE_ENTRY_BYTES
+            );
+        }
+    }
+
+    private void cthRemapWalSymbols(
+            int columnIndex,
+            int columnType,
+            int timestampColumnIndex,
+            long cleanSymbolCount,
+            long rowLo,
+            long rowHi,
+            long ignore1,
+            long ignore2
+    ) {
+        if (o3ErrorCount.get() > 0) {
+            return;
+        }
+        try {
+            remapWalSymbolColumn(columnIndex, (int) cleanSymbolCount, rowLo, rowHi, null);
+        } catch (Throwable th) {
+            handleColumnTaskException(
+                    "could not remap WAL symbols",
+                    columnIndex,
+                    columnType,
+                    cleanSymbolCount,
+                    rowLo,
+                    rowHi,
+                    IGNORE,
+                    th
+            );
+        }
+    }
+
     private void cthO3SortFixColumn(
             int columnIndex,
             int columnType,
@@ -4362,6 +4903,83 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
         consumeColumnTasks(queue, queuedCount);
     }
 
+    private void dispatchO3SortTasks(int taskCount, long long0, long long1, long long2, ColumnTaskHandler taskHandler) {
+        final int timestampColumnIndex = metadata.getTimestampIndex();
+        final Sequence pubSeq = this.messageBus.getColumnTaskPubSeq();
+        final RingQueue<ColumnTask> queue = this.messageBus.getColumnTaskQueue();
+        o3DoneLatch.reset();
+        o3ErrorCount.set(0);
+        lastErrno = 0;
+        int queuedCount = 0;
+
+        for (int taskIndex = 0; taskIndex < taskCount; taskIndex++) {
+            long cursor = pubSeq.next();
+            if (cursor > -1) {
+                try {
+                    final ColumnTask task = queue.get(cursor);
+                    task.of(
+                            o3DoneLatch,
+                            taskIndex,
+                            ColumnType.TIMESTAMP,
+                            timestampColumnIndex,
+                            long0,
+                            long1,
+                            long2,
+                            IGNORE,
+                            IGNORE,
+                            taskHandler
+                    );
+                } finally {
+                    queuedCount++;
+                    pubSeq.done(cursor);
+                }
+            } else {
+                taskHandler.run(taskIndex, ColumnType.TIMESTAMP, timestampColumnIndex, long0, long1, long2, IGNORE, IGNORE);
+            }
+        }
+        consumeColumnTasks(queue, queuedCount);
+    }
+
+    private void dispatchSymbolRemapTasks(long rowLo, long rowHi) {
+        final int timestampColumnIndex = metadata.getTimestampIndex();
+        final Sequence pubSeq = this.messageBus.getColumnTaskPubSeq();
+        final RingQueue<ColumnTask> queue = this.messageBus.getColumnTaskQueue();
+        o3DoneLatch.reset();
+        o3ErrorCount.set(0);
+        lastErrno = 0;
+        int queuedCount = 0;
+
+        for (int i = 0, n = symbolRemapColumns.size(); i < n; i += 2) {
+            final int columnIndex = symbolRemapColumns.getQuick(i);
+            final int cleanSymbolCount = symbolRemapColumns.getQuick(i + 1);
+            final int columnType = metadata.getColumnType(columnIndex);
+            long cursor = pubSeq.next();
+            if (cursor > -1) {
+                try {
+                    final ColumnTask task = queue.get(cursor);
+                    task.of(
+                            o3DoneLatch,
+                            columnIndex,
+                            columnType,
+                            timestampColumnIndex,
+                            cleanSymbolCount,
+                            rowLo,
+                            rowHi,
+                            IGNORE,
+                            IGNORE,
+                            cthRemapWalSymbolsRef
+                    );
+                } finally {
+                    queuedCount++;
+                    pubSeq.done(cursor);
+                }
+            } else {
+                cthRemapWalSymbols(columnIndex, columnType, timestampColumnIndex, cleanSymbolCount, rowLo, rowHi, IGNORE, IGNORE);
+            }
+        }
+        consumeColumnTasks(queue, queuedCount);
+    }
+
     private void doClose(boolean truncate) {
         // destroy() may have already closed everything
         boolean tx = inTransaction();
@@ -4376,6 +4994,7 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
         Misc.free(attachMetaMem);
         Misc.free(attachColumnVersionReader);
         Misc.free(attachIndexBuilder);
+        Misc.free(attachParquetDecoder);
         Misc.free(columnVersionWriter);
         Misc.free(o3PartitionUpdateSink);
         Misc.free(slaveTxReader);
@@ -4384,6 +5003,9 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
         closeWalFiles();
         updateOperatorImpl = Misc.free(updateOperatorImpl);
         convertOperatorImpl = Misc.free(convertOperatorImpl);
+        columnCompressor = Misc.free(columnCompressor);
+        zoneMapWriter = Misc.free(zoneMapWriter);
+        Misc.freeObjListAndClear(bloomFilterWriters);
         dropIndexOperator = null;
         noOpRowCount = 0L;
         lastOpenPartitionTs = Long.MIN_VALUE;
@@ -4820,6 +5442,15 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
         purgingOperator.add(columnIndex, columnNameTxn, partitionTimestamp, partitionNameTxn);
     }
 
+    private boolean hasCompressedPartitions() {
+        for (int i = 0, n = txWriter.getPartitionCount(); i < n; i++) {
+            if (txWriter.isPartitionCompressed(i)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     private void indexHistoricPartitions(SymbolColumnIndexer indexer, CharSequence columnName, int indexValueBlockSize, int columnIndex) {
         long ts = this.txWriter.getMaxTimestamp();
         if (ts > Numbers.LONG_NULL) {
@@ -4939,6 +5570,25 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
         }
     }
 
+    private void markMetaCompressedPartitions() {
+        final int version = metaMem.getInt(META_OFFSET_VERSION);
+        if ((version & META_VERSION_COMPRESSED_PARTITIONS) != 0) {
+            return;
+        }
+        // written in place, like the version upgrades of the engine migration, the metadata
+        // version stays the same since the table structure does not change
+        path.trimTo(rootLen).concat(META_FILE_NAME);
+        final int fd = openRW(ff, path.$(), LOG, configuration.getWriterFileOpenOpts());
+        try {
+            writeIntOrFail(ff, fd, META_OFFSET_VERSION, version | META_VERSION_COMPRESSED_PARTITIONS, tempMem16b, path);
+            ff.fsync(fd);
+        } finally {
+            ff.close(fd);
+            path.trimTo(rootLen);
+        }
+        LOG.info().$("marked table as having compressed partitions [table=").utf8(tableToken.getTableName()).I$();
+    }
+
     private void mmapWalColumns(@Transient Path walPath, long walSegmentId, int timestampIndex, long rowLo, long rowHi) {
         walMappedColumns.clear();
         int walPathLen = walPath.size();
@@ -5072,7 +5722,11 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
             assert o3TimestampMem.getAppendOffset() == o3RowCount * TIMESTAMP_MERGE_ENTRY_BYTES;
             if (o3RowCount > 600 || !o3QuickSortEnabled) {
                 o3TimestampMemCpy.jumpTo(o3TimestampMem.getAppendOffset());
-                Vect.radixSortLongIndexAscInPlace(sortedTimestampsAddr, o3RowCount, o3TimestampMemCpy.addressOf(0));
+                if (o3ParallelSortThreshold > 0 && o3RowCount >= o3ParallelSortThreshold) {
+                    o3SortTimestampIndexParallel(sortedTimestampsAddr, o3RowCount, o3TimestampMemCpy.addressOf(0));
+                } else {
+                    Vect.radixSortLongIndexAscInPlace(sortedTimestampsAddr, o3RowCount, o3TimestampMemCpy.addressOf(0));
+                }
             } else {
                 Vect.quickSortLongIndexAscInPlace(sortedTimestampsAddr, o3RowCount);
             }
@@ -5395,6 +6049,11 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
                     }
                 }
 
+                if (newPartitionTimestamp != partitionTimestamp) {
+                    addSkipIndexUpdate(newPartitionTimestamp, 0);
+                }
+                addSkipIndexUpdate(partitionTimestamp, partitionMutates ? 0 : Math.min(srcDataOldPartitionSize, srcDataNewPartitionSize));
+
                 if (partitionMutates && newPartitionTimestamp == partitionTimestamp) {
                     final long srcNameTxn = txWriter.getPartitionNameTxnByRawIndex(partitionIndexRaw);
                     LOG.info()
@@ -5609,6 +6268,36 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
         }
     }
 
+    // Radix sorts shards of the timestamp index on column task workers and then merges
+    // the sorted shards pairwise, each merge round being parallel too. The merge is stable,
+    // rows with equal timestamps keep their order, same as after the single-threaded sort.
+    private void o3SortTimestampIndexParallel(long indexAddr, long rowCount, long cpyAddr) {
+        final int shardCount = getO3ParallelTaskCount(messageBus);
+        o3SortShardBounds.clear();
+        for (int i = 0; i < shardCount; i++) {
+            o3SortShardBounds.add(rowCount * i / shardCount);
+        }
+        o3SortShardBounds.add(rowCount);
+
+        LOG.debug().$("sorting o3 in parallel [table=").utf8(tableToken.getTableName())
+                .$(", rowCount=").$(rowCount)
+                .$(", shardCount=").$(shardCount)
+                .I$();
+        dispatchO3SortTasks(shardCount, indexAddr, cpyAddr, IGNORE, cthO3SortIndexShardRef);
+
+        long srcAddr = indexAddr;
+        long dstAddr = cpyAddr;
+        for (int shardsPerRun = 1; shardsPerRun < shardCount; shardsPerRun *= 2) {
+            dispatchO3SortTasks(shardCount / (shardsPerRun * 2), srcAddr, dstAddr, shardsPerRun, cthO3MergeIndexShardsRef);
+            final long tmp = srcAddr;
+            srcAddr = dstAddr;
+            dstAddr = tmp;
+        }
+        if (srcAddr != indexAddr) {
+            Vect.memcpy(indexAddr, srcAddr, rowCount * TIMESTAMP_MERGE_ENTRY_BYTES);
+        }
+    }
+
     private void o3TimestampSetter(long timestamp) {
         o3TimestampMem.putLong128(timestamp, getO3RowCount0());
         o3CommitBatchTimestampMin = Math.min(o3CommitBatchTimestampMin, timestamp);
@@ -6520,6 +7209,7 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
             Path walPath
     ) {
         o3ColumnOverrides.clear();
+        symbolRemapColumns.clear();
         if (symbolMapDiffCursor != null) {
             SymbolMapDiff symbolMapDiff;
             while ((symbolMapDiff = symbolMapDiffCursor.nextSymbolMapDiff()) != null) {
@@ -6536,11 +7226,15 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
                             .put(", walPath=").put(walPath)
                             .put(']');
                 }
+                IntList symbolRewriteMap = symbolRewriteMaps.getQuiet(columnIndex);
+                if (symbolRewriteMap == null) {
+                    symbolRewriteMap = new IntList();
+                    symbolRewriteMaps.extendAndSet(columnIndex, symbolRewriteMap);
+                }
                 boolean identical = createWalSymbolMapping(symbolMapDiff, columnIndex, symbolRewriteMap);
 
                 if (!identical) {
                     int primaryColumnIndex = getPrimaryColumnIndex(columnIndex);
-                    MemoryCR o3SymbolColumn = o3Columns.getQuick(primaryColumnIndex);
                     final MemoryCARW symbolColumnDest;
 
                     // Column is read-only mapped memory, so we need to take in RAM column and remap values into it
@@ -6554,29 +7248,25 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
                     symbolColumnDest.jumpTo((rowHi - rowLo) << 2);
 
                     o3ColumnOverrides.setQuick(primaryColumnIndex, symbolColumnDest);
-                    final int cleanSymbolCount = symbolMapDiff.getCleanSymbolCount();
-                    for (long rowId = rowLo; rowId < rowHi; rowId++) {
-
-                        int symKey = o3SymbolColumn.getInt(rowId << 2);
-                        assert (symKey >= 0 || symKey == SymbolTable.VALUE_IS_NULL);
-                        if (symKey >= cleanSymbolCount) {
-                            int newKey = symbolRewriteMap.getQuick(symKey - cleanSymbolCount);
-                            if (newKey < 0) {
-                                // This symbol was not mapped in WAL
-                                // WAL is invalid
-                                throw CairoException.critical(0).put("WAL symbol key not mapped [columnIndex=").put(columnIndex)
-                                        .put(", columnKey=").put(symKey)
-                                        .put(", walPath=").put(walPath)
-                                        .put(", walRowId=").put(rowId)
-                                        .put(']');
-                            }
-                            symKey = newKey;
-                        }
-                        symbolColumnDest.putInt((rowId - rowLo) << 2, symKey);
-                    }
-                    symbolColumnDest.shiftAddressRight(rowLo << 2);
+                    symbolRemapColumns.add(columnIndex);
+                    symbolRemapColumns.add(symbolMapDiff.getCleanSymbolCount());
+                }
+            }
+
+            // Symbol map writers are updated above, one column at a time. Rewriting the keys
+            // only reads the mappings, so with multiple columns to remap it is done in column tasks.
+            final int remapCount = symbolRemapColumns.size();
+            if (remapCount > 2 && configuration.isWalApplyParallelSymbolRemapEnabled()) {
+                dispatchSymbolRemapTasks(rowLo, rowHi);
+            } else {
+                for (int i = 0; i < remapCount; i += 2) {
+                    remapWalSymbolColumn(symbolRemapColumns.getQuick(i), symbolRemapColumns.getQuick(i + 1), rowLo, rowHi, walPath);
                 }
             }
+
+            for (int i = 0; i < remapCount; i += 2) {
+                o3MemColumns1.get(getPrimaryColumnIndex(symbolRemapColumns.getQuick(i))).shiftAddressRight(rowLo << 2);
+            }
         }
 
         if (o3ColumnOverrides.size() == 0) {
@@ -6586,6 +7276,31 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
         return o3ColumnOverrides;
     }
 
+    private void remapWalSymbolColumn(int columnIndex, int cleanSymbolCount, long rowLo, long rowHi, @Nullable Path walPath) {
+        final int primaryColumnIndex = getPrimaryColumnIndex(columnIndex);
+        final MemoryCR o3SymbolColumn = o3Columns.getQuick(primaryColumnIndex);
+        final MemoryCARW symbolColumnDest = o3MemColumns1.getQuick(primaryColumnIndex);
+        final IntList symbolRewriteMap = symbolRewriteMaps.getQuick(columnIndex);
+        for (long rowId = rowLo; rowId < rowHi; rowId++) {
+            int symKey = o3SymbolColumn.getInt(rowId << 2);
+            assert (symKey >= 0 || symKey == SymbolTable.VALUE_IS_NULL);
+            if (symKey >= cleanSymbolCount) {
+                int newKey = symbolRewriteMap.getQuick(symKey - cleanSymbolCount);
+                if (newKey < 0) {
+                    // This symbol was not mapped in WAL
+                    // WAL is invalid
+                    throw CairoException.critical(0).put("WAL symbol key not mapped [columnIndex=").put(columnIndex)
+                            .put(", columnKey=").put(symKey)
+                            .put(", walPath=").put(walPath)
+                            .put(", walRowId=").put(rowId)
+                            .put(']');
+                }
+                symKey = newKey;
+            }
+            symbolColumnDest.putInt((rowId - rowLo) << 2, symKey);
+        }
+    }
+
     private void removeColumnFiles(int columnIndex, int columnType) {
         PurgingOperator purgingOperator = getPurgingOperator();
         long defaultNameTxn = columnVersionWriter.getDefaultColumnNameTxn(columnIndex);
@@ -6615,6 +7330,8 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
             removeFileOrLog(ff, iFile(path.trimTo(plen), columnName, columnNameTxn));
             removeFileOrLog(ff, keyFileName(path.trimTo(plen), columnName, columnNameTxn));
             removeFileOrLog(ff, valueFileName(path.trimTo(plen), columnName, columnNameTxn));
+            removeFileOrLog(ff, ZoneMapUtils.zoneMapFileName(path.trimTo(plen), columnName, columnNameTxn));
+            removeFileOrLog(ff, BloomFilterUtils.bloomFilterFileName(path.trimTo(plen), columnName, columnNameTxn));
             path.trimTo(rootLen);
         } else {
             LOG.critical()
@@ -7118,6 +7835,11 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
         }
     }
 
+    private Path setPathForParquetPartition(Path path, long partitionTimestamp) {
+        setPathForPartition(path.trimTo(rootLen), partitionBy, partitionTimestamp, -1L);
+        return path.put(PARQUET_FILE_MARKER).$();
+    }
+
     private void setRowValueNotNull(int columnIndex) {
         assert rowValueIsNotNull.getQuick(columnIndex) != masterRef;
         rowValueIsNotNull.setQuick(columnIndex, masterRef);
@@ -7343,6 +8065,7 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
                     }
 
                     txWriter.updatePartitionSizeByTimestamp(targetPartition, targetFrame.getRowCount());
+                    addSkipIndexUpdate(targetPartition, copyTargetFrame ? 0 : originalSize);
                     if (lastPartitionSquashed) {
                         // last partition is squashed, adjust fixed/transient row sizes
                         long newTransientRowCount = targetFrame.getRowCount() - txWriter.getLagRowCount();
@@ -7358,6 +8081,7 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
                 }
 
                 columnVersionWriter.commit();
+                updateSkipIndexes();
                 txWriter.setColumnVersion(columnVersionWriter.getVersion());
                 txWriter.commit(denseSymbolMapWriters);
                 processPartitionRemoveCandidates();
@@ -7514,6 +8238,14 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
     }
 
     private void updateIndexes() {
+        if (!avoidIndexOnCommit && txWriter.getPartitionCount() > 0) {
+            // O3 commits report changed partitions on their own
+            final long hi = txWriter.getTransientRowCount();
+            addSkipIndexUpdate(
+                    txWriter.getPartitionTimestampByIndex(txWriter.getPartitionCount() - 1),
+                    txWriter.getAppendedPartitionCount() == 1 ? hi - txWriter.getLastTxSize() : 0
+            );
+        }
         if (indexCount == 0 || avoidIndexOnCommit) {
             avoidIndexOnCommit = false;
             return;
@@ -7563,6 +8295,7 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
             final ColumnIndexer indexer = denseIndexers.getQuick(i);
             final long sequence = indexer.getSequence();
             queueItem.indexer = indexer;
+            queueItem.bloomFilterWriter = null;
             queueItem.lo = lo;
             queueItem.hi = hi;
             queueItem.countDownLatch = indexLatch;
@@ -7725,6 +8458,70 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
         }
     }
 
+    private void updateSkipIndexes() {
+        if (skipIndexUpdates.size() == 0) {
+            return;
+        }
+        if (zoneMapEnabled && zoneMapWriter == null) {
+            zoneMapWriter = new ZoneMapWriter(configuration);
+        }
+        try {
+            final int timestampIndex = metadata.getTimestampIndex();
+            int bloomFilterCount = 0;
+            for (int i = 0, n = skipIndexUpdates.size(); i < n; i += 2) {
+                final long partitionTimestamp = skipIndexUpdates.getQuick(i);
+                final long rowLo = skipIndexUpdates.getQuick(i + 1);
+                final int partitionIndexRaw = txWriter.findAttachedPartitionRawIndexByLoTimestamp(partitionTimestamp);
+                if (partitionIndexRaw < 0) {
+                    continue;
+                }
+                final int partitionIndex = partitionIndexRaw / LONGS_PER_TX_ATTACHED_PARTITION;
+                if (txWriter.isPartitionReadOnly(partitionIndex)
+                        || txWriter.isPartitionCompressed(partitionIndex)) {
+                    continue;
+                }
+                // size of the last partition is not in the partition table until commit; rows in
+                // the lag are not counted in the transient row count, they may be rewritten in place
+                final long partitionSize = partitionIndex == txWriter.getPartitionCount() - 1
+                        ? txWriter.getTransientRowCount()
+                        : txWriter.getPartitionSize(partitionIndex);
+                setPathForPartition(path.trimTo(rootLen), partitionBy, partitionTimestamp, txWriter.getPartitionNameTxn(partitionIndex));
+                for (int columnIndex = 0; columnIndex < columnCount; columnIndex++) {
+                    final int columnType = metadata.getColumnType(columnIndex);
+                    if (columnType < 0 || columnIndex == timestampIndex) {
+                        continue;
+                    }
+                    final boolean zoneMap = zoneMapEnabled && ZoneMapUtils.isSupported(columnType);
+                    final boolean bloomFilter = bloomFilterEnabled && BloomFilterUtils.isSupported(columnType);
+                    if (!zoneMap && !bloomFilter) {
+                        continue;
+                    }
+                    final long columnTop = columnVersionWriter.getColumnTop(partitionTimestamp, columnIndex);
+                    if (columnTop < 0 || columnTop >= partitionSize) {
+                        continue;
+                    }
+                    final CharSequence columnName = metadata.getColumnName(columnIndex);
+                    final long columnNameTxn = columnVersionWriter.getColumnNameTxn(partitionTimestamp, columnIndex);
+                    final long columnRowLo = Math.max(rowLo - columnTop, 0);
+                    if (zoneMap) {
+                        zoneMapWriter.update(path, columnName, columnNameTxn, columnType, columnRowLo, partitionSize - columnTop);
+                    }
+                    if (bloomFilter) {
+                        if (bloomFilterCount == bloomFilterWriters.size()) {
+                            bloomFilterWriters.add(new BloomFilterWriter(configuration));
+                        }
+                        bloomFilterWriters.getQuick(bloomFilterCount++)
+                                .of(path, columnName, columnNameTxn, columnType, columnRowLo, partitionSize - columnTop);
+                    }
+                }
+            }
+            buildBloomFilters(bloomFilterCount);
+        } finally {
+            path.trimTo(rootLen);
+            skipIndexUpdates.clear();
+        }
+    }
+
     private void validateSwapMeta(CharSequence columnName) {
         try {
             try {
@@ -7834,6 +8631,14 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
         todoMem.sync(false);
     }
 
+    static void buildBloomFilterAndCountDown(BloomFilterWriter writer, SOCountDownLatch latch) {
+        try {
+            writer.build();
+        } finally {
+            latch.countDown();
+        }
+    }
+
     static void indexAndCountDown(ColumnIndexer indexer, long lo, long hi, SOCountDownLatch latch) {
         try {
             indexer.refreshSourceAndIndex(lo, hi);
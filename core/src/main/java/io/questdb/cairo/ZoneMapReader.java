@@ -0,0 +1,197 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo;
+
+import io.questdb.std.*;
+import io.questdb.std.str.LPSZ;
+import io.questdb.std.str.Utf8StringSink;
+import io.questdb.std.str.Utf8s;
+
+import static io.questdb.cairo.ZoneMapUtils.*;
+
+/**
+ * Reads zone map of a column file and aggregates block statistics over row ranges,
+ * see {@link ZoneMapUtils} for the file layout. The last loaded zone map is cached
+ * until the reader is cleared.
+ */
+public class ZoneMapReader implements QuietCloseable, Mutable {
+    private final FilesFacade ff;
+    private final Utf8StringSink loadedPath = new Utf8StringSink();
+    private int blockShift;
+    private long buf;
+    private long bufSize;
+    private int columnType;
+    private long coveredRowCount;
+    private boolean hasNulls;
+    private boolean hasValues;
+    private boolean loaded;
+    private long max;
+    private long min;
+
+    public ZoneMapReader(FilesFacade ff) {
+        this.ff = ff;
+    }
+
+    /**
+     * Aggregates statistics of the blocks that hold [rowLo, rowHi) rows of the column file.
+     * The statistics may include rows outside the range, but never miss rows inside of it.
+     *
+     * @param rowLo first row, inclusive
+     * @param rowHi last row, exclusive
+     * @return false when the zone map does not cover the rows
+     */
+    public boolean aggregate(long rowLo, long rowHi) {
+        if (!loaded || rowLo < 0 || rowLo >= rowHi || rowHi > coveredRowCount) {
+            return false;
+        }
+        final boolean isDouble = ColumnType.tagOf(columnType) == ColumnType.DOUBLE;
+        hasNulls = false;
+        hasValues = false;
+        double minDouble = Double.NaN;
+        double maxDouble = Double.NaN;
+        for (long block = rowLo >>> blockShift, blockHi = ((rowHi - 1) >>> blockShift) + 1; block < blockHi; block++) {
+            final long entryAddr = buf + getBlockEntryOffset(block);
+            final long blockMin = Unsafe.getUnsafe().getLong(entryAddr + BLOCK_OFFSET_MIN);
+            final long blockMax = Unsafe.getUnsafe().getLong(entryAddr + BLOCK_OFFSET_MAX);
+            final long nullCount = Unsafe.getUnsafe().getLong(entryAddr + BLOCK_OFFSET_NULL_COUNT);
+            hasNulls |= nullCount > 0;
+            if (isDouble) {
+                final double lo = Double.longBitsToDouble(blockMin);
+                if (lo == lo) {
+                    final double hi = Double.longBitsToDouble(blockMax);
+                    minDouble = hasValues ? Math.min(minDouble, lo) : lo;
+                    maxDouble = hasValues ? Math.max(maxDouble, hi) : hi;
+                    hasValues = true;
+                }
+            } else if (blockMin != Numbers.LONG_NULL) {
+                min = hasValues ? Math.min(min, blockMin) : blockMin;
+                max = hasValues ? Math.max(max, blockMax) : blockMax;
+                hasValues = true;
+            }
+        }
+        if (isDouble) {
+            min = Double.doubleToRawLongBits(minDouble);
+            max = Double.doubleToRawLongBits(maxDouble);
+        }
+        return true;
+    }
+
+    @Override
+    public void clear() {
+        loadedPath.clear();
+        loaded = false;
+    }
+
+    @Override
+    public void close() {
+        clear();
+        if (buf != 0) {
+            buf = Unsafe.free(buf, bufSize, MemoryTag.NATIVE_DEFAULT);
+            bufSize = 0;
+        }
+    }
+
+    public int getColumnType() {
+        return columnType;
+    }
+
+    public double getMaxDouble() {
+        return Double.longBitsToDouble(max);
+    }
+
+    public long getMaxLong() {
+        return max;
+    }
+
+    public double getMinDouble() {
+        return Double.longBitsToDouble(min);
+    }
+
+    public long getMinLong() {
+        return min;
+    }
+
+    /**
+     * @return true when the aggregated blocks have at least one null value
+     */
+    public boolean hasNulls() {
+        return hasNulls;
+    }
+
+    /**
+     * @return true when the aggregated blocks have at least one non-null value, min and max
+     * are meaningless otherwise
+     */
+    public boolean hasValues() {
+        return hasValues;
+    }
+
+    /**
+     * Loads zone map file unless it is already loaded.
+     *
+     * @param path       zone map file path
+     * @param columnType expected column type
+     * @return false when the file is missing or does not match the column
+     */
+    public boolean of(LPSZ path, int columnType) {
+        if (Utf8s.equals(loadedPath, path)) {
+            return loaded && this.columnType == columnType;
+        }
+        loadedPath.clear();
+        loadedPath.put(path);
+        loaded = false;
+
+        final int fd = ff.openRO(path);
+        if (fd < 0) {
+            return false;
+        }
+        try {
+            final long size = ff.length(fd);
+            if (size < HEADER_SIZE) {
+                return false;
+            }
+            if (size > bufSize) {
+                buf = Unsafe.realloc(buf, bufSize, size, MemoryTag.NATIVE_DEFAULT);
+                bufSize = size;
+            }
+            if (ff.read(fd, buf, size, 0) != size) {
+                return false;
+            }
+            final long shift = Unsafe.getUnsafe().getLong(buf + HEADER_OFFSET_BLOCK_SHIFT);
+            final long rowCount = Unsafe.getUnsafe().getLong(buf + HEADER_OFFSET_ROW_COUNT);
+            if (Unsafe.getUnsafe().getLong(buf + HEADER_OFFSET_COLUMN_TYPE) != columnType || shift < 0 || shift > 62 || rowCount < 0) {
+                return false;
+            }
+            this.blockShift = (int) shift;
+            this.columnType = columnType;
+            // the file may be shorter than the header claims while the writer is truncating it
+            this.coveredRowCount = Math.min(rowCount, ((size - HEADER_SIZE) / BLOCK_ENTRY_SIZE) << shift);
+            this.loaded = true;
+            return true;
+        } finally {
+            ff.close(fd);
+        }
+    }
+}
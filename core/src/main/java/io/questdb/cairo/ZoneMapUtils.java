@@ -0,0 +1,80 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo;
+
+import io.questdb.std.str.Path;
+
+import static io.questdb.cairo.TableUtils.COLUMN_NAME_TXN_NONE;
+
+/**
+ * Zone map file layout. A zone map keeps min value, max value and null count of
+ * every block of rows of a column file in a partition. Each block is a fixed, power
+ * of 2, number of rows long. Min and max are stored as longs for integer columns and as
+ * double bits for double columns. Min and max are long null, or NaN for double columns,
+ * when the block has no values. Double infinities are counted as nulls and still take part
+ * in min and max, the way comparison operators treat them.
+ * <p>
+ * Header stores block size, column type and the number of rows of the column file
+ * covered by the blocks. Rows after the covered count have no statistics.
+ */
+public final class ZoneMapUtils {
+    public static final long BLOCK_ENTRY_SIZE = 3 * Long.BYTES;
+    public static final int BLOCK_OFFSET_MAX = 8;
+    public static final int BLOCK_OFFSET_MIN = 0;
+    public static final int BLOCK_OFFSET_NULL_COUNT = 16;
+    public static final int HEADER_OFFSET_BLOCK_SHIFT = 0;
+    public static final int HEADER_OFFSET_COLUMN_TYPE = 8;
+    public static final int HEADER_OFFSET_ROW_COUNT = 16;
+    public static final int HEADER_SIZE = 32;
+
+    private ZoneMapUtils() {
+    }
+
+    public static long getBlockEntryOffset(long block) {
+        return HEADER_SIZE + block * BLOCK_ENTRY_SIZE;
+    }
+
+    public static boolean isSupported(int columnType) {
+        switch (ColumnType.tagOf(columnType)) {
+            case ColumnType.BYTE:
+            case ColumnType.SHORT:
+            case ColumnType.INT:
+            case ColumnType.LONG:
+            case ColumnType.TIMESTAMP:
+            case ColumnType.DOUBLE:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    public static Path zoneMapFileName(Path path, CharSequence name, long columnNameTxn) {
+        path.concat(name).put(".zm");
+        if (columnNameTxn > COLUMN_NAME_TXN_NONE) {
+            path.put('.').put(columnNameTxn);
+        }
+        return path.$();
+    }
+}
@@ -0,0 +1,233 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo;
+
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.std.*;
+import io.questdb.std.str.Path;
+
+import static io.questdb.cairo.ZoneMapUtils.*;
+
+/**
+ * Maintains zone maps of numeric columns, see {@link ZoneMapUtils} for the file layout.
+ * Zone maps are updated after the data is committed. Statistics of the rows that
+ * precede the first changed row are reused, the blocks from there on are recomputed
+ * from the column file.
+ */
+public class ZoneMapWriter implements QuietCloseable {
+    private static final Log LOG = LogFactory.getLog(ZoneMapWriter.class);
+    private final int blockShift;
+    private final FilesFacade ff;
+    private final long fileOpenOpts;
+    private long buf;
+    private long bufSize;
+
+    public ZoneMapWriter(CairoConfiguration configuration) {
+        this.ff = configuration.getFilesFacade();
+        this.blockShift = Numbers.msb(configuration.getZoneMapBlockRows());
+        this.fileOpenOpts = configuration.getWriterFileOpenOpts();
+    }
+
+    @Override
+    public void close() {
+        if (buf != 0) {
+            buf = Unsafe.free(buf, bufSize, MemoryTag.NATIVE_DEFAULT);
+            bufSize = 0;
+        }
+    }
+
+    /**
+     * Brings zone map of the column file up to date. Zone map is removed when it cannot be
+     * updated, the column is then scanned by queries as if the zone map never existed.
+     *
+     * @param partitionPath path to partition directory, the path is restored on return
+     * @param columnName    column name
+     * @param columnNameTxn column name txn
+     * @param columnType    column type, must be supported by zone maps
+     * @param rowLo         first row of the column file that changed since the last update
+     * @param rowCount      row count of the column file
+     */
+    public void update(Path partitionPath, CharSequence columnName, long columnNameTxn, int columnType, long rowLo, long rowCount) {
+        assert isSupported(columnType);
+        final int plen = partitionPath.size();
+        int fd = -1;
+        try {
+            fd = TableUtils.openRW(ff, zoneMapFileName(partitionPath, columnName, columnNameTxn), LOG, fileOpenOpts);
+            long coveredRowCount = 0;
+            if (ff.length(fd) >= HEADER_SIZE
+                    && ff.readNonNegativeLong(fd, HEADER_OFFSET_BLOCK_SHIFT) == blockShift
+                    && ff.readNonNegativeLong(fd, HEADER_OFFSET_COLUMN_TYPE) == columnType) {
+                coveredRowCount = Math.max(ff.readNonNegativeLong(fd, HEADER_OFFSET_ROW_COUNT), 0);
+            }
+
+            final long blockLo = Math.max(Math.min(coveredRowCount, rowLo), 0) >>> blockShift;
+            final long blockHi = (rowCount + (1L << blockShift) - 1) >>> blockShift;
+            if (blockHi > blockLo) {
+                updateBlocks(fd, partitionPath.trimTo(plen), columnName, columnNameTxn, columnType, blockLo, blockHi, rowCount);
+            }
+
+            // header goes last, readers do not look at blocks past the covered row count
+            ensureCapacity(HEADER_SIZE);
+            Unsafe.getUnsafe().putLong(buf + HEADER_OFFSET_BLOCK_SHIFT, blockShift);
+            Unsafe.getUnsafe().putLong(buf + HEADER_OFFSET_COLUMN_TYPE, columnType);
+            Unsafe.getUnsafe().putLong(buf + HEADER_OFFSET_ROW_COUNT, rowCount);
+            Unsafe.getUnsafe().putLong(buf + HEADER_OFFSET_ROW_COUNT + Long.BYTES, 0);
+            write(fd, buf, HEADER_SIZE, 0);
+            if (!ff.truncate(fd, getBlockEntryOffset(blockHi))) {
+                throw CairoException.critical(ff.errno()).put("could not truncate zone map [fd=").put(fd).put(']');
+            }
+        } catch (CairoException e) {
+            LOG.error().$("could not update zone map, removing [path=").$(partitionPath.trimTo(plen))
+                    .$(", column=").utf8(columnName)
+                    .$(", errno=").$(e.getErrno())
+                    .$(", msg=").$(e.getFlyweightMessage())
+                    .I$();
+            if (fd != -1) {
+                ff.close(fd);
+                fd = -1;
+            }
+            ff.removeQuiet(zoneMapFileName(partitionPath.trimTo(plen), columnName, columnNameTxn));
+        } finally {
+            if (fd != -1) {
+                ff.close(fd);
+            }
+            partitionPath.trimTo(plen);
+        }
+    }
+
+    private static void computeBlock(int columnType, long addr, long count, long entryAddr) {
+        long min;
+        long max;
+        long nullCount = 0;
+        switch (ColumnType.tagOf(columnType)) {
+            case ColumnType.BYTE: {
+                byte lo = Byte.MAX_VALUE;
+                byte hi = Byte.MIN_VALUE;
+                for (long p = addr, lim = addr + count; p < lim; p++) {
+                    final byte v = Unsafe.getUnsafe().getByte(p);
+                    lo = (byte) Math.min(lo, v);
+                    hi = (byte) Math.max(hi, v);
+                }
+                min = lo;
+                max = hi;
+                break;
+            }
+            case ColumnType.SHORT: {
+                short lo = Short.MAX_VALUE;
+                short hi = Short.MIN_VALUE;
+                for (long p = addr, lim = addr + (count << 1); p < lim; p += Short.BYTES) {
+                    final short v = Unsafe.getUnsafe().getShort(p);
+                    lo = (short) Math.min(lo, v);
+                    hi = (short) Math.max(hi, v);
+                }
+                min = lo;
+                max = hi;
+                break;
+            }
+            case ColumnType.INT:
+                nullCount = count - Vect.countInt(addr, count);
+                min = nullCount < count ? Vect.minInt(addr, count) : Numbers.LONG_NULL;
+                max = nullCount < count ? Vect.maxInt(addr, count) : Numbers.LONG_NULL;
+                break;
+            case ColumnType.DOUBLE: {
+                // infinities are nulls to the "= null" predicate, yet they take part in
+                // comparisons, hence they are counted as nulls and included in min and max
+                double lo = Double.NaN;
+                double hi = Double.NaN;
+                for (long p = addr, lim = addr + (count << 3); p < lim; p += Double.BYTES) {
+                    final double v = Unsafe.getUnsafe().getDouble(p);
+                    if (Numbers.isNull(v)) {
+                        nullCount++;
+                    }
+                    if (v == v) {
+                        lo = lo == lo ? Math.min(lo, v) : v;
+                        hi = hi == hi ? Math.max(hi, v) : v;
+                    }
+                }
+                min = Double.doubleToRawLongBits(lo);
+                max = Double.doubleToRawLongBits(hi);
+                break;
+            }
+            default:
+                // LONG and TIMESTAMP
+                nullCount = count - Vect.countLong(addr, count);
+                min = Vect.minLong(addr, count);
+                max = Vect.maxLong(addr, count);
+                break;
+        }
+        Unsafe.getUnsafe().putLong(entryAddr + BLOCK_OFFSET_MIN, min);
+        Unsafe.getUnsafe().putLong(entryAddr + BLOCK_OFFSET_MAX, max);
+        Unsafe.getUnsafe().putLong(entryAddr + BLOCK_OFFSET_NULL_COUNT, nullCount);
+    }
+
+    private void ensureCapacity(long size) {
+        if (size > bufSize) {
+            buf = Unsafe.realloc(buf, bufSize, size, MemoryTag.NATIVE_DEFAULT);
+            bufSize = size;
+        }
+    }
+
+    private void updateBlocks(
+            int fd,
+            Path partitionPath,
+            CharSequence columnName,
+            long columnNameTxn,
+            int columnType,
+            long blockLo,
+            long blockHi,
+            long rowCount
+    ) {
+        final int shift = ColumnType.pow2SizeOf(columnType);
+        final long dataSize = rowCount << shift;
+        final int dataFd = TableUtils.openRO(ff, TableUtils.dFile(partitionPath, columnName, columnNameTxn), LOG);
+        long dataAddr = 0;
+        try {
+            dataAddr = TableUtils.mapRO(ff, dataFd, dataSize, MemoryTag.MMAP_TABLE_WRITER);
+            final long entriesSize = (blockHi - blockLo) * BLOCK_ENTRY_SIZE;
+            ensureCapacity(entriesSize);
+            for (long block = blockLo; block < blockHi; block++) {
+                final long lo = block << blockShift;
+                final long count = Math.min(rowCount - lo, 1L << blockShift);
+                computeBlock(columnType, dataAddr + (lo << shift), count, buf + (block - blockLo) * BLOCK_ENTRY_SIZE);
+            }
+            write(fd, buf, entriesSize, getBlockEntryOffset(blockLo));
+        } finally {
+            if (dataAddr != 0) {
+                ff.munmap(dataAddr, dataSize, MemoryTag.MMAP_TABLE_WRITER);
+            }
+            ff.close(dataFd);
+        }
+    }
+
+    private void write(int fd, long addr, long size, long offset) {
+        if (ff.write(fd, addr, size, offset) != size) {
+            throw CairoException.critical(ff.errno()).put("could not write zone map [fd=").put(fd)
+                    .put(", size=").put(size)
+                    .put(", offset=").put(offset)
+                    .put(']');
+        }
+    }
+}
@@ -94,6 +94,7 @@ public class OrderedMap implements Map, Reopenable {
     private final OrderedMapValue value2;
     private final OrderedMapValue value3;
     private final int valueColumnCount;
+    private final long[] valueOffsets;
     private final long valueSize;
     private int free;
     private long heapLimit; // Heap memory limit pointer.
@@ -213,6 +214,7 @@ public class OrderedMap implements Map, Reopenable {
                 valueColumnCount = 0;
             }
             this.valueSize = valueSize;
+            this.valueOffsets = valueOffsets;
 
             value = new OrderedMapValue(valueSize, valueOffsets);
             value2 = new OrderedMapValue(valueSize, valueOffsets);
@@ -303,6 +305,20 @@ public class OrderedMap implements Map, Reopenable {
         mergeRef.merge((OrderedMap) srcMap, mergeFunc);
     }
 
+    /**
+     * Creates a key that is written to its own memory rather than to the map's heap.
+     * Once written and hashed, a probe key may be looked up in this map or in any other
+     * map with the same key and value types, e.g. in one of several partitions of a hash
+     * table. Lookups never write to the map, so several threads may look up values
+     * concurrently, each using its own probe key, as long as nobody modifies the map
+     * in the meantime.
+     *
+     * @return new probe key; must be closed when no longer needed
+     */
+    public ProbeKey newProbeKey() {
+        return new ProbeKeyImpl();
+    }
+
     @Override
     public void reopen(int keyCapacity, long heapSize) {
         if (heapStart == 0) {
@@ -398,6 +414,20 @@ public class OrderedMap implements Map, Reopenable {
         return valueOf(keyWriter.startAddress, keyWriter.appendAddress, true, value);
     }
 
+    private OrderedMapValue findValueReadOnly(long keyStartAddress, long keyLen, long hashCode, OrderedMapValue value) {
+        final int hashCodeLo = Numbers.decodeLowInt(hashCode);
+        int index = hashCodeLo & mask;
+        long offset;
+        while ((offset = getOffset(offsets, index)) > -1) {
+            if (hashCodeLo == getHashCodeLo(offsets, index) && rawKeyEq(offset, keyStartAddress, keyLen)) {
+                final long startAddress = heapStart + offset;
+                return valueOf(startAddress, startAddress + keyOffset + keyLen, false, value);
+            }
+            index = (index + 1) & mask;
+        }
+        return null;
+    }
+
     private void mergeFixedSizeKey(OrderedMap srcMap, MapValueMergeFunction mergeFunc) {
         assert keySize >= 0;
 
@@ -516,6 +546,16 @@ public class OrderedMap implements Map, Reopenable {
         return null;
     }
 
+    private boolean rawKeyEq(long offset, long keyStartAddress, long keyLen) {
+        final long a = heapStart + offset;
+        if (keySize == -1) {
+            // Check the length first.
+            return Unsafe.getUnsafe().getInt(a) == Unsafe.getUnsafe().getInt(keyStartAddress)
+                    && Vect.memeq(a + keyOffset, keyStartAddress + keyOffset, keyLen);
+        }
+        return Vect.memeq(a, keyStartAddress, keySize);
+    }
+
     private void rehash() {
         rehash((long) keyCapacity << 1);
     }
@@ -598,6 +638,39 @@ public class OrderedMap implements Map, Reopenable {
         void merge(OrderedMap srcMap, MapValueMergeFunction mergeFunc);
     }
 
+    /**
+     * Key written to its own memory, see {@link #newProbeKey()}. The key is hashed once
+     * and then may be used with any map that has the same key and value types.
+     */
+    public interface ProbeKey extends RecordSinkSPI, QuietCloseable {
+
+        /**
+         * Inserts the key into the given map or finds the existing entry. Not thread-safe
+         * with respect to the map.
+         *
+         * @param map      map with the same key and value types as the map the key was created by
+         * @param hashCode hash code returned by {@link #hash()}
+         * @return new or existing value
+         */
+        MapValue createValue(OrderedMap map, long hashCode);
+
+        /**
+         * Read-only lookup, safe to call concurrently as long as nobody modifies the map.
+         *
+         * @param map      map with the same key and value types as the map the key was created by
+         * @param hashCode hash code returned by {@link #hash()}
+         * @return existing value or null if the key is not in the map
+         */
+        MapValue findValue(OrderedMap map, long hashCode);
+
+        // Commits the key and returns its hash code.
+        long hash();
+
+        ProbeKey init();
+
+        void put(Record record, RecordSink sink);
+    }
+
     class FixedSizeKey extends Key {
 
         @Override
@@ -851,6 +924,210 @@ public class OrderedMap implements Map, Reopenable {
         protected abstract boolean eq(long offset);
     }
 
+    private class ProbeKeyImpl implements ProbeKey {
+        private static final long INITIAL_VAR_KEY_MEM_SIZE = 64;
+        private final OrderedMapValue value = new OrderedMapValue(valueSize, valueOffsets);
+        private final Key writer;
+        private long keyLen;
+        private long keyMem;
+        private long keyMemSize;
+
+        private ProbeKeyImpl() {
+            keyMemSize = keySize == -1 ? INITIAL_VAR_KEY_MEM_SIZE : Math.max(keySize, Long.BYTES);
+            keyMem = Unsafe.malloc(keyMemSize, heapMemoryTag);
+            writer = keySize == -1 ? new VarSizeWriter() : new FixedSizeWriter();
+        }
+
+        @Override
+        public void close() {
+            if (keyMem != 0) {
+                keyMem = Unsafe.free(keyMem, keyMemSize, heapMemoryTag);
+                keyMemSize = 0;
+            }
+        }
+
+        @Override
+        public MapValue createValue(OrderedMap map, long hashCode) {
+            assert map.keySize == keySize && map.valueSize == valueSize;
+            final Key mapKey = map.key.init();
+            if (keySize == -1) {
+                mapKey.copyFromRawKey(writer.startAddress + keyOffset, keyLen);
+            } else {
+                mapKey.copyFromRawKey(writer.startAddress, keySize);
+            }
+            return mapKey.createValue(hashCode);
+        }
+
+        @Override
+        public MapValue findValue(OrderedMap map, long hashCode) {
+            assert map.keySize == keySize && map.valueSize == valueSize;
+            return map.findValueReadOnly(writer.startAddress, keyLen, hashCode, value);
+        }
+
+        @Override
+        public long hash() {
+            keyLen = writer.commit();
+            return writer.hash();
+        }
+
+        @Override
+        public ProbeKey init() {
+            writer.init();
+            return this;
+        }
+
+        @Override
+        public void put(Record record, RecordSink sink) {
+            sink.copy(record, writer);
+        }
+
+        @Override
+        public void putBin(BinarySequence value) {
+            writer.putBin(value);
+        }
+
+        @Override
+        public void putBool(boolean value) {
+            writer.putBool(value);
+        }
+
+        @Override
+        public void putByte(byte value) {
+            writer.putByte(value);
+        }
+
+        @Override
+        public void putChar(char value) {
+            writer.putChar(value);
+        }
+
+        @Override
+        public void putDate(long value) {
+            writer.putDate(value);
+        }
+
+        @Override
+        public void putDouble(double value) {
+            writer.putDouble(value);
+        }
+
+        @Override
+        public void putFloat(float value) {
+            writer.putFloat(value);
+        }
+
+        @Override
+        public void putIPv4(int value) {
+            writer.putIPv4(value);
+        }
+
+        @Override
+        public void putInt(int value) {
+            writer.putInt(value);
+        }
+
+        @Override
+        public void putLong(long value) {
+            writer.putLong(value);
+        }
+
+        @Override
+        public void putLong128(long lo, long hi) {
+            writer.putLong128(lo, hi);
+        }
+
+        @Override
+        public void putLong256(Long256 value) {
+            writer.putLong256(value);
+        }
+
+        @Override
+        public void putLong256(long l0, long l1, long l2, long l3) {
+            writer.putLong256(l0, l1, l2, l3);
+        }
+
+        @Override
+        public void putRecord(Record value) {
+            writer.putRecord(value);
+        }
+
+        @Override
+        public void putShort(short value) {
+            writer.putShort(value);
+        }
+
+        @Override
+        public void putStr(CharSequence value) {
+            writer.putStr(value);
+        }
+
+        @Override
+        public void putStr(CharSequence value, int lo, int hi) {
+            writer.putStr(value, lo, hi);
+        }
+
+        @Override
+        public void putStrLowerCase(CharSequence value) {
+            writer.putStrLowerCase(value);
+        }
+
+        @Override
+        public void putStrLowerCase(CharSequence value, int lo, int hi) {
+            writer.putStrLowerCase(value, lo, hi);
+        }
+
+        @Override
+        public void putTimestamp(long value) {
+            writer.putTimestamp(value);
+        }
+
+        @Override
+        public void putVarchar(Utf8Sequence value) {
+            writer.putVarchar(value);
+        }
+
+        @Override
+        public void skip(int bytes) {
+            writer.skip(bytes);
+        }
+
+        // Encodes fixed-size keys into the probe key memory, which always fits the key.
+        private class FixedSizeWriter extends FixedSizeKey {
+
+            @Override
+            public void reset() {
+                startAddress = keyMem;
+                appendAddress = keyMem;
+            }
+
+            @Override
+            protected void checkCapacity(long requiredKeySize) {
+            }
+        }
+
+        // Encodes var-size keys into the probe key memory, growing it as needed.
+        private class VarSizeWriter extends VarSizeKey {
+
+            @Override
+            public void reset() {
+                startAddress = keyMem;
+                appendAddress = keyMem + keyOffset;
+            }
+
+            @Override
+            protected void checkCapacity(long requiredKeySize) {
+                if (appendAddress + requiredKeySize > keyMem + keyMemSize) {
+                    final long usedSize = appendAddress - keyMem;
+                    final long newSize = Math.max(keyMemSize << 1, usedSize + requiredKeySize);
+                    keyMem = Unsafe.realloc(keyMem, keyMemSize, newSize, heapMemoryTag);
+                    keyMemSize = newSize;
+                    startAddress = keyMem;
+                    appendAddress = keyMem + usedSize;
+                }
+            }
+        }
+    }
+
     class VarSizeKey extends Key {
         private long len;
 
@@ -1085,4 +1362,5 @@ public class OrderedMap implements Map, Reopenable {
             return Vect.memeq(a + keyOffset, b + keyOffset, len);
         }
     }
+
 }
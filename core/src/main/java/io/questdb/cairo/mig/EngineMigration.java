@@ -173,7 +173,9 @@ public class EngineMigration {
                     if (ff.exists(path.concat(TableUtils.META_FILE_NAME).$())) {
                         final int fdMeta = openFileRWOrFail(ff, path, context.getConfiguration().getWriterFileOpenOpts());
                         try {
-                            int currentTableVersion = TableUtils.readIntOrFail(ff, fdMeta, META_OFFSET_VERSION, mem, path);
+                            final int metaVersion = TableUtils.readIntOrFail(ff, fdMeta, META_OFFSET_VERSION, mem, path);
+                            final int versionFlags = metaVersion & TableUtils.META_VERSION_COMPRESSED_PARTITIONS;
+                            int currentTableVersion = metaVersion & ~TableUtils.META_VERSION_COMPRESSED_PARTITIONS;
                             if (currentTableVersion < latestMigrationVersion) {
                                 LOG.info()
                                         .$("upgrading [path=").$(copyPath.$())
@@ -217,7 +219,7 @@ public class EngineMigration {
                                         LOG.info().$("upgrading table _meta [path=").$(path).$(", toVersion=").$(ver).I$();
                                         // Upgrades between (latestTableVersion, latestMigrationVersion]
                                         // are backwards compatible and are not set in table _meta
-                                        TableUtils.writeIntOrFail(ff, fdMeta, META_OFFSET_VERSION, ver, mem, path);
+                                        TableUtils.writeIntOrFail(ff, fdMeta, META_OFFSET_VERSION, ver | versionFlags, mem, path);
                                     }
                                     path.trimTo(tablePlen);
                                 }
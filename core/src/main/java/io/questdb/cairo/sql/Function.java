@@ -33,6 +33,7 @@ import io.questdb.griffin.SqlExecutionContext;
 import io.questdb.std.BinarySequence;
 import io.questdb.std.Long256;
 import io.questdb.std.ObjList;
+import io.questdb.std.Unsafe;
 import io.questdb.std.str.CharSink;
 import io.questdb.std.str.Utf16Sink;
 import io.questdb.std.str.Utf8Sequence;
@@ -85,6 +86,22 @@ public interface Function extends Closeable, StatefulAtom, Plannable {
 
     boolean getBool(Record rec);
 
+    /**
+     * Batch counterpart of {@link #getBool(Record)}. Evaluates the function for all rows
+     * of the batch and writes the values to outAddr, one byte (0 or 1) per row.
+     * The default implementation calls {@link #getBool(Record)} row by row, functions
+     * that override it should also return true from {@link #supportsBatch(int)} for
+     * {@link ColumnType#BOOLEAN}.
+     *
+     * @param batch   page frame rows to evaluate the function for
+     * @param outAddr address of the output vector, at least {@link PageFrameBatch#MAX_ROWS} values long
+     */
+    default void getBoolBatch(PageFrameBatch batch, long outAddr) {
+        for (int i = 0, n = batch.getRowCount(); i < n; i++) {
+            Unsafe.getUnsafe().putByte(outAddr + i, (byte) (getBool(batch.getRecord(i)) ? 1 : 0));
+        }
+    }
+
     byte getByte(Record rec);
 
     char getChar(Record rec);
@@ -93,6 +110,15 @@ public interface Function extends Closeable, StatefulAtom, Plannable {
 
     double getDouble(Record rec);
 
+    /**
+     * Batch counterpart of {@link #getDouble(Record)}, see {@link #getBoolBatch(PageFrameBatch, long)}.
+     */
+    default void getDoubleBatch(PageFrameBatch batch, long outAddr) {
+        for (int i = 0, n = batch.getRowCount(); i < n; i++) {
+            Unsafe.getUnsafe().putDouble(outAddr + ((long) i << 3), getDouble(batch.getRecord(i)));
+        }
+    }
+
     float getFloat(Record rec);
 
     byte getGeoByte(Record rec);
@@ -109,6 +135,15 @@ public interface Function extends Closeable, StatefulAtom, Plannable {
 
     long getLong(Record rec);
 
+    /**
+     * Batch counterpart of {@link #getLong(Record)}, see {@link #getBoolBatch(PageFrameBatch, long)}.
+     */
+    default void getLongBatch(PageFrameBatch batch, long outAddr) {
+        for (int i = 0, n = batch.getRowCount(); i < n; i++) {
+            Unsafe.getUnsafe().putLong(outAddr + ((long) i << 3), getLong(batch.getRecord(i)));
+        }
+    }
+
     long getLong128Hi(Record rec);
 
     long getLong128Lo(Record rec);
@@ -223,6 +258,20 @@ public interface Function extends Closeable, StatefulAtom, Plannable {
         return getType() == ColumnType.UNDEFINED;
     }
 
+    /**
+     * Returns true if the function and all of its children functions implement batch
+     * evaluation for the given value type rather than falling back to the row-by-row
+     * default. Batch evaluation reads fixed-size column values straight from page frames,
+     * so it's meant to be used only for functions over page frame records, e.g. in
+     * parallel filters.
+     *
+     * @param type one of {@link ColumnType#BOOLEAN}, {@link ColumnType#LONG} or {@link ColumnType#DOUBLE}
+     * @return true if the corresponding batch getter, e.g. {@link #getLongBatch(PageFrameBatch, long)}, is implemented
+     */
+    default boolean supportsBatch(int type) {
+        return false;
+    }
+
     /**
      * Returns true if the function supports parallel execution, e.g. parallel filter
      * or GROUP BY. If the method returns false, single-threaded execution plan
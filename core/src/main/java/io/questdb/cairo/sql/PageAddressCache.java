@@ -26,11 +26,19 @@ package io.questdb.cairo.sql;
 
 import io.questdb.cairo.CairoConfiguration;
 import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.vm.MemoryCMRCompressedImpl;
 import io.questdb.std.*;
+import org.jetbrains.annotations.Nullable;
 
 public class PageAddressCache implements Mutable {
 
     private final long cacheSizeThreshold;
+    // Columns of compressed frames have zero page addresses, records read them from the compressed memory.
+    // The lists are populated only once a compressed frame is added.
+    private final ObjList<MemoryCMRCompressedImpl> compressedAuxColumns = new ObjList<>();
+    private final ObjList<MemoryCMRCompressedImpl> compressedColumns = new ObjList<>();
+    private final IntList compressedFrames = new IntList();
+    private final LongList compressedRowLos = new LongList();
     // Index remapping for variable size columns.
     private final IntList varSizeColumnIndexes = new IntList();
     // Index page addresses and page sizes are stored only for variable length columns.
@@ -49,6 +57,10 @@ public class PageAddressCache implements Mutable {
         if (pageAddresses.size() >= columnCount * (frameIndex + 1)) {
             return; // The page frame is already cached
         }
+        if (frame.isCompressed()) {
+            addCompressed(frameIndex, frame);
+            return;
+        }
         for (int columnIndex = 0; columnIndex < columnCount; columnIndex++) {
             pageAddresses.add(frame.getPageAddress(columnIndex));
             int varSizeColumnIndex = varSizeColumnIndexes.getQuick(columnIndex);
@@ -63,6 +75,10 @@ public class PageAddressCache implements Mutable {
     @Override
     public void clear() {
         varSizeColumnIndexes.clear();
+        compressedColumns.clear();
+        compressedAuxColumns.clear();
+        compressedRowLos.clear();
+        compressedFrames.clear();
         if (pageAddresses.size() < cacheSizeThreshold) {
             pageAddresses.clear();
             auxPageAddresses.clear();
@@ -87,6 +103,33 @@ public class PageAddressCache implements Mutable {
         return columnCount;
     }
 
+    @Nullable
+    public MemoryCMRCompressedImpl getCompressedAuxColumn(int frameIndex, int columnIndex) {
+        final int index = columnCount * frameIndex + columnIndex;
+        return index < compressedAuxColumns.size() ? compressedAuxColumns.getQuick(index) : null;
+    }
+
+    /**
+     * @param frameIndex  index of page frame
+     * @param columnIndex index of column
+     * @return compressed memory of the column or null when the frame is not compressed or the column is a column top
+     */
+    @Nullable
+    public MemoryCMRCompressedImpl getCompressedColumn(int frameIndex, int columnIndex) {
+        final int index = columnCount * frameIndex + columnIndex;
+        return index < compressedColumns.size() ? compressedColumns.getQuick(index) : null;
+    }
+
+    /**
+     * @param frameIndex  index of page frame
+     * @param columnIndex index of column
+     * @return first row of the frame within compressed memory of the column or 0 when the frame is not compressed
+     */
+    public long getCompressedRowLo(int frameIndex, int columnIndex) {
+        final int index = columnCount * frameIndex + columnIndex;
+        return index < compressedRowLos.size() ? compressedRowLos.getQuick(index) : 0;
+    }
+
     public long getPageAddress(int frameIndex, int columnIndex) {
         assert pageAddresses.size() >= columnCount * (frameIndex + 1);
         return pageAddresses.getQuick(columnCount * frameIndex + columnIndex);
@@ -113,6 +156,17 @@ public class PageAddressCache implements Mutable {
         return false;
     }
 
+    /**
+     * Compressed frames have no page addresses, they report column tops for all columns and
+     * have to be read through {@link PageAddressCacheRecord}.
+     *
+     * @param frameIndex index of page frame
+     * @return true when the frame belongs to a compressed partition
+     */
+    public boolean isCompressed(int frameIndex) {
+        return frameIndex < compressedFrames.size() && compressedFrames.getQuick(frameIndex) == 1;
+    }
+
     public boolean isVarSizeColumn(int columnIndex) {
         return varSizeColumnIndexes.getQuick(columnIndex) > -1;
     }
@@ -132,4 +186,22 @@ public class PageAddressCache implements Mutable {
     public long toTableRowID(int frameIndex, long index) {
         return pageRowIdOffsets.get(frameIndex) + index;
     }
+
+    private void addCompressed(int frameIndex, PageFrame frame) {
+        // pages of compressed frames are decoded into buffers that the next frame reuses,
+        // so their addresses cannot be shared with workers
+        for (int columnIndex = 0; columnIndex < columnCount; columnIndex++) {
+            final int index = columnCount * frameIndex + columnIndex;
+            pageAddresses.add(0);
+            compressedColumns.extendAndSet(index, frame.getCompressedColumn(columnIndex));
+            compressedAuxColumns.extendAndSet(index, frame.getCompressedAuxColumn(columnIndex));
+            compressedRowLos.extendAndSet(index, frame.getCompressedRowLo(columnIndex));
+            if (varSizeColumnIndexes.getQuick(columnIndex) > -1) {
+                auxPageAddresses.add(0);
+                pageSizes.add(frame.getPageSize(columnIndex));
+            }
+        }
+        compressedFrames.extendAndSet(frameIndex, 1);
+        pageRowIdOffsets.add(Rows.toRowID(frame.getPartitionIndex(), frame.getPartitionLo()));
+    }
 }
@@ -27,9 +27,13 @@ package io.questdb.cairo.sql;
 import io.questdb.cairo.CairoException;
 import io.questdb.cairo.TableUtils;
 import io.questdb.cairo.VarcharTypeDriver;
+import io.questdb.cairo.vm.CompressedBlockCache;
+import io.questdb.cairo.vm.MemoryCMRCompressedImpl;
+import io.questdb.cairo.vm.MemoryCRCompressedImpl;
 import io.questdb.cairo.vm.NullMemoryMR;
 import io.questdb.cairo.vm.Vm;
 import io.questdb.cairo.vm.api.MemoryCR;
+import io.questdb.cairo.vm.api.MemoryR;
 import io.questdb.std.*;
 import io.questdb.std.str.*;
 import org.jetbrains.annotations.Nullable;
@@ -37,15 +41,20 @@ import org.jetbrains.annotations.Nullable;
 import java.io.Closeable;
 
 public class PageAddressCacheRecord implements Record, Closeable {
-
+    private static final int COMPRESSED_BLOCK_CACHE_SLOTS_PER_COLUMN = 4;
+    private static final int MIN_COMPRESSED_BLOCK_CACHE_SLOTS = 16;
     private final MemoryCR.ByteSequenceView bsview = new MemoryCR.ByteSequenceView();
     private final StableDirectString csviewA = new StableDirectString();
     private final StableDirectString csviewB = new StableDirectString();
     private final Long256Impl long256A = new Long256Impl();
     private final Long256Impl long256B = new Long256Impl();
+    // views of compressed columns, data and aux per column
+    private final ObjList<MemoryCRCompressedImpl> compressedViews = new ObjList<>();
     private final ObjList<SymbolTable> symbolTableCache = new ObjList<>();
     private final Utf8SplitString utf8ViewA = new Utf8SplitString(true);
     private final Utf8SplitString utf8ViewB = new Utf8SplitString(true);
+    // decoded blocks of compressed frames, owned by the record as each worker has its own
+    private CompressedBlockCache compressedBlockCache;
     private int frameIndex;
     private PageAddressCache pageAddressCache;
     private long rowIndex;
@@ -65,13 +74,14 @@ public class PageAddressCacheRecord implements Record, Closeable {
     @Override
     public void close() {
         Misc.freeObjListIfCloseable(symbolTableCache);
+        compressedBlockCache = Misc.free(compressedBlockCache);
     }
 
     @Override
     public BinarySequence getBin(int columnIndex) {
         final long dataPageAddress = pageAddressCache.getPageAddress(frameIndex, columnIndex);
         if (dataPageAddress == 0) {
-            return NullMemoryMR.INSTANCE.getBin(0);
+            return getCompressedColumn(columnIndex).getBin(getCompressedDataOffset(columnIndex));
         }
         final long indexPageAddress = pageAddressCache.getAuxPageAddress(frameIndex, columnIndex);
         final long offset = Unsafe.getUnsafe().getLong(indexPageAddress + (rowIndex << 3));
@@ -83,7 +93,7 @@ public class PageAddressCacheRecord implements Record, Closeable {
     public long getBinLen(int columnIndex) {
         final long dataPageAddress = pageAddressCache.getPageAddress(frameIndex, columnIndex);
         if (dataPageAddress == 0) {
-            return NullMemoryMR.INSTANCE.getBinLen(0);
+            return getCompressedColumn(columnIndex).getBinLen(getCompressedDataOffset(columnIndex));
         }
         final long indexPageAddress = pageAddressCache.getAuxPageAddress(frameIndex, columnIndex);
         final long offset = Unsafe.getUnsafe().getLong(indexPageAddress + (rowIndex << 3));
@@ -94,7 +104,7 @@ public class PageAddressCacheRecord implements Record, Closeable {
     public boolean getBool(int columnIndex) {
         final long address = pageAddressCache.getPageAddress(frameIndex, columnIndex);
         if (address == 0) {
-            return NullMemoryMR.INSTANCE.getBool(0);
+            return getCompressedColumn(columnIndex).getBool(getCompressedRow(columnIndex));
         }
         return Unsafe.getUnsafe().getByte(address + rowIndex) == 1;
     }
@@ -103,7 +113,7 @@ public class PageAddressCacheRecord implements Record, Closeable {
     public byte getByte(int columnIndex) {
         final long address = pageAddressCache.getPageAddress(frameIndex, columnIndex);
         if (address == 0) {
-            return NullMemoryMR.INSTANCE.getByte(0);
+            return getCompressedColumn(columnIndex).getByte(getCompressedRow(columnIndex));
         }
         return Unsafe.getUnsafe().getByte(address + rowIndex);
     }
@@ -112,7 +122,7 @@ public class PageAddressCacheRecord implements Record, Closeable {
     public char getChar(int columnIndex) {
         final long address = pageAddressCache.getPageAddress(frameIndex, columnIndex);
         if (address == 0) {
-            return NullMemoryMR.INSTANCE.getChar(0);
+            return getCompressedColumn(columnIndex).getChar(getCompressedRow(columnIndex) << 1);
         }
         return Unsafe.getUnsafe().getChar(address + (rowIndex << 1));
     }
@@ -121,7 +131,7 @@ public class PageAddressCacheRecord implements Record, Closeable {
     public double getDouble(int columnIndex) {
         final long address = pageAddressCache.getPageAddress(frameIndex, columnIndex);
         if (address == 0) {
-            return NullMemoryMR.INSTANCE.getDouble(0);
+            return getCompressedColumn(columnIndex).getDouble(getCompressedRow(columnIndex) << 3);
         }
         return Unsafe.getUnsafe().getDouble(address + (rowIndex << 3));
     }
@@ -130,7 +140,7 @@ public class PageAddressCacheRecord implements Record, Closeable {
     public float getFloat(int columnIndex) {
         final long address = pageAddressCache.getPageAddress(frameIndex, columnIndex);
         if (address == 0) {
-            return NullMemoryMR.INSTANCE.getFloat(0);
+            return getCompressedColumn(columnIndex).getFloat(getCompressedRow(columnIndex) << 2);
         }
         return Unsafe.getUnsafe().getFloat(address + (rowIndex << 2));
     }
@@ -139,7 +149,7 @@ public class PageAddressCacheRecord implements Record, Closeable {
     public byte getGeoByte(int columnIndex) {
         final long address = pageAddressCache.getPageAddress(frameIndex, columnIndex);
         if (address == 0) {
-            return NullMemoryMR.INSTANCE.getByte(0);
+            return getCompressedColumn(columnIndex).getByte(getCompressedRow(columnIndex));
         }
         return Unsafe.getUnsafe().getByte(address + rowIndex);
     }
@@ -148,7 +158,7 @@ public class PageAddressCacheRecord implements Record, Closeable {
     public int getGeoInt(int columnIndex) {
         final long address = pageAddressCache.getPageAddress(frameIndex, columnIndex);
         if (address == 0) {
-            return NullMemoryMR.INSTANCE.getInt(0);
+            return getCompressedColumn(columnIndex).getInt(getCompressedRow(columnIndex) << 2);
         }
         return Unsafe.getUnsafe().getInt(address + (rowIndex << 2));
     }
@@ -157,7 +167,7 @@ public class PageAddressCacheRecord implements Record, Closeable {
     public long getGeoLong(int columnIndex) {
         final long address = pageAddressCache.getPageAddress(frameIndex, columnIndex);
         if (address == 0) {
-            return NullMemoryMR.INSTANCE.getLong(0);
+            return getCompressedColumn(columnIndex).getLong(getCompressedRow(columnIndex) << 3);
         }
         return Unsafe.getUnsafe().getLong(address + (rowIndex << 3));
     }
@@ -166,7 +176,7 @@ public class PageAddressCacheRecord implements Record, Closeable {
     public short getGeoShort(int columnIndex) {
         final long address = pageAddressCache.getPageAddress(frameIndex, columnIndex);
         if (address == 0) {
-            return NullMemoryMR.INSTANCE.getShort(0);
+            return getCompressedColumn(columnIndex).getShort(getCompressedRow(columnIndex) << 1);
         }
         return Unsafe.getUnsafe().getShort(address + (rowIndex << 1));
     }
@@ -175,7 +185,7 @@ public class PageAddressCacheRecord implements Record, Closeable {
     public int getIPv4(int columnIndex) {
         final long address = pageAddressCache.getPageAddress(frameIndex, columnIndex);
         if (address == 0) {
-            return NullMemoryMR.INSTANCE.getIPv4(0);
+            return getCompressedColumn(columnIndex).getIPv4(getCompressedRow(columnIndex) << 2);
         }
         return Unsafe.getUnsafe().getInt(address + (rowIndex << 2));
     }
@@ -184,7 +194,7 @@ public class PageAddressCacheRecord implements Record, Closeable {
     public int getInt(int columnIndex) {
         final long address = pageAddressCache.getPageAddress(frameIndex, columnIndex);
         if (address == 0) {
-            return NullMemoryMR.INSTANCE.getInt(0);
+            return getCompressedColumn(columnIndex).getInt(getCompressedRow(columnIndex) << 2);
         }
         return Unsafe.getUnsafe().getInt(address + (rowIndex << 2));
     }
@@ -193,7 +203,7 @@ public class PageAddressCacheRecord implements Record, Closeable {
     public long getLong(int columnIndex) {
         final long address = pageAddressCache.getPageAddress(frameIndex, columnIndex);
         if (address == 0) {
-            return NullMemoryMR.INSTANCE.getLong(0);
+            return getCompressedColumn(columnIndex).getLong(getCompressedRow(columnIndex) << 3);
         }
         return Unsafe.getUnsafe().getLong(address + (rowIndex << 3));
     }
@@ -202,7 +212,7 @@ public class PageAddressCacheRecord implements Record, Closeable {
     public long getLong128Hi(int col) {
         long address = pageAddressCache.getPageAddress(frameIndex, col);
         if (address == 0) {
-            return NullMemoryMR.INSTANCE.getLong128Hi();
+            return getCompressedColumn(col).getLong((getCompressedRow(col) << 4) + Long.BYTES);
         }
         return Unsafe.getUnsafe().getLong(address + (rowIndex << 4) + Long.BYTES);
     }
@@ -211,7 +221,7 @@ public class PageAddressCacheRecord implements Record, Closeable {
     public long getLong128Lo(int col) {
         long address = pageAddressCache.getPageAddress(frameIndex, col);
         if (address == 0) {
-            return NullMemoryMR.INSTANCE.getLong128Lo();
+            return getCompressedColumn(col).getLong(getCompressedRow(col) << 4);
         }
         return Unsafe.getUnsafe().getLong(address + (rowIndex << 4));
     }
@@ -220,7 +230,7 @@ public class PageAddressCacheRecord implements Record, Closeable {
     public void getLong256(int columnIndex, CharSink<?> sink) {
         final long address = pageAddressCache.getPageAddress(frameIndex, columnIndex);
         if (address == 0) {
-            NullMemoryMR.INSTANCE.getLong256(0, sink);
+            getCompressedColumn(columnIndex).getLong256(getCompressedRow(columnIndex) << 5, sink);
             return;
         }
         getLong256(address + rowIndex * Long256.BYTES, sink);
@@ -247,7 +257,7 @@ public class PageAddressCacheRecord implements Record, Closeable {
     public short getShort(int columnIndex) {
         final long address = pageAddressCache.getPageAddress(frameIndex, columnIndex);
         if (address == 0) {
-            return NullMemoryMR.INSTANCE.getShort(0);
+            return getCompressedColumn(columnIndex).getShort(getCompressedRow(columnIndex) << 1);
         }
         return Unsafe.getUnsafe().getShort(address + (rowIndex << 1));
     }
@@ -256,7 +266,7 @@ public class PageAddressCacheRecord implements Record, Closeable {
     public CharSequence getStrA(int columnIndex) {
         final long dataPageAddress = pageAddressCache.getPageAddress(frameIndex, columnIndex);
         if (dataPageAddress == 0) {
-            return NullMemoryMR.INSTANCE.getStrA(0);
+            return getCompressedColumn(columnIndex).getStrA(getCompressedDataOffset(columnIndex));
         }
         final long indexPageAddress = pageAddressCache.getAuxPageAddress(frameIndex, columnIndex);
         final long offset = Unsafe.getUnsafe().getLong(indexPageAddress + (rowIndex << 3));
@@ -268,7 +278,7 @@ public class PageAddressCacheRecord implements Record, Closeable {
     public CharSequence getStrB(int columnIndex) {
         final long dataPageAddress = pageAddressCache.getPageAddress(frameIndex, columnIndex);
         if (dataPageAddress == 0) {
-            return NullMemoryMR.INSTANCE.getStrB(0);
+            return getCompressedColumn(columnIndex).getStrB(getCompressedDataOffset(columnIndex));
         }
         final long indexPageAddress = pageAddressCache.getAuxPageAddress(frameIndex, columnIndex);
         final long offset = Unsafe.getUnsafe().getLong(indexPageAddress + (rowIndex << 3));
@@ -280,7 +290,7 @@ public class PageAddressCacheRecord implements Record, Closeable {
     public int getStrLen(int columnIndex) {
         final long dataPageAddress = pageAddressCache.getPageAddress(frameIndex, columnIndex);
         if (dataPageAddress == 0) {
-            return NullMemoryMR.INSTANCE.getStrLen(0);
+            return getCompressedColumn(columnIndex).getStrLen(getCompressedDataOffset(columnIndex));
         }
         final long indexPageAddress = pageAddressCache.getAuxPageAddress(frameIndex, columnIndex);
         final long offset = Unsafe.getUnsafe().getLong(indexPageAddress + (rowIndex << 3));
@@ -290,17 +300,18 @@ public class PageAddressCacheRecord implements Record, Closeable {
     @Override
     public CharSequence getSymA(int columnIndex) {
         final long address = pageAddressCache.getPageAddress(frameIndex, columnIndex);
-        int key = NullMemoryMR.INSTANCE.getInt(0);
-        if (address != 0) {
-            key = Unsafe.getUnsafe().getInt(address + (rowIndex << 2));
-        }
+        final int key = address != 0
+                ? Unsafe.getUnsafe().getInt(address + (rowIndex << 2))
+                : getCompressedColumn(columnIndex).getInt(getCompressedRow(columnIndex) << 2);
         return getSymbolTable(columnIndex).valueOf(key);
     }
 
     @Override
     public CharSequence getSymB(int columnIndex) {
         final long address = pageAddressCache.getPageAddress(frameIndex, columnIndex);
-        final int key = Unsafe.getUnsafe().getInt(address + (rowIndex << 2));
+        final int key = address != 0
+                ? Unsafe.getUnsafe().getInt(address + (rowIndex << 2))
+                : getCompressedColumn(columnIndex).getInt(getCompressedRow(columnIndex) << 2);
         return getSymbolTable(columnIndex).valueBOf(key);
     }
 
@@ -311,20 +322,24 @@ public class PageAddressCacheRecord implements Record, Closeable {
 
     @Override
     public Utf8Sequence getVarcharA(int columnIndex) {
-        return getVarchar(columnIndex, utf8ViewA);
+        return getVarchar(columnIndex, utf8ViewA, 1);
     }
 
     @Override
     public Utf8Sequence getVarcharB(int columnIndex) {
-        return getVarchar(columnIndex, utf8ViewB);
+        return getVarchar(columnIndex, utf8ViewB, 2);
     }
 
     @Override
     public int getVarcharSize(int columnIndex) {
         final long auxPageAddress = pageAddressCache.getAuxPageAddress(frameIndex, columnIndex);
         if (auxPageAddress == 0) {
-            // Column top.
-            return TableUtils.NULL_LEN;
+            final MemoryCMRCompressedImpl auxMem = pageAddressCache.getCompressedAuxColumn(frameIndex, columnIndex);
+            if (auxMem == null) {
+                // Column top.
+                return TableUtils.NULL_LEN;
+            }
+            return VarcharTypeDriver.getValueSize(getCompressedView(auxMem, columnIndex * 2 + 1), getCompressedRow(columnIndex));
         }
         return VarcharTypeDriver.getValueSize(auxPageAddress, rowIndex);
     }
@@ -365,10 +380,40 @@ public class PageAddressCacheRecord implements Record, Closeable {
         return null;
     }
 
+    // column tops and columns that are not compressed are read as nulls
+    private MemoryR getCompressedColumn(int columnIndex) {
+        final MemoryCMRCompressedImpl mem = pageAddressCache.getCompressedColumn(frameIndex, columnIndex);
+        return mem != null ? getCompressedView(mem, columnIndex * 2) : NullMemoryMR.INSTANCE;
+    }
+
+    private long getCompressedDataOffset(int columnIndex) {
+        final MemoryCMRCompressedImpl auxMem = pageAddressCache.getCompressedAuxColumn(frameIndex, columnIndex);
+        if (auxMem == null) {
+            return Numbers.LONG_NULL;
+        }
+        return getCompressedView(auxMem, columnIndex * 2 + 1).getLong(getCompressedRow(columnIndex) << 3);
+    }
+
+    private long getCompressedRow(int columnIndex) {
+        return pageAddressCache.getCompressedRowLo(frameIndex, columnIndex) + rowIndex;
+    }
+
+    private MemoryCRCompressedImpl getCompressedView(MemoryCMRCompressedImpl mem, int viewIndex) {
+        if (compressedBlockCache == null) {
+            compressedBlockCache = new CompressedBlockCache(Math.max(MIN_COMPRESSED_BLOCK_CACHE_SLOTS, COMPRESSED_BLOCK_CACHE_SLOTS_PER_COLUMN * pageAddressCache.getColumnCount()));
+        }
+        MemoryCRCompressedImpl view = compressedViews.getQuiet(viewIndex);
+        if (view == null) {
+            view = new MemoryCRCompressedImpl(true);
+            compressedViews.extendAndSet(viewIndex, view);
+        }
+        return view.of(mem, compressedBlockCache);
+    }
+
     private void getLong256(int columnIndex, Long256Acceptor sink) {
         final long columnAddress = pageAddressCache.getPageAddress(frameIndex, columnIndex);
         if (columnAddress == 0) {
-            NullMemoryMR.INSTANCE.getLong256(0, sink);
+            getCompressedColumn(columnIndex).getLong256(getCompressedRow(columnIndex) << 5, sink);
             return;
         }
         sink.fromAddress(columnAddress + (rowIndex << 5));
@@ -413,10 +458,19 @@ public class PageAddressCacheRecord implements Record, Closeable {
     }
 
     @Nullable
-    private Utf8Sequence getVarchar(int columnIndex, Utf8SplitString utf8View) {
+    private Utf8Sequence getVarchar(int columnIndex, Utf8SplitString utf8View, int ab) {
         final long auxPageAddress = pageAddressCache.getAuxPageAddress(frameIndex, columnIndex);
         if (auxPageAddress == 0) {
-            return null; // Column top.
+            final MemoryCMRCompressedImpl auxMem = pageAddressCache.getCompressedAuxColumn(frameIndex, columnIndex);
+            if (auxMem == null) {
+                return null; // Column top.
+            }
+            return VarcharTypeDriver.getSplitValue(
+                    getCompressedView(auxMem, columnIndex * 2 + 1),
+                    getCompressedColumn(columnIndex),
+                    getCompressedRow(columnIndex),
+                    ab
+            );
         }
         final long dataPageAddress = pageAddressCache.getPageAddress(frameIndex, columnIndex);
         return VarcharTypeDriver.getSplitValue(auxPageAddress, dataPageAddress, rowIndex, utf8View);
@@ -25,11 +25,70 @@
 package io.questdb.cairo.sql;
 
 import io.questdb.cairo.BitmapIndexReader;
+import io.questdb.cairo.ZoneMapReader;
+import io.questdb.cairo.vm.MemoryCMRCompressedImpl;
+import org.jetbrains.annotations.Nullable;
 
 public interface PageFrame {
 
+    /**
+     * Registers column file ranges that back this frame with the read-ahead,
+     * see {@link PageFrameReadAhead#addFileRange(io.questdb.cairo.vm.api.MemoryR, long, long)}
+     * and {@link PageFrameReadAhead#addVarSizeFileRanges(io.questdb.cairo.ColumnTypeDriver, io.questdb.cairo.vm.api.MemoryR, io.questdb.cairo.vm.api.MemoryR, long, long)}.
+     * Frames that are not backed by column files register nothing.
+     *
+     * @param readAhead read-ahead to register file ranges with
+     */
+    default void addFileRanges(PageFrameReadAhead readAhead) {
+    }
+
+    /**
+     * Aggregates zone map statistics of the column over the rows of this frame,
+     * see {@link ZoneMapReader#aggregate(long, long)}.
+     *
+     * @param columnIndex   index of column
+     * @param zoneMapReader reader to load the zone map into
+     * @return false when the column has no zone map covering the frame
+     */
+    default boolean aggregateZoneMap(int columnIndex, ZoneMapReader zoneMapReader) {
+        return false;
+    }
+
     BitmapIndexReader getBitmapIndexReader(int columnIndex, int dirForward);
 
+    /**
+     * Aux memory of a var-size column of a compressed partition,
+     * see {@link #getCompressedColumn(int)}.
+     *
+     * @param columnIndex index of column
+     * @return compressed aux memory or null
+     */
+    @Nullable
+    default MemoryCMRCompressedImpl getCompressedAuxColumn(int columnIndex) {
+        return null;
+    }
+
+    /**
+     * Memory of the column when the frame belongs to a compressed partition. Page addresses of
+     * such frames are decoded on first access into buffers that the next frame reuses, so they must
+     * not be handed over to other threads. Parallel consumers read the compressed memory instead.
+     *
+     * @param columnIndex index of column
+     * @return compressed memory or null when the column is not compressed, e.g. it is a column top
+     */
+    @Nullable
+    default MemoryCMRCompressedImpl getCompressedColumn(int columnIndex) {
+        return null;
+    }
+
+    /**
+     * @param columnIndex index of column
+     * @return row of the compressed column file, which corresponds to the first row of the frame
+     */
+    default long getCompressedRowLo(int columnIndex) {
+        return 0;
+    }
+
     /**
      * Return the size the column as power 2 of the bytes e.g. long == 3, int == 2 etc.
      *
@@ -68,4 +127,11 @@ public interface PageFrame {
     int getPartitionIndex();
 
     long getPartitionLo();
+
+    /**
+     * @return true when the frame belongs to a compressed partition, see {@link #getCompressedColumn(int)}
+     */
+    default boolean isCompressed() {
+        return false;
+    }
 }
@@ -0,0 +1,122 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo.sql;
+
+import io.questdb.std.LongList;
+import io.questdb.std.QuietCloseable;
+import io.questdb.std.Unsafe;
+
+/**
+ * A slice of a page frame, i.e. a [rowLo, rowLo + rowCount) range of rows, used for
+ * batch evaluation of functions, see {@link Function#getLongBatch(PageFrameBatch, long)}.
+ * <p>
+ * Besides the column addresses, the batch owns a stack of scratch vectors used by
+ * functions to hold intermediate results. Each vector is large enough to hold
+ * {@link #MAX_ROWS} 8-byte values. Vectors are allocated lazily and must be released
+ * in the reverse order of their acquisition.
+ * <p>
+ * The batch is not thread-safe, each thread has to use its own instance.
+ */
+public class PageFrameBatch implements QuietCloseable {
+    public static final int MAX_ROWS = 1024;
+    private static final long VECTOR_SIZE = (long) MAX_ROWS * Long.BYTES;
+    private final int memoryTag;
+    private final LongList vectors = new LongList();
+    private int depth;
+    private int frameIndex;
+    private PageAddressCache pageAddressCache;
+    private PageAddressCacheRecord record;
+    private int rowCount;
+    private long rowLo;
+
+    public PageFrameBatch(int memoryTag) {
+        this.memoryTag = memoryTag;
+    }
+
+    /**
+     * Returns address of a scratch vector that can hold up to {@link #MAX_ROWS} 8-byte values.
+     * The vector must be released with {@link #releaseVector()} once it's no longer needed.
+     */
+    public long acquireVector() {
+        if (depth == vectors.size()) {
+            vectors.add(Unsafe.malloc(VECTOR_SIZE, memoryTag));
+        }
+        return vectors.getQuick(depth++);
+    }
+
+    @Override
+    public void close() {
+        assert depth == 0;
+        for (int i = 0, n = vectors.size(); i < n; i++) {
+            Unsafe.free(vectors.getQuick(i), VECTOR_SIZE, memoryTag);
+        }
+        vectors.clear();
+        depth = 0;
+        pageAddressCache = null;
+        record = null;
+    }
+
+    /**
+     * Returns address of the first row of the batch for the given fixed-size column
+     * or 0 in case of a column top.
+     */
+    public long getColumnAddress(int columnIndex, int shift) {
+        final long pageAddress = pageAddressCache.getPageAddress(frameIndex, columnIndex);
+        return pageAddress != 0 ? pageAddress + (rowLo << shift) : 0;
+    }
+
+    /**
+     * Returns page frame record positioned at the given row of the batch. Used by functions
+     * that don't implement batch evaluation to compute their values row by row.
+     */
+    public Record getRecord(int row) {
+        record.setRowIndex(rowLo + row);
+        return record;
+    }
+
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    public PageFrameBatch of(PageAddressCache pageAddressCache, int frameIndex, PageAddressCacheRecord record) {
+        this.pageAddressCache = pageAddressCache;
+        this.frameIndex = frameIndex;
+        this.record = record;
+        this.rowLo = 0;
+        this.rowCount = 0;
+        return this;
+    }
+
+    public void releaseVector() {
+        assert depth > 0;
+        depth--;
+    }
+
+    public void setRows(long rowLo, int rowCount) {
+        assert rowCount <= MAX_ROWS;
+        this.rowLo = rowLo;
+        this.rowCount = rowCount;
+    }
+}
@@ -0,0 +1,312 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo.sql;
+
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.CairoException;
+import io.questdb.cairo.ColumnTypeDriver;
+import io.questdb.cairo.vm.MemoryCMRImpl;
+import io.questdb.cairo.vm.api.MemoryR;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.std.*;
+
+import java.util.Arrays;
+
+/**
+ * Reads column file ranges of upcoming page frames with io_uring, so that the
+ * reduce stage finds them in the OS page cache instead of faulting them in
+ * from a cold drive one page at a time. Reads land in a small pool of buffers
+ * that is allocated on first use and freed once the frames are cleared; their
+ * content is discarded as the reduce stage keeps reading columns through the
+ * reader's mapped memory.
+ * <p>
+ * Read-ahead is best-effort: failed reads are ignored and, when io_uring is not
+ * available, the instance does nothing. This class is not thread safe, it is
+ * driven by the query owner thread.
+ */
+public class PageFrameReadAhead implements Mutable, QuietCloseable {
+    // also the io_uring capacity, i.e. max number of reads in flight
+    private static final int BUFFER_COUNT = 32;
+    // size of the ranges that are resolved once the preceding aux vector range is read
+    private static final long DEFERRED_SIZE = -1;
+    private static final Log LOG = LogFactory.getLog(PageFrameReadAhead.class);
+    private final long[] bufferReadIds = new long[BUFFER_COUNT];
+    // index of the range each buffer is read for
+    private final int[] bufferRanges = new int[BUFFER_COUNT];
+    private final int bufferSize;
+    private final ObjList<ColumnTypeDriver> deferredDrivers = new ObjList<>();
+    // aux vector address, row lo and row hi tuples of the deferred data vector ranges
+    private final LongList deferredRanges = new LongList();
+    private final int frameCount;
+    // index of the first range of the next frame, one entry per frame
+    private final IntList frameRangeHis = new IntList();
+    // fd, file offset and size tuples of the column file ranges, deferred ranges
+    // hold index of their deferred range instead of the offset
+    private final LongList ranges = new LongList();
+    private final IOURingFacade rf;
+    private long buffersAddr;
+    private boolean enabled;
+    private int inFlightCount;
+    private int rangeIndex;
+    private long rangeOffset;
+    private IOURing ring;
+
+    public PageFrameReadAhead(CairoConfiguration configuration) {
+        this.rf = configuration.getIOURingFacade();
+        this.enabled = configuration.isSqlParallelFilterReadAheadEnabled()
+                && configuration.isIOURingEnabled()
+                && rf.isAvailable();
+        this.bufferSize = configuration.getSqlParallelFilterReadAheadBufferSize();
+        this.frameCount = configuration.getSqlParallelFilterReadAheadFrames();
+    }
+
+    public void add(@Transient PageFrame frame) {
+        if (enabled) {
+            frame.addFileRanges(this);
+            frameRangeHis.add(ranges.size() / 3);
+        }
+    }
+
+    /**
+     * Registers file range of a column that backs the page frame being added. Ranges of
+     * memory that is not mapped from a plain column file, e.g. a compressed partition
+     * or a column top, are ignored.
+     *
+     * @param mem    column memory
+     * @param offset offset of the range in the column file
+     * @param size   size of the range in bytes
+     */
+    public void addFileRange(MemoryR mem, long offset, long size) {
+        if (size > 0 && mem instanceof MemoryCMRImpl) {
+            final int fd = ((MemoryCMRImpl) mem).getFd();
+            if (fd > -1) {
+                ranges.add(fd);
+                ranges.add(offset);
+                ranges.add(size);
+            }
+        }
+    }
+
+    /**
+     * Registers aux and data vector file ranges of a var-size column that backs the page
+     * frame being added. Data vector offsets are stored in the aux vector, so the data range
+     * is calculated only once the aux range is read ahead rather than faulting the aux
+     * pages in on the calling thread.
+     *
+     * @param columnTypeDriver driver of the column type
+     * @param auxMem           aux vector memory
+     * @param dataMem          data vector memory
+     * @param rowLo            first row of the range
+     * @param rowHi            last row of the range, exclusive
+     */
+    public void addVarSizeFileRanges(ColumnTypeDriver columnTypeDriver, MemoryR auxMem, MemoryR dataMem, long rowLo, long rowHi) {
+        if (rowHi <= rowLo || !(auxMem instanceof MemoryCMRImpl) || !(dataMem instanceof MemoryCMRImpl)) {
+            return;
+        }
+        final int auxFd = ((MemoryCMRImpl) auxMem).getFd();
+        final int dataFd = ((MemoryCMRImpl) dataMem).getFd();
+        final long auxAddress = auxMem.getPageAddress(0);
+        if (auxFd < 0 || dataFd < 0 || auxAddress == 0) {
+            return;
+        }
+        final long auxOffsetLo = columnTypeDriver.getAuxVectorOffset(rowLo);
+        ranges.add(auxFd);
+        ranges.add(auxOffsetLo);
+        ranges.add(columnTypeDriver.getAuxVectorOffset(rowHi) - auxOffsetLo);
+
+        ranges.add(dataFd);
+        ranges.add(deferredDrivers.size());
+        ranges.add(DEFERRED_SIZE);
+        deferredDrivers.add(columnTypeDriver);
+        deferredRanges.add(auxAddress);
+        deferredRanges.add(rowLo);
+        deferredRanges.add(rowHi);
+    }
+
+    /**
+     * Waits for reads in flight and releases the frames along with the read buffers.
+     */
+    @Override
+    public void clear() {
+        toTop();
+        ranges.clear();
+        frameRangeHis.clear();
+        deferredDrivers.clear();
+        deferredRanges.clear();
+        if (buffersAddr != 0) {
+            buffersAddr = Unsafe.free(buffersAddr, (long) BUFFER_COUNT * bufferSize, MemoryTag.NATIVE_TABLE_READER);
+        }
+    }
+
+    @Override
+    public void close() {
+        clear();
+        ring = Misc.free(ring);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Submits reads for the given frame and as many following frames as the configured
+     * read-ahead distance allows, as far as there are free buffers. Frames before the
+     * given one are not read anymore.
+     *
+     * @param frameIndex index of the first frame that is not yet consumed
+     */
+    public void readAhead(int frameIndex) {
+        if (!enabled || frameIndex >= frameRangeHis.size() || !init()) {
+            return;
+        }
+        reapCompleted();
+
+        if (frameIndex > 0) {
+            final int rangeLo = frameRangeHis.getQuick(frameIndex - 1);
+            if (rangeIndex < rangeLo) {
+                rangeIndex = rangeLo;
+                rangeOffset = 0;
+            }
+        }
+        final int frameHi = (int) Math.min((long) frameIndex + frameCount, frameRangeHis.size());
+        final int rangeHi = frameRangeHis.getQuick(frameHi - 1);
+        int enqueued = 0;
+        while (rangeIndex < rangeHi && inFlightCount < BUFFER_COUNT) {
+            long size = ranges.getQuick(3 * rangeIndex + 2);
+            if (size == DEFERRED_SIZE) {
+                // the aux vector range always precedes its data vector range
+                if (isInFlight(rangeIndex - 1)) {
+                    break;
+                }
+                size = resolveDeferredRange(rangeIndex);
+                if (size <= 0) {
+                    rangeIndex++;
+                    continue;
+                }
+            }
+            final int buffer = nextFreeBuffer();
+            final int fd = (int) ranges.getQuick(3 * rangeIndex);
+            final long offset = ranges.getQuick(3 * rangeIndex + 1);
+            final int len = (int) Math.min(bufferSize, size - rangeOffset);
+            final long id = ring.enqueueRead(fd, offset + rangeOffset, buffersAddr + (long) buffer * bufferSize, len);
+            if (id < 0) {
+                break;
+            }
+            bufferReadIds[buffer] = id;
+            bufferRanges[buffer] = rangeIndex;
+            inFlightCount++;
+            enqueued++;
+            rangeOffset += len;
+            if (rangeOffset >= size) {
+                rangeIndex++;
+                rangeOffset = 0;
+            }
+        }
+        if (enqueued > 0) {
+            ring.submit();
+        }
+    }
+
+    /**
+     * Waits for reads in flight and rewinds the read-ahead to the first frame. Buffers
+     * must not be reused or freed while the kernel may still write to them.
+     */
+    public void toTop() {
+        if (ring != null) {
+            while (inFlightCount > 0) {
+                ring.submitAndWait();
+                reapCompleted();
+            }
+        }
+        rangeIndex = 0;
+        rangeOffset = 0;
+    }
+
+    private boolean init() {
+        if (ring == null) {
+            try {
+                ring = rf.newInstance(BUFFER_COUNT);
+            } catch (CairoException e) {
+                LOG.error().$("could not start read-ahead, falling back to mapped reads [errno=").$(e.getErrno())
+                        .$(", msg=").$(e.getFlyweightMessage())
+                        .I$();
+                enabled = false;
+                return false;
+            }
+            Arrays.fill(bufferReadIds, -1);
+        }
+        if (buffersAddr == 0) {
+            buffersAddr = Unsafe.malloc((long) BUFFER_COUNT * bufferSize, MemoryTag.NATIVE_TABLE_READER);
+        }
+        return true;
+    }
+
+    private boolean isInFlight(int rangeIndex) {
+        for (int i = 0; i < BUFFER_COUNT; i++) {
+            if (bufferReadIds[i] != -1 && bufferRanges[i] == rangeIndex) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private int nextFreeBuffer() {
+        for (int i = 0; i < BUFFER_COUNT; i++) {
+            if (bufferReadIds[i] == -1) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private void reapCompleted() {
+        while (ring.nextCqe()) {
+            // failed reads are not retried, the reduce stage reads mapped memory regardless
+            final long id = ring.getCqeId();
+            for (int i = 0; i < BUFFER_COUNT; i++) {
+                if (bufferReadIds[i] == id) {
+                    bufferReadIds[i] = -1;
+                    inFlightCount--;
+                    break;
+                }
+            }
+        }
+    }
+
+    private long resolveDeferredRange(int rangeIndex) {
+        final int deferredIndex = (int) ranges.getQuick(3 * rangeIndex + 1);
+        final ColumnTypeDriver columnTypeDriver = deferredDrivers.getQuick(deferredIndex);
+        final long auxAddress = deferredRanges.getQuick(3 * deferredIndex);
+        final long rowLo = deferredRanges.getQuick(3 * deferredIndex + 1);
+        final long rowHi = deferredRanges.getQuick(3 * deferredIndex + 2);
+        final long offsetLo = columnTypeDriver.getDataVectorOffset(auxAddress, rowLo);
+        final long size = columnTypeDriver.getDataVectorSizeAt(auxAddress, rowHi - 1) - offsetLo;
+        // resolved ranges are read as is after toTop()
+        ranges.setQuick(3 * rangeIndex + 1, offsetLo);
+        ranges.setQuick(3 * rangeIndex + 2, size);
+        return size;
+    }
+}
@@ -31,6 +31,17 @@ import io.questdb.std.QuietCloseable;
 
 public interface StatefulAtom extends QuietCloseable, Mutable {
 
+    /**
+     * Checks if the atom is known to produce nothing for the given page frame,
+     * so that the frame does not have to be dispatched at all.
+     *
+     * @param frame page frame
+     * @return true when the frame can be skipped
+     */
+    default boolean canSkipFrame(PageFrame frame) {
+        return false;
+    }
+
     @Override
     default void clear() {
     }
@@ -27,6 +27,8 @@ package io.questdb.cairo.sql.async;
 import io.questdb.cairo.CairoConfiguration;
 import io.questdb.cairo.CairoException;
 import io.questdb.cairo.sql.PageAddressCache;
+import io.questdb.cairo.sql.PageAddressCacheRecord;
+import io.questdb.cairo.sql.PageFrameBatch;
 import io.questdb.cairo.sql.StatefulAtom;
 import io.questdb.std.DirectLongList;
 import io.questdb.std.FlyweightMessageContainer;
@@ -42,6 +44,8 @@ public class PageFrameReduceTask implements Closeable {
     public static final byte TYPE_GROUP_BY_NOT_KEYED = 2;
     private static final String exceptionMessage = "unexpected filter error";
 
+    // Used for batch evaluation of non-JIT filters.
+    private final PageFrameBatch batch;
     // Used to pass the list of column page frame addresses to a JIT-compiled filter.
     private final DirectLongList columns;
     private final StringSink errorMsg = new StringSink();
@@ -60,6 +64,7 @@ public class PageFrameReduceTask implements Closeable {
             this.columns = new DirectLongList(configuration.getPageFrameReduceColumnListCapacity(), memoryTag);
             this.varSizeAux = new DirectLongList(configuration.getPageFrameReduceColumnListCapacity(), memoryTag);
             this.pageFrameQueueCapacity = configuration.getPageFrameReduceQueueCapacity();
+            this.batch = new PageFrameBatch(memoryTag);
         } catch (Throwable th) {
             close();
             throw th;
@@ -71,6 +76,17 @@ public class PageFrameReduceTask implements Closeable {
         Misc.free(filteredRows);
         Misc.free(columns);
         Misc.free(varSizeAux);
+        Misc.free(batch);
+    }
+
+    /**
+     * Returns batch positioned at the task's page frame. Scratch memory
+     * of the batch is allocated lazily, on first use.
+     *
+     * @param record page frame record set to the task's frame, used by functions that don't implement batch evaluation
+     */
+    public PageFrameBatch getBatch(PageAddressCacheRecord record) {
+        return batch.of(getPageAddressCache(), frameIndex, record);
     }
 
     /**
@@ -176,6 +192,7 @@ public class PageFrameReduceTask implements Closeable {
         filteredRows.resetCapacity();
         columns.resetCapacity();
         varSizeAux.resetCapacity();
+        batch.close();
     }
 
     public void setErrorMsg(Throwable th) {
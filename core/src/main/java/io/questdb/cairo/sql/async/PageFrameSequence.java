@@ -56,6 +56,7 @@ public class PageFrameSequence<T extends StatefulAtom> implements Closeable {
     private final PageFrameReduceTaskFactory localTaskFactory;
     private final MessageBus messageBus;
     private final PageAddressCache pageAddressCache;
+    private final PageFrameReadAhead readAhead;
     private final AtomicInteger reduceCounter = new AtomicInteger(0);
     private final PageFrameReducer reducer;
     private final byte taskType; // PageFrameReduceTask.TYPE_*
@@ -88,6 +89,7 @@ public class PageFrameSequence<T extends StatefulAtom> implements Closeable {
             byte taskType
     ) {
         this.pageAddressCache = new PageAddressCache(configuration);
+        this.readAhead = new PageFrameReadAhead(configuration);
         this.messageBus = messageBus;
         this.atom = atom;
         this.reducer = reducer;
@@ -166,6 +168,7 @@ public class PageFrameSequence<T extends StatefulAtom> implements Closeable {
         collectedFrameIndex = -1;
         readyToDispatch = false;
         pageAddressCache.clear();
+        readAhead.clear();
         atom.clear();
         pageFrameCursor = Misc.freeIfCloseable(pageFrameCursor);
         // collect sequence may not be set here when
@@ -183,6 +186,7 @@ public class PageFrameSequence<T extends StatefulAtom> implements Closeable {
     public void close() {
         clear();
         record = Misc.free(record);
+        Misc.free(readAhead);
         circuitBreaker = Misc.freeIfCloseable(circuitBreaker);
         localTask = Misc.free(localTask);
         Misc.free(atom);
@@ -398,6 +402,8 @@ public class PageFrameSequence<T extends StatefulAtom> implements Closeable {
 
             await();
 
+            readAhead.toTop();
+
             // done is reset by method call above
             done = false;
             id = newId;
@@ -412,6 +418,10 @@ public class PageFrameSequence<T extends StatefulAtom> implements Closeable {
     private void buildAddressCache() {
         PageFrame frame;
         while ((frame = pageFrameCursor.next()) != null) {
+            if (atom.canSkipFrame(frame)) {
+                continue;
+            }
+            readAhead.add(frame);
             pageAddressCache.add(frameCount++, frame);
             frameRowCounts.add(frame.getPartitionHi() - frame.getPartitionLo());
         }
@@ -447,6 +457,9 @@ public class PageFrameSequence<T extends StatefulAtom> implements Closeable {
         final MCSequence reduceSubSeq = messageBus.getPageFrameReduceSubSeq(shard);
         final MPSequence reducePubSeq = messageBus.getPageFrameReducePubSeq(shard);
 
+        // get the next frames from the drive while the workers reduce the current ones
+        readAhead.readAhead(collectedFrameIndex + 1);
+
         long cursor;
         int i = dispatchStartFrameIndex;
         OUT:
@@ -491,6 +504,7 @@ public class PageFrameSequence<T extends StatefulAtom> implements Closeable {
         // join the gang to consume published tasks
         while (reduceCounter.get() < frameCount) {
             idle = false;
+            readAhead.readAhead(collectedFrameIndex + 1);
             if (stealWork(reduceQueue, reduceSubSeq, record, circuitBreaker)) {
                 if (isActive()) {
                     continue;
@@ -543,6 +557,7 @@ public class PageFrameSequence<T extends StatefulAtom> implements Closeable {
             localTask.setType(taskType);
         }
         localTask.of(this, dispatchStartFrameIndex++);
+        readAhead.readAhead(collectedFrameIndex + 1);
 
         try {
             LOG.debug()
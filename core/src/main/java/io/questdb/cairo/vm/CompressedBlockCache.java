@@ -0,0 +1,145 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo.vm;
+
+import io.questdb.cairo.ColumnCompressor;
+import io.questdb.std.MemoryTag;
+import io.questdb.std.QuietCloseable;
+import io.questdb.std.Unsafe;
+
+/**
+ * Fixed number of buffers with decoded blocks of compressed column files. The cache is shared
+ * by all compressed memories of its owner, e.g. a table reader or a page frame record, and
+ * buffers are reused in least recently used order. Memory held for decompressed data is bounded
+ * by the slot count, it does not depend on the number of compressed partitions or columns.
+ * <p>
+ * Not thread-safe, every thread has to use its own cache.
+ */
+public class CompressedBlockCache implements QuietCloseable {
+    private final long[] addresses;
+    private final long[] capacities;
+    private final long[] generations;
+    private final long[] lastUse;
+    private final MemoryCMRCompressedImpl[] owners;
+    private final long[] rawHis;
+    private final long[] rawLos;
+    private long clock;
+
+    public CompressedBlockCache(int slotCount) {
+        this.addresses = new long[slotCount];
+        this.capacities = new long[slotCount];
+        this.generations = new long[slotCount];
+        this.lastUse = new long[slotCount];
+        this.owners = new MemoryCMRCompressedImpl[slotCount];
+        this.rawHis = new long[slotCount];
+        this.rawLos = new long[slotCount];
+    }
+
+    /**
+     * Returns address of the raw offset in a decoded block and marks the block as recently used.
+     *
+     * @param slot   slot returned by {@link #find(MemoryCMRCompressedImpl, long)} or {@link #load(MemoryCMRCompressedImpl, long)}
+     * @param offset offset in the raw file, must belong to the block in the slot
+     * @return address of the offset
+     */
+    public long addressOf(int slot, long offset) {
+        lastUse[slot] = ++clock;
+        return addresses[slot] + offset - rawLos[slot];
+    }
+
+    /**
+     * Releases all buffers, the cache remains usable.
+     */
+    public void clear() {
+        for (int i = 0, n = addresses.length; i < n; i++) {
+            addresses[i] = Unsafe.free(addresses[i], capacities[i], MemoryTag.NATIVE_TABLE_READER);
+            capacities[i] = 0;
+            owners[i] = null;
+            lastUse[i] = 0;
+        }
+    }
+
+    @Override
+    public void close() {
+        clear();
+    }
+
+    public boolean contains(int slot, MemoryCMRCompressedImpl source, long offset) {
+        return slot > -1
+                && owners[slot] == source
+                && generations[slot] == source.getGeneration()
+                && offset >= rawLos[slot]
+                && (offset < rawHis[slot] || (offset == rawHis[slot] && offset == source.size()));
+    }
+
+    /**
+     * Returns slot that holds the decoded block, which contains the given offset. The end
+     * of the file belongs to the last block, so that readers can check value bounds there.
+     *
+     * @param source compressed file
+     * @param offset offset in the raw file
+     * @return slot index or -1 when the block is not cached
+     */
+    public int find(MemoryCMRCompressedImpl source, long offset) {
+        for (int i = 0, n = owners.length; i < n; i++) {
+            if (contains(i, source, offset)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Decodes the block, which contains the given offset, into the least recently used slot.
+     *
+     * @param source compressed file
+     * @param offset offset in the raw file
+     * @return slot index
+     */
+    public int load(MemoryCMRCompressedImpl source, long offset) {
+        int slot = 0;
+        for (int i = 1, n = lastUse.length; i < n; i++) {
+            if (lastUse[i] < lastUse[slot]) {
+                slot = i;
+            }
+        }
+        final long srcAddr = source.getCompressedAddress();
+        final int block = ColumnCompressor.findBlock(srcAddr, offset);
+        final long rawLo = ColumnCompressor.getBlockRawLo(srcAddr, block);
+        final long rawHi = ColumnCompressor.getBlockRawLo(srcAddr, block + 1);
+        if (capacities[slot] < rawHi - rawLo) {
+            addresses[slot] = Unsafe.realloc(addresses[slot], capacities[slot], rawHi - rawLo, MemoryTag.NATIVE_TABLE_READER);
+            capacities[slot] = rawHi - rawLo;
+        }
+        // the slot is invalid until the block is decoded
+        owners[slot] = null;
+        source.decodeBlock(block, addresses[slot]);
+        owners[slot] = source;
+        generations[slot] = source.getGeneration();
+        rawLos[slot] = rawLo;
+        rawHis[slot] = rawHi;
+        return slot;
+    }
+}
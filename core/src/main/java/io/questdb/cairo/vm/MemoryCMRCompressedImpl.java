@@ -0,0 +1,159 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.cairo.vm;
+
+import io.questdb.cairo.CairoException;
+import io.questdb.cairo.ColumnCompressor;
+import io.questdb.cairo.TableUtils;
+import io.questdb.cairo.vm.api.MemoryCMR;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.std.FilesFacade;
+import io.questdb.std.MemoryTag;
+import io.questdb.std.ThreadLocal;
+import io.questdb.std.str.LPSZ;
+
+// contiguous readable memory over a mapped compressed column file; random access decodes blocks into
+// the block cache of the owner, page frames decode their row ranges with decompress()
+public class MemoryCMRCompressedImpl extends MemoryCRCompressedImpl implements MemoryCMR {
+    private static final Log LOG = LogFactory.getLog(MemoryCMRCompressedImpl.class);
+    private static final ThreadLocal<ColumnCompressor> tlCompressor = new ThreadLocal<>(ColumnCompressor::new);
+    private long compressedAddr;
+    private long compressedSize;
+    private int fd = -1;
+    // distinguishes blocks of the previously mapped file in the block cache
+    private long generation;
+    private long rawSize;
+
+    public MemoryCMRCompressedImpl(CompressedBlockCache cache, boolean stableStrings) {
+        super(stableStrings);
+        this.cache = cache;
+        this.source = this;
+    }
+
+    @Override
+    public void close() {
+        clear();
+        generation++;
+        if (compressedAddr != 0) {
+            ff.munmap(compressedAddr, compressedSize, MemoryTag.MMAP_TABLE_READER);
+            compressedAddr = 0;
+        }
+        compressedSize = 0;
+        rawSize = 0;
+        size = 0;
+        closeFd();
+    }
+
+    public void decodeBlock(int blockIndex, long dstAddr) {
+        tlCompressor.get().decodeBlock(compressedAddr, compressedSize, blockIndex, dstAddr);
+    }
+
+    /**
+     * Decodes the given range of the raw file into the buffer. Unlike random access, which
+     * goes through the block cache, this method is thread-safe.
+     *
+     * @param rawLo   offset of the first raw byte, inclusive
+     * @param rawHi   offset of the last raw byte, exclusive
+     * @param dstAddr destination buffer, must be able to hold rawHi - rawLo bytes
+     */
+    public void decompress(long rawLo, long rawHi, long dstAddr) {
+        tlCompressor.get().decompress(compressedAddr, compressedSize, rawLo, rawHi, dstAddr);
+    }
+
+    @Override
+    public int detachFdClose() {
+        int fd = this.fd;
+        this.fd = -1;
+        close();
+        return fd;
+    }
+
+    @Override
+    public void extend(long newSize) {
+        if (newSize > size) {
+            if (newSize > rawSize) {
+                throw CairoException.critical(0).put("cannot extend compressed column [size=").put(rawSize)
+                        .put(", newSize=").put(newSize).put(']');
+            }
+            size = newSize;
+        }
+    }
+
+    public long getCompressedAddress() {
+        return compressedAddr;
+    }
+
+    public long getCompressedSize() {
+        return compressedSize;
+    }
+
+    @Override
+    public int getFd() {
+        return fd;
+    }
+
+    public long getGeneration() {
+        return generation;
+    }
+
+    @Override
+    public void growToFileSize() {
+        // file size is the compressed size, the memory can grow up to the raw size
+        extend(rawSize);
+    }
+
+    @Override
+    public void of(FilesFacade ff, LPSZ name, long extendSegmentSize, long size, int memoryTag, long opts, int madviseOpts) {
+        close();
+        this.ff = ff;
+        try {
+            fd = TableUtils.openRO(ff, name, LOG);
+            compressedSize = ff.length(fd);
+            if (compressedSize < ColumnCompressor.HEADER_SIZE) {
+                throw CairoException.critical(ff.errno()).put("could not read compressed column [path=").put(name)
+                        .put(", size=").put(compressedSize).put(']');
+            }
+            compressedAddr = TableUtils.mapRO(ff, fd, compressedSize, MemoryTag.MMAP_TABLE_READER);
+            rawSize = ColumnCompressor.getRawSize(compressedAddr, compressedSize);
+            if (size < 0) {
+                size = rawSize;
+            }
+            extend(size);
+            LOG.debug().$("open [file=").$(name).$(", fd=").$(fd).$(", compressedSize=").$(compressedSize).$(", size=").$(size).I$();
+        } catch (Throwable e) {
+            close();
+            throw e;
+        }
+    }
+
+    private void closeFd() {
+        if (ff != null && fd != -1 && ff.close(fd)) {
+            LOG.debug().$("closed [fd=").$(fd).I$();
+        }
+        fd = -1;
+    }
+}
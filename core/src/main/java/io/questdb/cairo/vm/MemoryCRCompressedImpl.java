@@ -0,0 +1,108 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.cairo.vm;
+
+import io.questdb.cairo.CairoException;
+import io.questdb.std.Long256Acceptor;
+import io.questdb.std.Numbers;
+import io.questdb.std.Unsafe;
+import io.questdb.std.str.CharSink;
+
+// contiguous readable view of a compressed column file, blocks are decoded on access into the block cache;
+// addresses stay valid until the cache reuses the slot for another block
+public class MemoryCRCompressedImpl extends AbstractMemoryCR {
+    protected CompressedBlockCache cache;
+    protected MemoryCMRCompressedImpl source;
+    private int recentSlotA = -1;
+    private int recentSlotB = -1;
+
+    public MemoryCRCompressedImpl(boolean stableStrings) {
+        super(stableStrings);
+    }
+
+    @Override
+    public long addressOf(long offset) {
+        assert checkOffsetMapped(offset);
+        int slot = recentSlotA;
+        if (!cache.contains(slot, source, offset)) {
+            slot = recentSlotB;
+            if (!cache.contains(slot, source, offset)) {
+                slot = cache.find(source, offset);
+                if (slot < 0) {
+                    slot = cache.load(source, offset);
+                }
+            }
+            recentSlotB = recentSlotA;
+            recentSlotA = slot;
+        }
+        return cache.addressOf(slot, offset);
+    }
+
+    @Override
+    public void close() {
+        clear();
+        source = null;
+        size = 0;
+    }
+
+    @Override
+    public void extend(long newSize) {
+        if (newSize > size) {
+            throw CairoException.critical(0).put("cannot extend compressed column view [size=").put(size)
+                    .put(", newSize=").put(newSize).put(']');
+        }
+    }
+
+    @Override
+    public int getFd() {
+        return source != null ? source.getFd() : -1;
+    }
+
+    @Override
+    public void getLong256(long offset, CharSink<?> sink) {
+        // value never spans blocks, its address is taken from the block that holds the first byte
+        final long addr = addressOf(offset);
+        Numbers.appendLong256(
+                Unsafe.getUnsafe().getLong(addr),
+                Unsafe.getUnsafe().getLong(addr + Long.BYTES),
+                Unsafe.getUnsafe().getLong(addr + Long.BYTES * 2),
+                Unsafe.getUnsafe().getLong(addr + Long.BYTES * 3),
+                sink
+        );
+    }
+
+    @Override
+    public void getLong256(long offset, Long256Acceptor sink) {
+        sink.fromAddress(addressOf(offset));
+    }
+
+    public MemoryCRCompressedImpl of(MemoryCMRCompressedImpl source, CompressedBlockCache cache) {
+        this.source = source;
+        this.cache = cache;
+        this.size = source.size();
+        return this;
+    }
+}
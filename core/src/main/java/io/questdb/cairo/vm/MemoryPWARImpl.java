@@ -0,0 +1,301 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.cairo.vm;
+
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.CairoException;
+import io.questdb.cairo.CommitMode;
+import io.questdb.cairo.TableUtils;
+import io.questdb.cairo.vm.api.MemoryMAR;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.std.FilesFacade;
+import io.questdb.std.IOURing;
+import io.questdb.std.MemoryTag;
+import io.questdb.std.Unsafe;
+import io.questdb.std.Vect;
+import io.questdb.std.str.LPSZ;
+
+// paged pwrite appendable readable
+// Appends to a page of anonymous memory rather than to a mapped page of the file. The page is written
+// to the file with pwrite when the memory moves to another page, or on flush(). Unlike MemoryPMARImpl,
+// data appended since the last flush is not visible through the file descriptor.
+public class MemoryPWARImpl extends MemoryPARWImpl implements MemoryMAR {
+    private static final Log LOG = LogFactory.getLog(MemoryPWARImpl.class);
+    private final int commitMode;
+    // end of the data in the page, bytes past the append offset may remain after jumping back
+    private long dataHi;
+    // file offset of the first byte in the page that is not yet written to the file
+    private long dirtyLo;
+    private int fd = -1;
+    private FilesFacade ff;
+    private int mappedPage = -1;
+    private long pageAddress = 0;
+    private long pageAllocSize;
+
+    public MemoryPWARImpl(int commitMode) {
+        this.commitMode = commitMode;
+    }
+
+    public final void close(boolean truncate, byte truncateMode) {
+        long sz = truncate ? getAppendOffset() : -1L;
+        try {
+            if (fd != -1) {
+                flush();
+            }
+        } catch (CairoException e) {
+            // data that was not committed is lost on close anyway
+            LOG.error().$("could not flush on close [fd=").$(fd)
+                    .$(", msg=").$(e.getFlyweightMessage())
+                    .$(", errno=").$(e.getErrno())
+                    .I$();
+        } finally {
+            releasePage();
+            super.close();
+            if (fd != -1) {
+                try {
+                    Vm.bestEffortClose(ff, LOG, fd, sz, truncateMode);
+                } finally {
+                    fd = -1;
+                }
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        close(true);
+    }
+
+    @Override
+    public int detachFdClose() {
+        flush();
+        int fd = this.fd;
+        this.fd = -1;
+        close(false);
+        return fd;
+    }
+
+    /**
+     * Enqueues write of the data not yet written to the file. The ring must have room for
+     * one more submission, and the write must complete before this memory is used again.
+     *
+     * @param ring ring to enqueue the write to
+     * @return number of bytes to be written, 0 when there is nothing to write
+     */
+    public int enqueueFlush(IOURing ring) {
+        if (mappedPage < 0) {
+            return 0;
+        }
+        final long hi = getDataHi();
+        final long len = hi - dirtyLo;
+        if (len < 1) {
+            return 0;
+        }
+        if (ring.enqueueWrite(fd, dirtyLo, pageAddress + dirtyLo - pageOffset(mappedPage), (int) len) < 0) {
+            throw CairoException.critical(0).put("io_uring submission queue is full [fd=").put(fd).put(']');
+        }
+        dirtyLo = dataHi = hi;
+        return (int) len;
+    }
+
+    /**
+     * Writes data appended since the last flush to the file.
+     */
+    public void flush() {
+        if (mappedPage < 0) {
+            return;
+        }
+        final long hi = getDataHi();
+        final long pageLo = pageOffset(mappedPage);
+        long offset = dirtyLo;
+        while (offset < hi) {
+            final long written = ff.write(fd, pageAddress + offset - pageLo, hi - offset, offset);
+            if (written < 1) {
+                throw CairoException.critical(ff.errno()).put("could not write to file [fd=").put(fd)
+                        .put(", offset=").put(offset)
+                        .put(", size=").put(hi - offset)
+                        .put(']');
+            }
+            offset += written;
+        }
+        dirtyLo = dataHi = hi;
+    }
+
+    public int getFd() {
+        return fd;
+    }
+
+    @Override
+    public FilesFacade getFilesFacade() {
+        return ff;
+    }
+
+    @Override
+    public long getPageAddress(int page) {
+        if (page == mappedPage) {
+            return pageAddress;
+        }
+        return 0L;
+    }
+
+    @Override
+    public void jumpTo(long offset) {
+        if (mappedPage > -1 && pageIndex(offset) == mappedPage) {
+            final long hi = getDataHi();
+            if (offset > hi) {
+                // skipped bytes were not appended through this memory, e.g. nulls written to the file directly
+                flush();
+                final long fileHi = readFile(hi, offset);
+                zeroFill(fileHi, offset);
+                dirtyLo = fileHi;
+            } else {
+                dirtyLo = Math.min(dirtyLo, offset);
+            }
+            dataHi = Math.max(hi, offset);
+        }
+        super.jumpTo(offset);
+    }
+
+    @Override
+    public final void of(FilesFacade ff, LPSZ name, long extendSegmentSize, int memoryTag, long opts) {
+        of(ff, name, extendSegmentSize, 0, memoryTag, opts, -1);
+    }
+
+    @Override
+    public void of(FilesFacade ff, LPSZ name, long extendSegmentSize, long size, int memoryTag, long opts) {
+        of(ff, name, extendSegmentSize, memoryTag, opts);
+    }
+
+    @Override
+    public void of(FilesFacade ff, LPSZ name, long extendSegmentSize, long size, int memoryTag, long opts, int madviseOpts) {
+        close();
+        this.memoryTag = memoryTag;
+        this.ff = ff;
+        setExtendSegmentSize(extendSegmentSize);
+        fd = TableUtils.openFileRWOrFail(ff, name, opts);
+        LOG.debug().$("open ").$(name).$(" [fd=").$(fd).$(", extendSegmentSize=").$(extendSegmentSize).$(']').$();
+    }
+
+    @Override
+    public void switchTo(FilesFacade ff, int fd, long extendSegmentSize, long offset, boolean truncate, byte truncateMode) {
+        close(truncate, truncateMode);
+        this.ff = ff;
+        setExtendSegmentSize(extendSegmentSize);
+        this.fd = fd;
+        jumpTo(offset);
+    }
+
+    public void sync(boolean async) {
+        flush();
+        if (fd != -1 && commitMode == CommitMode.SYNC) {
+            // pwrite leaves data in the page cache, which is as far as an asynchronous msync gets
+            ff.fsync(fd);
+        }
+    }
+
+    public void truncate() {
+        if (fd == -1) {
+            // are we closed ?
+            return;
+        }
+        // data not yet written to the file is discarded along with the rest
+        mappedPage = -1;
+        if (!ff.truncate(Math.abs(fd), 0)) {
+            throw CairoException.critical(ff.errno()).put("Cannot truncate fd=").put(fd).put(" to 0 bytes");
+        }
+        updateLimits(0, mapWritePage(0, 0));
+        LOG.debug().$("truncated [fd=").$(fd).$(']').$();
+    }
+
+    @Override
+    public void wholeFile(FilesFacade ff, LPSZ name, int memoryTag) {
+        of(ff, name, ff.getMapPageSize(), 0, memoryTag, CairoConfiguration.O_NONE, -1);
+    }
+
+    private long getDataHi() {
+        return Math.max(dataHi, Math.min(getAppendOffset(), pageOffset(mappedPage + 1)));
+    }
+
+    // reads the file into the page, returns the end of the read range, which is short of hi past the end of file
+    private long readFile(long lo, long hi) {
+        final long pageLo = pageOffset(mappedPage);
+        final long fileHi = Math.min(hi, ff.length(fd));
+        long offset = lo;
+        while (offset < fileHi) {
+            final long read = ff.read(fd, pageAddress + offset - pageLo, fileHi - offset, offset);
+            if (read < 1) {
+                throw CairoException.critical(ff.errno()).put("could not read from file [fd=").put(fd)
+                        .put(", offset=").put(offset)
+                        .put(", size=").put(fileHi - offset)
+                        .put(']');
+            }
+            offset += read;
+        }
+        return offset;
+    }
+
+    private void releasePage() {
+        if (pageAddress != 0) {
+            pageAddress = Unsafe.free(pageAddress, pageAllocSize, MemoryTag.NATIVE_TABLE_WAL_WRITER);
+            pageAllocSize = 0;
+        }
+        mappedPage = -1;
+        dirtyLo = dataHi = 0;
+    }
+
+    // bytes past the end of file read as zeros, as they would from a mapped page of the file
+    private void zeroFill(long lo, long hi) {
+        if (lo < hi) {
+            Vect.memset(pageAddress + lo - pageOffset(mappedPage), hi - lo, 0);
+        }
+    }
+
+    @Override
+    protected long mapWritePage(int page, long offset) {
+        if (page == mappedPage) {
+            return pageAddress;
+        }
+        if (pageAddress == 0) {
+            pageAllocSize = getPageSize();
+            pageAddress = Unsafe.malloc(pageAllocSize, MemoryTag.NATIVE_TABLE_WAL_WRITER);
+        } else {
+            flush();
+        }
+        mappedPage = page;
+        final long pageLo = pageOffset(page);
+        final long fileHi = readFile(pageLo, pageLo + getPageSize());
+        if (offset > fileHi) {
+            zeroFill(fileHi, offset);
+            dirtyLo = fileHi;
+            dataHi = offset;
+        } else {
+            dirtyLo = offset;
+            dataHi = fileHi;
+        }
+        return pageAddress;
+    }
+}
@@ -28,6 +28,7 @@ import io.questdb.cairo.vm.api.*;
 import io.questdb.log.Log;
 import io.questdb.std.Files;
 import io.questdb.std.FilesFacade;
+import io.questdb.std.MemoryTag;
 import io.questdb.std.str.LPSZ;
 import io.questdb.std.str.StableDirectString;
 import io.questdb.std.str.Utf8Sequence;
@@ -131,10 +132,20 @@ public class Vm {
         return new MemoryCMRImpl(ff, name, size, memoryTag, stableStrings);
     }
 
+    public static MemoryMR getMRCompressedInstance(FilesFacade ff, LPSZ name, long size, CompressedBlockCache cache, boolean stableStrings) {
+        MemoryMR mem = new MemoryCMRCompressedImpl(cache, stableStrings);
+        mem.of(ff, name, 0, size, MemoryTag.NATIVE_TABLE_READER);
+        return mem;
+    }
+
     public static MemoryCMOR getMemoryCMOR() {
         return new MemoryCMORImpl();
     }
 
+    public static MemoryMA getPWARInstance(int commitMode) {
+        return new MemoryPWARImpl(commitMode);
+    }
+
     public static MemoryCMARW getSmallCMARWInstance(FilesFacade ff, LPSZ name, int memoryTag, long opts) {
         return new MemoryCMARWImpl(ff, name, ff.getPageSize(), -1, memoryTag, opts);
     }
@@ -69,6 +69,7 @@ public class ApplyWal2TableJob extends AbstractQueueConsumerJob<WalTxnNotificati
     private final WalMetrics metrics;
     private final MicrosecondClock microClock;
     private final OperationExecutor operationExecutor;
+    private final WalApplyScheduler scheduler;
     private final long tableTimeQuotaMicros;
     private final Telemetry<TelemetryTask> telemetry;
     private final TelemetryFacade telemetryFacade;
@@ -79,6 +80,7 @@ public class ApplyWal2TableJob extends AbstractQueueConsumerJob<WalTxnNotificati
     public ApplyWal2TableJob(CairoEngine engine, int workerCount, int sharedWorkerCount) {
         super(engine.getMessageBus().getWalTxnNotificationQueue(), engine.getMessageBus().getWalTxnNotificationSubSequence());
         this.engine = engine;
+        scheduler = engine.getWalApplyScheduler();
         walTelemetry = engine.getTelemetryWal();
         walTelemetryFacade = walTelemetry.isEnabled() ? this::doStoreWalTelemetry : this::storeWalTelemetryNoop;
         telemetry = engine.getTelemetry();
@@ -98,6 +100,31 @@ public class ApplyWal2TableJob extends AbstractQueueConsumerJob<WalTxnNotificati
         Misc.free(walEventReader);
     }
 
+    @Override
+    public boolean run(int workerId, @NotNull RunStatus runStatus) {
+        // Move all notifications into the scheduler first, so that the table to apply
+        // is picked by priority and waiting time rather than by queue order.
+        boolean useful = false;
+        while (super.run(workerId, runStatus)) {
+            useful = true;
+        }
+
+        final TableToken tableToken = scheduler.poll();
+        if (tableToken == null) {
+            return useful;
+        }
+
+        final long txn = applyWal(tableToken, engine, operationExecutor, runStatus);
+        if (txn == WAL_APPLY_FAILED) {
+            try {
+                engine.getTableSequencerAPI().suspendTable(tableToken);
+            } catch (CairoException e) {
+                LOG.critical().$("could not suspend table [table=").$(tableToken.getTableName()).$(", error=").$(e.getFlyweightMessage()).I$();
+            }
+        }
+        return true;
+    }
+
     private static boolean cleanDroppedTableDirectory(CairoEngine engine, Path tempPath, TableToken tableToken) {
         // Clean all the files inside table folder name except WAL directories and SEQ_DIR directory
         boolean allClean = true;
@@ -172,6 +199,7 @@ public class ApplyWal2TableJob extends AbstractQueueConsumerJob<WalTxnNotificati
     }
 
     private static boolean tryDestroyDroppedTable(TableToken tableToken, TableWriter writer, CairoEngine engine, Path tempPath) {
+        engine.getSharedSymbolCacheRegistry().remove(tableToken);
         if (engine.lockReadersAndMetadata(tableToken)) {
             TableWriter writerToClose = null;
             try {
@@ -350,7 +378,14 @@ public class ApplyWal2TableJob extends AbstractQueueConsumerJob<WalTxnNotificati
                 totalTransactionCount += iTransaction;
 
                 if (!finishedAll || isTerminating) {
-                    writer.commitSeqTxn();
+                    // squashed transactions wait in the lag for the next one,
+                    // commit them rather than leaving the rows invisible until the next run
+                    final long lagRowsAdded = writer.commitWalLag();
+                    if (lagRowsAdded > 0) {
+                        rowsAdded += lagRowsAdded;
+                    } else {
+                        writer.commitSeqTxn();
+                    }
                 }
 
                 if (totalTransactionCount > 0) {
@@ -553,24 +588,12 @@ public class ApplyWal2TableJob extends AbstractQueueConsumerJob<WalTxnNotificati
 
     @Override
     protected boolean doRun(int workerId, long cursor, RunStatus runStatus) {
-        final TableToken tableToken;
-
         try {
             WalTxnNotificationTask task = queue.get(cursor);
-            tableToken = task.getTableToken();
+            scheduler.add(task.getTableToken());
         } finally {
-            // Don't hold the queue until the all the transactions applied to the table
             subSeq.done(cursor);
         }
-
-        final long txn = applyWal(tableToken, engine, operationExecutor, runStatus);
-        if (txn == WAL_APPLY_FAILED) {
-            try {
-                engine.getTableSequencerAPI().suspendTable(tableToken);
-            } catch (CairoException e) {
-                LOG.critical().$("could not suspend table [table=").$(tableToken.getTableName()).$(", error=").$(e.getFlyweightMessage()).I$();
-            }
-        }
         return true;
     }
 
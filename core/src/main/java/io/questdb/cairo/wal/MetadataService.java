@@ -89,6 +89,15 @@ public interface MetadataService {
 
     void changeCacheFlag(int columnIndex, boolean isCacheOn);
 
+    /**
+     * Rewrites column files of a non-active partition in compressed form and marks the partition
+     * compressed and read-only. Readers decompress the partition columns transparently.
+     *
+     * @param partitionTimestamp timestamp of the partition to compress
+     * @return {@link AttachDetachStatus#OK} when the partition is compressed or has been compressed before
+     */
+    AttachDetachStatus compressPartition(long partitionTimestamp);
+
     AttachDetachStatus detachPartition(long partitionTimestamp);
 
     void disableDeduplication();
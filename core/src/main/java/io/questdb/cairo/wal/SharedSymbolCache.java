@@ -0,0 +1,129 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.cairo.wal;
+
+import io.questdb.cairo.sql.SymbolTable;
+import io.questdb.std.Hash;
+import io.questdb.std.Numbers;
+import io.questdb.std.str.Utf8Sequence;
+import io.questdb.std.str.Utf8String;
+import io.questdb.std.str.Utf8s;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * UTF-8 symbol value to symbol key map of a table column, shared by all WAL writers
+ * of the table. Only the keys of symbols committed to the table are cached, these
+ * never change for the lifetime of the column, so the cache is append-only.
+ * <p>
+ * Lookups are lock-free. Inserts are serialized and publish the entry by a volatile
+ * store of the value, so a reader either sees a complete entry or no entry at all.
+ * The map grows by publishing a rehashed copy of the entries.
+ */
+public class SharedSymbolCache {
+    private static final int MIN_CAPACITY = 16;
+    private final int maxSize;
+    private volatile Entries entries;
+    private int size;
+
+    public SharedSymbolCache(int maxSize) {
+        this.maxSize = maxSize;
+        this.entries = new Entries(MIN_CAPACITY);
+    }
+
+    public int keyOf(Utf8Sequence value) {
+        final Entries entries = this.entries;
+        final int mask = entries.mask;
+        int index = Hash.spread(Utf8s.hashCode(value)) & mask;
+        Utf8String cached;
+        while ((cached = entries.values.get(index)) != null) {
+            if (Utf8s.equals(cached, value)) {
+                return entries.keys[index];
+            }
+            index = (index + 1) & mask;
+        }
+        return SymbolTable.VALUE_NOT_FOUND;
+    }
+
+    public synchronized void put(Utf8String value, int key) {
+        if (size >= maxSize) {
+            return;
+        }
+        Entries entries = this.entries;
+        if ((size + 1) << 1 > entries.capacity) {
+            entries = rehash(entries);
+            this.entries = entries;
+        }
+        if (putAt(entries, value, key)) {
+            size++;
+        }
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    private static boolean putAt(Entries entries, Utf8String value, int key) {
+        final int mask = entries.mask;
+        int index = Hash.spread(Utf8s.hashCode(value)) & mask;
+        Utf8String cached;
+        while ((cached = entries.values.get(index)) != null) {
+            if (Utf8s.equals(cached, value)) {
+                return false;
+            }
+            index = (index + 1) & mask;
+        }
+        entries.keys[index] = key;
+        // the volatile store makes the key visible together with the value
+        entries.values.set(index, value);
+        return true;
+    }
+
+    private static Entries rehash(Entries entries) {
+        final Entries rehashed = new Entries(entries.capacity << 1);
+        for (int i = 0, n = entries.capacity; i < n; i++) {
+            final Utf8String value = entries.values.get(i);
+            if (value != null) {
+                putAt(rehashed, value, entries.keys[i]);
+            }
+        }
+        return rehashed;
+    }
+
+    private static class Entries {
+        private final int capacity;
+        private final int[] keys;
+        private final int mask;
+        private final AtomicReferenceArray<Utf8String> values;
+
+        private Entries(int capacity) {
+            this.capacity = Numbers.ceilPow2(capacity);
+            this.mask = this.capacity - 1;
+            this.keys = new int[this.capacity];
+            this.values = new AtomicReferenceArray<>(this.capacity);
+        }
+    }
+}
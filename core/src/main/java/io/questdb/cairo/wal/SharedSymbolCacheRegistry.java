@@ -0,0 +1,82 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.cairo.wal;
+
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.TableToken;
+import io.questdb.std.ConcurrentLongHashMap;
+import io.questdb.std.Mutable;
+import io.questdb.std.ObjList;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.function.LongFunction;
+
+/**
+ * Holds {@link SharedSymbolCache} instances of WAL tables, keyed by table id and column
+ * writer index. Table id and writer index are never reused for a different column,
+ * so a cache is valid until the table is dropped.
+ */
+public class SharedSymbolCacheRegistry implements Mutable {
+    private static final LongFunction<ObjList<SharedSymbolCache>> CREATE_TABLE_CACHES = tableId -> new ObjList<>();
+    private final ConcurrentLongHashMap<ObjList<SharedSymbolCache>> caches = new ConcurrentLongHashMap<>();
+    private final int maxSize;
+
+    public SharedSymbolCacheRegistry(CairoConfiguration configuration) {
+        this.maxSize = configuration.getWalSharedSymbolCacheMaxSize();
+    }
+
+    @Override
+    public void clear() {
+        caches.clear();
+    }
+
+    /**
+     * Returns the cache of the given symbol column, creating it on first access.
+     *
+     * @param tableToken        table token
+     * @param columnWriterIndex writer index of the symbol column
+     * @return the column cache or null when the shared cache is disabled
+     */
+    @Nullable
+    public SharedSymbolCache getSymbolCache(TableToken tableToken, int columnWriterIndex) {
+        if (maxSize < 1) {
+            return null;
+        }
+        final ObjList<SharedSymbolCache> tableCaches = caches.computeIfAbsent(tableToken.getTableId(), CREATE_TABLE_CACHES);
+        synchronized (tableCaches) {
+            SharedSymbolCache cache = tableCaches.getQuiet(columnWriterIndex);
+            if (cache == null) {
+                cache = new SharedSymbolCache(maxSize);
+                tableCaches.extendAndSet(columnWriterIndex, cache);
+            }
+            return cache;
+        }
+    }
+
+    public void remove(TableToken tableToken) {
+        caches.remove(tableToken.getTableId());
+    }
+}
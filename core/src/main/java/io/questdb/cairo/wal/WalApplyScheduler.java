@@ -0,0 +1,110 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.cairo.wal;
+
+import io.questdb.cairo.TableToken;
+import io.questdb.cairo.wal.seq.TableSequencerAPI;
+import io.questdb.std.Chars;
+import io.questdb.std.LongList;
+import io.questdb.std.Mutable;
+import io.questdb.std.ObjList;
+import io.questdb.std.datetime.microtime.MicrosecondClock;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Picks the next table for {@link ApplyWal2TableJob} to apply. Notifications are
+ * de-duplicated per table and tables are ordered by the time they have been waiting
+ * for apply, multiplied by their WAL priority weight, see {@code ALTER TABLE ... SET WAL PRIORITY}.
+ * With equal priorities tables are applied in the order they became ready, so a table
+ * ejected after using up its apply time quota goes behind every table already waiting.
+ * <p>
+ * The scheduler is shared by all apply jobs of the engine.
+ */
+public class WalApplyScheduler implements Mutable {
+    private final MicrosecondClock clock;
+    private final LongList pendingSince = new LongList();
+    private final ObjList<TableToken> pendingTables = new ObjList<>();
+    private final TableSequencerAPI tableSequencerAPI;
+    private volatile int pendingCount;
+
+    public WalApplyScheduler(MicrosecondClock clock, TableSequencerAPI tableSequencerAPI) {
+        this.clock = clock;
+        this.tableSequencerAPI = tableSequencerAPI;
+    }
+
+    public synchronized void add(TableToken tableToken) {
+        for (int i = 0, n = pendingTables.size(); i < n; i++) {
+            if (Chars.equals(pendingTables.getQuick(i).getDirName(), tableToken.getDirName())) {
+                // keep the original wait time, but take the latest token in case the table was renamed
+                pendingTables.setQuick(i, tableToken);
+                return;
+            }
+        }
+        pendingTables.add(tableToken);
+        pendingSince.add(clock.getTicks());
+        pendingCount = pendingTables.size();
+    }
+
+    @Override
+    public synchronized void clear() {
+        pendingTables.clear();
+        pendingSince.clear();
+        pendingCount = 0;
+    }
+
+    public int getPendingCount() {
+        return pendingCount;
+    }
+
+    @Nullable
+    public TableToken poll() {
+        if (pendingCount == 0) {
+            return null;
+        }
+        synchronized (this) {
+            final int n = pendingTables.size();
+            if (n == 0) {
+                return null;
+            }
+            final long now = clock.getTicks();
+            int next = 0;
+            long nextScore = Long.MIN_VALUE;
+            for (int i = 0; i < n; i++) {
+                final long waitTime = Math.max(0, now - pendingSince.getQuick(i)) + 1;
+                final long score = waitTime * (1 + tableSequencerAPI.getWalPriority(pendingTables.getQuick(i)));
+                if (score > nextScore) {
+                    next = i;
+                    nextScore = score;
+                }
+            }
+            final TableToken tableToken = pendingTables.getQuick(next);
+            pendingTables.remove(next);
+            pendingSince.removeIndex(next);
+            pendingCount = pendingTables.size();
+            return tableToken;
+        }
+    }
+}
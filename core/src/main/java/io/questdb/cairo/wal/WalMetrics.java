@@ -27,6 +27,7 @@ package io.questdb.cairo.wal;
 import io.questdb.metrics.Counter;
 import io.questdb.metrics.LongGauge;
 import io.questdb.metrics.MetricsRegistry;
+import io.questdb.metrics.VirtualLongGaugeWithOneLabel;
 
 import java.util.concurrent.atomic.AtomicLong;
 
@@ -34,6 +35,7 @@ public class WalMetrics {
     private final Counter applyPhysicallyWrittenRowsCounter;
     private final LongGauge applyRowsWriteRateGauge;
     private final Counter applyRowsWrittenCounter;
+    private final MetricsRegistry metricsRegistry;
     private final Counter rowsWrittenCounter;
     private final AtomicLong totalRowsWritten = new AtomicLong();
     private final AtomicLong totalRowsWrittenTotalTime = new AtomicLong();
@@ -43,6 +45,7 @@ public class WalMetrics {
         this.applyRowsWrittenCounter = metricsRegistry.newCounter("wal_apply_written_rows");
         this.applyRowsWriteRateGauge = metricsRegistry.newLongGauge("wal_apply_rows_per_second");
         this.rowsWrittenCounter = metricsRegistry.newCounter("wal_written_rows");
+        this.metricsRegistry = metricsRegistry;
     }
 
     public void addApplyRowsWritten(long rows, long physicallyWrittenRows, long timeMicros) {
@@ -57,4 +60,11 @@ public class WalMetrics {
     public void addRowsWritten(long rows) {
         rowsWrittenCounter.add(rows);
     }
+
+    /**
+     * Registers per-table gauge of sequencer transactions not yet applied to the table.
+     */
+    public void registerApplyLag(VirtualLongGaugeWithOneLabel.StatProvider provider) {
+        metricsRegistry.addScrapable(new VirtualLongGaugeWithOneLabel("wal_apply_lag_txns", "table", provider));
+    }
 }
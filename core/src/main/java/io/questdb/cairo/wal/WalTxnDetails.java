@@ -40,7 +40,9 @@ public class WalTxnDetails {
     private static final int MIN_TIMESTAMP_OFFSET = 1;
     private static final int MAX_TIMESTAMP_OFFSET = MIN_TIMESTAMP_OFFSET + 1;
     private static final int WAL_ID_SEG_ID_OFFSET = MAX_TIMESTAMP_OFFSET + 1;
-    public static final int TXN_METADATA_LONGS_SIZE = WAL_ID_SEG_ID_OFFSET + 1;
+    private static final long NON_DATA_TXN = -1;
+    private static final int TXN_TYPE_OFFSET = WAL_ID_SEG_ID_OFFSET + 1;
+    public static final int TXN_METADATA_LONGS_SIZE = TXN_TYPE_OFFSET + 1;
     private final LongHashSet futureWalSegments = new LongHashSet();
     private final int maxLookahead;
     private final LongList transactionMeta = new LongList();
@@ -88,6 +90,25 @@ public class WalTxnDetails {
         return walId < 0;
     }
 
+    /**
+     * Checks if the transaction can be copied to the WAL lag without committing and then
+     * committed together with the next one. This is the case when both transactions are data
+     * transactions and the next one does not overlap with the given one.
+     *
+     * @param seqTxn sequencer transaction number
+     * @return true if the next transaction is known and continues the given one in timestamp order
+     */
+    public boolean isSquashableWithNext(long seqTxn) {
+        if (!hasRecord(seqTxn + 1)) {
+            return false;
+        }
+        final int offset = (int) ((seqTxn - startSeqTxn) * TXN_METADATA_LONGS_SIZE);
+        final int nextOffset = offset + TXN_METADATA_LONGS_SIZE;
+        return transactionMeta.getQuick(offset + TXN_TYPE_OFFSET) == DATA
+                && transactionMeta.getQuick(nextOffset + TXN_TYPE_OFFSET) == DATA
+                && transactionMeta.getQuick(nextOffset + MIN_TIMESTAMP_OFFSET) >= transactionMeta.getQuick(offset + MAX_TIMESTAMP_OFFSET);
+    }
+
     public void readObservableTxnMeta(
             final Path tempPath,
             final TransactionLogCursor transactionLogCursor,
@@ -210,6 +231,7 @@ public class WalTxnDetails {
                         transactionMeta.add(commitInfo.getMinTimestamp());
                         transactionMeta.add(commitInfo.getMaxTimestamp());
                         transactionMeta.add(Numbers.encodeLowHighInts(segmentId, walId));
+                        transactionMeta.add(DATA);
                         runningMaxTimestamp = Math.max(commitInfo.getMaxTimestamp(), runningMaxTimestamp);
                         continue;
                     }
@@ -219,6 +241,7 @@ public class WalTxnDetails {
                 transactionMeta.add(runningMaxTimestamp); // min timestamp
                 transactionMeta.add(runningMaxTimestamp); // max timestamp
                 transactionMeta.add(Numbers.encodeLowHighInts(segmentId, walId));
+                transactionMeta.add(NON_DATA_TXN);
             }
         } finally {
             tempPath.trimTo(rootLen);
@@ -243,6 +266,7 @@ public class WalTxnDetails {
                 long txnMaxTimestamp = transactionLogCursor.getTxnMaxTimestamp();
                 transactionMeta.add(txnMaxTimestamp);
                 transactionMeta.add(Numbers.encodeLowHighInts(segmentId, walId));
+                transactionMeta.add(DATA);
                 runningMaxTimestamp = Math.max(txnMaxTimestamp, runningMaxTimestamp);
                 continue;
             }
@@ -251,6 +275,7 @@ public class WalTxnDetails {
             transactionMeta.add(runningMaxTimestamp); // min timestamp
             transactionMeta.add(runningMaxTimestamp); // max timestamp
             transactionMeta.add(Numbers.encodeLowHighInts(segmentId, walId));
+            transactionMeta.add(NON_DATA_TXN);
         }
     }
 }
@@ -24,10 +24,14 @@
 
 package io.questdb.cairo.wal;
 
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.CairoException;
+import io.questdb.cairo.TableUtils;
 import io.questdb.cairo.vm.api.MemoryMARW;
 import io.questdb.cairo.wal.seq.TableTransactionLogFile;
 import io.questdb.std.FilesFacade;
 import io.questdb.std.MemoryTag;
+import io.questdb.std.Unsafe;
 import io.questdb.std.str.Path;
 
 public class WalUtils {
@@ -65,6 +69,9 @@ public class WalUtils {
     public static final String WAL_INDEX_FILE_NAME = "_wal_index.d";
     public static final String WAL_NAME_BASE = "wal";
     public static final String WAL_PENDING_FS_MARKER = ".pending";
+    public static final int WAL_PRIORITY_DEFAULT = 0;
+    public static final String WAL_PRIORITY_FILE_NAME = "_wal_priority";
+    public static final int WAL_PRIORITY_MAX = 100;
 
 
     public static void createTxnLogFile(FilesFacade ff, MemoryMARW mem, Path txnSeqDirPath, long tableCreateDate, int chunkSize, int mkDirMode) {
@@ -94,4 +101,51 @@ public class WalUtils {
             txnSeqDirPath.trimTo(rootLen);
         }
     }
+
+    public static int readWalPriority(FilesFacade ff, Path txnSeqDirPath) {
+        int rootLen = txnSeqDirPath.size();
+        int fd = -1;
+        try {
+            fd = ff.openRO(txnSeqDirPath.concat(WAL_PRIORITY_FILE_NAME).$());
+            if (fd < 0) {
+                // priority has never been set for the table
+                return WAL_PRIORITY_DEFAULT;
+            }
+            final int priority = ff.readNonNegativeInt(fd, 0);
+            return priority > -1 ? Math.min(priority, WAL_PRIORITY_MAX) : WAL_PRIORITY_DEFAULT;
+        } finally {
+            ff.close(fd);
+            txnSeqDirPath.trimTo(rootLen);
+        }
+    }
+
+    public static void writeWalPriority(FilesFacade ff, Path txnSeqDirPath, int priority) {
+        // the value is written to a temporary file first and renamed over the old one,
+        // so that a crash cannot leave a torn or empty priority file behind
+        int rootLen = txnSeqDirPath.size();
+        final Path tmpPath = Path.getThreadLocal2(txnSeqDirPath).concat(WAL_PRIORITY_FILE_NAME).putAscii(".tmp").$();
+        long addr = 0;
+        int fd = -1;
+        try {
+            fd = ff.openRW(tmpPath, CairoConfiguration.O_NONE);
+            if (fd < 0) {
+                throw CairoException.critical(ff.errno()).put("could not open file [path=").put(tmpPath).put(']');
+            }
+            addr = Unsafe.malloc(Integer.BYTES, MemoryTag.NATIVE_TABLE_WAL_WRITER);
+            Unsafe.getUnsafe().putInt(addr, priority);
+            if (ff.write(fd, addr, Integer.BYTES, 0) != Integer.BYTES) {
+                throw CairoException.critical(ff.errno()).put("could not write file [path=").put(tmpPath).put(']');
+            }
+            ff.fsync(fd);
+            ff.close(fd);
+            fd = -1;
+            TableUtils.renameOrFail(ff, tmpPath, txnSeqDirPath.concat(WAL_PRIORITY_FILE_NAME).$());
+        } finally {
+            if (addr != 0) {
+                Unsafe.free(addr, Integer.BYTES, MemoryTag.NATIVE_TABLE_WAL_WRITER);
+            }
+            ff.close(fd);
+            txnSeqDirPath.trimTo(rootLen);
+        }
+    }
 }
@@ -29,6 +29,7 @@ import io.questdb.cairo.*;
 import io.questdb.cairo.sql.SymbolTable;
 import io.questdb.cairo.sql.TableRecordMetadata;
 import io.questdb.cairo.sql.TableReferenceOutOfDateException;
+import io.questdb.cairo.vm.MemoryPWARImpl;
 import io.questdb.cairo.vm.Vm;
 import io.questdb.cairo.vm.api.MemoryMA;
 import io.questdb.cairo.vm.api.MemoryMAR;
@@ -56,11 +57,14 @@ import static io.questdb.cairo.wal.seq.TableSequencer.NO_TXN;
 
 public class WalWriter implements TableWriterAPI {
     private static final long COLUMN_DELETED_NULL_FLAG = Long.MAX_VALUE;
+    private static final int COLUMN_WRITE_RING_CAPACITY = 64;
     private static final Log LOG = LogFactory.getLog(WalWriter.class);
     private static final int MEM_TAG = MemoryTag.MMAP_TABLE_WAL_WRITER;
     private static final Runnable NOOP = () -> {
     };
     private final AlterOperation alterOp = new AlterOperation();
+    private final boolean bufferedAppendEnabled;
+    private final IOURing columnWriteRing;
     private final ObjList<MemoryMA> columns;
     private final CairoConfiguration configuration;
     private final DdlListener ddlListener;
@@ -79,6 +83,8 @@ public class WalWriter implements TableWriterAPI {
     private final RowImpl row = new RowImpl();
     private final LongList rowValueIsNotNull = new LongList();
     private final TableSequencerAPI sequencer;
+    private final SharedSymbolCacheRegistry sharedSymbolCacheRegistry;
+    private final ObjList<SharedSymbolCache> sharedSymbolCaches = new ObjList<>();
     private final MemoryMAR symbolMapMem;
     private final BoolList symbolMapNullFlags = new BoolList();
     private final ObjList<SymbolMapReader> symbolMapReaders = new ObjList<>();
@@ -117,10 +123,12 @@ public class WalWriter implements TableWriterAPI {
             TableSequencerAPI tableSequencerAPI,
             DdlListener ddlListener,
             WalDirectoryPolicy walDirectoryPolicy,
-            Metrics metrics
+            Metrics metrics,
+            SharedSymbolCacheRegistry sharedSymbolCacheRegistry
     ) {
         LOG.info().$("open '").utf8(tableToken.getDirName()).$('\'').$();
         this.sequencer = tableSequencerAPI;
+        this.sharedSymbolCacheRegistry = sharedSymbolCacheRegistry;
         this.configuration = configuration;
         this.ddlListener = ddlListener;
         this.mkDirMode = configuration.getMkDirMode();
@@ -135,11 +143,14 @@ public class WalWriter implements TableWriterAPI {
         this.metrics = metrics;
         this.open = true;
         this.symbolMapMem = Vm.getMARInstance(configuration.getCommitMode());
+        this.bufferedAppendEnabled = configuration.isWalWriterBufferedAppendEnabled();
 
         try {
             lockWal();
             mkWalDir();
 
+            columnWriteRing = newColumnWriteRing(configuration);
+
             metadata = new WalWriterMetadata(ff);
 
             tableSequencerAPI.getTableMetadata(tableToken, metadata);
@@ -262,6 +273,7 @@ public class WalWriter implements TableWriterAPI {
             if (inTransaction()) {
                 isCommittingData = true;
                 final long rowsToCommit = getUncommittedRowCount();
+                flushColumns();
                 lastSegmentTxn = events.appendData(currentTxnStartRowNum, segmentRowCount, txnMinTimestamp, txnMaxTimestamp, txnOutOfOrder);
                 // flush disk before getting next txn
                 final int commitMode = configuration.getCommitMode();
@@ -309,6 +321,7 @@ public class WalWriter implements TableWriterAPI {
             }
 
             freeColumns(truncate);
+            Misc.free(columnWriteRing);
 
             releaseSegmentLock(segmentId, segmentLockFd, segmentRowCount);
 
@@ -488,6 +501,8 @@ public class WalWriter implements TableWriterAPI {
             try {
                 createSegmentDir(newSegmentId);
                 path.trimTo(rootLen);
+                // uncommitted rows are copied from the column files
+                flushColumns();
                 SegmentColumnRollSink columnRollSink = createSegmentColumnRollSink();
                 rowValueIsNotNull.fill(0, columnCount, -1);
 
@@ -701,6 +716,16 @@ public class WalWriter implements TableWriterAPI {
         return columnIndex * 2;
     }
 
+    private static IOURing newColumnWriteRing(CairoConfiguration configuration) {
+        if (configuration.isWalWriterBufferedAppendEnabled() && configuration.isIOURingEnabled()) {
+            final IOURingFacade rf = configuration.getIOURingFacade();
+            if (rf.isAvailable()) {
+                return rf.newInstance(COLUMN_WRITE_RING_CAPACITY);
+            }
+        }
+        return null;
+    }
+
     private int acquireSegmentLock() {
         final int segmentPathLen = path.size();
         try {
@@ -838,6 +863,29 @@ public class WalWriter implements TableWriterAPI {
         return lastSeqTxn = txn;
     }
 
+    private void awaitColumnWrites(int writeCount, long expectedBytes) {
+        if (writeCount > 0) {
+            columnWriteRing.submitAndWait();
+            long writtenBytes = 0;
+            for (int i = 0; i < writeCount; i++) {
+                while (!columnWriteRing.nextCqe()) {
+                    Os.pause();
+                }
+                final int res = columnWriteRing.getCqeRes();
+                if (res < 0) {
+                    throw CairoException.critical(-res).put("could not write WAL column data [path=").put(path).put(']');
+                }
+                writtenBytes += res;
+            }
+            if (writtenBytes != expectedBytes) {
+                throw CairoException.critical(0).put("short write of WAL column data [path=").put(path)
+                        .put(", expected=").put(expectedBytes)
+                        .put(", written=").put(writtenBytes)
+                        .put(']');
+            }
+        }
+    }
+
     private boolean breachedRolloverSizeThreshold() {
         final long threshold = configuration.getWalSegmentRolloverSize();
         if (threshold == 0) {
@@ -890,7 +938,7 @@ public class WalWriter implements TableWriterAPI {
     private void configureColumn(int columnIndex, int columnType) {
         final int dataColumnOffset = getDataColumnOffset(columnIndex);
         if (columnType > 0) {
-            final MemoryMA dataMem = Vm.getMAInstance(configuration.getCommitMode());
+            final MemoryMA dataMem = createColumnMem();
             final MemoryMA auxMem = createAuxColumnMem(columnType);
             columns.extendAndSet(dataColumnOffset, dataMem);
             columns.extendAndSet(dataColumnOffset + 1, auxMem);
@@ -917,6 +965,7 @@ public class WalWriter implements TableWriterAPI {
         symbolMapNullFlags.extendAndSet(columnWriterIndex, false);
         symbolMaps.extendAndSet(columnWriterIndex, new CharSequenceIntHashMap(8, 0.5, SymbolTable.VALUE_NOT_FOUND));
         utf8SymbolMaps.extendAndSet(columnWriterIndex, new Utf8StringIntHashMap(8, 0.5, SymbolTable.VALUE_NOT_FOUND));
+        sharedSymbolCaches.extendAndSet(columnWriterIndex, sharedSymbolCacheRegistry.getSymbolCache(tableToken, columnWriterIndex));
     }
 
     private void configureSymbolMapWriter(
@@ -1006,6 +1055,7 @@ public class WalWriter implements TableWriterAPI {
         symbolMapReaders.extendAndSet(columnWriterIndex, symbolMapReader);
         symbolMaps.extendAndSet(columnWriterIndex, new CharSequenceIntHashMap(8, 0.5, SymbolTable.VALUE_NOT_FOUND));
         utf8SymbolMaps.extendAndSet(columnWriterIndex, new Utf8StringIntHashMap(8, 0.5, SymbolTable.VALUE_NOT_FOUND));
+        sharedSymbolCaches.extendAndSet(columnWriterIndex, sharedSymbolCacheRegistry.getSymbolCache(tableToken, columnWriterIndex));
         initialSymbolCounts.extendAndSet(columnWriterIndex, symbolCount);
         localSymbolIds.extendAndSet(columnWriterIndex, 0);
         symbolMapNullFlags.extendAndSet(columnWriterIndex, symbolMapReader.containsNullValue());
@@ -1083,7 +1133,11 @@ public class WalWriter implements TableWriterAPI {
     }
 
     private MemoryMA createAuxColumnMem(int columnType) {
-        return ColumnType.isVarSize(columnType) ? Vm.getMAInstance(configuration.getCommitMode()) : null;
+        return ColumnType.isVarSize(columnType) ? createColumnMem() : null;
+    }
+
+    private MemoryMA createColumnMem() {
+        return bufferedAppendEnabled ? Vm.getPWARInstance(configuration.getCommitMode()) : Vm.getMAInstance(configuration.getCommitMode());
     }
 
     private SegmentColumnRollSink createSegmentColumnRollSink() {
@@ -1108,6 +1162,40 @@ public class WalWriter implements TableWriterAPI {
         return segmentPathLen;
     }
 
+    // writes data buffered by the column memories to the column files, as a batch of io_uring writes when available
+    private void flushColumns() {
+        if (!bufferedAppendEnabled) {
+            return;
+        }
+        if (columnWriteRing != null) {
+            int writeCount = 0;
+            long expectedBytes = 0;
+            for (int i = 0, n = columns.size(); i < n; i++) {
+                final MemoryMA column = columns.getQuick(i);
+                if (column instanceof MemoryPWARImpl) {
+                    if (writeCount == COLUMN_WRITE_RING_CAPACITY) {
+                        awaitColumnWrites(writeCount, expectedBytes);
+                        writeCount = 0;
+                        expectedBytes = 0;
+                    }
+                    final int len = ((MemoryPWARImpl) column).enqueueFlush(columnWriteRing);
+                    if (len > 0) {
+                        writeCount++;
+                        expectedBytes += len;
+                    }
+                }
+            }
+            awaitColumnWrites(writeCount, expectedBytes);
+        } else {
+            for (int i = 0, n = columns.size(); i < n; i++) {
+                final MemoryMA column = columns.getQuick(i);
+                if (column instanceof MemoryPWARImpl) {
+                    ((MemoryPWARImpl) column).flush();
+                }
+            }
+        }
+    }
+
     private void freeAndRemoveColumnPair(ObjList<MemoryMA> columns, int pi, int si) {
         final MemoryMA primaryColumn = columns.getAndSetQuick(pi, null);
         final MemoryMA secondaryColumn = columns.getAndSetQuick(si, null);
@@ -1261,6 +1349,10 @@ public class WalWriter implements TableWriterAPI {
                         configuration.getWriterFileOpenOpts(),
                         Files.POSIX_MADV_RANDOM
                 );
+                if (auxMem instanceof MemoryPWARImpl) {
+                    // readers of an empty segment expect the initial aux vector entry in the file
+                    ((MemoryPWARImpl) auxMem).flush();
+                }
             }
         } finally {
             path.trimTo(pathTrimToLen);
@@ -1389,6 +1481,7 @@ public class WalWriter implements TableWriterAPI {
         Misc.freeIfCloseable(symbolMapReaders.getAndSetQuick(index, null));
         symbolMaps.setQuick(index, null);
         utf8SymbolMaps.setQuick(index, null);
+        sharedSymbolCaches.setQuick(index, null);
         initialSymbolCounts.set(index, -1);
         localSymbolIds.set(index, 0);
         symbolMapNullFlags.set(index, false);
@@ -1527,7 +1620,6 @@ public class WalWriter implements TableWriterAPI {
     private void setFixColumnNulls(int type, int columnIndex, long rowCount) {
         MemoryMA fixedSizeColumn = getDataColumn(columnIndex);
         long columnFileSize = rowCount * ColumnType.sizeOf(type);
-        fixedSizeColumn.jumpTo(columnFileSize);
         if (columnFileSize > 0) {
             long address = TableUtils.mapRW(ff, fixedSizeColumn.getFd(), columnFileSize, MEM_TAG);
             try {
@@ -1537,6 +1629,8 @@ public class WalWriter implements TableWriterAPI {
             }
             ff.fsync(fixedSizeColumn.getFd());
         }
+        // jump once nulls are in the file, buffered column memory reads the page from the file
+        fixedSizeColumn.jumpTo(columnFileSize);
     }
 
     private void setRowValueNotNull(int columnIndex) {
@@ -1552,7 +1646,6 @@ public class WalWriter implements TableWriterAPI {
     ) {
         MemoryMA auxMem = getAuxColumn(columnIndex);
         final long auxMemSize = columnTypeDriver.getAuxVectorSize(rowCount);
-        auxMem.jumpTo(auxMemSize);
         if (rowCount > 0) {
             final long auxMemAddr = TableUtils.mapRW(ff, auxMem.getFd(), auxMemSize, MEM_TAG);
             columnTypeDriver.setFullAuxVectorNull(auxMemAddr, rowCount);
@@ -1561,12 +1654,12 @@ public class WalWriter implements TableWriterAPI {
             }
             ff.munmap(auxMemAddr, auxMemSize, MEM_TAG);
         }
+        auxMem.jumpTo(auxMemSize);
     }
 
     private void setVarColumnDataFileNull(ColumnTypeDriver columnTypeDriver, int columnIndex, long rowCount, int commitMode) {
         MemoryMA dataMem = getDataColumn(columnIndex);
         final long varColSize = rowCount * columnTypeDriver.getDataVectorMinEntrySize();
-        dataMem.jumpTo(varColSize);
         if (rowCount > 0 && varColSize > 0) {
             final long dataMemAddr = TableUtils.mapRW(ff, dataMem.getFd(), varColSize, MEM_TAG);
             columnTypeDriver.setDataVectorEntriesToNull(
@@ -1578,6 +1671,7 @@ public class WalWriter implements TableWriterAPI {
             }
             ff.munmap(dataMemAddr, varColSize, MEM_TAG);
         }
+        dataMem.jumpTo(varColSize);
     }
 
     private void switchColumnsToNewSegment(SegmentColumnRollSink rollSink, int columnsToRoll, int convertColumnIndex) {
@@ -2309,11 +2403,8 @@ public class WalWriter implements TableWriterAPI {
                     setRowValueNotNull(columnIndex);
                 } else {
                     // slow path, symbol is not in utf8 cache
-                    utf8Map.putAt(
-                            index,
-                            Utf8String.newInstance(value),
-                            putSymUtf8Slow(columnIndex, value, symbolMapReader)
-                    );
+                    final Utf8String utf8Value = Utf8String.newInstance(value);
+                    utf8Map.putAt(index, utf8Value, putSymUtf8Shared(columnIndex, utf8Value, value, symbolMapReader));
                 }
             } else {
                 throw new UnsupportedOperationException();
@@ -2397,6 +2488,32 @@ public class WalWriter implements TableWriterAPI {
             return key;
         }
 
+        private int putSymUtf8Shared(
+                int columnIndex,
+                Utf8String utf8Value,
+                DirectUtf8Sequence value,
+                SymbolMapReader symbolMapReader
+        ) {
+            final SharedSymbolCache sharedCache = sharedSymbolCaches.getQuiet(columnIndex);
+            if (sharedCache == null) {
+                return putSymUtf8Slow(columnIndex, value, symbolMapReader);
+            }
+            // keys of symbols committed before this writer has been opened or reset
+            // are safe to use, the newer ones will be added as local symbols instead
+            final int initialSymbolCount = initialSymbolCounts.get(columnIndex);
+            int key = sharedCache.keyOf(value);
+            if (key > -1 && key < initialSymbolCount) {
+                getPrimaryColumn(columnIndex).putInt(key);
+                setRowValueNotNull(columnIndex);
+                return key;
+            }
+            key = putSymUtf8Slow(columnIndex, value, symbolMapReader);
+            if (key > -1 && key < initialSymbolCount) {
+                sharedCache.put(utf8Value, key);
+            }
+            return key;
+        }
+
         private int putSymUtf8Slow(
                 int columnIndex,
                 DirectUtf8Sequence utf8Value,
@@ -24,6 +24,7 @@
 
 package io.questdb.cairo.wal.seq;
 
+import io.questdb.cairo.wal.WalUtils;
 import io.questdb.std.Unsafe;
 import org.jetbrains.annotations.TestOnly;
 
@@ -37,13 +38,26 @@ public class SeqTxnTracker {
     // 0 unknown
     // 1 not suspended
     private volatile int suspendedState = 0;
+    private volatile int walPriority = WalUtils.WAL_PRIORITY_DEFAULT;
     private volatile long writerTxn = -1;
 
+    /**
+     * Returns the number of sequencer transactions not yet applied to the table.
+     */
+    public long getLagTxnCount() {
+        final long wtxn = writerTxn;
+        return wtxn > -1 ? Math.max(0, seqTxn - wtxn) : 0;
+    }
+
     @TestOnly
     public long getSeqTxn() {
         return seqTxn;
     }
 
+    public int getWalPriority() {
+        return walPriority;
+    }
+
     @TestOnly
     public long getWriterTxn() {
         return writerTxn;
@@ -116,6 +130,10 @@ public class SeqTxnTracker {
         this.suspendedState = 1;
     }
 
+    public void setWalPriority(int walPriority) {
+        this.walPriority = walPriority;
+    }
+
     static {
         SEQ_TXN_OFFSET = Unsafe.getFieldOffset(SeqTxnTracker.class, "seqTxn");
         WRITER_TXN_OFFSET = Unsafe.getFieldOffset(SeqTxnTracker.class, "writerTxn");
@@ -38,12 +38,12 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.TestOnly;
 
 import java.util.Iterator;
+import java.util.Map;
 import java.util.function.BiFunction;
 import java.util.function.Function;
 
 import static io.questdb.cairo.wal.ApplyWal2TableJob.WAL_2_TABLE_RESUME_REASON;
-import static io.questdb.cairo.wal.WalUtils.SEQ_DIR;
-import static io.questdb.cairo.wal.WalUtils.TXNLOG_FILE_NAME;
+import static io.questdb.cairo.wal.WalUtils.*;
 
 public class TableSequencerAPI implements QuietCloseable {
     private static final Log LOG = LogFactory.getLog(TableSequencerAPI.class);
@@ -62,7 +62,7 @@ public class TableSequencerAPI implements QuietCloseable {
         this.engine = engine;
         this.inactiveTtlUs = configuration.getInactiveWalWriterTTL() * 1000;
         this.recreateDistressedSequencerAttempts = configuration.getWalRecreateDistressedSequencerAttempts();
-        this.createTxnTracker = dir -> new SeqTxnTracker();
+        this.createTxnTracker = this::createTxnTracker;
     }
 
     public void applyRename(TableToken tableToken) {
@@ -108,6 +108,12 @@ public class TableSequencerAPI implements QuietCloseable {
         }
     }
 
+    public void forEachTxnTracker(TxnTrackerVisitor visitor) {
+        for (Map.Entry<CharSequence, SeqTxnTracker> e : seqTxnTrackers.entrySet()) {
+            visitor.visit(e.getKey(), e.getValue());
+        }
+    }
+
     public void forAllWalTables(ObjHashSet<TableToken> tableTokenBucket, boolean includeDropped, TableSequencerCallback callback) {
         final CharSequence root = configuration.getRoot();
         final FilesFacade ff = configuration.getFilesFacade();
@@ -233,6 +239,12 @@ public class TableSequencerAPI implements QuietCloseable {
         return getSeqTxnTracker(tableToken);
     }
 
+    public int getWalPriority(TableToken tableToken) {
+        // does not create the tracker, the table may have been dropped
+        final SeqTxnTracker seqTxnTracker = seqTxnTrackers.get(tableToken.getDirName());
+        return seqTxnTracker != null ? seqTxnTracker.getWalPriority() : WAL_PRIORITY_DEFAULT;
+    }
+
     public boolean initTxnTracker(TableToken tableToken, long writerTxn, long seqTxn) {
         SeqTxnTracker seqTxnTracker = getSeqTxnTracker(tableToken);
         final boolean isSuspended = isSuspended(tableToken);
@@ -432,6 +444,18 @@ public class TableSequencerAPI implements QuietCloseable {
         }
     }
 
+    public void setWalPriority(final TableToken tableToken, int priority) {
+        try (TableSequencerImpl sequencer = openSequencerLocked(tableToken, SequencerLockType.WRITE)) {
+            try {
+                final Path path = Path.PATH.get().of(configuration.getRoot()).concat(tableToken).concat(SEQ_DIR);
+                writeWalPriority(configuration.getFilesFacade(), path, priority);
+                getSeqTxnTracker(tableToken).setWalPriority(priority);
+            } finally {
+                sequencer.unlockWrite();
+            }
+        }
+    }
+
     public void suspendTable(final TableToken tableToken) {
         try (TableSequencerImpl sequencer = openSequencerLocked(tableToken, SequencerLockType.WRITE)) {
             try {
@@ -443,6 +467,16 @@ public class TableSequencerAPI implements QuietCloseable {
         }
     }
 
+    private SeqTxnTracker createTxnTracker(CharSequence dirName) {
+        final SeqTxnTracker seqTxnTracker = new SeqTxnTracker();
+        // tracker can be created while the caller holds thread-local paths, use a dedicated one
+        try (Path path = new Path()) {
+            path.of(configuration.getRoot()).concat(dirName).concat(SEQ_DIR);
+            seqTxnTracker.setWalPriority(readWalPriority(configuration.getFilesFacade(), path));
+        }
+        return seqTxnTracker;
+    }
+
     private SeqTxnTracker getSeqTxnTracker(TableToken tt) {
         return seqTxnTrackers.computeIfAbsent(tt.getDirName(), createTxnTracker);
     }
@@ -537,4 +571,9 @@ public class TableSequencerAPI implements QuietCloseable {
     public interface TableSequencerCallback {
         void onTable(int tableId, final TableToken tableName, long lastTxn);
     }
+
+    @FunctionalInterface
+    public interface TxnTrackerVisitor {
+        void visit(CharSequence dirName, SeqTxnTracker seqTxnTracker);
+    }
 }
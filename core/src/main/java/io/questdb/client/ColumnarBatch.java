@@ -0,0 +1,371 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.client;
+
+import io.questdb.cairo.ColumnType;
+import io.questdb.cutlass.line.LineColumnarProtocol;
+import io.questdb.cutlass.line.LineSenderException;
+import io.questdb.std.*;
+import io.questdb.std.bytes.DirectByteSink;
+import io.questdb.std.str.DirectUtf8Sink;
+
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Rows laid out column by column, to be sent with {@link Sender#columnarBatch(ColumnarBatch)}.
+ * <br>
+ * A batch consists of one or more blocks. A block is started with {@link #table(CharSequence)},
+ * followed by columns given as arrays of equal length, and finished with {@link #at(long[], ChronoUnit)}
+ * which supplies designated timestamps. Values are copied into native memory when the block is
+ * finished, so the arrays can be reused straight away. Null numeric values are sent as the usual
+ * sentinels, e.g. {@link Numbers#LONG_NULL} or NaN, null strings and symbols as Java nulls.
+ * <br>
+ * Each block must fit the server's ILP HTTP receive buffer. Unlike text rows, a columnar block
+ * can only be written into an existing table, new columns are added as usual.
+ * <br>
+ * The batch owns native memory and must be closed.
+ */
+public final class ColumnarBatch implements QuietCloseable, Mutable {
+    private static final long DOUBLE_OFFSET = Unsafe.getUnsafe().arrayBaseOffset(double[].class);
+    private final ObjList<CharSequence> columnNames = new ObjList<>();
+    private final IntList columnTypes = new IntList();
+    private final ObjList<ChronoUnit> columnUnits = new ObjList<>();
+    private final ObjList<Object> columnValues = new ObjList<>();
+    private final DirectByteSink sink;
+    private final DirectUtf8Sink utf8Sink = new DirectUtf8Sink(64);
+    private int blockRowCount = -1;
+    private long rowCount;
+    private CharSequence table;
+
+    public ColumnarBatch() {
+        this(64 * 1024);
+    }
+
+    public ColumnarBatch(long initialCapacity) {
+        sink = new DirectByteSink(initialCapacity) {
+            @Override
+            protected int memoryTag() {
+                return MemoryTag.NATIVE_ILP_RSS;
+            }
+        };
+    }
+
+    /**
+     * Finish the current block and assign designated timestamps to its rows.
+     *
+     * @param timestamps timestamp values since epoch, one per row
+     * @param unit       timestamp unit
+     */
+    public void at(long[] timestamps, ChronoUnit unit) {
+        if (table == null) {
+            throw new LineSenderException("table name must be set first");
+        }
+        checkRowCount(timestamps.length);
+        if (columnNames.size() == 0) {
+            throw new LineSenderException("no columns were provided");
+        }
+
+        final int blockSizeOffset = sink.size();
+        putInt(0);
+        putName(table);
+        putInt(blockRowCount);
+        putShort(columnNames.size());
+        for (int i = 0, n = columnNames.size(); i < n; i++) {
+            putName(columnNames.getQuick(i));
+            putByte(columnTypes.getQuick(i));
+        }
+        putTimestamps(timestamps, unit);
+        for (int i = 0, n = columnNames.size(); i < n; i++) {
+            putValues(columnTypes.getQuick(i), columnValues.getQuick(i), columnUnits.getQuick(i));
+        }
+        Unsafe.getUnsafe().putInt(sink.ptr() + blockSizeOffset, sink.size() - blockSizeOffset - Integer.BYTES);
+        rowCount += blockRowCount;
+        clearBlock();
+    }
+
+    /**
+     * Add a column with boolean values.
+     *
+     * @param name   name of the column
+     * @param values values to add, one per row
+     * @return this instance for method chaining
+     */
+    public ColumnarBatch boolColumn(CharSequence name, boolean[] values) {
+        return addColumn(name, ColumnType.BOOLEAN, values, values.length, null);
+    }
+
+    /**
+     * Discard all blocks, the batch can be reused afterwards.
+     */
+    @Override
+    public void clear() {
+        sink.clear();
+        rowCount = 0;
+        clearBlock();
+    }
+
+    @Override
+    public void close() {
+        clearBlock();
+        Misc.free(sink);
+        Misc.free(utf8Sink);
+    }
+
+    /**
+     * Add a column with floating point values.
+     *
+     * @param name   name of the column
+     * @param values values to add, one per row
+     * @return this instance for method chaining
+     */
+    public ColumnarBatch doubleColumn(CharSequence name, double[] values) {
+        return addColumn(name, ColumnType.DOUBLE, values, values.length, null);
+    }
+
+    /**
+     * @return number of rows in all finished blocks
+     */
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * Add a column with integer values.
+     *
+     * @param name   name of the column
+     * @param values values to add, one per row
+     * @return this instance for method chaining
+     */
+    public ColumnarBatch longColumn(CharSequence name, long[] values) {
+        return addColumn(name, ColumnType.LONG, values, values.length, null);
+    }
+
+    /**
+     * @return address of the encoded blocks
+     */
+    public long ptr() {
+        return sink.ptr();
+    }
+
+    /**
+     * @return size of the encoded blocks in bytes
+     */
+    public int size() {
+        return sink.size();
+    }
+
+    /**
+     * Add a column with string values.
+     *
+     * @param name   name of the column
+     * @param values values to add, one per row
+     * @return this instance for method chaining
+     */
+    public ColumnarBatch stringColumn(CharSequence name, CharSequence[] values) {
+        return addColumn(name, ColumnType.VARCHAR, values, values.length, null);
+    }
+
+    /**
+     * Add a column with symbol values.
+     *
+     * @param name   name of the column
+     * @param values values to add, one per row
+     * @return this instance for method chaining
+     */
+    public ColumnarBatch symbolColumn(CharSequence name, CharSequence[] values) {
+        return addColumn(name, ColumnType.SYMBOL, values, values.length, null);
+    }
+
+    /**
+     * Start a new block for the given table.
+     *
+     * @param table name of the table
+     * @return this instance for method chaining
+     */
+    public ColumnarBatch table(CharSequence table) {
+        if (this.table != null) {
+            throw new LineSenderException("duplicated table. call batch.at() to finish the current block first");
+        }
+        if (table.length() == 0) {
+            throw new LineSenderException("table name cannot be empty");
+        }
+        this.table = table;
+        return this;
+    }
+
+    /**
+     * Add a column with non-designated timestamp values.
+     *
+     * @param name   name of the column
+     * @param values values to add, one per row
+     * @param unit   timestamp unit
+     * @return this instance for method chaining
+     */
+    public ColumnarBatch timestampColumn(CharSequence name, long[] values, ChronoUnit unit) {
+        return addColumn(name, ColumnType.TIMESTAMP, values, values.length, unit);
+    }
+
+    private static long toMicros(long value, ChronoUnit unit) {
+        if (value == Numbers.LONG_NULL) {
+            return value;
+        }
+        switch (unit) {
+            case NANOS:
+                return value / 1_000;
+            case MICROS:
+                return value;
+            case MILLIS:
+                return value * 1_000;
+            case SECONDS:
+                return value * 1_000_000;
+            default:
+                return value * (unit.getDuration().toNanos() / 1_000);
+        }
+    }
+
+    private ColumnarBatch addColumn(CharSequence name, int type, Object values, int length, ChronoUnit unit) {
+        if (table == null) {
+            throw new LineSenderException("table name must be set first");
+        }
+        if (name.length() == 0) {
+            throw new LineSenderException("column name cannot be empty");
+        }
+        if (columnNames.size() == Short.MAX_VALUE) {
+            throw new LineSenderException("too many columns in a block");
+        }
+        checkRowCount(length);
+        columnNames.add(name);
+        columnTypes.add(type);
+        columnValues.add(values);
+        columnUnits.add(unit);
+        return this;
+    }
+
+    private void checkRowCount(int length) {
+        if (blockRowCount == -1) {
+            blockRowCount = length;
+        } else if (blockRowCount != length) {
+            throw new LineSenderException("all columns of a block must have the same number of rows [expected=")
+                    .put(blockRowCount).put(", actual=").put(length).put(']');
+        }
+    }
+
+    private void clearBlock() {
+        table = null;
+        blockRowCount = -1;
+        columnNames.clear();
+        columnTypes.clear();
+        columnValues.clear();
+        columnUnits.clear();
+    }
+
+    private void putByte(int value) {
+        final long p = sink.checkCapacity(Byte.BYTES);
+        Unsafe.getUnsafe().putByte(p, (byte) value);
+        sink.advance(Byte.BYTES);
+    }
+
+    private void putInt(int value) {
+        final long p = sink.checkCapacity(Integer.BYTES);
+        Unsafe.getUnsafe().putInt(p, value);
+        sink.advance(Integer.BYTES);
+    }
+
+    private void putName(CharSequence name) {
+        utf8Sink.clear();
+        utf8Sink.put(name);
+        if (utf8Sink.size() > LineColumnarProtocol.MAX_NAME_SIZE) {
+            throw new LineSenderException("name is too long [name=").put(name).put(']');
+        }
+        putShort(utf8Sink.size());
+        sink.put(utf8Sink.ptr(), utf8Sink.ptr() + utf8Sink.size());
+    }
+
+    private void putShort(int value) {
+        final long p = sink.checkCapacity(Short.BYTES);
+        Unsafe.getUnsafe().putShort(p, (short) value);
+        sink.advance(Short.BYTES);
+    }
+
+    private void putTimestamps(long[] values, ChronoUnit unit) {
+        final long size = (long) values.length * Long.BYTES;
+        final long p = sink.checkCapacity(size);
+        if (unit == ChronoUnit.MICROS) {
+            Unsafe.getUnsafe().copyMemory(values, Unsafe.LONG_OFFSET, null, p, size);
+        } else {
+            for (int i = 0, n = values.length; i < n; i++) {
+                Unsafe.getUnsafe().putLong(p + (long) i * Long.BYTES, toMicros(values[i], unit));
+            }
+        }
+        sink.advance(size);
+    }
+
+    private void putValues(int type, Object values, ChronoUnit unit) {
+        switch (type) {
+            case ColumnType.BOOLEAN: {
+                final boolean[] booleans = (boolean[]) values;
+                final long p = sink.checkCapacity(booleans.length);
+                for (int i = 0, n = booleans.length; i < n; i++) {
+                    Unsafe.getUnsafe().putByte(p + i, (byte) (booleans[i] ? 1 : 0));
+                }
+                sink.advance(booleans.length);
+                break;
+            }
+            case ColumnType.LONG: {
+                final long size = (long) ((long[]) values).length * Long.BYTES;
+                final long p = sink.checkCapacity(size);
+                Unsafe.getUnsafe().copyMemory(values, Unsafe.LONG_OFFSET, null, p, size);
+                sink.advance(size);
+                break;
+            }
+            case ColumnType.DOUBLE: {
+                final long size = (long) ((double[]) values).length * Double.BYTES;
+                final long p = sink.checkCapacity(size);
+                Unsafe.getUnsafe().copyMemory(values, DOUBLE_OFFSET, null, p, size);
+                sink.advance(size);
+                break;
+            }
+            case ColumnType.TIMESTAMP:
+                putTimestamps((long[]) values, unit);
+                break;
+            default: {
+                // symbols and strings
+                final CharSequence[] strings = (CharSequence[]) values;
+                for (int i = 0, n = strings.length; i < n; i++) {
+                    final CharSequence value = strings[i];
+                    if (value == null) {
+                        putInt(-1);
+                    } else {
+                        utf8Sink.clear();
+                        utf8Sink.put(value);
+                        putInt(utf8Sink.size());
+                        sink.put(utf8Sink.ptr(), utf8Sink.ptr() + utf8Sink.size());
+                    }
+                }
+                break;
+            }
+        }
+    }
+}
@@ -48,6 +48,7 @@ import java.io.Closeable;
 import java.security.PrivateKey;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -249,6 +250,19 @@ public interface Sender extends Closeable {
     @Override
     void close();
 
+    /**
+     * Send all blocks of a columnar batch. This avoids text encoding of values, and lets
+     * the server append whole blocks of rows without parsing.
+     * <br>
+     * Rows added with the row API are flushed first, then the batch is sent as a separate request.
+     * The batch is left intact, call {@link ColumnarBatch#clear()} before reusing it.
+     * <br>
+     * Only HTTP transport supports columnar batches.
+     *
+     * @param batch batch to send
+     */
+    void columnarBatch(ColumnarBatch batch);
+
     /**
      * Add a column with a floating point value.
      *
@@ -268,6 +282,9 @@ public interface Sender extends Closeable {
      * the batching effect. This means it can lower the overall throughput, as each batch has a certain fixed cost
      * component, but it can decrease maximum latency as messages spend less time waiting in buffers and waiting for
      * automatic flush.
+     * <br>
+     * When an HTTP sender with a single in-flight request fails because the server responded with a 5xx status,
+     * the rows stay in the buffer and are sent again by the next flush.
      *
      * @see LineSenderBuilder#bufferCapacity(int)
      * @see LineSenderBuilder#maxBufferCapacity(int)
@@ -275,6 +292,22 @@ public interface Sender extends Closeable {
      */
     void flush();
 
+    /**
+     * Hand internal buffers over to be sent to a server without waiting for the server's response.
+     * <br>
+     * This only differs from {@link #flush()} for HTTP senders configured with more than one in-flight request.
+     * These senders send the buffered rows in the background and let the caller keep adding rows to another buffer.
+     * When all requests are in flight, this method blocks until one of them completes. Errors are reported by
+     * the returned future as well as by the next call to {@link #flush()}, {@link #flushAsync()} or {@link #close()}.
+     * Requests in flight at the same time may be applied by the server in any order.
+     * <br>
+     * Other senders flush synchronously and return a completed future.
+     *
+     * @return future completed once the server acknowledged the rows
+     * @see LineSenderBuilder#maxInFlightRequests(int)
+     */
+    CompletableFuture<Void> flushAsync();
+
     /**
      * Add a column with an integer value.
      *
@@ -413,6 +446,7 @@ public interface Sender extends Closeable {
         private int httpTimeout = PARAMETER_NOT_SET_EXPLICITLY;
         private String httpToken;
         private String keyId;
+        private int maxInFlightRequests = PARAMETER_NOT_SET_EXPLICITLY;
         private int maximumBufferCapacity = PARAMETER_NOT_SET_EXPLICITLY;
         private final HttpClientConfiguration httpClientConfiguration = new DefaultHttpClientConfiguration() {
             @Override
@@ -629,6 +663,7 @@ public interface Sender extends Closeable {
                 int actualAutoFlushRows = autoFlushRows == PARAMETER_NOT_SET_EXPLICITLY ? DEFAULT_AUTO_FLUSH_ROWS : autoFlushRows;
                 long actualMaxRetriesNanos = retryTimeoutMillis == PARAMETER_NOT_SET_EXPLICITLY ? DEFAULT_MAX_RETRY_NANOS : retryTimeoutMillis * 1_000_000L;
                 long actualMinRequestThroughput = minRequestThroughput == PARAMETER_NOT_SET_EXPLICITLY ? DEFAULT_MIN_REQUEST_THROUGHPUT : minRequestThroughput;
+                int actualMaxInFlightRequests = maxInFlightRequests == PARAMETER_NOT_SET_EXPLICITLY ? 1 : maxInFlightRequests;
                 long actualAutoFlushIntervalMillis;
                 if (autoFlushIntervalMillis == Integer.MAX_VALUE) {
                     actualAutoFlushIntervalMillis = Long.MAX_VALUE;
@@ -640,7 +675,7 @@ public interface Sender extends Closeable {
                     assert (trustStorePath == null) == (trustStorePassword == null); //either both null or both non-null
                     tlsConfig = new ClientTlsConfiguration(trustStorePath, trustStorePassword, tlsValidationMode == TlsValidationMode.DEFAULT ? ClientTlsConfiguration.TLS_VALIDATION_MODE_FULL : ClientTlsConfiguration.TLS_VALIDATION_MODE_NONE);
                 }
-                return new LineHttpSender(host, port, httpClientConfiguration, tlsConfig, actualAutoFlushRows, httpToken, username, password, actualMaxRetriesNanos, actualMinRequestThroughput, actualAutoFlushIntervalMillis);
+                return new LineHttpSender(host, port, httpClientConfiguration, tlsConfig, actualAutoFlushRows, httpToken, username, password, actualMaxRetriesNanos, actualMinRequestThroughput, actualAutoFlushIntervalMillis, actualMaxInFlightRequests);
             }
             assert protocol == PROTOCOL_TCP;
             LineChannel channel = new PlainTcpLineChannel(nf, host, port, bufferCapacity * 2);
@@ -886,6 +921,10 @@ public interface Sender extends Closeable {
                     pos = getValue(configurationString, pos, sink, "retry_timeout");
                     int timeout = parseIntValue(sink, "retry_timeout");
                     retryTimeoutMillis(timeout);
+                } else if (Chars.equals("max_in_flight", sink)) {
+                    pos = getValue(configurationString, pos, sink, "max_in_flight");
+                    int maxInFlight = parseIntValue(sink, "max_in_flight");
+                    maxInFlightRequests(maxInFlight);
                 } else if (Chars.equals("max_buf_size", sink)) {
                     pos = getValue(configurationString, pos, sink, "max_buf_size");
                     int maxBufferSize = parseIntValue(sink, "max_buf_size");
@@ -1111,6 +1150,39 @@ public interface Sender extends Closeable {
             return this;
         }
 
+        /**
+         * Set the maximum number of HTTP requests the Sender keeps in flight.
+         * <br>
+         * With a value greater than one, flushing hands the buffer over to a background thread and the Sender keeps
+         * accepting rows into another buffer, see {@link Sender#flushAsync()}. Each in-flight request uses its own
+         * connection and buffer, so memory usage grows with this value. Once all requests are in flight, flushing
+         * blocks until one of them completes. Requests in flight at the same time may be applied by the server in
+         * any order.
+         * <br>
+         * This is only used when communicating over HTTP transport, and it's illegal to call this method when
+         * communicating over TCP transport.
+         * <br>
+         * Default value: 1, flushing waits for the server's response.
+         *
+         * @param maxInFlightRequests maximum number of requests sent but not yet acknowledged by the server.
+         * @return this instance for method chaining
+         */
+        public LineSenderBuilder maxInFlightRequests(int maxInFlightRequests) {
+            if (this.maxInFlightRequests != PARAMETER_NOT_SET_EXPLICITLY) {
+                throw new LineSenderException("max in-flight requests was already configured ")
+                        .put("[maxInFlightRequests=").put(this.maxInFlightRequests).put("]");
+            }
+            if (maxInFlightRequests < 1) {
+                throw new LineSenderException("max in-flight requests must be positive ")
+                        .put("[maxInFlightRequests=").put(maxInFlightRequests).put("]");
+            }
+            if (protocol == PROTOCOL_TCP) {
+                throw new LineSenderException("in-flight requests are not supported for TCP protocol");
+            }
+            this.maxInFlightRequests = maxInFlightRequests;
+            return this;
+        }
+
         /**
          * Minimum expected throughput in bytes per second for HTTP requests.
          * <br>
@@ -1294,6 +1366,9 @@ public interface Sender extends Closeable {
                 if (minRequestThroughput != PARAMETER_NOT_SET_EXPLICITLY) {
                     throw new LineSenderException("minimum request throughput is not supported for TCP protocol");
                 }
+                if (maxInFlightRequests != PARAMETER_NOT_SET_EXPLICITLY) {
+                    throw new LineSenderException("in-flight requests are not supported for TCP protocol");
+                }
                 if (maximumBufferCapacity != bufferCapacity) {
                     throw new LineSenderException("maximum buffer capacity must be the same as initial buffer capacity for TCP protocol")
                             .put("[maximumBufferCapacity=").put(maximumBufferCapacity)
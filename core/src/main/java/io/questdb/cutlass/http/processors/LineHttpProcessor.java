@@ -26,6 +26,7 @@ package io.questdb.cutlass.http.processors;
 
 import io.questdb.cairo.CairoEngine;
 import io.questdb.cutlass.http.*;
+import io.questdb.cutlass.line.LineColumnarProtocol;
 import io.questdb.log.Log;
 import io.questdb.log.LogFactory;
 import io.questdb.network.PeerDisconnectedException;
@@ -125,7 +126,9 @@ public class LineHttpProcessor implements HttpRequestProcessor, HttpMultipartCon
             timestampPrecision = ENTITY_UNIT_NANO;
         }
 
-        state.of(context.getFd(), timestampPrecision, context.getSecurityContext());
+        // Columnar blocks are recognised by content type, the rest of the request is handled the same way
+        boolean columnar = Utf8s.equalsNcAscii(LineColumnarProtocol.CONTENT_TYPE, requestHeader.getContentType());
+        state.of(context.getFd(), timestampPrecision, columnar, context.getSecurityContext());
     }
 
     @Override
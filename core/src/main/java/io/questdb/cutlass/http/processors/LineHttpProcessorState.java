@@ -34,6 +34,7 @@ import io.questdb.log.Log;
 import io.questdb.log.LogFactory;
 import io.questdb.log.LogRecord;
 import io.questdb.std.*;
+import io.questdb.std.str.DirectUtf8Sequence;
 import io.questdb.std.str.StringSink;
 import io.questdb.std.str.Utf8Sink;
 
@@ -45,6 +46,7 @@ public class LineHttpProcessorState implements QuietCloseable, ConnectionAware {
     private static final String ERROR_ID = generateErrorId();
     private static final Log LOG = LogFactory.getLog(LineHttpProcessorState.class);
     private final LineWalAppender appender;
+    private final LineColumnarBlock columnarBlock = new LineColumnarBlock();
     private final StringSink error = new StringSink();
     private final LineHttpTudCache ilpTudCache;
     private final int maxResponseErrorMessageLength;
@@ -53,6 +55,7 @@ public class LineHttpProcessorState implements QuietCloseable, ConnectionAware {
     private final WeakClosableObjectPool<SymbolCache> symbolCachePool;
     int errorLine = -1;
     private long buffer;
+    private boolean columnar;
     private Status currentStatus = Status.OK;
     private long errorId;
     private int fd = -1;
@@ -97,6 +100,8 @@ public class LineHttpProcessorState implements QuietCloseable, ConnectionAware {
         ilpTudCache.clear();
         Vect.memset(buffer, recvBufSize, 0);
         parser.of(buffer);
+        columnarBlock.clear();
+        columnar = false;
         recvBufPos = buffer;
         error.clear();
         currentStatus = Status.OK;
@@ -151,8 +156,9 @@ public class LineHttpProcessorState implements QuietCloseable, ConnectionAware {
         return currentStatus == Status.OK;
     }
 
-    public void of(int fd, byte timestampPrecision, SecurityContext securityContext) {
+    public void of(int fd, byte timestampPrecision, boolean columnar, SecurityContext securityContext) {
         this.fd = fd;
+        this.columnar = columnar;
         this.securityContext = securityContext;
         this.appender.setTimestampAdapter(timestampPrecision);
     }
@@ -164,6 +170,12 @@ public class LineHttpProcessorState implements QuietCloseable, ConnectionAware {
     }
 
     public void onMessageComplete() {
+        if (columnar) {
+            if (currentStatus == Status.OK && recvBufPos > buffer) {
+                currentStatus = handleColumnarError("malformed columnar block: block is truncated");
+            }
+            return;
+        }
         if (currentStatus == Status.NEEDS_READ) {
             // Last line did not have \n as a last character
             // this is allowed by the protocol, no error in Influx
@@ -179,6 +191,11 @@ public class LineHttpProcessorState implements QuietCloseable, ConnectionAware {
             return;
         }
 
+        if (columnar) {
+            parseColumnar(lo, hi);
+            return;
+        }
+
         long pos = lo;
         while (pos < hi) {
             pos = copyToLocalBuffer(pos, hi);
@@ -204,6 +221,35 @@ public class LineHttpProcessorState implements QuietCloseable, ConnectionAware {
         return UUID.randomUUID().toString().substring(24, 36);
     }
 
+    private Status appendColumnarBlock() throws LineHttpTudCache.TableCreateException {
+        WalTableUpdateDetails tud = ilpTudCache.getTableUpdateDetails(securityContext, columnarBlock.getTableName(), symbolCachePool);
+        try {
+            appender.appendColumnarBlock(securityContext, columnarBlock, tud);
+            return Status.OK;
+        } catch (LineProtocolException e) {
+            // reported by the caller, same as malformed blocks
+            throw e;
+        } catch (CommitFailedException ex) {
+            if (ex.isTableDropped()) {
+                tud.setIsDropped();
+                return Status.OK;
+            } else {
+                ilpTudCache.setDistressed();
+                return handleCommitError(ex.getReason());
+            }
+        } catch (CairoException e) {
+            if (e.isTableDropped()) {
+                tud.setIsDropped();
+                return Status.OK;
+            }
+            ilpTudCache.setDistressed();
+            throw e;
+        } catch (Throwable th) {
+            ilpTudCache.setDistressed();
+            throw th;
+        }
+    }
+
     private Status appendMeasurement() throws LineHttpTudCache.TableCreateException {
         WalTableUpdateDetails tud = this.ilpTudCache.getTableUpdateDetails(securityContext, parser, symbolCachePool);
         try {
@@ -261,16 +307,20 @@ public class LineHttpProcessorState implements QuietCloseable, ConnectionAware {
         return Math.min(parser.getBufferAddress() + 1, recvBufPos);
     }
 
+    private DirectUtf8Sequence getTableName() {
+        return columnar ? columnarBlock.getTableName() : parser.getMeasurementName();
+    }
+
     private Status handleCommitError(Throwable ex) {
         errorId = ERROR_COUNT.incrementAndGet();
         errorLine = -1;
         LOG.critical()
-                .$('[').$(fd).$("] could not commit [table=").$(parser.getMeasurementName())
+                .$('[').$(fd).$("] could not commit [table=").$(getTableName())
                 .$(", errorId=").$(ERROR_ID).$('-').$(errorId)
                 .$(", ex=").$(ex.getMessage())
                 .I$();
 
-        error.put("commit error for table: ").put(parser.getMeasurementName());
+        error.put("commit error for table: ").put(getTableName());
         if (ex instanceof CairoException) {
             CairoException exception = (CairoException) ex;
             error.put(", errno: ").put(exception.getErrno()).put(", error: ").put(exception.getFlyweightMessage());
@@ -281,6 +331,37 @@ public class LineHttpProcessorState implements QuietCloseable, ConnectionAware {
         }
     }
 
+    private Status handleColumnarError(CharSequence message) {
+        errorLine = ++line;
+        int errorPos = error.length();
+        error.put("\nerror in block ").put(errorLine).put(": ").put(message);
+        errorId = ERROR_COUNT.incrementAndGet();
+        LOG.info().$("parse error [errorId=").$(ERROR_ID).$('-').$(errorId)
+                .$(", table=").$(columnarBlock.getTableName())
+                .$(", block=").$(errorLine)
+                .$(", error=").$(error.subSequence(errorPos, error.length()))
+                .$(", fd=").$(fd)
+                .I$();
+        return Status.PARSE_ERROR;
+    }
+
+    private Status handleColumnarError(CairoException ex) {
+        errorId = ERROR_COUNT.incrementAndGet();
+        LogRecord error = ex.isCritical() ? LOG.critical() : LOG.error();
+        error
+                .$('[').$(fd).$("] could not process columnar block [table=").$(columnarBlock.getTableName())
+                .$(", errorId=").$(ERROR_ID).$('-').$(errorId)
+                .$(", errno=").$(ex.getErrno())
+                .$(", ex=").$(ex.getFlyweightMessage())
+                .I$();
+
+        this.error.put("write error: ").put(columnarBlock.getTableName())
+                .put(", errno: ").put(ex.getErrno())
+                .put(", error: ").put(ex.getFlyweightMessage());
+        errorLine = line + 1;
+        return ex.isAuthorizationError() ? Status.SECURITY_ERROR : Status.INTERNAL_ERROR;
+    }
+
     private Status handleLineError(LineTcpParser parser) {
         errorLine = ++line;
         int errorPos = error.length();
@@ -385,6 +466,58 @@ public class LineHttpProcessorState implements QuietCloseable, ConnectionAware {
                 .I$();
     }
 
+    private void parseColumnar(long lo, long hi) {
+        long pos = lo;
+        while (pos < hi) {
+            if (recvBufPos == buffer) {
+                // nothing is buffered, decode complete blocks straight from the request chunk
+                pos = processColumnarBlocks(pos, hi);
+                if (stopParse() || pos == hi) {
+                    return;
+                }
+            }
+            pos = copyToLocalBuffer(pos, hi);
+            final long consumedHi = processColumnarBlocks(buffer, recvBufPos);
+            if (stopParse()) {
+                return;
+            }
+            // blocks larger than the buffer are rejected upfront, so the partial block always fits
+            final long remaining = recvBufPos - consumedHi;
+            assert consumedHi > buffer || recvBufPos < recvBufEnd;
+            Vect.memmove(buffer, consumedHi, remaining);
+            recvBufPos = buffer + remaining;
+        }
+    }
+
+    private long processColumnarBlocks(long lo, long hi) {
+        long pos = lo;
+        try {
+            long blockHi;
+            while ((blockHi = LineColumnarBlock.getBlockHi(pos, hi)) > -1) {
+                columnarBlock.of(pos, blockHi);
+                if ((currentStatus = appendColumnarBlock()) != Status.OK) {
+                    return pos;
+                }
+                line++;
+                pos = blockHi;
+            }
+            if (hi - pos >= Integer.BYTES && LineColumnarBlock.getBlockSize(pos) > recvBufSize - Integer.BYTES) {
+                errorLine = ++line;
+                error.put("unable to read data: columnar block does not fit QuestDB ILP buffer size");
+                currentStatus = Status.MESSAGE_TOO_LARGE;
+            }
+        } catch (LineHttpTudCache.TableCreateException ex) {
+            currentStatus = handleColumnarError(ex.getToken() != null ? ex.getMsg() + ": " + ex.getToken() : ex.getMsg());
+        } catch (LineProtocolException ex) {
+            currentStatus = handleColumnarError(ex.getFlyweightMessage());
+        } catch (CairoException ex) {
+            currentStatus = handleColumnarError(ex);
+        } catch (Throwable ex) {
+            currentStatus = handleUnknownParseError(ex);
+        }
+        return pos;
+    }
+
     private Status processLocalBuffer() {
         Status status = Status.OK;
         while (recvBufPos > buffer) {
@@ -35,6 +35,7 @@ import io.questdb.std.*;
 import io.questdb.std.str.*;
 import io.questdb.tasks.TelemetryTask;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 public class LineHttpTudCache implements QuietCloseable {
     private final boolean autoCreateNewColumns;
@@ -134,36 +135,19 @@ public class LineHttpTudCache implements QuietCloseable {
             @NotNull LineTcpParser parser,
             Pool<SymbolCache> symbolCachePool
     ) throws TableCreateException {
-        int key = tableUpdateDetails.keyIndex(parser.getMeasurementName());
-        if (key < 0) {
-            return tableUpdateDetails.valueAt(key);
-        }
-
-        tableNameUtf16.clear();
-        Utf8s.utf8ToUtf16(parser.getMeasurementName(), tableNameUtf16);
-        TableToken tableToken = getOrCreateTable(securityContext, parser, tableNameUtf16);
-        if (!engine.isWalTable(tableToken)) {
-            throw parseException.of("cannot insert in non-WAL table", null);
-        }
-
-        TelemetryTask.store(telemetry, TelemetryOrigin.ILP_TCP, TelemetrySystemEvent.ILP_RESERVE_WRITER);
-        // check if table on disk is WAL
-        path.of(engine.getConfiguration().getRoot());
-        Utf8String nameUtf8 = Utf8String.newInstance(parser.getMeasurementName());
-        WalTableUpdateDetails tud = new WalTableUpdateDetails(
-                engine,
-                securityContext,
-                engine.getWalWriter(tableToken),
-                defaultColumnTypes,
-                nameUtf8,
-                symbolCachePool,
-                -1,
-                false,
-                Long.MAX_VALUE
-        );
+        return getTableUpdateDetails(securityContext, parser.getMeasurementName(), parser, symbolCachePool);
+    }
 
-        tableUpdateDetails.putAt(key, nameUtf8, tud);
-        return tud;
+    /**
+     * Looks up table update details for a columnar block. Tables are not auto-created here
+     * since a columnar block does not carry enough information to pick a partitioning.
+     */
+    public WalTableUpdateDetails getTableUpdateDetails(
+            SecurityContext securityContext,
+            @NotNull DirectUtf8Sequence tableName,
+            Pool<SymbolCache> symbolCachePool
+    ) throws TableCreateException {
+        return getTableUpdateDetails(securityContext, tableName, null, symbolCachePool);
     }
 
     public void reset() {
@@ -180,7 +164,7 @@ public class LineHttpTudCache implements QuietCloseable {
         this.distressed = true;
     }
 
-    private TableToken getOrCreateTable(SecurityContext securityContext, @NotNull LineTcpParser parser, StringSink tableNameUtf16) throws TableCreateException {
+    private TableToken getOrCreateTable(SecurityContext securityContext, @Nullable LineTcpParser parser, StringSink tableNameUtf16) throws TableCreateException {
         int maxFileNameLength = engine.getConfiguration().getMaxFileNameLength();
         if (!TableUtils.isValidTableName(tableNameUtf16, maxFileNameLength)) {
             throw parseException.of("invalid table name", null);
@@ -188,6 +172,9 @@ public class LineHttpTudCache implements QuietCloseable {
         TableToken tableToken = engine.getTableTokenIfExists(tableNameUtf16);
         int status = engine.getTableStatus(path, tableToken);
         if (status != TableUtils.TABLE_EXISTS) {
+            if (parser == null) {
+                throw parseException.of("table does not exist, columnar blocks require an existing table", null);
+            }
             if (!autoCreateNewTables) {
                 throw parseException.of("table does not exist, creating new tables is disabled", null);
             }
@@ -211,6 +198,44 @@ public class LineHttpTudCache implements QuietCloseable {
         return tableToken;
     }
 
+    private WalTableUpdateDetails getTableUpdateDetails(
+            SecurityContext securityContext,
+            @NotNull DirectUtf8Sequence tableName,
+            @Nullable LineTcpParser parser,
+            Pool<SymbolCache> symbolCachePool
+    ) throws TableCreateException {
+        int key = tableUpdateDetails.keyIndex(tableName);
+        if (key < 0) {
+            return tableUpdateDetails.valueAt(key);
+        }
+
+        tableNameUtf16.clear();
+        Utf8s.utf8ToUtf16(tableName, tableNameUtf16);
+        TableToken tableToken = getOrCreateTable(securityContext, parser, tableNameUtf16);
+        if (!engine.isWalTable(tableToken)) {
+            throw parseException.of("cannot insert in non-WAL table", null);
+        }
+
+        TelemetryTask.store(telemetry, TelemetryOrigin.ILP_TCP, TelemetrySystemEvent.ILP_RESERVE_WRITER);
+        // check if table on disk is WAL
+        path.of(engine.getConfiguration().getRoot());
+        Utf8String nameUtf8 = Utf8String.newInstance(tableName);
+        WalTableUpdateDetails tud = new WalTableUpdateDetails(
+                engine,
+                securityContext,
+                engine.getWalWriter(tableToken),
+                defaultColumnTypes,
+                nameUtf8,
+                symbolCachePool,
+                -1,
+                false,
+                Long.MAX_VALUE
+        );
+
+        tableUpdateDetails.putAt(key, nameUtf8, tud);
+        return tud;
+    }
+
     public static class TableCreateException extends Exception {
         private String msg;
         private CharSequence token;
@@ -25,6 +25,7 @@
 package io.questdb.cutlass.line;
 
 import io.questdb.cairo.TableUtils;
+import io.questdb.client.ColumnarBatch;
 import io.questdb.client.Sender;
 import io.questdb.cutlass.auth.AuthUtils;
 import io.questdb.std.*;
@@ -38,6 +39,7 @@ import java.io.Closeable;
 import java.security.*;
 import java.time.temporal.ChronoUnit;
 import java.util.Base64;
+import java.util.concurrent.CompletableFuture;
 
 public abstract class AbstractLineSender implements Utf8Sink, Closeable, Sender {
     protected final int capacity;
@@ -126,6 +128,11 @@ public abstract class AbstractLineSender implements Utf8Sink, Closeable, Sender
         }
     }
 
+    @Override
+    public void columnarBatch(ColumnarBatch batch) {
+        throw new LineSenderException("columnar batches are supported by HTTP transport only");
+    }
+
     /**
      * This is for testing only. Where we want to test server with a misbehaving client.
      */
@@ -169,6 +176,12 @@ public abstract class AbstractLineSender implements Utf8Sink, Closeable, Sender
         ptr = lineStart = lo;
     }
 
+    @Override
+    public CompletableFuture<Void> flushAsync() {
+        flush();
+        return CompletableFuture.completedFuture(null);
+    }
+
     @Override
     public final AbstractLineSender longColumn(CharSequence name, long value) {
         return field(name, value);
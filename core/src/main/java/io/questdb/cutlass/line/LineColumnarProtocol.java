@@ -0,0 +1,73 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cutlass.line;
+
+import io.questdb.cairo.ColumnType;
+
+/**
+ * Wire format of the columnar variant of the line protocol. A request body is a sequence
+ * of blocks, each block carrying a batch of rows of a single table. All numbers are
+ * little-endian:
+ * <pre>
+ * int32   block size, excluding this field
+ * int16   table name size, followed by UTF-8 table name
+ * int32   row count
+ * int16   column count
+ * (int16 name size, UTF-8 name, int8 column type) per column
+ * int64[row count] designated timestamps, micros
+ * column values, one column after another
+ * </pre>
+ * Fixed-size values are stored as arrays of row count elements, nulls use the usual
+ * sentinels, e.g. {@link io.questdb.std.Numbers#LONG_NULL} or NaN. Variable-size values are
+ * stored as int32 size followed by UTF-8 bytes per row, size of -1 stands for null.
+ */
+public final class LineColumnarProtocol {
+    public static final String CONTENT_TYPE = "application/x-questdb-columnar";
+    public static final int MAX_NAME_SIZE = Short.MAX_VALUE;
+    public static final int VAR_SIZE = -1;
+
+    private LineColumnarProtocol() {
+    }
+
+    /**
+     * Returns size of the value of the given column type in bytes, {@link #VAR_SIZE} for
+     * variable-size types or 0 when the type cannot be sent in a columnar block.
+     */
+    public static int getValueSize(int columnType) {
+        switch (columnType) {
+            case ColumnType.BOOLEAN:
+                return Byte.BYTES;
+            case ColumnType.LONG:
+            case ColumnType.DOUBLE:
+            case ColumnType.TIMESTAMP:
+                return Long.BYTES;
+            case ColumnType.SYMBOL:
+            case ColumnType.VARCHAR:
+                return VAR_SIZE;
+            default:
+                return 0;
+        }
+    }
+}
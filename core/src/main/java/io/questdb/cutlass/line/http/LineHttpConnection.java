@@ -0,0 +1,465 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.cutlass.line.http;
+
+import io.questdb.BuildInformationHolder;
+import io.questdb.ClientTlsConfiguration;
+import io.questdb.HttpClientConfiguration;
+import io.questdb.cutlass.http.HttpConstants;
+import io.questdb.cutlass.http.client.*;
+import io.questdb.cutlass.json.JsonException;
+import io.questdb.cutlass.json.JsonLexer;
+import io.questdb.cutlass.json.JsonParser;
+import io.questdb.cutlass.line.LineSenderException;
+import io.questdb.std.*;
+import io.questdb.std.datetime.microtime.MicrosecondClockImpl;
+import io.questdb.std.str.DirectUtf8Sequence;
+import io.questdb.std.str.StringSink;
+import io.questdb.std.str.Utf8s;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.Closeable;
+
+/**
+ * HTTP connection of {@link LineHttpSender}: a request buffer together with the logic to send it,
+ * retry recoverable errors and turn error responses into exceptions. Asynchronous senders own
+ * several connections, each used by one thread at a time.
+ */
+final class LineHttpConnection implements QuietCloseable {
+    private static final String PATH = "/write?precision=n";
+    private static final int RETRY_BACKOFF_MULTIPLIER = 2;
+    private static final int RETRY_INITIAL_BACKOFF_MS = 10;
+    private static final int RETRY_MAX_BACKOFF_MS = 1000;
+    private static final int RETRY_MAX_JITTER_MS = 10;
+    private final String authToken;
+    private final int baseTimeoutMillis;
+    private final String host;
+    private final long maxRetriesNanos;
+    private final long minRequestThroughput;
+    private final String password;
+    private final int port;
+    private final CharSequence questdbVersion;
+    private final Rnd rnd = new Rnd(NanosecondClockImpl.INSTANCE.getTicks(), MicrosecondClockImpl.INSTANCE.getTicks());
+    private final StringSink sink = new StringSink();
+    private final String url;
+    private final String username;
+    private HttpClient client;
+    private JsonErrorParser jsonErrorParser;
+    private HttpClient.Request request;
+
+    LineHttpConnection(
+            String host,
+            int port,
+            HttpClientConfiguration clientConfiguration,
+            ClientTlsConfiguration tlsConfig,
+            String authToken,
+            String username,
+            String password,
+            long maxRetriesNanos,
+            long minRequestThroughput
+    ) {
+        this.host = host;
+        this.port = port;
+        this.authToken = authToken;
+        this.username = username;
+        this.password = password;
+        this.maxRetriesNanos = maxRetriesNanos;
+        this.minRequestThroughput = minRequestThroughput;
+        this.baseTimeoutMillis = clientConfiguration.getTimeout();
+        if (tlsConfig != null) {
+            this.client = HttpClientFactory.newTlsInstance(clientConfiguration, tlsConfig);
+            this.url = "https://" + host + ":" + port + PATH;
+        } else {
+            this.client = HttpClientFactory.newPlainTextInstance(clientConfiguration);
+            this.url = "http://" + host + ":" + port + PATH;
+        }
+        this.questdbVersion = new BuildInformationHolder().getSwVersion();
+        newRequest(null);
+    }
+
+    @Override
+    public void close() {
+        jsonErrorParser = Misc.free(jsonErrorParser);
+        client = Misc.free(client);
+    }
+
+    public HttpClient.Request getRequest() {
+        return request;
+    }
+
+    /**
+     * @return true when nothing was written to the current request yet
+     */
+    public boolean isRequestEmpty() {
+        return request.getContentLength() == 0;
+    }
+
+    /**
+     * Discards the current request and starts a new one.
+     *
+     * @param contentType content type of the request body, null for text line protocol
+     * @return the new request
+     */
+    public HttpClient.Request newRequest(@Nullable CharSequence contentType) {
+        HttpClient.Request r = client.newRequest(host, port)
+                .POST()
+                .url(PATH)
+                .header("User-Agent", "QuestDB/java/" + questdbVersion);
+        if (contentType != null) {
+            r.header("Content-Type", contentType);
+        }
+        if (username != null) {
+            r.authBasic(username, password);
+        } else if (authToken != null) {
+            r.authToken(null, authToken);
+        }
+        r.withContent();
+        request = r;
+        return r;
+    }
+
+    /**
+     * Sends the current request, retrying recoverable errors. A new request is started once the
+     * current one is delivered, rejected by the server or when network retries run out. When the
+     * server fails with a 5xx status, the request is kept, so that it can be sent again.
+     */
+    public void send(boolean closing) {
+        long retryingDeadlineNanos = Long.MIN_VALUE;
+        int retryBackoff = RETRY_INITIAL_BACKOFF_MS;
+        int contentLen = request.getContentLength();
+        int actualTimeoutMillis = baseTimeoutMillis;
+        if (minRequestThroughput > 0) {
+            long throughputTimeoutBonusMillis = (contentLen * 1_000L / minRequestThroughput);
+            if (throughputTimeoutBonusMillis + actualTimeoutMillis > Integer.MAX_VALUE) {
+                actualTimeoutMillis = Integer.MAX_VALUE;
+            } else {
+                actualTimeoutMillis += (int) throughputTimeoutBonusMillis;
+            }
+        }
+        for (; ; ) {
+            try {
+                long beforeRequest = System.nanoTime();
+                HttpClient.ResponseHeaders response = request.send(actualTimeoutMillis);
+                long elapsedNanos = System.nanoTime() - beforeRequest;
+                int remainingMillis = actualTimeoutMillis - (int) (elapsedNanos / 1_000_000L);
+                if (remainingMillis <= 0) {
+                    throw new HttpClientException("Request timed out");
+                }
+
+                response.await(remainingMillis);
+                DirectUtf8Sequence statusCode = response.getStatusCode();
+                if (isSuccessResponse(statusCode)) {
+                    consumeChunkedResponse(response); // if any
+                    if (keepAliveDisabled(response)) {
+                        // Server has HTTP keep-alive disabled and it's closing this TCP connection.
+                        client.disconnect();
+                    }
+                    break;
+                }
+                assert response.isChunked();
+                if (isRetryableHttpStatus(statusCode)) {
+                    long nowNanos = System.nanoTime();
+                    retryingDeadlineNanos = (retryingDeadlineNanos == Long.MIN_VALUE && !closing) ? nowNanos + maxRetriesNanos : retryingDeadlineNanos;
+                    if (nowNanos >= retryingDeadlineNanos) {
+                        throwOnHttpErrorResponse(statusCode, response);
+                    }
+                    client.disconnect(); // forces reconnect, just in case
+                    retryBackoff = backoff(retryBackoff);
+                    continue;
+                }
+                if (isServerError(statusCode)) {
+                    throwOnHttpErrorResponse(statusCode, response);
+                }
+                try {
+                    throwOnHttpErrorResponse(statusCode, response);
+                } finally {
+                    // the request was rejected, sending it again would fail the same way
+                    newRequest(null);
+                }
+            } catch (HttpClientException e) {
+                // this is a network error, we can retry
+                client.disconnect(); // forces reconnect
+                long nowNanos = System.nanoTime();
+                retryingDeadlineNanos = (retryingDeadlineNanos == Long.MIN_VALUE && !closing) ? nowNanos + maxRetriesNanos : retryingDeadlineNanos;
+                if (nowNanos >= retryingDeadlineNanos) {
+                    // we did our best, give up
+                    newRequest(null);
+                    throw new LineSenderException("Could not flush buffer: ").put(url).put(" Connection Failed").put(": ").put(e.getMessage());
+                }
+                retryBackoff = backoff(retryBackoff);
+            }
+        }
+        newRequest(null);
+    }
+
+    private static void chunkedResponseToSink(HttpClient.ResponseHeaders response, StringSink sink) {
+        if (!response.isChunked()) {
+            return;
+        }
+        Response chunkedRsp = response.getResponse();
+        Fragment fragment;
+        while ((fragment = chunkedRsp.recv()) != null) {
+            sink.putNonAscii(fragment.lo(), fragment.hi());
+        }
+    }
+
+    private static boolean isServerError(DirectUtf8Sequence statusCode) {
+        return statusCode != null && statusCode.size() == 3 && statusCode.byteAt(0) == '5';
+    }
+
+    private static boolean isSuccessResponse(DirectUtf8Sequence statusCode) {
+        return statusCode != null && statusCode.size() == 3 && statusCode.byteAt(0) == '2';
+    }
+
+    private static boolean keepAliveDisabled(HttpClient.ResponseHeaders response) {
+        DirectUtf8Sequence connectionHeader = response.getHeader(HttpConstants.HEADER_CONNECTION);
+        return connectionHeader != null && Utf8s.equalsAscii("close", connectionHeader);
+    }
+
+    private int backoff(int retryBackoff) {
+        int jitter = rnd.nextInt(RETRY_MAX_JITTER_MS);
+        int backoff = retryBackoff + jitter;
+        Os.sleep(backoff);
+        return Math.min(RETRY_MAX_BACKOFF_MS, backoff * RETRY_BACKOFF_MULTIPLIER);
+    }
+
+    private void consumeChunkedResponse(HttpClient.ResponseHeaders response) {
+        if (!response.isChunked()) {
+            return;
+        }
+        Response chunkedRsp = response.getResponse();
+        while ((chunkedRsp.recv()) != null) {
+            // we don't care about the response, just consume it, so it won't stay in the socket receive buffer
+        }
+    }
+
+    private boolean isRetryableHttpStatus(DirectUtf8Sequence statusCode) {
+        if (statusCode == null || statusCode.size() != 3 || statusCode.byteAt(0) != '5') {
+            return false;
+        }
+
+        /*
+        We are retrying on the following response codes (copied from the Rust client):
+        500:  Internal Server Error
+        503:  Service Unavailable
+        504:  Gateway Timeout
+
+        // Unofficial extensions
+        507:  Insufficient Storage
+        509:  Bandwidth Limit Exceeded
+        523:  Origin is Unreachable
+        524:  A Timeout Occurred
+        529:  Site is overloaded
+        599:  Network Connect Timeout Error
+        */
+
+        byte middle = statusCode.byteAt(1);
+        byte last = statusCode.byteAt(2);
+        return (middle == '0' && (last == '0' || last == '3' || last == '4' || last == '7' || last == '9'))
+                || (middle == '2' && (last == '3' || last == '4' || last == '9'))
+                || (middle == '9' && last == '9');
+    }
+
+    private void throwOnHttpErrorResponse(DirectUtf8Sequence statusCode, HttpClient.ResponseHeaders response) {
+        CharSequence statusAscii = statusCode.asAsciiCharSequence();
+        if (Chars.equals("404", statusAscii)) {
+            consumeChunkedResponse(response);
+            client.disconnect();
+            throw new LineSenderException("Could not flush buffer: HTTP endpoint does not support ILP. [http-status=404]");
+        }
+        if (Chars.equals("401", statusAscii) || Chars.equals("403", statusAscii)) {
+            sink.clear();
+            chunkedResponseToSink(response, sink);
+            LineSenderException ex = new LineSenderException("Could not flush buffer: HTTP endpoint authentication error");
+            if (sink.length() > 0) {
+                ex = ex.put(": ").put(sink);
+            }
+            ex.put(" [http-status=").put(statusAscii).put(']');
+            client.disconnect();
+            throw ex;
+        }
+        DirectUtf8Sequence contentType = response.getContentType();
+        if (contentType != null && Utf8s.equalsAscii("application/json", contentType)) {
+            if (jsonErrorParser == null) {
+                jsonErrorParser = new JsonErrorParser();
+            }
+            jsonErrorParser.reset();
+            LineSenderException ex = jsonErrorParser.toException(response.getResponse(), statusCode);
+            client.disconnect();
+            throw ex;
+        }
+        // ok, no JSON, let's do something more generic
+        sink.clear();
+        sink.put("Could not flush buffer: ");
+        chunkedResponseToSink(response, sink);
+        sink.put(" [http-status=").put(statusCode).put(']');
+        client.disconnect();
+        throw new LineSenderException(sink);
+    }
+
+    private static class JsonErrorParser implements JsonParser, Closeable {
+        private final StringSink codeSink = new StringSink();
+        private final StringSink errorIdSink = new StringSink();
+        private final StringSink jsonSink = new StringSink();
+        private final JsonLexer lexer = new JsonLexer(1024, 1024);
+        private final StringSink lineSink = new StringSink();
+        private final StringSink messageSink = new StringSink();
+        private State state = State.INIT;
+
+        @Override
+        public void close() {
+            Misc.free(lexer);
+        }
+
+        @Override
+        public void onEvent(int code, CharSequence tag, int position) throws JsonException {
+            switch (state) {
+                case INIT:
+                    if (code == JsonLexer.EVT_OBJ_START) {
+                        state = State.NEXT_KEY_NAME;
+                    } else {
+                        throw JsonException.$(position, "expected '{'");
+                    }
+                    break;
+                case NEXT_KEY_NAME:
+                    if (code == JsonLexer.EVT_OBJ_END) {
+                        state = State.INIT;
+                    } else if (code == JsonLexer.EVT_NAME) {
+                        if (Chars.equals("code", tag)) {
+                            state = State.NEXT_CODE_VALUE;
+                        } else if (Chars.equals("message", tag)) {
+                            state = State.NEXT_MESSAGE_VALUE;
+                        } else if (Chars.equals("line", tag)) {
+                            state = State.NEXT_LINE_NUMBER_VALUE;
+                        } else if (Chars.equals("errorId", tag)) {
+                            state = State.NEXT_ERROR_ID_VALUE;
+                        } else {
+                            throw JsonException.$(position, "expected 'code', 'message', 'line' or 'error'");
+                        }
+                    } else {
+                        throw JsonException.$(position, "expected 'error' or 'message'");
+                    }
+                    break;
+                case NEXT_CODE_VALUE:
+                    if (code == JsonLexer.EVT_VALUE) {
+                        codeSink.put(tag);
+                        state = State.NEXT_KEY_NAME;
+                    } else {
+                        throw JsonException.$(position, "expected number");
+                    }
+                    break;
+                case NEXT_MESSAGE_VALUE:
+                    if (code == JsonLexer.EVT_VALUE) {
+                        messageSink.put(tag);
+                        state = State.NEXT_KEY_NAME;
+                    } else {
+                        throw JsonException.$(position, "expected string");
+                    }
+                    break;
+                case NEXT_LINE_NUMBER_VALUE:
+                    if (code == JsonLexer.EVT_VALUE) {
+                        lineSink.put(tag);
+                        state = State.NEXT_KEY_NAME;
+                    } else {
+                        throw JsonException.$(position, "expected number");
+                    }
+                    break;
+                case NEXT_ERROR_ID_VALUE:
+                    if (code == JsonLexer.EVT_VALUE) {
+                        errorIdSink.put(tag);
+                        state = State.NEXT_KEY_NAME;
+                    } else {
+                        throw JsonException.$(position, "expected string");
+                    }
+                    break;
+                case DONE:
+                    break;
+            }
+        }
+
+        private void drainAndReset(LineSenderException sink, DirectUtf8Sequence httpStatus) {
+            assert state == State.INIT;
+
+            sink.put(messageSink).put(" [http-status=").put(httpStatus.asAsciiCharSequence());
+            if (codeSink.length() > 0 || errorIdSink.length() > 0 || lineSink.length() > 0) {
+                if (errorIdSink.length() > 0) {
+                    sink.put(", id: ").put(errorIdSink);
+                }
+                if (codeSink.length() > 0) {
+                    sink.put(", code: ").put(codeSink);
+                }
+                if (lineSink.length() > 0) {
+                    sink.put(", line: ").put(lineSink);
+                }
+            }
+            sink.put(']');
+            reset();
+        }
+
+        private void reset() {
+            state = State.INIT;
+            codeSink.clear();
+            errorIdSink.clear();
+            lineSink.clear();
+            messageSink.clear();
+            lexer.clear();
+            jsonSink.clear();
+        }
+
+        LineSenderException toException(Response chunkedRsp, DirectUtf8Sequence httpStatus) {
+            Fragment fragment;
+            LineSenderException exception = new LineSenderException("Could not flush buffer: ");
+            while ((fragment = chunkedRsp.recv()) != null) {
+                try {
+                    jsonSink.putNonAscii(fragment.lo(), fragment.hi());
+                    lexer.parse(fragment.lo(), fragment.hi(), this);
+                } catch (JsonException e) {
+                    // we failed to parse JSON, but we still want to show the error message.
+                    // if we cannot parse it then we show the whole response as is.
+                    // let's make sure we have the whole message - there might be more chunks
+                    while ((fragment = chunkedRsp.recv()) != null) {
+                        jsonSink.putNonAscii(fragment.lo(), fragment.hi());
+                    }
+                    exception.put(jsonSink).put(" [http-status=").put(httpStatus.asAsciiCharSequence()).put(']');
+                    reset();
+                    return exception;
+                }
+            }
+            drainAndReset(exception, httpStatus);
+            return exception;
+        }
+
+        enum State {
+            INIT,
+            NEXT_KEY_NAME,
+            NEXT_CODE_VALUE,
+            NEXT_MESSAGE_VALUE,
+            NEXT_LINE_NUMBER_VALUE,
+            NEXT_ERROR_ID_VALUE,
+            DONE
+        }
+    }
+}
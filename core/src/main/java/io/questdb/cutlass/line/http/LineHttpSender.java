@@ -24,53 +24,41 @@
 
 package io.questdb.cutlass.line.http;
 
-import io.questdb.BuildInformationHolder;
 import io.questdb.ClientTlsConfiguration;
 import io.questdb.HttpClientConfiguration;
 import io.questdb.cairo.TableUtils;
+import io.questdb.client.ColumnarBatch;
 import io.questdb.client.Sender;
-import io.questdb.cutlass.http.HttpConstants;
 import io.questdb.cutlass.http.client.*;
-import io.questdb.cutlass.json.JsonException;
-import io.questdb.cutlass.json.JsonLexer;
-import io.questdb.cutlass.json.JsonParser;
+import io.questdb.cutlass.line.LineColumnarProtocol;
 import io.questdb.cutlass.line.LineSenderException;
 import io.questdb.std.*;
-import io.questdb.std.datetime.microtime.MicrosecondClockImpl;
 import io.questdb.std.datetime.microtime.Timestamps;
-import io.questdb.std.str.DirectUtf8Sequence;
-import io.questdb.std.str.StringSink;
-import io.questdb.std.str.Utf8s;
 import org.jetbrains.annotations.TestOnly;
 
-import java.io.Closeable;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
-
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * ILP over HTTP sender. With a single in-flight request, flushing sends the buffered rows and waits for
+ * the server to acknowledge them. With more than one, rows are appended to one connection's buffer while
+ * buffers of other connections are being sent by background threads, see {@link #flushAsync()}.
+ */
 public final class LineHttpSender implements Sender {
-    private static final String PATH = "/write?precision=n";
-    private static final int RETRY_BACKOFF_MULTIPLIER = 2;
-    private static final int RETRY_INITIAL_BACKOFF_MS = 10;
-    private static final int RETRY_MAX_BACKOFF_MS = 1000;
-    private static final int RETRY_MAX_JITTER_MS = 10;
-    private final String authToken;
+    private final AtomicReference<LineSenderException> asyncError = new AtomicReference<>();
     private final int autoFlushRows;
-    private final int baseTimeoutMillis;
+    private final long closeTimeoutNanos;
+    private final ObjList<LineHttpConnection> connections = new ObjList<>();
+    private final ObjList<LineHttpConnection> drainedConnections = new ObjList<>();
+    private final ExecutorService executor;
     private final long flushIntervalNanos;
-    private final String host;
-    private final long maxRetriesNanos;
-    private final long minRequestThroughput;
-    private final String password;
-    private final int port;
-    private final CharSequence questdbVersion;
-    private final Rnd rnd = new Rnd(NanosecondClockImpl.INSTANCE.getTicks(), MicrosecondClockImpl.INSTANCE.getTicks());
-    private final StringSink sink = new StringSink();
-    private final String url;
-    private final String username;
-    private HttpClient client;
-    private boolean closed;
+    private final ArrayBlockingQueue<LineHttpConnection> idleConnections;
+    private final int maxInFlightRequests;
+    private volatile boolean closed;
+    private LineHttpConnection connection;
     private long flushAfterNanos = Long.MAX_VALUE;
-    private JsonErrorParser jsonErrorParser;
     private long pendingRows;
     private HttpClient.Request request;
     private RequestState state = RequestState.EMPTY;
@@ -86,27 +74,56 @@ public final class LineHttpSender implements Sender {
                           long maxRetriesNanos,
                           long minRequestThroughput,
                           long flushIntervalNanos
+    ) {
+        this(host, port, clientConfiguration, tlsConfig, autoFlushRows, authToken, username, password, maxRetriesNanos, minRequestThroughput, flushIntervalNanos, 1);
+    }
+
+    public LineHttpSender(String host,
+                          int port,
+                          HttpClientConfiguration clientConfiguration,
+                          ClientTlsConfiguration tlsConfig,
+                          int autoFlushRows,
+                          String authToken,
+                          String username,
+                          String password,
+                          long maxRetriesNanos,
+                          long minRequestThroughput,
+                          long flushIntervalNanos,
+                          int maxInFlightRequests
     ) {
         assert authToken == null || (username == null && password == null);
-        this.maxRetriesNanos = maxRetriesNanos;
-        this.host = host;
-        this.port = port;
+        assert maxInFlightRequests > 0;
         this.autoFlushRows = autoFlushRows;
-        this.authToken = authToken;
-        this.username = username;
-        this.password = password;
-        this.minRequestThroughput = minRequestThroughput;
         this.flushIntervalNanos = flushIntervalNanos;
-        this.baseTimeoutMillis = clientConfiguration.getTimeout();
-        if (tlsConfig != null) {
-            this.client = HttpClientFactory.newTlsInstance(clientConfiguration, tlsConfig);
-            this.url = "https://" + host + ":" + port + PATH;
+        this.maxInFlightRequests = maxInFlightRequests;
+        // a request may take the request timeout on top of the time spent retrying
+        this.closeTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(clientConfiguration.getTimeout()) + maxRetriesNanos;
+        try {
+            // one connection is being filled while the others are in flight
+            final int connectionCount = maxInFlightRequests > 1 ? maxInFlightRequests + 1 : 1;
+            for (int i = 0; i < connectionCount; i++) {
+                connections.add(new LineHttpConnection(host, port, clientConfiguration, tlsConfig, authToken, username, password, maxRetriesNanos, minRequestThroughput));
+            }
+        } catch (Throwable th) {
+            Misc.freeObjListAndClear(connections);
+            throw th;
+        }
+        this.connection = connections.getQuick(0);
+        this.request = connection.getRequest();
+        if (maxInFlightRequests > 1) {
+            this.idleConnections = new ArrayBlockingQueue<>(maxInFlightRequests);
+            for (int i = 1, n = connections.size(); i < n; i++) {
+                idleConnections.add(connections.getQuick(i));
+            }
+            this.executor = Executors.newFixedThreadPool(maxInFlightRequests, r -> {
+                Thread thread = new Thread(r, "questdb-ilp-http-sender");
+                thread.setDaemon(true);
+                return thread;
+            });
         } else {
-            this.client = HttpClientFactory.newPlainTextInstance(clientConfiguration);
-            this.url = "http://" + host + ":" + port + PATH;
+            this.idleConnections = null;
+            this.executor = null;
         }
-        this.questdbVersion = new BuildInformationHolder().getSwVersion();
-        this.request = newRequest();
     }
 
     @Override
@@ -136,7 +153,7 @@ public final class LineHttpSender implements Sender {
                 break;
         }
         if (rowAdded()) {
-            flush();
+            flush0(false);
         }
     }
 
@@ -158,10 +175,57 @@ public final class LineHttpSender implements Sender {
                 // => let's auto-flush on close
                 flush0(true);
             }
+            if (executor != null) {
+                awaitInFlightRequests(closeTimeoutNanos);
+                throwAsyncError();
+            }
         } finally {
-            Misc.free(jsonErrorParser);
-            closed = true;
-            client = Misc.free(client);
+            if (executor != null) {
+                executor.shutdown();
+                synchronized (idleConnections) {
+                    // connections still in flight are freed by their worker once the request completes
+                    closed = true;
+                    Misc.free(connection);
+                    LineHttpConnection idle;
+                    while ((idle = idleConnections.poll()) != null) {
+                        Misc.free(idle);
+                    }
+                }
+                connections.clear();
+            } else {
+                closed = true;
+                Misc.freeObjListAndClear(connections);
+            }
+        }
+    }
+
+    @Override
+    public void columnarBatch(ColumnarBatch batch) {
+        validateNotClosed();
+        if (state != RequestState.EMPTY) {
+            throw new LineSenderException("Cannot send columnar batch while row is in progress. Use sender.at() or sender.atNow() to finish the current row first.");
+        }
+        if (batch.getRowCount() == 0) {
+            return;
+        }
+        // rows added with the row API go first, the batch needs a request of its own content type
+        flush0(false);
+        request = connection.newRequest(LineColumnarProtocol.CONTENT_TYPE);
+        try {
+            request.putNonAscii(batch.ptr(), batch.ptr() + batch.size());
+        } catch (HttpClientException e) {
+            request = connection.newRequest(null);
+            throw new LineSenderException("Could not send columnar batch: ").put(e.getMessage());
+        }
+        pendingRows = batch.getRowCount();
+        try {
+            flush0(false);
+        } finally {
+            if (pendingRows > 0) {
+                // rows added later cannot share the request with the batch, so the batch is not kept
+                request = connection.newRequest(null);
+                pendingRows = 0;
+            }
         }
     }
 
@@ -175,6 +239,23 @@ public final class LineHttpSender implements Sender {
     @Override
     public void flush() {
         flush0(false);
+        if (executor != null) {
+            awaitInFlightRequests(Long.MAX_VALUE);
+            throwAsyncError();
+        }
+    }
+
+    @Override
+    public CompletableFuture<Void> flushAsync() {
+        if (executor == null) {
+            flush();
+            return CompletableFuture.completedFuture(null);
+        }
+        validateRowNotInProgress();
+        if (pendingRows == 0) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return dispatch(false);
     }
 
     @Override
@@ -190,7 +271,7 @@ public final class LineHttpSender implements Sender {
         request.put(msg); // message must include trailing \n
         state = RequestState.EMPTY;
         if (rowAdded()) {
-            flush();
+            flush0(false);
         }
     }
 
@@ -257,26 +338,6 @@ public final class LineHttpSender implements Sender {
         return this;
     }
 
-    private static void chunkedResponseToSink(HttpClient.ResponseHeaders response, StringSink sink) {
-        if (!response.isChunked()) {
-            return;
-        }
-        Response chunkedRsp = response.getResponse();
-        Fragment fragment;
-        while ((fragment = chunkedRsp.recv()) != null) {
-            sink.putNonAscii(fragment.lo(), fragment.hi());
-        }
-    }
-
-    private static boolean isSuccessResponse(DirectUtf8Sequence statusCode) {
-        return statusCode != null && statusCode.size() == 3 && statusCode.byteAt(0) == '2';
-    }
-
-    private static boolean keepAliveDisabled(HttpClient.ResponseHeaders response) {
-        DirectUtf8Sequence connectionHeader = response.getHeader(HttpConstants.HEADER_CONNECTION);
-        return connectionHeader != null && Utf8s.equalsAscii("close", connectionHeader);
-    }
-
     private static long unitToNanos(ChronoUnit unit) {
         switch (unit) {
             case NANOS:
@@ -292,21 +353,67 @@ public final class LineHttpSender implements Sender {
         }
     }
 
-    private int backoff(int retryBackoff) {
-        int jitter = rnd.nextInt(RETRY_MAX_JITTER_MS);
-        int backoff = retryBackoff + jitter;
-        Os.sleep(backoff);
-        return Math.min(RETRY_MAX_BACKOFF_MS, backoff * RETRY_BACKOFF_MULTIPLIER);
+    private void awaitInFlightRequests(long timeoutNanos) {
+        // requests are done once all connections but the one being filled are idle
+        final long deadlineNanos = timeoutNanos == Long.MAX_VALUE ? Long.MAX_VALUE : System.nanoTime() + timeoutNanos;
+        try {
+            for (int i = 0; i < maxInFlightRequests; i++) {
+                final LineHttpConnection idle = deadlineNanos == Long.MAX_VALUE
+                        ? idleConnections.take()
+                        : idleConnections.poll(deadlineNanos - System.nanoTime(), TimeUnit.NANOSECONDS);
+                if (idle == null) {
+                    throw new LineSenderException("timed out waiting for in-flight requests [timeout=")
+                            .put(timeoutNanos / 1_000_000L).put("ms]");
+                }
+                drainedConnections.add(idle);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new LineSenderException("interrupted while waiting for in-flight requests");
+        } finally {
+            for (int i = 0, n = drainedConnections.size(); i < n; i++) {
+                idleConnections.add(drainedConnections.getQuick(i));
+            }
+            drainedConnections.clear();
+        }
     }
 
-    private void consumeChunkedResponse(HttpClient.ResponseHeaders response) {
-        if (!response.isChunked()) {
-            return;
-        }
-        Response chunkedRsp = response.getResponse();
-        while ((chunkedRsp.recv()) != null) {
-            // we don't care about the response, just consume it, so it won't stay in the socket receive buffer
-        }
+    private CompletableFuture<Void> dispatch(boolean closing) {
+        // fail fast when an earlier request could not be delivered
+        throwAsyncError();
+        final LineHttpConnection next;
+        try {
+            // blocks while all requests are in flight, this is what applies backpressure
+            next = idleConnections.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new LineSenderException("interrupted while waiting for an in-flight request to complete");
+        }
+        final LineHttpConnection inFlight = connection;
+        final CompletableFuture<Void> future = new CompletableFuture<>();
+        connection = next;
+        request = next.getRequest();
+        pendingRows = 0;
+        flushAfterNanos = System.nanoTime() + flushIntervalNanos;
+        executor.execute(() -> {
+            LineSenderException error = null;
+            try {
+                inFlight.send(closing);
+            } catch (Throwable th) {
+                error = th instanceof LineSenderException ? (LineSenderException) th : new LineSenderException(th);
+                asyncError.compareAndSet(null, error);
+                // the buffer was handed over, it cannot be flushed again
+                inFlight.newRequest(null);
+            } finally {
+                releaseConnection(inFlight);
+            }
+            if (error == null) {
+                future.complete(null);
+            } else {
+                future.completeExceptionally(error);
+            }
+        });
+        return future;
     }
 
     private void escapeQuotedString(CharSequence name) {
@@ -346,116 +453,43 @@ public final class LineHttpSender implements Sender {
     }
 
     private void flush0(boolean closing) {
-        if (state != RequestState.EMPTY && !closing) {
-            throw new LineSenderException("Cannot flush buffer while row is in progress. Use sender.at() or sender.atNow() to finish the current row first.");
+        if (!closing) {
+            validateRowNotInProgress();
         }
         if (pendingRows == 0) {
             return;
         }
-
-        long retryingDeadlineNanos = Long.MIN_VALUE;
-        int retryBackoff = RETRY_INITIAL_BACKOFF_MS;
-        int contentLen = request.getContentLength();
-        int actualTimeoutMillis = baseTimeoutMillis;
-        if (minRequestThroughput > 0) {
-            long throughputTimeoutBonusMillis = (contentLen * 1_000L / minRequestThroughput);
-            if (throughputTimeoutBonusMillis + actualTimeoutMillis > Integer.MAX_VALUE) {
-                actualTimeoutMillis = Integer.MAX_VALUE;
-            } else {
-                actualTimeoutMillis += (int) throughputTimeoutBonusMillis;
-            }
+        if (executor != null) {
+            dispatch(closing);
+            return;
         }
-        for (; ; ) {
-            try {
-                long beforeRequest = System.nanoTime();
-                HttpClient.ResponseHeaders response = request.send(actualTimeoutMillis);
-                long elapsedNanos = System.nanoTime() - beforeRequest;
-                int remainingMillis = actualTimeoutMillis - (int) (elapsedNanos / 1_000_000L);
-                if (remainingMillis <= 0) {
-                    throw new HttpClientException("Request timed out");
-                }
 
-                response.await(remainingMillis);
-                DirectUtf8Sequence statusCode = response.getStatusCode();
-                if (isSuccessResponse(statusCode)) {
-                    consumeChunkedResponse(response); // if any
-                    if (keepAliveDisabled(response)) {
-                        // Server has HTTP keep-alive disabled and it's closing this TCP connection.
-                        client.disconnect();
-                    }
-                    break;
-                }
-                assert response.isChunked();
-                if (isRetryableHttpStatus(statusCode)) {
-                    long nowNanos = System.nanoTime();
-                    retryingDeadlineNanos = (retryingDeadlineNanos == Long.MIN_VALUE && !closing) ? nowNanos + maxRetriesNanos : retryingDeadlineNanos;
-                    if (nowNanos >= retryingDeadlineNanos) {
-                        throwOnHttpErrorResponse(statusCode, response);
-                    }
-                    client.disconnect(); // forces reconnect, just in case
-                    retryBackoff = backoff(retryBackoff);
-                    continue;
-                }
-                throwOnHttpErrorResponse(statusCode, response);
-            } catch (HttpClientException e) {
-                // this is a network error, we can retry
-                client.disconnect(); // forces reconnect
-                long nowNanos = System.nanoTime();
-                retryingDeadlineNanos = (retryingDeadlineNanos == Long.MIN_VALUE && !closing) ? nowNanos + maxRetriesNanos : retryingDeadlineNanos;
-                if (nowNanos >= retryingDeadlineNanos) {
-                    // we did our best, give up
-                    pendingRows = 0;
-                    flushAfterNanos = Long.MAX_VALUE;
-                    request = newRequest();
-                    throw new LineSenderException("Could not flush buffer: ").put(url).put(" Connection Failed").put(": ").put(e.getMessage());
-                }
-                retryBackoff = backoff(retryBackoff);
+        try {
+            connection.send(closing);
+        } catch (LineSenderException e) {
+            // rows stay in the buffer when the server failed to process them, so that they can be
+            // flushed again, they are dropped when the server rejects them or network retries run out
+            if (connection.isRequestEmpty()) {
+                pendingRows = 0;
+                flushAfterNanos = Long.MAX_VALUE;
+                request = connection.getRequest();
             }
+            throw e;
         }
         pendingRows = 0;
         flushAfterNanos = System.nanoTime() + flushIntervalNanos;
-        request = newRequest();
-    }
-
-    private boolean isRetryableHttpStatus(DirectUtf8Sequence statusCode) {
-        if (statusCode == null || statusCode.size() != 3 || statusCode.byteAt(0) != '5') {
-            return false;
-        }
-
-        /*
-        We are retrying on the following response codes (copied from the Rust client):
-        500:  Internal Server Error
-        503:  Service Unavailable
-        504:  Gateway Timeout
-
-        // Unofficial extensions
-        507:  Insufficient Storage
-        509:  Bandwidth Limit Exceeded
-        523:  Origin is Unreachable
-        524:  A Timeout Occurred
-        529:  Site is overloaded
-        599:  Network Connect Timeout Error
-        */
-
-        byte middle = statusCode.byteAt(1);
-        byte last = statusCode.byteAt(2);
-        return (middle == '0' && (last == '0' || last == '3' || last == '4' || last == '7' || last == '9'))
-                || (middle == '2' && (last == '3' || last == '4' || last == '9'))
-                || (middle == '9' && last == '9');
+        request = connection.getRequest();
     }
 
-    private HttpClient.Request newRequest() {
-        HttpClient.Request r = client.newRequest(host, port)
-                .POST()
-                .url(PATH)
-                .header("User-Agent", "QuestDB/java/" + questdbVersion);
-        if (username != null) {
-            r.authBasic(username, password);
-        } else if (authToken != null) {
-            r.authToken(null, authToken);
+    private void releaseConnection(LineHttpConnection inFlight) {
+        synchronized (idleConnections) {
+            if (closed) {
+                // close() gave up waiting for this request
+                Misc.free(inFlight);
+            } else {
+                idleConnections.add(inFlight);
+            }
         }
-        r.withContent();
-        return r;
     }
 
     /**
@@ -469,49 +503,15 @@ public final class LineHttpSender implements Sender {
         } else if (flushAfterNanos - nowNanos < 0) {
             return true;
         }
-        return pendingRows == autoFlushRows;
+        // rows kept after a failed flush may already exceed the limit
+        return autoFlushRows > 0 && pendingRows >= autoFlushRows;
     }
 
-    private void throwOnHttpErrorResponse(DirectUtf8Sequence statusCode, HttpClient.ResponseHeaders response) {
-        // be ready for next request
-        flushAfterNanos = Long.MAX_VALUE;
-        pendingRows = 0;
-        request = newRequest();
-
-        CharSequence statusAscii = statusCode.asAsciiCharSequence();
-        if (Chars.equals("404", statusAscii)) {
-            consumeChunkedResponse(response);
-            client.disconnect();
-            throw new LineSenderException("Could not flush buffer: HTTP endpoint does not support ILP. [http-status=404]");
-        }
-        if (Chars.equals("401", statusAscii) || Chars.equals("403", statusAscii)) {
-            sink.clear();
-            chunkedResponseToSink(response, sink);
-            LineSenderException ex = new LineSenderException("Could not flush buffer: HTTP endpoint authentication error");
-            if (sink.length() > 0) {
-                ex = ex.put(": ").put(sink);
-            }
-            ex.put(" [http-status=").put(statusAscii).put(']');
-            client.disconnect();
-            throw ex;
-        }
-        DirectUtf8Sequence contentType = response.getContentType();
-        if (contentType != null && Utf8s.equalsAscii("application/json", contentType)) {
-            if (jsonErrorParser == null) {
-                jsonErrorParser = new JsonErrorParser();
-            }
-            jsonErrorParser.reset();
-            LineSenderException ex = jsonErrorParser.toException(response.getResponse(), statusCode);
-            client.disconnect();
-            throw ex;
+    private void throwAsyncError() {
+        final LineSenderException error = asyncError.getAndSet(null);
+        if (error != null) {
+            throw error;
         }
-        // ok, no JSON, let's do something more generic
-        sink.clear();
-        sink.put("Could not flush buffer: ");
-        chunkedResponseToSink(response, sink);
-        sink.put(" [http-status=").put(statusCode).put(']');
-        client.disconnect();
-        throw new LineSenderException(sink);
     }
 
     private void validateColumnName(CharSequence name) {
@@ -527,6 +527,12 @@ public final class LineHttpSender implements Sender {
         }
     }
 
+    private void validateRowNotInProgress() {
+        if (state != RequestState.EMPTY) {
+            throw new LineSenderException("Cannot flush buffer while row is in progress. Use sender.at() or sender.atNow() to finish the current row first.");
+        }
+    }
+
     private void validateTableName(CharSequence name) {
         if (!TableUtils.isValidTableName(name, Integer.MAX_VALUE)) {
             throw new LineSenderException("table name contains an illegal char: '\\n', '\\r', '?', ',', ''', " +
@@ -561,146 +567,4 @@ public final class LineHttpSender implements Sender {
         ADDING_COLUMNS,
     }
 
-    private static class JsonErrorParser implements JsonParser, Closeable {
-        private final StringSink codeSink = new StringSink();
-        private final StringSink errorIdSink = new StringSink();
-        private final StringSink jsonSink = new StringSink();
-        private final JsonLexer lexer = new JsonLexer(1024, 1024);
-        private final StringSink lineSink = new StringSink();
-        private final StringSink messageSink = new StringSink();
-        private State state = State.INIT;
-
-        @Override
-        public void close() {
-            Misc.free(lexer);
-        }
-
-        @Override
-        public void onEvent(int code, CharSequence tag, int position) throws JsonException {
-            switch (state) {
-                case INIT:
-                    if (code == JsonLexer.EVT_OBJ_START) {
-                        state = State.NEXT_KEY_NAME;
-                    } else {
-                        throw JsonException.$(position, "expected '{'");
-                    }
-                    break;
-                case NEXT_KEY_NAME:
-                    if (code == JsonLexer.EVT_OBJ_END) {
-                        state = State.INIT;
-                    } else if (code == JsonLexer.EVT_NAME) {
-                        if (Chars.equals("code", tag)) {
-                            state = State.NEXT_CODE_VALUE;
-                        } else if (Chars.equals("message", tag)) {
-                            state = State.NEXT_MESSAGE_VALUE;
-                        } else if (Chars.equals("line", tag)) {
-                            state = State.NEXT_LINE_NUMBER_VALUE;
-                        } else if (Chars.equals("errorId", tag)) {
-                            state = State.NEXT_ERROR_ID_VALUE;
-                        } else {
-                            throw JsonException.$(position, "expected 'code', 'message', 'line' or 'error'");
-                        }
-                    } else {
-                        throw JsonException.$(position, "expected 'error' or 'message'");
-                    }
-                    break;
-                case NEXT_CODE_VALUE:
-                    if (code == JsonLexer.EVT_VALUE) {
-                        codeSink.put(tag);
-                        state = State.NEXT_KEY_NAME;
-                    } else {
-                        throw JsonException.$(position, "expected number");
-                    }
-                    break;
-                case NEXT_MESSAGE_VALUE:
-                    if (code == JsonLexer.EVT_VALUE) {
-                        messageSink.put(tag);
-                        state = State.NEXT_KEY_NAME;
-                    } else {
-                        throw JsonException.$(position, "expected string");
-                    }
-                    break;
-                case NEXT_LINE_NUMBER_VALUE:
-                    if (code == JsonLexer.EVT_VALUE) {
-                        lineSink.put(tag);
-                        state = State.NEXT_KEY_NAME;
-                    } else {
-                        throw JsonException.$(position, "expected number");
-                    }
-                    break;
-                case NEXT_ERROR_ID_VALUE:
-                    if (code == JsonLexer.EVT_VALUE) {
-                        errorIdSink.put(tag);
-                        state = State.NEXT_KEY_NAME;
-                    } else {
-                        throw JsonException.$(position, "expected string");
-                    }
-                    break;
-                case DONE:
-                    break;
-            }
-        }
-
-        private void drainAndReset(LineSenderException sink, DirectUtf8Sequence httpStatus) {
-            assert state == State.INIT;
-
-            sink.put(messageSink).put(" [http-status=").put(httpStatus.asAsciiCharSequence());
-            if (codeSink.length() > 0 || errorIdSink.length() > 0 || lineSink.length() > 0) {
-                if (errorIdSink.length() > 0) {
-                    sink.put(", id: ").put(errorIdSink);
-                }
-                if (codeSink.length() > 0) {
-                    sink.put(", code: ").put(codeSink);
-                }
-                if (lineSink.length() > 0) {
-                    sink.put(", line: ").put(lineSink);
-                }
-            }
-            sink.put(']');
-            reset();
-        }
-
-        private void reset() {
-            state = State.INIT;
-            codeSink.clear();
-            errorIdSink.clear();
-            lineSink.clear();
-            messageSink.clear();
-            lexer.clear();
-            jsonSink.clear();
-        }
-
-        LineSenderException toException(Response chunkedRsp, DirectUtf8Sequence httpStatus) {
-            Fragment fragment;
-            LineSenderException exception = new LineSenderException("Could not flush buffer: ");
-            while ((fragment = chunkedRsp.recv()) != null) {
-                try {
-                    jsonSink.putNonAscii(fragment.lo(), fragment.hi());
-                    lexer.parse(fragment.lo(), fragment.hi(), this);
-                } catch (JsonException e) {
-                    // we failed to parse JSON, but we still want to show the error message.
-                    // if we cannot parse it then we show the whole response as is.
-                    // let's make sure we have the whole message - there might be more chunks
-                    while ((fragment = chunkedRsp.recv()) != null) {
-                        jsonSink.putNonAscii(fragment.lo(), fragment.hi());
-                    }
-                    exception.put(jsonSink).put(" [http-status=").put(httpStatus.asAsciiCharSequence()).put(']');
-                    reset();
-                    return exception;
-                }
-            }
-            drainAndReset(exception, httpStatus);
-            return exception;
-        }
-
-        enum State {
-            INIT,
-            NEXT_KEY_NAME,
-            NEXT_CODE_VALUE,
-            NEXT_MESSAGE_VALUE,
-            NEXT_LINE_NUMBER_VALUE,
-            NEXT_ERROR_ID_VALUE,
-            DONE
-        }
-    }
 }
@@ -188,6 +188,11 @@ public class DefaultLineTcpReceiverConfiguration implements LineTcpReceiverConfi
         return 64;
     }
 
+    @Override
+    public long getWriterRebalanceInterval() {
+        return 0;
+    }
+
     @Override
     public WorkerPoolConfiguration getWriterWorkerPoolConfiguration() {
         return SHARED_CONFIGURATION;
@@ -207,4 +212,9 @@ public class DefaultLineTcpReceiverConfiguration implements LineTcpReceiverConfi
     public boolean isUseLegacyStringDefault() {
         return false;
     }
+
+    @Override
+    public boolean isWalDispatchEnabled() {
+        return false;
+    }
 }
@@ -0,0 +1,198 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cutlass.line.tcp;
+
+import io.questdb.cutlass.line.LineColumnarProtocol;
+import io.questdb.std.*;
+import io.questdb.std.str.DirectUtf8Sequence;
+import io.questdb.std.str.DirectUtf8String;
+
+import static io.questdb.cutlass.line.tcp.LineProtocolException.malformedColumnarBlock;
+
+/**
+ * Flyweight over a single block of the columnar line protocol, see {@link LineColumnarProtocol}.
+ * Column values are not copied, they are read directly from the receive buffer.
+ */
+public class LineColumnarBlock implements Mutable {
+    private final ObjList<DirectUtf8String> columnNames = new ObjList<>();
+    private final IntList columnTypes = new IntList();
+    private final LongList columnValues = new LongList();
+    private final DirectUtf8String tableName = new DirectUtf8String();
+    private int columnCount;
+    private int rowCount;
+    private long timestampsLo;
+
+    /**
+     * Returns the address right after the block starting at lo or -1 when the block
+     * is not fully contained in [lo, hi).
+     */
+    public static long getBlockHi(long lo, long hi) {
+        if (hi - lo < Integer.BYTES) {
+            return -1;
+        }
+        final long blockHi = lo + Integer.BYTES + getBlockSize(lo);
+        return blockHi <= hi ? blockHi : -1;
+    }
+
+    /**
+     * Returns the size of the block starting at lo, excluding the block size field.
+     */
+    public static int getBlockSize(long lo) {
+        final int size = Unsafe.getUnsafe().getInt(lo);
+        if (size < 0) {
+            throw malformedColumnarBlock("negative block size: ").put(size);
+        }
+        return size;
+    }
+
+    @Override
+    public void clear() {
+        tableName.clear();
+        columnTypes.clear();
+        columnValues.clear();
+        columnCount = 0;
+        rowCount = 0;
+        timestampsLo = 0;
+    }
+
+    public int getColumnCount() {
+        return columnCount;
+    }
+
+    public DirectUtf8Sequence getColumnName(int columnIndex) {
+        return columnNames.getQuick(columnIndex);
+    }
+
+    public int getColumnType(int columnIndex) {
+        return columnTypes.getQuick(columnIndex);
+    }
+
+    /**
+     * Returns the address of the first value of the column.
+     */
+    public long getColumnValues(int columnIndex) {
+        return columnValues.getQuick(columnIndex);
+    }
+
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    public DirectUtf8Sequence getTableName() {
+        return tableName;
+    }
+
+    public long getTimestamp(int row) {
+        return Unsafe.getUnsafe().getLong(timestampsLo + (long) row * Long.BYTES);
+    }
+
+    /**
+     * Parses and validates the block spanning [lo, hi), where hi is the value
+     * returned by {@link #getBlockHi(long, long)}.
+     */
+    public void of(long lo, long hi) {
+        clear();
+        long p = lo + Integer.BYTES;
+        p = readName(p, hi, tableName);
+        if (tableName.size() == 0) {
+            throw malformedColumnarBlock("empty table name");
+        }
+
+        checkCapacity(p, hi, Integer.BYTES + Short.BYTES);
+        rowCount = Unsafe.getUnsafe().getInt(p);
+        columnCount = Unsafe.getUnsafe().getShort(p + Integer.BYTES);
+        if (rowCount < 0 || columnCount < 0) {
+            throw malformedColumnarBlock("invalid row or column count [rowCount=").put(rowCount)
+                    .put(", columnCount=").put(columnCount).put(']');
+        }
+        p += Integer.BYTES + Short.BYTES;
+
+        for (int i = 0; i < columnCount; i++) {
+            final DirectUtf8String name;
+            if (i < columnNames.size()) {
+                name = columnNames.getQuick(i);
+            } else {
+                name = new DirectUtf8String();
+                columnNames.add(name);
+            }
+            p = readName(p, hi, name);
+            checkCapacity(p, hi, Byte.BYTES);
+            final int type = Unsafe.getUnsafe().getByte(p++);
+            if (LineColumnarProtocol.getValueSize(type) == 0) {
+                throw malformedColumnarBlock("unsupported column type [column=").put(name)
+                        .put(", type=").put(type).put(']');
+            }
+            columnTypes.add(type);
+        }
+
+        checkCapacity(p, hi, (long) rowCount * Long.BYTES);
+        timestampsLo = p;
+        p += (long) rowCount * Long.BYTES;
+
+        for (int i = 0; i < columnCount; i++) {
+            columnValues.add(p);
+            final int valueSize = LineColumnarProtocol.getValueSize(columnTypes.getQuick(i));
+            if (valueSize != LineColumnarProtocol.VAR_SIZE) {
+                checkCapacity(p, hi, (long) rowCount * valueSize);
+                p += (long) rowCount * valueSize;
+            } else {
+                for (int r = 0; r < rowCount; r++) {
+                    checkCapacity(p, hi, Integer.BYTES);
+                    final int size = Unsafe.getUnsafe().getInt(p);
+                    p += Integer.BYTES;
+                    if (size > 0) {
+                        checkCapacity(p, hi, size);
+                        p += size;
+                    } else if (size < -1) {
+                        throw malformedColumnarBlock("invalid value size [column=").put(columnNames.getQuick(i))
+                                .put(", size=").put(size).put(']');
+                    }
+                }
+            }
+        }
+
+        if (p != hi) {
+            throw malformedColumnarBlock("unexpected trailing bytes [count=").put(hi - p).put(']');
+        }
+    }
+
+    private static void checkCapacity(long p, long hi, long size) {
+        if (hi - p < size) {
+            throw malformedColumnarBlock("block is truncated");
+        }
+    }
+
+    private static long readName(long p, long hi, DirectUtf8String name) {
+        checkCapacity(p, hi, Short.BYTES);
+        final int size = Unsafe.getUnsafe().getShort(p);
+        p += Short.BYTES;
+        if (size < 0) {
+            throw malformedColumnarBlock("negative name size: ").put(size);
+        }
+        checkCapacity(p, hi, size);
+        name.of(p, p + size);
+        return p + size;
+    }
+}
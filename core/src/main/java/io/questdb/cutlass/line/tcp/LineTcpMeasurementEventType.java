@@ -30,4 +30,8 @@ class LineTcpMeasurementEventType {
     static final int ALL_WRITERS_INCOMPLETE_EVENT = -2;
 
     static final int ALL_WRITERS_RELEASE_WRITER = -3;
+
+    // Published to the writer thread the table is moved away from, behind all
+    // the events that were dispatched to that thread for the table
+    static final int WRITER_RESHUFFLE = -4;
 }
@@ -65,13 +65,20 @@ public class LineTcpMeasurementScheduler implements Closeable {
     private final Path path = new Path();
     private final MPSequence[] pubSeq;
     private final RingQueue<LineTcpMeasurementEvent>[] queue;
+    private final long rebalanceInterval;
     private final long spinLockTimeoutMs;
     private final StringSink[] tableNameSinks;
     private final TableStructureAdapter tableStructureAdapter;
     private final ReadWriteLock tableUpdateDetailsLock = new SimpleReadWriteLock();
     private final LowerCaseCharSequenceObjHashMap<TableUpdateDetails> tableUpdateDetailsUtf16;
     private final Telemetry<TelemetryTask> telemetry;
+    private final boolean walDispatchEnabled;
     private final long writerIdleTimeout;
+    private long nextRebalanceMillis;
+    // the writer thread the table is being moved away from, until the reshuffle event is published to it
+    private volatile int reshuffleFromThreadId = -1;
+    // the table most recently moved to another writer thread
+    private TableUpdateDetails reshuffledTud;
 
     public LineTcpMeasurementScheduler(
             LineTcpReceiverConfiguration lineConfiguration,
@@ -158,6 +165,9 @@ public class LineTcpMeasurementScheduler implements Closeable {
                     cairoConfiguration.getWalEnabledDefault()
             );
             writerIdleTimeout = lineConfiguration.getWriterIdleTimeout();
+            walDispatchEnabled = lineConfiguration.isWalDispatchEnabled();
+            rebalanceInterval = lineConfiguration.getWriterRebalanceInterval();
+            nextRebalanceMillis = clock.getTicks() + rebalanceInterval;
             lineWalAppender = new LineWalAppender(
                     autoCreateNewColumns,
                     configuration.isStringToCharCastAllowed(),
@@ -201,6 +211,9 @@ public class LineTcpMeasurementScheduler implements Closeable {
             int readerWorkerId,
             long millis
     ) {
+        if (rebalanceInterval > 0 && (millis >= nextRebalanceMillis || reshuffleFromThreadId > -1)) {
+            rebalance(millis);
+        }
         for (int n = 0, sz = tableUpdateDetailsUtf8.size(); n < sz; n++) {
             final Utf8String tableNameUtf8 = tableUpdateDetailsUtf8.keys().get(n);
             final TableUpdateDetails tud = tableUpdateDetailsUtf8.get(tableNameUtf8);
@@ -361,21 +374,37 @@ public class LineTcpMeasurementScheduler implements Closeable {
             LineTcpParser parser,
             TableUpdateDetails tud
     ) {
-        final int writerThreadId = tud.getWriterThreadId();
-        long seq = getNextPublisherEventSequence(writerThreadId);
-        if (seq > -1) {
-            try {
-                if (tud.isWriterInError()) {
-                    throw CairoException.critical(0).put("writer is in error, aborting ILP pipeline");
+        if (rebalanceInterval > 0) {
+            // the table cannot be moved to another writer thread until the event is published
+            tud.dispatchStarted();
+        }
+        try {
+            final int writerThreadId = tud.getWriterThreadId();
+            long seq = getNextPublisherEventSequence(writerThreadId);
+            if (seq > -1) {
+                try {
+                    if (tud.isWriterInError()) {
+                        throw CairoException.critical(0).put("writer is in error, aborting ILP pipeline");
+                    }
+                    queue[writerThreadId].get(seq).createMeasurementEvent(
+                            securityContext,
+                            tud,
+                            parser,
+                            netIoJob.getWorkerId(),
+                            writerThreadId
+                    );
+                } finally {
+                    pubSeq[writerThreadId].done(seq);
                 }
-                queue[writerThreadId].get(seq).createMeasurementEvent(securityContext, tud, parser, netIoJob.getWorkerId());
-            } finally {
-                pubSeq[writerThreadId].done(seq);
+                tud.addBytesProcessedSinceReshuffle(parser.getBufferAddress() - parser.getMeasurementName().lo());
+                return false;
+            }
+            return true;
+        } finally {
+            if (rebalanceInterval > 0) {
+                tud.dispatchFinished();
             }
-            tud.incrementEventsProcessedSinceReshuffle();
-            return false;
         }
-        return true;
     }
 
     private TableUpdateDetails getTableUpdateDetailsFromSharedArea(
@@ -397,8 +426,8 @@ public class LineTcpMeasurementScheduler implements Closeable {
                 // check if the global cache has the table
                 final int tudKeyIndex = tableUpdateDetailsUtf16.keyIndex(tableNameUtf16);
                 if (tudKeyIndex < 0) {
-                    // it does, which means that table is non-WAL
-                    // we should not have "shared" WAL tables
+                    // it does, which means that table is non-WAL or WAL tables are dispatched
+                    // to the writer threads, otherwise we should not have "shared" WAL tables
                     tud = tableUpdateDetailsUtf16.valueAt(tudKeyIndex);
                 } else {
                     final int status = engine.getTableStatus(path, tableNameUtf16);
@@ -427,7 +456,7 @@ public class LineTcpMeasurementScheduler implements Closeable {
                     // check the global idle cache - TUD can be there
                     final int idleTudKeyIndex = idleTableUpdateDetailsUtf16.keyIndex(tableNameUtf16);
                     if (idleTudKeyIndex < 0) {
-                        // TUD is found in global idle cache - this meant it is non-WAL
+                        // TUD is found in global idle cache - this meant it is dispatched to a writer thread
                         tud = idleTableUpdateDetailsUtf16.valueAt(idleTudKeyIndex);
                         LOG.info().$("idle table going active [tableName=").$(tud.getTableNameUtf16()).I$();
                         if (tud.getWriter() == null) {
@@ -454,7 +483,7 @@ public class LineTcpMeasurementScheduler implements Closeable {
                             continue; // go for another spin
                         }
                         TelemetryTask.store(telemetry, TelemetryOrigin.ILP_TCP, TelemetrySystemEvent.ILP_RESERVE_WRITER);
-                        if (engine.isWalTable(tableToken)) {
+                        if (engine.isWalTable(tableToken) && !walDispatchEnabled) {
                             // create WAL-oriented TUD and DON'T add it to the global cache
                             tud = new WalTableUpdateDetails(
                                     engine,
@@ -489,6 +518,74 @@ public class LineTcpMeasurementScheduler implements Closeable {
         return null != pubSeq;
     }
 
+    private void rebalance(long millis) {
+        tableUpdateDetailsLock.writeLock().lock();
+        try {
+            if (reshuffleFromThreadId > -1) {
+                // the previous writer thread's queue was full when the table was moved
+                publishPendingReshuffleEvent();
+                return;
+            }
+            if (millis < nextRebalanceMillis) {
+                // another I/O thread has just done it
+                return;
+            }
+            nextRebalanceMillis = millis + rebalanceInterval;
+            if (reshuffledTud != null && reshuffledTud.isReshufflePending()) {
+                // the previous writer thread has not caught up with the last move yet
+                return;
+            }
+            reshuffledTud = null;
+
+            unsafeCalcThreadLoad();
+            int busiestThreadId = 0;
+            int leastBusyThreadId = 0;
+            for (int i = 1, n = loadByWriterThread.length; i < n; i++) {
+                if (loadByWriterThread[i] > loadByWriterThread[busiestThreadId]) {
+                    busiestThreadId = i;
+                }
+                if (loadByWriterThread[i] < loadByWriterThread[leastBusyThreadId]) {
+                    leastBusyThreadId = i;
+                }
+            }
+
+            final long maxLoad = loadByWriterThread[busiestThreadId];
+            final long minLoad = loadByWriterThread[leastBusyThreadId];
+            TableUpdateDetails tudToMove = null;
+            if (maxLoad > 2 * minLoad) {
+                // pick the busiest table that is still not busy enough to make
+                // the target thread busier than the source thread after the move
+                long tudToMoveLoad = 0;
+                final ObjList<CharSequence> tableNames = tableUpdateDetailsUtf16.keys();
+                for (int n = 0, sz = tableNames.size(); n < sz; n++) {
+                    final TableUpdateDetails tud = tableUpdateDetailsUtf16.get(tableNames.getQuick(n));
+                    final long load = tud.getBytesProcessedSinceReshuffle();
+                    if (
+                            tud.getWriterThreadId() == busiestThreadId
+                                    && !tud.isWriterInError()
+                                    && load > tudToMoveLoad
+                                    && load < maxLoad - minLoad
+                    ) {
+                        tudToMove = tud;
+                        tudToMoveLoad = load;
+                    }
+                }
+            }
+
+            // start measuring load from scratch, so that it reflects the recent byte rate
+            final ObjList<CharSequence> tableNames = tableUpdateDetailsUtf16.keys();
+            for (int n = 0, sz = tableNames.size(); n < sz; n++) {
+                tableUpdateDetailsUtf16.get(tableNames.getQuick(n)).resetBytesProcessedSinceReshuffle();
+            }
+
+            if (tudToMove != null) {
+                unsafeMoveTableToWriterThread(tudToMove, leastBusyThreadId, maxLoad, minLoad);
+            }
+        } finally {
+            tableUpdateDetailsLock.writeLock().unlock();
+        }
+    }
+
     @NotNull
     private TableUpdateDetails unsafeAssignTableToWriterThread(
             int tudKeyIndex,
@@ -530,13 +627,37 @@ public class LineTcpMeasurementScheduler implements Closeable {
             final CharSequence tableName = tableNames.getQuick(n);
             final TableUpdateDetails stats = tableUpdateDetailsUtf16.get(tableName);
             if (stats != null) {
-                loadByWriterThread[stats.getWriterThreadId()] += stats.getEventsProcessedSinceReshuffle();
+                loadByWriterThread[stats.getWriterThreadId()] += stats.getBytesProcessedSinceReshuffle();
             } else {
                 LOG.error().$("could not find statistic for table [name=").$(tableName).I$();
             }
         }
     }
 
+    private void unsafeMoveTableToWriterThread(TableUpdateDetails tud, int toThreadId, long fromThreadLoad, long toThreadLoad) {
+        final int fromThreadId = tud.getWriterThreadId();
+        // The new writer thread must not touch the table until the previous one has
+        // processed all events already queued for it. Events dispatched after the switch
+        // go to the new thread's queue, events dispatched before the switch are queued
+        // ahead of the reshuffle event.
+        tud.setReshufflePending(true);
+        tud.setWriterThreadId(toThreadId);
+        while (tud.getDispatchesInFlight() > 0) {
+            Os.pause();
+        }
+        synchronized (this) {
+            reshuffledTud = tud;
+            reshuffleFromThreadId = fromThreadId;
+        }
+        LOG.info().$("reassigning table [tableName=").$(tud.getTableNameUtf16())
+                .$(", fromThreadId=").$(fromThreadId)
+                .$(", fromThreadLoad=").$(fromThreadLoad)
+                .$(", toThreadId=").$(toThreadId)
+                .$(", toThreadLoad=").$(toThreadLoad)
+                .I$();
+        publishPendingReshuffleEvent();
+    }
+
     protected NetworkIOJob createNetworkIOJob(IODispatcher<LineTcpConnectionContext> dispatcher, int workerId) {
         return new LineTcpNetworkIOJob(configuration, this, dispatcher, workerId);
     }
@@ -549,4 +670,27 @@ public class LineTcpMeasurementScheduler implements Closeable {
         }
         return seq;
     }
+
+    /**
+     * Publishes the reshuffle event of the most recent table move to the writer thread
+     * the table is moved away from, unless the event is already published. The method
+     * does not wait for the queue to free up: the writer thread may itself be waiting
+     * for the table update details lock held by the caller. The event is published
+     * either by I/O threads during maintenance or by the writer thread the table is
+     * moved to, while it waits for the table.
+     */
+    synchronized void publishPendingReshuffleEvent() {
+        final int fromThreadId = reshuffleFromThreadId;
+        if (fromThreadId > -1) {
+            final long seq = getNextPublisherEventSequence(fromThreadId);
+            if (seq > -1) {
+                try {
+                    queue[fromThreadId].get(seq).createReshuffleEvent(reshuffledTud);
+                } finally {
+                    pubSeq[fromThreadId].done(seq);
+                }
+                reshuffleFromThreadId = -1;
+            }
+        }
+    }
 }
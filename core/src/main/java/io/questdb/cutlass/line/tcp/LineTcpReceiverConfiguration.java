@@ -93,6 +93,15 @@ public interface LineTcpReceiverConfiguration {
 
     int getWriterQueueCapacity();
 
+    /**
+     * Interval in milliseconds between attempts to move a table from the busiest
+     * writer thread to the least busy one. Thread load is measured as the number of
+     * bytes of line protocol dispatched to the thread since the previous attempt.
+     *
+     * @return interval in milliseconds, a non-positive value disables rebalancing
+     */
+    long getWriterRebalanceInterval();
+
     WorkerPoolConfiguration getWriterWorkerPoolConfiguration();
 
     boolean isEnabled();
@@ -100,4 +109,13 @@ public interface LineTcpReceiverConfiguration {
     boolean isStringToCharCastAllowed();
 
     boolean isUseLegacyStringDefault();
+
+    /**
+     * When enabled, rows for WAL tables are dispatched to the writer threads through
+     * the writer queues, in the same way as rows for non-WAL tables, instead of being
+     * written to the WAL on the I/O thread that parsed them.
+     *
+     * @return true when WAL rows are appended on the writer threads
+     */
+    boolean isWalDispatchEnabled();
 }
@@ -136,14 +136,24 @@ class LineTcpWriterJob implements Job, Closeable {
                 }
                 Os.pause();
             }
-            busy = true;
             final LineTcpMeasurementEvent event = queue.get(cursor);
+            final TableUpdateDetails tud = event.getTableUpdateDetails();
+            if (
+                    event.getWriterWorkerId() != LineTcpMeasurementEventType.ALL_WRITERS_INCOMPLETE_EVENT
+                            && tud.isReshufflePending()
+                            && tud.getWriterThreadId() == workerId
+            ) {
+                // The table is being moved to this thread, and the previous thread has not
+                // processed all the events queued for it yet. Leave the event in the queue.
+                scheduler.publishPendingReshuffleEvent();
+                return busy;
+            }
+            busy = true;
 
             try {
                 // we check the event's writer thread ID to avoid consuming
                 // incomplete events
 
-                final TableUpdateDetails tud = event.getTableUpdateDetails();
                 boolean closeWriter = false;
                 if (event.getWriterWorkerId() == workerId) {
                     try {
@@ -172,10 +182,10 @@ class LineTcpWriterJob implements Job, Closeable {
                         event.createWriterReleaseEvent(tud, false);
                         // This is a critical error, so we treat it as an unhandled one.
                     }
-                } else {
-                    if (event.getWriterWorkerId() == LineTcpMeasurementEventType.ALL_WRITERS_RELEASE_WRITER) {
-                        closeWriter = true;
-                    }
+                } else if (event.getWriterWorkerId() == LineTcpMeasurementEventType.ALL_WRITERS_RELEASE_WRITER) {
+                    closeWriter = true;
+                } else if (event.getWriterWorkerId() == LineTcpMeasurementEventType.WRITER_RESHUFFLE) {
+                    reshuffleTable(tud);
                 }
 
                 if (closeWriter && tud.getWriter() != null) {
@@ -192,6 +202,31 @@ class LineTcpWriterJob implements Job, Closeable {
         }
     }
 
+    private void reshuffleTable(TableUpdateDetails tud) {
+        try {
+            if (tud.isAssignedToJob()) {
+                assignedTables.remove(tud);
+                tud.setAssignedToJob(false);
+                nextCommitTime = millisecondClock.getTicks();
+                if (tud.getWriter() != null && !tud.isWriterInError()) {
+                    // rows appended by this thread must not be left to the next one to commit
+                    tud.commit(false);
+                }
+            }
+        } catch (Throwable ex) {
+            LOG.error().$("could not commit table on reshuffle [table=").$(tud.getTableToken())
+                    .$(", ex=").$(ex)
+                    .I$();
+        } finally {
+            tud.setReshufflePending(false);
+            LOG.info()
+                    .$("released table from writer thread [tableName=").$(tud.getTableToken())
+                    .$(", threadId=").$(workerId)
+                    .$(", toThreadId=").$(tud.getWriterThreadId())
+                    .I$();
+        }
+    }
+
     private void tickWriters() {
         for (int n = 0, sz = assignedTables.size(); n < sz; n++) {
             assignedTables.getQuick(n).tick();
@@ -29,10 +29,11 @@ import io.questdb.cairo.sql.TableRecordMetadata;
 import io.questdb.cutlass.line.LineTcpTimestampAdapter;
 import io.questdb.log.Log;
 import io.questdb.log.LogFactory;
-import io.questdb.std.Numbers;
-import io.questdb.std.NumericException;
+import io.questdb.std.*;
 import io.questdb.std.datetime.microtime.MicrosecondClock;
 import io.questdb.std.str.DirectUtf8Sequence;
+import io.questdb.std.str.DirectUtf8String;
+import io.questdb.std.str.StringSink;
 import io.questdb.std.str.Utf8s;
 
 import static io.questdb.cutlass.line.tcp.LineProtocolException.*;
@@ -42,9 +43,14 @@ import static io.questdb.cutlass.line.tcp.TableUpdateDetails.ThreadLocalDetails.
 public class LineWalAppender {
     private static final Log LOG = LogFactory.getLog(LineWalAppender.class);
     private final boolean autoCreateNewColumns;
+    private final IntList columnIndexes = new IntList();
+    private final StringSink columnNameUtf16 = new StringSink();
+    private final IntList columnTypes = new IntList();
     private final int maxFileNameLength;
     private final MicrosecondClock microsecondClock;
     private final boolean stringToCharCastAllowed;
+    private final DirectUtf8String varValue = new DirectUtf8String();
+    private final LongList varValuePositions = new LongList();
     private LineTcpTimestampAdapter timestampAdapter;
 
     public LineWalAppender(boolean autoCreateNewColumns, boolean stringToCharCastAllowed, LineTcpTimestampAdapter timestampAdapter, int maxFileNameLength, MicrosecondClock microsecondClock) {
@@ -55,6 +61,142 @@ public class LineWalAppender {
         this.microsecondClock = microsecondClock;
     }
 
+    /**
+     * Appends all rows of a columnar block. Unlike text lines, column names and types are
+     * resolved once per block and values are read straight from the block memory.
+     */
+    public void appendColumnarBlock(
+            SecurityContext securityContext,
+            LineColumnarBlock block,
+            TableUpdateDetails tud
+    ) throws CommitFailedException {
+        final TableWriterAPI writer = tud.getWriter();
+        assert writer.supportsMultipleWriters();
+        final TableRecordMetadata metadata = writer.getMetadata();
+        final int columnCount = block.getColumnCount();
+
+        columnIndexes.clear();
+        columnTypes.clear();
+        varValuePositions.clear();
+        for (int i = 0; i < columnCount; i++) {
+            final DirectUtf8Sequence columnName = block.getColumnName(i);
+            final int blockColumnType = block.getColumnType(i);
+            columnNameUtf16.clear();
+            Utf8s.utf8ToUtf16(columnName, columnNameUtf16);
+            int columnWriterIndex = metadata.getColumnIndexQuiet(columnNameUtf16);
+            if (columnWriterIndex < 0) {
+                if (!autoCreateNewColumns) {
+                    throw newColumnsNotAllowed(columnNameUtf16.toString(), tud.getTableNameUtf16());
+                }
+                if (!TableUtils.isValidColumnName(columnNameUtf16, maxFileNameLength)) {
+                    throw invalidColNameError(columnNameUtf16, tud.getTableNameUtf16());
+                }
+                securityContext.authorizeAlterTableAddColumn(writer.getTableToken());
+                try {
+                    writer.addColumn(columnNameUtf16, blockColumnType, securityContext);
+                } catch (CairoException e) {
+                    if (metadata.getColumnIndexQuiet(columnNameUtf16) < 0) {
+                        // the column is still not there, something must be wrong
+                        throw e;
+                    }
+                    // all good, someone added the column concurrently
+                }
+                columnWriterIndex = metadata.getColumnIndexQuiet(columnNameUtf16);
+            }
+            columnWriterIndex = metadata.getWriterIndex(columnWriterIndex);
+            if (columnWriterIndex == tud.getTimestampIndex()) {
+                throw malformedColumnarBlock("designated timestamp must be sent as block timestamps [column=")
+                        .put(columnName).put(']');
+            }
+
+            final int columnType = metadata.getColumnType(columnWriterIndex);
+            if (!isColumnarCastSupported(blockColumnType, columnType)) {
+                throw castError(tud.getTableNameUtf16(), ColumnType.nameOf(blockColumnType), columnType, columnName);
+            }
+            columnIndexes.add(columnWriterIndex);
+            columnTypes.add(columnType);
+            varValuePositions.add(block.getColumnValues(i));
+        }
+
+        TableWriter.Row r = null;
+        try {
+            for (int row = 0, n = block.getRowCount(); row < n; row++) {
+                r = writer.newRow(block.getTimestamp(row));
+                for (int i = 0; i < columnCount; i++) {
+                    final int columnIndex = columnIndexes.getQuick(i);
+                    final int columnType = columnTypes.getQuick(i);
+                    final long values = block.getColumnValues(i);
+                    switch (block.getColumnType(i)) {
+                        case ColumnType.BOOLEAN:
+                            r.putBool(columnIndex, Unsafe.getUnsafe().getByte(values + row) != 0);
+                            break;
+                        case ColumnType.LONG:
+                            putColumnarLong(r, columnIndex, columnType, Unsafe.getUnsafe().getLong(values + (long) row * Long.BYTES), tud);
+                            break;
+                        case ColumnType.DOUBLE: {
+                            final double value = Unsafe.getUnsafe().getDouble(values + (long) row * Double.BYTES);
+                            if (columnType == ColumnType.FLOAT) {
+                                r.putFloat(columnIndex, (float) value);
+                            } else {
+                                r.putDouble(columnIndex, value);
+                            }
+                            break;
+                        }
+                        case ColumnType.TIMESTAMP: {
+                            final long value = Unsafe.getUnsafe().getLong(values + (long) row * Long.BYTES);
+                            if (columnType == ColumnType.DATE) {
+                                r.putDate(columnIndex, value != Numbers.LONG_NULL ? value / 1000 : Numbers.LONG_NULL);
+                            } else {
+                                r.putTimestamp(columnIndex, value);
+                            }
+                            break;
+                        }
+                        default: {
+                            // symbol and varchar values are stored as size followed by bytes
+                            long p = varValuePositions.getQuick(i);
+                            final int size = Unsafe.getUnsafe().getInt(p);
+                            p += Integer.BYTES;
+                            if (size > -1) {
+                                varValue.of(p, p + size, Utf8s.isAscii(p, p + size));
+                                p += size;
+                                switch (columnType) {
+                                    case ColumnType.SYMBOL:
+                                        r.putSymUtf8(columnIndex, varValue);
+                                        break;
+                                    case ColumnType.STRING:
+                                        r.putStrUtf8(columnIndex, varValue);
+                                        break;
+                                    default:
+                                        r.putVarchar(columnIndex, varValue);
+                                        break;
+                                }
+                            }
+                            varValuePositions.setQuick(i, p);
+                            break;
+                        }
+                    }
+                }
+                r.append();
+                r = null;
+                tud.commitIfMaxUncommittedRowsCountReached();
+            }
+        } catch (CommitFailedException commitFailedException) {
+            throw commitFailedException;
+        } catch (CairoException th) {
+            LOG.error().$("could not write columnar block [tableName=").$(tud.getTableNameUtf16()).$(", message=").$(th.getFlyweightMessage()).I$();
+            if (r != null) {
+                r.cancel();
+            }
+            throw th;
+        } catch (Throwable th) {
+            LOG.error().$("could not write columnar block [tableName=").$(tud.getTableNameUtf16()).$(", message=").$(th.getMessage()).$(th).I$();
+            if (r != null) {
+                r.cancel();
+            }
+            throw th;
+        }
+    }
+
     public void appendToWal(
             SecurityContext securityContext,
             LineTcpParser parser,
@@ -96,6 +238,83 @@ public class LineWalAppender {
         }
     }
 
+    private static boolean isColumnarCastSupported(int blockColumnType, int columnType) {
+        switch (blockColumnType) {
+            case ColumnType.BOOLEAN:
+                return columnType == ColumnType.BOOLEAN;
+            case ColumnType.LONG:
+                switch (columnType) {
+                    case ColumnType.BYTE:
+                    case ColumnType.SHORT:
+                    case ColumnType.INT:
+                    case ColumnType.LONG:
+                    case ColumnType.DATE:
+                    case ColumnType.TIMESTAMP:
+                    case ColumnType.FLOAT:
+                    case ColumnType.DOUBLE:
+                        return true;
+                    default:
+                        return false;
+                }
+            case ColumnType.DOUBLE:
+                return columnType == ColumnType.DOUBLE || columnType == ColumnType.FLOAT;
+            case ColumnType.TIMESTAMP:
+                return columnType == ColumnType.TIMESTAMP || columnType == ColumnType.DATE;
+            case ColumnType.SYMBOL:
+            case ColumnType.VARCHAR:
+                return columnType == ColumnType.SYMBOL || columnType == ColumnType.STRING || columnType == ColumnType.VARCHAR;
+            default:
+                return false;
+        }
+    }
+
+    private static void putColumnarLong(TableWriter.Row r, int columnIndex, int columnType, long value, TableUpdateDetails tud) {
+        switch (columnType) {
+            case ColumnType.INT:
+                if (value >= Integer.MIN_VALUE && value <= Integer.MAX_VALUE) {
+                    r.putInt(columnIndex, (int) value);
+                } else if (value == Numbers.LONG_NULL) {
+                    r.putInt(columnIndex, Numbers.INT_NULL);
+                } else {
+                    throw boundsError(value, ColumnType.INT, tud.getTableNameUtf16(), tud.getWriter().getMetadata().getColumnName(columnIndex));
+                }
+                break;
+            case ColumnType.SHORT:
+                if (value >= Short.MIN_VALUE && value <= Short.MAX_VALUE) {
+                    r.putShort(columnIndex, (short) value);
+                } else if (value == Numbers.LONG_NULL) {
+                    r.putShort(columnIndex, (short) 0);
+                } else {
+                    throw boundsError(value, ColumnType.SHORT, tud.getTableNameUtf16(), tud.getWriter().getMetadata().getColumnName(columnIndex));
+                }
+                break;
+            case ColumnType.BYTE:
+                if (value >= Byte.MIN_VALUE && value <= Byte.MAX_VALUE) {
+                    r.putByte(columnIndex, (byte) value);
+                } else if (value == Numbers.LONG_NULL) {
+                    r.putByte(columnIndex, (byte) 0);
+                } else {
+                    throw boundsError(value, ColumnType.BYTE, tud.getTableNameUtf16(), tud.getWriter().getMetadata().getColumnName(columnIndex));
+                }
+                break;
+            case ColumnType.TIMESTAMP:
+                r.putTimestamp(columnIndex, value);
+                break;
+            case ColumnType.DATE:
+                r.putDate(columnIndex, value);
+                break;
+            case ColumnType.DOUBLE:
+                r.putDouble(columnIndex, value != Numbers.LONG_NULL ? value : Double.NaN);
+                break;
+            case ColumnType.FLOAT:
+                r.putFloat(columnIndex, value != Numbers.LONG_NULL ? value : Float.NaN);
+                break;
+            default:
+                r.putLong(columnIndex, value);
+                break;
+        }
+    }
+
     private void appendToWal0(
             SecurityContext securityContext,
             LineTcpParser parser,
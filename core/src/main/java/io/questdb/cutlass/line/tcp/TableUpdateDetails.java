@@ -39,6 +39,7 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.io.Closeable;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static io.questdb.cairo.TableUtils.ANY_TABLE_VERSION;
 import static io.questdb.cairo.TableUtils.TXN_FILE_NAME;
@@ -49,6 +50,7 @@ public class TableUpdateDetails implements Closeable {
     private final long commitInterval;
     private final boolean commitOnClose;
     private final DefaultColumnTypes defaultColumnTypes;
+    private final AtomicInteger dispatchesInFlight = new AtomicInteger();
     private final long defaultMaxUncommittedRows;
     private final CairoEngine engine;
     private final ThreadLocalDetails[] localDetailsArray;
@@ -61,17 +63,20 @@ public class TableUpdateDetails implements Closeable {
     private final long writerTickRowsCountMod;
     protected TableWriterAPI writerAPI;
     private boolean assignedToJob = false;
-    // Number of rows processed since the last reshuffle, this is an estimate because it is incremented by
+    // Number of bytes processed since the last reshuffle, this is an estimate because it is incremented by
     // multiple threads without synchronisation
-    private long eventsProcessedSinceReshuffle = 0;
+    private long bytesProcessedSinceReshuffle = 0;
     private boolean isDropped;
     private long lastMeasurementMillis = Long.MAX_VALUE;
     private long latestKnownMetadataVersion;
     private MetadataService metadataService;
     private int networkIOOwnerCount = 0;
     private long nextCommitTime;
+    // Set while the table is being moved to another writer thread, until the previous
+    // writer thread has processed all events queued for the table.
+    private volatile boolean reshufflePending;
     private volatile boolean writerInError;
-    private int writerThreadId;
+    private volatile int writerThreadId;
 
     public TableUpdateDetails(
             LineTcpReceiverConfiguration configuration,
@@ -139,6 +144,10 @@ public class TableUpdateDetails implements Closeable {
         this.tableNameUtf8 = tableNameUtf8;
     }
 
+    public void addBytesProcessedSinceReshuffle(long bytes) {
+        bytesProcessedSinceReshuffle += bytes;
+    }
+
     public void addReference(int workerId) {
         if (!isWal()) {
             networkIOOwnerCount++;
@@ -214,8 +223,8 @@ public class TableUpdateDetails implements Closeable {
         }
     }
 
-    public long getEventsProcessedSinceReshuffle() {
-        return eventsProcessedSinceReshuffle;
+    public long getBytesProcessedSinceReshuffle() {
+        return bytesProcessedSinceReshuffle;
     }
 
     public long getLastMeasurementMillis() {
@@ -246,10 +255,6 @@ public class TableUpdateDetails implements Closeable {
         return writerThreadId;
     }
 
-    public void incrementEventsProcessedSinceReshuffle() {
-        ++eventsProcessedSinceReshuffle;
-    }
-
     public boolean isAssignedToJob() {
         return assignedToJob;
     }
@@ -258,6 +263,10 @@ public class TableUpdateDetails implements Closeable {
         return this.isDropped;
     }
 
+    public boolean isReshufflePending() {
+        return reshufflePending;
+    }
+
     public boolean isWal() {
         return writerThreadId == -1;
     }
@@ -278,6 +287,10 @@ public class TableUpdateDetails implements Closeable {
         }
     }
 
+    public void resetBytesProcessedSinceReshuffle() {
+        bytesProcessedSinceReshuffle = 0;
+    }
+
     public void rollback() {
         writerAPI.rollback();
     }
@@ -290,6 +303,10 @@ public class TableUpdateDetails implements Closeable {
         this.isDropped = true;
     }
 
+    public void setReshufflePending(boolean reshufflePending) {
+        this.reshufflePending = reshufflePending;
+    }
+
     public void setWriterInError() {
         writerInError = true;
     }
@@ -372,6 +389,18 @@ public class TableUpdateDetails implements Closeable {
         tick();
     }
 
+    void dispatchFinished() {
+        dispatchesInFlight.decrementAndGet();
+    }
+
+    void dispatchStarted() {
+        dispatchesInFlight.incrementAndGet();
+    }
+
+    int getDispatchesInFlight() {
+        return dispatchesInFlight.get();
+    }
+
     ThreadLocalDetails getThreadLocalDetails(int workerId) {
         lastMeasurementMillis = millisecondClock.getTicks();
         return localDetailsArray[workerId];
@@ -404,6 +433,10 @@ public class TableUpdateDetails implements Closeable {
         }
     }
 
+    void setWriterThreadId(int writerThreadId) {
+        this.writerThreadId = writerThreadId;
+    }
+
     public class ThreadLocalDetails implements Closeable {
         static final int COLUMN_NOT_FOUND = -1;
         static final int DUPLICATED_COLUMN = -2;
@@ -508,6 +541,9 @@ public class TableUpdateDetails implements Closeable {
         }
 
         private GenericRecordMetadata deepCopyOfDense(TableRecordMetadata that) {
+            // WAL tables dispatched to writer threads read pooled sequencer metadata,
+            // which does not carry the dedup flag
+            final boolean hasDedupFlag = isWal() || !tableToken.isWal();
             GenericRecordMetadata metadata = new GenericRecordMetadata();
             for (int i = 0, n = that.getColumnCount(); i < n; i++) {
                 int columnType = that.getColumnType(i);
@@ -521,7 +557,7 @@ public class TableUpdateDetails implements Closeable {
                                     that.isSymbolTableStatic(i),
                                     that.getMetadata(i),
                                     that.getWriterIndex(i),
-                                    that.isDedupKey(i)
+                                    hasDedupFlag && that.isDedupKey(i)
                             )
                     );
                 }
@@ -67,7 +67,8 @@ public interface CompiledQuery {
     short ALTER_USER = CREATE_USER + 1; // 29
 
     short CANCEL_QUERY = ALTER_USER + 1; // 30
-    short TYPES_COUNT = CANCEL_QUERY;
+    short TABLE_SET_WAL_PRIORITY = CANCEL_QUERY + 1; // 31
+    short TYPES_COUNT = TABLE_SET_WAL_PRIORITY;
 
     /**
      * Executes the query.
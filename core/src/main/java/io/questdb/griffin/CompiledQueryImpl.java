@@ -278,6 +278,10 @@ public class CompiledQueryImpl implements CompiledQuery, Mutable {
         type = TABLE_SET_TYPE;
     }
 
+    public void ofTableSetWalPriority() {
+        type = TABLE_SET_WAL_PRIORITY;
+    }
+
     public void ofTruncate() {
         of(TRUNCATE);
     }
@@ -87,6 +87,15 @@ public interface FunctionFactory {
         return false;
     }
 
+    /**
+     * @return true if the {@link Function} produced by the factory may return different values when
+     * the same query is executed against the same data, i.e. rnd_int() or now(). Results of such
+     * queries must not be cached.
+     */
+    default boolean isNonDeterministic() {
+        return false;
+    }
+
     /**
      * @return true if the {@link Function} produced by the factory is guaranteed to be constant for
      * a query such that its result does not depend on any {@link Record} in the result set, i.e. now().
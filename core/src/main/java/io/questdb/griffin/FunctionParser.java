@@ -67,6 +67,7 @@ public class FunctionParser implements PostOrderTreeTraversalAlgo.Visitor, Mutab
     private final PostOrderTreeTraversalAlgo traverseAlgo = new PostOrderTreeTraversalAlgo();
     private final IntList undefinedVariables = new IntList();
     private RecordMetadata metadata;
+    private boolean nonDeterministicFunctionUsed;
     private SqlCodeGenerator sqlCodeGenerator;
     private SqlExecutionContext sqlExecutionContext;
 
@@ -151,6 +152,7 @@ public class FunctionParser implements PostOrderTreeTraversalAlgo.Visitor, Mutab
         this.positionStack.clear();
         this.functionStack.clear();
         this.sqlExecutionContext = null;
+        this.nonDeterministicFunctionUsed = false;
     }
 
     public Function createBindVariable(SqlExecutionContext sqlExecutionContext, int position, CharSequence name, int expressionType) throws SqlException {
@@ -203,6 +205,14 @@ public class FunctionParser implements PostOrderTreeTraversalAlgo.Visitor, Mutab
         return functionFactoryCache;
     }
 
+    /**
+     * @return true if a function created since the last {@link #clear()} call comes from a
+     * {@link FunctionFactory#isNonDeterministic() non-deterministic} factory.
+     */
+    public boolean isNonDeterministicFunctionUsed() {
+        return nonDeterministicFunctionUsed;
+    }
+
     /**
      * Creates function instance. When node type is {@link ExpressionNode#LITERAL} a column or parameter
      * function is returned. We will be using the supplied {@link #metadata} to resolve type of column. When node token
@@ -416,6 +426,7 @@ public class FunctionParser implements PostOrderTreeTraversalAlgo.Visitor, Mutab
             Misc.freeObjList(args);
             throw SqlException.position(position).put("bad function factory (NULL), check log");
         }
+        nonDeterministicFunctionUsed |= factory.isNonDeterministic();
         return function;
     }
 
@@ -549,6 +560,7 @@ public class FunctionParser implements PostOrderTreeTraversalAlgo.Visitor, Mutab
         int candidateSigArgTypeScore = -1;
         int bestMatch = MATCH_NO_MATCH;
         boolean isWindowContext = !sqlExecutionContext.getWindowContext().isEmpty();
+        FunctionFactory noArgCandidate = null;
 
         // If a bind variable of unknown type appears inside a cast expression, we should
         // assign a default type to it. Otherwise, since casting is a heavily overloaded
@@ -614,9 +626,16 @@ public class FunctionParser implements PostOrderTreeTraversalAlgo.Visitor, Mutab
                 sigArgCount--;
             }
 
-            // this is no-arg function, match right away
+            // this is no-arg function, match right away unless there is a window (or non-window) overload
+            // that suits the context better, e.g. count() over ()
             if (argCount == 0 && sigArgCount == 0) {
-                return checkAndCreateFunction(factory, args, argPositions, node, configuration);
+                if (isWindowContext == factory.isWindow()) {
+                    return checkAndCreateFunction(factory, args, argPositions, node, configuration);
+                }
+                if (noArgCandidate == null) {
+                    noArgCandidate = factory;
+                }
+                continue;
             }
 
             if (candidateDescriptor == null) {
@@ -809,6 +828,10 @@ public class FunctionParser implements PostOrderTreeTraversalAlgo.Visitor, Mutab
             }
         }
 
+        if (noArgCandidate != null) {
+            return checkAndCreateFunction(noArgCandidate, args, argPositions, node, configuration);
+        }
+
         if (candidate == null) {
             // no signature match
             throw invalidArgument(node, args, candidateDescriptor);
@@ -0,0 +1,248 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin;
+
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.std.*;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.Closeable;
+
+/**
+ * Engine-wide cache of SELECT query results.
+ * <p>
+ * Entries are keyed by the query text along with the principal and the bind variable values.
+ * Each entry keeps the id, txn and metadata version of every table the query reads. An entry
+ * is discarded on lookup as soon as any of these tables moves to another transaction, so results
+ * are never served from outdated data.
+ * <p>
+ * Results are stored off-heap as {@link io.questdb.cairo.RecordChain} memory blocks. The total size
+ * of the blocks is capped by the memory budget; least recently used entries are evicted first.
+ * Entries that are being copied by readers at the time of eviction are freed on release.
+ */
+public class QueryResultCache implements Closeable, Mutable {
+    private static final Log LOG = LogFactory.getLog(QueryResultCache.class);
+    private final CairoConfiguration configuration;
+    private final CharSequenceObjHashMap<Entry> entries = new CharSequenceObjHashMap<>();
+    // least recently used entries are at the tail
+    private Entry head;
+    private long hitCount;
+    private long memoryUsed;
+    private long missCount;
+    private Entry tail;
+
+    public QueryResultCache(CairoConfiguration configuration) {
+        this.configuration = configuration;
+    }
+
+    /**
+     * Looks up the entry for the given key and table versions. Stale entries are evicted.
+     *
+     * @param key           query key, see {@link io.questdb.griffin.engine.ResultCacheRecordCursorFactory}
+     * @param tableVersions (table id, txn, metadata version) triplets of the tables read by the query
+     * @return entry, which has to be {@link #release(Entry) released} once the result is copied, or null
+     */
+    @Nullable
+    public synchronized Entry acquire(CharSequence key, LongList tableVersions) {
+        final Entry entry = entries.get(key);
+        if (entry == null) {
+            missCount++;
+            return null;
+        }
+        if (!entry.matches(tableVersions)) {
+            LOG.debug().$("stale query result [key=").$(key).I$();
+            evict(entry);
+            missCount++;
+            return null;
+        }
+        hitCount++;
+        entry.refCount++;
+        unlink(entry);
+        linkHead(entry);
+        return entry;
+    }
+
+    @Override
+    public synchronized void clear() {
+        while (tail != null) {
+            evict(tail);
+        }
+    }
+
+    @Override
+    public void close() {
+        clear();
+    }
+
+    public synchronized int getEntryCount() {
+        return entries.size();
+    }
+
+    public synchronized long getHitCount() {
+        return hitCount;
+    }
+
+    public long getMemoryBudget() {
+        return configuration.getSqlResultCacheMemoryBudget();
+    }
+
+    public synchronized long getMemoryUsed() {
+        return memoryUsed;
+    }
+
+    public synchronized long getMissCount() {
+        return missCount;
+    }
+
+    /**
+     * Copies the result into the cache. Least recently used entries are evicted to keep the
+     * cache within the memory budget.
+     *
+     * @param key           query key
+     * @param tableVersions (table id, txn, metadata version) triplets of the tables read by the query
+     * @param address       address of the result memory block
+     * @param size          size of the result memory block in bytes
+     * @param rowCount      number of rows in the result
+     */
+    public void put(CharSequence key, LongList tableVersions, long address, long size, long rowCount) {
+        final long memoryBudget = getMemoryBudget();
+        if (size > memoryBudget) {
+            return;
+        }
+        final Entry entry = new Entry(Chars.toString(key), tableVersions, size, rowCount);
+        if (size > 0) {
+            entry.address = Unsafe.malloc(size, MemoryTag.NATIVE_RECORD_CHAIN);
+            Vect.memcpy(entry.address, address, size);
+        }
+        synchronized (this) {
+            final Entry existing = entries.get(key);
+            if (existing != null) {
+                evict(existing);
+            }
+            while (memoryUsed + size > memoryBudget && tail != null) {
+                evict(tail);
+            }
+            entries.put(entry.key, entry);
+            linkHead(entry);
+            memoryUsed += size;
+        }
+    }
+
+    public synchronized void release(Entry entry) {
+        if (--entry.refCount == 0 && entry.evicted) {
+            entry.free();
+        }
+    }
+
+    private void evict(Entry entry) {
+        entries.remove(entry.key);
+        unlink(entry);
+        memoryUsed -= entry.size;
+        entry.evicted = true;
+        if (entry.refCount == 0) {
+            entry.free();
+        }
+    }
+
+    private void linkHead(Entry entry) {
+        entry.prev = null;
+        entry.next = head;
+        if (head != null) {
+            head.prev = entry;
+        }
+        head = entry;
+        if (tail == null) {
+            tail = entry;
+        }
+    }
+
+    private void unlink(Entry entry) {
+        if (entry.prev != null) {
+            entry.prev.next = entry.next;
+        } else {
+            head = entry.next;
+        }
+        if (entry.next != null) {
+            entry.next.prev = entry.prev;
+        } else {
+            tail = entry.prev;
+        }
+        entry.prev = null;
+        entry.next = null;
+    }
+
+    public static class Entry {
+        private final String key;
+        private final long rowCount;
+        private final long size;
+        private final long[] tableVersions;
+        private long address;
+        private boolean evicted;
+        private Entry next;
+        private Entry prev;
+        private int refCount;
+
+        private Entry(String key, LongList tableVersions, long size, long rowCount) {
+            this.key = key;
+            this.size = size;
+            this.rowCount = rowCount;
+            this.tableVersions = new long[tableVersions.size()];
+            for (int i = 0, n = tableVersions.size(); i < n; i++) {
+                this.tableVersions[i] = tableVersions.getQuick(i);
+            }
+        }
+
+        public long getAddress() {
+            return address;
+        }
+
+        public long getRowCount() {
+            return rowCount;
+        }
+
+        public long getSize() {
+            return size;
+        }
+
+        private void free() {
+            address = Unsafe.free(address, size, MemoryTag.NATIVE_RECORD_CHAIN);
+        }
+
+        private boolean matches(LongList tableVersions) {
+            if (this.tableVersions.length != tableVersions.size()) {
+                return false;
+            }
+            for (int i = 0, n = this.tableVersions.length; i < n; i++) {
+                if (this.tableVersions[i] != tableVersions.getQuick(i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -46,12 +46,14 @@ import io.questdb.griffin.engine.groupby.vect.GroupByRecordCursorFactory;
 import io.questdb.griffin.engine.groupby.vect.*;
 import io.questdb.griffin.engine.join.*;
 import io.questdb.griffin.engine.orderby.LimitedSizeSortedLightRecordCursorFactory;
+import io.questdb.griffin.engine.orderby.ParallelSortedRecordCursorFactory;
 import io.questdb.griffin.engine.orderby.RecordComparatorCompiler;
 import io.questdb.griffin.engine.orderby.SortedLightRecordCursorFactory;
 import io.questdb.griffin.engine.orderby.SortedRecordCursorFactory;
 import io.questdb.griffin.engine.table.*;
 import io.questdb.griffin.engine.union.*;
 import io.questdb.griffin.engine.window.CachedWindowRecordCursorFactory;
+import io.questdb.griffin.engine.window.WindowChunk;
 import io.questdb.griffin.engine.window.WindowFunction;
 import io.questdb.griffin.engine.window.WindowRecordCursorFactory;
 import io.questdb.griffin.model.*;
@@ -61,6 +63,7 @@ import io.questdb.jit.JitUtil;
 import io.questdb.log.Log;
 import io.questdb.log.LogFactory;
 import io.questdb.std.*;
+import io.questdb.std.datetime.TimeZoneRules;
 import io.questdb.std.str.StringSink;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
@@ -152,6 +155,8 @@ public class SqlCodeGenerator implements Mutable, Closeable {
     private final ListColumnFilter listColumnFilterA = new ListColumnFilter();
     private final ListColumnFilter listColumnFilterB = new ListColumnFilter();
     private final LongList prefixes = new LongList();
+    // tables read by the query; used to validate cached query results
+    private final ObjList<TableToken> readTableTokens = new ObjList<>();
     private final RecordComparatorCompiler recordComparatorCompiler;
     private final IntList recordFunctionPositions = new IntList();
     private final PageFrameReduceTaskFactory reduceTaskFactory;
@@ -171,6 +176,7 @@ public class SqlCodeGenerator implements Mutable, Closeable {
     // a bitset of string/symbol columns forced to be serialised as varchar
     private final BitSet writeStringAsVarcharA = new BitSet();
     private final BitSet writeStringAsVarcharB = new BitSet();
+    private boolean cursorFunctionUsed = false;
     private boolean enableJitNullChecks = true;
     private boolean fullFatJoins = false;
 
@@ -230,6 +236,8 @@ public class SqlCodeGenerator implements Mutable, Closeable {
         whereClauseParser.clear();
         symbolEstimator.clear();
         intListPool.clear();
+        readTableTokens.clear();
+        cursorFunctionUsed = false;
     }
 
     @Override
@@ -290,6 +298,22 @@ public class SqlCodeGenerator implements Mutable, Closeable {
         return new ExplainPlanFactory(factory, model.getFormat());
     }
 
+    /**
+     * @return tables read by the factories generated since the last {@link #clear()} call.
+     */
+    public ObjList<TableToken> getReadTableTokens() {
+        return readTableTokens;
+    }
+
+    /**
+     * Query results can be cached only when they are fully defined by the data in the tables
+     * the query reads, i.e. there are no cursor functions, such as tables() or long_sequence(),
+     * and no non-deterministic functions, such as rnd_int() or now().
+     */
+    public boolean isResultCacheable() {
+        return !cursorFunctionUsed && !functionParser.isNonDeterministicFunctionUsed();
+    }
+
     private static boolean allGroupsFirstLastWithSingleSymbolFilter(QueryModel model, RecordMetadata metadata) {
         final ObjList<QueryColumn> columns = model.getColumns();
         CharSequence symbolToken = null;
@@ -383,6 +407,43 @@ public class SqlCodeGenerator implements Mutable, Closeable {
         return model.getOrderByDirectionAdvice().getQuick(index);
     }
 
+    private static boolean hasSymbolSortKey(RecordMetadata metadata, ListColumnFilter sortColumnFilter) {
+        for (int i = 0, n = sortColumnFilter.size(); i < n; i++) {
+            if (ColumnType.isSymbol(metadata.getColumnType(Math.abs(sortColumnFilter.getQuick(i)) - 1))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isParallelWindowSupported(
+            RecordMetadata chainMetadata,
+            WindowColumn firstWindowColumn,
+            WindowColumn windowColumn,
+            @Nullable IntList order
+    ) {
+        final ObjList<ExpressionNode> partitionBy = windowColumn.getPartitionBy();
+        final ObjList<ExpressionNode> firstPartitionBy = firstWindowColumn.getPartitionBy();
+        if (partitionBy.size() == 0 || partitionBy.size() != firstPartitionBy.size()) {
+            return false;
+        }
+        for (int i = 0, n = partitionBy.size(); i < n; i++) {
+            if (!ExpressionNode.compareNodesExact(partitionBy.getQuick(i), firstPartitionBy.getQuick(i))) {
+                return false;
+            }
+        }
+        if (order != null) {
+            // symbol comparison resolves symbol values via symbol tables shared with the query thread
+            for (int i = 0, n = order.size(); i < n; i++) {
+                final int columnIndex = Math.abs(order.getQuick(i)) - 1;
+                if (ColumnType.isSymbol(chainMetadata.getColumnType(columnIndex))) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
     private static boolean isSingleColumnFunction(ExpressionNode ast, CharSequence name) {
         return ast.type == FUNCTION && ast.paramCount == 1 && Chars.equalsIgnoreCase(ast.token, name) && ast.rhs.type == LITERAL;
     }
@@ -474,6 +535,12 @@ public class SqlCodeGenerator implements Mutable, Closeable {
                         tempSymbolSkewIndexes.extendAndSet(i, columnIndex);
                         arrayColumnTypes.add(ColumnType.SYMBOL);
                         tempKeyKinds.add(GKK_VANILLA_INT);
+                    } else if (ColumnType.tagOf(type) == ColumnType.LONG) {
+                        // rosti holds LONG keys encoded to INT
+                        tempKeyIndexesInBase.add(columnIndex);
+                        tempKeyIndex.add(i);
+                        arrayColumnTypes.add(ColumnType.INT);
+                        tempKeyKinds.add(GKK_VANILLA_INT);
                     } else {
                         return false;
                     }
@@ -543,6 +610,108 @@ public class SqlCodeGenerator implements Mutable, Closeable {
         return null;
     }
 
+    private WindowFunction compileWindowFunction(
+            WindowColumn ac,
+            GenericRecordMetadata chainMetadata,
+            int scanDirection,
+            boolean supportsRandomAccess,
+            SqlExecutionContext executionContext
+    ) throws SqlException {
+        final ExpressionNode ast = ac.getAst();
+        ObjList<Function> partitionByFunctions = null;
+        try {
+            final int psz = ac.getPartitionBy().size();
+            if (psz > 0) {
+                partitionByFunctions = new ObjList<>(psz);
+                for (int j = 0; j < psz; j++) {
+                    final Function function = functionParser.parseFunction(ac.getPartitionBy().getQuick(j), chainMetadata, executionContext);
+                    partitionByFunctions.add(function);
+                    if (function instanceof GroupByFunction) {
+                        throw SqlException.$(ast.position, "aggregate functions in partition by are not supported");
+                    }
+                }
+            }
+
+            final VirtualRecord partitionByRecord;
+            final RecordSink partitionBySink;
+
+            if (partitionByFunctions != null) {
+                partitionByRecord = new VirtualRecord(partitionByFunctions);
+                keyTypes.clear();
+                final int partitionByCount = partitionByFunctions.size();
+
+                for (int j = 0; j < partitionByCount; j++) {
+                    keyTypes.add(partitionByFunctions.getQuick(j).getType());
+                }
+                entityColumnFilter.of(partitionByCount);
+                // create sink
+                partitionBySink = RecordSinkFactory.getInstance(
+                        asm,
+                        keyTypes,
+                        entityColumnFilter,
+                        false
+                );
+            } else {
+                partitionByRecord = null;
+                partitionBySink = null;
+            }
+
+            final int osz = ac.getOrderBy().size();
+            executionContext.configureWindowContext(
+                    partitionByRecord,
+                    partitionBySink,
+                    keyTypes,
+                    osz > 0,
+                    scanDirection,
+                    osz > 0 ? ac.getOrderBy().getQuick(0).position : -1,
+                    supportsRandomAccess,
+                    ac.getFramingMode(),
+                    ac.getRowsLo(),
+                    ac.getRowsLoKindPos(),
+                    ac.getRowsHi(),
+                    ac.getRowsHiKindPos(),
+                    ac.getExclusionKind(),
+                    ac.getExclusionKindPos(),
+                    chainMetadata.getTimestampIndex()
+            );
+            final Function f;
+            try {
+                // function needs to resolve args against chain metadata
+                f = functionParser.parseFunction(ast, chainMetadata, executionContext);
+                if (!(f instanceof WindowFunction)) {
+                    Misc.free(f);
+                    throw SqlException.$(ast.position, "non-window function called in window context");
+                }
+            } finally {
+                executionContext.clearWindowContext();
+            }
+            return (WindowFunction) f;
+        } catch (Throwable th) {
+            Misc.freeObjList(partitionByFunctions);
+            throw th;
+        }
+    }
+
+    private ObjList<RecordComparator> compileWorkerComparators(
+            RecordMetadata metadata,
+            ListColumnFilter sortColumnFilter,
+            int workerCount
+    ) {
+        final ObjList<RecordComparator> workerComparators = new ObjList<>();
+        if (ParallelSortedRecordCursorFactory.getRadixSortColumn(metadata, sortColumnFilter) != 0) {
+            // radix sort does not compare records
+            return workerComparators;
+        }
+        if (hasSymbolSortKey(metadata, sortColumnFilter)) {
+            // symbol comparison goes through symbol tables, which are not thread-safe
+            return workerComparators;
+        }
+        for (int i = 0; i < workerCount; i++) {
+            workerComparators.add(recordComparatorCompiler.compile(metadata, sortColumnFilter));
+        }
+        return workerComparators;
+    }
+
     private @Nullable ObjList<Function> compileWorkerFilterConditionally(
             SqlExecutionContext executionContext,
             @Nullable Function filter,
@@ -794,7 +963,8 @@ public class SqlCodeGenerator implements Mutable, Closeable {
             RecordCursorFactory slave,
             int joinType,
             Function filter,
-            JoinContext context
+            JoinContext context,
+            SqlExecutionContext executionContext
     ) {
         /*
          * JoinContext provides the following information:
@@ -832,6 +1002,22 @@ public class SqlCodeGenerator implements Mutable, Closeable {
 
         if (slave.recordCursorSupportsRandomAccess() && !fullFatJoins) {
             if (joinType == JOIN_INNER) {
+                if (isParallelHashJoinSupported(master, slave)) {
+                    return new AsyncHashJoinLightRecordCursorFactory(
+                            configuration,
+                            executionContext.getMessageBus(),
+                            metadata,
+                            master,
+                            slave,
+                            keyTypes,
+                            masterKeySink,
+                            slaveKeySink,
+                            masterMetadata.getColumnCount(),
+                            context,
+                            reduceTaskFactory,
+                            executionContext.getSharedWorkerCount()
+                    );
+                }
                 return new HashJoinLightRecordCursorFactory(
                         configuration,
                         metadata,
@@ -1032,6 +1218,99 @@ public class SqlCodeGenerator implements Mutable, Closeable {
         );
     }
 
+    /**
+     * Builds conjunction of the top-level "and" operands of the filter that can be compiled by JIT.
+     *
+     * @return the compilable part of the filter or null if no operands can be compiled
+     */
+    @Nullable
+    private ExpressionNode extractJitFilter(
+            RecordCursorFactory factory,
+            ExpressionNode filterExpr,
+            SqlExecutionContext executionContext
+    ) {
+        final ObjList<ExpressionNode> conjuncts = new ObjList<>();
+        sqlNodeStack.clear();
+        sqlNodeStack.push(filterExpr);
+        while (!sqlNodeStack.isEmpty()) {
+            final ExpressionNode node = sqlNodeStack.pop();
+            if (node.type == OPERATION && node.paramCount == 2 && isAndKeyword(node.token)) {
+                sqlNodeStack.push(node.rhs);
+                sqlNodeStack.push(node.lhs);
+            } else {
+                conjuncts.add(node);
+            }
+        }
+
+        ExpressionNode jitFilterExpr = null;
+        final ObjList<Function> bindVarFunctions = new ObjList<>();
+        try (PageFrameCursor cursor = factory.getPageFrameCursor(executionContext, ORDER_ANY)) {
+            for (int i = 0, n = conjuncts.size(); i < n; i++) {
+                final ExpressionNode conjunct = conjuncts.getQuick(i);
+                try {
+                    jitIRSerializer.of(jitIRMem, executionContext, factory.getMetadata(), cursor, bindVarFunctions);
+                    jitIRSerializer.serialize(conjunct, false, false, false);
+                } catch (SqlException ignore) {
+                    continue;
+                } finally {
+                    jitIRSerializer.clear();
+                    jitIRMem.truncate();
+                    Misc.freeObjListAndClear(bindVarFunctions);
+                }
+                if (jitFilterExpr == null) {
+                    jitFilterExpr = conjunct;
+                } else {
+                    final ExpressionNode and = expressionNodePool.next().of(OPERATION, "and", 0, conjunct.position);
+                    and.paramCount = 2;
+                    and.lhs = jitFilterExpr;
+                    and.rhs = conjunct;
+                    jitFilterExpr = and;
+                }
+            }
+        } catch (SqlException | LimitOverflowException e) {
+            return null;
+        }
+        return jitFilterExpr;
+    }
+
+    private DataFrameCursorFactory generateBloomFilterDataFrameCursorFactory(
+            DataFrameCursorFactory dfcFactory,
+            IntrinsicModel intrinsicModel,
+            RecordMetadata metadata,
+            SqlExecutionContext executionContext
+    ) {
+        final int columnIndex = metadata.getColumnIndexQuiet(intrinsicModel.bloomFilterColumn);
+        if (columnIndex < 0) {
+            return dfcFactory;
+        }
+        final int columnType = metadata.getColumnType(columnIndex);
+        final ObjList<ExpressionNode> valueNodes = intrinsicModel.bloomFilterValueNodes;
+        final ObjList<Function> valueFuncs = new ObjList<>(valueNodes.size());
+        try {
+            for (int i = 0, n = valueNodes.size(); i < n; i++) {
+                final Function func = functionParser.parseFunction(valueNodes.getQuick(i), metadata, executionContext);
+                valueFuncs.add(func);
+                if (!(func.isConstant() || func.isRuntimeConstant())
+                        || !BloomFilterDataFrameCursorFactory.isValueTypeSupported(columnType, func.getType())) {
+                    Misc.freeObjList(valueFuncs);
+                    return dfcFactory;
+                }
+            }
+        } catch (SqlException e) {
+            // the filter reports the error, if any, Bloom filters are just not used
+            Misc.freeObjList(valueFuncs);
+            return dfcFactory;
+        }
+        return new BloomFilterDataFrameCursorFactory(
+                configuration,
+                dfcFactory,
+                columnIndex,
+                metadata.getColumnName(columnIndex),
+                columnType,
+                valueFuncs
+        );
+    }
+
     private ObjList<Function> generateCastFunctions(
             RecordMetadata castToMetadata,
             RecordMetadata castFromMetadata,
@@ -1660,6 +1939,84 @@ public class SqlCodeGenerator implements Mutable, Closeable {
         return castFunctions;
     }
 
+    private RecordCursorFactory generateFill(RecordCursorFactory factory, QueryModel model) throws SqlException {
+        final ExpressionNode fillStride = model.getFillStride();
+        if (fillStride == null) {
+            return factory;
+        }
+
+        try {
+            final RecordMetadata metadata = factory.getMetadata();
+            final int timestampIndex = metadata.getColumnIndexQuiet(model.getFillTimestamp().token);
+            if (timestampIndex == -1) {
+                throw SqlException.invalidColumn(model.getFillTimestamp().position, model.getFillTimestamp().token);
+            }
+            // the fill stage walks the group by output bucket by bucket, so it has to be sorted by timestamp ascending
+            if (metadata.getTimestampIndex() != timestampIndex || factory.getScanDirection() != RecordCursorFactory.SCAN_DIRECTION_FORWARD) {
+                throw SqlException.position(fillStride.position).put("fill requires group by output sorted by timestamp");
+            }
+
+            final ExpressionNode fillOffset = model.getFillOffset();
+            final ExpressionNode fillTimezone = model.getFillTimezone();
+            final TimestampSampler timestampSampler = TimestampSamplerFactory.getInstance(fillStride.token, fillStride.position);
+            timestampSampler.setStart(
+                    TimestampSamplerFactory.getOffset(
+                            fillOffset != null ? GenericLexer.unquote(fillOffset.token) : null,
+                            fillOffset != null ? fillOffset.position : 0
+                    )
+            );
+            final TimeZoneRules timeZoneRules = fillTimezone != null
+                    ? TimestampSamplerFactory.getTimeZoneRules(GenericLexer.unquote(fillTimezone.token), fillTimezone.position)
+                    : null;
+
+            // fill values map onto aggregate columns in their order, unless
+            // there is a single null, prev or linear keyword applicable to all columns
+            final ObjList<ExpressionNode> fillValues = model.getFillValues();
+            final int fillCount = fillValues.size();
+            final CharSequence fillToken = fillValues.getQuick(0).token;
+            final boolean isFillAll = fillCount == 1 && (isNullKeyword(fillToken) || isPrevKeyword(fillToken) || isLinearKeyword(fillToken));
+            final ObjList<QueryColumn> columns = model.getColumns();
+            final IntList columnKinds = tempKeyKinds;
+            final IntList columnPositions = recordFunctionPositions;
+            columnKinds.clear();
+            columnPositions.clear();
+            int fillIndex = 0;
+            for (int i = 0, n = columns.size(); i < n; i++) {
+                final ExpressionNode ast = columns.getQuick(i).getAst();
+                columnPositions.add(ast.position);
+                if (i == timestampIndex) {
+                    columnKinds.add(SampleByFillRecordCursorFactory.COLUMN_TIMESTAMP);
+                } else if (ast.type == FUNCTION && functionParser.getFunctionFactoryCache().isGroupBy(ast.token)) {
+                    if (isFillAll) {
+                        columnKinds.add(0);
+                    } else if (fillIndex == fillCount) {
+                        throw SqlException.position(fillValues.getQuick(fillCount - 1).position).put("not enough values");
+                    } else {
+                        columnKinds.add(fillIndex++);
+                    }
+                } else {
+                    columnKinds.add(SampleByFillRecordCursorFactory.COLUMN_KEY);
+                }
+            }
+
+            return new SampleByFillRecordCursorFactory(
+                    asm,
+                    configuration,
+                    factory,
+                    timestampSampler,
+                    timeZoneRules,
+                    timestampIndex,
+                    columnKinds,
+                    columnPositions,
+                    fillValues,
+                    fillStride
+            );
+        } catch (Throwable e) {
+            Misc.free(factory);
+            throw e;
+        }
+    }
+
     private RecordCursorFactory generateFilter(RecordCursorFactory factory, QueryModel model, SqlExecutionContext executionContext) throws SqlException {
         return model.getWhereClause() == null ? factory : generateFilter0(factory, model, executionContext);
     }
@@ -1707,55 +2064,18 @@ public class SqlCodeGenerator implements Mutable, Closeable {
                     && (!model.isUpdate() || executionContext.isWalApplication());
             final boolean canCompile = factory.supportsPageFrameCursor() && JitUtil.isJitSupported();
             if (useJit && canCompile) {
-                CompiledFilter compiledFilter = null;
-                try {
-                    int jitOptions;
-                    final ObjList<Function> bindVarFunctions = new ObjList<>();
-                    try (PageFrameCursor cursor = factory.getPageFrameCursor(executionContext, ORDER_ANY)) {
-                        final boolean forceScalar = executionContext.getJitMode() == SqlJitMode.JIT_MODE_FORCE_SCALAR;
-                        jitIRSerializer.of(jitIRMem, executionContext, factory.getMetadata(), cursor, bindVarFunctions);
-                        jitOptions = jitIRSerializer.serialize(filterExpr, forceScalar, enableJitDebug, enableJitNullChecks);
+                RecordCursorFactory jitFactory = generateJitFilter(factory, model, filter, filterExpr, filterExpr, executionContext);
+                if (jitFactory == null && configuration.isSqlJitPartialFilterEnabled()) {
+                    // The filter as a whole can't be compiled, e.g. due to predicates on var-size columns.
+                    // Compile the conjuncts supported by JIT and evaluate the full filter only over the rows
+                    // that pass the compiled part.
+                    final ExpressionNode jitFilterExpr = extractJitFilter(factory, filterExpr, executionContext);
+                    if (jitFilterExpr != null) {
+                        jitFactory = generateJitFilter(factory, model, filter, filterExpr, jitFilterExpr, executionContext);
                     }
-
-                    compiledFilter = new CompiledFilter();
-                    compiledFilter.compile(jitIRMem, jitOptions);
-
-                    final Function limitLoFunction = getLimitLoFunctionOnly(model, executionContext);
-                    final int limitLoPos = model.getLimitAdviceLo() != null ? model.getLimitAdviceLo().position : 0;
-
-                    LOG.info()
-                            .$("JIT enabled for (sub)query [tableName=").utf8(model.getName())
-                            .$(", fd=").$(executionContext.getRequestFd())
-                            .I$();
-                    return new AsyncJitFilteredRecordCursorFactory(
-                            configuration,
-                            executionContext.getMessageBus(),
-                            factory,
-                            bindVarFunctions,
-                            compiledFilter,
-                            filter,
-                            reduceTaskFactory,
-                            compileWorkerFilterConditionally(
-                                    executionContext,
-                                    filter,
-                                    executionContext.getSharedWorkerCount(),
-                                    filterExpr,
-                                    factory.getMetadata()
-                            ),
-                            limitLoFunction,
-                            limitLoPos,
-                            preTouchColumns,
-                            executionContext.getSharedWorkerCount()
-                    );
-                } catch (SqlException | LimitOverflowException ex) {
-                    Misc.free(compiledFilter);
-                    LOG.debug()
-                            .$("JIT cannot be applied to (sub)query [tableName=").utf8(model.getName())
-                            .$(", ex=").$(ex.getFlyweightMessage())
-                            .$(", fd=").$(executionContext.getRequestFd()).$(']').$();
-                } finally {
-                    jitIRSerializer.clear();
-                    jitIRMem.truncate();
+                }
+                if (jitFactory != null) {
+                    return jitFactory;
                 }
             }
 
@@ -1780,7 +2100,8 @@ public class SqlCodeGenerator implements Mutable, Closeable {
                         limitLoFunction,
                         limitLoPos,
                         preTouchColumns,
-                        executionContext.getSharedWorkerCount()
+                        executionContext.getSharedWorkerCount(),
+                        generateZoneMapFilter(factory.getMetadata(), filterExpr)
                 );
             } catch (Throwable e) {
                 Misc.free(filter);
@@ -1792,6 +2113,7 @@ public class SqlCodeGenerator implements Mutable, Closeable {
     }
 
     private RecordCursorFactory generateFunctionQuery(QueryModel model, SqlExecutionContext executionContext) throws SqlException {
+        cursorFunctionUsed = true;
         final RecordCursorFactory tableFactory = model.getTableNameFunction();
         if (tableFactory != null) {
             // We're transferring ownership of the tableFactory's factory to another factory
@@ -1851,6 +2173,79 @@ public class SqlCodeGenerator implements Mutable, Closeable {
         return unionAllFactory;
     }
 
+    @Nullable
+    private RecordCursorFactory generateJitFilter(
+            RecordCursorFactory factory,
+            QueryModel model,
+            Function filter,
+            ExpressionNode filterExpr,
+            ExpressionNode jitFilterExpr,
+            SqlExecutionContext executionContext
+    ) throws SqlException {
+        CompiledFilter compiledFilter = null;
+        try {
+            int jitOptions;
+            final ObjList<Function> bindVarFunctions = new ObjList<>();
+            try (PageFrameCursor cursor = factory.getPageFrameCursor(executionContext, ORDER_ANY)) {
+                final boolean forceScalar = executionContext.getJitMode() == SqlJitMode.JIT_MODE_FORCE_SCALAR;
+                jitIRSerializer.of(jitIRMem, executionContext, factory.getMetadata(), cursor, bindVarFunctions);
+                jitOptions = jitIRSerializer.serialize(jitFilterExpr, forceScalar, enableJitDebug, enableJitNullChecks);
+            }
+
+            compiledFilter = new CompiledFilter();
+            compiledFilter.compile(jitIRMem, jitOptions);
+
+            final Function limitLoFunction = getLimitLoFunctionOnly(model, executionContext);
+            final int limitLoPos = model.getLimitAdviceLo() != null ? model.getLimitAdviceLo().position : 0;
+
+            final boolean partial = jitFilterExpr != filterExpr;
+            String jitFilterText = null;
+            if (partial) {
+                final StringSink sink = Misc.getThreadLocalSink();
+                jitFilterExpr.toSink(sink);
+                jitFilterText = sink.toString();
+            }
+            LOG.info()
+                    .$("JIT enabled for (sub)query [tableName=").utf8(model.getName())
+                    .$(", partial=").$(partial)
+                    .$(", fd=").$(executionContext.getRequestFd())
+                    .I$();
+            return new AsyncJitFilteredRecordCursorFactory(
+                    configuration,
+                    executionContext.getMessageBus(),
+                    factory,
+                    bindVarFunctions,
+                    compiledFilter,
+                    jitFilterText,
+                    filter,
+                    reduceTaskFactory,
+                    compileWorkerFilterConditionally(
+                            executionContext,
+                            filter,
+                            executionContext.getSharedWorkerCount(),
+                            filterExpr,
+                            factory.getMetadata()
+                    ),
+                    limitLoFunction,
+                    limitLoPos,
+                    configuration.isSqlParallelFilterPreTouchEnabled(),
+                    executionContext.getSharedWorkerCount(),
+                    // without null checks compiled filters compare null sentinels as values
+                    enableJitNullChecks ? generateZoneMapFilter(factory.getMetadata(), filterExpr) : null
+            );
+        } catch (SqlException | LimitOverflowException ex) {
+            Misc.free(compiledFilter);
+            LOG.debug()
+                    .$("JIT cannot be applied to (sub)query [tableName=").utf8(model.getName())
+                    .$(", ex=").$(ex.getFlyweightMessage())
+                    .$(", fd=").$(executionContext.getRequestFd()).$(']').$();
+            return null;
+        } finally {
+            jitIRSerializer.clear();
+            jitIRMem.truncate();
+        }
+    }
+
     private RecordCursorFactory generateJoins(QueryModel model, SqlExecutionContext executionContext) throws SqlException {
         final ObjList<QueryModel> joinModels = model.getJoinModels();
         IntList ordered = model.getOrderedJoinModels();
@@ -2114,7 +2509,8 @@ public class SqlCodeGenerator implements Mutable, Closeable {
                                         slave,
                                         joinType,
                                         filter,
-                                        slaveModel.getContext()
+                                        slaveModel.getContext(),
+                                        executionContext
                                 );
                                 masterAlias = null;
                                 break;
@@ -2157,7 +2553,8 @@ public class SqlCodeGenerator implements Mutable, Closeable {
                                 null,
                                 0,
                                 false,
-                                executionContext.getSharedWorkerCount()
+                                executionContext.getSharedWorkerCount(),
+                                null
                         );
                     } else {
                         master = new FilteredRecordCursorFactory(
@@ -2208,7 +2605,8 @@ public class SqlCodeGenerator implements Mutable, Closeable {
                                 null,
                                 0,
                                 false,
-                                executionContext.getSharedWorkerCount()
+                                executionContext.getSharedWorkerCount(),
+                                null
                         );
                     } else {
                         master = new FilteredRecordCursorFactory(master, filter);
@@ -2673,6 +3071,9 @@ public class SqlCodeGenerator implements Mutable, Closeable {
                     if (canSortAndLimitBeOptimized(model, executionContext, loFunc, hiFunc)) {
                         model.setLimitImplemented(true);
                         int baseCursorTimestampIndex = preSortedByTs ? timestampIndex : -1;
+                        if (baseCursorTimestampIndex == -1 && configuration.isSqlParallelTopKEnabled()) {
+                            recordCursorFactory = generateTopK(recordCursorFactory, model, loFunc, hiFunc, executionContext);
+                        }
                         return new LimitedSizeSortedLightRecordCursorFactory(
                                 configuration,
                                 orderedMetadata,
@@ -2698,6 +3099,25 @@ public class SqlCodeGenerator implements Mutable, Closeable {
                 // we have to copy entire record into ordered structure
 
                 entityColumnFilter.of(orderedMetadata.getColumnCount());
+                if (configuration.isSqlParallelSortEnabled()) {
+                    final int workerCount = executionContext.getSharedWorkerCount();
+                    return new ParallelSortedRecordCursorFactory(
+                            configuration,
+                            executionContext.getMessageBus(),
+                            orderedMetadata,
+                            recordCursorFactory,
+                            RecordSinkFactory.getInstance(
+                                    asm,
+                                    orderedMetadata,
+                                    entityColumnFilter,
+                                    false
+                            ),
+                            recordComparatorCompiler.compile(metadata, listColumnFilterA),
+                            compileWorkerComparators(metadata, listColumnFilterA, workerCount),
+                            listColumnFilterA.copy(),
+                            workerCount
+                    );
+                }
                 return new SortedRecordCursorFactory(
                         configuration,
                         orderedMetadata,
@@ -2730,21 +3150,24 @@ public class SqlCodeGenerator implements Mutable, Closeable {
 
     private RecordCursorFactory generateQuery0(QueryModel model, SqlExecutionContext executionContext, boolean processJoins) throws SqlException {
         return generateLimit(
-                generateOrderBy(
-                        generateLatestBy(
-                                generateFilter(
-                                        generateSelect(
+                generateFill(
+                        generateOrderBy(
+                                generateLatestBy(
+                                        generateFilter(
+                                                generateSelect(
+                                                        model,
+                                                        executionContext,
+                                                        processJoins
+                                                ),
                                                 model,
-                                                executionContext,
-                                                processJoins
+                                                executionContext
                                         ),
-                                        model,
-                                        executionContext
+                                        model
                                 ),
-                                model
+                                model,
+                                executionContext
                         ),
-                        model,
-                        executionContext
+                        model
                 ),
                 model,
                 executionContext
@@ -3169,6 +3592,7 @@ public class SqlCodeGenerator implements Mutable, Closeable {
             case QueryModel.SELECT_MODEL_CURSOR:
                 return generateSelectCursor(model, executionContext);
             case QueryModel.SELECT_MODEL_SHOW:
+                cursorFunctionUsed = true;
                 return model.getTableNameFunction();
             default:
                 if (model.getJoinModels().size() > 1 && processJoins) {
@@ -3369,6 +3793,9 @@ public class SqlCodeGenerator implements Mutable, Closeable {
         ) {
             CharSequence tableName = tableNameEn.token;
             TableToken tableToken = executionContext.getTableToken(tableName);
+            if (!readTableTokens.contains(tableToken)) {
+                readTableTokens.add(tableToken);
+            }
             try (TableReader reader = executionContext.getReader(tableToken)) {
                 QueryColumn queryColumn = nested.getBottomUpColumns().get(0);
                 CharSequence physicalColumnName = queryColumn.getAst().token;
@@ -3528,7 +3955,7 @@ public class SqlCodeGenerator implements Mutable, Closeable {
                 for (int i = 0, n = tempKeyIndex.size(); i < n; i++) {
                     final int indexInThis = tempKeyIndex.getQuick(i);
                     final int indexInBase = tempKeyIndexesInBase.getQuick(i);
-                    final int type = arrayColumnTypes.getColumnType(i);
+                    final int type = specialCaseKeys ? arrayColumnTypes.getColumnType(i) : metadata.getColumnType(indexInBase);
 
                     if (ColumnType.isSymbol(type)) {
                         meta.add(
@@ -3585,7 +4012,23 @@ public class SqlCodeGenerator implements Mutable, Closeable {
                     );
                 }
 
-                if (tempKeyIndexesInBase.size() == 1) {
+                final int keyCount = tempKeyIndexesInBase.size();
+                final boolean isSymbolPair = keyCount == 2
+                        && ColumnType.isSymbol(arrayColumnTypes.getColumnType(0))
+                        && ColumnType.isSymbol(arrayColumnTypes.getColumnType(1));
+                final boolean isLongKey = keyCount == 1
+                        && !specialCaseKeys
+                        && ColumnType.tagOf(metadata.getColumnType(tempKeyIndexesInBase.getQuick(0))) == ColumnType.LONG;
+                if (
+                        (keyCount == 1 && !isLongKey)
+                                || ((isLongKey || isSymbolPair) && isVectorKeyEncodingAllowed(factory, metadata, executionContext))
+                ) {
+                    if (keyCount == 2) {
+                        // pair of symbol keys is encoded to a single INT key
+                        arrayColumnTypes.clear();
+                        arrayColumnTypes.add(ColumnType.INT);
+                    }
+
                     for (int i = 0, n = tempVaf.size(); i < n; i++) {
                         tempVaf.getQuick(i).pushValueTypes(arrayColumnTypes);
                     }
@@ -3596,12 +4039,14 @@ public class SqlCodeGenerator implements Mutable, Closeable {
                         countFunction.pushValueTypes(arrayColumnTypes);
                         tempVaf.add(countFunction);
 
-                        tempSymbolSkewIndexes.clear();
-                        tempSymbolSkewIndexes.add(0);
+                        if (keyCount == 1) {
+                            tempSymbolSkewIndexes.clear();
+                            tempSymbolSkewIndexes.add(0);
+                        }
                     }
 
                     try {
-                        GroupByUtils.validateGroupByColumns(sqlNodeStack, model, 1);
+                        GroupByUtils.validateGroupByColumns(sqlNodeStack, model, keyCount);
                     } catch (Throwable e) {
                         Misc.freeObjList(tempVaf);
                         throw e;
@@ -3614,8 +4059,8 @@ public class SqlCodeGenerator implements Mutable, Closeable {
                             arrayColumnTypes,
                             executionContext.getSharedWorkerCount(),
                             tempVaf,
-                            tempKeyIndexesInBase.getQuick(0),
-                            tempKeyIndex.getQuick(0),
+                            tempKeyIndexesInBase,
+                            tempKeyIndex,
                             tempSymbolSkewIndexes
                     );
                 }
@@ -3992,6 +4437,10 @@ public class SqlCodeGenerator implements Mutable, Closeable {
         ObjList<Function> functions = new ObjList<>();
         ObjList<WindowFunction> naturalOrderFunctions = null;
         ObjList<Function> partitionByFunctions = null;
+        ObjList<WindowChunk> workerWindowChunks = null;
+        ObjList<Function> chunkKeyFunctions = null;
+        ArrayColumnTypes chunkKeyTypes = null;
+        RecordSink chunkKeySink = null;
         try {
             // if all window function don't require sorting or more than one pass then use streaming factory
             boolean isFastPath = true;
@@ -4001,7 +4450,7 @@ public class SqlCodeGenerator implements Mutable, Closeable {
                 if (qc.isWindowColumn()) {
                     final WindowColumn ac = (WindowColumn) qc;
                     final ExpressionNode ast = qc.getAst();
-                    if (ast.paramCount > 1) {
+                    if (ast.paramCount > 3) {
                         throw SqlException.$(ast.position, "too many arguments");
                     }
 
@@ -4227,52 +4676,22 @@ public class SqlCodeGenerator implements Mutable, Closeable {
             // window columns recursively
 
             deferredWindowMetadata.clear();
+            // window functions are computed by worker threads, one subset of partitions per worker,
+            // when all of them share the same partition by clause
+            final int workerCount = executionContext.getSharedWorkerCount();
+            boolean parallel = configuration.isSqlParallelWindowEnabled() && workerCount > 1;
+            WindowColumn firstWindowColumn = null;
+            final ObjList<IntList> windowOrders = new ObjList<>();
+            final IntList windowScanDirections = new IntList();
             for (int i = 0; i < columnCount; i++) {
                 final QueryColumn qc = columns.getQuick(i);
                 if (qc.isWindowColumn()) {
                     final WindowColumn ac = (WindowColumn) qc;
                     final ExpressionNode ast = qc.getAst();
-                    if (ast.paramCount > 1) {
+                    if (ast.paramCount > 3) {
                         throw SqlException.$(ast.position, "too many arguments");
                     }
 
-                    partitionByFunctions = null;
-                    int psz = ac.getPartitionBy().size();
-                    if (psz > 0) {
-                        partitionByFunctions = new ObjList<>(psz);
-                        for (int j = 0; j < psz; j++) {
-                            final Function function = functionParser.parseFunction(ac.getPartitionBy().getQuick(j), chainMetadata, executionContext);
-                            partitionByFunctions.add(function);
-                            if (function instanceof GroupByFunction) {
-                                throw SqlException.$(ast.position, "aggregate functions in partition by are not supported");
-                            }
-                        }
-                    }
-
-                    final VirtualRecord partitionByRecord;
-                    final RecordSink partitionBySink;
-
-                    if (partitionByFunctions != null) {
-                        partitionByRecord = new VirtualRecord(partitionByFunctions);
-                        keyTypes.clear();
-                        final int partitionByCount = partitionByFunctions.size();
-
-                        for (int j = 0; j < partitionByCount; j++) {
-                            keyTypes.add(partitionByFunctions.getQuick(j).getType());
-                        }
-                        entityColumnFilter.of(partitionByCount);
-                        // create sink
-                        partitionBySink = RecordSinkFactory.getInstance(
-                                asm,
-                                keyTypes,
-                                entityColumnFilter,
-                                false
-                        );
-                    } else {
-                        partitionByRecord = null;
-                        partitionBySink = null;
-                    }
-
                     final int osz = ac.getOrderBy().size();
 
                     // analyze order by clause on the current model and optimise out
@@ -4280,7 +4699,6 @@ public class SqlCodeGenerator implements Mutable, Closeable {
                     final LowerCaseCharSequenceIntHashMap orderHash = model.getOrderHash();
                     boolean dismissOrder = false;
                     int timestampIdx = base.getMetadata().getTimestampIndex();
-                    int orderByPos = osz > 0 ? ac.getOrderBy().getQuick(0).position : -1;
 
                     if (base.followedOrderByAdvice() && osz > 0 && orderHash.size() > 0) {
                         dismissOrder = true;
@@ -4305,39 +4723,18 @@ public class SqlCodeGenerator implements Mutable, Closeable {
                         }
                     }
 
-                    executionContext.configureWindowContext(
-                            partitionByRecord,
-                            partitionBySink,
-                            keyTypes,
-                            osz > 0,
-                            dismissOrder ? base.getScanDirection() : RecordCursorFactory.SCAN_DIRECTION_OTHER,
-                            orderByPos,
+                    final int scanDirection = dismissOrder ? base.getScanDirection() : RecordCursorFactory.SCAN_DIRECTION_OTHER;
+                    final WindowFunction windowFunction = compileWindowFunction(
+                            ac,
+                            chainMetadata,
+                            scanDirection,
                             base.recordCursorSupportsRandomAccess(),
-                            ac.getFramingMode(),
-                            ac.getRowsLo(),
-                            ac.getRowsLoKindPos(),
-                            ac.getRowsHi(),
-                            ac.getRowsHiKindPos(),
-                            ac.getExclusionKind(),
-                            ac.getExclusionKindPos(),
-                            chainMetadata.getTimestampIndex()
+                            executionContext
                     );
-                    final Function f;
-                    try {
-                        // function needs to resolve args against chain metadata
-                        f = functionParser.parseFunction(ast, chainMetadata, executionContext);
-                        if (!(f instanceof WindowFunction)) {
-                            Misc.free(f);
-                            throw SqlException.$(ast.position, "non-window function called in window context");
-                        }
-                    } finally {
-                        executionContext.clearWindowContext();
-                    }
-
-                    WindowFunction windowFunction = (WindowFunction) f;
 
+                    IntList order = null;
                     if (osz > 0 && !dismissOrder) {
-                        IntList order = toOrderIndices(chainMetadata, ac.getOrderBy(), ac.getOrderByDirection());
+                        order = toOrderIndices(chainMetadata, ac.getOrderBy(), ac.getOrderByDirection());
                         // init comparator if we need
                         windowFunction.initRecordComparator(recordComparatorCompiler, chainTypes, order);
                         ObjList<WindowFunction> funcs = groupedWindow.get(order);
@@ -4352,6 +4749,15 @@ public class SqlCodeGenerator implements Mutable, Closeable {
                         naturalOrderFunctions.add(windowFunction);
                     }
 
+                    if (parallel) {
+                        if (firstWindowColumn == null) {
+                            firstWindowColumn = ac;
+                        }
+                        parallel = isParallelWindowSupported(chainMetadata, firstWindowColumn, ac, order);
+                    }
+                    windowOrders.extendAndSet(i, order);
+                    windowScanDirections.extendAndSet(i, scanDirection);
+
                     windowFunction.setColumnIndex(i);
 
                     deferredWindowMetadata.extendAndSet(i, new TableColumnMetadata(
@@ -4385,6 +4791,79 @@ public class SqlCodeGenerator implements Mutable, Closeable {
                 keys.add(e.key);
             }
 
+            if (parallel) {
+                // window functions write into the chain and read any column of it,
+                // so columns read through shared memory views are not supported
+                for (int i = 0, n = chainTypes.getColumnCount(); i < n; i++) {
+                    final int type = chainTypes.getColumnType(i);
+                    if (ColumnType.isVarSize(type) || ColumnType.tagOf(type) == ColumnType.LONG256) {
+                        parallel = false;
+                        break;
+                    }
+                }
+            }
+
+            int chunkColumnIndex = -1;
+            if (parallel) {
+                workerWindowChunks = new ObjList<>(workerCount);
+                for (int w = 0; w < workerCount; w++) {
+                    final ObjList<ObjList<WindowFunction>> workerGroups = new ObjList<>(keys.size());
+                    for (int g = 0, n = keys.size(); g < n; g++) {
+                        workerGroups.add(new ObjList<>());
+                    }
+                    ObjList<WindowFunction> workerNaturalOrderFunctions = null;
+                    try {
+                        for (int i = 0; i < columnCount; i++) {
+                            final QueryColumn qc = columns.getQuick(i);
+                            if (qc.isWindowColumn()) {
+                                final WindowFunction windowFunction = compileWindowFunction(
+                                        (WindowColumn) qc,
+                                        chainMetadata,
+                                        windowScanDirections.getQuick(i),
+                                        base.recordCursorSupportsRandomAccess(),
+                                        executionContext
+                                );
+                                windowFunction.setColumnIndex(i);
+                                final IntList order = windowOrders.getQuick(i);
+                                if (order != null) {
+                                    windowFunction.initRecordComparator(recordComparatorCompiler, chainTypes, order);
+                                    workerGroups.getQuick(keys.indexOf(order)).add(windowFunction);
+                                } else {
+                                    if (workerNaturalOrderFunctions == null) {
+                                        workerNaturalOrderFunctions = new ObjList<>();
+                                    }
+                                    workerNaturalOrderFunctions.add(windowFunction);
+                                }
+                            }
+                        }
+                    } catch (Throwable th) {
+                        for (int g = 0, n = workerGroups.size(); g < n; g++) {
+                            Misc.freeObjList(workerGroups.getQuick(g));
+                        }
+                        Misc.freeObjList(workerNaturalOrderFunctions);
+                        throw th;
+                    }
+                    workerWindowChunks.add(new WindowChunk(configuration, workerGroups, workerNaturalOrderFunctions));
+                }
+
+                // partition keys are hashed on the query thread to assign partitions to chunks
+                final ObjList<ExpressionNode> partitionBy = firstWindowColumn.getPartitionBy();
+                chunkKeyFunctions = new ObjList<>(partitionBy.size());
+                chunkKeyTypes = new ArrayColumnTypes();
+                for (int j = 0, n = partitionBy.size(); j < n; j++) {
+                    final Function function = functionParser.parseFunction(partitionBy.getQuick(j), chainMetadata, executionContext);
+                    chunkKeyFunctions.add(function);
+                    chunkKeyTypes.add(function.getType());
+                }
+                entityColumnFilter.of(chunkKeyFunctions.size());
+                chunkKeySink = RecordSinkFactory.getInstance(asm, chunkKeyTypes, entityColumnFilter, false);
+
+                // chunk index of each row is kept in an extra chain column, which is not copied by the sink
+                chunkColumnIndex = chainTypes.getColumnCount();
+                chainTypes.add(chunkColumnIndex, ColumnType.INT);
+                listColumnFilterA.extendAndSet(chunkColumnIndex, -chunkColumnIndex - 1);
+            }
+
             final RecordSink recordSink = RecordSinkFactory.getInstance(
                     asm,
                     chainTypes,
@@ -4404,7 +4883,13 @@ public class SqlCodeGenerator implements Mutable, Closeable {
                     naturalOrderFunctions,
                     columnIndexes,
                     keys,
-                    chainMetadata
+                    chainMetadata,
+                    parallel ? executionContext.getMessageBus() : null,
+                    workerWindowChunks,
+                    chunkKeyFunctions,
+                    chunkKeySink,
+                    chunkKeyTypes,
+                    chunkColumnIndex
             );
         } catch (Throwable th) {
             for (ObjObjHashMap.Entry<IntList, ObjList<WindowFunction>> e : groupedWindow) {
@@ -4414,6 +4899,8 @@ public class SqlCodeGenerator implements Mutable, Closeable {
             Misc.freeObjList(functions);
             Misc.freeObjList(naturalOrderFunctions);
             Misc.freeObjList(partitionByFunctions);
+            Misc.freeObjList(workerWindowChunks);
+            Misc.freeObjList(chunkKeyFunctions);
             throw th;
         }
     }
@@ -4593,6 +5080,9 @@ public class SqlCodeGenerator implements Mutable, Closeable {
         }
 
         final TableToken tableToken = executionContext.getTableToken(tab);
+        if (!readTableTokens.contains(tableToken)) {
+            readTableTokens.add(tableToken);
+        }
         if (model.isUpdate() && !executionContext.isWalApplication() && executionContext.getCairoEngine().isWalTable(tableToken)) {
             // two phase update execution, this is client-side branch. It has to execute against the sequencer metadata
             // to allow the client to succeed even if WAL apply does not run.
@@ -5105,6 +5595,10 @@ public class SqlCodeGenerator implements Mutable, Closeable {
                 rowFactory = new DataFrameRowCursorFactory();
             }
 
+            if (intrinsicModel.bloomFilterColumn != null && configuration.isBloomFilterEnabled()) {
+                dfcFactory = generateBloomFilterDataFrameCursorFactory(dfcFactory, intrinsicModel, metadata, executionContext);
+            }
+
             model.setWhereClause(intrinsicModel.filter);
             return new DataFrameRecordCursorFactory(
                     configuration,
@@ -5214,6 +5708,96 @@ public class SqlCodeGenerator implements Mutable, Closeable {
         );
     }
 
+    /**
+     * Wraps the base factory of ORDER BY + LIMIT into a factory that selects top K candidate
+     * rows of each page frame in parallel. The final top K is still selected by the caller.
+     * Returns the factory as is when it supports neither page frames, nor filter stealing.
+     */
+    private RecordCursorFactory generateTopK(
+            RecordCursorFactory factory,
+            QueryModel model,
+            Function loFunc,
+            Function hiFunc,
+            SqlExecutionContext executionContext
+    ) throws SqlException {
+        final RecordMetadata metadata = factory.getMetadata();
+        if (hasSymbolSortKey(metadata, listColumnFilterA)) {
+            // symbol comparison goes through symbol tables, which are not thread-safe
+            return factory;
+        }
+
+        CompiledFilter compiledFilter = null;
+        MemoryCARW bindVarMemory = null;
+        ObjList<Function> bindVarFunctions = null;
+        Function filter = null;
+        ObjList<Function> workerFilters = null;
+        ExpressionNode filterExpr = null;
+        final int workerCount = executionContext.getSharedWorkerCount();
+        if (!factory.supportsPageFrameCursor()) {
+            if (!(factory instanceof StealableFilterRecordCursorFactory)) {
+                return factory;
+            }
+            final StealableFilterRecordCursorFactory filterFactory = (StealableFilterRecordCursorFactory) factory;
+            if (!filterFactory.supportsFilterStealing()) {
+                return factory;
+            }
+            if (!filterFactory.getFilter().isReadThreadSafe()) {
+                // per-worker filters are compiled from the where clause of the table model
+                QueryModel tableModel = model;
+                while (tableModel.getTableNameExpr() == null) {
+                    if (tableModel.getJoinModels().size() > 1 || tableModel.getUnionModel() != null) {
+                        return factory;
+                    }
+                    tableModel = tableModel.getNestedModel();
+                    if (tableModel == null) {
+                        return factory;
+                    }
+                }
+                QueryModel.restoreWhereClause(expressionNodePool, tableModel);
+                filterExpr = tableModel.getWhereClause();
+                if (filterExpr == null) {
+                    return factory;
+                }
+            }
+            factory = factory.getBaseFactory();
+            assert factory.supportsPageFrameCursor();
+            compiledFilter = filterFactory.getCompiledFilter();
+            bindVarMemory = filterFactory.getBindVarMemory();
+            bindVarFunctions = filterFactory.getBindVarFunctions();
+            filter = filterFactory.getFilter();
+            filterFactory.halfClose();
+            workerFilters = compileWorkerFilterConditionally(
+                    executionContext,
+                    filter,
+                    workerCount,
+                    filterExpr,
+                    metadata
+            );
+        }
+
+        final ObjList<RecordComparator> workerComparators = new ObjList<>(workerCount);
+        for (int i = 0; i < workerCount; i++) {
+            workerComparators.add(recordComparatorCompiler.compile(metadata, listColumnFilterA));
+        }
+        return new AsyncTopKRecordCursorFactory(
+                configuration,
+                executionContext.getMessageBus(),
+                factory,
+                recordComparatorCompiler.compile(metadata, listColumnFilterA),
+                workerComparators,
+                listColumnFilterA.copy(),
+                loFunc,
+                hiFunc,
+                compiledFilter,
+                bindVarMemory,
+                bindVarFunctions,
+                filter,
+                reduceTaskFactory,
+                workerFilters,
+                workerCount
+        );
+    }
+
     private RecordCursorFactory generateUnionAllFactory(
             QueryModel model,
             SqlExecutionContext executionContext,
@@ -5284,6 +5868,104 @@ public class SqlCodeGenerator implements Mutable, Closeable {
         return unionFactory;
     }
 
+    /**
+     * Collects "column op constant" conjuncts of the filter that can be checked against zone maps.
+     *
+     * @return null when zone maps are disabled or the filter has no such conjuncts
+     */
+    @Nullable
+    private ZoneMapFilter generateZoneMapFilter(RecordMetadata metadata, ExpressionNode filterExpr) {
+        if (!configuration.isZoneMapEnabled()) {
+            return null;
+        }
+        ZoneMapFilter zoneMapFilter = null;
+        sqlNodeStack.clear();
+        sqlNodeStack.push(filterExpr);
+        while (!sqlNodeStack.isEmpty()) {
+            final ExpressionNode node = sqlNodeStack.pop();
+            if (node.type != OPERATION || node.paramCount != 2) {
+                continue;
+            }
+            if (isAndKeyword(node.token)) {
+                sqlNodeStack.push(node.rhs);
+                sqlNodeStack.push(node.lhs);
+                continue;
+            }
+            int op = ZoneMapFilter.getOperator(node.token);
+            if (op == -1) {
+                continue;
+            }
+            ExpressionNode constantNode = node.rhs;
+            int columnIndex = node.lhs.type == LITERAL ? metadata.getColumnIndexQuiet(node.lhs.token) : -1;
+            if (columnIndex == -1 && node.rhs.type == LITERAL) {
+                constantNode = node.lhs;
+                columnIndex = metadata.getColumnIndexQuiet(node.rhs.token);
+                op = ZoneMapFilter.flipOperator(op);
+            }
+            if (columnIndex == -1) {
+                continue;
+            }
+            final int columnType = metadata.getColumnType(columnIndex);
+            if (!ZoneMapUtils.isSupported(columnType)) {
+                continue;
+            }
+
+            boolean negative = false;
+            if (constantNode.type == OPERATION && constantNode.paramCount == 1 && Chars.equals(constantNode.token, '-')) {
+                negative = true;
+                constantNode = constantNode.rhs;
+            }
+            if (constantNode == null || constantNode.type != CONSTANT) {
+                continue;
+            }
+            final CharSequence token = constantNode.token;
+            if (isNullKeyword(token)) {
+                if (!negative) {
+                    if (zoneMapFilter == null) {
+                        zoneMapFilter = new ZoneMapFilter(configuration);
+                    }
+                    zoneMapFilter.addNullPredicate(columnIndex, op);
+                }
+                continue;
+            }
+            // typed literals, such as 1.5f, compare differently to their double value
+            if (token.length() == 0 || !Character.isDigit(token.charAt(token.length() - 1))) {
+                continue;
+            }
+            final int columnTag = ColumnType.tagOf(columnType);
+            if (columnTag != ColumnType.DOUBLE) {
+                try {
+                    final long value = negative ? -Numbers.parseLong(token) : Numbers.parseLong(token);
+                    // null sentinels compare as nulls
+                    if (value != Numbers.LONG_NULL && value != Numbers.INT_NULL) {
+                        if (zoneMapFilter == null) {
+                            zoneMapFilter = new ZoneMapFilter(configuration);
+                        }
+                        zoneMapFilter.addLongPredicate(columnIndex, op, value);
+                    }
+                    continue;
+                } catch (NumericException ignore) {
+                }
+                // out of range integers may be null sentinels
+                if (columnTag == ColumnType.TIMESTAMP || Chars.indexOf(token, '.') == -1) {
+                    continue;
+                }
+            }
+            try {
+                final double value = Numbers.parseDouble(token);
+                if (Numbers.isNull(value)) {
+                    continue;
+                }
+                if (zoneMapFilter == null) {
+                    zoneMapFilter = new ZoneMapFilter(configuration);
+                }
+                zoneMapFilter.addDoublePredicate(columnIndex, op, negative ? -value : value);
+            } catch (NumericException ignore) {
+            }
+        }
+        return zoneMapFilter;
+    }
+
     @Nullable
     private Function getHiFunction(QueryModel model, SqlExecutionContext executionContext) throws SqlException {
         return toLimitFunction(executionContext, model.getLimitHi(), null);
@@ -5370,6 +6052,56 @@ public class SqlCodeGenerator implements Mutable, Closeable {
                 getOrderByDirectionOrDefault(model, 0) == ORDER_DIRECTION_DESCENDING;
     }
 
+    private boolean isParallelHashJoinSupported(RecordCursorFactory master, RecordCursorFactory slave) {
+        // Both sides are scanned as page frames: the slave one to build the hash table, the master one to probe it.
+        if (!configuration.isSqlParallelHashJoinEnabled() || !master.supportsPageFrameCursor() || !slave.supportsPageFrameCursor()) {
+            return false;
+        }
+        // Symbol keys are resolved to strings via shared symbol tables
+        // which are not safe to access from multiple worker threads.
+        final RecordMetadata masterMetadata = master.getMetadata();
+        for (int i = 0, n = listColumnFilterB.getColumnCount(); i < n; i++) {
+            if (ColumnType.isSymbol(masterMetadata.getColumnType(listColumnFilterB.getColumnIndexFactored(i)))) {
+                return false;
+            }
+        }
+        final RecordMetadata slaveMetadata = slave.getMetadata();
+        for (int i = 0, n = listColumnFilterA.getColumnCount(); i < n; i++) {
+            if (ColumnType.isSymbol(slaveMetadata.getColumnType(listColumnFilterA.getColumnIndexFactored(i)))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean isVectorKeyEncodingAllowed(RecordCursorFactory factory, RecordMetadata metadata, SqlExecutionContext executionContext) {
+        // LONG keys and pairs of SYMBOL keys are encoded to INT keys for rosti at run time. The encoding
+        // may need a dictionary of distinct keys, so it's only used when the table can't hold too many of them.
+        // Row count and symbol counts are the upper bound of the number of distinct keys.
+        final long maxCardinality = configuration.getGroupByVectorKeyEncodingMaxCardinality();
+        final TableToken tableToken = factory.getTableToken();
+        if (maxCardinality < 1 || tableToken == null) {
+            return false;
+        }
+        try (TableReader reader = executionContext.getReader(tableToken)) {
+            long cardinality = reader.size();
+            if (tempKeyIndexesInBase.size() == 2) {
+                long pairCount = 1;
+                for (int i = 0; i < 2; i++) {
+                    final CharSequence columnName = metadata.getColumnName(tempKeyIndexesInBase.getQuick(i));
+                    final int readerColumnIndex = reader.getMetadata().getColumnIndexQuiet(columnName);
+                    if (readerColumnIndex < 0) {
+                        return false;
+                    }
+                    // 1 accounts for null
+                    pairCount *= reader.getSymbolMapReader(readerColumnIndex).getSymbolCount() + 1L;
+                }
+                cardinality = Math.min(cardinality, pairCount);
+            }
+            return cardinality <= maxCardinality;
+        }
+    }
+
     private void lookupColumnIndexes(
             ListColumnFilter filter,
             ObjList<ExpressionNode> columnNames,
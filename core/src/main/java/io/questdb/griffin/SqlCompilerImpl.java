@@ -36,6 +36,7 @@ import io.questdb.cairo.vm.api.MemoryMARW;
 import io.questdb.cairo.wal.WalUtils;
 import io.questdb.cairo.wal.WalWriterMetadata;
 import io.questdb.griffin.engine.QueryProgress;
+import io.questdb.griffin.engine.ResultCacheRecordCursorFactory;
 import io.questdb.griffin.engine.ops.*;
 import io.questdb.griffin.model.*;
 import io.questdb.log.Log;
@@ -548,7 +549,7 @@ public class SqlCompilerImpl implements SqlCompiler, Closeable, SqlParserCallbac
         final SecurityContext securityContext = executionContext.getSecurityContext();
 
         try (TableRecordMetadata tableMetadata = executionContext.getMetadataForWrite(tableToken)) {
-            final String expectedTokenDescription = "'add', 'alter', 'attach', 'detach', 'drop', 'resume', 'rename', 'set' or 'squash'";
+            final String expectedTokenDescription = "'add', 'alter', 'attach', 'compress', 'detach', 'drop', 'resume', 'rename', 'set' or 'squash'";
             tok = expectToken(lexer, expectedTokenDescription);
 
             if (SqlKeywords.isAddKeyword(tok)) {
@@ -579,6 +580,14 @@ public class SqlCompilerImpl implements SqlCompiler, Closeable, SqlParserCallbac
                 } else {
                     throw SqlException.$(lexer.lastTokenPosition(), "'partition' expected");
                 }
+            } else if (SqlKeywords.isCompressKeyword(tok)) {
+                tok = expectToken(lexer, "'partition'");
+                if (SqlKeywords.isPartitionKeyword(tok)) {
+                    securityContext.authorizeAlterTableDropPartition(tableToken);
+                    alterTableDropDetachOrAttachPartition(tableMetadata, tableToken, PartitionAction.COMPRESS, executionContext);
+                } else {
+                    throw SqlException.$(lexer.lastTokenPosition(), "'partition' expected");
+                }
             } else if (SqlKeywords.isDetachKeyword(tok)) {
                 tok = expectToken(lexer, "'partition'");
                 if (SqlKeywords.isPartitionKeyword(tok)) {
@@ -683,7 +692,7 @@ public class SqlCompilerImpl implements SqlCompiler, Closeable, SqlParserCallbac
                     throw SqlException.$(lexer.lastTokenPosition(), "'column' or 'partition' expected");
                 }
             } else if (SqlKeywords.isSetKeyword(tok)) {
-                tok = expectToken(lexer, "'param' or 'type'");
+                tok = expectToken(lexer, "'param', 'type' or 'wal'");
                 if (SqlKeywords.isParamKeyword(tok)) {
                     final int paramNamePosition = lexer.getPosition();
                     tok = expectToken(lexer, "param name");
@@ -709,8 +718,20 @@ public class SqlCompilerImpl implements SqlCompiler, Closeable, SqlParserCallbac
                     } else {
                         throw SqlException.$(lexer.lastTokenPosition(), "'bypass' or 'wal' expected");
                     }
+                } else if (SqlKeywords.isWalKeyword(tok)) {
+                    tok = expectToken(lexer, "'priority'");
+                    if (!SqlKeywords.isPriorityKeyword(tok)) {
+                        throw SqlException.$(lexer.lastTokenPosition(), "'priority' expected");
+                    }
+                    final int priorityPosition = lexer.getPosition();
+                    tok = expectToken(lexer, "priority value");
+                    if (!engine.isWalTable(tableToken)) {
+                        throw SqlException.$(tableNamePosition, tableToken.getTableName()).put(" is not a WAL table.");
+                    }
+                    securityContext.authorizeAlterTableSetWalPriority(tableToken);
+                    alterTableSetWalPriority(tok, priorityPosition, tableToken, tableNamePosition);
                 } else {
-                    throw SqlException.$(lexer.lastTokenPosition(), "'param' or 'type' expected");
+                    throw SqlException.$(lexer.lastTokenPosition(), "'param', 'type' or 'wal' expected");
                 }
             } else if (SqlKeywords.isResumeKeyword(tok)) {
                 tok = expectToken(lexer, "'wal'");
@@ -1118,8 +1139,11 @@ public class SqlCompilerImpl implements SqlCompiler, Closeable, SqlParserCallbac
                     case PartitionAction.DETACH:
                         alterOperationBuilder = this.alterOperationBuilder.ofDetachPartition(pos, tableToken, tableMetadata.getTableId());
                         break;
+                    case PartitionAction.COMPRESS:
+                        alterOperationBuilder = this.alterOperationBuilder.ofCompressPartition(pos, tableToken, tableMetadata.getTableId());
+                        break;
                     default:
-                        throw SqlException.$(pos, "WHERE clause can only be used with command DROP PARTITION, or DETACH PARTITION");
+                        throw SqlException.$(pos, "WHERE clause can only be used with command DROP PARTITION, DETACH PARTITION or COMPRESS PARTITION");
                 }
 
                 final int functionPosition = lexer.getPosition();
@@ -1180,6 +1204,9 @@ public class SqlCompilerImpl implements SqlCompiler, Closeable, SqlParserCallbac
                 // attach
                 alterOperationBuilder = this.alterOperationBuilder.ofAttachPartition(pos, tableToken, tableMetadata.getTableId());
                 break;
+            case PartitionAction.COMPRESS:
+                alterOperationBuilder = this.alterOperationBuilder.ofCompressPartition(pos, tableToken, tableMetadata.getTableId());
+                break;
             default:
                 alterOperationBuilder = null;
                 assert false;
@@ -1354,6 +1381,25 @@ public class SqlCompilerImpl implements SqlCompiler, Closeable, SqlParserCallbac
         }
     }
 
+    private void alterTableSetWalPriority(CharSequence value, int valuePosition, TableToken tableToken, int tableNamePosition) throws SqlException {
+        final int priority;
+        try {
+            priority = Numbers.parseInt(value);
+        } catch (NumericException e) {
+            throw SqlException.$(valuePosition, "invalid value [value=").put(value).put(']');
+        }
+        if (priority < 0 || priority > WalUtils.WAL_PRIORITY_MAX) {
+            throw SqlException.$(valuePosition, "WAL priority must be between 0 and ").put(WalUtils.WAL_PRIORITY_MAX);
+        }
+        try {
+            engine.getTableSequencerAPI().setWalPriority(tableToken, priority);
+            compiledQuery.ofTableSetWalPriority();
+        } catch (CairoException e) {
+            e.position(tableNamePosition);
+            throw e;
+        }
+    }
+
     private CharSequence authorizeInsertForCopy(SecurityContext securityContext, CopyModel model) {
         final CharSequence tableName = GenericLexer.unquote(model.getTarget().token);
         final TableToken tt = engine.getTableTokenIfExists(tableName);
@@ -2218,6 +2264,34 @@ public class SqlCompilerImpl implements SqlCompiler, Closeable, SqlParserCallbac
         }
     }
 
+    private RecordCursorFactory generateResultCacheFactory(RecordCursorFactory factory) {
+        final RecordMetadata metadata = factory.getMetadata();
+        if (!ResultCacheRecordCursorFactory.isCacheable(metadata)) {
+            return factory;
+        }
+        try {
+            // symbols are cached as strings
+            final ArrayColumnTypes chainColumnTypes = new ArrayColumnTypes();
+            for (int i = 0, n = metadata.getColumnCount(); i < n; i++) {
+                final int columnType = metadata.getColumnType(i);
+                chainColumnTypes.add(ColumnType.isSymbol(columnType) ? ColumnType.STRING : columnType);
+            }
+            entityColumnFilter.of(metadata.getColumnCount());
+            return new ResultCacheRecordCursorFactory(
+                    configuration,
+                    engine.getQueryResultCache(),
+                    sqlText,
+                    codeGenerator.getReadTableTokens(),
+                    factory,
+                    chainColumnTypes,
+                    RecordSinkFactory.getInstance(asm, metadata, entityColumnFilter, true)
+            );
+        } catch (Throwable th) {
+            Misc.free(factory);
+            throw th;
+        }
+    }
+
     private UpdateOperation generateUpdate(QueryModel updateQueryModel, SqlExecutionContext executionContext, TableRecordMetadata metadata) throws SqlException {
         TableToken updateTableToken = updateQueryModel.getUpdateTableToken();
         final QueryModel selectQueryModel = updateQueryModel.getNestedModel();
@@ -3011,8 +3085,18 @@ public class SqlCompilerImpl implements SqlCompiler, Closeable, SqlParserCallbac
             SqlExecutionContext executionContext,
             boolean isSelect
     ) throws SqlException {
+        final long randomUseCount = executionContext.getRandomUseCount();
         RecordCursorFactory factory = codeGenerator.generate(selectQueryModel, executionContext);
         if (isSelect) {
+            // functions may take the random generator when they are created, whether their
+            // factories are known to be non-deterministic or not
+            if (
+                    configuration.isSqlResultCacheEnabled()
+                            && codeGenerator.isResultCacheable()
+                            && executionContext.getRandomUseCount() == randomUseCount
+            ) {
+                factory = generateResultCacheFactory(factory);
+            }
             return new QueryProgress(queryRegistry, sqlText, factory);
         } else {
             return factory;
@@ -3141,6 +3225,7 @@ public class SqlCompilerImpl implements SqlCompiler, Closeable, SqlParserCallbac
 
     public final static class PartitionAction {
         public static final int ATTACH = 2;
+        public static final int COMPRESS = 4;
         public static final int DETACH = 3;
         public static final int DROP = 1;
     }
@@ -118,6 +118,13 @@ public interface SqlExecutionContext extends Closeable {
 
     Rnd getRandom();
 
+    /**
+     * @return number of {@link #getRandom()} calls made so far. Functions use the random generator
+     * to produce different values on each execution, so a change of the count means that query
+     * results are not defined by the data alone.
+     */
+    long getRandomUseCount();
+
     default TableReader getReader(TableToken tableName, long version) {
         return getCairoEngine().getReader(tableName, version);
     }
@@ -66,6 +66,7 @@ public class SqlExecutionContextImpl implements SqlExecutionContext {
     private final MicrosecondClock nowClock = () -> now;
     private boolean parallelFilterEnabled;
     private Rnd random;
+    private long randomUseCount;
     private int requestFd = -1;
     private SecurityContext securityContext;
     private boolean useSimpleCircuitBreaker;
@@ -190,9 +191,15 @@ public class SqlExecutionContextImpl implements SqlExecutionContext {
 
     @Override
     public Rnd getRandom() {
+        randomUseCount++;
         return random != null ? random : SharedRandom.getRandom(cairoConfiguration);
     }
 
+    @Override
+    public long getRandomUseCount() {
+        return randomUseCount;
+    }
+
     @Override
     public int getRequestFd() {
         return requestFd;
@@ -2251,6 +2251,40 @@ public class SqlOptimiser implements Mutable {
         return false;
     }
 
+    private boolean isFillSupportedByGroupBy(QueryModel model, QueryModel nested, ObjList<ExpressionNode> sampleByFill) {
+        // fill stage requires group-by output to be sorted by timestamp
+        if (nested.getOrderBy().size() > 0) {
+            return false;
+        }
+
+        boolean linear = false;
+        for (int i = 0, n = sampleByFill.size(); i < n; i++) {
+            final ExpressionNode fillNode = sampleByFill.getQuick(i);
+            if (SqlKeywords.isLinearKeyword(fillNode.token)) {
+                linear = true;
+            } else if (
+                    fillNode.type != CONSTANT
+                            && !SqlKeywords.isNullKeyword(fillNode.token)
+                            && !SqlKeywords.isPrevKeyword(fillNode.token)
+            ) {
+                return false;
+            }
+        }
+
+        if (linear) {
+            // linear interpolation is supported for non-keyed queries only
+            final CharSequence timestamp = nested.getTimestamp().token;
+            final ObjList<QueryColumn> columns = model.getBottomUpColumns();
+            for (int i = 0, n = columns.size(); i < n; i++) {
+                final ExpressionNode ast = columns.getQuick(i).getAst();
+                if (!hasAggregates(ast) && !nonAggregateFunctionDependsOn(ast, timestamp)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
     private boolean hasAggregates(ExpressionNode node) {
         sqlNodeStack.clear();
 
@@ -3068,7 +3102,10 @@ public class SqlOptimiser implements Mutable {
                 break;
             default:
                 // sub-query ordering is not needed, but we'd like to propagate order by advice (if possible)
-                model.getOrderBy().clear();
+                if (model.getFillStride() == null) {
+                    // the fill stage relies on timestamp order of the group-by output
+                    model.getOrderBy().clear();
+                }
                 if (model.getSampleBy() != null) {
                     orderByMnemonic = OrderByMnemonic.ORDER_BY_REQUIRED;
                 } else {
@@ -4415,8 +4452,15 @@ public class SqlOptimiser implements Mutable {
     /**
      * Recursive. Replaces "sample by" models with group-by. Not all forms of "sample by"
      * can be implemented via this method. Therefore, the rewrite avoids the following:
-     * - fills
+     * - fills, unless parallel "sample by" is enabled
+     * - time zones and offsets, unless parallel "sample by" is enabled
      * - custom non-wall-clock alignments
+     * <p>
+     * When parallel "sample by" is enabled, fills are implemented by the fill stage that
+     * runs over the sorted group-by output. The fill details are kept on the group-by model,
+     * see {@link QueryModel#getFillStride()}. Keyed linear interpolation and fills combined
+     * with custom order by are not supported by the fill stage and keep using the sample-by
+     * implementation.
      *
      * @param model the input model, it is expected to be very early in optimisation process
      *              the typical sample by model consists of two objects, the outer one with the
@@ -4441,12 +4485,23 @@ public class SqlOptimiser implements Mutable {
             ExpressionNode sampleByUnit = nested.getSampleByUnit();
             ExpressionNode timestamp = nested.getTimestamp();
 
+            final boolean isFillNone = sampleByFill.size() == 0 || (sampleByFill.size() == 1 && SqlKeywords.isNoneKeyword(sampleByFill.getQuick(0).token));
+            final boolean isUTC = sampleByTimezoneName == null || SqlKeywords.isUTC(sampleByTimezoneName.token);
             if (
                     sampleBy != null
                             && timestamp != null
-                            && (sampleByOffset != null && SqlKeywords.isZeroOffset(sampleByOffset.token) && (sampleByTimezoneName == null || SqlKeywords.isUTC(sampleByTimezoneName.token)))
-                            && (sampleByFill.size() == 0 || (sampleByFill.size() == 1 && SqlKeywords.isNoneKeyword(sampleByFill.getQuick(0).token)))
+                            && sampleByOffset != null
                             && sampleByUnit == null
+                            && (
+                            (SqlKeywords.isZeroOffset(sampleByOffset.token) && isUTC && isFillNone)
+                                    || (
+                                    configuration.isSqlParallelSampleByEnabled()
+                                            && sampleByOffset.type == CONSTANT
+                                            && Chars.isQuoted(sampleByOffset.token)
+                                            && (sampleByTimezoneName == null || (sampleByTimezoneName.type == CONSTANT && Chars.isQuoted(sampleByTimezoneName.token)))
+                                            && (isFillNone || isFillSupportedByGroupBy(model, nested, sampleByFill))
+                            )
+                    )
             ) {
                 // Validate that the model does not have wildcard column names.
                 // Using wildcard in group-by expression makes SQL ambiguous and
@@ -4583,7 +4638,6 @@ public class SqlOptimiser implements Mutable {
                 // create function ast
                 final ExpressionNode timestampFunc = expressionNodePool.next();
                 timestampFunc.token = "timestamp_floor";
-                timestampFunc.paramCount = 2;
                 timestampFunc.type = FUNCTION;
 
                 CharacterStoreEntry characterStoreEntry = characterStore.newEntry();
@@ -4600,8 +4654,22 @@ public class SqlOptimiser implements Mutable {
                 rhs.paramCount = 0;
                 rhs.type = LITERAL;
 
-                timestampFunc.lhs = lhs;
-                timestampFunc.rhs = rhs;
+                if (SqlKeywords.isZeroOffset(sampleByOffset.token) && isUTC) {
+                    timestampFunc.paramCount = 2;
+                    timestampFunc.lhs = lhs;
+                    timestampFunc.rhs = rhs;
+                } else {
+                    // timestamp_floor(stride, ts, offset, timezone), args are stored in reverse order
+                    timestampFunc.paramCount = 4;
+                    timestampFunc.args.add(
+                            sampleByTimezoneName != null
+                                    ? sampleByTimezoneName
+                                    : SqlUtil.nextConstant(expressionNodePool, "null", sampleBy.position)
+                    );
+                    timestampFunc.args.add(sampleByOffset);
+                    timestampFunc.args.add(rhs);
+                    timestampFunc.args.add(lhs);
+                }
 
                 model.getBottomUpColumns().setQuick(
                         timestampPos,
@@ -4624,9 +4692,16 @@ public class SqlOptimiser implements Mutable {
                     nested.setTimestamp(nextLiteral(timestamp.token));
                 }
 
+                if (!isFillNone) {
+                    // gaps are filled after group-by rows are sorted by timestamp
+                    nested.setFill(sampleBy, sampleByOffset, sampleByTimezoneName, nextLiteral(timestampAlias), sampleByFill);
+                }
+
                 // clear sample by
                 nested.setSampleBy(null);
                 nested.setSampleByOffset(null);
+                nested.setSampleByTimezoneName(null);
+                nested.getSampleByFill().clear();
 
                 if ((wrapAction & SAMPLE_BY_REWRITE_WRAP_ADD_TIMESTAMP_COPIES) != 0) {
                     model = wrapWithSelectModel(model, tempList, insetColumnAliases, timestampAlias);
@@ -4750,6 +4825,11 @@ public class SqlOptimiser implements Mutable {
             groupByModel.moveSampleByFrom(baseModel);
         }
 
+        if (baseModel.getFillStride() != null) {
+            // "sample by" was rewritten to "group by", but the fill is still pending
+            groupByModel.moveFillFrom(baseModel);
+        }
+
         if (baseModel.getGroupBy().size() > 0) {
             groupByModel.moveGroupByFrom(baseModel);
             useGroupByModel = true; // group by should be implemented even if there are no aggregate functions
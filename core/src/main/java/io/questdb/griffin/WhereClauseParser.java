@@ -24,6 +24,7 @@
 
 package io.questdb.griffin;
 
+import io.questdb.cairo.BloomFilterUtils;
 import io.questdb.cairo.ColumnType;
 import io.questdb.cairo.GeoHashes;
 import io.questdb.cairo.SymbolMapReader;
@@ -363,6 +364,40 @@ public final class WhereClauseParser implements Mutable {
         return false;
     }
 
+    /**
+     * Remembers values of the first equality or IN list predicate on a column with Bloom filters.
+     * The predicate is not removed from the filter.
+     */
+    private void analyzeBloomFilterValues(AliasTranslator translator, IntrinsicModel model, ExpressionNode node, RecordMetadata m) {
+        if (model.bloomFilterColumn != null || node.paramCount < 2) {
+            return;
+        }
+        final ExpressionNode col;
+        if (node.paramCount > 2) {
+            // IN list, the column is the last argument
+            col = node.args.getLast();
+            if (!isBloomFilterColumn(translator, col, m)) {
+                return;
+            }
+            for (int i = 0, n = node.paramCount - 1; i < n; i++) {
+                if (!isBloomFilterValue(node.args.getQuick(i))) {
+                    model.bloomFilterValueNodes.clear();
+                    return;
+                }
+                model.bloomFilterValueNodes.add(node.args.getQuick(i));
+            }
+        } else if (isBloomFilterColumn(translator, node.lhs, m) && isBloomFilterValue(node.rhs)) {
+            col = node.lhs;
+            model.bloomFilterValueNodes.add(node.rhs);
+        } else if (!isInKeyword(node.token) && isBloomFilterColumn(translator, node.rhs, m) && isBloomFilterValue(node.lhs)) {
+            col = node.rhs;
+            model.bloomFilterValueNodes.add(node.lhs);
+        } else {
+            return;
+        }
+        model.bloomFilterColumn = translator.translateAlias(col.token);
+    }
+
     private boolean analyzeEquals(
             AliasTranslator translator,
             IntrinsicModel model,
@@ -1690,6 +1725,18 @@ public final class WhereClauseParser implements Mutable {
 
     }
 
+    private boolean isBloomFilterColumn(AliasTranslator translator, ExpressionNode node, RecordMetadata m) {
+        if (node == null || node.type != ExpressionNode.LITERAL) {
+            return false;
+        }
+        final int index = m.getColumnIndexQuiet(translator.translateAlias(node.token));
+        return index > -1 && BloomFilterUtils.isSupported(m.getColumnType(index));
+    }
+
+    private boolean isBloomFilterValue(ExpressionNode node) {
+        return node != null && ((node.type == ExpressionNode.CONSTANT && !isNullKeyword(node.token)) || isFunc(node));
+    }
+
     private boolean isGeoHashConstFunction(Function fn) {
         return (fn instanceof AbstractGeoHashFunction) && fn.isConstant();
     }
@@ -1861,7 +1908,11 @@ public final class WhereClauseParser implements Mutable {
     ) throws SqlException {
         switch (intrinsicOps.get(node.token)) {
             case INTRINSIC_OP_IN:
-                return analyzeIn(translator, model, node, m, functionParser, executionContext, latestByMultiColumn, reader);
+                if (analyzeIn(translator, model, node, m, functionParser, executionContext, latestByMultiColumn, reader)) {
+                    return true;
+                }
+                analyzeBloomFilterValues(translator, model, node, m);
+                return false;
             case INTRINSIC_OP_GREATER_EQ:
                 return analyzeGreater(model, node, true, functionParser, metadata, executionContext);
             case INTRINSIC_OP_GREATER:
@@ -1871,7 +1922,11 @@ public final class WhereClauseParser implements Mutable {
             case INTRINSIC_OP_LESS:
                 return analyzeLess(model, node, false, functionParser, metadata, executionContext);
             case INTRINSIC_OP_EQUAL:
-                return analyzeEquals(translator, model, node, m, functionParser, executionContext, latestByMultiColumn, reader);
+                if (analyzeEquals(translator, model, node, m, functionParser, executionContext, latestByMultiColumn, reader)) {
+                    return true;
+                }
+                analyzeBloomFilterValues(translator, model, node, m);
+                return false;
             case INTRINSIC_OP_NOT_EQ:
                 return analyzeNotEquals(translator, model, node, m, functionParser, executionContext, latestByMultiColumn, reader);
             case INTRINSIC_OP_NOT:
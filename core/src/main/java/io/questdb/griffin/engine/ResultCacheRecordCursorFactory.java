@@ -0,0 +1,526 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin.engine;
+
+import io.questdb.cairo.*;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.*;
+import io.questdb.cairo.sql.async.PageFrameSequence;
+import io.questdb.griffin.PlanSink;
+import io.questdb.griffin.QueryResultCache;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.mp.SCSequence;
+import io.questdb.std.*;
+import io.questdb.std.str.StringSink;
+import io.questdb.std.str.Utf8Sequence;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Serves the query result from the engine-wide {@link QueryResultCache} when none of the tables
+ * read by the query has moved to another transaction since the result was cached. Otherwise,
+ * the base cursor is executed and its rows are appended to a {@link RecordChain} as they are
+ * returned to the caller. Once the cursor is exhausted, the chain is copied into the cache.
+ * <p>
+ * Symbols are cached as strings, so the cached result does not depend on symbol tables.
+ * <p>
+ * Results are not cached once the query is seen to take the random generator from the execution
+ * context, while the cursor is opened or iterated. This covers functions whose factories do not
+ * report themselves as {@link io.questdb.griffin.FunctionFactory#isNonDeterministic() non-deterministic}.
+ */
+public class ResultCacheRecordCursorFactory extends AbstractRecordCursorFactory {
+    private final RecordCursorFactory base;
+    private final QueryResultCache cache;
+    private final RecordChain chain;
+    private final ResultCacheRecordCursor cursor;
+    private final StringSink key = new StringSink();
+    private final int maxRows;
+    private final String sqlText;
+    private final ObjList<TableToken> tableTokens;
+    private final LongList tableVersions = new LongList();
+    private boolean isNonDeterministic;
+
+    public ResultCacheRecordCursorFactory(
+            CairoConfiguration configuration,
+            QueryResultCache cache,
+            CharSequence sqlText,
+            @Transient ObjList<TableToken> tableTokens,
+            RecordCursorFactory base,
+            @Transient ColumnTypes chainColumnTypes,
+            RecordSink recordSink
+    ) {
+        super(base.getMetadata());
+        try {
+            this.base = base;
+            this.cache = cache;
+            this.sqlText = Chars.toString(sqlText);
+            this.tableTokens = new ObjList<>(tableTokens);
+            this.maxRows = configuration.getSqlResultCacheMaxRows();
+            this.chain = new RecordChain(
+                    chainColumnTypes,
+                    recordSink,
+                    configuration.getSqlSortValuePageSize(),
+                    configuration.getSqlSortValueMaxPages()
+            );
+            this.cursor = new ResultCacheRecordCursor();
+        } catch (Throwable th) {
+            close();
+            throw th;
+        }
+    }
+
+    /**
+     * Checks whether all column types can be stored in a {@link RecordChain}.
+     */
+    public static boolean isCacheable(RecordMetadata metadata) {
+        for (int i = 0, n = metadata.getColumnCount(); i < n; i++) {
+            switch (ColumnType.tagOf(metadata.getColumnType(i))) {
+                case ColumnType.BOOLEAN:
+                case ColumnType.BYTE:
+                case ColumnType.SHORT:
+                case ColumnType.CHAR:
+                case ColumnType.INT:
+                case ColumnType.IPv4:
+                case ColumnType.LONG:
+                case ColumnType.DATE:
+                case ColumnType.TIMESTAMP:
+                case ColumnType.FLOAT:
+                case ColumnType.DOUBLE:
+                case ColumnType.STRING:
+                case ColumnType.SYMBOL:
+                case ColumnType.VARCHAR:
+                case ColumnType.BINARY:
+                case ColumnType.LONG256:
+                case ColumnType.GEOBYTE:
+                case ColumnType.GEOSHORT:
+                case ColumnType.GEOINT:
+                case ColumnType.GEOLONG:
+                case ColumnType.LONG128:
+                case ColumnType.UUID:
+                    break;
+                default:
+                    return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public PageFrameSequence<?> execute(SqlExecutionContext executionContext, SCSequence collectSubSeq, int order) throws SqlException {
+        return base.execute(executionContext, collectSubSeq, order);
+    }
+
+    @Override
+    public boolean followedLimitAdvice() {
+        return base.followedLimitAdvice();
+    }
+
+    @Override
+    public boolean followedOrderByAdvice() {
+        return base.followedOrderByAdvice();
+    }
+
+    @Override
+    public boolean fragmentedSymbolTables() {
+        return base.fragmentedSymbolTables();
+    }
+
+    @Override
+    public String getBaseColumnName(int idx) {
+        return base.getBaseColumnName(idx);
+    }
+
+    @Override
+    public String getBaseColumnNameNoRemap(int idx) {
+        return base.getBaseColumnNameNoRemap(idx);
+    }
+
+    @Override
+    public RecordCursorFactory getBaseFactory() {
+        return base;
+    }
+
+    @Override
+    public RecordCursor getCursor(SqlExecutionContext executionContext) throws SqlException {
+        cursor.close();
+        if (isNonDeterministic || !buildKey(executionContext) || !readTableVersions(executionContext)) {
+            cursor.ofBase(base.getCursor(executionContext), null, 0);
+            return cursor;
+        }
+
+        final QueryResultCache.Entry entry = cache.acquire(key, tableVersions);
+        if (entry != null) {
+            try {
+                if (entry.getSize() > 0) {
+                    chain.putBlock(entry.getAddress(), entry.getSize());
+                }
+                cursor.ofCached(entry.getRowCount());
+            } finally {
+                cache.release(entry);
+            }
+            return cursor;
+        }
+        // functions may take the random generator when the cursor is opened
+        final long randomUseCount = executionContext.getRandomUseCount();
+        final RecordCursor baseCursor = base.getCursor(executionContext);
+        cursor.ofBase(baseCursor, executionContext, randomUseCount);
+        return cursor;
+    }
+
+    @Override
+    public PageFrameCursor getPageFrameCursor(SqlExecutionContext executionContext, int order) throws SqlException {
+        return base.getPageFrameCursor(executionContext, order);
+    }
+
+    @Override
+    public int getScanDirection() {
+        return base.getScanDirection();
+    }
+
+    @Override
+    public TableToken getTableToken() {
+        return base.getTableToken();
+    }
+
+    @Override
+    public TimeFrameRecordCursor getTimeFrameCursor(SqlExecutionContext executionContext) throws SqlException {
+        return base.getTimeFrameCursor(executionContext);
+    }
+
+    @Override
+    public boolean implementsLimit() {
+        return base.implementsLimit();
+    }
+
+    @Override
+    public boolean recordCursorSupportsRandomAccess() {
+        return base.recordCursorSupportsRandomAccess();
+    }
+
+    @Override
+    public boolean supportsPageFrameCursor() {
+        return base.supportsPageFrameCursor();
+    }
+
+    @Override
+    public boolean supportsTimeFrameCursor() {
+        return base.supportsTimeFrameCursor();
+    }
+
+    @Override
+    public boolean supportsUpdateRowId(TableToken tableName) {
+        return base.supportsUpdateRowId(tableName);
+    }
+
+    @Override
+    public void toPlan(PlanSink sink) {
+        base.toPlan(sink);
+    }
+
+    @Override
+    public boolean usesCompiledFilter() {
+        return base.usesCompiledFilter();
+    }
+
+    private static boolean putBindVariable(StringSink sink, Function function) {
+        if (function == null) {
+            sink.put("undefined");
+            return true;
+        }
+        final int type = function.getType();
+        sink.put(type).put(':');
+        switch (ColumnType.tagOf(type)) {
+            case ColumnType.BOOLEAN:
+                sink.put(function.getBool(null));
+                break;
+            case ColumnType.BYTE:
+                sink.put(function.getByte(null));
+                break;
+            case ColumnType.SHORT:
+                sink.put(function.getShort(null));
+                break;
+            case ColumnType.CHAR:
+                sink.put((int) function.getChar(null));
+                break;
+            case ColumnType.INT:
+                sink.put(function.getInt(null));
+                break;
+            case ColumnType.IPv4:
+                sink.put(function.getIPv4(null));
+                break;
+            case ColumnType.LONG:
+                sink.put(function.getLong(null));
+                break;
+            case ColumnType.DATE:
+                sink.put(function.getDate(null));
+                break;
+            case ColumnType.TIMESTAMP:
+                sink.put(function.getTimestamp(null));
+                break;
+            case ColumnType.FLOAT:
+                sink.put(Float.floatToIntBits(function.getFloat(null)));
+                break;
+            case ColumnType.DOUBLE:
+                sink.put(Double.doubleToLongBits(function.getDouble(null)));
+                break;
+            case ColumnType.GEOBYTE:
+                sink.put(function.getGeoByte(null));
+                break;
+            case ColumnType.GEOSHORT:
+                sink.put(function.getGeoShort(null));
+                break;
+            case ColumnType.GEOINT:
+                sink.put(function.getGeoInt(null));
+                break;
+            case ColumnType.GEOLONG:
+                sink.put(function.getGeoLong(null));
+                break;
+            case ColumnType.UUID:
+                sink.put(function.getLong128Lo(null)).put(',').put(function.getLong128Hi(null));
+                break;
+            case ColumnType.STRING:
+                putLengthPrefixed(sink, function.getStrA(null));
+                break;
+            case ColumnType.VARCHAR:
+                final Utf8Sequence value = function.getVarcharA(null);
+                if (value == null) {
+                    sink.put(-1);
+                } else {
+                    sink.put(value.size()).put(':').put(value);
+                }
+                break;
+            default:
+                return false;
+        }
+        return true;
+    }
+
+    private static void putLengthPrefixed(StringSink sink, CharSequence value) {
+        if (value == null) {
+            sink.put(-1);
+        } else {
+            sink.put(value.length()).put(':').put(value);
+        }
+    }
+
+    private boolean buildKey(SqlExecutionContext executionContext) {
+        key.clear();
+        putLengthPrefixed(key, sqlText);
+        putLengthPrefixed(key, executionContext.getSecurityContext().getPrincipal());
+        final BindVariableService bindVariableService = executionContext.getBindVariableService();
+        if (bindVariableService == null) {
+            return true;
+        }
+        for (int i = 0, n = bindVariableService.getIndexedVariableCount(); i < n; i++) {
+            key.put(';');
+            if (!putBindVariable(key, bindVariableService.getFunction(i))) {
+                return false;
+            }
+        }
+        final ObjList<CharSequence> names = bindVariableService.getNamedVariables();
+        for (int i = 0, n = names.size(); i < n; i++) {
+            final CharSequence name = names.getQuick(i);
+            key.put(';');
+            putLengthPrefixed(key, name);
+            key.put('=');
+            if (!putBindVariable(key, bindVariableService.getFunction(name))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean readTableVersions(SqlExecutionContext executionContext) {
+        tableVersions.clear();
+        for (int i = 0, n = tableTokens.size(); i < n; i++) {
+            final TableToken tableToken = tableTokens.getQuick(i);
+            try (TableReader reader = executionContext.getReader(tableToken)) {
+                tableVersions.add(tableToken.getTableId());
+                tableVersions.add(reader.getTxn());
+                tableVersions.add(reader.getMetadataVersion());
+            } catch (CairoException e) {
+                // let the base factory report the error
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    protected void _close() {
+        Misc.free(cursor);
+        Misc.free(chain);
+        Misc.free(base);
+    }
+
+    private class ResultCacheRecordCursor implements RecordCursor {
+        private RecordCursor baseCursor;
+        private boolean cached;
+        private SqlExecutionContext executionContext;
+        private long prevRecordOffset;
+        private long randomUseCount;
+        private boolean recording;
+        private long rowCount;
+
+        @Override
+        public void calculateSize(SqlExecutionCircuitBreaker circuitBreaker, Counter counter) {
+            if (cached) {
+                chain.calculateSize(circuitBreaker, counter);
+            } else {
+                stopRecording();
+                baseCursor.calculateSize(circuitBreaker, counter);
+            }
+        }
+
+        @Override
+        public void close() {
+            baseCursor = Misc.free(baseCursor);
+            executionContext = null;
+            cached = false;
+            recording = false;
+            chain.clear();
+        }
+
+        @Override
+        public Record getRecord() {
+            return cached ? chain.getRecord() : baseCursor.getRecord();
+        }
+
+        @Override
+        public Record getRecordB() {
+            return cached ? chain.getRecordB() : baseCursor.getRecordB();
+        }
+
+        @Override
+        public SymbolTable getSymbolTable(int columnIndex) {
+            // cached symbols are strings
+            return cached ? null : baseCursor.getSymbolTable(columnIndex);
+        }
+
+        @Override
+        public boolean hasNext() throws DataUnavailableException {
+            if (cached) {
+                return chain.hasNext();
+            }
+            if (baseCursor.hasNext()) {
+                if (recording) {
+                    if (rowCount < maxRows && chain.getUsedHeapSize() < cache.getMemoryBudget()) {
+                        prevRecordOffset = chain.put(baseCursor.getRecord(), prevRecordOffset);
+                        rowCount++;
+                    } else {
+                        stopRecording();
+                    }
+                }
+                return true;
+            }
+            if (recording) {
+                recording = false;
+                if (executionContext.getRandomUseCount() == randomUseCount) {
+                    cache.put(key, tableVersions, chain.addressOf(0), chain.getUsedHeapSize(), rowCount);
+                } else {
+                    isNonDeterministic = true;
+                }
+                chain.clear();
+            }
+            return false;
+        }
+
+        @Override
+        public boolean isUsingIndex() {
+            return !cached && baseCursor.isUsingIndex();
+        }
+
+        @Override
+        public SymbolTable newSymbolTable(int columnIndex) {
+            return cached ? null : baseCursor.newSymbolTable(columnIndex);
+        }
+
+        @Override
+        public void recordAt(Record record, long atRowId) {
+            if (cached) {
+                chain.recordAt(record, atRowId);
+            } else {
+                baseCursor.recordAt(record, atRowId);
+            }
+        }
+
+        @Override
+        public long size() throws DataUnavailableException {
+            return cached ? rowCount : baseCursor.size();
+        }
+
+        @Override
+        public void skipRows(Counter rowCount) throws DataUnavailableException {
+            if (cached || recording) {
+                // skipped rows have to be recorded as well
+                RecordCursor.skipRows(this, rowCount);
+            } else {
+                baseCursor.skipRows(rowCount);
+            }
+        }
+
+        @Override
+        public void toTop() {
+            if (cached) {
+                chain.toTop();
+            } else {
+                baseCursor.toTop();
+                if (recording) {
+                    chain.clear();
+                    prevRecordOffset = -1;
+                    rowCount = 0;
+                }
+            }
+        }
+
+        /**
+         * @param executionContext context the base cursor was opened with, null when the rows must not be recorded
+         */
+        private void ofBase(RecordCursor baseCursor, @Nullable SqlExecutionContext executionContext, long randomUseCount) {
+            this.baseCursor = baseCursor;
+            this.executionContext = executionContext;
+            this.randomUseCount = randomUseCount;
+            this.cached = false;
+            this.recording = executionContext != null;
+            this.prevRecordOffset = -1;
+            this.rowCount = 0;
+        }
+
+        private void ofCached(long rowCount) {
+            this.cached = true;
+            this.recording = false;
+            this.rowCount = rowCount;
+            chain.toTop();
+        }
+
+        private void stopRecording() {
+            if (recording) {
+                recording = false;
+                chain.clear();
+            }
+        }
+    }
+}
@@ -25,12 +25,14 @@
 package io.questdb.griffin.engine.functions;
 
 import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.sql.PageFrameBatch;
 import io.questdb.cairo.sql.Record;
 import io.questdb.cairo.sql.RecordCursorFactory;
 import io.questdb.cairo.sql.ScalarFunction;
 import io.questdb.std.BinarySequence;
 import io.questdb.std.Long256;
 import io.questdb.std.Numbers;
+import io.questdb.std.Unsafe;
 import io.questdb.std.str.CharSink;
 import io.questdb.std.str.Utf16Sink;
 import io.questdb.std.str.Utf8Sequence;
@@ -74,6 +76,15 @@ public abstract class LongFunction implements ScalarFunction {
         return val != Numbers.LONG_NULL ? val : Double.NaN;
     }
 
+    @Override
+    public void getDoubleBatch(PageFrameBatch batch, long outAddr) {
+        getLongBatch(batch, outAddr);
+        for (long p = outAddr, lim = outAddr + ((long) batch.getRowCount() << 3); p < lim; p += Long.BYTES) {
+            final long val = Unsafe.getUnsafe().getLong(p);
+            Unsafe.getUnsafe().putDouble(p, val != Numbers.LONG_NULL ? val : Double.NaN);
+        }
+    }
+
     @Override
     public float getFloat(Record rec) {
         return Numbers.longToFloat(getLong(rec));
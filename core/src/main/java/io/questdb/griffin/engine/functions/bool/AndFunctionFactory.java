@@ -25,7 +25,9 @@
 package io.questdb.griffin.engine.functions.bool;
 
 import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.ColumnType;
 import io.questdb.cairo.sql.Function;
+import io.questdb.cairo.sql.PageFrameBatch;
 import io.questdb.cairo.sql.Record;
 import io.questdb.griffin.FunctionFactory;
 import io.questdb.griffin.PlanSink;
@@ -38,6 +40,7 @@ import io.questdb.griffin.engine.functions.constants.BooleanConstant;
 import io.questdb.std.IntList;
 import io.questdb.std.Misc;
 import io.questdb.std.ObjList;
+import io.questdb.std.Unsafe;
 
 public class AndFunctionFactory implements FunctionFactory {
 
@@ -89,6 +92,12 @@ public class AndFunctionFactory implements FunctionFactory {
         return new AndBooleanFunction(leftFunc, rightFunc);
     }
 
+    private static void and(long outAddr, long argAddr, int rowCount) {
+        for (int i = 0; i < rowCount; i++) {
+            Unsafe.getUnsafe().putByte(outAddr + i, (byte) (Unsafe.getUnsafe().getByte(outAddr + i) & Unsafe.getUnsafe().getByte(argAddr + i)));
+        }
+    }
+
     private static class AndBooleanFunction extends BooleanFunction implements BinaryFunction {
         final Function left;
         final Function right;
@@ -103,6 +112,18 @@ public class AndFunctionFactory implements FunctionFactory {
             return left.getBool(rec) && right.getBool(rec);
         }
 
+        @Override
+        public void getBoolBatch(PageFrameBatch batch, long outAddr) {
+            left.getBoolBatch(batch, outAddr);
+            final long argAddr = batch.acquireVector();
+            try {
+                right.getBoolBatch(batch, argAddr);
+                and(outAddr, argAddr, batch.getRowCount());
+            } finally {
+                batch.releaseVector();
+            }
+        }
+
         @Override
         public Function getLeft() {
             return left;
@@ -113,6 +134,13 @@ public class AndFunctionFactory implements FunctionFactory {
             return right;
         }
 
+        @Override
+        public boolean supportsBatch(int type) {
+            return type == ColumnType.BOOLEAN
+                    && left.supportsBatch(ColumnType.BOOLEAN)
+                    && right.supportsBatch(ColumnType.BOOLEAN);
+        }
+
         @Override
         public void toPlan(PlanSink sink) {
             sink.val('(');
@@ -141,6 +169,22 @@ public class AndFunctionFactory implements FunctionFactory {
             return func0.getBool(rec) && func1.getBool(rec) && func2.getBool(rec) && func3.getBool(rec);
         }
 
+        @Override
+        public void getBoolBatch(PageFrameBatch batch, long outAddr) {
+            func0.getBoolBatch(batch, outAddr);
+            final long argAddr = batch.acquireVector();
+            try {
+                func1.getBoolBatch(batch, argAddr);
+                and(outAddr, argAddr, batch.getRowCount());
+                func2.getBoolBatch(batch, argAddr);
+                and(outAddr, argAddr, batch.getRowCount());
+                func3.getBoolBatch(batch, argAddr);
+                and(outAddr, argAddr, batch.getRowCount());
+            } finally {
+                batch.releaseVector();
+            }
+        }
+
         @Override
         public Function getFunc0() {
             return func0;
@@ -161,6 +205,15 @@ public class AndFunctionFactory implements FunctionFactory {
             return func3;
         }
 
+        @Override
+        public boolean supportsBatch(int type) {
+            return type == ColumnType.BOOLEAN
+                    && func0.supportsBatch(ColumnType.BOOLEAN)
+                    && func1.supportsBatch(ColumnType.BOOLEAN)
+                    && func2.supportsBatch(ColumnType.BOOLEAN)
+                    && func3.supportsBatch(ColumnType.BOOLEAN);
+        }
+
         @Override
         public void toPlan(PlanSink sink) {
             sink.val('(');
@@ -191,6 +244,20 @@ public class AndFunctionFactory implements FunctionFactory {
             return left.getBool(rec) && center.getBool(rec) && right.getBool(rec);
         }
 
+        @Override
+        public void getBoolBatch(PageFrameBatch batch, long outAddr) {
+            left.getBoolBatch(batch, outAddr);
+            final long argAddr = batch.acquireVector();
+            try {
+                center.getBoolBatch(batch, argAddr);
+                and(outAddr, argAddr, batch.getRowCount());
+                right.getBoolBatch(batch, argAddr);
+                and(outAddr, argAddr, batch.getRowCount());
+            } finally {
+                batch.releaseVector();
+            }
+        }
+
         @Override
         public Function getCenter() {
             return center;
@@ -206,6 +273,14 @@ public class AndFunctionFactory implements FunctionFactory {
             return right;
         }
 
+        @Override
+        public boolean supportsBatch(int type) {
+            return type == ColumnType.BOOLEAN
+                    && left.supportsBatch(ColumnType.BOOLEAN)
+                    && center.supportsBatch(ColumnType.BOOLEAN)
+                    && right.supportsBatch(ColumnType.BOOLEAN);
+        }
+
         @Override
         public void toPlan(PlanSink sink) {
             sink.val('(');
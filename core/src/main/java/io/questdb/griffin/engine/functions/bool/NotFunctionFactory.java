@@ -25,7 +25,9 @@
 package io.questdb.griffin.engine.functions.bool;
 
 import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.ColumnType;
 import io.questdb.cairo.sql.Function;
+import io.questdb.cairo.sql.PageFrameBatch;
 import io.questdb.cairo.sql.Record;
 import io.questdb.griffin.FunctionFactory;
 import io.questdb.griffin.PlanSink;
@@ -34,6 +36,7 @@ import io.questdb.griffin.engine.functions.BooleanFunction;
 import io.questdb.griffin.engine.functions.UnaryFunction;
 import io.questdb.std.IntList;
 import io.questdb.std.ObjList;
+import io.questdb.std.Unsafe;
 
 public class NotFunctionFactory implements FunctionFactory {
     @Override
@@ -63,6 +66,19 @@ public class NotFunctionFactory implements FunctionFactory {
             return !arg.getBool(rec);
         }
 
+        @Override
+        public void getBoolBatch(PageFrameBatch batch, long outAddr) {
+            arg.getBoolBatch(batch, outAddr);
+            for (int i = 0, n = batch.getRowCount(); i < n; i++) {
+                Unsafe.getUnsafe().putByte(outAddr + i, (byte) (Unsafe.getUnsafe().getByte(outAddr + i) ^ 1));
+            }
+        }
+
+        @Override
+        public boolean supportsBatch(int type) {
+            return type == ColumnType.BOOLEAN && arg.supportsBatch(ColumnType.BOOLEAN);
+        }
+
         @Override
         public void toPlan(PlanSink sink) {
             sink.val("not (").val(arg).val(')');
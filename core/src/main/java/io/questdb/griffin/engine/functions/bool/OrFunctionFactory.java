@@ -25,7 +25,9 @@
 package io.questdb.griffin.engine.functions.bool;
 
 import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.ColumnType;
 import io.questdb.cairo.sql.Function;
+import io.questdb.cairo.sql.PageFrameBatch;
 import io.questdb.cairo.sql.Record;
 import io.questdb.griffin.FunctionFactory;
 import io.questdb.griffin.PlanSink;
@@ -36,6 +38,7 @@ import io.questdb.griffin.engine.functions.constants.BooleanConstant;
 import io.questdb.std.IntList;
 import io.questdb.std.Misc;
 import io.questdb.std.ObjList;
+import io.questdb.std.Unsafe;
 
 public class OrFunctionFactory implements FunctionFactory {
 
@@ -74,6 +77,12 @@ public class OrFunctionFactory implements FunctionFactory {
         return new MyBooleanFunction(leftFunc, rightFunc);
     }
 
+    private static void or(long outAddr, long argAddr, int rowCount) {
+        for (int i = 0; i < rowCount; i++) {
+            Unsafe.getUnsafe().putByte(outAddr + i, (byte) (Unsafe.getUnsafe().getByte(outAddr + i) | Unsafe.getUnsafe().getByte(argAddr + i)));
+        }
+    }
+
     private static class MyBooleanFunction extends BooleanFunction implements BinaryFunction {
         final Function left;
         final Function right;
@@ -88,6 +97,18 @@ public class OrFunctionFactory implements FunctionFactory {
             return left.getBool(rec) || right.getBool(rec);
         }
 
+        @Override
+        public void getBoolBatch(PageFrameBatch batch, long outAddr) {
+            left.getBoolBatch(batch, outAddr);
+            final long argAddr = batch.acquireVector();
+            try {
+                right.getBoolBatch(batch, argAddr);
+                or(outAddr, argAddr, batch.getRowCount());
+            } finally {
+                batch.releaseVector();
+            }
+        }
+
         @Override
         public Function getLeft() {
             return left;
@@ -98,6 +119,13 @@ public class OrFunctionFactory implements FunctionFactory {
             return right;
         }
 
+        @Override
+        public boolean supportsBatch(int type) {
+            return type == ColumnType.BOOLEAN
+                    && left.supportsBatch(ColumnType.BOOLEAN)
+                    && right.supportsBatch(ColumnType.BOOLEAN);
+        }
+
         @Override
         public void toPlan(PlanSink sink) {
             sink.val('(').val(left).val(" or ").val(right).val(')');
@@ -25,7 +25,9 @@
 package io.questdb.griffin.engine.functions.cast;
 
 import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.ColumnType;
 import io.questdb.cairo.sql.Function;
+import io.questdb.cairo.sql.PageFrameBatch;
 import io.questdb.cairo.sql.Record;
 import io.questdb.griffin.FunctionFactory;
 import io.questdb.griffin.SqlExecutionContext;
@@ -54,5 +56,15 @@ public class CastIntToDoubleFunctionFactory implements FunctionFactory {
             final int value = arg.getInt(rec);
             return value != Numbers.INT_NULL ? value : Double.NaN;
         }
+
+        @Override
+        public void getDoubleBatch(PageFrameBatch batch, long outAddr) {
+            arg.getDoubleBatch(batch, outAddr);
+        }
+
+        @Override
+        public boolean supportsBatch(int type) {
+            return type == ColumnType.DOUBLE && arg.supportsBatch(ColumnType.DOUBLE);
+        }
     }
 }
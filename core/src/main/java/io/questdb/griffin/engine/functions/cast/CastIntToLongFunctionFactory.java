@@ -25,7 +25,9 @@
 package io.questdb.griffin.engine.functions.cast;
 
 import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.ColumnType;
 import io.questdb.cairo.sql.Function;
+import io.questdb.cairo.sql.PageFrameBatch;
 import io.questdb.cairo.sql.Record;
 import io.questdb.griffin.FunctionFactory;
 import io.questdb.griffin.SqlExecutionContext;
@@ -54,5 +56,15 @@ public class CastIntToLongFunctionFactory implements FunctionFactory {
             final int value = arg.getInt(rec);
             return value != Numbers.INT_NULL ? value : Numbers.LONG_NULL;
         }
+
+        @Override
+        public void getLongBatch(PageFrameBatch batch, long outAddr) {
+            arg.getLongBatch(batch, outAddr);
+        }
+
+        @Override
+        public boolean supportsBatch(int type) {
+            return (type == ColumnType.LONG || type == ColumnType.DOUBLE) && arg.supportsBatch(ColumnType.LONG);
+        }
     }
 }
@@ -25,7 +25,9 @@
 package io.questdb.griffin.engine.functions.cast;
 
 import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.ColumnType;
 import io.questdb.cairo.sql.Function;
+import io.questdb.cairo.sql.PageFrameBatch;
 import io.questdb.cairo.sql.Record;
 import io.questdb.griffin.FunctionFactory;
 import io.questdb.griffin.SqlExecutionContext;
@@ -52,5 +54,15 @@ public class CastLongToDoubleFunctionFactory implements FunctionFactory {
         public double getDouble(Record rec) {
             return arg.getDouble(rec);
         }
+
+        @Override
+        public void getDoubleBatch(PageFrameBatch batch, long outAddr) {
+            arg.getDoubleBatch(batch, outAddr);
+        }
+
+        @Override
+        public boolean supportsBatch(int type) {
+            return type == ColumnType.DOUBLE && arg.supportsBatch(ColumnType.DOUBLE);
+        }
     }
 }
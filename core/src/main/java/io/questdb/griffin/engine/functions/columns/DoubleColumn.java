@@ -24,11 +24,14 @@
 
 package io.questdb.griffin.engine.functions.columns;
 
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.sql.PageFrameBatch;
 import io.questdb.cairo.sql.Record;
 import io.questdb.cairo.sql.ScalarFunction;
 import io.questdb.griffin.PlanSink;
 import io.questdb.griffin.engine.functions.DoubleFunction;
 import io.questdb.std.ObjList;
+import io.questdb.std.Vect;
 
 import static io.questdb.griffin.engine.functions.columns.ColumnUtils.STATIC_COLUMN_COUNT;
 
@@ -52,11 +55,26 @@ public class DoubleColumn extends DoubleFunction implements ScalarFunction {
         return rec.getDouble(columnIndex);
     }
 
+    @Override
+    public void getDoubleBatch(PageFrameBatch batch, long outAddr) {
+        final long address = batch.getColumnAddress(columnIndex, 3);
+        if (address != 0) {
+            Vect.memcpy(outAddr, address, (long) batch.getRowCount() << 3);
+        } else {
+            Vect.setMemoryDouble(outAddr, Double.NaN, batch.getRowCount());
+        }
+    }
+
     @Override
     public boolean isReadThreadSafe() {
         return true;
     }
 
+    @Override
+    public boolean supportsBatch(int type) {
+        return type == ColumnType.DOUBLE;
+    }
+
     @Override
     public void toPlan(PlanSink sink) {
         sink.putColumnName(columnIndex);
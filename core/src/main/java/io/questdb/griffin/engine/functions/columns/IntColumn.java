@@ -24,11 +24,16 @@
 
 package io.questdb.griffin.engine.functions.columns;
 
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.sql.PageFrameBatch;
 import io.questdb.cairo.sql.Record;
 import io.questdb.cairo.sql.ScalarFunction;
 import io.questdb.griffin.PlanSink;
 import io.questdb.griffin.engine.functions.IntFunction;
+import io.questdb.std.Numbers;
 import io.questdb.std.ObjList;
+import io.questdb.std.Unsafe;
+import io.questdb.std.Vect;
 
 import static io.questdb.griffin.engine.functions.columns.ColumnUtils.STATIC_COLUMN_COUNT;
 
@@ -52,11 +57,42 @@ public class IntColumn extends IntFunction implements ScalarFunction {
         return rec.getInt(columnIndex);
     }
 
+    @Override
+    public void getDoubleBatch(PageFrameBatch batch, long outAddr) {
+        final int rowCount = batch.getRowCount();
+        final long address = batch.getColumnAddress(columnIndex, 2);
+        if (address != 0) {
+            for (int i = 0; i < rowCount; i++) {
+                Unsafe.getUnsafe().putDouble(outAddr + ((long) i << 3), Numbers.intToDouble(Unsafe.getUnsafe().getInt(address + ((long) i << 2))));
+            }
+        } else {
+            Vect.setMemoryDouble(outAddr, Double.NaN, rowCount);
+        }
+    }
+
+    @Override
+    public void getLongBatch(PageFrameBatch batch, long outAddr) {
+        final int rowCount = batch.getRowCount();
+        final long address = batch.getColumnAddress(columnIndex, 2);
+        if (address != 0) {
+            for (int i = 0; i < rowCount; i++) {
+                Unsafe.getUnsafe().putLong(outAddr + ((long) i << 3), Numbers.intToLong(Unsafe.getUnsafe().getInt(address + ((long) i << 2))));
+            }
+        } else {
+            Vect.setMemoryLong(outAddr, Numbers.LONG_NULL, rowCount);
+        }
+    }
+
     @Override
     public boolean isReadThreadSafe() {
         return true;
     }
 
+    @Override
+    public boolean supportsBatch(int type) {
+        return type == ColumnType.LONG || type == ColumnType.DOUBLE;
+    }
+
     @Override
     public void toPlan(PlanSink sink) {
         sink.putColumnName(columnIndex);
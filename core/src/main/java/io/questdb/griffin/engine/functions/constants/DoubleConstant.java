@@ -24,9 +24,12 @@
 
 package io.questdb.griffin.engine.functions.constants;
 
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.sql.PageFrameBatch;
 import io.questdb.cairo.sql.Record;
 import io.questdb.griffin.PlanSink;
 import io.questdb.griffin.engine.functions.DoubleFunction;
+import io.questdb.std.Vect;
 
 public class DoubleConstant extends DoubleFunction implements ConstantFunction {
     public static final DoubleConstant NULL = new DoubleConstant(Double.NaN);
@@ -46,6 +49,11 @@ public class DoubleConstant extends DoubleFunction implements ConstantFunction {
         return value;
     }
 
+    @Override
+    public void getDoubleBatch(PageFrameBatch batch, long outAddr) {
+        Vect.setMemoryDouble(outAddr, value, batch.getRowCount());
+    }
+
     @Override
     public boolean isNullConstant() {
         // NaN is used as a marker for NULL
@@ -53,6 +61,11 @@ public class DoubleConstant extends DoubleFunction implements ConstantFunction {
         return value != value;
     }
 
+    @Override
+    public boolean supportsBatch(int type) {
+        return type == ColumnType.DOUBLE;
+    }
+
     @Override
     public void toPlan(PlanSink sink) {
         sink.val(value);
@@ -24,10 +24,13 @@
 
 package io.questdb.griffin.engine.functions.constants;
 
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.sql.PageFrameBatch;
 import io.questdb.cairo.sql.Record;
 import io.questdb.griffin.PlanSink;
 import io.questdb.griffin.engine.functions.IntFunction;
 import io.questdb.std.Numbers;
+import io.questdb.std.Vect;
 
 public class IntConstant extends IntFunction implements ConstantFunction {
 
@@ -44,16 +47,31 @@ public class IntConstant extends IntFunction implements ConstantFunction {
         return value != Numbers.INT_NULL ? new IntConstant(value) : NULL;
     }
 
+    @Override
+    public void getDoubleBatch(PageFrameBatch batch, long outAddr) {
+        Vect.setMemoryDouble(outAddr, Numbers.intToDouble(value), batch.getRowCount());
+    }
+
     @Override
     public int getInt(Record rec) {
         return value;
     }
 
+    @Override
+    public void getLongBatch(PageFrameBatch batch, long outAddr) {
+        Vect.setMemoryLong(outAddr, Numbers.intToLong(value), batch.getRowCount());
+    }
+
     @Override
     public boolean isNullConstant() {
         return value == Numbers.INT_NULL;
     }
 
+    @Override
+    public boolean supportsBatch(int type) {
+        return type == ColumnType.LONG || type == ColumnType.DOUBLE;
+    }
+
     @Override
     public void toPlan(PlanSink sink) {
         sink.val(value);
@@ -24,10 +24,13 @@
 
 package io.questdb.griffin.engine.functions.constants;
 
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.sql.PageFrameBatch;
 import io.questdb.cairo.sql.Record;
 import io.questdb.griffin.PlanSink;
 import io.questdb.griffin.engine.functions.LongFunction;
 import io.questdb.std.Numbers;
+import io.questdb.std.Vect;
 
 public class LongConstant extends LongFunction implements ConstantFunction {
     public static final LongConstant NULL = new LongConstant(Numbers.LONG_NULL);
@@ -55,11 +58,21 @@ public class LongConstant extends LongFunction implements ConstantFunction {
         return value;
     }
 
+    @Override
+    public void getLongBatch(PageFrameBatch batch, long outAddr) {
+        Vect.setMemoryLong(outAddr, value, batch.getRowCount());
+    }
+
     @Override
     public boolean isNullConstant() {
         return value == Numbers.LONG_NULL;
     }
 
+    @Override
+    public boolean supportsBatch(int type) {
+        return type == ColumnType.LONG || type == ColumnType.DOUBLE;
+    }
+
     public void toPlan(PlanSink sink) {
         sink.val(value).val('L');
     }
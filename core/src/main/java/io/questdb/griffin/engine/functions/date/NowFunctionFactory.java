@@ -44,6 +44,11 @@ public class NowFunctionFactory implements FunctionFactory {
         return SIGNATURE;
     }
 
+    @Override
+    public boolean isNonDeterministic() {
+        return true;
+    }
+
     @Override
     public boolean isRuntimeConstant() {
         return true;
@@ -0,0 +1,133 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin.engine.functions.date;
+
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.sql.Function;
+import io.questdb.cairo.sql.Record;
+import io.questdb.griffin.FunctionFactory;
+import io.questdb.griffin.PlanSink;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.functions.TimestampFunction;
+import io.questdb.griffin.engine.functions.UnaryFunction;
+import io.questdb.griffin.engine.groupby.TimestampSampler;
+import io.questdb.griffin.engine.groupby.TimestampSamplerFactory;
+import io.questdb.std.IntList;
+import io.questdb.std.Numbers;
+import io.questdb.std.ObjList;
+import io.questdb.std.datetime.TimeZoneRules;
+import io.questdb.std.datetime.microtime.Timestamps;
+
+/**
+ * Floors timestamp to the "sample by" bucket aligned to calendar in the given time zone
+ * and with the given offset. The result is the UTC timestamp of the bucket start. This function
+ * is used to rewrite "sample by" with time zone and/or offset into parallel "group by".
+ */
+public class TimestampFloorOffsetFunctionFactory implements FunctionFactory {
+    @Override
+    public String getSignature() {
+        return "timestamp_floor(sNss)";
+    }
+
+    @Override
+    public Function newInstance(int position, ObjList<Function> args, IntList argPositions, CairoConfiguration configuration, SqlExecutionContext sqlExecutionContext) throws SqlException {
+        final CharSequence unit = args.getQuick(0).getStrA(null);
+        final TimestampSampler sampler = TimestampSamplerFactory.getInstance(unit, argPositions.getQuick(0));
+        final CharSequence offsetStr = args.getQuick(2).getStrA(null);
+        final long offset = TimestampSamplerFactory.getOffset(offsetStr, argPositions.getQuick(2));
+        final CharSequence timezone = args.getQuick(3).getStrA(null);
+        final TimeZoneRules rules = TimestampSamplerFactory.getTimeZoneRules(timezone, argPositions.getQuick(3));
+        sampler.setStart(offset);
+        return new TimestampFloorOffsetFunction(
+                args.getQuick(1),
+                sampler,
+                rules,
+                unit.toString(),
+                offsetStr != null ? offsetStr.toString() : null,
+                timezone != null ? timezone.toString() : null
+        );
+    }
+
+    private static class TimestampFloorOffsetFunction extends TimestampFunction implements UnaryFunction {
+        private final Function arg;
+        private final String offset;
+        private final TimeZoneRules rules;
+        private final TimestampSampler sampler;
+        private final String timezone;
+        private final String unit;
+
+        public TimestampFloorOffsetFunction(
+                Function arg,
+                TimestampSampler sampler,
+                TimeZoneRules rules,
+                String unit,
+                String offset,
+                String timezone
+        ) {
+            this.arg = arg;
+            this.sampler = sampler;
+            this.rules = rules;
+            this.unit = unit;
+            this.offset = offset;
+            this.timezone = timezone;
+        }
+
+        @Override
+        public Function getArg() {
+            return arg;
+        }
+
+        @Override
+        public long getTimestamp(Record rec) {
+            final long utc = arg.getTimestamp(rec);
+            if (utc == Numbers.LONG_NULL) {
+                return Numbers.LONG_NULL;
+            }
+            if (rules == null) {
+                return sampler.round(utc);
+            }
+            return Timestamps.toUTC(sampler.round(utc + rules.getOffset(utc)), rules);
+        }
+
+        @Override
+        public void toPlan(PlanSink sink) {
+            sink.val("timestamp_floor('").val(unit).val("',").val(arg).val(',');
+            quotedOrNull(sink, offset);
+            sink.val(',');
+            quotedOrNull(sink, timezone);
+            sink.val(')');
+        }
+
+        private static void quotedOrNull(PlanSink sink, String value) {
+            if (value != null) {
+                sink.val('\'').val(value).val('\'');
+            } else {
+                sink.val("null");
+            }
+        }
+    }
+}
@@ -27,6 +27,7 @@ package io.questdb.griffin.engine.functions.eq;
 import io.questdb.cairo.CairoConfiguration;
 import io.questdb.cairo.ColumnType;
 import io.questdb.cairo.sql.Function;
+import io.questdb.cairo.sql.PageFrameBatch;
 import io.questdb.cairo.sql.Record;
 import io.questdb.griffin.FunctionFactory;
 import io.questdb.griffin.PlanSink;
@@ -36,6 +37,7 @@ import io.questdb.griffin.engine.functions.UnaryFunction;
 import io.questdb.std.IntList;
 import io.questdb.std.Numbers;
 import io.questdb.std.ObjList;
+import io.questdb.std.Unsafe;
 
 public class EqDoubleFunctionFactory implements FunctionFactory {
     @Override
@@ -136,6 +138,32 @@ public class EqDoubleFunctionFactory implements FunctionFactory {
             final double r = right.getDouble(rec);
             return negated != Numbers.equals(l, r);
         }
+
+        @Override
+        public void getBoolBatch(PageFrameBatch batch, long outAddr) {
+            final long leftAddr = batch.acquireVector();
+            final long rightAddr = batch.acquireVector();
+            try {
+                left.getDoubleBatch(batch, leftAddr);
+                right.getDoubleBatch(batch, rightAddr);
+                for (int i = 0, n = batch.getRowCount(); i < n; i++) {
+                    final long offset = (long) i << 3;
+                    final double l = Unsafe.getUnsafe().getDouble(leftAddr + offset);
+                    final double r = Unsafe.getUnsafe().getDouble(rightAddr + offset);
+                    Unsafe.getUnsafe().putByte(outAddr + i, (byte) (negated != Numbers.equals(l, r) ? 1 : 0));
+                }
+            } finally {
+                batch.releaseVector();
+                batch.releaseVector();
+            }
+        }
+
+        @Override
+        public boolean supportsBatch(int type) {
+            return type == ColumnType.BOOLEAN
+                    && left.supportsBatch(ColumnType.DOUBLE)
+                    && right.supportsBatch(ColumnType.DOUBLE);
+        }
     }
 
     protected static class FuncDateIsNaN extends AbstractIsNaNFunction {
@@ -25,12 +25,15 @@
 package io.questdb.griffin.engine.functions.eq;
 
 import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.ColumnType;
 import io.questdb.cairo.sql.Function;
+import io.questdb.cairo.sql.PageFrameBatch;
 import io.questdb.cairo.sql.Record;
 import io.questdb.griffin.FunctionFactory;
 import io.questdb.griffin.SqlExecutionContext;
 import io.questdb.std.IntList;
 import io.questdb.std.ObjList;
+import io.questdb.std.Unsafe;
 
 public class EqLongFunctionFactory implements FunctionFactory {
     @Override
@@ -57,5 +60,31 @@ public class EqLongFunctionFactory implements FunctionFactory {
         public boolean getBool(Record rec) {
             return negated != (left.getLong(rec) == right.getLong(rec));
         }
+
+        @Override
+        public void getBoolBatch(PageFrameBatch batch, long outAddr) {
+            final long leftAddr = batch.acquireVector();
+            final long rightAddr = batch.acquireVector();
+            try {
+                left.getLongBatch(batch, leftAddr);
+                right.getLongBatch(batch, rightAddr);
+                for (int i = 0, n = batch.getRowCount(); i < n; i++) {
+                    final long offset = (long) i << 3;
+                    final long l = Unsafe.getUnsafe().getLong(leftAddr + offset);
+                    final long r = Unsafe.getUnsafe().getLong(rightAddr + offset);
+                    Unsafe.getUnsafe().putByte(outAddr + i, (byte) (negated != (l == r) ? 1 : 0));
+                }
+            } finally {
+                batch.releaseVector();
+                batch.releaseVector();
+            }
+        }
+
+        @Override
+        public boolean supportsBatch(int type) {
+            return type == ColumnType.BOOLEAN
+                    && left.supportsBatch(ColumnType.LONG)
+                    && right.supportsBatch(ColumnType.LONG);
+        }
     }
 }
@@ -25,7 +25,9 @@
 package io.questdb.griffin.engine.functions.lt;
 
 import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.ColumnType;
 import io.questdb.cairo.sql.Function;
+import io.questdb.cairo.sql.PageFrameBatch;
 import io.questdb.cairo.sql.Record;
 import io.questdb.griffin.FunctionFactory;
 import io.questdb.griffin.PlanSink;
@@ -35,6 +37,7 @@ import io.questdb.griffin.engine.functions.NegatableBooleanFunction;
 import io.questdb.std.IntList;
 import io.questdb.std.Numbers;
 import io.questdb.std.ObjList;
+import io.questdb.std.Unsafe;
 
 public class LtDoubleVVFunctionFactory implements FunctionFactory {
     @Override
@@ -69,6 +72,25 @@ public class LtDoubleVVFunctionFactory implements FunctionFactory {
             return negated ? (eq || l > r) : (!eq && l < r);
         }
 
+        @Override
+        public void getBoolBatch(PageFrameBatch batch, long outAddr) {
+            final long leftAddr = batch.acquireVector();
+            final long rightAddr = batch.acquireVector();
+            try {
+                left.getDoubleBatch(batch, leftAddr);
+                right.getDoubleBatch(batch, rightAddr);
+                for (int i = 0, n = batch.getRowCount(); i < n; i++) {
+                    final long offset = (long) i << 3;
+                    final double l = Unsafe.getUnsafe().getDouble(leftAddr + offset);
+                    final double r = Unsafe.getUnsafe().getDouble(rightAddr + offset);
+                    Unsafe.getUnsafe().putByte(outAddr + i, (byte) ((Numbers.equals(l, r) ? negated : (negated ? l > r : l < r)) ? 1 : 0));
+                }
+            } finally {
+                batch.releaseVector();
+                batch.releaseVector();
+            }
+        }
+
         @Override
         public Function getLeft() {
             return left;
@@ -79,6 +101,13 @@ public class LtDoubleVVFunctionFactory implements FunctionFactory {
             return right;
         }
 
+        @Override
+        public boolean supportsBatch(int type) {
+            return type == ColumnType.BOOLEAN
+                    && left.supportsBatch(ColumnType.DOUBLE)
+                    && right.supportsBatch(ColumnType.DOUBLE);
+        }
+
         @Override
         public void toPlan(PlanSink sink) {
             sink.val(left);
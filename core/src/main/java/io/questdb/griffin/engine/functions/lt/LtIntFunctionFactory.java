@@ -25,7 +25,9 @@
 package io.questdb.griffin.engine.functions.lt;
 
 import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.ColumnType;
 import io.questdb.cairo.sql.Function;
+import io.questdb.cairo.sql.PageFrameBatch;
 import io.questdb.cairo.sql.Record;
 import io.questdb.griffin.FunctionFactory;
 import io.questdb.griffin.PlanSink;
@@ -35,6 +37,7 @@ import io.questdb.griffin.engine.functions.NegatableBooleanFunction;
 import io.questdb.std.IntList;
 import io.questdb.std.Numbers;
 import io.questdb.std.ObjList;
+import io.questdb.std.Unsafe;
 
 public class LtIntFunctionFactory implements FunctionFactory {
     @Override
@@ -76,6 +79,26 @@ public class LtIntFunctionFactory implements FunctionFactory {
             );
         }
 
+        @Override
+        public void getBoolBatch(PageFrameBatch batch, long outAddr) {
+            // int values are widened to long with nulls preserved, so the comparison result stays the same
+            final long leftAddr = batch.acquireVector();
+            final long rightAddr = batch.acquireVector();
+            try {
+                left.getLongBatch(batch, leftAddr);
+                right.getLongBatch(batch, rightAddr);
+                for (int i = 0, n = batch.getRowCount(); i < n; i++) {
+                    final long offset = (long) i << 3;
+                    final long l = Unsafe.getUnsafe().getLong(leftAddr + offset);
+                    final long r = Unsafe.getUnsafe().getLong(rightAddr + offset);
+                    Unsafe.getUnsafe().putByte(outAddr + i, (byte) (Numbers.lessThan(l, r, negated) ? 1 : 0));
+                }
+            } finally {
+                batch.releaseVector();
+                batch.releaseVector();
+            }
+        }
+
         @Override
         public Function getLeft() {
             return left;
@@ -86,6 +109,13 @@ public class LtIntFunctionFactory implements FunctionFactory {
             return right;
         }
 
+        @Override
+        public boolean supportsBatch(int type) {
+            return type == ColumnType.BOOLEAN
+                    && left.supportsBatch(ColumnType.LONG)
+                    && right.supportsBatch(ColumnType.LONG);
+        }
+
         @Override
         public void toPlan(PlanSink sink) {
             sink.val(left);
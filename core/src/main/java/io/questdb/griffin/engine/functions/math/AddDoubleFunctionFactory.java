@@ -25,7 +25,9 @@
 package io.questdb.griffin.engine.functions.math;
 
 import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.ColumnType;
 import io.questdb.cairo.sql.Function;
+import io.questdb.cairo.sql.PageFrameBatch;
 import io.questdb.cairo.sql.Record;
 import io.questdb.griffin.FunctionFactory;
 import io.questdb.griffin.PlanSink;
@@ -34,6 +36,7 @@ import io.questdb.griffin.engine.functions.BinaryFunction;
 import io.questdb.griffin.engine.functions.DoubleFunction;
 import io.questdb.std.IntList;
 import io.questdb.std.ObjList;
+import io.questdb.std.Unsafe;
 
 public class AddDoubleFunctionFactory implements FunctionFactory {
     @Override
@@ -60,6 +63,20 @@ public class AddDoubleFunctionFactory implements FunctionFactory {
             return left.getDouble(rec) + right.getDouble(rec);
         }
 
+        @Override
+        public void getDoubleBatch(PageFrameBatch batch, long outAddr) {
+            final long rightAddr = batch.acquireVector();
+            try {
+                left.getDoubleBatch(batch, outAddr);
+                right.getDoubleBatch(batch, rightAddr);
+                for (long p = 0, lim = (long) batch.getRowCount() << 3; p < lim; p += Double.BYTES) {
+                    Unsafe.getUnsafe().putDouble(outAddr + p, Unsafe.getUnsafe().getDouble(outAddr + p) + Unsafe.getUnsafe().getDouble(rightAddr + p));
+                }
+            } finally {
+                batch.releaseVector();
+            }
+        }
+
         @Override
         public Function getLeft() {
             return left;
@@ -70,6 +87,13 @@ public class AddDoubleFunctionFactory implements FunctionFactory {
             return right;
         }
 
+        @Override
+        public boolean supportsBatch(int type) {
+            return type == ColumnType.DOUBLE
+                    && left.supportsBatch(ColumnType.DOUBLE)
+                    && right.supportsBatch(ColumnType.DOUBLE);
+        }
+
         @Override
         public void toPlan(PlanSink sink) {
             sink.val(left).val('+').val(right);
@@ -25,7 +25,9 @@
 package io.questdb.griffin.engine.functions.math;
 
 import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.ColumnType;
 import io.questdb.cairo.sql.Function;
+import io.questdb.cairo.sql.PageFrameBatch;
 import io.questdb.cairo.sql.Record;
 import io.questdb.griffin.FunctionFactory;
 import io.questdb.griffin.PlanSink;
@@ -35,6 +37,7 @@ import io.questdb.griffin.engine.functions.LongFunction;
 import io.questdb.std.IntList;
 import io.questdb.std.Numbers;
 import io.questdb.std.ObjList;
+import io.questdb.std.Unsafe;
 
 public class MulLongFunctionFactory implements FunctionFactory {
     @Override
@@ -72,11 +75,34 @@ public class MulLongFunctionFactory implements FunctionFactory {
             return l * r;
         }
 
+        @Override
+        public void getLongBatch(PageFrameBatch batch, long outAddr) {
+            final long rightAddr = batch.acquireVector();
+            try {
+                left.getLongBatch(batch, outAddr);
+                right.getLongBatch(batch, rightAddr);
+                for (long p = 0, lim = (long) batch.getRowCount() << 3; p < lim; p += Long.BYTES) {
+                    final long l = Unsafe.getUnsafe().getLong(outAddr + p);
+                    final long r = Unsafe.getUnsafe().getLong(rightAddr + p);
+                    Unsafe.getUnsafe().putLong(outAddr + p, l == Numbers.LONG_NULL || r == Numbers.LONG_NULL ? Numbers.LONG_NULL : l * r);
+                }
+            } finally {
+                batch.releaseVector();
+            }
+        }
+
         @Override
         public Function getRight() {
             return right;
         }
 
+        @Override
+        public boolean supportsBatch(int type) {
+            return (type == ColumnType.LONG || type == ColumnType.DOUBLE)
+                    && left.supportsBatch(ColumnType.LONG)
+                    && right.supportsBatch(ColumnType.LONG);
+        }
+
         @Override
         public void toPlan(PlanSink sink) {
             sink.val(left).val("*").val(right);
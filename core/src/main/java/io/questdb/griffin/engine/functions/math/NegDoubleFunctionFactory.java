@@ -25,7 +25,9 @@
 package io.questdb.griffin.engine.functions.math;
 
 import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.ColumnType;
 import io.questdb.cairo.sql.Function;
+import io.questdb.cairo.sql.PageFrameBatch;
 import io.questdb.cairo.sql.Record;
 import io.questdb.griffin.FunctionFactory;
 import io.questdb.griffin.PlanSink;
@@ -34,6 +36,7 @@ import io.questdb.griffin.engine.functions.DoubleFunction;
 import io.questdb.griffin.engine.functions.UnaryFunction;
 import io.questdb.std.IntList;
 import io.questdb.std.ObjList;
+import io.questdb.std.Unsafe;
 
 public class NegDoubleFunctionFactory implements FunctionFactory {
     @Override
@@ -63,6 +66,19 @@ public class NegDoubleFunctionFactory implements FunctionFactory {
             return -arg.getDouble(rec);
         }
 
+        @Override
+        public void getDoubleBatch(PageFrameBatch batch, long outAddr) {
+            arg.getDoubleBatch(batch, outAddr);
+            for (long p = outAddr, lim = outAddr + ((long) batch.getRowCount() << 3); p < lim; p += Double.BYTES) {
+                Unsafe.getUnsafe().putDouble(p, -Unsafe.getUnsafe().getDouble(p));
+            }
+        }
+
+        @Override
+        public boolean supportsBatch(int type) {
+            return type == ColumnType.DOUBLE && arg.supportsBatch(ColumnType.DOUBLE);
+        }
+
         @Override
         public void toPlan(PlanSink sink) {
             sink.val('-').val(arg);
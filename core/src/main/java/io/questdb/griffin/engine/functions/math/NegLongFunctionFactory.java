@@ -25,7 +25,9 @@
 package io.questdb.griffin.engine.functions.math;
 
 import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.ColumnType;
 import io.questdb.cairo.sql.Function;
+import io.questdb.cairo.sql.PageFrameBatch;
 import io.questdb.cairo.sql.Record;
 import io.questdb.griffin.FunctionFactory;
 import io.questdb.griffin.PlanSink;
@@ -35,6 +37,7 @@ import io.questdb.griffin.engine.functions.UnaryFunction;
 import io.questdb.std.IntList;
 import io.questdb.std.Numbers;
 import io.questdb.std.ObjList;
+import io.questdb.std.Unsafe;
 
 public class NegLongFunctionFactory implements FunctionFactory {
     @Override
@@ -65,6 +68,20 @@ public class NegLongFunctionFactory implements FunctionFactory {
             return value != Numbers.LONG_NULL ? -value : Numbers.LONG_NULL;
         }
 
+        @Override
+        public void getLongBatch(PageFrameBatch batch, long outAddr) {
+            arg.getLongBatch(batch, outAddr);
+            for (long p = outAddr, lim = outAddr + ((long) batch.getRowCount() << 3); p < lim; p += Long.BYTES) {
+                final long value = Unsafe.getUnsafe().getLong(p);
+                Unsafe.getUnsafe().putLong(p, value != Numbers.LONG_NULL ? -value : Numbers.LONG_NULL);
+            }
+        }
+
+        @Override
+        public boolean supportsBatch(int type) {
+            return (type == ColumnType.LONG || type == ColumnType.DOUBLE) && arg.supportsBatch(ColumnType.LONG);
+        }
+
         @Override
         public void toPlan(PlanSink sink) {
             sink.val('-').val(arg);
@@ -43,6 +43,11 @@ public class RndBinFunctionFactory implements FunctionFactory {
         return "rnd_bin()";
     }
 
+    @Override
+    public boolean isNonDeterministic() {
+        return true;
+    }
+
     @Override
     public Function newInstance(int position, ObjList<Function> args, IntList argPositions, CairoConfiguration configuration, SqlExecutionContext sqlExecutionContext) {
         return new FixLenFunction();
@@ -156,6 +156,10 @@ public class TouchTableFunctionFactory implements FunctionFactory {
                 PageFrame frame;
                 RecordMetadata metadata = recordCursorFactory.getMetadata();
                 while ((frame = pageFrameCursor.next()) != null) {
+                    if (frame.isCompressed()) {
+                        // compressed partitions are not mapped, there are no pages to touch
+                        continue;
+                    }
                     for (int columnIndex = 0, sz = metadata.getColumnCount(); columnIndex < sz; columnIndex++) {
 
                         final long columnMemorySize = frame.getPageSize(columnIndex);
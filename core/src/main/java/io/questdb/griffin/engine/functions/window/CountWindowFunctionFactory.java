@@ -0,0 +1,336 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin.engine.functions.window;
+
+import io.questdb.cairo.*;
+import io.questdb.cairo.map.Map;
+import io.questdb.cairo.map.MapFactory;
+import io.questdb.cairo.map.MapKey;
+import io.questdb.cairo.map.MapValue;
+import io.questdb.cairo.sql.Function;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.ScalarFunction;
+import io.questdb.cairo.sql.SymbolTableSource;
+import io.questdb.cairo.sql.VirtualRecord;
+import io.questdb.cairo.sql.WindowSPI;
+import io.questdb.griffin.FunctionFactory;
+import io.questdb.griffin.PlanSink;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.functions.LongFunction;
+import io.questdb.griffin.engine.orderby.RecordComparatorCompiler;
+import io.questdb.griffin.engine.window.WindowContext;
+import io.questdb.griffin.engine.window.WindowFunction;
+import io.questdb.std.*;
+import org.jetbrains.annotations.Nullable;
+
+// Returns number of rows within the window frame.
+public class CountWindowFunctionFactory implements FunctionFactory {
+
+    private static final String NAME = "count";
+    private static final String SIGNATURE = NAME + "()";
+
+    @Override
+    public String getSignature() {
+        return SIGNATURE;
+    }
+
+    @Override
+    public boolean isWindow() {
+        return true;
+    }
+
+    @Override
+    public Function newInstance(
+            int position,
+            ObjList<Function> args,
+            IntList argPositions,
+            CairoConfiguration configuration,
+            SqlExecutionContext sqlExecutionContext
+    ) throws SqlException {
+        return newInstance(position, null, configuration, sqlExecutionContext.getWindowContext());
+    }
+
+    // null arg counts all rows, otherwise only rows with non-null arg value are counted
+    static Function newInstance(
+            int position,
+            @Nullable Function arg,
+            CairoConfiguration configuration,
+            WindowContext windowContext
+    ) throws SqlException {
+        if (windowContext.isEmpty()) {
+            throw SqlException.emptyWindowContext(position);
+        }
+
+        final long rowsHi = SlidingFrame.checkFrame(position, windowContext);
+        if (SlidingFrame.isWholePartition(windowContext, windowContext.getRowsLo(), rowsHi)) {
+            final VirtualRecord partitionByRecord = windowContext.getPartitionByRecord();
+            Map map = null;
+            if (partitionByRecord != null) {
+                map = MapFactory.createOrderedMap(
+                        configuration,
+                        windowContext.getPartitionByKeyTypes(),
+                        new SingleColumnType(ColumnType.LONG)
+                );
+            }
+            return new CountOverPartitionFunction(map, partitionByRecord, windowContext.getPartitionBySink(), arg);
+        }
+        return new CountOverFrameFunction(
+                SlidingFrame.newInstance(position, configuration, windowContext, SlidingFrame.KIND_COUNT, arg == null, rowsHi),
+                arg
+        );
+    }
+
+    private static void argToPlan(PlanSink sink, @Nullable Function arg) {
+        sink.val(NAME);
+        if (arg != null) {
+            sink.val('(').val(arg).val(')');
+        } else {
+            sink.val("(*)");
+        }
+    }
+
+    // Handles count() over ([partition by x] [order by o] [rows | range] between [unbounded | y] preceding and [z preceding | current row]).
+    static class CountOverFrameFunction extends LongFunction implements ScalarFunction, WindowFunction, Reopenable {
+        private final Function arg;
+        private final SlidingFrame frame;
+        private int columnIndex;
+        private long count;
+
+        CountOverFrameFunction(SlidingFrame frame, @Nullable Function arg) {
+            this.frame = frame;
+            this.arg = arg;
+        }
+
+        @Override
+        public void close() {
+            Misc.free(arg);
+            frame.close();
+        }
+
+        @Override
+        public void computeNext(Record record) {
+            count = frame.getCount(frame.add(record, arg != null ? arg.getDouble(record) : Double.NaN));
+        }
+
+        @Override
+        public long getLong(Record rec) {
+            return count;
+        }
+
+        @Override
+        public String getName() {
+            return NAME;
+        }
+
+        @Override
+        public int getPassCount() {
+            return WindowFunction.ZERO_PASS;
+        }
+
+        @Override
+        public void init(SymbolTableSource symbolTableSource, SqlExecutionContext executionContext) throws SqlException {
+            if (arg != null) {
+                arg.init(symbolTableSource, executionContext);
+            }
+            frame.init(symbolTableSource, executionContext);
+        }
+
+        @Override
+        public void initRecordComparator(RecordComparatorCompiler recordComparatorCompiler, ArrayColumnTypes chainTypes, IntList order) {
+        }
+
+        @Override
+        public void pass1(Record record, long recordOffset, WindowSPI spi) {
+            computeNext(record);
+            Unsafe.getUnsafe().putLong(spi.getAddress(recordOffset, columnIndex), count);
+        }
+
+        @Override
+        public void reopen() {
+            frame.reopen();
+            count = 0;
+        }
+
+        @Override
+        public void reset() {
+            frame.reset();
+            count = 0;
+        }
+
+        @Override
+        public void setColumnIndex(int columnIndex) {
+            this.columnIndex = columnIndex;
+        }
+
+        @Override
+        public void toPlan(PlanSink sink) {
+            argToPlan(sink, arg);
+            sink.val(" over (");
+            frame.toPlan(sink);
+            sink.val(')');
+        }
+
+        @Override
+        public void toTop() {
+            if (arg != null) {
+                arg.toTop();
+            }
+            frame.clear();
+            count = 0;
+        }
+    }
+
+    // Handles count() over ([partition by x]) where frame spans whole partition or whole result set.
+    static class CountOverPartitionFunction extends LongFunction implements ScalarFunction, WindowFunction, Reopenable {
+        private final Function arg;
+        // null when there's no partition by
+        private final Map map;
+        private final VirtualRecord partitionByRecord;
+        private final RecordSink partitionBySink;
+        private int columnIndex;
+        private long count;
+
+        CountOverPartitionFunction(Map map, VirtualRecord partitionByRecord, RecordSink partitionBySink, @Nullable Function arg) {
+            this.map = map;
+            this.partitionByRecord = partitionByRecord;
+            this.partitionBySink = partitionBySink;
+            this.arg = arg;
+        }
+
+        @Override
+        public void close() {
+            Misc.free(arg);
+            Misc.free(map);
+            if (partitionByRecord != null) {
+                Misc.freeObjList(partitionByRecord.getFunctions());
+            }
+        }
+
+        @Override
+        public long getLong(Record rec) {
+            //unused
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public String getName() {
+            return NAME;
+        }
+
+        @Override
+        public int getPassCount() {
+            return WindowFunction.TWO_PASS;
+        }
+
+        @Override
+        public void init(SymbolTableSource symbolTableSource, SqlExecutionContext executionContext) throws SqlException {
+            if (arg != null) {
+                arg.init(symbolTableSource, executionContext);
+            }
+            if (partitionByRecord != null) {
+                Function.init(partitionByRecord.getFunctions(), symbolTableSource, executionContext);
+            }
+        }
+
+        @Override
+        public void initRecordComparator(RecordComparatorCompiler recordComparatorCompiler, ArrayColumnTypes chainTypes, IntList order) {
+        }
+
+        @Override
+        public void pass1(Record record, long recordOffset, WindowSPI spi) {
+            if (arg != null && !Numbers.isFinite(arg.getDouble(record))) {
+                return;
+            }
+            if (map == null) {
+                count++;
+                return;
+            }
+
+            partitionByRecord.of(record);
+            MapKey key = map.withKey();
+            key.put(partitionByRecord, partitionBySink);
+            MapValue value = key.createValue();
+            value.putLong(0, value.isNew() ? 1 : value.getLong(0) + 1);
+        }
+
+        @Override
+        public void pass2(Record record, long recordOffset, WindowSPI spi) {
+            long result = count;
+            if (map != null) {
+                partitionByRecord.of(record);
+                MapKey key = map.withKey();
+                key.put(partitionByRecord, partitionBySink);
+                MapValue value = key.findValue();
+                result = value != null ? value.getLong(0) : 0;
+            }
+            Unsafe.getUnsafe().putLong(spi.getAddress(recordOffset, columnIndex), result);
+        }
+
+        @Override
+        public void reopen() {
+            if (map != null) {
+                map.reopen();
+            }
+            count = 0;
+        }
+
+        @Override
+        public void reset() {
+            if (map != null) {
+                map.close();
+            }
+            count = 0;
+        }
+
+        @Override
+        public void setColumnIndex(int columnIndex) {
+            this.columnIndex = columnIndex;
+        }
+
+        @Override
+        public void toPlan(PlanSink sink) {
+            argToPlan(sink, arg);
+            sink.val(" over (");
+            if (partitionByRecord != null) {
+                sink.val("partition by ");
+                sink.val(partitionByRecord.getFunctions());
+            }
+            sink.val(')');
+        }
+
+        @Override
+        public void toTop() {
+            if (arg != null) {
+                arg.toTop();
+            }
+            if (map != null) {
+                map.clear();
+            }
+            count = 0;
+        }
+    }
+}
@@ -0,0 +1,305 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin.engine.functions.window;
+
+import io.questdb.cairo.*;
+import io.questdb.cairo.map.Map;
+import io.questdb.cairo.map.MapFactory;
+import io.questdb.cairo.map.MapKey;
+import io.questdb.cairo.map.MapValue;
+import io.questdb.cairo.sql.Function;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.SymbolTableSource;
+import io.questdb.cairo.sql.VirtualRecord;
+import io.questdb.cairo.sql.WindowSPI;
+import io.questdb.cairo.vm.Vm;
+import io.questdb.cairo.vm.api.MemoryARW;
+import io.questdb.griffin.FunctionFactory;
+import io.questdb.griffin.PlanSink;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.window.WindowContext;
+import io.questdb.griffin.engine.window.WindowFunction;
+import io.questdb.std.*;
+
+// Returns value evaluated at the row that is offset rows before the current row within the partition.
+// Frame clause is ignored.
+public class LagDoubleWindowFunctionFactory implements FunctionFactory {
+
+    private static final String NAME = "lag";
+    private static final String SIGNATURE = NAME + "(DV)";
+
+    @Override
+    public String getSignature() {
+        return SIGNATURE;
+    }
+
+    @Override
+    public boolean isWindow() {
+        return true;
+    }
+
+    @Override
+    public Function newInstance(
+            int position,
+            ObjList<Function> args,
+            IntList argPositions,
+            CairoConfiguration configuration,
+            SqlExecutionContext sqlExecutionContext
+    ) throws SqlException {
+        final WindowContext windowContext = sqlExecutionContext.getWindowContext();
+        if (windowContext.isEmpty()) {
+            throw SqlException.emptyWindowContext(position);
+        }
+        return new LagFunction(
+                newMap(configuration, windowContext),
+                windowContext.getPartitionByRecord(),
+                windowContext.getPartitionBySink(),
+                newMemory(configuration),
+                args.getQuick(0),
+                getOffset(position, args, argPositions),
+                getDefaultValue(args, argPositions)
+        );
+    }
+
+    static double getDefaultValue(ObjList<Function> args, IntList argPositions) throws SqlException {
+        if (args.size() < 3) {
+            return Double.NaN;
+        }
+        final Function defaultValue = args.getQuick(2);
+        final int type = defaultValue.getType();
+        if (!defaultValue.isConstant() || (!ColumnType.isBuiltInWideningCast(type, ColumnType.DOUBLE) && !ColumnType.isDouble(type))) {
+            throw SqlException.$(argPositions.getQuick(2), "default value must be a numeric constant");
+        }
+        return defaultValue.getDouble(null);
+    }
+
+    static long getOffset(int position, ObjList<Function> args, IntList argPositions) throws SqlException {
+        if (args.size() > 3) {
+            throw SqlException.$(argPositions.getQuick(3), "too many arguments");
+        }
+        if (args.size() < 2) {
+            return 1;
+        }
+        final Function offset = args.getQuick(1);
+        final short tag = ColumnType.tagOf(offset.getType());
+        if (!offset.isConstant() || (tag != ColumnType.BYTE && tag != ColumnType.SHORT && tag != ColumnType.INT && tag != ColumnType.LONG)) {
+            throw SqlException.$(argPositions.getQuick(1), "offset must be an integer constant");
+        }
+        final long value = offset.getLong(null);
+        if (value < 0) {
+            throw SqlException.$(argPositions.getQuick(1), "offset must be non-negative");
+        }
+        return value;
+    }
+
+    static Map newMap(CairoConfiguration configuration, WindowContext windowContext) {
+        if (windowContext.getPartitionByRecord() == null) {
+            return null;
+        }
+        return MapFactory.createOrderedMap(
+                configuration,
+                windowContext.getPartitionByKeyTypes(),
+                new SingleColumnType(ColumnType.LONG) // state block offset
+        );
+    }
+
+    static MemoryARW newMemory(CairoConfiguration configuration) {
+        return Vm.getARWInstance(
+                configuration.getSqlWindowStorePageSize(),
+                configuration.getSqlWindowStoreMaxPages(),
+                MemoryTag.NATIVE_CIRCULAR_BUFFER
+        );
+    }
+
+    // Keeps ring buffer of the last offset values or record offsets per partition in native memory.
+    // State block layout is [row count, ring buffer of offset longs or doubles].
+    abstract static class BaseLagFunction extends BaseDoubleWindowFunction implements Reopenable {
+        protected final double defaultValue;
+        // null when there's no partition by
+        protected final Map map;
+        protected final MemoryARW memory;
+        protected final long offset;
+        protected final VirtualRecord partitionByRecord;
+        protected final RecordSink partitionBySink;
+        private long state = -1;
+
+        BaseLagFunction(
+                Map map,
+                VirtualRecord partitionByRecord,
+                RecordSink partitionBySink,
+                MemoryARW memory,
+                Function arg,
+                long offset,
+                double defaultValue
+        ) {
+            super(arg);
+            this.map = map;
+            this.partitionByRecord = partitionByRecord;
+            this.partitionBySink = partitionBySink;
+            this.memory = memory;
+            this.offset = offset;
+            this.defaultValue = defaultValue;
+        }
+
+        @Override
+        public void close() {
+            super.close();
+            Misc.free(map);
+            memory.close();
+            if (partitionByRecord != null) {
+                Misc.freeObjList(partitionByRecord.getFunctions());
+            }
+        }
+
+        @Override
+        public void init(SymbolTableSource symbolTableSource, SqlExecutionContext executionContext) throws SqlException {
+            super.init(symbolTableSource, executionContext);
+            if (partitionByRecord != null) {
+                Function.init(partitionByRecord.getFunctions(), symbolTableSource, executionContext);
+            }
+        }
+
+        @Override
+        public void reopen() {
+            if (map != null) {
+                map.reopen();
+            }
+            // memory will allocate on first use
+        }
+
+        @Override
+        public void reset() {
+            super.reset();
+            if (map != null) {
+                map.close();
+            }
+            memory.close();
+            state = -1;
+        }
+
+        @Override
+        public void toPlan(PlanSink sink) {
+            sink.val(getName());
+            sink.val('(').val(arg).val(',').val(offset).val(',').val(defaultValue).val(')');
+            sink.val(" over (");
+            if (partitionByRecord != null) {
+                sink.val("partition by ");
+                sink.val(partitionByRecord.getFunctions());
+            }
+            sink.val(')');
+        }
+
+        @Override
+        public void toTop() {
+            super.toTop();
+            if (map != null) {
+                map.clear();
+            }
+            memory.truncate();
+            state = -1;
+        }
+
+        protected long stateOf(Record record) {
+            if (map == null) {
+                if (state == -1) {
+                    state = newState();
+                }
+                return state;
+            }
+
+            partitionByRecord.of(record);
+            MapKey key = map.withKey();
+            key.put(partitionByRecord, partitionBySink);
+            MapValue value = key.createValue();
+            if (value.isNew()) {
+                final long state = newState();
+                value.putLong(0, state);
+                return state;
+            }
+            return value.getLong(0);
+        }
+
+        private long newState() {
+            final long state = memory.appendAddressFor((offset + 1) * Long.BYTES) - memory.getPageAddress(0);
+            memory.putLong(state, 0);
+            return state;
+        }
+    }
+
+    static class LagFunction extends BaseLagFunction {
+        private double value;
+
+        LagFunction(
+                Map map,
+                VirtualRecord partitionByRecord,
+                RecordSink partitionBySink,
+                MemoryARW memory,
+                Function arg,
+                long offset,
+                double defaultValue
+        ) {
+            super(map, partitionByRecord, partitionBySink, memory, arg, offset, defaultValue);
+        }
+
+        @Override
+        public void computeNext(Record record) {
+            final double d = arg.getDouble(record);
+            if (offset == 0) {
+                value = d;
+                return;
+            }
+
+            final long state = stateOf(record);
+            final long rowCount = memory.getLong(state);
+            final long slot = state + Long.BYTES + (rowCount % offset) * Double.BYTES;
+            value = rowCount < offset ? defaultValue : memory.getDouble(slot);
+            memory.putDouble(slot, d);
+            memory.putLong(state, rowCount + 1);
+        }
+
+        @Override
+        public double getDouble(Record rec) {
+            return value;
+        }
+
+        @Override
+        public String getName() {
+            return NAME;
+        }
+
+        @Override
+        public int getPassCount() {
+            return WindowFunction.ZERO_PASS;
+        }
+
+        @Override
+        public void pass1(Record record, long recordOffset, WindowSPI spi) {
+            computeNext(record);
+            Unsafe.getUnsafe().putDouble(spi.getAddress(recordOffset, columnIndex), value);
+        }
+    }
+}
@@ -0,0 +1,130 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin.engine.functions.window;
+
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.RecordSink;
+import io.questdb.cairo.map.Map;
+import io.questdb.cairo.sql.Function;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.VirtualRecord;
+import io.questdb.cairo.sql.WindowSPI;
+import io.questdb.cairo.vm.api.MemoryARW;
+import io.questdb.griffin.FunctionFactory;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.window.WindowContext;
+import io.questdb.griffin.engine.window.WindowFunction;
+import io.questdb.std.IntList;
+import io.questdb.std.ObjList;
+import io.questdb.std.Unsafe;
+
+// Returns value evaluated at the row that is offset rows after the current row within the partition.
+// Frame clause is ignored.
+public class LeadDoubleWindowFunctionFactory implements FunctionFactory {
+
+    private static final String NAME = "lead";
+    private static final String SIGNATURE = NAME + "(DV)";
+
+    @Override
+    public String getSignature() {
+        return SIGNATURE;
+    }
+
+    @Override
+    public boolean isWindow() {
+        return true;
+    }
+
+    @Override
+    public Function newInstance(
+            int position,
+            ObjList<Function> args,
+            IntList argPositions,
+            CairoConfiguration configuration,
+            SqlExecutionContext sqlExecutionContext
+    ) throws SqlException {
+        final WindowContext windowContext = sqlExecutionContext.getWindowContext();
+        if (windowContext.isEmpty()) {
+            throw SqlException.emptyWindowContext(position);
+        }
+        return new LeadFunction(
+                LagDoubleWindowFunctionFactory.newMap(configuration, windowContext),
+                windowContext.getPartitionByRecord(),
+                windowContext.getPartitionBySink(),
+                LagDoubleWindowFunctionFactory.newMemory(configuration),
+                args.getQuick(0),
+                LagDoubleWindowFunctionFactory.getOffset(position, args, argPositions),
+                LagDoubleWindowFunctionFactory.getDefaultValue(args, argPositions)
+        );
+    }
+
+    // Following rows aren't known yet, so each row is written with the default value first and overwritten
+    // once the row offset rows later arrives. Ring buffer keeps record offsets of the last offset rows.
+    static class LeadFunction extends LagDoubleWindowFunctionFactory.BaseLagFunction {
+
+        LeadFunction(
+                Map map,
+                VirtualRecord partitionByRecord,
+                RecordSink partitionBySink,
+                MemoryARW memory,
+                Function arg,
+                long offset,
+                double defaultValue
+        ) {
+            super(map, partitionByRecord, partitionBySink, memory, arg, offset, defaultValue);
+        }
+
+        @Override
+        public String getName() {
+            return NAME;
+        }
+
+        @Override
+        public int getPassCount() {
+            return WindowFunction.ONE_PASS;
+        }
+
+        @Override
+        public void pass1(Record record, long recordOffset, WindowSPI spi) {
+            final double d = arg.getDouble(record);
+            if (offset == 0) {
+                Unsafe.getUnsafe().putDouble(spi.getAddress(recordOffset, columnIndex), d);
+                return;
+            }
+
+            final long state = stateOf(record);
+            final long rowCount = memory.getLong(state);
+            final long slot = state + Long.BYTES + (rowCount % offset) * Long.BYTES;
+            if (rowCount >= offset) {
+                Unsafe.getUnsafe().putDouble(spi.getAddress(memory.getLong(slot), columnIndex), d);
+            }
+            Unsafe.getUnsafe().putDouble(spi.getAddress(recordOffset, columnIndex), defaultValue);
+            memory.putLong(slot, recordOffset);
+            memory.putLong(state, rowCount + 1);
+        }
+    }
+}
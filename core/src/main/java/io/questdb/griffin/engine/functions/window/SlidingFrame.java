@@ -0,0 +1,512 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin.engine.functions.window;
+
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.RecordSink;
+import io.questdb.cairo.SingleColumnType;
+import io.questdb.cairo.map.Map;
+import io.questdb.cairo.map.MapFactory;
+import io.questdb.cairo.map.MapKey;
+import io.questdb.cairo.map.MapValue;
+import io.questdb.cairo.sql.Function;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.SymbolTableSource;
+import io.questdb.cairo.sql.VirtualRecord;
+import io.questdb.cairo.vm.Vm;
+import io.questdb.cairo.vm.api.MemoryARW;
+import io.questdb.griffin.PlanSink;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.window.WindowContext;
+import io.questdb.griffin.model.WindowColumn;
+import io.questdb.std.*;
+
+/**
+ * Sliding window frame shared by min(), max(), count() and last_value() window functions.
+ * <p>
+ * Each partition owns a state block in native memory holding two resizable ring buffers
+ * of [key, value] pairs, where key is the row number for ROWS frames and the designated
+ * timestamp for RANGE frames. The pending ring buffers values between the frame end
+ * and the current row, the frame ring holds the values that can still affect the result.
+ * For max() and min() the frame ring is a monotonic deque: a value entering the frame
+ * evicts all values it dominates, so the head is always the result and each row costs
+ * amortised O(1). When the frame start is unbounded nothing ever leaves the frame and
+ * the result is kept in a scalar accumulator instead.
+ */
+final class SlidingFrame implements QuietCloseable {
+    static final int KIND_COUNT = 0;
+    static final int KIND_LAST = 1;
+    static final int KIND_MAX = 2;
+    static final int KIND_MIN = 3;
+    // state block layout, ring buffers are described by [capacity, first index, offset, size]
+    private static final int ACCUMULATOR = 0;
+    private static final int ENTRY_SIZE = Long.BYTES + Double.BYTES;
+    private static final int FRAME = 8;
+    private static final int PENDING = 40;
+    private static final int RING_CAPACITY = 0;
+    private static final int RING_FIRST = 8;
+    private static final int RING_OFFSET = 16;
+    private static final int RING_SIZE = 24;
+    private static final int ROW_INDEX = 72;
+    private static final int STATE_SIZE = 80;
+    private final boolean frameLoBounded;
+    // list of [size, startOffset] pairs marking free space within memory
+    private final LongList freeList = new LongList();
+    private final long hiBound;
+    private final boolean includeNulls;
+    private final int initialCapacity;
+    private final int kind;
+    private final long loBound;
+    private final Map map;
+    // holds state blocks and resizable ring buffers
+    private final MemoryARW memory;
+    private final VirtualRecord partitionByRecord;
+    private final RecordSink partitionBySink;
+    private final boolean rangeFrame;
+    private final int timestampIndex;
+    private long state = -1;
+
+    private SlidingFrame(
+            Map map,
+            VirtualRecord partitionByRecord,
+            RecordSink partitionBySink,
+            MemoryARW memory,
+            int kind,
+            boolean includeNulls,
+            boolean rangeFrame,
+            long rowsLo,
+            long rowsHi,
+            int timestampIndex,
+            int initialCapacity
+    ) {
+        this.map = map;
+        this.partitionByRecord = partitionByRecord;
+        this.partitionBySink = partitionBySink;
+        this.memory = memory;
+        this.kind = kind;
+        this.includeNulls = includeNulls;
+        this.rangeFrame = rangeFrame;
+        this.frameLoBounded = rowsLo != Long.MIN_VALUE;
+        this.loBound = frameLoBounded ? Math.abs(rowsLo) : Long.MAX_VALUE;
+        this.hiBound = Math.abs(rowsHi);
+        this.timestampIndex = timestampIndex;
+        this.initialCapacity = initialCapacity;
+    }
+
+    /**
+     * Checks frame clause shared by sliding window functions and returns the frame end,
+     * adjusted for EXCLUDE CURRENT ROW.
+     */
+    static long checkFrame(int position, WindowContext windowContext) throws SqlException {
+        long rowsLo = windowContext.getRowsLo();
+        long rowsHi = windowContext.getRowsHi();
+
+        if (!windowContext.isDefaultFrame()) {
+            if (rowsLo > 0) {
+                throw SqlException.$(windowContext.getRowsLoKindPos(), "frame start supports UNBOUNDED PRECEDING, _number_ PRECEDING and CURRENT ROW only");
+            }
+            if (rowsHi > 0) {
+                if (rowsHi != Long.MAX_VALUE) {
+                    throw SqlException.$(windowContext.getRowsHiKindPos(), "frame end supports _number_ PRECEDING and CURRENT ROW only");
+                } else if (rowsLo != Long.MIN_VALUE) {
+                    throw SqlException.$(windowContext.getRowsHiKindPos(), "frame end supports UNBOUNDED FOLLOWING only when frame start is UNBOUNDED PRECEDING");
+                }
+            }
+        }
+
+        int exclusionKind = windowContext.getExclusionKind();
+        int exclusionKindPos = windowContext.getExclusionKindPos();
+        if (exclusionKind != WindowColumn.EXCLUDE_NO_OTHERS
+                && exclusionKind != WindowColumn.EXCLUDE_CURRENT_ROW) {
+            throw SqlException.$(exclusionKindPos, "only EXCLUDE NO OTHERS and EXCLUDE CURRENT ROW exclusion modes are supported");
+        }
+
+        if (exclusionKind == WindowColumn.EXCLUDE_CURRENT_ROW) {
+            // assumes frame doesn't use 'following'
+            if (rowsHi == Long.MAX_VALUE) {
+                throw SqlException.$(exclusionKindPos, "EXCLUDE CURRENT ROW not supported with UNBOUNDED FOLLOWING frame boundary");
+            }
+
+            if (rowsHi == 0) {
+                rowsHi = -1;
+            }
+            if (rowsHi < rowsLo) {
+                throw SqlException.$(exclusionKindPos, "end of window is higher than start of window due to exclusion mode");
+            }
+        }
+
+        if (windowContext.getFramingMode() == WindowColumn.FRAMING_GROUPS) {
+            throw SqlException.$(position, "function not implemented for given window parameters");
+        }
+        return rowsHi;
+    }
+
+    /**
+     * Whole partition (or whole result set) frames can't be computed on the fly and are handled by two-pass functions.
+     */
+    static boolean isWholePartition(WindowContext windowContext, long rowsLo, long rowsHi) {
+        if (windowContext.getFramingMode() == WindowColumn.FRAMING_RANGE
+                && windowContext.isDefaultFrame()
+                && (!windowContext.isOrdered() || windowContext.getRowsHi() == Long.MAX_VALUE)) {
+            return true;
+        }
+        return rowsLo == Long.MIN_VALUE && rowsHi == Long.MAX_VALUE;
+    }
+
+    static SlidingFrame newInstance(
+            int position,
+            CairoConfiguration configuration,
+            WindowContext windowContext,
+            int kind,
+            boolean includeNulls,
+            long rowsHi
+    ) throws SqlException {
+        final long rowsLo = windowContext.getRowsLo();
+        // range between unbounded preceding and current row is the same as rows because
+        // calculation stops at current row even if there are 'equal' following rows
+        final boolean rangeFrame = windowContext.getFramingMode() == WindowColumn.FRAMING_RANGE
+                && (rowsLo != Long.MIN_VALUE || rowsHi != 0);
+        final int timestampIndex = windowContext.getTimestampIndex();
+        if (rangeFrame) {
+            if (windowContext.isOrdered() && !windowContext.isOrderedByDesignatedTimestamp()) {
+                throw SqlException.$(windowContext.getOrderByPos(), "RANGE is supported only for queries ordered by designated timestamp");
+            }
+            if (timestampIndex == -1) {
+                throw SqlException.$(position, "RANGE is supported only for queries ordered by designated timestamp");
+            }
+        }
+
+        Map map = null;
+        MemoryARW memory = null;
+        try {
+            final VirtualRecord partitionByRecord = windowContext.getPartitionByRecord();
+            if (partitionByRecord != null) {
+                map = MapFactory.createOrderedMap(
+                        configuration,
+                        windowContext.getPartitionByKeyTypes(),
+                        new SingleColumnType(ColumnType.LONG) // state block offset
+                );
+            }
+            memory = Vm.getARWInstance(
+                    configuration.getSqlWindowStorePageSize(),
+                    configuration.getSqlWindowStoreMaxPages(),
+                    MemoryTag.NATIVE_CIRCULAR_BUFFER
+            );
+            return new SlidingFrame(
+                    map,
+                    partitionByRecord,
+                    windowContext.getPartitionBySink(),
+                    memory,
+                    kind,
+                    includeNulls,
+                    rangeFrame,
+                    rowsLo,
+                    rowsHi,
+                    timestampIndex,
+                    configuration.getSqlWindowInitialRangeBufferSize()
+            );
+        } catch (Throwable th) {
+            Misc.free(map);
+            Misc.free(memory);
+            throw th;
+        }
+    }
+
+    /**
+     * Moves the frame of record's partition to the record and returns offset of the partition state.
+     */
+    long add(Record record, double value) {
+        final long state = stateOf(record);
+        final long key;
+        if (rangeFrame) {
+            key = record.getTimestamp(timestampIndex);
+        } else {
+            key = memory.getLong(state + ROW_INDEX);
+            memory.putLong(state + ROW_INDEX, key + 1);
+        }
+
+        if (includeNulls || Numbers.isFinite(value)) {
+            if (hiBound == 0) {
+                push(state, key, value);
+            } else {
+                append(state + PENDING, key, value);
+            }
+        }
+
+        if (hiBound > 0) {
+            // values that reached frame end enter the frame, keys grow or (for descending order) shrink monotonically
+            final long pending = state + PENDING;
+            while (memory.getLong(pending + RING_SIZE) > 0) {
+                final long entry = front(pending);
+                final long entryKey = memory.getLong(entry);
+                if (Math.abs(key - entryKey) < hiBound) {
+                    break;
+                }
+                push(state, entryKey, memory.getDouble(entry + Long.BYTES));
+                popFront(pending);
+            }
+        }
+
+        if (frameLoBounded) {
+            final long frame = state + FRAME;
+            while (memory.getLong(frame + RING_SIZE) > 0 && Math.abs(key - memory.getLong(front(frame))) > loBound) {
+                popFront(frame);
+            }
+        }
+        return state;
+    }
+
+    void clear() {
+        if (map != null) {
+            map.clear();
+        }
+        memory.truncate();
+        freeList.clear();
+        state = -1;
+    }
+
+    @Override
+    public void close() {
+        Misc.free(map);
+        memory.close();
+        freeList.clear();
+        state = -1;
+        if (partitionByRecord != null) {
+            Misc.freeObjList(partitionByRecord.getFunctions());
+        }
+    }
+
+    long getCount(long state) {
+        return frameLoBounded ? memory.getLong(state + FRAME + RING_SIZE) : memory.getLong(state + ACCUMULATOR);
+    }
+
+    double getDouble(long state) {
+        if (!frameLoBounded) {
+            return memory.getDouble(state + ACCUMULATOR);
+        }
+        final long frame = state + FRAME;
+        return memory.getLong(frame + RING_SIZE) > 0 ? memory.getDouble(front(frame) + Long.BYTES) : Double.NaN;
+    }
+
+    void init(SymbolTableSource symbolTableSource, SqlExecutionContext executionContext) throws SqlException {
+        if (partitionByRecord != null) {
+            Function.init(partitionByRecord.getFunctions(), symbolTableSource, executionContext);
+        }
+    }
+
+    void reopen() {
+        if (map != null) {
+            map.reopen();
+        }
+        // memory will allocate on first use
+    }
+
+    void reset() {
+        if (map != null) {
+            map.close();
+        }
+        memory.close();
+        freeList.clear();
+        state = -1;
+    }
+
+    void toPlan(PlanSink sink) {
+        if (partitionByRecord != null) {
+            sink.val("partition by ");
+            sink.val(partitionByRecord.getFunctions());
+            sink.val(' ');
+        }
+        sink.val(rangeFrame ? "range between " : "rows between ");
+        if (frameLoBounded) {
+            sink.val(loBound);
+        } else {
+            sink.val("unbounded");
+        }
+        sink.val(" preceding and ");
+        if (hiBound == 0) {
+            sink.val("current row");
+        } else {
+            sink.val(hiBound).val(" preceding");
+        }
+    }
+
+    private void append(long ring, long key, double value) {
+        long capacity = memory.getLong(ring + RING_CAPACITY);
+        final long size = memory.getLong(ring + RING_SIZE);
+        if (size == capacity) {
+            capacity = grow(ring, capacity, size);
+        }
+        final long entry = memory.getLong(ring + RING_OFFSET) + ((memory.getLong(ring + RING_FIRST) + size) % capacity) * ENTRY_SIZE;
+        memory.putLong(entry, key);
+        memory.putDouble(entry + Long.BYTES, value);
+        memory.putLong(ring + RING_SIZE, size + 1);
+    }
+
+    private long back(long ring) {
+        final long last = memory.getLong(ring + RING_FIRST) + memory.getLong(ring + RING_SIZE) - 1;
+        return memory.getLong(ring + RING_OFFSET) + (last % memory.getLong(ring + RING_CAPACITY)) * ENTRY_SIZE;
+    }
+
+    private long front(long ring) {
+        return memory.getLong(ring + RING_OFFSET) + memory.getLong(ring + RING_FIRST) * ENTRY_SIZE;
+    }
+
+    private long grow(long ring, long capacity, long size) {
+        final long newCapacity = Math.max(capacity << 1, initialCapacity);
+        final long oldOffset = memory.getLong(ring + RING_OFFSET);
+        long newOffset = -1;
+
+        // try to find matching block in free list
+        for (int i = 0, n = freeList.size(); i < n; i += 2) {
+            if (freeList.getQuick(i) == newCapacity) {
+                newOffset = freeList.getQuick(i + 1);
+                freeList.removeIndexBlock(i, 2);
+                break;
+            }
+        }
+
+        if (newOffset == -1) {
+            // call below can end up resizing and thus changing memory start address
+            newOffset = memory.appendAddressFor(newCapacity * ENTRY_SIZE) - memory.getPageAddress(0);
+        }
+
+        if (size > 0) {
+            final long address = memory.getPageAddress(0);
+            final long first = memory.getLong(ring + RING_FIRST);
+            // we can't simply copy because that'd leave a gap in the middle
+            final long firstPieceSize = Math.min(size, capacity - first) * ENTRY_SIZE;
+            Vect.memcpy(address + newOffset, address + oldOffset + first * ENTRY_SIZE, firstPieceSize);
+            Vect.memcpy(address + newOffset + firstPieceSize, address + oldOffset, size * ENTRY_SIZE - firstPieceSize);
+        }
+        if (capacity > 0) {
+            freeList.add(capacity, oldOffset);
+        }
+
+        memory.putLong(ring + RING_CAPACITY, newCapacity);
+        memory.putLong(ring + RING_FIRST, 0);
+        memory.putLong(ring + RING_OFFSET, newOffset);
+        return newCapacity;
+    }
+
+    private void initRing(long ring) {
+        // ring buffer memory is allocated on first append
+        memory.putLong(ring + RING_CAPACITY, 0);
+        memory.putLong(ring + RING_FIRST, 0);
+        memory.putLong(ring + RING_OFFSET, -1);
+        memory.putLong(ring + RING_SIZE, 0);
+    }
+
+    private long newState() {
+        final long state = memory.appendAddressFor(STATE_SIZE) - memory.getPageAddress(0);
+        if (kind == KIND_COUNT) {
+            memory.putLong(state + ACCUMULATOR, 0);
+        } else {
+            memory.putDouble(state + ACCUMULATOR, Double.NaN);
+        }
+        initRing(state + FRAME);
+        initRing(state + PENDING);
+        memory.putLong(state + ROW_INDEX, 0);
+        return state;
+    }
+
+    private void popFront(long ring) {
+        memory.putLong(ring + RING_FIRST, (memory.getLong(ring + RING_FIRST) + 1) % memory.getLong(ring + RING_CAPACITY));
+        memory.putLong(ring + RING_SIZE, memory.getLong(ring + RING_SIZE) - 1);
+    }
+
+    // adds value to the frame
+    private void push(long state, long key, double value) {
+        if (!frameLoBounded) {
+            final long accumulator = state + ACCUMULATOR;
+            switch (kind) {
+                case KIND_COUNT:
+                    memory.putLong(accumulator, memory.getLong(accumulator) + 1);
+                    break;
+                case KIND_LAST:
+                    memory.putDouble(accumulator, value);
+                    break;
+                case KIND_MAX: {
+                    final double current = memory.getDouble(accumulator);
+                    if (Double.isNaN(current) || value > current) {
+                        memory.putDouble(accumulator, value);
+                    }
+                    break;
+                }
+                default: {
+                    final double current = memory.getDouble(accumulator);
+                    if (Double.isNaN(current) || value < current) {
+                        memory.putDouble(accumulator, value);
+                    }
+                    break;
+                }
+            }
+            return;
+        }
+
+        final long frame = state + FRAME;
+        switch (kind) {
+            case KIND_LAST:
+                memory.putLong(frame + RING_FIRST, 0);
+                memory.putLong(frame + RING_SIZE, 0);
+                break;
+            case KIND_MAX:
+                while (memory.getLong(frame + RING_SIZE) > 0 && memory.getDouble(back(frame) + Long.BYTES) <= value) {
+                    memory.putLong(frame + RING_SIZE, memory.getLong(frame + RING_SIZE) - 1);
+                }
+                break;
+            case KIND_MIN:
+                while (memory.getLong(frame + RING_SIZE) > 0 && memory.getDouble(back(frame) + Long.BYTES) >= value) {
+                    memory.putLong(frame + RING_SIZE, memory.getLong(frame + RING_SIZE) - 1);
+                }
+                break;
+            default:
+                break;
+        }
+        append(frame, key, value);
+    }
+
+    private long stateOf(Record record) {
+        if (map == null) {
+            if (state == -1) {
+                state = newState();
+            }
+            return state;
+        }
+
+        partitionByRecord.of(record);
+        MapKey key = map.withKey();
+        key.put(partitionByRecord, partitionBySink);
+        MapValue value = key.createValue();
+        if (value.isNew()) {
+            final long state = newState();
+            value.putLong(0, state);
+            return state;
+        }
+        return value.getLong(0);
+    }
+}
@@ -0,0 +1,163 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin.engine.functions.window;
+
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.Reopenable;
+import io.questdb.cairo.SingleColumnType;
+import io.questdb.cairo.map.Map;
+import io.questdb.cairo.map.MapFactory;
+import io.questdb.cairo.sql.Function;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.SymbolTableSource;
+import io.questdb.cairo.sql.VirtualRecord;
+import io.questdb.cairo.sql.WindowSPI;
+import io.questdb.griffin.PlanSink;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.window.WindowContext;
+import io.questdb.griffin.engine.window.WindowFunction;
+import io.questdb.std.Unsafe;
+
+// Handles max(), min() and last_value() over ([partition by x] [order by o] [rows | range] between [unbounded | y] preceding and [z preceding | current row]).
+class SlidingFrameDoubleWindowFunction extends BaseDoubleWindowFunction implements Reopenable {
+    private final SlidingFrame frame;
+    private final String name;
+    private double value;
+
+    SlidingFrameDoubleWindowFunction(String name, SlidingFrame frame, Function arg) {
+        super(arg);
+        this.name = name;
+        this.frame = frame;
+    }
+
+    static Function newInstance(
+            String name,
+            int kind,
+            boolean includeNulls,
+            int position,
+            Function arg,
+            CairoConfiguration configuration,
+            WindowContext windowContext
+    ) throws SqlException {
+        if (windowContext.isEmpty()) {
+            throw SqlException.emptyWindowContext(position);
+        }
+
+        final long rowsHi = SlidingFrame.checkFrame(position, windowContext);
+        if (SlidingFrame.isWholePartition(windowContext, windowContext.getRowsLo(), rowsHi)) {
+            final VirtualRecord partitionByRecord = windowContext.getPartitionByRecord();
+            Map map = null;
+            if (partitionByRecord != null) {
+                map = MapFactory.createOrderedMap(
+                        configuration,
+                        windowContext.getPartitionByKeyTypes(),
+                        new SingleColumnType(ColumnType.DOUBLE)
+                );
+            }
+            return new WholePartitionDoubleWindowFunction(
+                    name,
+                    kind,
+                    map,
+                    partitionByRecord,
+                    windowContext.getPartitionBySink(),
+                    arg
+            );
+        }
+        return new SlidingFrameDoubleWindowFunction(
+                name,
+                SlidingFrame.newInstance(position, configuration, windowContext, kind, includeNulls, rowsHi),
+                arg
+        );
+    }
+
+    @Override
+    public void close() {
+        super.close();
+        frame.close();
+    }
+
+    @Override
+    public void computeNext(Record record) {
+        value = frame.getDouble(frame.add(record, arg.getDouble(record)));
+    }
+
+    @Override
+    public double getDouble(Record rec) {
+        return value;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public int getPassCount() {
+        return WindowFunction.ZERO_PASS;
+    }
+
+    @Override
+    public void init(SymbolTableSource symbolTableSource, SqlExecutionContext executionContext) throws SqlException {
+        super.init(symbolTableSource, executionContext);
+        frame.init(symbolTableSource, executionContext);
+    }
+
+    @Override
+    public void pass1(Record record, long recordOffset, WindowSPI spi) {
+        computeNext(record);
+        Unsafe.getUnsafe().putDouble(spi.getAddress(recordOffset, columnIndex), value);
+    }
+
+    @Override
+    public void reopen() {
+        frame.reopen();
+        value = Double.NaN;
+    }
+
+    @Override
+    public void reset() {
+        super.reset();
+        frame.reset();
+    }
+
+    @Override
+    public void toPlan(PlanSink sink) {
+        sink.val(name);
+        sink.val('(').val(arg).val(')');
+        sink.val(" over (");
+        frame.toPlan(sink);
+        sink.val(')');
+    }
+
+    @Override
+    public void toTop() {
+        super.toTop();
+        frame.clear();
+        value = Double.NaN;
+    }
+}
@@ -0,0 +1,176 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin.engine.functions.window;
+
+import io.questdb.cairo.RecordSink;
+import io.questdb.cairo.Reopenable;
+import io.questdb.cairo.map.Map;
+import io.questdb.cairo.map.MapKey;
+import io.questdb.cairo.map.MapValue;
+import io.questdb.cairo.sql.Function;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.SymbolTableSource;
+import io.questdb.cairo.sql.VirtualRecord;
+import io.questdb.cairo.sql.WindowSPI;
+import io.questdb.griffin.PlanSink;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.window.WindowFunction;
+import io.questdb.std.Misc;
+import io.questdb.std.Numbers;
+import io.questdb.std.Unsafe;
+
+// Handles max(), min() and last_value() over ([partition by x]) where frame spans whole partition or whole result set.
+// First pass aggregates values per partition, second pass writes them out.
+class WholePartitionDoubleWindowFunction extends BaseDoubleWindowFunction implements Reopenable {
+    private final int kind;
+    // null when there's no partition by
+    private final Map map;
+    private final String name;
+    private final VirtualRecord partitionByRecord;
+    private final RecordSink partitionBySink;
+    private double value = Double.NaN;
+
+    WholePartitionDoubleWindowFunction(
+            String name,
+            int kind,
+            Map map,
+            VirtualRecord partitionByRecord,
+            RecordSink partitionBySink,
+            Function arg
+    ) {
+        super(arg);
+        this.name = name;
+        this.kind = kind;
+        this.map = map;
+        this.partitionByRecord = partitionByRecord;
+        this.partitionBySink = partitionBySink;
+    }
+
+    @Override
+    public void close() {
+        super.close();
+        Misc.free(map);
+        if (partitionByRecord != null) {
+            Misc.freeObjList(partitionByRecord.getFunctions());
+        }
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public int getPassCount() {
+        return WindowFunction.TWO_PASS;
+    }
+
+    @Override
+    public void init(SymbolTableSource symbolTableSource, SqlExecutionContext executionContext) throws SqlException {
+        super.init(symbolTableSource, executionContext);
+        if (partitionByRecord != null) {
+            Function.init(partitionByRecord.getFunctions(), symbolTableSource, executionContext);
+        }
+    }
+
+    @Override
+    public void pass1(Record record, long recordOffset, WindowSPI spi) {
+        final double d = arg.getDouble(record);
+        if (map == null) {
+            value = aggregate(value, d);
+            return;
+        }
+
+        partitionByRecord.of(record);
+        MapKey key = map.withKey();
+        key.put(partitionByRecord, partitionBySink);
+        MapValue mapValue = key.createValue();
+        mapValue.putDouble(0, aggregate(mapValue.isNew() ? Double.NaN : mapValue.getDouble(0), d));
+    }
+
+    @Override
+    public void pass2(Record record, long recordOffset, WindowSPI spi) {
+        double result = value;
+        if (map != null) {
+            partitionByRecord.of(record);
+            MapKey key = map.withKey();
+            key.put(partitionByRecord, partitionBySink);
+            MapValue mapValue = key.findValue();
+            result = mapValue != null ? mapValue.getDouble(0) : Double.NaN;
+        }
+        Unsafe.getUnsafe().putDouble(spi.getAddress(recordOffset, columnIndex), result);
+    }
+
+    @Override
+    public void reopen() {
+        if (map != null) {
+            map.reopen();
+        }
+        value = Double.NaN;
+    }
+
+    @Override
+    public void reset() {
+        super.reset();
+        if (map != null) {
+            map.close();
+        }
+        value = Double.NaN;
+    }
+
+    @Override
+    public void toPlan(PlanSink sink) {
+        sink.val(name);
+        sink.val('(').val(arg).val(')');
+        sink.val(" over (");
+        if (partitionByRecord != null) {
+            sink.val("partition by ");
+            sink.val(partitionByRecord.getFunctions());
+        }
+        sink.val(')');
+    }
+
+    @Override
+    public void toTop() {
+        super.toTop();
+        if (map != null) {
+            map.clear();
+        }
+        value = Double.NaN;
+    }
+
+    private double aggregate(double current, double d) {
+        switch (kind) {
+            case SlidingFrame.KIND_LAST:
+                return d;
+            case SlidingFrame.KIND_MAX:
+                return Numbers.isFinite(d) && (Double.isNaN(current) || d > current) ? d : current;
+            default:
+                return Numbers.isFinite(d) && (Double.isNaN(current) || d < current) ? d : current;
+        }
+    }
+}
@@ -35,11 +35,14 @@ import io.questdb.griffin.SqlExecutionContext;
 import io.questdb.griffin.engine.groupby.vect.CountVectorAggregateFunction;
 import io.questdb.griffin.engine.groupby.vect.GroupByRecordCursorFactory;
 import io.questdb.griffin.engine.groupby.vect.VectorAggregateFunction;
+import io.questdb.std.IntList;
 import io.questdb.std.ObjList;
 import io.questdb.std.Transient;
 
 public class DistinctIntKeyRecordCursorFactory extends AbstractRecordCursorFactory {
     private static final TableColumnMetadata COUNT_COLUMN_META = new TableColumnMetadata("count", ColumnType.LONG);
+    // key is the only column of the base cursor, read-only
+    private static final IntList ZERO_KEY_INDEX = new IntList(1);
 
     private final GroupByRecordCursorFactory baseAggregatorFactory;
 
@@ -72,8 +75,8 @@ public class DistinctIntKeyRecordCursorFactory extends AbstractRecordCursorFacto
                 columnTypes,
                 workerCount,
                 vafList,
-                0,
-                0,
+                ZERO_KEY_INDEX,
+                ZERO_KEY_INDEX,
                 null
         );
     }
@@ -103,4 +106,8 @@ public class DistinctIntKeyRecordCursorFactory extends AbstractRecordCursorFacto
     protected void _close() {
         baseAggregatorFactory.close();
     }
+
+    static {
+        ZERO_KEY_INDEX.add(0);
+    }
 }
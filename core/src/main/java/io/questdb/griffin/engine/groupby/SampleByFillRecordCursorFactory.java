@@ -0,0 +1,532 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.groupby;
+
+import io.questdb.cairo.*;
+import io.questdb.cairo.map.Map;
+import io.questdb.cairo.map.MapFactory;
+import io.questdb.cairo.map.MapKey;
+import io.questdb.cairo.map.MapRecord;
+import io.questdb.cairo.map.MapRecordCursor;
+import io.questdb.cairo.map.MapValue;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.*;
+import io.questdb.griffin.FunctionParser;
+import io.questdb.griffin.PlanSink;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.SqlKeywords;
+import io.questdb.griffin.engine.functions.*;
+import io.questdb.griffin.engine.functions.constants.NullConstant;
+import io.questdb.griffin.model.ExpressionNode;
+import io.questdb.std.*;
+import io.questdb.std.datetime.TimeZoneRules;
+import io.questdb.std.datetime.microtime.Timestamps;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Fills gaps in the output of "sample by" query that was rewritten to "group by". The base
+ * factory is expected to produce rows sorted by the bucket timestamp. Buckets are stepped in
+ * local time of the sample by time zone, which mirrors "sample by" cursors. Fill rows, which
+ * would break ascending timestamp order due to daylight savings transitions, are skipped.
+ * <p>
+ * Keyed queries take two passes over the base cursor. The first pass collects the keys
+ * and the second pass emits base rows and fill rows for keys missing in each bucket.
+ */
+public class SampleByFillRecordCursorFactory extends AbstractRecordCursorFactory {
+    // column kinds, other column kinds are indexes of the fill values
+    public static final int COLUMN_KEY = -1;
+    public static final int COLUMN_TIMESTAMP = -2;
+    private static final int FILL_CONSTANT = 3;
+    private static final int FILL_KEY = 0;
+    private static final int FILL_LINEAR = 4;
+    private static final int FILL_PREV = 2;
+    private static final int FILL_TIMESTAMP = 1;
+    private static final int VALUE_LAST_BUCKET = 0;
+    private static final int VALUE_ROW_ID = 1;
+    private final RecordCursorFactory base;
+    private final SampleByFillRecordCursor cursor;
+    private final ObjList<ExpressionNode> fillValues;
+    private final ExpressionNode stride;
+
+    public SampleByFillRecordCursorFactory(
+            @Transient @NotNull BytecodeAssembler asm,
+            CairoConfiguration configuration,
+            RecordCursorFactory base,
+            @NotNull TimestampSampler timestampSampler,
+            @Nullable TimeZoneRules timeZoneRules,
+            int timestampIndex,
+            @Transient @NotNull IntList columnKinds,
+            @Transient @NotNull IntList columnPositions,
+            @Transient @NotNull ObjList<ExpressionNode> fillValues,
+            ExpressionNode stride
+    ) throws SqlException {
+        super(base.getMetadata());
+        this.base = base;
+        this.stride = stride;
+        this.fillValues = new ObjList<>(fillValues);
+        try {
+            final RecordMetadata metadata = base.getMetadata();
+            final ListColumnFilter keyColumnFilter = new ListColumnFilter();
+            final ArrayColumnTypes keyTypes = new ArrayColumnTypes();
+            final IntList fillModes = new IntList(columnKinds.size());
+            final ObjList<Function> fillConstants = new ObjList<>(columnKinds.size());
+            for (int i = 0, n = columnKinds.size(); i < n; i++) {
+                final int kind = columnKinds.getQuick(i);
+                Function constant = null;
+                if (kind == COLUMN_KEY) {
+                    keyColumnFilter.add(i + 1);
+                    keyTypes.add(metadata.getColumnType(i));
+                    fillModes.add(FILL_KEY);
+                } else if (kind == COLUMN_TIMESTAMP) {
+                    fillModes.add(FILL_TIMESTAMP);
+                } else {
+                    final ExpressionNode fillNode = fillValues.getQuick(kind);
+                    if (SqlKeywords.isPrevKeyword(fillNode.token)) {
+                        fillModes.add(FILL_PREV);
+                    } else if (SqlKeywords.isLinearKeyword(fillNode.token)) {
+                        fillModes.add(FILL_LINEAR);
+                    } else if (SqlKeywords.isNullKeyword(fillNode.token)) {
+                        fillModes.add(FILL_CONSTANT);
+                        constant = SampleByFillNullRecordCursorFactory.createPlaceHolderFunction(columnPositions, i, metadata.getColumnType(i));
+                    } else {
+                        fillModes.add(FILL_CONSTANT);
+                        constant = SampleByFillValueRecordCursorFactory.createPlaceHolderFunction(columnPositions, i, metadata.getColumnType(i), fillNode);
+                    }
+                }
+                fillConstants.add(constant);
+            }
+            if (keyTypes.getColumnCount() > 0 && fillModes.contains(FILL_LINEAR)) {
+                throw SqlException.position(0).put("linear interpolation is not supported when using fill values for keyed sample by expression");
+            }
+
+            Map map = null;
+            RecordSink keySink = null;
+            if (keyTypes.getColumnCount() > 0) {
+                final ArrayColumnTypes valueTypes = new ArrayColumnTypes();
+                valueTypes.add(ColumnType.LONG); // last bucket, in which key had a row
+                valueTypes.add(ColumnType.LONG); // row id of the last row of the key
+                map = MapFactory.createOrderedMap(configuration, keyTypes, valueTypes);
+                keySink = RecordSinkFactory.getInstance(asm, metadata, keyColumnFilter, false);
+            }
+            cursor = new SampleByFillRecordCursor(
+                    metadata,
+                    map,
+                    keySink,
+                    timestampSampler,
+                    timeZoneRules,
+                    timestampIndex,
+                    fillModes,
+                    fillConstants
+            );
+        } catch (Throwable th) {
+            close();
+            throw th;
+        }
+    }
+
+    @Override
+    public RecordCursorFactory getBaseFactory() {
+        return base;
+    }
+
+    @Override
+    public RecordCursor getCursor(SqlExecutionContext executionContext) throws SqlException {
+        final RecordCursor baseCursor = base.getCursor(executionContext);
+        try {
+            cursor.of(baseCursor, executionContext);
+            return cursor;
+        } catch (Throwable e) {
+            baseCursor.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public boolean recordCursorSupportsRandomAccess() {
+        return false;
+    }
+
+    @Override
+    public void toPlan(PlanSink sink) {
+        sink.type("Fill");
+        sink.attr("stride").val(stride);
+        sink.attr("values").val(fillValues);
+        sink.child(base);
+    }
+
+    @Override
+    public boolean usesCompiledFilter() {
+        return base.usesCompiledFilter();
+    }
+
+    @Override
+    public boolean usesIndex() {
+        return base.usesIndex();
+    }
+
+    @Override
+    protected void _close() {
+        Misc.free(base);
+        Misc.free(cursor);
+    }
+
+    private class SampleByFillRecordCursor implements NoRandomAccessRecordCursor {
+        // fill record for keys that had at least one row before the current bucket
+        private final VirtualRecord fillRecord;
+        private final ObjList<Function> fillRecordFunctions = new ObjList<>();
+        // fill record for keys that are yet to have their first row, "prev" values are null here
+        private final VirtualRecord fillRecordNoPrev;
+        private final ObjList<Function> fillRecordNoPrevFunctions = new ObjList<>();
+        private final RecordSink keySink;
+        private final Map map;
+        private final DelegatingRecord record = new DelegatingRecord();
+        private final TimestampSampler timestampSampler;
+        private final TimeZoneRules timeZoneRules;
+        private final int timestampIndex;
+        private RecordCursor baseCursor;
+        private Record baseRecord;
+        // local time of the current bucket
+        private long bucket;
+        // UTC timestamp of the current bucket
+        private long bucketTs;
+        private SqlExecutionCircuitBreaker circuitBreaker;
+        private boolean hasPendingRow;
+        private boolean isFillingKeys;
+        private boolean isOpen;
+        private boolean isPendingRowConsumed;
+        private MapRecordCursor mapCursor;
+        private MapRecord mapRecord;
+        // local time and UTC timestamp of the bucket of the next base row
+        private long pendingBucket;
+        private long pendingTs;
+        private long prevBucketTs;
+        private Record prevRecord;
+        private long prevRowId;
+        private long prevTs;
+
+        public SampleByFillRecordCursor(
+                RecordMetadata metadata,
+                @Nullable Map map,
+                @Nullable RecordSink keySink,
+                TimestampSampler timestampSampler,
+                @Nullable TimeZoneRules timeZoneRules,
+                int timestampIndex,
+                IntList fillModes,
+                ObjList<Function> fillConstants
+        ) throws SqlException {
+            this.map = map;
+            this.keySink = keySink;
+            this.timestampSampler = timestampSampler;
+            this.timeZoneRules = timeZoneRules;
+            this.timestampIndex = timestampIndex;
+
+            final Function timestampFunction = new FillTimestampFunction();
+            for (int i = 0, n = fillModes.size(); i < n; i++) {
+                switch (fillModes.getQuick(i)) {
+                    case FILL_KEY:
+                        final Function keyFunction = FunctionParser.createColumn(0, metadata.getColumnName(i), metadata);
+                        fillRecordFunctions.add(keyFunction);
+                        fillRecordNoPrevFunctions.add(keyFunction);
+                        break;
+                    case FILL_TIMESTAMP:
+                        fillRecordFunctions.add(timestampFunction);
+                        fillRecordNoPrevFunctions.add(timestampFunction);
+                        break;
+                    case FILL_PREV:
+                        fillRecordFunctions.add(FunctionParser.createColumn(0, metadata.getColumnName(i), metadata));
+                        fillRecordNoPrevFunctions.add(NullConstant.NULL);
+                        break;
+                    case FILL_LINEAR:
+                        final Function linearFunction = createLinearFunction(metadata, i);
+                        fillRecordFunctions.add(linearFunction);
+                        fillRecordNoPrevFunctions.add(linearFunction);
+                        break;
+                    default:
+                        fillRecordFunctions.add(fillConstants.getQuick(i));
+                        fillRecordNoPrevFunctions.add(fillConstants.getQuick(i));
+                        break;
+                }
+            }
+            this.fillRecord = new VirtualRecord(fillRecordFunctions);
+            this.fillRecordNoPrev = new VirtualRecord(fillRecordNoPrevFunctions);
+            this.isOpen = true;
+        }
+
+        @Override
+        public void close() {
+            if (isOpen) {
+                isOpen = false;
+                baseCursor = Misc.free(baseCursor);
+                Misc.free(map);
+            }
+        }
+
+        @Override
+        public Record getRecord() {
+            return record;
+        }
+
+        @Override
+        public SymbolTable getSymbolTable(int columnIndex) {
+            return baseCursor.getSymbolTable(columnIndex);
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (isPendingRowConsumed) {
+                nextPendingRow();
+            }
+            return map != null ? hasNextKeyed() : hasNextNotKeyed();
+        }
+
+        @Override
+        public SymbolTable newSymbolTable(int columnIndex) {
+            return baseCursor.newSymbolTable(columnIndex);
+        }
+
+        @Override
+        public long size() {
+            return -1;
+        }
+
+        @Override
+        public void toTop() {
+            baseCursor.toTop();
+            if (map != null) {
+                map.clear();
+            }
+            start();
+        }
+
+        private Function createLinearFunction(RecordMetadata metadata, int columnIndex) throws SqlException {
+            switch (ColumnType.tagOf(metadata.getColumnType(columnIndex))) {
+                case ColumnType.BYTE:
+                    return new ByteFunction() {
+                        @Override
+                        public byte getByte(Record rec) {
+                            return (byte) interpolate(prevRecord.getByte(columnIndex), baseRecord.getByte(columnIndex));
+                        }
+                    };
+                case ColumnType.SHORT:
+                    return new ShortFunction() {
+                        @Override
+                        public short getShort(Record rec) {
+                            return (short) interpolate(prevRecord.getShort(columnIndex), baseRecord.getShort(columnIndex));
+                        }
+                    };
+                case ColumnType.INT:
+                    return new IntFunction() {
+                        @Override
+                        public int getInt(Record rec) {
+                            final int y1 = prevRecord.getInt(columnIndex);
+                            final int y2 = baseRecord.getInt(columnIndex);
+                            return y1 != Numbers.INT_NULL && y2 != Numbers.INT_NULL ? (int) interpolate(y1, y2) : Numbers.INT_NULL;
+                        }
+                    };
+                case ColumnType.LONG:
+                    return new LongFunction() {
+                        @Override
+                        public long getLong(Record rec) {
+                            final long y1 = prevRecord.getLong(columnIndex);
+                            final long y2 = baseRecord.getLong(columnIndex);
+                            return y1 != Numbers.LONG_NULL && y2 != Numbers.LONG_NULL ? (long) interpolate(y1, y2) : Numbers.LONG_NULL;
+                        }
+                    };
+                case ColumnType.FLOAT:
+                    return new FloatFunction() {
+                        @Override
+                        public float getFloat(Record rec) {
+                            return (float) interpolate(prevRecord.getFloat(columnIndex), baseRecord.getFloat(columnIndex));
+                        }
+                    };
+                case ColumnType.DOUBLE:
+                    return new DoubleFunction() {
+                        @Override
+                        public double getDouble(Record rec) {
+                            return interpolate(prevRecord.getDouble(columnIndex), baseRecord.getDouble(columnIndex));
+                        }
+                    };
+                default:
+                    throw SqlException.$(0, "linear interpolation is not supported for type: ").put(ColumnType.nameOf(metadata.getColumnType(columnIndex)));
+            }
+        }
+
+        private boolean hasNextKeyed() {
+            while (true) {
+                circuitBreaker.statefulThrowExceptionIfTripped();
+                if (isFillingKeys) {
+                    while (mapCursor.hasNext()) {
+                        final MapValue value = mapRecord.getValue();
+                        if (value.getLong(VALUE_LAST_BUCKET) != bucket) {
+                            baseCursor.recordAt(prevRecord, value.getLong(VALUE_ROW_ID));
+                            record.of(value.getLong(VALUE_LAST_BUCKET) != Long.MIN_VALUE ? fillRecord : fillRecordNoPrev);
+                            return true;
+                        }
+                    }
+                    isFillingKeys = false;
+                    if (!hasPendingRow) {
+                        return false;
+                    }
+                    nextBucket();
+                }
+
+                if (hasPendingRow && pendingBucket == bucket) {
+                    final MapKey key = map.withKey();
+                    key.put(baseRecord, keySink);
+                    final MapValue value = key.findValue();
+                    value.putLong(VALUE_LAST_BUCKET, bucket);
+                    value.putLong(VALUE_ROW_ID, baseRecord.getRowId());
+                    bucketTs = pendingTs;
+                    isPendingRowConsumed = true;
+                    record.of(baseRecord);
+                    return true;
+                }
+
+                // base rows of the current bucket are exhausted, fill in missing keys
+                if (isFillable()) {
+                    mapCursor.toTop();
+                    isFillingKeys = true;
+                } else if (hasPendingRow) {
+                    nextBucket();
+                } else {
+                    return false;
+                }
+            }
+        }
+
+        private boolean hasNextNotKeyed() {
+            while (hasPendingRow) {
+                circuitBreaker.statefulThrowExceptionIfTripped();
+                if (pendingBucket == bucket) {
+                    prevRowId = baseRecord.getRowId();
+                    prevTs = pendingTs;
+                    bucketTs = pendingTs;
+                    isPendingRowConsumed = true;
+                    record.of(baseRecord);
+                    nextBucket();
+                    return true;
+                }
+
+                final boolean fill = isFillable();
+                nextBucket();
+                if (fill) {
+                    baseCursor.recordAt(prevRecord, prevRowId);
+                    record.of(fillRecord);
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private double interpolate(double y1, double y2) {
+            return InterpolationUtil.interpolate(bucketTs, prevTs, y1, pendingTs, y2);
+        }
+
+        private boolean isFillable() {
+            // daylight savings transitions may produce local times that do not exist or
+            // map onto already emitted timestamps, such buckets are not filled
+            final long ts = timeZoneRules != null ? Timestamps.toUTC(bucket, timeZoneRules) : bucket;
+            if (ts > prevBucketTs && (!hasPendingRow || ts < pendingTs)) {
+                bucketTs = ts;
+                return true;
+            }
+            return false;
+        }
+
+        private long localTime(long ts) {
+            return timeZoneRules != null ? ts + timeZoneRules.getOffset(ts) : ts;
+        }
+
+        private void nextBucket() {
+            prevBucketTs = bucketTs;
+            bucket = timestampSampler.nextTimestamp(bucket);
+        }
+
+        private void nextPendingRow() {
+            isPendingRowConsumed = false;
+            hasPendingRow = baseCursor.hasNext();
+            if (hasPendingRow) {
+                pendingTs = baseRecord.getTimestamp(timestampIndex);
+                pendingBucket = timestampSampler.round(localTime(pendingTs));
+                if (pendingBucket < bucket) {
+                    throw CairoException.critical(0).put("fill expects rows ordered by timestamp [ts=").ts(pendingTs).put(']');
+                }
+            }
+        }
+
+        private void start() {
+            if (map != null) {
+                // collect keys, the fill record is positioned at the first row of the key
+                // until the key has its first row
+                while (baseCursor.hasNext()) {
+                    circuitBreaker.statefulThrowExceptionIfTripped();
+                    final MapKey key = map.withKey();
+                    key.put(baseRecord, keySink);
+                    final MapValue value = key.createValue();
+                    if (value.isNew()) {
+                        value.putLong(VALUE_LAST_BUCKET, Long.MIN_VALUE);
+                        value.putLong(VALUE_ROW_ID, baseRecord.getRowId());
+                    }
+                }
+                baseCursor.toTop();
+                mapCursor = map.getCursor();
+                mapRecord = mapCursor.getRecord();
+            }
+            isFillingKeys = false;
+            prevRowId = -1;
+            prevBucketTs = Long.MIN_VALUE;
+            bucket = Long.MIN_VALUE;
+            nextPendingRow();
+            bucket = hasPendingRow ? pendingBucket : Long.MIN_VALUE;
+        }
+
+        void of(RecordCursor baseCursor, SqlExecutionContext executionContext) throws SqlException {
+            if (!isOpen) {
+                isOpen = true;
+                if (map != null) {
+                    map.reopen();
+                }
+            }
+            this.baseCursor = baseCursor;
+            this.baseRecord = baseCursor.getRecord();
+            this.prevRecord = baseCursor.getRecordB();
+            this.circuitBreaker = executionContext.getCircuitBreaker();
+            fillRecord.of(prevRecord);
+            fillRecordNoPrev.of(prevRecord);
+            Function.init(fillRecordFunctions, baseCursor, executionContext);
+            Function.init(fillRecordNoPrevFunctions, baseCursor, executionContext);
+            start();
+        }
+
+        private class FillTimestampFunction extends TimestampFunction {
+            @Override
+            public long getTimestamp(Record rec) {
+                return bucketTs;
+            }
+        }
+    }
+}
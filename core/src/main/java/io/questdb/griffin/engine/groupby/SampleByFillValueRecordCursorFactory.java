@@ -162,7 +162,7 @@ public class SampleByFillValueRecordCursorFactory extends AbstractSampleByFillRe
             Function function = recordFunctions.getQuick(i);
             if (function instanceof GroupByFunction) {
                 if (fillIndex == fillValueCount) {
-                    throw SqlException.position(0).put("not enough values");
+                    throw SqlException.position(fillValues.getQuick(fillValueCount - 1).position).put("not enough values");
                 }
                 ExpressionNode fillNode = fillValues.getQuick(fillIndex++);
                 if (isNullKeyword(fillNode.token)) {
@@ -27,8 +27,14 @@ package io.questdb.griffin.engine.groupby;
 import io.questdb.griffin.SqlException;
 import io.questdb.std.Numbers;
 import io.questdb.std.NumericException;
+import io.questdb.std.datetime.FixedTimeZoneRule;
+import io.questdb.std.datetime.TimeZoneRules;
+import io.questdb.std.datetime.microtime.TimestampFormatUtils;
 import io.questdb.std.datetime.microtime.Timestamps;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import static io.questdb.std.datetime.TimeZoneRuleFactory.RESOLUTION_MICROS;
 
 public final class TimestampSamplerFactory {
 
@@ -96,6 +102,54 @@ public final class TimestampSamplerFactory {
         throw SqlException.$(position, "expected one character interval qualifier");
     }
 
+    /**
+     * Parses "sample by" offset, such as '00:15' or '-01:30'.
+     *
+     * @param offset   the offset text, null is treated as zero offset
+     * @param position position in SQL text to report error against
+     * @return offset in microseconds
+     * @throws SqlException when offset is invalid
+     */
+    public static long getOffset(@Nullable CharSequence offset, int position) throws SqlException {
+        if (offset == null) {
+            return 0;
+        }
+        final long val = Timestamps.parseOffset(offset);
+        if (val == Numbers.LONG_NULL) {
+            throw SqlException.$(position, "invalid offset: ").put(offset);
+        }
+        return Numbers.decodeLowInt(val) * Timestamps.MINUTE_MICROS;
+    }
+
+    /**
+     * Resolves time zone rules for either time zone name, such as 'Europe/London', or
+     * numeric offset, such as '+03:00'.
+     *
+     * @param timezone time zone text, null stands for UTC
+     * @param position position in SQL text to report error against
+     * @return time zone rules or null for UTC
+     * @throws SqlException when time zone is invalid
+     */
+    @Nullable
+    public static TimeZoneRules getTimeZoneRules(@Nullable CharSequence timezone, int position) throws SqlException {
+        if (timezone == null) {
+            return null;
+        }
+        try {
+            final long opt = Timestamps.parseOffset(timezone);
+            if (opt == Long.MIN_VALUE) {
+                return TimestampFormatUtils.EN_LOCALE.getZoneRules(
+                        Numbers.decodeLowInt(TimestampFormatUtils.EN_LOCALE.matchZone(timezone, 0, timezone.length())),
+                        RESOLUTION_MICROS
+                );
+            }
+            final long tzOffset = Numbers.decodeLowInt(opt) * Timestamps.MINUTE_MICROS;
+            return tzOffset != 0 ? new FixedTimeZoneRule(tzOffset) : null;
+        } catch (NumericException e) {
+            throw SqlException.$(position, "invalid timezone: ").put(timezone);
+        }
+    }
+
     @NotNull
     private static TimestampSampler createTimestampSampler(long interval, char timeUnit, int position) throws SqlException {
         switch (timeUnit) {
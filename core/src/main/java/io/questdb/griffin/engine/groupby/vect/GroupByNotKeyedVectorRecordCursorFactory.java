@@ -249,7 +249,8 @@ public class GroupByNotKeyedVectorRecordCursorFactory extends AbstractRecordCurs
                         final long pageAddress = columnIndex > -1 ? frame.getPageAddress(columnIndex) : 0;
                         final long pageSize = columnIndex > -1 ? frame.getPageSize(columnIndex) : frame.getPageSize(0);
                         final int colSizeShr = columnIndex > -1 ? frame.getColumnShiftBits(columnIndex) : frame.getColumnShiftBits(0);
-                        long seq = pubSeq.next();
+                        // pages of compressed frames are decoded into buffers reused by the next frame
+                        long seq = frame.isCompressed() ? -1 : pubSeq.next();
                         if (seq < 0) {
                             circuitBreaker.statefulThrowExceptionIfTrippedNoThrottle();
                             // acquire the slot and DIY the func
@@ -269,6 +270,9 @@ public class GroupByNotKeyedVectorRecordCursorFactory extends AbstractRecordCurs
                             entry.of(
                                     vaf,
                                     null,
+                                    null,
+                                    0,
+                                    0,
                                     0,
                                     pageAddress,
                                     pageSize,
@@ -58,6 +58,8 @@ public class GroupByRecordCursorFactory extends AbstractRecordCursorFactory {
     private final SOUnboundedCountDownLatch doneLatch = new SOUnboundedCountDownLatch();
     private final ObjectPool<VectorAggregateEntry> entryPool;
     private final int keyColumnIndex;
+    private final int keyColumnIndex2;
+    private final RostiKeyEncoder keyEncoder;
     private final AtomicInteger oomCounter = new AtomicInteger();
     private final long[] pRosti;
     private final PerWorkerLocks perWorkerLocks; // used to protect pRosti and VAF's internal slots
@@ -73,8 +75,8 @@ public class GroupByRecordCursorFactory extends AbstractRecordCursorFactory {
             @Transient ColumnTypes columnTypes,
             int workerCount,
             @Transient ObjList<VectorAggregateFunction> vafList,
-            int keyColumnIndexInBase,
-            int keyColumnIndexInThisCursor,
+            @Transient IntList keyColumnIndexesInBase,
+            @Transient IntList keyColumnIndexesInThisCursor,
             @Transient @Nullable IntList symbolTableSkewIndex
     ) {
         super(metadata);
@@ -82,7 +84,8 @@ public class GroupByRecordCursorFactory extends AbstractRecordCursorFactory {
             this.workerCount = workerCount;
             entryPool = new ObjectPool<>(VectorAggregateEntry::new, configuration.getGroupByPoolCapacity());
             // columnTypes and functions must align in the following way:
-            // columnTypes[0] is the type of key, for now single key is supported
+            // columnTypes[0] is the type of key, rosti holds single INT key, LONG keys
+            // and pairs of SYMBOL keys are encoded to INT by the key encoder
             // functions.size = columnTypes.size - 1, functions do not have instance for key, only for values
             // functions[0].type == columnTypes[1]
             // ...
@@ -92,6 +95,16 @@ public class GroupByRecordCursorFactory extends AbstractRecordCursorFactory {
             sharedCircuitBreaker = new AtomicBooleanCircuitBreaker();
             this.base = base;
             // first column is INT or SYMBOL
+            keyColumnIndex = keyColumnIndexesInBase.getQuick(0);
+            if (keyColumnIndexesInBase.size() > 1) {
+                keyColumnIndex2 = keyColumnIndexesInBase.getQuick(1);
+                keyEncoder = new RostiKeyEncoder(configuration, RostiKeyEncoder.KIND_SYMBOL_PAIR, keyColumnIndex, keyColumnIndex2, workerCount);
+            } else {
+                keyColumnIndex2 = -1;
+                keyEncoder = ColumnType.tagOf(base.getMetadata().getColumnType(keyColumnIndex)) == ColumnType.LONG
+                        ? new RostiKeyEncoder(configuration, RostiKeyEncoder.KIND_LONG, keyColumnIndex, -1, workerCount)
+                        : null;
+            }
             pRosti = new long[workerCount];
             final int vafCount = vafList.size();
             this.vafList = new ObjList<>(vafCount);
@@ -134,25 +147,26 @@ public class GroupByRecordCursorFactory extends AbstractRecordCursorFactory {
             final long pRosti = this.pRosti[0];
             final long columnOffsets = Rosti.getValueOffsets(pRosti);
 
-            // skew logic assumes single key, for multiple keys skew would be different
-
+            // keys can be in the middle, aggregates are in the same order as in this cursor,
+            // all keys share the offset of the rosti key
             final IntList columnSkewIndex = new IntList();
-            // key is in the middle, shift aggregates before the key one position left
-            addOffsets(columnSkewIndex, this.vafList, 0, keyColumnIndexInThisCursor, columnOffsets);
-
-            // this is offset of the key column
-            columnSkewIndex.add(0);
-
-            // add remaining aggregate columns as is
-            addOffsets(columnSkewIndex, this.vafList, keyColumnIndexInThisCursor, vafCount, columnOffsets);
+            final IntList keyOrdinals = new IntList();
+            for (int i = 0, vafIndex = 0, keyCount = keyColumnIndexesInThisCursor.size(), n = keyCount + vafCount; i < n; i++) {
+                final int keyOrdinal = keyColumnIndexesInThisCursor.indexOf(i, 0, keyCount);
+                if (keyOrdinal > -1) {
+                    columnSkewIndex.add(0);
+                } else {
+                    columnSkewIndex.add(Unsafe.getUnsafe().getInt(columnOffsets + this.vafList.getQuick(vafIndex++).getValueOffset() * 4L));
+                }
+                keyOrdinals.add(keyOrdinal);
+            }
 
-            keyColumnIndex = keyColumnIndexInBase;
             if (symbolTableSkewIndex != null && symbolTableSkewIndex.size() > 0) {
                 final IntList symbolSkew = new IntList(symbolTableSkewIndex.size());
                 symbolSkew.addAll(symbolTableSkewIndex);
-                cursor = new RostiRecordCursor(pRosti, columnSkewIndex, symbolSkew);
+                cursor = new RostiRecordCursor(pRosti, columnSkewIndex, keyOrdinals, symbolSkew);
             } else {
-                cursor = new RostiRecordCursor(pRosti, columnSkewIndex, null);
+                cursor = new RostiRecordCursor(pRosti, columnSkewIndex, keyOrdinals, null);
             }
         } catch (Throwable th) {
             close();
@@ -190,7 +204,11 @@ public class GroupByRecordCursorFactory extends AbstractRecordCursorFactory {
         sink.type("GroupBy");
         sink.meta("vectorized").val(true);
         sink.meta("workers").val(workerCount);
-        sink.attr("keys").val("[").putBaseColumnNameNoRemap(keyColumnIndex).val("]");
+        sink.attr("keys").val("[").putBaseColumnNameNoRemap(keyColumnIndex);
+        if (keyColumnIndex2 > -1) {
+            sink.val(',').putBaseColumnNameNoRemap(keyColumnIndex2);
+        }
+        sink.val("]");
         sink.optAttr("values", vafList, true);
         sink.child(base);
     }
@@ -205,18 +223,6 @@ public class GroupByRecordCursorFactory extends AbstractRecordCursorFactory {
         return base.usesIndex();
     }
 
-    private static void addOffsets(
-            IntList columnSkewIndex,
-            @Transient ObjList<VectorAggregateFunction> vafList,
-            int start,
-            int end,
-            long columnOffsets
-    ) {
-        for (int i = start; i < end; i++) {
-            columnSkewIndex.add(Unsafe.getUnsafe().getInt(columnOffsets + vafList.getQuick(i).getValueOffset() * 4L));
-        }
-    }
-
     private void resetRostiMemorySize() {
         for (int i = 0, n = pRosti.length; i < n; i++) {
             if (!raf.reset(pRosti[i], ROSTI_MINIMIZED_SIZE)) {
@@ -229,6 +235,7 @@ public class GroupByRecordCursorFactory extends AbstractRecordCursorFactory {
     protected void _close() {
         Misc.free(base);
         Misc.freeObjList(vafList);
+        Misc.free(keyEncoder);
         for (int i = 0, n = pRosti.length; i < n; i++) {
             if (pRosti[i] != 0) {
                 raf.free(pRosti[i]);
@@ -239,6 +246,7 @@ public class GroupByRecordCursorFactory extends AbstractRecordCursorFactory {
 
     private class RostiRecordCursor implements RecordCursor {
         private final IntList columnSkewIndex;
+        private final IntList keyOrdinals;
         private final RostiRecord record;
         private final IntList symbolTableSkewIndex;
         private MessageBus bus;
@@ -246,6 +254,7 @@ public class GroupByRecordCursorFactory extends AbstractRecordCursorFactory {
         private long count;
         private long ctrl;
         private long ctrlStart;
+        private boolean isKeyEncoderReady;
         private boolean isRostiBuilt;
         private long pRostiBig;
         private PageFrameCursor pageFrameCursor;
@@ -254,11 +263,12 @@ public class GroupByRecordCursorFactory extends AbstractRecordCursorFactory {
         private long size;
         private long slots;
 
-        public RostiRecordCursor(long pRosti, IntList columnSkewIndex, IntList symbolTableSkewIndex) {
+        public RostiRecordCursor(long pRosti, IntList columnSkewIndex, IntList keyOrdinals, IntList symbolTableSkewIndex) {
             pRostiBig = pRosti;
             record = new RostiRecord();
             this.symbolTableSkewIndex = symbolTableSkewIndex;
             this.columnSkewIndex = columnSkewIndex;
+            this.keyOrdinals = keyOrdinals;
         }
 
         @Override
@@ -278,6 +288,7 @@ public class GroupByRecordCursorFactory extends AbstractRecordCursorFactory {
         public void close() {
             pageFrameCursor = Misc.free(pageFrameCursor);
             raf.reset(pRostiBig, ROSTI_MINIMIZED_SIZE);
+            Misc.clear(keyEncoder);
         }
 
         @Override
@@ -327,6 +338,7 @@ public class GroupByRecordCursorFactory extends AbstractRecordCursorFactory {
             this.pageFrameCursor = pageFrameCursor;
             this.bus = bus;
             this.circuitBreaker = circuitBreaker;
+            isKeyEncoderReady = false;
             isRostiBuilt = false;
             return this;
         }
@@ -356,14 +368,6 @@ public class GroupByRecordCursorFactory extends AbstractRecordCursorFactory {
             final MPSequence pubSeq = bus.getVectorAggregatePubSeq();
 
             sharedCircuitBreaker.reset();
-            entryPool.clear();
-            int queuedCount = 0;
-            int ownCount = 0;
-            int reclaimed = 0;
-            int total = 0;
-
-            doneLatch.reset();
-
             final Thread thread = Thread.currentThread();
             final int workerId;
             if (thread instanceof Worker) {
@@ -374,10 +378,30 @@ public class GroupByRecordCursorFactory extends AbstractRecordCursorFactory {
                 workerId = -1;
             }
 
+            if (keyEncoder != null && !isKeyEncoderReady) {
+                keyEncoder.of(pageFrameCursor);
+                while (keyEncoder.isScanRequired()) {
+                    scanKeys(workerId, queue, pubSeq);
+                    keyEncoder.completeScan(circuitBreaker);
+                }
+                isKeyEncoderReady = true;
+            }
+
+            entryPool.clear();
+            int queuedCount = 0;
+            int ownCount = 0;
+            int reclaimed = 0;
+            int total = 0;
+
+            doneLatch.reset();
+
             try {
                 PageFrame frame;
                 while ((frame = pageFrameCursor.next()) != null) {
                     final long keyAddress = frame.getPageAddress(keyColumnIndex);
+                    final long keyAddress2 = keyColumnIndex2 > -1 ? frame.getPageAddress(keyColumnIndex2) : 0;
+                    final long keyCount = frame.getPartitionHi() - frame.getPartitionLo();
+                    final boolean isKeyEncoded = keyEncoder != null && (keyAddress != 0 || keyAddress2 != 0);
                     for (int i = 0; i < vafCount; i++) {
                         final VectorAggregateFunction vaf = vafList.getQuick(i);
                         // when column index = -1 we assume that vector function does not have value
@@ -397,17 +421,19 @@ public class GroupByRecordCursorFactory extends AbstractRecordCursorFactory {
                         final int columnSizeShr = frame.getColumnShiftBits(pageColIndex);
                         final long valueAddressSize = frame.getPageSize(pageColIndex);
 
-                        long cursor = pubSeq.next();
+                        // pages of compressed frames are decoded into buffers reused by the next frame
+                        long cursor = frame.isCompressed() ? -1 : pubSeq.next();
                         if (cursor < 0) {
                             circuitBreaker.statefulThrowExceptionIfTrippedNoThrottle();
                             // acquire the slot and DIY the func
                             final int slot = perWorkerLocks.acquireSlot(workerId, circuitBreaker);
                             try {
-                                if (keyAddress == 0) {
+                                if (keyAddress == 0 && !isKeyEncoded) {
                                     vaf.aggregate(valueAddress, valueAddressSize, columnSizeShr, slot);
                                 } else {
+                                    final long pKeys = isKeyEncoded ? keyEncoder.encode(slot, keyAddress, keyAddress2, keyCount) : keyAddress;
                                     long oldSize = Rosti.getAllocMemory(pRosti[slot]);
-                                    if (!vaf.aggregate(pRosti[slot], keyAddress, valueAddress, valueAddressSize, columnSizeShr, slot)) {
+                                    if (!vaf.aggregate(pRosti[slot], pKeys, valueAddress, valueAddressSize, columnSizeShr, slot)) {
                                         oomCounter.incrementAndGet();
                                     }
                                     raf.updateMemoryUsage(pRosti[slot], oldSize);
@@ -419,10 +445,13 @@ public class GroupByRecordCursorFactory extends AbstractRecordCursorFactory {
                         } else {
                             final VectorAggregateEntry entry = entryPool.next();
                             queuedCount++;
-                            if (keyAddress == 0) {
+                            if (keyAddress == 0 && !isKeyEncoded) {
                                 entry.of(
                                         vaf,
                                         null,
+                                        null,
+                                        0,
+                                        0,
                                         0,
                                         valueAddress,
                                         valueAddressSize,
@@ -437,7 +466,10 @@ public class GroupByRecordCursorFactory extends AbstractRecordCursorFactory {
                                 entry.of(
                                         vaf,
                                         pRosti,
+                                        isKeyEncoded ? keyEncoder : null,
                                         keyAddress,
+                                        keyAddress2,
+                                        keyCount,
                                         valueAddress,
                                         valueAddressSize,
                                         columnSizeShr,
@@ -564,6 +596,59 @@ public class GroupByRecordCursorFactory extends AbstractRecordCursorFactory {
                     .$(", queuedCount=").$(queuedCount).I$();
         }
 
+        private void scanKeys(int workerId, RingQueue<VectorAggregateTask> queue, MPSequence pubSeq) {
+            entryPool.clear();
+            int queuedCount = 0;
+            doneLatch.reset();
+            try {
+                PageFrame frame;
+                while ((frame = pageFrameCursor.next()) != null) {
+                    final long keyAddress = frame.getPageAddress(keyColumnIndex);
+                    final long keyAddress2 = keyColumnIndex2 > -1 ? frame.getPageAddress(keyColumnIndex2) : 0;
+                    final long keyCount = frame.getPartitionHi() - frame.getPartitionLo();
+                    // pages of compressed frames are decoded into buffers reused by the next frame
+                    long cursor = frame.isCompressed() ? -1 : pubSeq.next();
+                    if (cursor < 0) {
+                        circuitBreaker.statefulThrowExceptionIfTrippedNoThrottle();
+                        final int slot = perWorkerLocks.acquireSlot(workerId, circuitBreaker);
+                        try {
+                            keyEncoder.scan(slot, keyAddress, keyAddress2, keyCount);
+                        } finally {
+                            perWorkerLocks.releaseSlot(slot);
+                        }
+                    } else {
+                        final VectorAggregateEntry entry = entryPool.next();
+                        queuedCount++;
+                        entry.of(keyEncoder, keyAddress, keyAddress2, keyCount, doneLatch, oomCounter, perWorkerLocks, sharedCircuitBreaker);
+                        queue.get(cursor).entry = entry;
+                        pubSeq.done(cursor);
+                    }
+                }
+            } catch (DataUnavailableException e) {
+                throw e;
+            } catch (Throwable e) {
+                sharedCircuitBreaker.cancel();
+                throw e;
+            } finally {
+                // the encoder state can't be merged until all scan tasks are complete
+                GroupByNotKeyedVectorRecordCursorFactory.getRunWhatsLeft(
+                        bus.getVectorAggregateSubSeq(),
+                        queue,
+                        queuedCount,
+                        0,
+                        workerId,
+                        doneLatch,
+                        circuitBreaker,
+                        sharedCircuitBreaker
+                );
+            }
+            circuitBreaker.statefulThrowExceptionIfTrippedNoThrottle();
+            if (oomCounter.get() > 0) {
+                throw new OutOfMemoryError();
+            }
+            pageFrameCursor.toTop();
+        }
+
         private class RostiRecord implements Record {
             private final Long256Impl long256A = new Long256Impl();
             private final Long256Impl long256B = new Long256Impl();
@@ -611,11 +696,18 @@ public class GroupByRecordCursorFactory extends AbstractRecordCursorFactory {
 
             @Override
             public int getInt(int col) {
-                return Unsafe.getUnsafe().getInt(getValueAddress(col));
+                final int value = Unsafe.getUnsafe().getInt(getValueAddress(col));
+                if (keyEncoder != null && keyOrdinals.getQuick(col) > -1) {
+                    return keyEncoder.decodeSymbol(value, keyOrdinals.getQuick(col));
+                }
+                return value;
             }
 
             @Override
             public long getLong(int col) {
+                if (keyEncoder != null && keyOrdinals.getQuick(col) > -1) {
+                    return keyEncoder.decodeLong(Unsafe.getUnsafe().getInt(getValueAddress(col)));
+                }
                 return Unsafe.getUnsafe().getLong(getValueAddress(col));
             }
 
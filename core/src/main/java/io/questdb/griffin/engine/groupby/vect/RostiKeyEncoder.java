@@ -0,0 +1,357 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.groupby.vect;
+
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.CairoException;
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.SingleColumnType;
+import io.questdb.cairo.map.MapKey;
+import io.questdb.cairo.map.MapRecord;
+import io.questdb.cairo.map.MapRecordCursor;
+import io.questdb.cairo.map.Unordered8Map;
+import io.questdb.cairo.sql.PageFrameCursor;
+import io.questdb.cairo.sql.SqlExecutionCircuitBreaker;
+import io.questdb.cairo.sql.StaticSymbolTable;
+import io.questdb.cairo.sql.SymbolTable;
+import io.questdb.std.*;
+
+import java.io.Closeable;
+import java.util.Arrays;
+
+/**
+ * Maps keys that native rosti can't hold, i.e. LONG keys and pairs of SYMBOL keys, to INT keys,
+ * so that the keyed int kernels can be used for them. Keys are first reduced to a single long value.
+ * When the range of values fits into INT, the key is the offset of the value from the minimum,
+ * otherwise values are dictionary-encoded before the aggregation starts.
+ * <p>
+ * The range and the dictionary are collected by scanning the key columns. Page frames are scanned
+ * in parallel, each worker slot collects into its own state, which is merged once the scan is done.
+ * The dictionary is held in native memory as the sorted list of distinct values, the key is the index
+ * of the value in the list.
+ * <p>
+ * Page frames are encoded by the aggregation tasks themselves, each into the buffer of the worker
+ * slot it holds, so that the encoding runs in parallel.
+ */
+public class RostiKeyEncoder implements Mutable, Closeable {
+    public static final int KIND_LONG = 0;
+    public static final int KIND_SYMBOL_PAIR = 1;
+    private static final int INITIAL_BUFFER_CAPACITY = 1024;
+    private static final int SCAN_DICTIONARY = 2;
+    private static final int SCAN_NONE = 0;
+    private static final int SCAN_RANGE = 1;
+    private final ObjList<DirectIntList> buffers;
+    // sorted as unsigned values
+    private final DirectLongList dictionary;
+    // per worker slot sets of distinct values, allocated on the first dictionary scan
+    private final ObjList<Unordered8Map> distinctValues;
+    private final int keyColumnIndex;
+    private final int keyColumnIndex2;
+    private final int kind;
+    private final int mapKeyCapacity;
+    private final double mapLoadFactor;
+    private final int mapMaxResizes;
+    private final long[] slotMax;
+    private final long[] slotMin;
+    private boolean isDictionary;
+    private long min;
+    private int scan;
+    private long symbolMultiplier;
+
+    public RostiKeyEncoder(CairoConfiguration configuration, int kind, int keyColumnIndex, int keyColumnIndex2, int workerCount) {
+        this.kind = kind;
+        this.keyColumnIndex = keyColumnIndex;
+        this.keyColumnIndex2 = keyColumnIndex2;
+        this.mapKeyCapacity = configuration.getGroupByMapCapacity();
+        this.mapLoadFactor = configuration.getSqlFastMapLoadFactor();
+        this.mapMaxResizes = configuration.getSqlMapMaxResizes();
+        this.slotMin = new long[workerCount];
+        this.slotMax = new long[workerCount];
+        this.buffers = new ObjList<>(workerCount);
+        this.distinctValues = new ObjList<>(workerCount);
+        try {
+            this.dictionary = new DirectLongList(INITIAL_BUFFER_CAPACITY, MemoryTag.NATIVE_ROSTI);
+            for (int i = 0; i < workerCount; i++) {
+                buffers.add(new DirectIntList(INITIAL_BUFFER_CAPACITY, MemoryTag.NATIVE_ROSTI));
+            }
+        } catch (Throwable th) {
+            close();
+            throw th;
+        }
+    }
+
+    /**
+     * Releases the dictionary memory, the encoder must be prepared again via {@link #of(PageFrameCursor)}.
+     */
+    @Override
+    public void clear() {
+        dictionary.resetCapacity();
+        dictionary.clear();
+        for (int i = 0, n = distinctValues.size(); i < n; i++) {
+            distinctValues.getQuick(i).close();
+        }
+        isDictionary = false;
+        min = 0;
+        scan = SCAN_NONE;
+        symbolMultiplier = 0;
+    }
+
+    @Override
+    public void close() {
+        Misc.freeObjListAndClear(buffers);
+        Misc.freeObjListAndClear(distinctValues);
+        Misc.free(dictionary);
+    }
+
+    /**
+     * Merges the values collected by the scan of all page frames. Once it's done, page frames
+     * have to be scanned again if {@link #isScanRequired()} is still true.
+     *
+     * @param circuitBreaker circuit breaker of the query
+     */
+    public void completeScan(SqlExecutionCircuitBreaker circuitBreaker) {
+        if (scan == SCAN_RANGE) {
+            long min = Long.MAX_VALUE;
+            long max = Long.MIN_VALUE;
+            for (int i = 0, n = slotMin.length; i < n; i++) {
+                min = Math.min(min, slotMin[i]);
+                max = Math.max(max, slotMax[i]);
+            }
+            // the difference may overflow, hence the second check
+            if (max < min || (max - min >= 0 && max - min < Integer.MAX_VALUE)) {
+                this.min = min;
+                scan = SCAN_NONE;
+            } else {
+                startDictionaryScan();
+            }
+        } else if (scan == SCAN_DICTIONARY) {
+            mergeDictionary(circuitBreaker);
+            scan = SCAN_NONE;
+        }
+    }
+
+    public long decodeLong(int key) {
+        if (key == Numbers.INT_NULL) {
+            return Numbers.LONG_NULL;
+        }
+        return isDictionary ? dictionary.get(key) : min + key;
+    }
+
+    public int decodeSymbol(int key, int keyOrdinal) {
+        final long value = isDictionary ? dictionary.get(key) : key;
+        final long symbolKey = keyOrdinal == 0 ? value / symbolMultiplier : value % symbolMultiplier;
+        return symbolKey == 0 ? SymbolTable.VALUE_IS_NULL : (int) (symbolKey - 1);
+    }
+
+    /**
+     * Encodes key column values of a page frame into the buffer of the given worker slot.
+     * The caller must hold the slot.
+     *
+     * @param slot        worker slot
+     * @param keyAddress  address of the first key column, 0 when the frame is in column top
+     * @param keyAddress2 address of the second key column, 0 when the frame is in column top
+     * @param keyCount    number of rows in the frame
+     * @return address of encoded INT keys
+     */
+    public long encode(int slot, long keyAddress, long keyAddress2, long keyCount) {
+        final DirectIntList buffer = buffers.getQuick(slot);
+        if (buffer.getCapacity() < keyCount) {
+            buffer.setCapacity(keyCount);
+        }
+        final long address = buffer.getAddress();
+        if (kind == KIND_LONG) {
+            for (long i = 0; i < keyCount; i++) {
+                final long value = Unsafe.getUnsafe().getLong(keyAddress + (i << 3));
+                final int key;
+                if (value == Numbers.LONG_NULL) {
+                    key = Numbers.INT_NULL;
+                } else {
+                    key = isDictionary ? getId(value) : (int) (value - min);
+                }
+                Unsafe.getUnsafe().putInt(address + (i << 2), key);
+            }
+        } else {
+            for (long i = 0; i < keyCount; i++) {
+                final long value = symbolPairValue(keyAddress, keyAddress2, i);
+                Unsafe.getUnsafe().putInt(address + (i << 2), isDictionary ? getId(value) : (int) value);
+            }
+        }
+        return address;
+    }
+
+    /**
+     * @return true when page frames have to be scanned via {@link #scan(int, long, long, long)}
+     * followed by {@link #completeScan(SqlExecutionCircuitBreaker)} before they can be encoded
+     */
+    public boolean isScanRequired() {
+        return scan != SCAN_NONE;
+    }
+
+    /**
+     * Prepares the encoding for the given cursor. The encoding may depend on key column values,
+     * in which case page frames have to be scanned first, see {@link #isScanRequired()}.
+     *
+     * @param pageFrameCursor page frame cursor the aggregation runs over
+     */
+    public void of(PageFrameCursor pageFrameCursor) {
+        clear();
+        if (kind == KIND_LONG) {
+            Arrays.fill(slotMin, Long.MAX_VALUE);
+            Arrays.fill(slotMax, Long.MIN_VALUE);
+            scan = SCAN_RANGE;
+        } else {
+            final SymbolTable symbolTable = pageFrameCursor.getSymbolTable(keyColumnIndex);
+            final SymbolTable symbolTable2 = pageFrameCursor.getSymbolTable(keyColumnIndex2);
+            // 0 is reserved for null symbol
+            symbolMultiplier = symbolTable2 instanceof StaticSymbolTable
+                    ? ((StaticSymbolTable) symbolTable2).getSymbolCount() + 1L
+                    : Integer.MAX_VALUE + 1L;
+            if (
+                    !(symbolTable instanceof StaticSymbolTable)
+                            || (((StaticSymbolTable) symbolTable).getSymbolCount() + 1L) * symbolMultiplier > Integer.MAX_VALUE
+            ) {
+                startDictionaryScan();
+            }
+        }
+    }
+
+    /**
+     * Collects key column values of a page frame into the state of the given worker slot.
+     * The caller must hold the slot.
+     *
+     * @param slot        worker slot
+     * @param keyAddress  address of the first key column, 0 when the frame is in column top
+     * @param keyAddress2 address of the second key column, 0 when the frame is in column top
+     * @param keyCount    number of rows in the frame
+     */
+    public void scan(int slot, long keyAddress, long keyAddress2, long keyCount) {
+        if (scan == SCAN_RANGE) {
+            if (keyAddress != 0) {
+                final long frameMin = Vect.minLong(keyAddress, keyCount);
+                if (frameMin != Numbers.LONG_NULL) {
+                    slotMin[slot] = Math.min(slotMin[slot], frameMin);
+                    slotMax[slot] = Math.max(slotMax[slot], Vect.maxLong(keyAddress, keyCount));
+                }
+            }
+        } else {
+            final Unordered8Map values = distinctValues.getQuick(slot);
+            if (kind == KIND_LONG) {
+                if (keyAddress != 0) {
+                    for (long i = 0; i < keyCount; i++) {
+                        final long value = Unsafe.getUnsafe().getLong(keyAddress + (i << 3));
+                        if (value != Numbers.LONG_NULL) {
+                            putValue(values, value);
+                        }
+                    }
+                }
+            } else {
+                for (long i = 0; i < keyCount; i++) {
+                    putValue(values, symbolPairValue(keyAddress, keyAddress2, i));
+                }
+            }
+        }
+    }
+
+    private static void putValue(Unordered8Map values, long value) {
+        final MapKey key = values.withKey();
+        key.putLong(value);
+        key.createValue();
+    }
+
+    private int getId(long value) {
+        // all values are in the dictionary
+        final long address = dictionary.getAddress();
+        long lo = 0;
+        long hi = dictionary.size() - 1;
+        while (lo < hi) {
+            final long mid = (lo + hi) >>> 1;
+            if (Long.compareUnsigned(Unsafe.getUnsafe().getLong(address + (mid << 3)), value) < 0) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return (int) lo;
+    }
+
+    private void mergeDictionary(SqlExecutionCircuitBreaker circuitBreaker) {
+        dictionary.clear();
+        for (int i = 0, n = distinctValues.size(); i < n; i++) {
+            circuitBreaker.statefulThrowExceptionIfTrippedNoThrottle();
+            final Unordered8Map values = distinctValues.getQuick(i);
+            final MapRecordCursor cursor = values.getCursor();
+            final MapRecord record = cursor.getRecord();
+            while (cursor.hasNext()) {
+                dictionary.add(record.getLong(0));
+            }
+            // the dictionary holds the values from now on
+            values.close();
+        }
+
+        circuitBreaker.statefulThrowExceptionIfTrippedNoThrottle();
+        dictionary.sortAsUnsigned();
+
+        // values collected by different slots repeat, keep distinct ones only
+        final long address = dictionary.getAddress();
+        long size = 0;
+        for (long i = 0, n = dictionary.size(); i < n; i++) {
+            final long value = Unsafe.getUnsafe().getLong(address + (i << 3));
+            if (size == 0 || Unsafe.getUnsafe().getLong(address + ((size - 1) << 3)) != value) {
+                Unsafe.getUnsafe().putLong(address + (size++ << 3), value);
+            }
+        }
+        if (size > Integer.MAX_VALUE) {
+            throw CairoException.nonCritical().put("too many distinct keys for vectorized aggregation");
+        }
+        dictionary.setPos(size);
+        isDictionary = true;
+    }
+
+    private void startDictionaryScan() {
+        if (distinctValues.size() == 0) {
+            for (int i = 0, n = buffers.size(); i < n; i++) {
+                distinctValues.add(new Unordered8Map(
+                        new SingleColumnType(ColumnType.LONG),
+                        null,
+                        mapKeyCapacity,
+                        mapLoadFactor,
+                        mapMaxResizes
+                ));
+            }
+        } else {
+            for (int i = 0, n = distinctValues.size(); i < n; i++) {
+                distinctValues.getQuick(i).reopen();
+            }
+        }
+        scan = SCAN_DICTIONARY;
+    }
+
+    private long symbolPairValue(long keyAddress, long keyAddress2, long row) {
+        final int key = keyAddress != 0 ? Unsafe.getUnsafe().getInt(keyAddress + (row << 2)) : SymbolTable.VALUE_IS_NULL;
+        final int key2 = keyAddress2 != 0 ? Unsafe.getUnsafe().getInt(keyAddress2 + (row << 2)) : SymbolTable.VALUE_IS_NULL;
+        return (key == SymbolTable.VALUE_IS_NULL ? 0 : key + 1L) * symbolMultiplier
+                + (key2 == SymbolTable.VALUE_IS_NULL ? 0 : key2 + 1L);
+    }
+}
@@ -41,6 +41,9 @@ public class VectorAggregateEntry implements Mutable {
     private CountDownLatchSPI doneLatch;
     private VectorAggregateFunction func;
     private long keyAddress;
+    private long keyAddress2;
+    private long keyCount;
+    private RostiKeyEncoder keyEncoder;
     private AtomicInteger oomCounter;
     private long[] pRosti;
     private PerWorkerLocks perWorkerLocks;
@@ -53,10 +56,14 @@ public class VectorAggregateEntry implements Mutable {
         this.valueAddress = 0;
         this.valueCount = 0;
         this.func = null;
+        this.keyEncoder = null;
     }
 
     public void run(int workerId, Sequence seq, long cursor) {
         long keyAddress = this.keyAddress;
+        long keyAddress2 = this.keyAddress2;
+        long keyCount = this.keyCount;
+        RostiKeyEncoder keyEncoder = this.keyEncoder;
         long valueAddress = this.valueAddress;
         long valueCount = this.valueCount;
         int columnSizeShr = this.columnSizeShr;
@@ -69,12 +76,15 @@ public class VectorAggregateEntry implements Mutable {
         PerWorkerLocks perWorkerLocks = this.perWorkerLocks;
 
         seq.done(cursor);
-        run(workerId, keyAddress, valueAddress, valueCount, columnSizeShr, oomCounter, pRosti, raf, func, perWorkerLocks, circuitBreaker, doneLatch);
+        run(workerId, keyEncoder, keyAddress, keyAddress2, keyCount, valueAddress, valueCount, columnSizeShr, oomCounter, pRosti, raf, func, perWorkerLocks, circuitBreaker, doneLatch);
     }
 
     private static void run(
             int workerId,
+            @Nullable RostiKeyEncoder keyEncoder,
             long keyAddress,
+            long keyAddress2,
+            long keyCount,
             long valueAddress,
             long valueCount,
             int columnSizeShr,
@@ -94,7 +104,18 @@ public class VectorAggregateEntry implements Mutable {
         int slot = -1;
         try {
             slot = perWorkerLocks.acquireSlot(workerId, circuitBreaker);
-            if (pRosti != null) {
+            if (func == null) {
+                assert keyEncoder != null && oomCounter != null;
+                try {
+                    keyEncoder.scan(slot, keyAddress, keyAddress2, keyCount);
+                } catch (Throwable th) {
+                    // the owner thread reports the failure once all tasks are done
+                    oomCounter.incrementAndGet();
+                }
+            } else if (pRosti != null) {
+                if (keyEncoder != null) {
+                    keyAddress = keyEncoder.encode(slot, keyAddress, keyAddress2, keyCount);
+                }
                 long oldSize = Rosti.getAllocMemory(pRosti[slot]);
                 if (!func.aggregate(pRosti[slot], keyAddress, valueAddress, valueCount, columnSizeShr, slot)) {
                     if (oomCounter != null) {
@@ -111,10 +132,41 @@ public class VectorAggregateEntry implements Mutable {
         }
     }
 
+    void of(
+            RostiKeyEncoder keyEncoder,
+            long keyPageAddress,
+            long keyPageAddress2,
+            long keyCount,
+            CountDownLatchSPI doneLatch,
+            AtomicInteger oomCounter,
+            PerWorkerLocks perWorkerLocks,
+            ExecutionCircuitBreaker circuitBreaker
+    ) {
+        of(
+                null,
+                null,
+                keyEncoder,
+                keyPageAddress,
+                keyPageAddress2,
+                keyCount,
+                0,
+                0,
+                0,
+                doneLatch,
+                oomCounter,
+                null,
+                perWorkerLocks,
+                circuitBreaker
+        );
+    }
+
     void of(
             VectorAggregateFunction vaf,
             long[] pRosti,
+            @Nullable RostiKeyEncoder keyEncoder,
             long keyPageAddress,
+            long keyPageAddress2,
+            long keyCount,
             long valuePageAddress,
             long valuePageCount,
             int columnSizeShr,
@@ -126,7 +178,10 @@ public class VectorAggregateEntry implements Mutable {
             ExecutionCircuitBreaker circuitBreaker
     ) {
         this.pRosti = pRosti;
+        this.keyEncoder = keyEncoder;
         this.keyAddress = keyPageAddress;
+        this.keyAddress2 = keyPageAddress2;
+        this.keyCount = keyCount;
         this.valueAddress = valuePageAddress;
         this.valueCount = valuePageCount;
         this.func = vaf;
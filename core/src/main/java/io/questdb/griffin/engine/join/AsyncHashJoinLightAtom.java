@@ -0,0 +1,106 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin.engine.join;
+
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.RecordSink;
+import io.questdb.cairo.map.OrderedMap;
+import io.questdb.cairo.sql.SqlExecutionCircuitBreaker;
+import io.questdb.cairo.sql.StatefulAtom;
+import io.questdb.griffin.engine.PerWorkerLocks;
+import io.questdb.std.Misc;
+import io.questdb.std.ObjList;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Holds the state shared between the query owner thread and worker threads
+ * when probing master page frames in {@link AsyncHashJoinLightRecordCursorFactory}.
+ * The slave hash table is built by {@link AsyncHashJoinLightBuildAtom} before any
+ * master frame is dispatched, after that it is only read by the workers, each using
+ * its own probe key.
+ */
+public class AsyncHashJoinLightAtom implements StatefulAtom {
+    private final AsyncHashJoinLightBuildAtom buildAtom;
+    private final RecordSink masterSink;
+    private final OrderedMap.ProbeKey ownerProbeKey;
+    private final ObjList<OrderedMap.ProbeKey> perWorkerProbeKeys;
+    private final PerWorkerLocks perWorkerLocks;
+
+    public AsyncHashJoinLightAtom(
+            @NotNull CairoConfiguration configuration,
+            @NotNull AsyncHashJoinLightBuildAtom buildAtom,
+            @NotNull RecordSink masterSink,
+            int workerCount
+    ) {
+        this.buildAtom = buildAtom;
+        this.masterSink = masterSink;
+        final int slotCount = Math.min(workerCount, configuration.getPageFrameReduceQueueCapacity());
+        perWorkerProbeKeys = new ObjList<>(slotCount);
+        try {
+            ownerProbeKey = buildAtom.newProbeKey();
+            perWorkerLocks = new PerWorkerLocks(configuration, slotCount);
+            for (int i = 0; i < slotCount; i++) {
+                perWorkerProbeKeys.add(buildAtom.newProbeKey());
+            }
+        } catch (Throwable th) {
+            close();
+            throw th;
+        }
+    }
+
+    public int acquire(int workerId, boolean owner, SqlExecutionCircuitBreaker circuitBreaker) {
+        if (workerId == -1 && owner) {
+            // Owner thread is free to use its own probe key anytime.
+            return -1;
+        }
+        return perWorkerLocks.acquireSlot(workerId, circuitBreaker);
+    }
+
+    @Override
+    public void close() {
+        Misc.free(ownerProbeKey);
+        Misc.freeObjList(perWorkerProbeKeys);
+    }
+
+    public AsyncHashJoinLightBuildAtom getBuildAtom() {
+        return buildAtom;
+    }
+
+    public RecordSink getMasterSink() {
+        return masterSink;
+    }
+
+    public OrderedMap.ProbeKey getProbeKey(int slotId) {
+        if (slotId == -1) {
+            return ownerProbeKey;
+        }
+        return perWorkerProbeKeys.getQuick(slotId);
+    }
+
+    public void release(int slotId) {
+        perWorkerLocks.releaseSlot(slotId);
+    }
+}
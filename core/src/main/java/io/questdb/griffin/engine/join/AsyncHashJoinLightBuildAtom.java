@@ -0,0 +1,305 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.join;
+
+import io.questdb.cairo.ArrayColumnTypes;
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.ColumnTypes;
+import io.questdb.cairo.RecordSink;
+import io.questdb.cairo.map.MapValue;
+import io.questdb.cairo.map.MapValueMergeFunction;
+import io.questdb.cairo.map.OrderedMap;
+import io.questdb.cairo.sql.ExecutionCircuitBreaker;
+import io.questdb.cairo.sql.MergeShardAtom;
+import io.questdb.cairo.sql.PageAddressCacheRecord;
+import io.questdb.cairo.sql.SqlExecutionCircuitBreaker;
+import io.questdb.cairo.sql.StatefulAtom;
+import io.questdb.cairo.sql.SymbolTableSource;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.PerWorkerLocks;
+import io.questdb.std.*;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Hash table of the slave (right-hand side) rows of {@link AsyncHashJoinLightRecordCursorFactory},
+ * built in parallel from the slave page frames.
+ * <p>
+ * A page frame is reduced by a worker (or by the query owner thread) into the worker's own set
+ * of partition maps; the partition is picked by the top bits of the join key hash code. Once all
+ * frames are reduced, the maps with the same partition index are merged into the final partition
+ * map on the merge shard queue, one partition per task. The probe side then looks up each key
+ * in its partition only.
+ * <p>
+ * Slave rows are kept in per-worker row chains, a chain node being a [slave row id, next node]
+ * pair. Map values hold references to the first and the last node of the key's chain, so the
+ * merge links chains built by different workers instead of copying them. A node reference keeps
+ * the chain index in the lowest {@link #CHAIN_INDEX_BITS} bits and the node index in the rest.
+ */
+public class AsyncHashJoinLightBuildAtom implements StatefulAtom, MergeShardAtom {
+    public static final long END_OF_CHAIN = -1;
+    private static final int CHAIN_INDEX_BITS = 16;
+    private static final long CHAIN_INDEX_MASK = (1L << CHAIN_INDEX_BITS) - 1;
+    private static final int MAX_PARTITIONS = 128;
+    private static final int VALUE_HEAD_INDEX = 0;
+    private static final int VALUE_TAIL_INDEX = 1;
+    // Chain 0 belongs to the query owner thread, chain i + 1 belongs to the worker slot i.
+    private final ObjList<DirectLongList> chains;
+    private final CairoConfiguration configuration;
+    private final ArrayColumnTypes keyTypes;
+    private final ObjList<OrderedMap.ProbeKey> keys;
+    private final MapValueMergeFunction mergeFunction = this::linkChains;
+    private final int partitionCount;
+    private final int partitionCountShr;
+    // Per-chain partition maps, created lazily; the owner ones become the final partitions after the merge.
+    private final ObjList<ObjList<OrderedMap>> partitionMaps;
+    private final PerWorkerLocks perWorkerLocks;
+    private final RecordSink slaveKeySink;
+    private final ArrayColumnTypes valueTypes;
+    private volatile boolean isBuilt;
+
+    public AsyncHashJoinLightBuildAtom(
+            @NotNull CairoConfiguration configuration,
+            @Transient @NotNull ColumnTypes joinColumnTypes,
+            @NotNull RecordSink slaveKeySink,
+            int workerCount
+    ) {
+        // We don't want to pay for merging redundant maps, so we limit their number.
+        final int slotCount = Math.min(workerCount, configuration.getPageFrameReduceQueueCapacity());
+        try {
+            this.configuration = configuration;
+            this.slaveKeySink = slaveKeySink;
+            keyTypes = new ArrayColumnTypes();
+            for (int i = 0, n = joinColumnTypes.getColumnCount(); i < n; i++) {
+                keyTypes.add(joinColumnTypes.getColumnType(i));
+            }
+            valueTypes = new ArrayColumnTypes();
+            valueTypes.add(ColumnType.LONG); // chain head
+            valueTypes.add(ColumnType.LONG); // chain tail
+            perWorkerLocks = new PerWorkerLocks(configuration, slotCount);
+            partitionCount = Math.min(Numbers.ceilPow2(Math.max(2 * workerCount, 2)), MAX_PARTITIONS);
+            partitionCountShr = Long.numberOfLeadingZeros(partitionCount) + 1;
+
+            final int chainCount = slotCount + 1;
+            chains = new ObjList<>(chainCount);
+            keys = new ObjList<>(chainCount);
+            partitionMaps = new ObjList<>(chainCount);
+            for (int i = 0; i < chainCount; i++) {
+                final ObjList<OrderedMap> maps = new ObjList<>(partitionCount);
+                maps.setPos(partitionCount);
+                partitionMaps.add(maps);
+            }
+            // The owner maps are always there, they hold the final partitions.
+            final ObjList<OrderedMap> ownerMaps = partitionMaps.getQuick(0);
+            for (int i = 0; i < partitionCount; i++) {
+                ownerMaps.setQuick(i, newPartitionMap());
+            }
+            for (int i = 0; i < chainCount; i++) {
+                chains.add(new DirectLongList(configuration.getSqlHashJoinLightValuePageSize() >>> 3, MemoryTag.NATIVE_JOIN_MAP));
+                keys.add(ownerMaps.getQuick(0).newProbeKey());
+            }
+        } catch (Throwable th) {
+            close();
+            throw th;
+        }
+    }
+
+    public int acquire(int workerId, boolean owner, SqlExecutionCircuitBreaker circuitBreaker) {
+        if (workerId == -1 && owner) {
+            // Owner thread is free to use its own maps anytime.
+            return -1;
+        }
+        return perWorkerLocks.acquireSlot(workerId, circuitBreaker);
+    }
+
+    @Override
+    public int acquire(int workerId, ExecutionCircuitBreaker circuitBreaker) {
+        if (workerId == -1) {
+            return -1;
+        }
+        return perWorkerLocks.acquireSlot(workerId, circuitBreaker);
+    }
+
+    /**
+     * Adds rows of the current slave page frame to the given slot's partition maps.
+     */
+    public void build(int slotId, PageAddressCacheRecord record, int frameIndex, long frameRowCount) {
+        final int chainIndex = slotId + 1;
+        final DirectLongList chain = chains.getQuick(chainIndex);
+        final OrderedMap.ProbeKey key = keys.getQuick(chainIndex);
+        for (long r = 0; r < frameRowCount; r++) {
+            record.setRowIndex(r);
+            key.init();
+            key.put(record, slaveKeySink);
+            final long hashCode = key.hash();
+            final MapValue value = key.createValue(getPartitionMap(chainIndex, partitionIndex(hashCode)), hashCode);
+            final long nodeRef = ((chain.size() >>> 1) << CHAIN_INDEX_BITS) | chainIndex;
+            chain.add(Rows.toRowID(frameIndex, r));
+            chain.add(END_OF_CHAIN);
+            if (value.isNew()) {
+                value.putLong(VALUE_HEAD_INDEX, nodeRef);
+            } else {
+                setNextNode(value.getLong(VALUE_TAIL_INDEX), nodeRef);
+            }
+            value.putLong(VALUE_TAIL_INDEX, nodeRef);
+        }
+    }
+
+    @Override
+    public void clear() {
+        isBuilt = false;
+        for (int i = 0, n = partitionMaps.size(); i < n; i++) {
+            Misc.freeObjListAndKeepObjects(partitionMaps.getQuick(i));
+        }
+        Misc.freeObjListAndKeepObjects(chains);
+    }
+
+    @Override
+    public void close() {
+        if (partitionMaps != null) {
+            for (int i = 0, n = partitionMaps.size(); i < n; i++) {
+                Misc.freeObjList(partitionMaps.getQuick(i));
+            }
+        }
+        Misc.freeObjList(chains);
+        Misc.freeObjList(keys);
+    }
+
+    /**
+     * Looks up the chain of the slave rows matching the given key. The hash table
+     * must be built. Safe to call concurrently.
+     *
+     * @return reference to the first chain node or {@link #END_OF_CHAIN}
+     */
+    public long findChain(OrderedMap.ProbeKey key, long hashCode) {
+        final MapValue value = key.findValue(partitionMaps.getQuick(0).getQuick(partitionIndex(hashCode)), hashCode);
+        return value != null ? value.getLong(VALUE_HEAD_INDEX) : END_OF_CHAIN;
+    }
+
+    public int getPartitionCount() {
+        return partitionCount;
+    }
+
+    public long getRowId(long nodeRef) {
+        return chains.getQuick((int) (nodeRef & CHAIN_INDEX_MASK)).get((nodeRef >>> CHAIN_INDEX_BITS) << 1);
+    }
+
+    public long getSize() {
+        long size = 0;
+        final ObjList<OrderedMap> ownerMaps = partitionMaps.getQuick(0);
+        for (int i = 0; i < partitionCount; i++) {
+            size += ownerMaps.getQuick(i).size();
+        }
+        return size;
+    }
+
+    @Override
+    public void init(SymbolTableSource symbolTableSource, SqlExecutionContext executionContext) {
+        for (int i = 0, n = chains.size(); i < n; i++) {
+            chains.getQuick(i).reopen();
+        }
+        final ObjList<OrderedMap> ownerMaps = partitionMaps.getQuick(0);
+        for (int i = 0; i < partitionCount; i++) {
+            ownerMaps.getQuick(i).reopen();
+        }
+    }
+
+    public boolean isBuilt() {
+        return isBuilt;
+    }
+
+    @Override
+    public boolean isMergeLockRequired() {
+        return false;
+    }
+
+    @Override
+    public void mergeShard(int slotId, int shardIndex) {
+        final OrderedMap destMap = partitionMaps.getQuick(0).getQuick(shardIndex);
+        destMap.reopen();
+        for (int i = 1, n = partitionMaps.size(); i < n; i++) {
+            final OrderedMap srcMap = partitionMaps.getQuick(i).getQuick(shardIndex);
+            if (srcMap != null) {
+                destMap.merge(srcMap, mergeFunction);
+                srcMap.close();
+            }
+        }
+    }
+
+    public OrderedMap.ProbeKey newProbeKey() {
+        return partitionMaps.getQuick(0).getQuick(0).newProbeKey();
+    }
+
+    public long nextNode(long nodeRef) {
+        return chains.getQuick((int) (nodeRef & CHAIN_INDEX_MASK)).get(((nodeRef >>> CHAIN_INDEX_BITS) << 1) + 1);
+    }
+
+    @Override
+    public void release(int slotId) {
+        perWorkerLocks.releaseSlot(slotId);
+    }
+
+    public void setBuilt() {
+        isBuilt = true;
+    }
+
+    private OrderedMap getPartitionMap(int chainIndex, int partitionIndex) {
+        final ObjList<OrderedMap> maps = partitionMaps.getQuick(chainIndex);
+        OrderedMap map = maps.getQuick(partitionIndex);
+        if (map == null) {
+            map = newPartitionMap();
+            maps.setQuick(partitionIndex, map);
+        } else {
+            map.reopen();
+        }
+        return map;
+    }
+
+    // Appends the source chain to the destination one. Called when the key is present in both maps.
+    private void linkChains(MapValue destValue, MapValue srcValue) {
+        setNextNode(destValue.getLong(VALUE_TAIL_INDEX), srcValue.getLong(VALUE_HEAD_INDEX));
+        destValue.putLong(VALUE_TAIL_INDEX, srcValue.getLong(VALUE_TAIL_INDEX));
+    }
+
+    private OrderedMap newPartitionMap() {
+        return new OrderedMap(
+                configuration.getSqlSmallMapPageSize(),
+                keyTypes,
+                valueTypes,
+                configuration.getSqlSmallMapKeyCapacity(),
+                configuration.getSqlFastMapLoadFactor(),
+                configuration.getSqlMapMaxResizes(),
+                MemoryTag.NATIVE_JOIN_MAP
+        );
+    }
+
+    private int partitionIndex(long hashCode) {
+        return (int) (hashCode >>> partitionCountShr);
+    }
+
+    private void setNextNode(long nodeRef, long nextNodeRef) {
+        chains.getQuick((int) (nodeRef & CHAIN_INDEX_MASK)).set(((nodeRef >>> CHAIN_INDEX_BITS) << 1) + 1, nextNodeRef);
+    }
+}
@@ -0,0 +1,426 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin.engine.join;
+
+import io.questdb.MessageBus;
+import io.questdb.cairo.CairoException;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.*;
+import io.questdb.cairo.sql.async.PageFrameReduceTask;
+import io.questdb.cairo.sql.async.PageFrameSequence;
+import io.questdb.griffin.engine.groupby.GroupByMergeShardJob;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.mp.MCSequence;
+import io.questdb.mp.MPSequence;
+import io.questdb.mp.RingQueue;
+import io.questdb.mp.SOUnboundedCountDownLatch;
+import io.questdb.std.DirectLongList;
+import io.questdb.std.Misc;
+import io.questdb.std.Os;
+import io.questdb.std.Rows;
+import io.questdb.tasks.GroupByMergeShardTask;
+
+/**
+ * Iterates page frames probed by {@link AsyncHashJoinLightRecordCursorFactory}.
+ * Each reduced frame holds [master row index, slave chain head] pairs, one
+ * pair per master row that has matching slave rows.
+ */
+class AsyncHashJoinLightRecordCursor implements NoRandomAccessRecordCursor {
+
+    private static final Log LOG = LogFactory.getLog(AsyncHashJoinLightRecordCursor.class);
+    private final int columnSplit;
+    private final SOUnboundedCountDownLatch doneLatch = new SOUnboundedCountDownLatch(); // used for merge shard workers
+    private final boolean hasDescendingOrder;
+    private final PageAddressCacheRecord masterRecord;
+    private final MessageBus messageBus;
+    private final JoinRecord record;
+    private final AtomicBooleanCircuitBreaker sharedCircuitBreaker; // used to signal cancellation to merge shard workers
+    private final PageAddressCacheRecord slaveRecord;
+    private boolean allFramesActive;
+    private AsyncHashJoinLightBuildAtom buildAtom;
+    private SqlExecutionCircuitBreaker circuitBreaker;
+    private long cursor = -1;
+    private int frameIndex;
+    private int frameLimit;
+    // Number of matched master rows in the current frame.
+    private long frameRowCount;
+    private long frameRowIndex;
+    private PageFrameSequence<AsyncHashJoinLightAtom> frameSequence;
+    private boolean isOpen;
+    private DirectLongList rows;
+    private long slaveChainNode = AsyncHashJoinLightBuildAtom.END_OF_CHAIN;
+    private int slaveFrameLimit;
+    private PageFrameSequence<AsyncHashJoinLightBuildAtom> slaveFrameSequence;
+
+    public AsyncHashJoinLightRecordCursor(MessageBus messageBus, int columnSplit, int scanDirection) {
+        this.messageBus = messageBus;
+        this.columnSplit = columnSplit;
+        this.hasDescendingOrder = scanDirection == RecordCursorFactory.SCAN_DIRECTION_BACKWARD;
+        masterRecord = new PageAddressCacheRecord();
+        slaveRecord = new PageAddressCacheRecord();
+        record = new JoinRecord(columnSplit);
+        sharedCircuitBreaker = new AtomicBooleanCircuitBreaker();
+    }
+
+    @Override
+    public void close() {
+        if (isOpen) {
+            LOG.debug()
+                    .$("closing [shard=").$(frameSequence.getShard())
+                    .$(", frameIndex=").$(frameIndex)
+                    .$(", frameCount=").$(frameLimit)
+                    .$(", frameId=").$(frameSequence.getId())
+                    .$(", cursor=").$(cursor)
+                    .I$();
+
+            collectCursor(true);
+            if (frameLimit > -1) {
+                frameSequence.await();
+            }
+            frameSequence.clear();
+            if (slaveFrameLimit > -1) {
+                slaveFrameSequence.await();
+            }
+            slaveFrameSequence.clear();
+            slaveChainNode = AsyncHashJoinLightBuildAtom.END_OF_CHAIN;
+            isOpen = false;
+        }
+    }
+
+    public void freeRecords() {
+        Misc.free(masterRecord);
+        Misc.free(slaveRecord);
+    }
+
+    @Override
+    public Record getRecord() {
+        return record;
+    }
+
+    @Override
+    public SymbolTable getSymbolTable(int columnIndex) {
+        if (columnIndex < columnSplit) {
+            return frameSequence.getSymbolTableSource().getSymbolTable(columnIndex);
+        }
+        return slaveFrameSequence.getSymbolTableSource().getSymbolTable(columnIndex - columnSplit);
+    }
+
+    @Override
+    public boolean hasNext() {
+        // Check for the first hasNext call.
+        if (frameIndex == -1) {
+            // The hash table has to be complete before any master frame is dispatched to the workers.
+            if (!buildAtom.isBuilt()) {
+                buildHashTable();
+            }
+            if (buildAtom.getSize() == 0) {
+                // No slave rows, so there is nothing to probe.
+                return false;
+            }
+            fetchNextFrame();
+        }
+
+        if (slaveChainNode != AsyncHashJoinLightBuildAtom.END_OF_CHAIN) {
+            nextSlaveRow();
+            return true;
+        }
+
+        // We have matched rows in the current frame we still need to dispatch
+        if (frameRowIndex < frameRowCount) {
+            nextMasterRow();
+            return true;
+        }
+
+        // Release the previous queue item.
+        // There is no identity check here because this check
+        // had been done when 'cursor' was assigned.
+        collectCursor(false);
+
+        // Do we have more frames?
+        if (frameIndex < frameLimit) {
+            fetchNextFrame();
+            if (frameRowCount > 0 && frameRowIndex < frameRowCount) {
+                nextMasterRow();
+                return true;
+            }
+        }
+
+        if (!allFramesActive) {
+            throwTimeoutException();
+        }
+        return false;
+    }
+
+    @Override
+    public SymbolTable newSymbolTable(int columnIndex) {
+        if (columnIndex < columnSplit) {
+            return frameSequence.getSymbolTableSource().newSymbolTable(columnIndex);
+        }
+        return slaveFrameSequence.getSymbolTableSource().newSymbolTable(columnIndex - columnSplit);
+    }
+
+    @Override
+    public long size() {
+        return -1;
+    }
+
+    @Override
+    public void toTop() {
+        slaveChainNode = AsyncHashJoinLightBuildAtom.END_OF_CHAIN;
+        // Check if we at the top already and there is nothing to do.
+        if (frameIndex == 0 && frameRowIndex == 0) {
+            return;
+        }
+        collectCursor(false);
+        // The hash table, if built, stays as is.
+        frameSequence.toTop();
+        frameIndex = -1;
+        frameRowCount = 0;
+        frameRowIndex = 0;
+        allFramesActive = true;
+    }
+
+    private void buildHashTable() {
+        if (slaveFrameLimit == -1) {
+            slaveFrameSequence.prepareForDispatch();
+            slaveFrameLimit = slaveFrameSequence.getFrameCount() - 1;
+        }
+
+        int slaveFrameIndex = -1;
+        boolean allSlaveFramesActive = true;
+        try {
+            do {
+                final long slaveCursor = slaveFrameSequence.next();
+                if (slaveCursor > -1) {
+                    PageFrameReduceTask task = slaveFrameSequence.getTask(slaveCursor);
+                    LOG.debug()
+                            .$("collected slave [shard=").$(slaveFrameSequence.getShard())
+                            .$(", frameIndex=").$(task.getFrameIndex())
+                            .$(", frameCount=").$(slaveFrameSequence.getFrameCount())
+                            .$(", active=").$(slaveFrameSequence.isActive())
+                            .$(", cursor=").$(slaveCursor)
+                            .I$();
+                    if (task.hasError()) {
+                        throw CairoException.nonCritical().put(task.getErrorMsg())
+                                .setCancellation(task.isCancelled()).setInterruption(task.isCancelled());
+                    }
+
+                    allSlaveFramesActive &= slaveFrameSequence.isActive();
+                    slaveFrameIndex = task.getFrameIndex();
+
+                    slaveFrameSequence.collect(slaveCursor, false);
+                } else if (slaveCursor == -2) {
+                    break; // No frames to build the hash table from.
+                } else {
+                    Os.pause();
+                }
+            } while (slaveFrameIndex < slaveFrameLimit);
+        } catch (CairoException e) {
+            if (e.isInterruption() || e.isCancellation()) {
+                throwTimeoutException(slaveFrameSequence);
+            } else {
+                throw e;
+            }
+        }
+
+        if (!allSlaveFramesActive) {
+            throwTimeoutException(slaveFrameSequence);
+        }
+
+        mergePartitions();
+        buildAtom.setBuilt();
+    }
+
+    private void collectCursor(boolean forceCollect) {
+        if (cursor > -1) {
+            frameSequence.collect(cursor, forceCollect);
+            // It is necessary to clear 'cursor' value
+            // because we updated frameIndex and loop can exit due to lack of frames.
+            // Non-update of 'cursor' could cause double-free.
+            cursor = -1;
+        }
+    }
+
+    private void fetchNextFrame() {
+        if (frameLimit == -1) {
+            frameSequence.prepareForDispatch();
+            frameLimit = frameSequence.getFrameCount() - 1;
+        }
+
+        try {
+            do {
+                cursor = frameSequence.next();
+                if (cursor > -1) {
+                    PageFrameReduceTask task = frameSequence.getTask(cursor);
+                    LOG.debug()
+                            .$("collected [shard=").$(frameSequence.getShard())
+                            .$(", frameIndex=").$(task.getFrameIndex())
+                            .$(", frameCount=").$(frameSequence.getFrameCount())
+                            .$(", frameId=").$(frameSequence.getId())
+                            .$(", active=").$(frameSequence.isActive())
+                            .$(", cursor=").$(cursor)
+                            .I$();
+
+                    if (task.hasError()) {
+                        throw CairoException.nonCritical().put(task.getErrorMsg())
+                                .setCancellation(task.isCancelled()).setInterruption(task.isCancelled());
+                    }
+
+                    allFramesActive &= frameSequence.isActive();
+                    rows = task.getFilteredRows();
+                    frameRowCount = rows.size() >>> 1;
+                    frameIndex = task.getFrameIndex();
+                    frameRowIndex = 0;
+                    if (frameRowCount > 0 && frameSequence.isActive()) {
+                        masterRecord.setFrameIndex(task.getFrameIndex());
+                        break;
+                    } else {
+                        // Force reset frame size if frameSequence was canceled or failed.
+                        frameRowCount = 0;
+                        collectCursor(false);
+                    }
+                } else if (cursor == -2) {
+                    break; // No frames to probe
+                } else {
+                    Os.pause();
+                }
+            } while (frameIndex < frameLimit);
+        } catch (Throwable e) {
+            if (e instanceof CairoException) {
+                CairoException ce = (CairoException) e;
+                if (ce.isInterruption() || ce.isCancellation()) {
+                    LOG.error().$("hash join error [ex=").$(((CairoException) e).getFlyweightMessage()).I$();
+                    throwTimeoutException();
+                } else {
+                    LOG.error().$("hash join error [ex=").$(e).I$();
+                    throw ce;
+                }
+            }
+            LOG.error().$("hash join error [ex=").$(e).I$();
+            throw CairoException.nonCritical().put(e.getMessage());
+        }
+    }
+
+    private void mergePartitions() {
+        sharedCircuitBreaker.reset();
+        doneLatch.reset();
+
+        // Merge each set of per-worker partition maps into the final partition map. This is done in parallel.
+        final int partitionCount = buildAtom.getPartitionCount();
+        final RingQueue<GroupByMergeShardTask> queue = messageBus.getGroupByMergeShardQueue();
+        final MPSequence pubSeq = messageBus.getGroupByMergeShardPubSeq();
+        final MCSequence subSeq = messageBus.getGroupByMergeShardSubSeq();
+
+        int queuedCount = 0;
+        try {
+            for (int i = 0; i < partitionCount; i++) {
+                long cursor = pubSeq.next();
+                if (cursor < 0) {
+                    circuitBreaker.statefulThrowExceptionIfTrippedNoThrottle();
+                    buildAtom.mergeShard(-1, i);
+                } else {
+                    queue.get(cursor).of(sharedCircuitBreaker, doneLatch, buildAtom, i);
+                    pubSeq.done(cursor);
+                    queuedCount++;
+                }
+            }
+        } catch (Throwable e) {
+            sharedCircuitBreaker.cancel();
+            throw e;
+        } finally {
+            // Consume the queue ourselves while waiting for the tasks we published,
+            // since the workers may be busy with other queries.
+            while (!doneLatch.done(queuedCount)) {
+                if (circuitBreaker.checkIfTripped()) {
+                    sharedCircuitBreaker.cancel();
+                }
+
+                long cursor = subSeq.next();
+                if (cursor > -1) {
+                    GroupByMergeShardTask task = queue.get(cursor);
+                    GroupByMergeShardJob.run(-1, task, subSeq, cursor);
+                } else {
+                    Os.pause();
+                }
+            }
+        }
+
+        if (sharedCircuitBreaker.checkIfTripped()) {
+            throwTimeoutException(slaveFrameSequence);
+        }
+    }
+
+    private void nextMasterRow() {
+        final long pairIndex = hasDescendingOrder ? (frameRowCount - frameRowIndex - 1) : frameRowIndex;
+        masterRecord.setRowIndex(rows.get(pairIndex << 1));
+        // we know the chain has values
+        slaveChainNode = rows.get((pairIndex << 1) + 1);
+        nextSlaveRow();
+        frameRowIndex++;
+    }
+
+    private void nextSlaveRow() {
+        final long rowId = buildAtom.getRowId(slaveChainNode);
+        slaveRecord.setFrameIndex(Rows.toPartitionIndex(rowId));
+        slaveRecord.setRowIndex(Rows.toLocalRowID(rowId));
+        slaveChainNode = buildAtom.nextNode(slaveChainNode);
+    }
+
+    private void throwTimeoutException() {
+        throwTimeoutException(frameSequence);
+    }
+
+    private void throwTimeoutException(PageFrameSequence<?> frameSequence) {
+        if (frameSequence.getCancelReason() == SqlExecutionCircuitBreaker.STATE_CANCELLED) {
+            throw CairoException.queryCancelled();
+        } else {
+            throw CairoException.queryTimedOut();
+        }
+    }
+
+    void of(
+            PageFrameSequence<AsyncHashJoinLightAtom> frameSequence,
+            PageFrameSequence<AsyncHashJoinLightBuildAtom> slaveFrameSequence,
+            SqlExecutionCircuitBreaker circuitBreaker
+    ) {
+        isOpen = true;
+        this.frameSequence = frameSequence;
+        this.slaveFrameSequence = slaveFrameSequence;
+        this.circuitBreaker = circuitBreaker;
+        buildAtom = slaveFrameSequence.getAtom();
+        frameIndex = -1;
+        frameLimit = -1;
+        frameRowCount = 0;
+        frameRowIndex = 0;
+        slaveFrameLimit = -1;
+        allFramesActive = true;
+        masterRecord.of(frameSequence.getSymbolTableSource(), frameSequence.getPageAddressCache());
+        slaveRecord.of(slaveFrameSequence.getSymbolTableSource(), slaveFrameSequence.getPageAddressCache());
+        slaveChainNode = AsyncHashJoinLightBuildAtom.END_OF_CHAIN;
+        record.of(masterRecord, slaveRecord);
+    }
+}
@@ -0,0 +1,223 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin.engine.join;
+
+import io.questdb.MessageBus;
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.ColumnTypes;
+import io.questdb.cairo.RecordSink;
+import io.questdb.cairo.TableToken;
+import io.questdb.cairo.map.OrderedMap;
+import io.questdb.cairo.sql.*;
+import io.questdb.cairo.sql.async.PageFrameReduceTask;
+import io.questdb.cairo.sql.async.PageFrameReduceTaskFactory;
+import io.questdb.cairo.sql.async.PageFrameReducer;
+import io.questdb.cairo.sql.async.PageFrameSequence;
+import io.questdb.griffin.PlanSink;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.model.JoinContext;
+import io.questdb.mp.SCSequence;
+import io.questdb.std.DirectLongList;
+import io.questdb.std.Misc;
+import io.questdb.std.Transient;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import static io.questdb.cairo.sql.DataFrameCursorFactory.ORDER_ASC;
+import static io.questdb.cairo.sql.DataFrameCursorFactory.ORDER_DESC;
+
+/**
+ * Parallel version of {@link HashJoinLightRecordCursorFactory}. Both sides are scanned as page
+ * frames. First, the slave (right-hand side) page frames are reduced by the shared workers into
+ * per-worker partitioned hash tables which are then merged partition by partition, also in
+ * parallel, see {@link AsyncHashJoinLightBuildAtom}. Next, the master table page frames are
+ * probed against the merged hash table by the workers. The owner thread collects the master
+ * frames in order, so the master rows are returned in the same order as in the serial join,
+ * while the order of the slave rows matching a master row is not defined.
+ */
+public class AsyncHashJoinLightRecordCursorFactory extends AbstractJoinRecordCursorFactory {
+
+    private static final PageFrameReducer BUILD_REDUCER = AsyncHashJoinLightRecordCursorFactory::build;
+    private static final PageFrameReducer PROBE_REDUCER = AsyncHashJoinLightRecordCursorFactory::probe;
+
+    private final SCSequence collectSubSeq = new SCSequence();
+    private final AsyncHashJoinLightRecordCursor cursor;
+    private final PageFrameSequence<AsyncHashJoinLightAtom> frameSequence;
+    private final SCSequence slaveCollectSubSeq = new SCSequence();
+    private final PageFrameSequence<AsyncHashJoinLightBuildAtom> slaveFrameSequence;
+    private final int workerCount;
+
+    public AsyncHashJoinLightRecordCursorFactory(
+            @NotNull CairoConfiguration configuration,
+            @NotNull MessageBus messageBus,
+            RecordMetadata metadata,
+            RecordCursorFactory masterFactory,
+            RecordCursorFactory slaveFactory,
+            @Transient ColumnTypes joinColumnTypes,
+            RecordSink masterSink,
+            RecordSink slaveKeySink,
+            int columnSplit,
+            JoinContext joinContext,
+            @NotNull PageFrameReduceTaskFactory reduceTaskFactory,
+            int workerCount
+    ) {
+        super(metadata, joinContext, masterFactory, slaveFactory);
+        assert masterFactory.supportsPageFrameCursor() && slaveFactory.supportsPageFrameCursor();
+        try {
+            final AsyncHashJoinLightBuildAtom buildAtom = new AsyncHashJoinLightBuildAtom(
+                    configuration,
+                    joinColumnTypes,
+                    slaveKeySink,
+                    workerCount
+            );
+            this.slaveFrameSequence = new PageFrameSequence<>(configuration, messageBus, buildAtom, BUILD_REDUCER, reduceTaskFactory, PageFrameReduceTask.TYPE_FILTER);
+            final AsyncHashJoinLightAtom atom = new AsyncHashJoinLightAtom(
+                    configuration,
+                    buildAtom,
+                    masterSink,
+                    workerCount
+            );
+            this.frameSequence = new PageFrameSequence<>(configuration, messageBus, atom, PROBE_REDUCER, reduceTaskFactory, PageFrameReduceTask.TYPE_FILTER);
+            this.cursor = new AsyncHashJoinLightRecordCursor(messageBus, columnSplit, masterFactory.getScanDirection());
+            this.workerCount = workerCount;
+        } catch (Throwable th) {
+            close();
+            throw th;
+        }
+    }
+
+    @Override
+    public boolean followedOrderByAdvice() {
+        return masterFactory.followedOrderByAdvice();
+    }
+
+    @Override
+    public RecordCursor getCursor(SqlExecutionContext executionContext) throws SqlException {
+        final int order = masterFactory.getScanDirection() == SCAN_DIRECTION_BACKWARD ? ORDER_DESC : ORDER_ASC;
+        slaveFrameSequence.of(slaveFactory, executionContext, slaveCollectSubSeq, ORDER_ASC);
+        try {
+            cursor.of(
+                    frameSequence.of(masterFactory, executionContext, collectSubSeq, order),
+                    slaveFrameSequence,
+                    executionContext.getCircuitBreaker()
+            );
+            return cursor;
+        } catch (Throwable e) {
+            slaveFrameSequence.clear();
+            throw e;
+        }
+    }
+
+    @Override
+    public int getScanDirection() {
+        return masterFactory.getScanDirection();
+    }
+
+    @Override
+    public boolean recordCursorSupportsRandomAccess() {
+        return false;
+    }
+
+    @Override
+    public boolean supportsUpdateRowId(TableToken tableToken) {
+        return masterFactory.supportsUpdateRowId(tableToken);
+    }
+
+    @Override
+    public void toPlan(PlanSink sink) {
+        sink.type("Async Hash Join Light");
+        sink.meta("workers").val(workerCount);
+        sink.attr("condition").val(joinContext);
+        sink.child(masterFactory);
+        sink.child("Hash", slaveFactory);
+    }
+
+    private static void build(
+            int workerId,
+            @NotNull PageAddressCacheRecord record,
+            @NotNull PageFrameReduceTask task,
+            @NotNull SqlExecutionCircuitBreaker circuitBreaker,
+            @Nullable PageFrameSequence<?> stealingFrameSequence
+    ) {
+        final AsyncHashJoinLightBuildAtom atom = task.getFrameSequence(AsyncHashJoinLightBuildAtom.class).getAtom();
+
+        final boolean owner = stealingFrameSequence != null && stealingFrameSequence == task.getFrameSequence();
+        final int slotId = atom.acquire(workerId, owner, circuitBreaker);
+        try {
+            atom.build(slotId, record, task.getFrameIndex(), task.getFrameRowCount());
+        } finally {
+            atom.release(slotId);
+        }
+    }
+
+    private static void probe(
+            int workerId,
+            @NotNull PageAddressCacheRecord record,
+            @NotNull PageFrameReduceTask task,
+            @NotNull SqlExecutionCircuitBreaker circuitBreaker,
+            @Nullable PageFrameSequence<?> stealingFrameSequence
+    ) {
+        final DirectLongList rows = task.getFilteredRows();
+        final long frameRowCount = task.getFrameRowCount();
+        final AsyncHashJoinLightAtom atom = task.getFrameSequence(AsyncHashJoinLightAtom.class).getAtom();
+        final RecordSink masterSink = atom.getMasterSink();
+
+        rows.clear();
+
+        final boolean owner = stealingFrameSequence != null && stealingFrameSequence == task.getFrameSequence();
+        final int slotId = atom.acquire(workerId, owner, circuitBreaker);
+        final OrderedMap.ProbeKey key = atom.getProbeKey(slotId);
+        final AsyncHashJoinLightBuildAtom buildAtom = atom.getBuildAtom();
+        try {
+            for (long r = 0; r < frameRowCount; r++) {
+                record.setRowIndex(r);
+                key.init();
+                key.put(record, masterSink);
+                final long chainHead = buildAtom.findChain(key, key.hash());
+                if (chainHead != AsyncHashJoinLightBuildAtom.END_OF_CHAIN) {
+                    // store [master row index, slave chain head] pairs
+                    rows.add(r);
+                    rows.add(chainHead);
+                }
+            }
+        } finally {
+            atom.release(slotId);
+        }
+    }
+
+    @Override
+    protected void _close() {
+        Misc.freeIfCloseable(getMetadata());
+        Misc.free(masterFactory);
+        Misc.free(slaveFactory);
+        Misc.free(frameSequence);
+        Misc.free(slaveFrameSequence);
+        if (cursor != null) {
+            cursor.freeRecords();
+        }
+    }
+}
@@ -60,6 +60,7 @@ public class AlterOperation extends AbstractOperation implements Mutable {
     public final static short SET_DEDUP_ENABLE = RENAME_TABLE + 1; // 15
     public final static short SET_DEDUP_DISABLE = SET_DEDUP_ENABLE + 1; // 16
     public final static short CHANGE_COLUMN_TYPE = SET_DEDUP_DISABLE + 1; // 17
+    public final static short COMPRESS_PARTITION = CHANGE_COLUMN_TYPE + 1; // 18
     private static final long BIT_INDEXED = 0x1L;
     private static final long BIT_DEDUP_KEY = BIT_INDEXED << 1;
     private final static Log LOG = LogFactory.getLog(AlterOperation.class);
@@ -125,6 +126,9 @@ public class AlterOperation extends AbstractOperation implements Mutable {
                 case DETACH_PARTITION:
                     applyDetachPartition(svc);
                     break;
+                case COMPRESS_PARTITION:
+                    applyCompressPartition(svc);
+                    break;
                 case ATTACH_PARTITION:
                     applyAttachPartition(svc);
                     break;
@@ -408,6 +412,22 @@ public class AlterOperation extends AbstractOperation implements Mutable {
         }
     }
 
+    private void applyCompressPartition(MetadataService svc) {
+        for (int i = 0, n = extraInfo.size() / 2; i < n; i++) {
+            final long partitionTimestamp = extraInfo.getQuick(i * 2);
+            AttachDetachStatus status = svc.compressPartition(partitionTimestamp);
+            if (AttachDetachStatus.OK != status) {
+                throw status.getException(
+                        (int) extraInfo.getQuick(i * 2 + 1),
+                        status,
+                        tableToken,
+                        svc.getPartitionBy(),
+                        partitionTimestamp
+                );
+            }
+        }
+    }
+
     private void applyDetachPartition(MetadataService svc) {
         for (int i = 0, n = extraInfo.size() / 2; i < n; i++) {
             final long partitionTimestamp = extraInfo.getQuick(i * 2);
@@ -0,0 +1,399 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin.engine.orderby;
+
+import io.questdb.MessageBus;
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.CairoException;
+import io.questdb.cairo.ColumnTypes;
+import io.questdb.cairo.RecordSink;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.*;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.RecordComparator;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.mp.MCSequence;
+import io.questdb.mp.MPSequence;
+import io.questdb.mp.RingQueue;
+import io.questdb.mp.SOUnboundedCountDownLatch;
+import io.questdb.std.*;
+import io.questdb.std.str.Path;
+import io.questdb.tasks.SortRunTask;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sorts the base cursor in bounded runs and k-way merges the sorted runs. Runs are
+ * filled on the query thread and handed over to worker threads to be sorted and
+ * spilled to disk. The last run is always sorted on the query thread and kept in memory.
+ * Spill files go to a directory unique to the cursor execution, which is removed when
+ * the cursor is closed or re-executed. Ties are resolved in favour of the earlier run, so the output
+ * order is the same as the one of the single-threaded sort.
+ */
+class ParallelSortedRecordCursor implements DelegatingRecordCursor {
+    private static final Log LOG = LogFactory.getLog(ParallelSortedRecordCursor.class);
+    private static final AtomicLong SPILL_DIR_ID = new AtomicLong();
+    private final ColumnTypes columnTypes;
+    private final RecordComparator comparator;
+    private final CairoConfiguration configuration;
+    private final SOUnboundedCountDownLatch doneLatch = new SOUnboundedCountDownLatch();
+    private final IntList heap = new IntList();
+    private final MessageBus messageBus;
+    private final int radixSortColumn;
+    private final SortRunRecord recordA = new SortRunRecord();
+    private final SortRunRecord recordB = new SortRunRecord();
+    private final RecordSink recordSink;
+    private final ObjList<SortRun> runs = new ObjList<>();
+    private final AtomicBooleanCircuitBreaker sharedCircuitBreaker = new AtomicBooleanCircuitBreaker();
+    private final Path spillDir = new Path();
+    private final ObjList<RecordComparator> workerComparators;
+    private RecordCursor base;
+    private SqlExecutionCircuitBreaker circuitBreaker;
+    private int currentRunIndex;
+    private int inFlightCount;
+    private boolean isOpen;
+    private boolean isSorted;
+    private int queuedCount;
+    private int runCount;
+    private boolean spillDirCreated;
+
+    public ParallelSortedRecordCursor(
+            CairoConfiguration configuration,
+            MessageBus messageBus,
+            ColumnTypes columnTypes,
+            RecordSink recordSink,
+            RecordComparator comparator,
+            ObjList<RecordComparator> workerComparators,
+            int radixSortColumn
+    ) {
+        this.configuration = configuration;
+        this.messageBus = messageBus;
+        this.columnTypes = columnTypes;
+        this.recordSink = recordSink;
+        this.comparator = comparator;
+        this.workerComparators = workerComparators;
+        this.radixSortColumn = radixSortColumn;
+        this.isOpen = true;
+    }
+
+    @Override
+    public void close() {
+        if (isOpen) {
+            isOpen = false;
+            clearRuns();
+            Misc.free(spillDir);
+            base = Misc.free(base);
+        }
+    }
+
+    @Override
+    public Record getRecord() {
+        return recordA;
+    }
+
+    @Override
+    public Record getRecordB() {
+        return recordB;
+    }
+
+    @Override
+    public SymbolTable getSymbolTable(int columnIndex) {
+        return base.getSymbolTable(columnIndex);
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (!isSorted) {
+            sortRuns();
+            isSorted = true;
+            toTop();
+        }
+
+        if (currentRunIndex != -1) {
+            // advance the run that produced the previous record
+            if (runs.getQuick(currentRunIndex).hasNext()) {
+                siftDown(0);
+            } else {
+                final int size = heap.size() - 1;
+                heap.setQuick(0, heap.getQuick(size));
+                heap.setPos(size);
+                siftDown(0);
+            }
+        }
+
+        if (heap.size() == 0) {
+            currentRunIndex = -1;
+            return false;
+        }
+
+        currentRunIndex = heap.getQuick(0);
+        recordA.of(currentRunIndex, runs.getQuick(currentRunIndex).getRecord());
+        return true;
+    }
+
+    @Override
+    public SymbolTable newSymbolTable(int columnIndex) {
+        return base.newSymbolTable(columnIndex);
+    }
+
+    @Override
+    public void of(RecordCursor base, SqlExecutionContext executionContext) {
+        this.base = base;
+        this.circuitBreaker = executionContext.getCircuitBreaker();
+        this.isOpen = true;
+        isSorted = false;
+        clearRuns();
+        currentRunIndex = -1;
+        heap.clear();
+    }
+
+    @Override
+    public void recordAt(Record record, long atRowId) {
+        final int runIndex = Rows.toPartitionIndex(atRowId);
+        final SortRun run = runs.getQuick(runIndex);
+        final Record runRecord = run.getRecordB();
+        run.recordAt(runRecord, Rows.toLocalRowID(atRowId));
+        ((SortRunRecord) record).of(runIndex, runRecord);
+    }
+
+    @Override
+    public long size() {
+        return base.size();
+    }
+
+    @Override
+    public void toTop() {
+        heap.clear();
+        currentRunIndex = -1;
+        for (int i = 0; i < runCount; i++) {
+            final SortRun run = runs.getQuick(i);
+            run.toTop();
+            if (run.hasNext()) {
+                heap.add(i);
+                siftUp(heap.size() - 1);
+            }
+        }
+    }
+
+    private void awaitQueuedRuns() {
+        final RingQueue<SortRunTask> queue = messageBus.getSortRunQueue();
+        final MCSequence subSeq = messageBus.getSortRunSubSeq();
+        // We may end up sorting runs of other queries while we wait,
+        // so the latch is the only reliable way to tell that our runs are done.
+        while (!doneLatch.done(queuedCount)) {
+            if (circuitBreaker.checkIfTripped()) {
+                sharedCircuitBreaker.cancel();
+            }
+
+            long cursor = subSeq.next();
+            if (cursor > -1) {
+                SortRunJob.run(-1, queue.get(cursor), subSeq, cursor);
+            } else {
+                Os.pause();
+            }
+        }
+        inFlightCount = 0;
+    }
+
+    private void clearRuns() {
+        // also removes spill files left by the previous execution, if it wasn't closed
+        for (int i = 0, n = runs.size(); i < n; i++) {
+            runs.getQuick(i).clear();
+        }
+        runCount = 0;
+        removeSpillDir();
+    }
+
+    private void createSpillDir() {
+        final FilesFacade ff = configuration.getFilesFacade();
+        spillDir.of(configuration.getSqlSortSpillRoot())
+                .concat("sort_")
+                .put(configuration.getNanosecondClock().getTicks())
+                .put('_')
+                .put(SPILL_DIR_ID.incrementAndGet())
+                .slash$();
+        if (ff.mkdirs(spillDir, configuration.getMkDirMode()) != 0) {
+            throw CairoException.critical(ff.errno()).put("could not create sort spill directory [path=").put(spillDir).put(']');
+        }
+        spillDirCreated = true;
+    }
+
+    private void dispatch(SortRun run) {
+        final boolean radixSort = radixSortColumn != 0;
+        final int maxInFlightCount = radixSort ? configuration.getSortRunQueueCapacity() : workerComparators.size();
+        if (!spillDirCreated) {
+            createSpillDir();
+        }
+        if (maxInFlightCount == 0) {
+            // comparator is not safe to use outside the query thread, e.g. it compares symbols
+            run.sortAndSpill(comparator);
+            return;
+        }
+
+        if (inFlightCount == maxInFlightCount) {
+            // bound memory taken by the runs that are not yet spilled
+            awaitQueuedRuns();
+        }
+
+        final MPSequence pubSeq = messageBus.getSortRunPubSeq();
+        final long cursor = pubSeq.next();
+        if (cursor < 0) {
+            run.sortAndSpill(comparator);
+        } else {
+            messageBus.getSortRunQueue().get(cursor).of(
+                    sharedCircuitBreaker,
+                    doneLatch,
+                    run,
+                    radixSort ? null : workerComparators.getQuick(inFlightCount)
+            );
+            pubSeq.done(cursor);
+            queuedCount++;
+            inFlightCount++;
+        }
+    }
+
+    private boolean less(int runIndexA, int runIndexB) {
+        comparator.setLeft(runs.getQuick(runIndexA).getRecord());
+        final int cmp = comparator.compare(runs.getQuick(runIndexB).getRecord());
+        // equal records are taken from the earlier run to keep the sort stable
+        return cmp < 0 || (cmp == 0 && runIndexA < runIndexB);
+    }
+
+    private SortRun nextRun() {
+        final SortRun run;
+        if (runCount < runs.size()) {
+            run = runs.getQuick(runCount);
+        } else {
+            run = new SortRun(configuration, columnTypes, recordSink, radixSortColumn);
+            runs.add(run);
+        }
+        run.of(base, spillDir, runCount);
+        runCount++;
+        return run;
+    }
+
+    private void removeSpillDir() {
+        if (spillDirCreated) {
+            spillDirCreated = false;
+            final FilesFacade ff = configuration.getFilesFacade();
+            if (!ff.rmdir(spillDir)) {
+                LOG.error().$("could not remove sort spill directory [path=").$(spillDir).$(", errno=").$(ff.errno()).I$();
+            }
+        }
+    }
+
+    private void siftDown(int i) {
+        final int size = heap.size();
+        while (true) {
+            final int left = 2 * i + 1;
+            if (left >= size) {
+                return;
+            }
+            final int right = left + 1;
+            int min = left;
+            if (right < size && less(heap.getQuick(right), heap.getQuick(left))) {
+                min = right;
+            }
+            if (!less(heap.getQuick(min), heap.getQuick(i))) {
+                return;
+            }
+            swap(i, min);
+            i = min;
+        }
+    }
+
+    private void siftUp(int i) {
+        while (i > 0) {
+            final int parent = (i - 1) / 2;
+            if (!less(heap.getQuick(i), heap.getQuick(parent))) {
+                return;
+            }
+            swap(i, parent);
+            i = parent;
+        }
+    }
+
+    private void sortRuns() {
+        sharedCircuitBreaker.reset();
+        doneLatch.reset();
+        queuedCount = 0;
+        inFlightCount = 0;
+
+        try {
+            final Record record = base.getRecord();
+            SortRun run = nextRun();
+            while (base.hasNext()) {
+                circuitBreaker.statefulThrowExceptionIfTripped();
+                run.put(record);
+                if (run.isFull()) {
+                    dispatch(run);
+                    run = nextRun();
+                }
+            }
+            // the last run is merged straight from memory
+            run.sort(comparator);
+        } catch (Throwable th) {
+            sharedCircuitBreaker.cancel();
+            throw th;
+        } finally {
+            awaitQueuedRuns();
+        }
+
+        circuitBreaker.statefulThrowExceptionIfTrippedNoThrottle();
+        for (int i = 0; i < runCount; i++) {
+            final Throwable error = runs.getQuick(i).getError();
+            if (error instanceof CairoException) {
+                throw (CairoException) error;
+            }
+            if (error != null) {
+                throw CairoException.nonCritical().put("could not sort run [error=").put(error.getMessage()).put(']');
+            }
+        }
+
+        LOG.debug().$("sorted runs [runCount=").$(runCount).$(", queuedCount=").$(queuedCount).I$();
+    }
+
+    private void swap(int i, int j) {
+        final int tmp = heap.getQuick(i);
+        heap.setQuick(i, heap.getQuick(j));
+        heap.setQuick(j, tmp);
+    }
+
+    private static class SortRunRecord extends DelegatingRecord {
+        private int runIndex;
+
+        @Override
+        public long getRowId() {
+            return Rows.toRowID(runIndex, base.getRowId());
+        }
+
+        public void of(int runIndex, Record base) {
+            this.runIndex = runIndex;
+            of(base);
+        }
+    }
+}
@@ -0,0 +1,150 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin.engine.orderby;
+
+import io.questdb.MessageBus;
+import io.questdb.cairo.AbstractRecordCursorFactory;
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.ListColumnFilter;
+import io.questdb.cairo.RecordSink;
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.cairo.sql.RecordMetadata;
+import io.questdb.griffin.PlanSink;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.RecordComparator;
+import io.questdb.std.Misc;
+import io.questdb.std.ObjList;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Parallel alternative to {@link SortedRecordCursorFactory}. Instead of a single tree chain,
+ * the base cursor is split into runs of bounded size that are sorted by shared workers and
+ * k-way merged. Sorted runs are spilled to the copy work root when it is configured, so
+ * the memory taken by the sort is no longer limited by the sort value max pages setting.
+ */
+public class ParallelSortedRecordCursorFactory extends AbstractRecordCursorFactory {
+    private final RecordCursorFactory base;
+    private final ParallelSortedRecordCursor cursor;
+    private final ListColumnFilter sortColumnFilter;
+    private final int workerCount;
+
+    /**
+     * @param workerComparators per-worker comparators; empty if the comparator may be used
+     *                          only on the query thread, e.g. when it compares symbols
+     */
+    public ParallelSortedRecordCursorFactory(
+            @NotNull CairoConfiguration configuration,
+            @NotNull MessageBus messageBus,
+            @NotNull RecordMetadata metadata,
+            @NotNull RecordCursorFactory base,
+            @NotNull RecordSink recordSink,
+            @NotNull RecordComparator comparator,
+            @NotNull ObjList<RecordComparator> workerComparators,
+            @NotNull ListColumnFilter sortColumnFilter,
+            int workerCount
+    ) {
+        super(metadata);
+        this.base = base;
+        this.sortColumnFilter = sortColumnFilter;
+        this.workerCount = workerCount;
+        this.cursor = new ParallelSortedRecordCursor(
+                configuration,
+                messageBus,
+                metadata,
+                recordSink,
+                comparator,
+                workerComparators,
+                getRadixSortColumn(metadata, sortColumnFilter)
+        );
+    }
+
+    /**
+     * Returns the signed 1-based index of the sort column if runs can be sorted with radix sort,
+     * i.e. there is a single integer sort key, or 0 otherwise. Radix sort does not need comparators.
+     */
+    public static int getRadixSortColumn(RecordMetadata metadata, ListColumnFilter sortColumnFilter) {
+        if (sortColumnFilter.size() == 1) {
+            final int sortColumn = sortColumnFilter.getQuick(0);
+            if (SortRun.isRadixSortSupported(metadata.getColumnType(Math.abs(sortColumn) - 1))) {
+                return sortColumn;
+            }
+        }
+        return 0;
+    }
+
+    @Override
+    public RecordCursorFactory getBaseFactory() {
+        return base;
+    }
+
+    @Override
+    public RecordCursor getCursor(SqlExecutionContext executionContext) throws SqlException {
+        final RecordCursor baseCursor = base.getCursor(executionContext);
+        try {
+            cursor.of(baseCursor, executionContext);
+            return cursor;
+        } catch (Throwable th) {
+            baseCursor.close();
+            throw th;
+        }
+    }
+
+    @Override
+    public int getScanDirection() {
+        return SortedRecordCursorFactory.getScanDirection(sortColumnFilter);
+    }
+
+    @Override
+    public boolean recordCursorSupportsRandomAccess() {
+        return true;
+    }
+
+    @Override
+    public void toPlan(PlanSink sink) {
+        sink.type("Parallel Sort");
+        sink.meta("workers").val(workerCount);
+        SortedLightRecordCursorFactory.addSortKeys(sink, sortColumnFilter);
+        sink.child(base);
+    }
+
+    @Override
+    public boolean usesCompiledFilter() {
+        return base.usesCompiledFilter();
+    }
+
+    @Override
+    public boolean usesIndex() {
+        return base.usesIndex();
+    }
+
+    @Override
+    protected void _close() {
+        base.close();
+        Misc.free(cursor);
+    }
+}
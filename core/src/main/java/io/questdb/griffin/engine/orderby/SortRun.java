@@ -0,0 +1,369 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin.engine.orderby;
+
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.ColumnTypes;
+import io.questdb.cairo.RecordChain;
+import io.questdb.cairo.RecordSink;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.SymbolTableSource;
+import io.questdb.cairo.vm.Vm;
+import io.questdb.cairo.vm.api.MemoryCMARW;
+import io.questdb.griffin.engine.RecordComparator;
+import io.questdb.std.*;
+import io.questdb.std.str.Path;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * A bounded run of records sorted independently of other runs by parallel ORDER BY.
+ * Records are copied into an in-memory record chain and sorting permutes only the
+ * index of record offsets, so the sort is stable. Once sorted, the run can be spilled
+ * into a file in sorted order, which releases the in-memory chain. The file is removed
+ * when the run is cleared or closed.
+ * <p>
+ * A run is filled by the query thread, but can be sorted and spilled by a worker thread.
+ */
+public class SortRun implements Mutable, QuietCloseable {
+    private static final int INSERTION_SORT_THRESHOLD = 16;
+    private final RecordChain chain;
+    private final FilesFacade ff;
+    private final long fileOpts;
+    private final DirectLongList index;
+    private final long maxSize;
+    private final Path path = new Path();
+    private final int radixColumnIndex;
+    private final int radixColumnType;
+    private final long radixKeyMask;
+    private final DirectLongList scratch;
+    private final RecordChain spillChain;
+    private final MemoryCMARW spillMem;
+    private final long spillPageSize;
+    private volatile Throwable error;
+    private long pos;
+    private boolean spilled;
+
+    /**
+     * @param radixSortColumn 1-based sort column index, negative for descending order, or 0
+     *                        when the run is sorted with a comparator
+     */
+    public SortRun(
+            @NotNull CairoConfiguration configuration,
+            @Transient @NotNull ColumnTypes columnTypes,
+            @NotNull RecordSink recordSink,
+            int radixSortColumn
+    ) {
+        try {
+            this.ff = configuration.getFilesFacade();
+            this.fileOpts = configuration.getWriterFileOpenOpts();
+            this.maxSize = configuration.getSqlSortRunMaxSize();
+            this.spillPageSize = configuration.getSqlSortValuePageSize();
+            this.chain = new RecordChain(
+                    columnTypes,
+                    recordSink,
+                    configuration.getSqlSortValuePageSize(),
+                    configuration.getSqlSortValueMaxPages()
+            );
+            this.spillMem = Vm.getCMARWInstance();
+            this.spillChain = new RecordChain(columnTypes, recordSink, spillMem);
+            this.index = new DirectLongList(configuration.getSqlSortKeyPageSize() / Long.BYTES, MemoryTag.NATIVE_TREE_CHAIN);
+            this.scratch = new DirectLongList(configuration.getSqlSortKeyPageSize() / Long.BYTES, MemoryTag.NATIVE_TREE_CHAIN);
+            if (radixSortColumn != 0) {
+                this.radixColumnIndex = Math.abs(radixSortColumn) - 1;
+                this.radixColumnType = ColumnType.tagOf(columnTypes.getColumnType(radixColumnIndex));
+                // flip the sign bit to order signed keys as unsigned; descending order also inverts the rest of the bits
+                this.radixKeyMask = radixSortColumn > 0 ? Long.MIN_VALUE : Long.MAX_VALUE;
+            } else {
+                this.radixColumnIndex = -1;
+                this.radixColumnType = ColumnType.UNDEFINED;
+                this.radixKeyMask = 0;
+            }
+        } catch (Throwable th) {
+            close();
+            throw th;
+        }
+    }
+
+    /**
+     * Returns true if the column can be sorted with radix sort: the sort key has to be
+     * fixed-size and ordered the same way as its value widened to a signed long.
+     */
+    public static boolean isRadixSortSupported(int columnType) {
+        switch (ColumnType.tagOf(columnType)) {
+            case ColumnType.BYTE:
+            case ColumnType.SHORT:
+            case ColumnType.INT:
+            case ColumnType.LONG:
+            case ColumnType.DATE:
+            case ColumnType.TIMESTAMP:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    @Override
+    public void clear() {
+        chain.clear();
+        index.close();
+        scratch.close();
+        closeSpill();
+        Misc.free(path);
+        pos = 0;
+        error = null;
+    }
+
+    @Override
+    public void close() {
+        Misc.free(chain);
+        Misc.free(index);
+        Misc.free(scratch);
+        if (spillChain != null) {
+            closeSpill();
+        }
+        Misc.free(path);
+    }
+
+    public Throwable getError() {
+        return error;
+    }
+
+    public Record getRecord() {
+        return spilled ? spillChain.getRecord() : chain.getRecord();
+    }
+
+    public Record getRecordB() {
+        return spilled ? spillChain.getRecordB() : chain.getRecordB();
+    }
+
+    public boolean hasNext() {
+        if (spilled) {
+            return spillChain.hasNext();
+        }
+        if (pos < recordCount()) {
+            chain.recordAt(chain.getRecord(), offsetAt(pos++));
+            return true;
+        }
+        return false;
+    }
+
+    public boolean isFull() {
+        return chain.getUsedHeapSize() + index.size() * Long.BYTES >= maxSize;
+    }
+
+    public boolean isSpilled() {
+        return spilled;
+    }
+
+    /**
+     * @param spillDir directory the run is spilled to, must be unique to the sorting cursor
+     * @param runIndex index of the run within the cursor, used to name the spill file
+     */
+    public void of(SymbolTableSource symbolTableSource, Path spillDir, int runIndex) {
+        path.of(spillDir).concat("run_").put(runIndex).put(".d").$();
+        index.reopen();
+        scratch.reopen();
+        chain.setSymbolTableResolver(symbolTableSource);
+        spillChain.setSymbolTableResolver(symbolTableSource);
+    }
+
+    public void put(Record record) {
+        final long offset = chain.put(record, -1);
+        if (radixColumnIndex != -1) {
+            index.add(radixKey(record));
+        }
+        index.add(offset);
+    }
+
+    public void recordAt(Record record, long offset) {
+        if (spilled) {
+            spillChain.recordAt(record, offset);
+        } else {
+            chain.recordAt(record, offset);
+        }
+    }
+
+    public void setError(Throwable error) {
+        this.error = error;
+    }
+
+    /**
+     * Sorts the run. The comparator may be null when the run is sorted with radix sort.
+     * Comparator instances must not be shared between concurrently sorted runs.
+     */
+    public void sort(@Nullable RecordComparator comparator) {
+        final long count = recordCount();
+        if (count < 2) {
+            return;
+        }
+        scratch.setCapacity(index.size());
+        if (radixColumnIndex != -1) {
+            Vect.radixSortLongIndexAscInPlace(index.getAddress(), count, scratch.getAddress());
+        } else {
+            assert comparator != null;
+            mergeSort(comparator, count);
+        }
+    }
+
+    /**
+     * Sorts the run and writes it to its spill file in sorted order. The in-memory
+     * copy of the run is released after that.
+     */
+    public void sortAndSpill(@Nullable RecordComparator comparator) {
+        sort(comparator);
+        spillMem.of(ff, path, spillPageSize, MemoryTag.MMAP_DEFAULT, fileOpts);
+        spilled = true;
+        long prevOffset = -1;
+        final Record record = chain.getRecord();
+        for (long i = 0, n = recordCount(); i < n; i++) {
+            chain.recordAt(record, offsetAt(i));
+            prevOffset = spillChain.put(record, prevOffset);
+        }
+        chain.clear();
+        index.close();
+        scratch.close();
+    }
+
+    public void toTop() {
+        if (spilled) {
+            spillChain.toTop();
+        } else {
+            pos = 0;
+        }
+    }
+
+    private void closeSpill() {
+        spillChain.clear();
+        if (spilled) {
+            ff.removeQuiet(path);
+            spilled = false;
+        }
+    }
+
+    private void insertionSort(RecordComparator comparator, long address, long lo, long hi) {
+        final Record left = chain.getRecord();
+        final Record right = chain.getRecordB();
+        for (long i = lo + 1; i < hi; i++) {
+            final long offset = Unsafe.getUnsafe().getLong(address + (i << 3));
+            chain.recordAt(left, offset);
+            comparator.setLeft(left);
+            long j = i - 1;
+            for (; j >= lo; j--) {
+                final long prevOffset = Unsafe.getUnsafe().getLong(address + (j << 3));
+                chain.recordAt(right, prevOffset);
+                if (comparator.compare(right) >= 0) {
+                    break;
+                }
+                Unsafe.getUnsafe().putLong(address + ((j + 1) << 3), prevOffset);
+            }
+            Unsafe.getUnsafe().putLong(address + ((j + 1) << 3), offset);
+        }
+    }
+
+    private void merge(RecordComparator comparator, long srcAddress, long dstAddress, long lo, long mid, long hi) {
+        final Record left = chain.getRecord();
+        final Record right = chain.getRecordB();
+        long i = lo;
+        long j = mid;
+        long k = lo;
+        while (i < mid && j < hi) {
+            final long leftOffset = Unsafe.getUnsafe().getLong(srcAddress + (i << 3));
+            final long rightOffset = Unsafe.getUnsafe().getLong(srcAddress + (j << 3));
+            chain.recordAt(left, leftOffset);
+            chain.recordAt(right, rightOffset);
+            comparator.setLeft(left);
+            // ties are taken from the left to keep the sort stable
+            if (comparator.compare(right) <= 0) {
+                Unsafe.getUnsafe().putLong(dstAddress + (k++ << 3), leftOffset);
+                i++;
+            } else {
+                Unsafe.getUnsafe().putLong(dstAddress + (k++ << 3), rightOffset);
+                j++;
+            }
+        }
+        if (i < mid) {
+            Vect.memcpy(dstAddress + (k << 3), srcAddress + (i << 3), (mid - i) << 3);
+        } else if (j < hi) {
+            Vect.memcpy(dstAddress + (k << 3), srcAddress + (j << 3), (hi - j) << 3);
+        }
+    }
+
+    private void mergeSort(RecordComparator comparator, long count) {
+        long srcAddress = index.getAddress();
+        long dstAddress = scratch.getAddress();
+        for (long lo = 0; lo < count; lo += INSERTION_SORT_THRESHOLD) {
+            insertionSort(comparator, srcAddress, lo, Math.min(lo + INSERTION_SORT_THRESHOLD, count));
+        }
+        for (long width = INSERTION_SORT_THRESHOLD; width < count; width <<= 1) {
+            for (long lo = 0; lo < count; lo += 2 * width) {
+                final long mid = Math.min(lo + width, count);
+                final long hi = Math.min(lo + 2 * width, count);
+                merge(comparator, srcAddress, dstAddress, lo, mid, hi);
+            }
+            final long tmp = srcAddress;
+            srcAddress = dstAddress;
+            dstAddress = tmp;
+        }
+        if (srcAddress != index.getAddress()) {
+            Vect.memcpy(index.getAddress(), srcAddress, count << 3);
+        }
+    }
+
+    private long offsetAt(long i) {
+        return radixColumnIndex != -1 ? index.get(2 * i + 1) : index.get(i);
+    }
+
+    private long radixKey(Record record) {
+        final long value;
+        switch (radixColumnType) {
+            case ColumnType.BYTE:
+                value = record.getByte(radixColumnIndex);
+                break;
+            case ColumnType.SHORT:
+                value = record.getShort(radixColumnIndex);
+                break;
+            case ColumnType.INT:
+                value = record.getInt(radixColumnIndex);
+                break;
+            case ColumnType.DATE:
+                value = record.getDate(radixColumnIndex);
+                break;
+            case ColumnType.TIMESTAMP:
+                value = record.getTimestamp(radixColumnIndex);
+                break;
+            default:
+                value = record.getLong(radixColumnIndex);
+                break;
+        }
+        return value ^ radixKeyMask;
+    }
+
+    private long recordCount() {
+        return radixColumnIndex != -1 ? index.size() / 2 : index.size();
+    }
+}
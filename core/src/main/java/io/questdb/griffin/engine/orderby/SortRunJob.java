@@ -0,0 +1,74 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin.engine.orderby;
+
+import io.questdb.MessageBus;
+import io.questdb.cairo.sql.AtomicBooleanCircuitBreaker;
+import io.questdb.griffin.engine.RecordComparator;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.mp.AbstractQueueConsumerJob;
+import io.questdb.mp.CountDownLatchSPI;
+import io.questdb.mp.Sequence;
+import io.questdb.tasks.SortRunTask;
+
+public class SortRunJob extends AbstractQueueConsumerJob<SortRunTask> {
+    private static final Log LOG = LogFactory.getLog(SortRunJob.class);
+
+    public SortRunJob(MessageBus messageBus) {
+        super(messageBus.getSortRunQueue(), messageBus.getSortRunSubSeq());
+    }
+
+    public static void run(int workerId, SortRunTask task, Sequence subSeq, long cursor) {
+        final AtomicBooleanCircuitBreaker circuitBreaker = task.getCircuitBreaker();
+        final CountDownLatchSPI doneLatch = task.getDoneLatch();
+        final SortRun run = task.getRun();
+        final RecordComparator comparator = task.getComparator();
+
+        task.clear();
+        subSeq.done(cursor);
+
+        try {
+            if (circuitBreaker.checkIfTripped()) {
+                return;
+            }
+            run.sortAndSpill(comparator);
+        } catch (Throwable e) {
+            LOG.error().$("sort run failed [workerId=").$(workerId).$(", ex=").$(e).I$();
+            run.setError(e);
+            circuitBreaker.cancel();
+        } finally {
+            doneLatch.countDown();
+        }
+    }
+
+    @Override
+    protected boolean doRun(int workerId, long cursor, RunStatus runStatus) {
+        final SortRunTask task = queue.get(cursor);
+        run(workerId, task, subSeq, cursor);
+        return true;
+    }
+}
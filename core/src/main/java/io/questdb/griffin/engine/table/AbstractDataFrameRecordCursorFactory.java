@@ -61,6 +61,10 @@ abstract class AbstractDataFrameRecordCursorFactory extends AbstractRecordCursor
         }
     }
 
+    public DataFrameCursorFactory getDataFrameCursorFactory() {
+        return dataFrameCursorFactory;
+    }
+
     @Override
     public TableToken getTableToken() {
         return dataFrameCursorFactory.getTableToken();
@@ -44,19 +44,23 @@ public class AsyncFilterAtom implements StatefulAtom, Closeable, Plannable {
 
     public static final LongAdder PRE_TOUCH_BLACK_HOLE = new LongAdder();
 
+    private final boolean batchEnabled;
     private final Function filter;
     private final ObjList<Function> perWorkerFilters;
     private final PerWorkerLocks perWorkerLocks;
     private final IntList preTouchColumnTypes;
+    private final ZoneMapFilter zoneMapFilter;
     private boolean preTouchEnabled;
 
     public AsyncFilterAtom(
             @NotNull CairoConfiguration configuration,
             @NotNull Function filter,
             @Nullable ObjList<Function> perWorkerFilters,
-            @Nullable IntList preTouchColumnTypes
+            @Nullable IntList preTouchColumnTypes,
+            @Nullable ZoneMapFilter zoneMapFilter
     ) {
         this.filter = filter;
+        this.batchEnabled = configuration.isSqlParallelFilterBatchEnabled() && filter.supportsBatch(ColumnType.BOOLEAN);
         this.perWorkerFilters = perWorkerFilters;
         if (perWorkerFilters != null) {
             perWorkerLocks = new PerWorkerLocks(configuration, perWorkerFilters.size());
@@ -64,6 +68,7 @@ public class AsyncFilterAtom implements StatefulAtom, Closeable, Plannable {
             perWorkerLocks = null;
         }
         this.preTouchColumnTypes = preTouchColumnTypes;
+        this.zoneMapFilter = zoneMapFilter;
     }
 
     public int acquireFilter(int workerId, boolean owner, SqlExecutionCircuitBreaker circuitBreaker) {
@@ -77,9 +82,15 @@ public class AsyncFilterAtom implements StatefulAtom, Closeable, Plannable {
         return perWorkerLocks.acquireSlot(workerId, circuitBreaker);
     }
 
+    @Override
+    public boolean canSkipFrame(PageFrame frame) {
+        return zoneMapFilter != null && zoneMapFilter.canSkip(frame);
+    }
+
     @Override
     public void close() {
         Misc.freeObjList(perWorkerFilters);
+        Misc.free(zoneMapFilter);
     }
 
     public Function getFilter(int filterId) {
@@ -89,6 +100,10 @@ public class AsyncFilterAtom implements StatefulAtom, Closeable, Plannable {
         return perWorkerFilters.getQuick(filterId);
     }
 
+    public @Nullable ZoneMapFilter getZoneMapFilter() {
+        return zoneMapFilter;
+    }
+
     @Override
     public void init(SymbolTableSource symbolTableSource, SqlExecutionContext executionContext) throws SqlException {
         filter.init(symbolTableSource, executionContext);
@@ -102,6 +117,10 @@ public class AsyncFilterAtom implements StatefulAtom, Closeable, Plannable {
             }
         }
         preTouchEnabled = executionContext.isColumnPreTouchEnabled();
+        if (zoneMapFilter != null) {
+            // zone maps may have changed since the last execution
+            zoneMapFilter.clear();
+        }
     }
 
     @Override
@@ -114,6 +133,14 @@ public class AsyncFilterAtom implements StatefulAtom, Closeable, Plannable {
         }
     }
 
+    /**
+     * Returns true if the filter can be evaluated over vectors of rows,
+     * see {@link Function#getBoolBatch(PageFrameBatch, long)}.
+     */
+    public boolean isBatchEnabled() {
+        return batchEnabled;
+    }
+
     /**
      * Pre-touches column values for the filtered rows, if the feature is configured.
      * <p>
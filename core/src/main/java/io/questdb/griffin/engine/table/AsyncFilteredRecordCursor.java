@@ -36,11 +36,12 @@ import io.questdb.std.DirectLongList;
 import io.questdb.std.Misc;
 import io.questdb.std.Os;
 import io.questdb.std.Rows;
+import org.jetbrains.annotations.Nullable;
 
 class AsyncFilteredRecordCursor implements RecordCursor {
 
     private static final Log LOG = LogFactory.getLog(AsyncFilteredRecordCursor.class);
-    private final Function filter;
+    private final Function filter; // null when rows are selected without a filter
     private final boolean hasDescendingOrder;
     private final PageAddressCacheRecord record;
     private boolean allFramesActive;
@@ -59,7 +60,7 @@ class AsyncFilteredRecordCursor implements RecordCursor {
     // It is typically copied from LIMIT clause on SQL statement.
     private long rowsRemaining;
 
-    public AsyncFilteredRecordCursor(Function filter, int scanDirection) {
+    public AsyncFilteredRecordCursor(@Nullable Function filter, int scanDirection) {
         this.filter = filter;
         this.hasDescendingOrder = scanDirection == RecordCursorFactory.SCAN_DIRECTION_BACKWARD;
         record = new PageAddressCacheRecord();
@@ -271,7 +272,9 @@ class AsyncFilteredRecordCursor implements RecordCursor {
             return;
         }
         collectCursor(false);
-        filter.toTop();
+        if (filter != null) {
+            filter.toTop();
+        }
         frameSequence.toTop();
         rowsRemaining = ogRowsRemaining;
         frameIndex = -1;
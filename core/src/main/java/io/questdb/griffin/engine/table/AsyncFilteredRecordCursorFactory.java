@@ -69,7 +69,8 @@ public class AsyncFilteredRecordCursorFactory extends AbstractRecordCursorFactor
             @Nullable Function limitLoFunction,
             int limitLoPos,
             boolean preTouchColumns,
-            int workerCount
+            int workerCount,
+            @Nullable ZoneMapFilter zoneMapFilter
     ) {
         super(base.getMetadata());
         assert !(base instanceof AsyncFilteredRecordCursorFactory);
@@ -85,7 +86,7 @@ public class AsyncFilteredRecordCursorFactory extends AbstractRecordCursorFactor
                 preTouchColumnTypes.add(columnType);
             }
         }
-        AsyncFilterAtom atom = new AsyncFilterAtom(configuration, filter, perWorkerFilters, preTouchColumnTypes);
+        AsyncFilterAtom atom = new AsyncFilterAtom(configuration, filter, perWorkerFilters, preTouchColumnTypes, zoneMapFilter);
         this.frameSequence = new PageFrameSequence<>(configuration, messageBus, atom, REDUCER, reduceTaskFactory, PageFrameReduceTask.TYPE_FILTER);
         this.limitLoFunction = limitLoFunction;
         this.limitLoPos = limitLoPos;
@@ -154,6 +155,10 @@ public class AsyncFilteredRecordCursorFactory extends AbstractRecordCursorFactor
         return base.getScanDirection();
     }
 
+    public @Nullable ZoneMapFilter getZoneMapFilter() {
+        return frameSequence.getAtom().getZoneMapFilter();
+    }
+
     @Override
     public void halfClose() {
         Misc.free(frameSequence);
@@ -205,6 +210,13 @@ public class AsyncFilteredRecordCursorFactory extends AbstractRecordCursorFactor
             sink.attr("limit").val(rowsRemaining);
         }
         sink.attr("filter").val(frameSequence.getAtom());
+        if (frameSequence.getAtom().isBatchEnabled()) {
+            sink.attr("batch").val(true);
+        }
+        final ZoneMapFilter zoneMapFilter = frameSequence.getAtom().getZoneMapFilter();
+        if (zoneMapFilter != null) {
+            sink.attr("zone map").val(zoneMapFilter);
+        }
         sink.child(base, order);
     }
 
@@ -225,10 +237,15 @@ public class AsyncFilteredRecordCursorFactory extends AbstractRecordCursorFactor
         final int filterId = atom.acquireFilter(workerId, owner, circuitBreaker);
         final Function filter = atom.getFilter(filterId);
         try {
-            for (long r = 0; r < frameRowCount; r++) {
-                record.setRowIndex(r);
-                if (filter.getBool(record)) {
-                    rows.add(r);
+            // compressed frames have no page addresses, they are filtered row by row
+            if (atom.isBatchEnabled() && !task.getPageAddressCache().isCompressed(task.getFrameIndex())) {
+                filterBatch(filter, task.getBatch(record), rows, frameRowCount);
+            } else {
+                for (long r = 0; r < frameRowCount; r++) {
+                    record.setRowIndex(r);
+                    if (filter.getBool(record)) {
+                        rows.add(r);
+                    }
                 }
             }
         } finally {
@@ -239,6 +256,24 @@ public class AsyncFilteredRecordCursorFactory extends AbstractRecordCursorFactor
         atom.preTouchColumns(record, rows);
     }
 
+    private static void filterBatch(Function filter, PageFrameBatch batch, DirectLongList rows, long frameRowCount) {
+        final long filteredAddr = batch.acquireVector();
+        try {
+            for (long lo = 0; lo < frameRowCount; lo += PageFrameBatch.MAX_ROWS) {
+                final int rowCount = (int) Math.min(PageFrameBatch.MAX_ROWS, frameRowCount - lo);
+                batch.setRows(lo, rowCount);
+                filter.getBoolBatch(batch, filteredAddr);
+                for (int i = 0; i < rowCount; i++) {
+                    if (Unsafe.getUnsafe().getByte(filteredAddr + i) != 0) {
+                        rows.add(lo + i);
+                    }
+                }
+            }
+        } finally {
+            batch.releaseVector();
+        }
+    }
+
     @Override
     protected void _close() {
         Misc.free(base);
@@ -47,7 +47,7 @@ import java.io.Closeable;
 
 import static io.questdb.griffin.engine.table.AsyncJitFilteredRecordCursorFactory.prepareBindVarMemory;
 
-public class AsyncGroupByAtom implements StatefulAtom, Closeable, Reopenable, Plannable {
+public class AsyncGroupByAtom implements StatefulAtom, MergeShardAtom, Closeable, Reopenable, Plannable {
     // We use the first 8 bits of a hash code to determine the shard.
     private static final int MAX_SHARDS = 128;
     private final ObjList<Function> bindVarFunctions;
@@ -166,6 +166,7 @@ public class AsyncGroupByAtom implements StatefulAtom, Closeable, Reopenable, Pl
         return perWorkerLocks.acquireSlot(workerId, circuitBreaker);
     }
 
+    @Override
     public int acquire(int workerId, ExecutionCircuitBreaker circuitBreaker) {
         if (workerId == -1) {
             // Owner thread is free to use the original functions anytime.
@@ -324,6 +325,7 @@ public class AsyncGroupByAtom implements StatefulAtom, Closeable, Reopenable, Pl
         }
     }
 
+    @Override
     public boolean isMergeLockRequired() {
         return perWorkerFunctionUpdaters != null;
     }
@@ -372,6 +374,7 @@ public class AsyncGroupByAtom implements StatefulAtom, Closeable, Reopenable, Pl
         return destMap;
     }
 
+    @Override
     public void mergeShard(int slotId, int shardIndex) {
         assert sharded;
 
@@ -420,6 +423,7 @@ public class AsyncGroupByAtom implements StatefulAtom, Closeable, Reopenable, Pl
         }
     }
 
+    @Override
     public void release(int slotId) {
         perWorkerLocks.releaseSlot(slotId);
     }
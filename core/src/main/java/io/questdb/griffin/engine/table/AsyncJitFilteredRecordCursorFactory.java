@@ -60,6 +60,8 @@ public class AsyncJitFilteredRecordCursorFactory extends AbstractRecordCursorFac
     private final AsyncFilteredRecordCursor cursor;
     private final Function filter;
     private final PageFrameSequence<AsyncJitFilterAtom> frameSequence;
+    // text of the compiled part of the filter, null when the filter is compiled as a whole
+    private final String jitFilter;
     private final Function limitLoFunction;
     private final int limitLoPos;
     private final int maxNegativeLimit;
@@ -73,19 +75,22 @@ public class AsyncJitFilteredRecordCursorFactory extends AbstractRecordCursorFac
             @NotNull RecordCursorFactory base,
             @NotNull ObjList<Function> bindVarFunctions,
             @NotNull CompiledFilter compiledFilter,
+            @Nullable String jitFilter,
             @NotNull Function filter,
             @NotNull PageFrameReduceTaskFactory reduceTaskFactory,
             @Nullable ObjList<Function> perWorkerFilters,
             @Nullable Function limitLoFunction,
             int limitLoPos,
             boolean preTouchColumns,
-            int workerCount
+            int workerCount,
+            @Nullable ZoneMapFilter zoneMapFilter
     ) {
         super(base.getMetadata());
         assert !(base instanceof FilteredRecordCursorFactory);
         assert !(base instanceof AsyncJitFilteredRecordCursorFactory);
         this.base = base;
         this.compiledFilter = compiledFilter;
+        this.jitFilter = jitFilter;
         this.filter = filter;
         this.cursor = new AsyncFilteredRecordCursor(filter, base.getScanDirection());
         this.negativeLimitCursor = new AsyncFilteredNegativeLimitRecordCursor(base.getScanDirection());
@@ -108,9 +113,11 @@ public class AsyncJitFilteredRecordCursorFactory extends AbstractRecordCursorFac
                 filter,
                 perWorkerFilters,
                 compiledFilter,
+                jitFilter != null,
                 bindVarMemory,
                 bindVarFunctions,
-                preTouchColumnTypes
+                preTouchColumnTypes,
+                zoneMapFilter
         );
         this.frameSequence = new PageFrameSequence<>(configuration, messageBus, atom, REDUCER, reduceTaskFactory, PageFrameReduceTask.TYPE_FILTER);
         this.limitLoFunction = limitLoFunction;
@@ -152,17 +159,19 @@ public class AsyncJitFilteredRecordCursorFactory extends AbstractRecordCursorFac
 
     @Override
     public ObjList<Function> getBindVarFunctions() {
-        return bindVarFunctions;
+        return jitFilter == null ? bindVarFunctions : null;
     }
 
     @Override
     public MemoryCARW getBindVarMemory() {
-        return bindVarMemory;
+        return jitFilter == null ? bindVarMemory : null;
     }
 
     @Override
     public CompiledFilter getCompiledFilter() {
-        return compiledFilter;
+        // partially compiled filter can't be used on its own, so the stealing
+        // factory is left with the Java filter
+        return jitFilter == null ? compiledFilter : null;
     }
 
     @Override
@@ -211,11 +220,21 @@ public class AsyncJitFilteredRecordCursorFactory extends AbstractRecordCursorFac
         return base.getScanDirection();
     }
 
+    public @Nullable ZoneMapFilter getZoneMapFilter() {
+        return frameSequence.getAtom().getZoneMapFilter();
+    }
+
     @Override
     public void halfClose() {
         Misc.free(frameSequence);
         cursor.freeRecords();
         negativeLimitCursor.freeRecords();
+        if (jitFilter != null) {
+            // compiled filter is not handed over to the stealing factory
+            Misc.free(compiledFilter);
+            Misc.free(bindVarMemory);
+            Misc.freeObjListAndClear(bindVarFunctions);
+        }
     }
 
     @Override
@@ -261,7 +280,14 @@ public class AsyncJitFilteredRecordCursorFactory extends AbstractRecordCursorFac
         if (rowsRemaining != Long.MAX_VALUE) {
             sink.attr("limit").val(rowsRemaining);
         }
+        if (jitFilter != null) {
+            sink.attr("jit filter").val(jitFilter);
+        }
         sink.attr("filter").val(frameSequence.getAtom());
+        final ZoneMapFilter zoneMapFilter = frameSequence.getAtom().getZoneMapFilter();
+        if (zoneMapFilter != null) {
+            sink.attr("zone map").val(zoneMapFilter);
+        }
         sink.child(base, order);
     }
 
@@ -284,9 +310,9 @@ public class AsyncJitFilteredRecordCursorFactory extends AbstractRecordCursorFac
 
         rows.clear();
 
+        final boolean owner = stealingFrameSequence != null && stealingFrameSequence == task.getFrameSequence();
         if (pageAddressCache.hasColumnTops(task.getFrameIndex())) {
             // Use Java-based filter in case of a page frame with column tops.
-            final boolean owner = stealingFrameSequence != null && stealingFrameSequence == task.getFrameSequence();
             final int filterId = atom.acquireFilter(workerId, owner, circuitBreaker);
             final Function filter = atom.getFilter(filterId);
             try {
@@ -320,6 +346,26 @@ public class AsyncJitFilteredRecordCursorFactory extends AbstractRecordCursorFac
         );
         rows.setPos(hi);
 
+        if (atom.partialCompiledFilter) {
+            // Compiled filter covers only a part of the filter, so apply Java-based filter
+            // to the rows that passed the compiled one.
+            final int filterId = atom.acquireFilter(workerId, owner, circuitBreaker);
+            final Function filter = atom.getFilter(filterId);
+            try {
+                long lo = 0;
+                for (long p = 0; p < hi; p++) {
+                    final long r = rows.get(p);
+                    record.setRowIndex(r);
+                    if (filter.getBool(record)) {
+                        rows.set(lo++, r);
+                    }
+                }
+                rows.setPos(lo);
+            } finally {
+                atom.releaseFilter(filterId);
+            }
+        }
+
         // Pre-touch fixed-size columns, if asked.
         atom.preTouchColumns(record, rows);
     }
@@ -406,18 +452,22 @@ public class AsyncJitFilteredRecordCursorFactory extends AbstractRecordCursorFac
         final ObjList<Function> bindVarFunctions;
         final MemoryCARW bindVarMemory;
         final CompiledFilter compiledFilter;
+        final boolean partialCompiledFilter;
 
         public AsyncJitFilterAtom(
                 CairoConfiguration configuration,
                 Function filter,
                 ObjList<Function> perWorkerFilters,
                 CompiledFilter compiledFilter,
+                boolean partialCompiledFilter,
                 MemoryCARW bindVarMemory,
                 ObjList<Function> bindVarFunctions,
-                @Nullable IntList preTouchColumnTypes
+                @Nullable IntList preTouchColumnTypes,
+                @Nullable ZoneMapFilter zoneMapFilter
         ) {
-            super(configuration, filter, perWorkerFilters, preTouchColumnTypes);
+            super(configuration, filter, perWorkerFilters, preTouchColumnTypes, zoneMapFilter);
             this.compiledFilter = compiledFilter;
+            this.partialCompiledFilter = partialCompiledFilter;
             this.bindVarMemory = bindVarMemory;
             this.bindVarFunctions = bindVarFunctions;
         }
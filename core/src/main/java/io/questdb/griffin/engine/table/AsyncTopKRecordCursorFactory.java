@@ -0,0 +1,342 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin.engine.table;
+
+import io.questdb.MessageBus;
+import io.questdb.cairo.AbstractRecordCursorFactory;
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.ListColumnFilter;
+import io.questdb.cairo.sql.*;
+import io.questdb.cairo.sql.async.PageFrameReduceTask;
+import io.questdb.cairo.sql.async.PageFrameReduceTaskFactory;
+import io.questdb.cairo.sql.async.PageFrameReducer;
+import io.questdb.cairo.sql.async.PageFrameSequence;
+import io.questdb.cairo.vm.api.MemoryCARW;
+import io.questdb.griffin.PlanSink;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.RecordComparator;
+import io.questdb.griffin.engine.orderby.SortedLightRecordCursorFactory;
+import io.questdb.jit.CompiledFilter;
+import io.questdb.mp.SCSequence;
+import io.questdb.std.DirectLongList;
+import io.questdb.std.Misc;
+import io.questdb.std.ObjList;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import static io.questdb.cairo.sql.DataFrameCursorFactory.ORDER_ASC;
+import static io.questdb.cairo.sql.DataFrameCursorFactory.ORDER_DESC;
+import static io.questdb.griffin.engine.table.AsyncGroupByNotKeyedRecordCursorFactory.applyCompiledFilter;
+import static io.questdb.griffin.engine.table.AsyncGroupByNotKeyedRecordCursorFactory.applyFilter;
+
+/**
+ * Selects top K candidate rows of each page frame in parallel. The filter, if any,
+ * is applied first and then each page frame keeps at most K rows in a bounded binary
+ * heap. Candidate rows are returned in the base scan order, so the final ORDER BY + LIMIT
+ * done by {@link io.questdb.griffin.engine.orderby.LimitedSizeSortedLightRecordCursorFactory}
+ * on top of this factory produces exactly the same result as a serial scan.
+ * <p>
+ * Heaps are kept per page frame rather than per worker since workers process frames out
+ * of order while rows with equal sort keys must be resolved in the scan order.
+ */
+public class AsyncTopKRecordCursorFactory extends AbstractRecordCursorFactory {
+
+    private static final PageFrameReducer REDUCER = AsyncTopKRecordCursorFactory::topK;
+
+    private final RecordCursorFactory base;
+    private final SCSequence collectSubSeq = new SCSequence();
+    private final AsyncFilteredRecordCursor cursor;
+    private final PageFrameSequence<AsyncTopKAtom> frameSequence;
+    private final Function hiFunction;
+    private final Function loFunction;
+    private final ListColumnFilter sortColumnFilter;
+    private final int workerCount;
+
+    public AsyncTopKRecordCursorFactory(
+            @NotNull CairoConfiguration configuration,
+            @NotNull MessageBus messageBus,
+            @NotNull RecordCursorFactory base,
+            @NotNull RecordComparator comparator,
+            @NotNull ObjList<RecordComparator> perWorkerComparators,
+            @NotNull ListColumnFilter sortColumnFilter,
+            @NotNull Function loFunction,
+            @Nullable Function hiFunction,
+            @Nullable CompiledFilter compiledFilter,
+            @Nullable MemoryCARW bindVarMemory,
+            @Nullable ObjList<Function> bindVarFunctions,
+            @Nullable Function filter,
+            @NotNull PageFrameReduceTaskFactory reduceTaskFactory,
+            @Nullable ObjList<Function> perWorkerFilters,
+            int workerCount
+    ) {
+        super(base.getMetadata());
+        try {
+            this.base = base;
+            this.sortColumnFilter = sortColumnFilter;
+            this.loFunction = loFunction;
+            this.hiFunction = hiFunction;
+            this.cursor = new AsyncFilteredRecordCursor(filter, base.getScanDirection());
+            AsyncTopKAtom atom = new AsyncTopKAtom(
+                    configuration,
+                    comparator,
+                    perWorkerComparators,
+                    compiledFilter,
+                    bindVarMemory,
+                    bindVarFunctions,
+                    filter,
+                    perWorkerFilters,
+                    base.getScanDirection(),
+                    workerCount
+            );
+            this.frameSequence = new PageFrameSequence<>(configuration, messageBus, atom, REDUCER, reduceTaskFactory, PageFrameReduceTask.TYPE_FILTER);
+            this.workerCount = workerCount;
+        } catch (Throwable e) {
+            close();
+            throw e;
+        }
+    }
+
+    @Override
+    public PageFrameSequence<AsyncTopKAtom> execute(SqlExecutionContext executionContext, SCSequence collectSubSeq, int order) throws SqlException {
+        return frameSequence.of(base, executionContext, collectSubSeq, order);
+    }
+
+    @Override
+    public RecordCursorFactory getBaseFactory() {
+        return base;
+    }
+
+    @Override
+    public RecordCursor getCursor(SqlExecutionContext executionContext) throws SqlException {
+        initLimit(executionContext);
+        final int order = base.getScanDirection() == SCAN_DIRECTION_BACKWARD ? ORDER_DESC : ORDER_ASC;
+        cursor.of(execute(executionContext, collectSubSeq, order), Long.MAX_VALUE);
+        return cursor;
+    }
+
+    @Override
+    public int getScanDirection() {
+        return base.getScanDirection();
+    }
+
+    @Override
+    public boolean recordCursorSupportsRandomAccess() {
+        return true;
+    }
+
+    @Override
+    public void toPlan(PlanSink sink) {
+        if (usesCompiledFilter()) {
+            sink.type("Async JIT Top K");
+        } else {
+            sink.type("Async Top K");
+        }
+        sink.meta("workers").val(workerCount);
+        SortedLightRecordCursorFactory.addSortKeys(sink, sortColumnFilter);
+        sink.optAttr("filter", frameSequence.getAtom(), true);
+        sink.child(base);
+    }
+
+    @Override
+    public boolean usesCompiledFilter() {
+        return frameSequence.getAtom().getCompiledFilter() != null;
+    }
+
+    @Override
+    public boolean usesIndex() {
+        return base.usesIndex();
+    }
+
+    // Checks if the row at index a goes after the row at index b in the order of eviction
+    // from the top K, i.e. a has a worse sort key or the same key and a later scan position.
+    private static boolean isWorse(
+            long a,
+            long b,
+            boolean isFirstN,
+            boolean hasDescendingOrder,
+            RecordComparator comparator,
+            PageAddressCacheRecord record,
+            PageAddressCacheRecord recordB
+    ) {
+        recordB.setRowIndex(a);
+        comparator.setLeft(recordB);
+        record.setRowIndex(b);
+        final int cmp = comparator.compare(record);
+        if (cmp == 0) {
+            return hasDescendingOrder ? a < b : a > b;
+        }
+        return isFirstN ? cmp > 0 : cmp < 0;
+    }
+
+    private static void selectTopK(
+            DirectLongList rows,
+            long limit,
+            boolean isFirstN,
+            boolean hasDescendingOrder,
+            RecordComparator comparator,
+            PageAddressCacheRecord record,
+            PageAddressCacheRecord recordB
+    ) {
+        // The first limit rows form a binary heap with the worst row at the root.
+        for (long i = limit / 2 - 1; i >= 0; i--) {
+            siftDown(rows, i, limit, isFirstN, hasDescendingOrder, comparator, record, recordB);
+        }
+        for (long p = limit, n = rows.size(); p < n; p++) {
+            final long r = rows.get(p);
+            if (isWorse(rows.get(0), r, isFirstN, hasDescendingOrder, comparator, record, recordB)) {
+                rows.set(0, r);
+                siftDown(rows, 0, limit, isFirstN, hasDescendingOrder, comparator, record, recordB);
+            }
+        }
+        rows.setPos(limit);
+        // restore the scan order of the candidates
+        rows.sortAsUnsigned();
+    }
+
+    private static void siftDown(
+            DirectLongList rows,
+            long i,
+            long size,
+            boolean isFirstN,
+            boolean hasDescendingOrder,
+            RecordComparator comparator,
+            PageAddressCacheRecord record,
+            PageAddressCacheRecord recordB
+    ) {
+        long l;
+        while ((l = 2 * i + 1) < size) {
+            long c = l;
+            if (l + 1 < size && isWorse(rows.get(l + 1), rows.get(l), isFirstN, hasDescendingOrder, comparator, record, recordB)) {
+                c = l + 1;
+            }
+            final long rc = rows.get(c);
+            final long ri = rows.get(i);
+            if (!isWorse(rc, ri, isFirstN, hasDescendingOrder, comparator, record, recordB)) {
+                break;
+            }
+            rows.set(i, rc);
+            rows.set(c, ri);
+            i = c;
+        }
+    }
+
+    private static void topK(
+            int workerId,
+            @NotNull PageAddressCacheRecord record,
+            @NotNull PageFrameReduceTask task,
+            @NotNull SqlExecutionCircuitBreaker circuitBreaker,
+            @Nullable PageFrameSequence<?> stealingFrameSequence
+    ) {
+        final DirectLongList rows = task.getFilteredRows();
+        final PageAddressCache pageAddressCache = task.getPageAddressCache();
+        final long frameRowCount = task.getFrameRowCount();
+        final PageFrameSequence<AsyncTopKAtom> frameSequence = task.getFrameSequence(AsyncTopKAtom.class);
+        final AsyncTopKAtom atom = frameSequence.getAtom();
+
+        rows.clear();
+
+        final long limit = atom.getLimit();
+        if (limit == 0) {
+            return;
+        }
+
+        final boolean owner = stealingFrameSequence != null && stealingFrameSequence == task.getFrameSequence();
+        final int slotId = atom.acquire(workerId, owner, circuitBreaker);
+        final CompiledFilter compiledFilter = atom.getCompiledFilter();
+        final Function filter = atom.getFilter(slotId);
+        try {
+            if (filter == null) {
+                for (long r = 0; r < frameRowCount; r++) {
+                    rows.add(r);
+                }
+            } else if (compiledFilter == null || pageAddressCache.hasColumnTops(task.getFrameIndex())) {
+                // Use Java-based filter when there is no compiled filter or in case of a page frame with column tops.
+                applyFilter(filter, rows, record, frameRowCount);
+            } else {
+                applyCompiledFilter(compiledFilter, atom.getBindVarMemory(), atom.getBindVarFunctions(), task);
+            }
+
+            if (limit > 0 && rows.size() > limit) {
+                final PageAddressCacheRecord recordB = atom.getRecord(slotId);
+                recordB.of(frameSequence.getSymbolTableSource(), pageAddressCache);
+                recordB.setFrameIndex(task.getFrameIndex());
+                selectTopK(
+                        rows,
+                        limit,
+                        atom.isFirstN(),
+                        atom.hasDescendingOrder(),
+                        atom.getComparator(slotId),
+                        record,
+                        recordB
+                );
+            }
+        } finally {
+            atom.release(slotId);
+        }
+    }
+
+    /**
+     * Evaluates lo/hi the same way as LimitedSizeSortedLightRecordCursorFactory does,
+     * but only to find out how many rows each page frame has to keep. The exact range,
+     * including skipped rows, is applied by the parent factory.
+     */
+    private void initLimit(SqlExecutionContext executionContext) throws SqlException {
+        loFunction.init(null, executionContext);
+        if (hiFunction != null) {
+            hiFunction.init(null, executionContext);
+        }
+
+        long limit;
+        boolean isFirstN = false;
+        final long lo = loFunction.getLong(null);
+        if (hiFunction == null) {
+            isFirstN = lo > -1;
+            limit = isFirstN ? lo : -lo;
+        } else {
+            final long hi = hiFunction.getLong(null);
+            if (lo < 0) {
+                limit = lo < hi ? -lo : 0;
+            } else if (hi < 0) {
+                // the whole result set is needed
+                limit = -1;
+            } else if (hi <= lo) {
+                limit = 0;
+            } else {
+                isFirstN = true;
+                limit = hi;
+            }
+        }
+        frameSequence.getAtom().of(limit, isFirstN);
+    }
+
+    @Override
+    protected void _close() {
+        Misc.free(base);
+        Misc.free(frameSequence);
+        cursor.freeRecords();
+    }
+}
@@ -0,0 +1,315 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.table;
+
+import io.questdb.cairo.*;
+import io.questdb.cairo.sql.*;
+import io.questdb.griffin.PlanSink;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.std.*;
+import io.questdb.std.str.CharSink;
+import io.questdb.std.str.Utf8Sequence;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Skips data frames of the partitions whose Bloom filter rules out every value of an equality
+ * or IN list predicate on the column. The predicate itself is still evaluated by the filter
+ * on top of the frames. Frames of partitions without an up-to-date Bloom filter are never skipped.
+ */
+public class BloomFilterDataFrameCursorFactory implements DataFrameCursorFactory {
+    private final DataFrameCursorFactory base;
+    private final int columnIndex;
+    private final CharSequence columnName;
+    private final int columnType;
+    private final BloomFilterDataFrameCursor cursor;
+    private final ObjList<Function> valueFuncs;
+
+    public BloomFilterDataFrameCursorFactory(
+            CairoConfiguration configuration,
+            DataFrameCursorFactory base,
+            int columnIndex,
+            CharSequence columnName,
+            int columnType,
+            ObjList<Function> valueFuncs
+    ) {
+        this.base = base;
+        this.columnIndex = columnIndex;
+        this.columnName = columnName;
+        this.columnType = columnType;
+        this.valueFuncs = valueFuncs;
+        this.cursor = new BloomFilterDataFrameCursor(configuration.getFilesFacade());
+    }
+
+    public static boolean isValueTypeSupported(int columnType, int valueType) {
+        switch (ColumnType.tagOf(columnType)) {
+            case ColumnType.LONG:
+                switch (ColumnType.tagOf(valueType)) {
+                    case ColumnType.BYTE:
+                    case ColumnType.SHORT:
+                    case ColumnType.INT:
+                    case ColumnType.LONG:
+                        return true;
+                    default:
+                        return false;
+                }
+            case ColumnType.IPv4:
+            case ColumnType.UUID:
+                return ColumnType.tagOf(valueType) == ColumnType.tagOf(columnType)
+                        || ColumnType.isString(valueType)
+                        || ColumnType.isVarchar(valueType);
+            case ColumnType.VARCHAR:
+                return ColumnType.isString(valueType)
+                        || ColumnType.isVarchar(valueType)
+                        || ColumnType.tagOf(valueType) == ColumnType.CHAR;
+            default:
+                return false;
+        }
+    }
+
+    @Override
+    public void close() {
+        Misc.free(cursor);
+        Misc.free(base);
+        Misc.freeObjList(valueFuncs);
+    }
+
+    @Override
+    public DataFrameCursor getCursor(SqlExecutionContext executionContext, int order) throws SqlException {
+        final DataFrameCursor baseCursor = base.getCursor(executionContext, order);
+        try {
+            Function.init(valueFuncs, baseCursor, executionContext);
+            return cursor.of(baseCursor);
+        } catch (Throwable th) {
+            Misc.free(baseCursor);
+            throw th;
+        }
+    }
+
+    @Override
+    public RecordMetadata getMetadata() {
+        return base.getMetadata();
+    }
+
+    @Override
+    public int getOrder() {
+        return base.getOrder();
+    }
+
+    /**
+     * @return number of data frames skipped by the last cursor since it was opened or rewound
+     */
+    public int getSkippedFrameCount() {
+        return cursor.skippedFrameCount;
+    }
+
+    @Override
+    public TableToken getTableToken() {
+        return base.getTableToken();
+    }
+
+    @Override
+    public boolean hasInterval() {
+        return base.hasInterval();
+    }
+
+    @Override
+    public boolean supportTableRowId(TableToken tableToken) {
+        return base.supportTableRowId(tableToken);
+    }
+
+    @Override
+    public void toPlan(PlanSink sink) {
+        base.toPlan(sink);
+        sink.attr("bloom filter").val(columnName).val(" in ").val(valueFuncs);
+    }
+
+    @Override
+    public void toSink(@NotNull CharSink<?> sink) {
+        base.toSink(sink);
+    }
+
+    private class BloomFilterDataFrameCursor implements DataFrameCursor {
+        private final BloomFilterReader bloomFilterReader;
+        private final LongList hashes = new LongList();
+        private DataFrameCursor baseCursor;
+        // false when one of the values is null, nulls are not in Bloom filters
+        private boolean canSkip;
+        private int skippedFrameCount;
+
+        private BloomFilterDataFrameCursor(FilesFacade ff) {
+            this.bloomFilterReader = new BloomFilterReader(ff);
+        }
+
+        @Override
+        public void calculateSize(RecordCursor.Counter counter) {
+            DataFrame frame;
+            while ((frame = next()) != null) {
+                counter.add(frame.getRowHi() - frame.getRowLo());
+            }
+        }
+
+        @Override
+        public void close() {
+            baseCursor = Misc.free(baseCursor);
+            bloomFilterReader.clear();
+        }
+
+        @Override
+        public StaticSymbolTable getSymbolTable(int columnIndex) {
+            return baseCursor.getSymbolTable(columnIndex);
+        }
+
+        @Override
+        public TableReader getTableReader() {
+            return baseCursor.getTableReader();
+        }
+
+        @Override
+        public StaticSymbolTable newSymbolTable(int columnIndex) {
+            return baseCursor.newSymbolTable(columnIndex);
+        }
+
+        @Override
+        public @Nullable DataFrame next() {
+            DataFrame frame;
+            while ((frame = baseCursor.next()) != null) {
+                if (!canSkip(frame)) {
+                    return frame;
+                }
+                skippedFrameCount++;
+            }
+            return null;
+        }
+
+        @Override
+        public boolean reload() {
+            bloomFilterReader.clear();
+            return baseCursor.reload();
+        }
+
+        @Override
+        public long size() {
+            return -1;
+        }
+
+        @Override
+        public void toTop() {
+            baseCursor.toTop();
+            skippedFrameCount = 0;
+        }
+
+        private boolean addHash(Function func) {
+            switch (ColumnType.tagOf(columnType)) {
+                case ColumnType.LONG: {
+                    final long value = func.getLong(null);
+                    if (value == Numbers.LONG_NULL) {
+                        return false;
+                    }
+                    hashes.add(BloomFilterUtils.hashLong(value));
+                    return true;
+                }
+                case ColumnType.IPv4: {
+                    final int value = func.getIPv4(null);
+                    if (value == Numbers.IPv4_NULL) {
+                        return false;
+                    }
+                    hashes.add(BloomFilterUtils.hashIPv4(value));
+                    return true;
+                }
+                case ColumnType.UUID: {
+                    long lo;
+                    long hi;
+                    if (ColumnType.tagOf(func.getType()) == ColumnType.UUID) {
+                        lo = func.getLong128Lo(null);
+                        hi = func.getLong128Hi(null);
+                    } else {
+                        final CharSequence value = func.getStrA(null);
+                        if (value == null) {
+                            return false;
+                        }
+                        try {
+                            Uuid.checkDashesAndLength(value);
+                            lo = Uuid.parseLo(value);
+                            hi = Uuid.parseHi(value);
+                        } catch (NumericException e) {
+                            return false;
+                        }
+                    }
+                    if (Uuid.isNull(lo, hi)) {
+                        return false;
+                    }
+                    hashes.add(BloomFilterUtils.hashUuid(lo, hi));
+                    return true;
+                }
+                default: {
+                    // VARCHAR
+                    final Utf8Sequence value = func.getVarcharA(null);
+                    if (value == null) {
+                        return false;
+                    }
+                    hashes.add(BloomFilterUtils.hashVarchar(value));
+                    return true;
+                }
+            }
+        }
+
+        private boolean canSkip(DataFrame frame) {
+            if (!canSkip) {
+                return false;
+            }
+            final TableReader reader = baseCursor.getTableReader();
+            final int partitionIndex = frame.getPartitionIndex();
+            final long top = reader.getColumnTop(reader.getColumnBase(partitionIndex), columnIndex);
+            if (frame.getRowHi() <= top) {
+                // rows above the column top are nulls
+                return true;
+            }
+            if (!reader.loadBloomFilter(partitionIndex, columnIndex, bloomFilterReader)
+                    || bloomFilterReader.getCoveredRowCount() < frame.getRowHi() - top) {
+                return false;
+            }
+            for (int i = 0, n = hashes.size(); i < n; i++) {
+                if (bloomFilterReader.mightContain(hashes.getQuick(i))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private DataFrameCursor of(DataFrameCursor baseCursor) {
+            this.baseCursor = baseCursor;
+            bloomFilterReader.clear();
+            hashes.clear();
+            canSkip = true;
+            skippedFrameCount = 0;
+            for (int i = 0, n = valueFuncs.size(); i < n && canSkip; i++) {
+                canSkip = addHash(valueFuncs.getQuick(i));
+            }
+            return this;
+        }
+    }
+}
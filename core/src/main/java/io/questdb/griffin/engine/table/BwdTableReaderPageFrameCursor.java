@@ -28,13 +28,12 @@ import io.questdb.cairo.BitmapIndexReader;
 import io.questdb.cairo.ColumnType;
 import io.questdb.cairo.ColumnTypeDriver;
 import io.questdb.cairo.TableReader;
+import io.questdb.cairo.ZoneMapReader;
 import io.questdb.cairo.sql.*;
+import io.questdb.cairo.vm.MemoryCMRCompressedImpl;
 import io.questdb.cairo.vm.NullMemoryMR;
 import io.questdb.cairo.vm.api.MemoryR;
-import io.questdb.std.IntList;
-import io.questdb.std.LongList;
-import io.questdb.std.Misc;
-import io.questdb.std.Rows;
+import io.questdb.std.*;
 import org.jetbrains.annotations.Nullable;
 
 public class BwdTableReaderPageFrameCursor implements PageFrameCursor {
@@ -43,12 +42,18 @@ public class BwdTableReaderPageFrameCursor implements PageFrameCursor {
     private final LongList columnPageAddress = new LongList();
     private final LongList columnPageNextAddress = new LongList();
     private final IntList columnSizes;
+    // pages of compressed frames, data and aux buffer per column, reused by the next frame
+    private final LongList compressedBufferSizes = new LongList();
+    private final LongList compressedBuffers = new LongList();
+    private final ObjList<MemoryCMRCompressedImpl> compressedColumns = new ObjList<>();
+    private final LongList compressedRowLos = new LongList();
     private final TableReaderPageFrame frame = new TableReaderPageFrame();
     private final int pageFrameMaxRows;
     private final int pageFrameMinRows;
     private final LongList pageRowsRemaining = new LongList();
     private final LongList pageSizes = new LongList();
     private final IntList pages = new IntList();
+    private final IntList pendingDecodes = new IntList();
     private final LongList topsRemaining = new LongList();
     private final int workerCount;
     private long currentPageFrameRowLimit;
@@ -77,6 +82,12 @@ public class BwdTableReaderPageFrameCursor implements PageFrameCursor {
     @Override
     public void close() {
         dataFrameCursor = Misc.free(dataFrameCursor);
+        for (int i = 0, n = compressedBuffers.size(); i < n; i++) {
+            Unsafe.free(compressedBuffers.getQuick(i), compressedBufferSizes.getQuick(i), MemoryTag.NATIVE_TABLE_READER);
+        }
+        compressedBuffers.clear();
+        compressedBufferSizes.clear();
+        compressedColumns.clear();
     }
 
     @Override
@@ -134,6 +145,13 @@ public class BwdTableReaderPageFrameCursor implements PageFrameCursor {
         columnPageNextAddress.setAll(columnCount * 2, 0);
         pageRowsRemaining.setAll(columnCount, -1L);
         pageSizes.setAll(columnCount * 2, -1L);
+        compressedColumns.setAll(columnCount * 2, null);
+        compressedRowLos.setAll(columnCount, 0);
+        pendingDecodes.setAll(columnCount, 0);
+        if (compressedBuffers.size() == 0) {
+            compressedBuffers.setAll(columnCount * 2, 0);
+            compressedBufferSizes.setAll(columnCount * 2, 0);
+        }
         reenterDataFrame = false;
     }
 
@@ -151,9 +169,13 @@ public class BwdTableReaderPageFrameCursor implements PageFrameCursor {
             }
         }
 
+        frame.compressed = false;
         for (int i = 0; i < columnCount; i++) {
             final int columnIndex = columnIndexes.getQuick(i);
             final int readerColIndex = TableReader.getPrimaryColumnIndex(base, columnIndex);
+            pendingDecodes.setQuick(i, 0);
+            compressedColumns.setQuick(i * 2, null);
+            compressedColumns.setQuick(i * 2 + 1, null);
             final MemoryR colMem = reader.getColumn(readerColIndex);
             // when the entire column is NULL we make it skip the whole of the data frame
             final long top = colMem instanceof NullMemoryMR ? partitionHi : reader.getColumnTop(base, columnIndex);
@@ -163,27 +185,46 @@ public class BwdTableReaderPageFrameCursor implements PageFrameCursor {
 
             if (partitionHiAdjusted > 0) {
                 if (sh > -1) {
-                    // this assumes reader uses single page to map the whole column
-                    // non-negative sh means fixed length column
-                    long address = colMem.getPageAddress(0);
                     long addressSize = partitionHiAdjusted << sh;
                     long offset = partitionLoAdjusted << sh;
-                    columnPageAddress.setQuick(i * 2, address + offset);
+                    if (colMem instanceof MemoryCMRCompressedImpl) {
+                        // the page is decoded on first access
+                        setCompressed(i, (MemoryCMRCompressedImpl) colMem, null, partitionLoAdjusted);
+                        columnPageAddress.setQuick(i * 2, 0);
+                    } else {
+                        // this assumes reader uses single page to map the whole column
+                        // non-negative sh means fixed length column
+                        long address = colMem.getPageAddress(0);
+                        columnPageAddress.setQuick(i * 2, address + offset);
+                    }
                     pageSizes.setQuick(i * 2, addressSize - offset);
                 } else {
                     final int columnType = reader.getMetadata().getColumnType(columnIndex);
                     final ColumnTypeDriver columnTypeDriver = ColumnType.getDriver(columnType);
                     final MemoryR auxCol = reader.getColumn(readerColIndex + 1);
-                    long auxAddress = auxCol.getPageAddress(0);
                     long auxOffsetLo = columnTypeDriver.getAuxVectorOffset(partitionLoAdjusted);
                     long auxOffsetHi = columnTypeDriver.getAuxVectorOffset(partitionHiAdjusted);
 
-                    long dataSize = columnTypeDriver.getDataVectorSizeAt(auxAddress, partitionHiAdjusted - 1);
-                    // some varsize columns may not have data memory (fully inlined)
-                    long dataAddress = dataSize > 0 ? colMem.getPageAddress(0) : 0;
-
-                    columnPageAddress.setQuick(i * 2, dataAddress);
-                    columnPageAddress.setQuick(i * 2 + 1, auxAddress + auxOffsetLo);
+                    // compressed aux memory is not contiguous, the last aux entry is addressed via its own offset
+                    long lastAuxOffset = columnTypeDriver.getAuxVectorSize(partitionHiAdjusted) - 1;
+                    long dataSize = columnTypeDriver.getDataVectorSizeAt(auxCol.addressOf(lastAuxOffset) - lastAuxOffset, partitionHiAdjusted - 1);
+                    if (auxCol instanceof MemoryCMRCompressedImpl) {
+                        // the pages are decoded on first access
+                        setCompressed(
+                                i,
+                                dataSize > 0 ? (MemoryCMRCompressedImpl) colMem : null,
+                                (MemoryCMRCompressedImpl) auxCol,
+                                partitionLoAdjusted
+                        );
+                        columnPageAddress.setQuick(i * 2, 0);
+                        columnPageAddress.setQuick(i * 2 + 1, 0);
+                    } else {
+                        long auxAddress = auxCol.getPageAddress(0);
+                        // some varsize columns may not have data memory (fully inlined)
+                        long dataAddress = dataSize > 0 ? colMem.getPageAddress(0) : 0;
+                        columnPageAddress.setQuick(i * 2, dataAddress);
+                        columnPageAddress.setQuick(i * 2 + 1, auxAddress + auxOffsetLo);
+                    }
                     pageSizes.setQuick(i * 2, dataSize);
                     pageSizes.setQuick(i * 2 + 1, auxOffsetHi - auxOffsetLo);
                 }
@@ -211,11 +252,104 @@ public class BwdTableReaderPageFrameCursor implements PageFrameCursor {
         return frame;
     }
 
+    private void decodePage(int i) {
+        if (pendingDecodes.getQuick(i) == 0) {
+            return;
+        }
+        pendingDecodes.setQuick(i, 0);
+        final MemoryCMRCompressedImpl dataMem = compressedColumns.getQuick(i * 2);
+        final long rowLo = compressedRowLos.getQuick(i);
+        final int sh = columnSizes.getQuick(i);
+        if (sh > -1) {
+            final long lo = rowLo << sh;
+            final long size = pageSizes.getQuick(i * 2);
+            final long address = ensureCompressedBuffer(i * 2, size);
+            dataMem.decompress(lo, lo + size, address);
+            columnPageAddress.setQuick(i * 2, address);
+        } else {
+            final ColumnTypeDriver columnTypeDriver = ColumnType.getDriver(reader.getMetadata().getColumnType(columnIndexes.getQuick(i)));
+            final long rowHi = rowLo + frame.partitionHi - frame.partitionLo;
+            final long auxLo = columnTypeDriver.getAuxVectorOffset(rowLo);
+            // N+1 aux vectors keep the end of the last value in the next entry
+            final long auxHi = columnTypeDriver.getAuxVectorSize(rowHi);
+            final long auxAddress = ensureCompressedBuffer(i * 2 + 1, auxHi - auxLo);
+            compressedColumns.getQuick(i * 2 + 1).decompress(auxLo, auxHi, auxAddress);
+            columnPageAddress.setQuick(i * 2 + 1, auxAddress);
+            if (dataMem != null) {
+                // only values of the frame are decoded, aux entries keep offsets in the column file
+                final long dataLo = columnTypeDriver.getDataVectorOffset(auxAddress - auxLo, rowLo);
+                final long dataHi = pageSizes.getQuick(i * 2);
+                final long dataAddress = ensureCompressedBuffer(i * 2, dataHi - dataLo);
+                dataMem.decompress(dataLo, dataHi, dataAddress);
+                columnPageAddress.setQuick(i * 2, dataAddress - dataLo);
+            }
+        }
+    }
+
+    private long ensureCompressedBuffer(int index, long size) {
+        final long capacity = compressedBufferSizes.getQuick(index);
+        long address = compressedBuffers.getQuick(index);
+        if (capacity < size) {
+            address = Unsafe.realloc(address, capacity, size, MemoryTag.NATIVE_TABLE_READER);
+            compressedBuffers.setQuick(index, address);
+            compressedBufferSizes.setQuick(index, size);
+        }
+        return address;
+    }
+
+    private void setCompressed(int i, @Nullable MemoryCMRCompressedImpl dataMem, @Nullable MemoryCMRCompressedImpl auxMem, long rowLo) {
+        compressedColumns.setQuick(i * 2, dataMem);
+        compressedColumns.setQuick(i * 2 + 1, auxMem);
+        compressedRowLos.setQuick(i, rowLo);
+        pendingDecodes.setQuick(i, 1);
+        frame.compressed = true;
+    }
+
     private class TableReaderPageFrame implements PageFrame {
+        private boolean compressed;
         private long partitionHi;
         private int partitionIndex;
         private long partitionLo;
 
+        @Override
+        public void addFileRanges(PageFrameReadAhead readAhead) {
+            final int base = reader.getColumnBase(partitionIndex);
+            for (int i = 0; i < columnCount; i++) {
+                final int columnIndex = columnIndexes.getQuick(i);
+                final long top = reader.getColumnTop(base, columnIndex);
+                // frames are split along column tops, so the frame is either all above or all below the top
+                if (partitionLo < top) {
+                    continue;
+                }
+                final int readerColIndex = TableReader.getPrimaryColumnIndex(base, columnIndex);
+                final MemoryR colMem = reader.getColumn(readerColIndex);
+                final long lo = partitionLo - top;
+                final long hi = partitionHi - top;
+                final int sh = columnSizes.getQuick(i);
+                if (sh > -1) {
+                    readAhead.addFileRange(colMem, lo << sh, (hi - lo) << sh);
+                } else {
+                    readAhead.addVarSizeFileRanges(
+                            ColumnType.getDriver(reader.getMetadata().getColumnType(columnIndex)),
+                            reader.getColumn(readerColIndex + 1),
+                            colMem,
+                            lo,
+                            hi
+                    );
+                }
+            }
+        }
+
+        @Override
+        public boolean aggregateZoneMap(int columnIndex, ZoneMapReader zoneMapReader) {
+            final int readerColumnIndex = columnIndexes.getQuick(columnIndex);
+            final long top = reader.getColumnTop(reader.getColumnBase(partitionIndex), readerColumnIndex);
+            // frames are split along column tops, so the frame is either all above or all below the top
+            return partitionLo >= top
+                    && reader.loadZoneMap(partitionIndex, readerColumnIndex, zoneMapReader)
+                    && zoneMapReader.aggregate(partitionLo - top, partitionHi - top);
+        }
+
         @Override
         public BitmapIndexReader getBitmapIndexReader(int columnIndex, int direction) {
             return reader.getBitmapIndexReader(partitionIndex, columnIndexes.getQuick(columnIndex), direction);
@@ -226,13 +360,30 @@ public class BwdTableReaderPageFrameCursor implements PageFrameCursor {
             return columnSizes.getQuick(columnIndex);
         }
 
+        @Override
+        public @Nullable MemoryCMRCompressedImpl getCompressedAuxColumn(int columnIndex) {
+            return compressedColumns.getQuick(columnIndex * 2 + 1);
+        }
+
+        @Override
+        public @Nullable MemoryCMRCompressedImpl getCompressedColumn(int columnIndex) {
+            return compressedColumns.getQuick(columnIndex * 2);
+        }
+
+        @Override
+        public long getCompressedRowLo(int columnIndex) {
+            return compressedRowLos.getQuick(columnIndex);
+        }
+
         @Override
         public long getIndexPageAddress(int columnIndex) {
+            decodePage(columnIndex);
             return columnPageAddress.getQuick(columnIndex * 2 + 1);
         }
 
         @Override
         public long getPageAddress(int columnIndex) {
+            decodePage(columnIndex);
             return columnPageAddress.getQuick(columnIndex * 2);
         }
 
@@ -255,5 +406,10 @@ public class BwdTableReaderPageFrameCursor implements PageFrameCursor {
         public long getPartitionLo() {
             return partitionLo;
         }
+
+        @Override
+        public boolean isCompressed() {
+            return compressed;
+        }
     }
 }
@@ -33,6 +33,7 @@ import io.questdb.cairo.sql.AtomicBooleanCircuitBreaker;
 import io.questdb.cairo.sql.DataFrame;
 import io.questdb.cairo.sql.DataFrameCursor;
 import io.questdb.cairo.sql.SqlExecutionCircuitBreaker;
+import io.questdb.cairo.vm.MemoryCMRCompressedImpl;
 import io.questdb.cairo.vm.api.MemoryR;
 import io.questdb.griffin.PlanSink;
 import io.questdb.griffin.SqlExecutionContext;
@@ -56,6 +57,9 @@ class LatestByAllIndexedRecordCursor extends AbstractDataFrameRecordCursor {
     protected SqlExecutionCircuitBreaker circuitBreaker;
     private long argumentsAddress;
     private MessageBus bus;
+    // decoded rows of the hash column when the partition is compressed
+    private long hashesAddress;
+    private long hashesSize;
     private boolean isTreeMapBuilt;
     private int keyCount;
     private int workerCount;
@@ -222,6 +226,9 @@ class LatestByAllIndexedRecordCursor extends AbstractDataFrameRecordCursor {
                     final int primaryColumnIndex = TableReader.getPrimaryColumnIndex(columnBase, hashColumnIndex);
                     final MemoryR column = reader.getColumn(primaryColumnIndex);
                     hashColumnAddress = column.getPageAddress(0);
+                    if (hashColumnAddress == 0 && column instanceof MemoryCMRCompressedImpl) {
+                        hashColumnAddress = decodeHashes((MemoryCMRCompressedImpl) column, hashColumnType, rowLo, rowHi + 1);
+                    }
                 }
 
                 // -1 must be dead case here
@@ -311,6 +318,8 @@ class LatestByAllIndexedRecordCursor extends AbstractDataFrameRecordCursor {
             throw t;
         } finally {
             processTasks(queuedCount);
+            hashesAddress = Unsafe.free(hashesAddress, hashesSize, MemoryTag.NATIVE_TABLE_READER);
+            hashesSize = 0;
             if (sharedCircuitBreaker.checkIfTripped()) {
                 LatestByArguments.releaseMemoryArray(argumentsAddress, taskCount);
                 argumentsAddress = 0;
@@ -328,6 +337,18 @@ class LatestByAllIndexedRecordCursor extends AbstractDataFrameRecordCursor {
         postProcessRows();
     }
 
+    // returns address of row 0, only rows in [rowLo, rowHi) are decoded
+    private long decodeHashes(MemoryCMRCompressedImpl column, int columnType, long rowLo, long rowHi) {
+        final int shift = ColumnType.pow2SizeOf(columnType);
+        final long size = (rowHi - rowLo) << shift;
+        if (size > hashesSize) {
+            hashesAddress = Unsafe.realloc(hashesAddress, hashesSize, size, MemoryTag.NATIVE_TABLE_READER);
+            hashesSize = size;
+        }
+        column.decompress(rowLo << shift, rowHi << shift, hashesAddress);
+        return hashesAddress - (rowLo << shift);
+    }
+
     private void postProcessRows() {
         Vect.sortULongAscInPlace(rows.getAddress(), aLimit);
     }
@@ -27,7 +27,9 @@ package io.questdb.griffin.engine.table;
 import io.questdb.cairo.AbstractRecordCursorFactory;
 import io.questdb.cairo.BitmapIndexReader;
 import io.questdb.cairo.TableToken;
+import io.questdb.cairo.ZoneMapReader;
 import io.questdb.cairo.sql.*;
+import io.questdb.cairo.vm.MemoryCMRCompressedImpl;
 import io.questdb.griffin.PlanSink;
 import io.questdb.griffin.SqlException;
 import io.questdb.griffin.SqlExecutionContext;
@@ -141,6 +143,16 @@ public class SelectedRecordCursorFactory extends AbstractRecordCursorFactory {
             this.columnCrossIndex = columnCrossIndex;
         }
 
+        @Override
+        public void addFileRanges(PageFrameReadAhead readAhead) {
+            baseFrame.addFileRanges(readAhead);
+        }
+
+        @Override
+        public boolean aggregateZoneMap(int columnIndex, ZoneMapReader zoneMapReader) {
+            return baseFrame.aggregateZoneMap(columnCrossIndex.getQuick(columnIndex), zoneMapReader);
+        }
+
         @Override
         public BitmapIndexReader getBitmapIndexReader(int columnIndex, int dirForward) {
             return baseFrame.getBitmapIndexReader(columnCrossIndex.getQuick(columnIndex), dirForward);
@@ -151,6 +163,21 @@ public class SelectedRecordCursorFactory extends AbstractRecordCursorFactory {
             return baseFrame.getColumnShiftBits(columnCrossIndex.getQuick(columnIndex));
         }
 
+        @Override
+        public @Nullable MemoryCMRCompressedImpl getCompressedAuxColumn(int columnIndex) {
+            return baseFrame.getCompressedAuxColumn(columnCrossIndex.getQuick(columnIndex));
+        }
+
+        @Override
+        public @Nullable MemoryCMRCompressedImpl getCompressedColumn(int columnIndex) {
+            return baseFrame.getCompressedColumn(columnCrossIndex.getQuick(columnIndex));
+        }
+
+        @Override
+        public long getCompressedRowLo(int columnIndex) {
+            return baseFrame.getCompressedRowLo(columnCrossIndex.getQuick(columnIndex));
+        }
+
         @Override
         public long getIndexPageAddress(int columnIndex) {
             return baseFrame.getIndexPageAddress(columnCrossIndex.getQuick(columnIndex));
@@ -181,6 +208,11 @@ public class SelectedRecordCursorFactory extends AbstractRecordCursorFactory {
             return baseFrame.getPartitionLo();
         }
 
+        @Override
+        public boolean isCompressed() {
+            return baseFrame.isCompressed();
+        }
+
         public SelectedPageFrame of(PageFrame basePageFrame) {
             this.baseFrame = basePageFrame;
             return this;
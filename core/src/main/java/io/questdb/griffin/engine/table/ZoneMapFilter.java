@@ -0,0 +1,251 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.table;
+
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.ZoneMapReader;
+import io.questdb.cairo.sql.PageFrame;
+import io.questdb.griffin.PlanSink;
+import io.questdb.griffin.Plannable;
+import io.questdb.std.*;
+
+/**
+ * Conjunction of "column op constant" predicates checked against zone maps of page frames.
+ * A frame can be skipped when at least one of the predicates cannot match any of its rows.
+ * Only the predicates where a non-null constant never matches a null value are accepted,
+ * which is how comparison operators treat nulls.
+ */
+public class ZoneMapFilter implements QuietCloseable, Mutable, Plannable {
+    public static final int OP_EQ = 0;
+    public static final int OP_GE = 5;
+    public static final int OP_GT = 4;
+    public static final int OP_LE = 3;
+    public static final int OP_LT = 2;
+    public static final int OP_NE = 1;
+    private static final String[] OP_NAMES = {"=", "!=", "<", "<=", ">", ">="};
+    private static final int VALUE_DOUBLE = 1;
+    private static final int VALUE_LONG = 0;
+    private static final int VALUE_NULL = 2;
+    private final IntList columnIndexes = new IntList();
+    private final FilesFacade ff;
+    private final IntList ops = new IntList();
+    private final ObjList<ZoneMapReader> readers = new ObjList<>();
+    private final IntList valueTypes = new IntList();
+    private final LongList values = new LongList();
+    private int skippedFrameCount;
+
+    public ZoneMapFilter(CairoConfiguration configuration) {
+        this.ff = configuration.getFilesFacade();
+    }
+
+    /**
+     * Reverses the operator for the case when the constant is on the left-hand side.
+     */
+    public static int flipOperator(int op) {
+        switch (op) {
+            case OP_LT:
+                return OP_GT;
+            case OP_LE:
+                return OP_GE;
+            case OP_GT:
+                return OP_LT;
+            case OP_GE:
+                return OP_LE;
+            default:
+                return op;
+        }
+    }
+
+    /**
+     * @return operator code or -1 when the token is not a supported operator
+     */
+    public static int getOperator(CharSequence token) {
+        if (Chars.equals(token, '=')) {
+            return OP_EQ;
+        }
+        if (Chars.equals(token, "!=") || Chars.equals(token, "<>")) {
+            return OP_NE;
+        }
+        if (Chars.equals(token, '<')) {
+            return OP_LT;
+        }
+        if (Chars.equals(token, "<=")) {
+            return OP_LE;
+        }
+        if (Chars.equals(token, '>')) {
+            return OP_GT;
+        }
+        if (Chars.equals(token, ">=")) {
+            return OP_GE;
+        }
+        return -1;
+    }
+
+    public void addDoublePredicate(int columnIndex, int op, double value) {
+        add(columnIndex, op, VALUE_DOUBLE, Double.doubleToRawLongBits(value));
+    }
+
+    public void addLongPredicate(int columnIndex, int op, long value) {
+        add(columnIndex, op, VALUE_LONG, value);
+    }
+
+    /**
+     * Adds "column = null" or "column != null" predicate, other operators are ignored.
+     */
+    public void addNullPredicate(int columnIndex, int op) {
+        if (op == OP_EQ || op == OP_NE) {
+            add(columnIndex, op, VALUE_NULL, 0);
+        }
+    }
+
+    /**
+     * Checks zone maps of the frame.
+     *
+     * @param frame page frame
+     * @return true when no row of the frame can satisfy the predicates
+     */
+    public boolean canSkip(PageFrame frame) {
+        for (int i = 0, n = ops.size(); i < n; i++) {
+            final ZoneMapReader reader = readers.getQuick(i);
+            if (frame.aggregateZoneMap(columnIndexes.getQuick(i), reader) && !canMatch(reader, ops.getQuick(i), valueTypes.getQuick(i), values.getQuick(i))) {
+                skippedFrameCount++;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Drops cached zone maps and resets the skipped frame count, must be called before each query execution.
+     */
+    @Override
+    public void clear() {
+        for (int i = 0, n = readers.size(); i < n; i++) {
+            readers.getQuick(i).clear();
+        }
+        skippedFrameCount = 0;
+    }
+
+    @Override
+    public void close() {
+        Misc.freeObjListAndKeepObjects(readers);
+    }
+
+    /**
+     * @return number of frames skipped since the last {@link #clear()} call
+     */
+    public int getSkippedFrameCount() {
+        return skippedFrameCount;
+    }
+
+    public int size() {
+        return ops.size();
+    }
+
+    @Override
+    public void toPlan(PlanSink sink) {
+        for (int i = 0, n = ops.size(); i < n; i++) {
+            if (i > 0) {
+                sink.val(" and ");
+            }
+            sink.putColumnName(columnIndexes.getQuick(i));
+            sink.val(OP_NAMES[ops.getQuick(i)]);
+            switch (valueTypes.getQuick(i)) {
+                case VALUE_LONG:
+                    sink.val(values.getQuick(i));
+                    break;
+                case VALUE_DOUBLE:
+                    sink.val(Double.longBitsToDouble(values.getQuick(i)));
+                    break;
+                default:
+                    sink.val("null");
+                    break;
+            }
+        }
+    }
+
+    private static boolean canMatch(ZoneMapReader reader, int op, int valueType, long value) {
+        if (valueType == VALUE_NULL) {
+            return op == OP_EQ ? reader.hasNulls() : reader.hasValues();
+        }
+        if (!reader.hasValues()) {
+            // nulls are not equal to non-null constants, but they are not comparable either
+            return op == OP_NE;
+        }
+        if (valueType == VALUE_LONG) {
+            final long min = reader.getMinLong();
+            final long max = reader.getMaxLong();
+            switch (op) {
+                case OP_EQ:
+                    return value >= min && value <= max;
+                case OP_NE:
+                    return reader.hasNulls() || min != value || max != value;
+                case OP_LT:
+                    return min < value;
+                case OP_LE:
+                    return min <= value;
+                case OP_GT:
+                    return max > value;
+                default:
+                    return max >= value;
+            }
+        }
+
+        final double c = Double.longBitsToDouble(value);
+        final double min;
+        final double max;
+        if (ColumnType.tagOf(reader.getColumnType()) == ColumnType.DOUBLE) {
+            min = reader.getMinDouble();
+            max = reader.getMaxDouble();
+        } else {
+            min = reader.getMinLong();
+            max = reader.getMaxLong();
+        }
+        // double comparisons treat values within the tolerance as equal
+        switch (op) {
+            case OP_EQ:
+                return c >= min - Numbers.DOUBLE_TOLERANCE && c <= max + Numbers.DOUBLE_TOLERANCE;
+            case OP_NE:
+                return true;
+            case OP_LT:
+                return min < c;
+            case OP_LE:
+                return min <= c + Numbers.DOUBLE_TOLERANCE;
+            case OP_GT:
+                return max > c;
+            default:
+                return max >= c - Numbers.DOUBLE_TOLERANCE;
+        }
+    }
+
+    private void add(int columnIndex, int op, int valueType, long value) {
+        columnIndexes.add(columnIndex);
+        ops.add(op);
+        valueTypes.add(valueType);
+        values.add(value);
+        readers.add(new ZoneMapReader(ff));
+    }
+}
@@ -0,0 +1,76 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.table.parquet;
+
+/**
+ * Subset of the Parquet format constants (parquet.thrift) and Thrift compact protocol
+ * type ids used by {@link PartitionEncoder} and {@link PartitionDecoder}.
+ */
+final class ParquetConstants {
+    static final int CODEC_UNCOMPRESSED = 0;
+    static final int CONVERTED_INT_16 = 16;
+    static final int CONVERTED_INT_8 = 15;
+    static final int CONVERTED_TIMESTAMP_MICROS = 10;
+    static final int CONVERTED_TIMESTAMP_MILLIS = 9;
+    static final int CONVERTED_UINT_16 = 12;
+    static final int CONVERTED_UTF8 = 0;
+    static final int ENCODING_PLAIN = 0;
+    static final int ENCODING_PLAIN_DICTIONARY = 2;
+    static final int ENCODING_RLE = 3;
+    static final int ENCODING_RLE_DICTIONARY = 8;
+    static final int FORMAT_VERSION = 1;
+    static final int LOGICAL_TYPE_UUID = 14;
+    static final int MAGIC = 0x31524150; // "PAR1" little-endian
+    static final int PAGE_DATA = 0;
+    static final int PAGE_DATA_V2 = 3;
+    static final int PAGE_DICTIONARY = 2;
+    static final int REPETITION_OPTIONAL = 1;
+    static final int REPETITION_REPEATED = 2;
+    static final int REPETITION_REQUIRED = 0;
+    static final int THRIFT_BINARY = 8;
+    static final int THRIFT_BOOLEAN_FALSE = 2;
+    static final int THRIFT_BOOLEAN_TRUE = 1;
+    static final int THRIFT_BYTE = 3;
+    static final int THRIFT_DOUBLE = 7;
+    static final int THRIFT_I16 = 4;
+    static final int THRIFT_I32 = 5;
+    static final int THRIFT_I64 = 6;
+    static final int THRIFT_LIST = 9;
+    static final int THRIFT_MAP = 11;
+    static final int THRIFT_SET = 10;
+    static final int THRIFT_STOP = 0;
+    static final int THRIFT_STRUCT = 12;
+    static final int TYPE_BOOLEAN = 0;
+    static final int TYPE_BYTE_ARRAY = 6;
+    static final int TYPE_DOUBLE = 5;
+    static final int TYPE_FIXED_LEN_BYTE_ARRAY = 7;
+    static final int TYPE_FLOAT = 4;
+    static final int TYPE_INT32 = 1;
+    static final int TYPE_INT64 = 2;
+    static final int TYPE_INT96 = 3;
+
+    private ParquetConstants() {
+    }
+}
@@ -0,0 +1,953 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.table.parquet;
+
+import io.questdb.cairo.CairoException;
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.GeoHashes;
+import io.questdb.cairo.MapWriter;
+import io.questdb.cairo.TableUtils;
+import io.questdb.cairo.VarcharTypeDriver;
+import io.questdb.cairo.vm.api.MemoryA;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.std.Chars;
+import io.questdb.std.FilesFacade;
+import io.questdb.std.IntList;
+import io.questdb.std.LongList;
+import io.questdb.std.MemoryTag;
+import io.questdb.std.Numbers;
+import io.questdb.std.ObjList;
+import io.questdb.std.QuietCloseable;
+import io.questdb.std.Unsafe;
+import io.questdb.std.str.DirectUtf8String;
+import io.questdb.std.str.LPSZ;
+import io.questdb.std.str.StringSink;
+import io.questdb.std.str.Utf8s;
+import org.jetbrains.annotations.Nullable;
+
+import static io.questdb.griffin.engine.table.parquet.ParquetConstants.*;
+
+/**
+ * Reads Parquet files with a flat schema and decodes column chunks into QuestDB column
+ * memory. Files written by {@link PartitionEncoder} are always readable; files from other
+ * writers are accepted as long as column chunks are uncompressed, data pages are v1 or v2
+ * and values use PLAIN or dictionary encoding.
+ */
+public class PartitionDecoder implements QuietCloseable {
+    private static final int CHUNK_ENTRY_SIZE = 4; // chunk offset, chunk size, value count, codec
+    private static final int COLUMN_ENTRY_SIZE = 3; // physical type, type length, repetition
+    private static final Log LOG = LogFactory.getLog(PartitionDecoder.class);
+    private final LongList chunks = new LongList();
+    private final ObjList<String> columnNames = new ObjList<>();
+    private final IntList columns = new IntList();
+    private final RleDecoder defLevelDecoder = new RleDecoder();
+    // address and size of each dictionary entry of the current column chunk
+    private final LongList dictionary = new LongList();
+    private final RleDecoder dictionaryIndexDecoder = new RleDecoder();
+    private final LongList rowGroupSizes = new LongList();
+    private final StringSink stringSink = new StringSink();
+    private final DirectUtf8String utf8View = new DirectUtf8String();
+    private FilesFacade ff;
+    private long fileAddr;
+    private long fileSize;
+    private int fieldId;
+    private long limit;
+    private int pageDefLevelEncoding;
+    private int pageDefLevelsSize;
+    private int pageEncoding;
+    private int pageRepLevelsSize;
+    private int pageSize;
+    private int pageType;
+    private int pageValueCount;
+    private long position;
+    private long rowCount;
+
+    @Override
+    public void close() {
+        if (fileAddr != 0) {
+            ff.munmap(fileAddr, fileSize, MemoryTag.MMAP_DEFAULT);
+            fileAddr = 0;
+            fileSize = 0;
+        }
+        chunks.clear();
+        columnNames.clear();
+        columns.clear();
+        rowGroupSizes.clear();
+        rowCount = 0;
+    }
+
+    /**
+     * Decodes all values of a column into QuestDB column memory, one row group after another.
+     *
+     * @param columnIndex     index of the column in the Parquet schema
+     * @param columnType      QuestDB type of the target column
+     * @param dataMem         data vector of the target column
+     * @param auxMem          aux vector of the target column, only used for var-size types
+     * @param symbolMapWriter symbol map of the target column, only used for symbols
+     */
+    public void decodeColumn(int columnIndex, int columnType, MemoryA dataMem, @Nullable MemoryA auxMem, @Nullable MapWriter symbolMapWriter) {
+        final int physicalType = getColumnPhysicalType(columnIndex);
+        final int typeLength = columns.getQuick(columnIndex * COLUMN_ENTRY_SIZE + 1);
+        if (physicalType != PartitionEncoder.getPhysicalType(columnType)
+                || (physicalType == TYPE_FIXED_LEN_BYTE_ARRAY && typeLength != PartitionEncoder.getFixedLength(columnType))) {
+            throw CairoException.nonCritical().put("parquet column type does not match table column type [column=").put(columnNames.getQuick(columnIndex))
+                    .put(", parquetType=").put(physicalType)
+                    .put(", columnType=").put(ColumnType.nameOf(columnType))
+                    .put(']');
+        }
+        final boolean optional = columns.getQuick(columnIndex * COLUMN_ENTRY_SIZE + 2) == REPETITION_OPTIONAL;
+        final int columnCount = getColumnCount();
+        for (int g = 0, n = rowGroupSizes.size(); g < n; g++) {
+            final int base = (g * columnCount + columnIndex) * CHUNK_ENTRY_SIZE;
+            final long codec = chunks.getQuick(base + 3);
+            if (codec != CODEC_UNCOMPRESSED) {
+                throw CairoException.nonCritical().put("parquet compression codec is not supported [column=").put(columnNames.getQuick(columnIndex))
+                        .put(", codec=").put(codec)
+                        .put(']');
+            }
+            decodeColumnChunk(
+                    fileAddr + chunks.getQuick(base),
+                    fileAddr + chunks.getQuick(base) + chunks.getQuick(base + 1),
+                    chunks.getQuick(base + 2),
+                    columnType,
+                    physicalType,
+                    typeLength,
+                    optional,
+                    dataMem,
+                    auxMem,
+                    symbolMapWriter
+            );
+        }
+    }
+
+    public int getColumnCount() {
+        return columnNames.size();
+    }
+
+    public int getColumnIndex(CharSequence name) {
+        for (int i = 0, n = columnNames.size(); i < n; i++) {
+            if (Chars.equalsIgnoreCase(columnNames.getQuick(i), name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public String getColumnName(int columnIndex) {
+        return columnNames.getQuick(columnIndex);
+    }
+
+    public int getColumnPhysicalType(int columnIndex) {
+        return columns.getQuick(columnIndex * COLUMN_ENTRY_SIZE);
+    }
+
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    public int getRowGroupCount() {
+        return rowGroupSizes.size();
+    }
+
+    public long getRowGroupSize(int rowGroupIndex) {
+        return rowGroupSizes.getQuick(rowGroupIndex);
+    }
+
+    public PartitionDecoder of(FilesFacade ff, LPSZ path) {
+        close();
+        this.ff = ff;
+        final int fd = TableUtils.openRO(ff, path, LOG);
+        try {
+            fileSize = ff.length(fd);
+            if (fileSize < 3 * Integer.BYTES) {
+                throw CairoException.nonCritical().put("file is too small to be parquet [path=").put(path)
+                        .put(", size=").put(fileSize)
+                        .put(']');
+            }
+            fileAddr = TableUtils.mapRO(ff, fd, fileSize, MemoryTag.MMAP_DEFAULT);
+        } finally {
+            ff.close(fd);
+        }
+
+        try {
+            final long footerSize = Unsafe.getUnsafe().getInt(fileAddr + fileSize - 2 * Integer.BYTES) & 0xFFFFFFFFL;
+            if (Unsafe.getUnsafe().getInt(fileAddr) != MAGIC
+                    || Unsafe.getUnsafe().getInt(fileAddr + fileSize - Integer.BYTES) != MAGIC
+                    || footerSize > fileSize - 3 * Integer.BYTES) {
+                throw CairoException.nonCritical().put("not a parquet file [path=").put(path).put(']');
+            }
+            limit = fileAddr + fileSize - 2 * Integer.BYTES;
+            position = limit - footerSize;
+            readFileMetaData();
+        } catch (Throwable th) {
+            close();
+            throw th;
+        }
+        return this;
+    }
+
+    private static CairoException corrupt(CharSequence reason) {
+        return CairoException.nonCritical().put("corrupt parquet file [reason=").put(reason).put(']');
+    }
+
+    private static CairoException unsupported(CharSequence what, long value) {
+        return CairoException.nonCritical().put("parquet ").put(what).put(" is not supported [value=").put(value).put(']');
+    }
+
+    private void appendNull(int columnType, MemoryA dataMem, MemoryA auxMem, MapWriter symbolMapWriter) {
+        switch (ColumnType.tagOf(columnType)) {
+            case ColumnType.BOOLEAN:
+                dataMem.putBool(false);
+                break;
+            case ColumnType.BYTE:
+                dataMem.putByte((byte) 0);
+                break;
+            case ColumnType.SHORT:
+                dataMem.putShort((short) 0);
+                break;
+            case ColumnType.CHAR:
+                dataMem.putChar((char) 0);
+                break;
+            case ColumnType.GEOBYTE:
+                dataMem.putByte(GeoHashes.BYTE_NULL);
+                break;
+            case ColumnType.GEOSHORT:
+                dataMem.putShort(GeoHashes.SHORT_NULL);
+                break;
+            case ColumnType.GEOINT:
+                dataMem.putInt(GeoHashes.INT_NULL);
+                break;
+            case ColumnType.GEOLONG:
+                dataMem.putLong(GeoHashes.NULL);
+                break;
+            case ColumnType.INT:
+                dataMem.putInt(Numbers.INT_NULL);
+                break;
+            case ColumnType.IPv4:
+                dataMem.putInt(Numbers.IPv4_NULL);
+                break;
+            case ColumnType.SYMBOL:
+                assert symbolMapWriter != null;
+                // lets the symbol map record that the column contains nulls
+                dataMem.putInt(symbolMapWriter.put((CharSequence) null));
+                break;
+            case ColumnType.LONG:
+            case ColumnType.DATE:
+            case ColumnType.TIMESTAMP:
+                dataMem.putLong(Numbers.LONG_NULL);
+                break;
+            case ColumnType.FLOAT:
+                dataMem.putFloat(Float.NaN);
+                break;
+            case ColumnType.DOUBLE:
+                dataMem.putDouble(Double.NaN);
+                break;
+            case ColumnType.UUID:
+                dataMem.putLong128(Numbers.LONG_NULL, Numbers.LONG_NULL);
+                break;
+            case ColumnType.LONG256:
+                dataMem.putLong256(Numbers.LONG_NULL, Numbers.LONG_NULL, Numbers.LONG_NULL, Numbers.LONG_NULL);
+                break;
+            default:
+                ColumnType.getDriver(columnType).appendNull(auxMem, dataMem);
+                break;
+        }
+    }
+
+    private void appendValue(int columnType, long addr, int size, MemoryA dataMem, MemoryA auxMem, MapWriter symbolMapWriter) {
+        switch (ColumnType.tagOf(columnType)) {
+            case ColumnType.BYTE:
+            case ColumnType.GEOBYTE:
+                dataMem.putByte((byte) Unsafe.getUnsafe().getInt(addr));
+                break;
+            case ColumnType.SHORT:
+            case ColumnType.GEOSHORT:
+                dataMem.putShort((short) Unsafe.getUnsafe().getInt(addr));
+                break;
+            case ColumnType.CHAR:
+                dataMem.putChar((char) Unsafe.getUnsafe().getInt(addr));
+                break;
+            case ColumnType.INT:
+            case ColumnType.IPv4:
+            case ColumnType.GEOINT:
+                dataMem.putInt(Unsafe.getUnsafe().getInt(addr));
+                break;
+            case ColumnType.LONG:
+            case ColumnType.DATE:
+            case ColumnType.TIMESTAMP:
+            case ColumnType.GEOLONG:
+                dataMem.putLong(Unsafe.getUnsafe().getLong(addr));
+                break;
+            case ColumnType.FLOAT:
+                dataMem.putFloat(Unsafe.getUnsafe().getFloat(addr));
+                break;
+            case ColumnType.DOUBLE:
+                dataMem.putDouble(Unsafe.getUnsafe().getDouble(addr));
+                break;
+            case ColumnType.UUID:
+                // big-endian in Parquet
+                dataMem.putLong128(
+                        Long.reverseBytes(Unsafe.getUnsafe().getLong(addr + Long.BYTES)),
+                        Long.reverseBytes(Unsafe.getUnsafe().getLong(addr))
+                );
+                break;
+            case ColumnType.LONG256:
+                dataMem.putLong256(
+                        Unsafe.getUnsafe().getLong(addr),
+                        Unsafe.getUnsafe().getLong(addr + Long.BYTES),
+                        Unsafe.getUnsafe().getLong(addr + 2 * Long.BYTES),
+                        Unsafe.getUnsafe().getLong(addr + 3 * Long.BYTES)
+                );
+                break;
+            case ColumnType.SYMBOL:
+                assert symbolMapWriter != null;
+                dataMem.putInt(symbolMapWriter.put(toUtf16(addr, size)));
+                break;
+            case ColumnType.STRING:
+                auxMem.putLong(dataMem.putStr(toUtf16(addr, size)));
+                break;
+            case ColumnType.VARCHAR:
+                VarcharTypeDriver.appendValue(auxMem, dataMem, utf8View.of(addr, addr + size, Utf8s.isAscii(addr, addr + size)));
+                break;
+            case ColumnType.BINARY:
+                auxMem.putLong(dataMem.putBin(addr, size));
+                break;
+            default:
+                assert false;
+        }
+    }
+
+    private void decodeColumnChunk(
+            long lo,
+            long hi,
+            long valueCount,
+            int columnType,
+            int physicalType,
+            int typeLength,
+            boolean optional,
+            MemoryA dataMem,
+            MemoryA auxMem,
+            MapWriter symbolMapWriter
+    ) {
+        dictionary.clear();
+        long pageLo = lo;
+        while (valueCount > 0) {
+            position = pageLo;
+            limit = hi;
+            readPageHeader();
+            final long dataLo = position;
+            final long dataHi = dataLo + pageSize;
+            if (dataHi > hi) {
+                throw corrupt("page exceeds column chunk");
+            }
+
+            switch (pageType) {
+                case PAGE_DICTIONARY:
+                    readDictionary(dataLo, dataHi, pageValueCount, physicalType, typeLength);
+                    break;
+                case PAGE_DATA: {
+                    long valuesLo = dataLo;
+                    if (optional) {
+                        if (pageDefLevelEncoding != ENCODING_RLE) {
+                            throw unsupported("definition level encoding", pageDefLevelEncoding);
+                        }
+                        final int defLevelsSize = Unsafe.getUnsafe().getInt(dataLo);
+                        valuesLo = dataLo + Integer.BYTES + defLevelsSize;
+                        if (defLevelsSize < 0 || valuesLo > dataHi) {
+                            throw corrupt("definition levels exceed page");
+                        }
+                        defLevelDecoder.of(dataLo + Integer.BYTES, valuesLo, 1);
+                    }
+                    decodePage(valuesLo, dataHi, columnType, physicalType, typeLength, optional, dataMem, auxMem, symbolMapWriter);
+                    valueCount -= pageValueCount;
+                    break;
+                }
+                case PAGE_DATA_V2: {
+                    if (pageRepLevelsSize != 0) {
+                        throw unsupported("repeated column", pageRepLevelsSize);
+                    }
+                    final long valuesLo = dataLo + pageDefLevelsSize;
+                    if (pageDefLevelsSize < 0 || valuesLo > dataHi) {
+                        throw corrupt("definition levels exceed page");
+                    }
+                    if (optional) {
+                        defLevelDecoder.of(dataLo, valuesLo, 1);
+                    }
+                    decodePage(valuesLo, dataHi, columnType, physicalType, typeLength, optional, dataMem, auxMem, symbolMapWriter);
+                    valueCount -= pageValueCount;
+                    break;
+                }
+                default:
+                    // index pages carry no values
+                    break;
+            }
+            pageLo = dataHi;
+        }
+    }
+
+    private void decodePage(
+            long lo,
+            long hi,
+            int columnType,
+            int physicalType,
+            int typeLength,
+            boolean optional,
+            MemoryA dataMem,
+            MemoryA auxMem,
+            MapWriter symbolMapWriter
+    ) {
+        final boolean dictionaryEncoded = pageEncoding == ENCODING_PLAIN_DICTIONARY || pageEncoding == ENCODING_RLE_DICTIONARY;
+        if (dictionaryEncoded) {
+            if (lo >= hi) {
+                throw corrupt("missing dictionary index bit width");
+            }
+            dictionaryIndexDecoder.of(lo + 1, hi, Unsafe.getUnsafe().getByte(lo));
+        } else if (pageEncoding != ENCODING_PLAIN) {
+            throw unsupported("encoding", pageEncoding);
+        }
+
+        final int dictionarySize = dictionary.size() / 2;
+        long p = lo;
+        for (int i = 0, n = pageValueCount; i < n; i++) {
+            if (optional && defLevelDecoder.next() == 0) {
+                appendNull(columnType, dataMem, auxMem, symbolMapWriter);
+                continue;
+            }
+
+            final long addr;
+            final int size;
+            if (dictionaryEncoded) {
+                final int index = dictionaryIndexDecoder.next();
+                if (index < 0 || index >= dictionarySize) {
+                    throw corrupt("dictionary index out of range");
+                }
+                addr = dictionary.getQuick(2 * index);
+                size = (int) dictionary.getQuick(2 * index + 1);
+            } else {
+                switch (physicalType) {
+                    case TYPE_BOOLEAN:
+                        if (lo + (i >>> 3) >= hi) {
+                            throw corrupt("values exceed page");
+                        }
+                        dataMem.putBool(((Unsafe.getUnsafe().getByte(lo + (i >>> 3)) >>> (i & 7)) & 1) == 1);
+                        continue;
+                    case TYPE_INT32:
+                    case TYPE_FLOAT:
+                        size = Integer.BYTES;
+                        addr = p;
+                        break;
+                    case TYPE_INT64:
+                    case TYPE_DOUBLE:
+                        size = Long.BYTES;
+                        addr = p;
+                        break;
+                    case TYPE_FIXED_LEN_BYTE_ARRAY:
+                        size = typeLength;
+                        addr = p;
+                        break;
+                    default:
+                        if (p + Integer.BYTES > hi) {
+                            throw corrupt("values exceed page");
+                        }
+                        size = Unsafe.getUnsafe().getInt(p);
+                        addr = p + Integer.BYTES;
+                        break;
+                }
+                p = addr + size;
+                if (size < 0 || p > hi) {
+                    throw corrupt("values exceed page");
+                }
+            }
+            appendValue(columnType, addr, size, dataMem, auxMem, symbolMapWriter);
+        }
+    }
+
+    private int readByte() {
+        if (position >= limit) {
+            throw corrupt("unexpected end of metadata");
+        }
+        return Unsafe.getUnsafe().getByte(position++) & 0xFF;
+    }
+
+    private void readColumnChunk() {
+        long chunkOffset = -1;
+        long chunkSize = 0;
+        long valueCount = 0;
+        long codec = 0;
+        long dictionaryOffset = 0;
+        boolean hasMetadata = false;
+        int lastFieldId = 0;
+        int type;
+        while ((type = readFieldHeader(lastFieldId)) != THRIFT_STOP) {
+            lastFieldId = fieldId;
+            if (fieldId == 3 && type == THRIFT_STRUCT) {
+                hasMetadata = true;
+                int lastMetaFieldId = 0;
+                int metaType;
+                while ((metaType = readFieldHeader(lastMetaFieldId)) != THRIFT_STOP) {
+                    lastMetaFieldId = fieldId;
+                    switch (fieldId) {
+                        case 4:
+                            codec = readZigzag();
+                            break;
+                        case 5:
+                            valueCount = readZigzag();
+                            break;
+                        case 7:
+                            chunkSize = readZigzag();
+                            break;
+                        case 9:
+                            chunkOffset = readZigzag();
+                            break;
+                        case 11:
+                            dictionaryOffset = readZigzag();
+                            break;
+                        default:
+                            skip(metaType);
+                            break;
+                    }
+                }
+            } else {
+                skip(type);
+            }
+        }
+        if (!hasMetadata) {
+            throw unsupported("column chunk without metadata", 0);
+        }
+        if (dictionaryOffset > 0 && dictionaryOffset < chunkOffset) {
+            chunkOffset = dictionaryOffset;
+        }
+        if (chunkOffset < Integer.BYTES || chunkSize < 0 || chunkOffset + chunkSize > fileSize) {
+            throw CairoException.nonCritical().put("corrupt parquet file, column chunk is out of file bounds [offset=").put(chunkOffset)
+                    .put(", size=").put(chunkSize)
+                    .put(", fileSize=").put(fileSize)
+                    .put(']');
+        }
+        chunks.add(chunkOffset, chunkSize, valueCount, codec);
+    }
+
+    private void readDictionary(long lo, long hi, int valueCount, int physicalType, int typeLength) {
+        dictionary.clear();
+        long p = lo;
+        for (int i = 0; i < valueCount; i++) {
+            final int size;
+            switch (physicalType) {
+                case TYPE_INT32:
+                case TYPE_FLOAT:
+                    size = Integer.BYTES;
+                    break;
+                case TYPE_INT64:
+                case TYPE_DOUBLE:
+                    size = Long.BYTES;
+                    break;
+                case TYPE_FIXED_LEN_BYTE_ARRAY:
+                    size = typeLength;
+                    break;
+                case TYPE_BYTE_ARRAY:
+                    if (p + Integer.BYTES > hi) {
+                        throw corrupt("dictionary exceeds page");
+                    }
+                    size = Unsafe.getUnsafe().getInt(p);
+                    p += Integer.BYTES;
+                    break;
+                default:
+                    throw unsupported("dictionary for physical type", physicalType);
+            }
+            if (size < 0 || p + size > hi) {
+                throw corrupt("dictionary exceeds page");
+            }
+            dictionary.add(p, size);
+            p += size;
+        }
+    }
+
+    private int readFieldHeader(int lastFieldId) {
+        final int header = readByte();
+        final int type = header & 0x0F;
+        if (type != THRIFT_STOP) {
+            final int delta = header >>> 4;
+            fieldId = delta != 0 ? lastFieldId + delta : (int) readZigzag();
+        }
+        return type;
+    }
+
+    private void readFileMetaData() {
+        int lastFieldId = 0;
+        int type;
+        while ((type = readFieldHeader(lastFieldId)) != THRIFT_STOP) {
+            lastFieldId = fieldId;
+            switch (fieldId) {
+                case 2:
+                    readSchema();
+                    break;
+                case 3:
+                    rowCount = readZigzag();
+                    break;
+                case 4:
+                    readRowGroups();
+                    break;
+                default:
+                    skip(type);
+                    break;
+            }
+        }
+        if (columnNames.size() == 0) {
+            throw corrupt("schema is missing");
+        }
+        if (chunks.size() != rowGroupSizes.size() * columnNames.size() * CHUNK_ENTRY_SIZE) {
+            throw corrupt("row group column count does not match schema");
+        }
+    }
+
+    private int readListSize() {
+        final int header = readByte();
+        final int size = header >>> 4;
+        return size == 15 ? (int) readVarint() : size;
+    }
+
+    private void readPageHeader() {
+        pageType = -1;
+        pageSize = 0;
+        pageValueCount = 0;
+        pageEncoding = ENCODING_PLAIN;
+        pageDefLevelEncoding = ENCODING_RLE;
+        pageDefLevelsSize = 0;
+        pageRepLevelsSize = 0;
+        int lastFieldId = 0;
+        int type;
+        while ((type = readFieldHeader(lastFieldId)) != THRIFT_STOP) {
+            lastFieldId = fieldId;
+            switch (fieldId) {
+                case 1:
+                    pageType = (int) readZigzag();
+                    break;
+                case 3:
+                    pageSize = (int) readZigzag();
+                    break;
+                case 5:
+                case 7:
+                case 8:
+                    readPageSubHeader(fieldId);
+                    break;
+                default:
+                    skip(type);
+                    break;
+            }
+        }
+        if (pageSize < 0) {
+            throw corrupt("negative page size");
+        }
+    }
+
+    private void readPageSubHeader(int kind) {
+        int lastFieldId = 0;
+        int type;
+        while ((type = readFieldHeader(lastFieldId)) != THRIFT_STOP) {
+            lastFieldId = fieldId;
+            if (fieldId == 1) {
+                pageValueCount = (int) readZigzag();
+            } else if (kind == 8) {
+                // DataPageHeaderV2
+                switch (fieldId) {
+                    case 4:
+                        pageEncoding = (int) readZigzag();
+                        break;
+                    case 5:
+                        pageDefLevelsSize = (int) readZigzag();
+                        break;
+                    case 6:
+                        pageRepLevelsSize = (int) readZigzag();
+                        break;
+                    default:
+                        skip(type);
+                        break;
+                }
+            } else if (fieldId == 2) {
+                pageEncoding = (int) readZigzag();
+            } else if (fieldId == 3 && kind == 5) {
+                pageDefLevelEncoding = (int) readZigzag();
+            } else {
+                skip(type);
+            }
+        }
+    }
+
+    private void readRowGroups() {
+        for (int i = 0, n = readListSize(); i < n; i++) {
+            long rowGroupSize = 0;
+            int lastFieldId = 0;
+            int type;
+            while ((type = readFieldHeader(lastFieldId)) != THRIFT_STOP) {
+                lastFieldId = fieldId;
+                if (fieldId == 1 && type == THRIFT_LIST) {
+                    for (int c = 0, m = readListSize(); c < m; c++) {
+                        readColumnChunk();
+                    }
+                } else if (fieldId == 3) {
+                    rowGroupSize = readZigzag();
+                } else {
+                    skip(type);
+                }
+            }
+            rowGroupSizes.add(rowGroupSize);
+        }
+    }
+
+    private void readSchema() {
+        final int elementCount = readListSize();
+        for (int i = 0; i < elementCount; i++) {
+            int physicalType = -1;
+            int typeLength = 0;
+            int repetition = REPETITION_REQUIRED;
+            int childCount = 0;
+            String name = null;
+            int lastFieldId = 0;
+            int type;
+            while ((type = readFieldHeader(lastFieldId)) != THRIFT_STOP) {
+                lastFieldId = fieldId;
+                switch (fieldId) {
+                    case 1:
+                        physicalType = (int) readZigzag();
+                        break;
+                    case 2:
+                        typeLength = (int) readZigzag();
+                        break;
+                    case 3:
+                        repetition = (int) readZigzag();
+                        break;
+                    case 4:
+                        final int size = (int) readVarint();
+                        if (size < 0 || position + size > limit) {
+                            throw corrupt("column name exceeds metadata");
+                        }
+                        name = toUtf16(position, size).toString();
+                        position += size;
+                        break;
+                    case 5:
+                        childCount = (int) readZigzag();
+                        break;
+                    default:
+                        skip(type);
+                        break;
+                }
+            }
+            if (i == 0) {
+                // root of the schema tree
+                if (childCount != elementCount - 1) {
+                    throw unsupported("nested schema", childCount);
+                }
+                continue;
+            }
+            if (childCount > 0 || physicalType == -1) {
+                throw unsupported("nested schema", childCount);
+            }
+            if (repetition == REPETITION_REPEATED) {
+                throw unsupported("repeated column", repetition);
+            }
+            columnNames.add(name);
+            columns.add(physicalType);
+            columns.add(typeLength);
+            columns.add(repetition);
+        }
+    }
+
+    private long readVarint() {
+        long result = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            final int b = readByte();
+            result |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return result;
+            }
+        }
+        throw corrupt("varint is too long");
+    }
+
+    private long readZigzag() {
+        final long value = readVarint();
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private void skip(int type) {
+        switch (type) {
+            case THRIFT_BOOLEAN_TRUE:
+            case THRIFT_BOOLEAN_FALSE:
+                // value is encoded in the field header
+                break;
+            case THRIFT_BYTE:
+                readByte();
+                break;
+            case THRIFT_I16:
+            case THRIFT_I32:
+            case THRIFT_I64:
+                readVarint();
+                break;
+            case THRIFT_DOUBLE:
+                position += Double.BYTES;
+                break;
+            case THRIFT_BINARY: {
+                final long size = readVarint();
+                position += size;
+                break;
+            }
+            case THRIFT_LIST:
+            case THRIFT_SET: {
+                final int header = readByte();
+                final int elementType = header & 0x0F;
+                final int size = (header >>> 4) == 15 ? (int) readVarint() : header >>> 4;
+                for (int i = 0; i < size; i++) {
+                    skipElement(elementType);
+                }
+                break;
+            }
+            case THRIFT_MAP: {
+                final int size = (int) readVarint();
+                if (size > 0) {
+                    final int kv = readByte();
+                    for (int i = 0; i < size; i++) {
+                        skipElement(kv >>> 4);
+                        skipElement(kv & 0x0F);
+                    }
+                }
+                break;
+            }
+            case THRIFT_STRUCT: {
+                int lastFieldId = 0;
+                int fieldType;
+                while ((fieldType = readFieldHeader(lastFieldId)) != THRIFT_STOP) {
+                    lastFieldId = fieldId;
+                    skip(fieldType);
+                }
+                break;
+            }
+            default:
+                throw corrupt("unknown thrift type");
+        }
+        if (position > limit) {
+            throw corrupt("unexpected end of metadata");
+        }
+    }
+
+    private void skipElement(int type) {
+        if (type == THRIFT_BOOLEAN_TRUE || type == THRIFT_BOOLEAN_FALSE) {
+            // collection booleans take a byte each
+            readByte();
+        } else {
+            skip(type);
+        }
+    }
+
+    private CharSequence toUtf16(long lo, int size) {
+        stringSink.clear();
+        if (!Utf8s.utf8ToUtf16(lo, lo + size, stringSink)) {
+            throw corrupt("invalid UTF-8 string");
+        }
+        return stringSink;
+    }
+
+    /**
+     * Decoder for the RLE / bit-packing hybrid encoding used by definition levels
+     * and dictionary indexes.
+     */
+    private static class RleDecoder {
+        private int bitOffset;
+        private int bitWidth;
+        private long bitsLo;
+        private long hi;
+        private boolean packed;
+        private long ptr;
+        private int remaining;
+        private int value;
+
+        int next() {
+            if (remaining == 0) {
+                readRunHeader();
+            }
+            remaining--;
+            if (!packed) {
+                return value;
+            }
+            int result = 0;
+            for (int b = 0; b < bitWidth; b++, bitOffset++) {
+                final int bit = (Unsafe.getUnsafe().getByte(bitsLo + (bitOffset >>> 3)) >>> (bitOffset & 7)) & 1;
+                result |= bit << b;
+            }
+            return result;
+        }
+
+        void of(long lo, long hi, int bitWidth) {
+            if (bitWidth < 0 || bitWidth > 32) {
+                throw corrupt("invalid RLE bit width");
+            }
+            this.ptr = lo;
+            this.hi = hi;
+            this.bitWidth = bitWidth;
+            this.remaining = 0;
+        }
+
+        private void readRunHeader() {
+            long header = 0;
+            for (int shift = 0; ; shift += 7) {
+                if (ptr >= hi || shift > 28) {
+                    throw corrupt("RLE data exceeds page");
+                }
+                final int b = Unsafe.getUnsafe().getByte(ptr++) & 0xFF;
+                header |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    break;
+                }
+            }
+            if ((header & 1) == 0) {
+                // RLE run, the value is stored in ceil(bitWidth / 8) little-endian bytes
+                final int byteWidth = (bitWidth + 7) >>> 3;
+                if (ptr + byteWidth > hi) {
+                    throw corrupt("RLE data exceeds page");
+                }
+                int v = 0;
+                for (int i = 0; i < byteWidth; i++) {
+                    v |= (Unsafe.getUnsafe().getByte(ptr++) & 0xFF) << (i << 3);
+                }
+                packed = false;
+                value = v;
+                remaining = (int) (header >>> 1);
+            } else {
+                // bit-packed run of groups of 8 values
+                final long groups = header >>> 1;
+                packed = true;
+                bitsLo = ptr;
+                bitOffset = 0;
+                remaining = (int) (groups << 3);
+                ptr += groups * bitWidth;
+                if (ptr > hi) {
+                    throw corrupt("RLE data exceeds page");
+                }
+            }
+            if (remaining == 0) {
+                throw corrupt("empty RLE run");
+            }
+        }
+    }
+}
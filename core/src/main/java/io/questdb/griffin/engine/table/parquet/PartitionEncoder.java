@@ -0,0 +1,865 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.table.parquet;
+
+import io.questdb.cairo.BitmapIndexReader;
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.CairoException;
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.GeoHashes;
+import io.questdb.cairo.TableReader;
+import io.questdb.cairo.TableReaderMetadata;
+import io.questdb.cairo.TableUtils;
+import io.questdb.cairo.VarcharTypeDriver;
+import io.questdb.cairo.sql.DataFrame;
+import io.questdb.cairo.sql.DataFrameCursor;
+import io.questdb.cairo.sql.PageFrame;
+import io.questdb.cairo.sql.StaticSymbolTable;
+import io.questdb.cairo.sql.SymbolTable;
+import io.questdb.cairo.vm.Vm;
+import io.questdb.cairo.vm.api.MemoryA;
+import io.questdb.cairo.vm.api.MemoryCARW;
+import io.questdb.griffin.engine.table.FwdTableReaderPageFrameCursor;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.std.FilesFacade;
+import io.questdb.std.IntList;
+import io.questdb.std.IntStack;
+import io.questdb.std.LongList;
+import io.questdb.std.MemoryTag;
+import io.questdb.std.Misc;
+import io.questdb.std.Numbers;
+import io.questdb.std.QuietCloseable;
+import io.questdb.std.Unsafe;
+import io.questdb.std.str.DirectString;
+import io.questdb.std.str.DirectUtf8Sink;
+import io.questdb.std.str.Path;
+import io.questdb.std.str.Utf8Sequence;
+import io.questdb.std.str.Utf8SplitString;
+import org.jetbrains.annotations.Nullable;
+
+import static io.questdb.griffin.engine.table.parquet.ParquetConstants.*;
+
+/**
+ * Converts a table partition into a Parquet file. The partition is read through
+ * {@link FwdTableReaderPageFrameCursor} and every page frame becomes a row group, so row
+ * groups follow the same size limits and column top splits as query execution. Each column
+ * chunk is a single uncompressed PLAIN data page. Column types with a null sentinel are
+ * written as OPTIONAL columns with RLE encoded definition levels, symbols are written as
+ * UTF-8 strings and UUIDs as big-endian 16-byte values.
+ */
+public class PartitionEncoder implements QuietCloseable {
+    private static final Log LOG = LogFactory.getLog(PartitionEncoder.class);
+    private static final String CREATED_BY = "QuestDB";
+    private static final int PAGE_BUFFER_SIZE = Numbers.SIZE_1MB;
+    private final LongList chunks = new LongList();
+    private final IntList columnIndexes = new IntList();
+    private final IntList columnSizes = new IntList();
+    private final CairoConfiguration configuration;
+    private final PartitionDataFrameCursor dataFrameCursor = new PartitionDataFrameCursor();
+    private final MemoryCARW defLevelMem;
+    private final DirectString directString = new DirectString();
+    private final FilesFacade ff;
+    private final IntStack fieldIdStack = new IntStack();
+    private final MemoryCARW headerMem;
+    private final LongList rowGroupSizes = new LongList();
+    private final DirectUtf8Sink utf8Sink = new DirectUtf8Sink(64);
+    private final MemoryCARW valueMem;
+    private final Utf8SplitString varcharView = new Utf8SplitString(false);
+    private int bitBuffer;
+    private int bitCount;
+    private int defRunLength;
+    private int defRunLevel;
+    private int fd = -1;
+    private long fileOffset;
+    private int lastFieldId;
+    private long max;
+    private long min;
+    private long nullCount;
+    private boolean optional;
+    private Path path;
+
+    public PartitionEncoder(CairoConfiguration configuration) {
+        this.configuration = configuration;
+        this.ff = configuration.getFilesFacade();
+        try {
+            this.valueMem = Vm.getCARWInstance(PAGE_BUFFER_SIZE, Integer.MAX_VALUE, MemoryTag.NATIVE_DEFAULT);
+            this.defLevelMem = Vm.getCARWInstance(PAGE_BUFFER_SIZE, Integer.MAX_VALUE, MemoryTag.NATIVE_DEFAULT);
+            this.headerMem = Vm.getCARWInstance(PAGE_BUFFER_SIZE, Integer.MAX_VALUE, MemoryTag.NATIVE_DEFAULT);
+        } catch (Throwable th) {
+            close();
+            throw th;
+        }
+    }
+
+    @Override
+    public void close() {
+        Misc.free(valueMem);
+        Misc.free(defLevelMem);
+        Misc.free(headerMem);
+        Misc.free(utf8Sink);
+    }
+
+    /**
+     * Writes the partition to a Parquet file, replacing the file if it already exists.
+     *
+     * @param reader         table reader positioned at the transaction to export
+     * @param partitionIndex index of the partition in the reader
+     * @param path           path of the Parquet file
+     */
+    public void encode(TableReader reader, int partitionIndex, Path path) {
+        final long partitionSize = reader.openPartition(partitionIndex);
+        if (partitionSize < 1) {
+            throw CairoException.nonCritical().put("cannot encode empty partition [table=").put(reader.getTableToken().getTableName())
+                    .put(", partitionIndex=").put(partitionIndex)
+                    .put(']');
+        }
+
+        final TableReaderMetadata metadata = reader.getMetadata();
+        final int columnCount = metadata.getColumnCount();
+        columnIndexes.clear();
+        columnSizes.clear();
+        for (int i = 0; i < columnCount; i++) {
+            final int columnType = metadata.getColumnType(i);
+            if (getPhysicalType(columnType) == -1) {
+                throw CairoException.nonCritical().put("column type is not supported by parquet encoder [column=").put(metadata.getColumnName(i))
+                        .put(", type=").put(ColumnType.nameOf(columnType))
+                        .put(']');
+            }
+            columnIndexes.add(i);
+            columnSizes.add(ColumnType.pow2SizeOf(columnType));
+        }
+
+        chunks.clear();
+        rowGroupSizes.clear();
+        fileOffset = 0;
+        this.path = path;
+        fd = TableUtils.openRW(ff, path.$(), LOG, configuration.getWriterFileOpenOpts());
+        boolean success = false;
+        try {
+            if (!ff.truncate(fd, 0)) {
+                throw CairoException.critical(ff.errno()).put("could not truncate parquet file [path=").put(path).put(']');
+            }
+            headerMem.jumpTo(0);
+            headerMem.putInt(MAGIC);
+            write(headerMem.addressOf(0), Integer.BYTES);
+
+            final FwdTableReaderPageFrameCursor pageFrameCursor = new FwdTableReaderPageFrameCursor(
+                    columnIndexes,
+                    columnSizes,
+                    1,
+                    configuration.getSqlPageFrameMinRows(),
+                    configuration.getSqlPageFrameMaxRows()
+            );
+            pageFrameCursor.of(dataFrameCursor.of(reader, partitionIndex, partitionSize));
+            final int timestampIndex = metadata.getTimestampIndex();
+            PageFrame frame;
+            while ((frame = pageFrameCursor.next()) != null) {
+                final long rowCount = frame.getPartitionHi() - frame.getPartitionLo();
+                for (int i = 0; i < columnCount; i++) {
+                    encodeColumnChunk(reader, frame, i, metadata.getColumnType(i), i == timestampIndex, rowCount);
+                }
+                rowGroupSizes.add(rowCount);
+            }
+            writeFooter(metadata, partitionSize);
+            success = true;
+        } finally {
+            ff.close(fd);
+            fd = -1;
+            if (!success) {
+                ff.removeQuiet(path.$());
+            }
+            this.path = null;
+        }
+        LOG.info().$("encoded partition to parquet [table=").utf8(reader.getTableToken().getTableName())
+                .$(", partitionIndex=").$(partitionIndex)
+                .$(", rows=").$(partitionSize)
+                .$(", rowGroups=").$(rowGroupSizes.size())
+                .$(", size=").$(fileOffset)
+                .I$();
+    }
+
+    private static void writeVarint(MemoryA mem, long value) {
+        while ((value & ~0x7FL) != 0) {
+            mem.putByte((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        mem.putByte((byte) value);
+    }
+
+    private static long zigzag(int value) {
+        return ((value << 1) ^ (value >> 31)) & 0xFFFFFFFFL;
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    static int getConvertedType(int columnType) {
+        switch (ColumnType.tagOf(columnType)) {
+            case ColumnType.BYTE:
+                return CONVERTED_INT_8;
+            case ColumnType.SHORT:
+                return CONVERTED_INT_16;
+            case ColumnType.CHAR:
+                return CONVERTED_UINT_16;
+            case ColumnType.DATE:
+                return CONVERTED_TIMESTAMP_MILLIS;
+            case ColumnType.TIMESTAMP:
+                return CONVERTED_TIMESTAMP_MICROS;
+            case ColumnType.SYMBOL:
+            case ColumnType.STRING:
+            case ColumnType.VARCHAR:
+                return CONVERTED_UTF8;
+            default:
+                return -1;
+        }
+    }
+
+    static int getFixedLength(int columnType) {
+        switch (ColumnType.tagOf(columnType)) {
+            case ColumnType.UUID:
+                return 16;
+            case ColumnType.LONG256:
+                return 32;
+            default:
+                return 0;
+        }
+    }
+
+    static int getPhysicalType(int columnType) {
+        switch (ColumnType.tagOf(columnType)) {
+            case ColumnType.BOOLEAN:
+                return TYPE_BOOLEAN;
+            case ColumnType.BYTE:
+            case ColumnType.SHORT:
+            case ColumnType.CHAR:
+            case ColumnType.INT:
+            case ColumnType.IPv4:
+            case ColumnType.GEOBYTE:
+            case ColumnType.GEOSHORT:
+            case ColumnType.GEOINT:
+                return TYPE_INT32;
+            case ColumnType.LONG:
+            case ColumnType.DATE:
+            case ColumnType.TIMESTAMP:
+            case ColumnType.GEOLONG:
+                return TYPE_INT64;
+            case ColumnType.FLOAT:
+                return TYPE_FLOAT;
+            case ColumnType.DOUBLE:
+                return TYPE_DOUBLE;
+            case ColumnType.SYMBOL:
+            case ColumnType.STRING:
+            case ColumnType.VARCHAR:
+            case ColumnType.BINARY:
+                return TYPE_BYTE_ARRAY;
+            case ColumnType.UUID:
+            case ColumnType.LONG256:
+                return TYPE_FIXED_LEN_BYTE_ARRAY;
+            default:
+                return -1;
+        }
+    }
+
+    static boolean isRequired(int columnType, boolean designatedTimestamp) {
+        switch (ColumnType.tagOf(columnType)) {
+            case ColumnType.BOOLEAN:
+            case ColumnType.BYTE:
+            case ColumnType.SHORT:
+            case ColumnType.CHAR:
+                // these types have no null sentinel
+                return true;
+            default:
+                return designatedTimestamp;
+        }
+    }
+
+    private void addDefLevel(int level) {
+        if (optional) {
+            if (defRunLength > 0 && level != defRunLevel) {
+                flushDefLevels();
+            }
+            defRunLevel = level;
+            defRunLength++;
+        }
+    }
+
+    private void appendBit(boolean value) {
+        if (value) {
+            bitBuffer |= 1 << bitCount;
+        }
+        if (++bitCount == 8) {
+            valueMem.putByte((byte) bitBuffer);
+            bitBuffer = 0;
+            bitCount = 0;
+        }
+    }
+
+    private void appendBytes(long lo, long len) {
+        addDefLevel(1);
+        valueMem.putInt((int) len);
+        valueMem.putBlockOfBytes(lo, len);
+    }
+
+    private void appendDouble(double value) {
+        if (Double.isNaN(value)) {
+            appendNull();
+        } else {
+            addDefLevel(1);
+            valueMem.putDouble(value);
+        }
+    }
+
+    private void appendFloat(float value) {
+        if (Float.isNaN(value)) {
+            appendNull();
+        } else {
+            addDefLevel(1);
+            valueMem.putFloat(value);
+        }
+    }
+
+    private void appendInt(int value, boolean isNull) {
+        if (isNull) {
+            appendNull();
+        } else {
+            addDefLevel(1);
+            valueMem.putInt(value);
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+        }
+    }
+
+    private void appendLong(long value, boolean isNull) {
+        if (isNull) {
+            appendNull();
+        } else {
+            addDefLevel(1);
+            valueMem.putLong(value);
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+        }
+    }
+
+    private void appendNull() {
+        nullCount++;
+        addDefLevel(0);
+    }
+
+    private void appendUtf16(CharSequence value) {
+        utf8Sink.clear();
+        utf8Sink.put(value);
+        appendBytes(utf8Sink.ptr(), utf8Sink.size());
+    }
+
+    private void appendUtf8(Utf8Sequence value) {
+        addDefLevel(1);
+        final int size = value.size();
+        valueMem.putInt(size);
+        valueMem.putVarchar(value, 0, size);
+    }
+
+    private void beginStruct() {
+        fieldIdStack.push(lastFieldId);
+        lastFieldId = 0;
+    }
+
+    private void encodeColumnChunk(TableReader reader, PageFrame frame, int columnIndex, int columnType, boolean designatedTimestamp, long rowCount) {
+        valueMem.jumpTo(0);
+        defLevelMem.jumpTo(0);
+        optional = !isRequired(columnType, designatedTimestamp);
+        defRunLength = 0;
+        bitBuffer = 0;
+        bitCount = 0;
+        nullCount = 0;
+        min = Long.MAX_VALUE;
+        max = Long.MIN_VALUE;
+
+        final long addr = frame.getPageAddress(columnIndex);
+        final long auxAddr = frame.getIndexPageAddress(columnIndex);
+        switch (ColumnType.tagOf(columnType)) {
+            case ColumnType.BOOLEAN:
+                for (long r = 0; r < rowCount; r++) {
+                    appendBit(addr != 0 && Unsafe.getUnsafe().getByte(addr + r) != 0);
+                }
+                if (bitCount > 0) {
+                    valueMem.putByte((byte) bitBuffer);
+                }
+                break;
+            case ColumnType.BYTE:
+                for (long r = 0; r < rowCount; r++) {
+                    appendInt(addr != 0 ? Unsafe.getUnsafe().getByte(addr + r) : 0, false);
+                }
+                break;
+            case ColumnType.SHORT:
+                for (long r = 0; r < rowCount; r++) {
+                    appendInt(addr != 0 ? Unsafe.getUnsafe().getShort(addr + (r << 1)) : 0, false);
+                }
+                break;
+            case ColumnType.CHAR:
+                for (long r = 0; r < rowCount; r++) {
+                    appendInt(addr != 0 ? Unsafe.getUnsafe().getChar(addr + (r << 1)) : 0, false);
+                }
+                break;
+            case ColumnType.GEOBYTE:
+                for (long r = 0; r < rowCount; r++) {
+                    final byte value = addr != 0 ? Unsafe.getUnsafe().getByte(addr + r) : GeoHashes.BYTE_NULL;
+                    appendInt(value, value == GeoHashes.BYTE_NULL);
+                }
+                break;
+            case ColumnType.GEOSHORT:
+                for (long r = 0; r < rowCount; r++) {
+                    final short value = addr != 0 ? Unsafe.getUnsafe().getShort(addr + (r << 1)) : GeoHashes.SHORT_NULL;
+                    appendInt(value, value == GeoHashes.SHORT_NULL);
+                }
+                break;
+            case ColumnType.GEOINT:
+                for (long r = 0; r < rowCount; r++) {
+                    final int value = addr != 0 ? Unsafe.getUnsafe().getInt(addr + (r << 2)) : GeoHashes.INT_NULL;
+                    appendInt(value, value == GeoHashes.INT_NULL);
+                }
+                break;
+            case ColumnType.INT:
+                for (long r = 0; r < rowCount; r++) {
+                    final int value = addr != 0 ? Unsafe.getUnsafe().getInt(addr + (r << 2)) : Numbers.INT_NULL;
+                    appendInt(value, value == Numbers.INT_NULL);
+                }
+                break;
+            case ColumnType.IPv4:
+                for (long r = 0; r < rowCount; r++) {
+                    final int value = addr != 0 ? Unsafe.getUnsafe().getInt(addr + (r << 2)) : Numbers.IPv4_NULL;
+                    appendInt(value, value == Numbers.IPv4_NULL);
+                }
+                break;
+            case ColumnType.SYMBOL:
+                final StaticSymbolTable symbolTable = reader.getSymbolMapReader(columnIndex);
+                for (long r = 0; r < rowCount; r++) {
+                    final int key = addr != 0 ? Unsafe.getUnsafe().getInt(addr + (r << 2)) : SymbolTable.VALUE_IS_NULL;
+                    if (key == SymbolTable.VALUE_IS_NULL) {
+                        appendNull();
+                    } else {
+                        appendUtf16(symbolTable.valueOf(key));
+                    }
+                }
+                break;
+            case ColumnType.GEOLONG:
+                for (long r = 0; r < rowCount; r++) {
+                    final long value = addr != 0 ? Unsafe.getUnsafe().getLong(addr + (r << 3)) : GeoHashes.NULL;
+                    appendLong(value, value == GeoHashes.NULL);
+                }
+                break;
+            case ColumnType.LONG:
+            case ColumnType.DATE:
+            case ColumnType.TIMESTAMP:
+                for (long r = 0; r < rowCount; r++) {
+                    final long value = addr != 0 ? Unsafe.getUnsafe().getLong(addr + (r << 3)) : Numbers.LONG_NULL;
+                    appendLong(value, value == Numbers.LONG_NULL && !designatedTimestamp);
+                }
+                break;
+            case ColumnType.FLOAT:
+                for (long r = 0; r < rowCount; r++) {
+                    appendFloat(addr != 0 ? Unsafe.getUnsafe().getFloat(addr + (r << 2)) : Float.NaN);
+                }
+                break;
+            case ColumnType.DOUBLE:
+                for (long r = 0; r < rowCount; r++) {
+                    appendDouble(addr != 0 ? Unsafe.getUnsafe().getDouble(addr + (r << 3)) : Double.NaN);
+                }
+                break;
+            case ColumnType.UUID:
+                for (long r = 0; r < rowCount; r++) {
+                    final long lo = addr != 0 ? Unsafe.getUnsafe().getLong(addr + (r << 4)) : Numbers.LONG_NULL;
+                    final long hi = addr != 0 ? Unsafe.getUnsafe().getLong(addr + (r << 4) + Long.BYTES) : Numbers.LONG_NULL;
+                    if (lo == Numbers.LONG_NULL && hi == Numbers.LONG_NULL) {
+                        appendNull();
+                    } else {
+                        // Parquet UUID logical type is stored big-endian
+                        addDefLevel(1);
+                        valueMem.putLong(Long.reverseBytes(hi));
+                        valueMem.putLong(Long.reverseBytes(lo));
+                    }
+                }
+                break;
+            case ColumnType.LONG256:
+                for (long r = 0; r < rowCount; r++) {
+                    final long p = addr + (r << 5);
+                    if (addr == 0 || isLong256Null(p)) {
+                        appendNull();
+                    } else {
+                        addDefLevel(1);
+                        valueMem.putBlockOfBytes(p, 32);
+                    }
+                }
+                break;
+            case ColumnType.STRING:
+                for (long r = 0; r < rowCount; r++) {
+                    final long offset = auxAddr != 0 ? Unsafe.getUnsafe().getLong(auxAddr + (r << 3)) : -1;
+                    final int len = offset > -1 ? Unsafe.getUnsafe().getInt(addr + offset) : TableUtils.NULL_LEN;
+                    if (len == TableUtils.NULL_LEN) {
+                        appendNull();
+                    } else {
+                        appendUtf16(directString.of(addr + offset + Integer.BYTES, len));
+                    }
+                }
+                break;
+            case ColumnType.VARCHAR:
+                for (long r = 0; r < rowCount; r++) {
+                    final Utf8Sequence value = auxAddr != 0 ? VarcharTypeDriver.getSplitValue(auxAddr, addr, r, varcharView) : null;
+                    if (value == null) {
+                        appendNull();
+                    } else {
+                        appendUtf8(value);
+                    }
+                }
+                break;
+            case ColumnType.BINARY:
+                for (long r = 0; r < rowCount; r++) {
+                    final long offset = auxAddr != 0 ? Unsafe.getUnsafe().getLong(auxAddr + (r << 3)) : -1;
+                    final long len = offset > -1 ? Unsafe.getUnsafe().getLong(addr + offset) : TableUtils.NULL_LEN;
+                    if (len == TableUtils.NULL_LEN) {
+                        appendNull();
+                    } else {
+                        appendBytes(addr + offset + Long.BYTES, len);
+                    }
+                }
+                break;
+            default:
+                assert false;
+        }
+        flushDefLevels();
+
+        final long valueSize = valueMem.getAppendOffset();
+        final long defLevelSize = defLevelMem.getAppendOffset();
+        final long pageSize = optional ? Integer.BYTES + defLevelSize + valueSize : valueSize;
+        if (pageSize > Integer.MAX_VALUE) {
+            throw CairoException.nonCritical().put("parquet page is too large [column=").put(reader.getMetadata().getColumnName(columnIndex))
+                    .put(", size=").put(pageSize)
+                    .put(']');
+        }
+
+        headerMem.jumpTo(0);
+        beginStruct();
+        writeI32Field(1, PAGE_DATA);
+        writeI32Field(2, (int) pageSize);
+        writeI32Field(3, (int) pageSize);
+        writeFieldHeader(THRIFT_STRUCT, 5);
+        beginStruct();
+        writeI32Field(1, (int) rowCount);
+        writeI32Field(2, ENCODING_PLAIN);
+        writeI32Field(3, ENCODING_RLE);
+        writeI32Field(4, ENCODING_RLE);
+        endStruct();
+        endStruct();
+        if (optional) {
+            headerMem.putInt((int) defLevelSize);
+            if (defLevelSize > 0) {
+                headerMem.putBlockOfBytes(defLevelMem.addressOf(0), defLevelSize);
+            }
+        }
+
+        final long chunkOffset = fileOffset;
+        write(headerMem.addressOf(0), headerMem.getAppendOffset());
+        if (valueSize > 0) {
+            write(valueMem.addressOf(0), valueSize);
+        }
+        chunks.add(chunkOffset, fileOffset - chunkOffset);
+        chunks.add(nullCount);
+        chunks.add(min, max);
+    }
+
+    private void endStruct() {
+        headerMem.putByte((byte) THRIFT_STOP);
+        lastFieldId = fieldIdStack.pop();
+    }
+
+    private void flushDefLevels() {
+        if (defRunLength > 0) {
+            // RLE run header: run length shifted left by one, followed by the level in a single byte
+            writeVarint(defLevelMem, (long) defRunLength << 1);
+            defLevelMem.putByte((byte) defRunLevel);
+            defRunLength = 0;
+        }
+    }
+
+    private boolean isLong256Null(long p) {
+        return Unsafe.getUnsafe().getLong(p) == Numbers.LONG_NULL
+                && Unsafe.getUnsafe().getLong(p + Long.BYTES) == Numbers.LONG_NULL
+                && Unsafe.getUnsafe().getLong(p + 2 * Long.BYTES) == Numbers.LONG_NULL
+                && Unsafe.getUnsafe().getLong(p + 3 * Long.BYTES) == Numbers.LONG_NULL;
+    }
+
+    private void write(long address, long len) {
+        if (ff.write(fd, address, len, fileOffset) != len) {
+            throw CairoException.critical(ff.errno()).put("could not write parquet file [path=").put(path)
+                    .put(", offset=").put(fileOffset)
+                    .put(", len=").put(len)
+                    .put(']');
+        }
+        fileOffset += len;
+    }
+
+    private void writeBinary(CharSequence value) {
+        utf8Sink.clear();
+        utf8Sink.put(value);
+        writeVarint(headerMem, utf8Sink.size());
+        headerMem.putBlockOfBytes(utf8Sink.ptr(), utf8Sink.size());
+    }
+
+    private void writeBinaryField(int fieldId, CharSequence value) {
+        writeFieldHeader(THRIFT_BINARY, fieldId);
+        writeBinary(value);
+    }
+
+    private void writeFieldHeader(int type, int fieldId) {
+        final int delta = fieldId - lastFieldId;
+        if (delta > 0 && delta < 16) {
+            headerMem.putByte((byte) ((delta << 4) | type));
+        } else {
+            headerMem.putByte((byte) type);
+            writeVarint(headerMem, zigzag(fieldId));
+        }
+        lastFieldId = fieldId;
+    }
+
+    private void writeFooter(TableReaderMetadata metadata, long rowCount) {
+        final int columnCount = metadata.getColumnCount();
+        final int timestampIndex = metadata.getTimestampIndex();
+        headerMem.jumpTo(0);
+        fieldIdStack.clear();
+        lastFieldId = 0;
+
+        // FileMetaData
+        beginStruct();
+        writeI32Field(1, FORMAT_VERSION);
+        writeFieldHeader(THRIFT_LIST, 2);
+        writeListHeader(THRIFT_STRUCT, columnCount + 1);
+        beginStruct();
+        writeBinaryField(4, "schema");
+        writeI32Field(5, columnCount);
+        endStruct();
+        for (int i = 0; i < columnCount; i++) {
+            final int columnType = metadata.getColumnType(i);
+            beginStruct();
+            writeI32Field(1, getPhysicalType(columnType));
+            final int fixedLength = getFixedLength(columnType);
+            if (fixedLength > 0) {
+                writeI32Field(2, fixedLength);
+            }
+            writeI32Field(3, isRequired(columnType, i == timestampIndex) ? REPETITION_REQUIRED : REPETITION_OPTIONAL);
+            writeBinaryField(4, metadata.getColumnName(i));
+            final int convertedType = getConvertedType(columnType);
+            if (convertedType > -1) {
+                writeI32Field(6, convertedType);
+            }
+            if (ColumnType.tagOf(columnType) == ColumnType.UUID) {
+                writeFieldHeader(THRIFT_STRUCT, 10);
+                beginStruct();
+                writeFieldHeader(THRIFT_STRUCT, LOGICAL_TYPE_UUID);
+                beginStruct();
+                endStruct();
+                endStruct();
+            }
+            endStruct();
+        }
+        writeI64Field(3, rowCount);
+
+        final int rowGroupCount = rowGroupSizes.size();
+        writeFieldHeader(THRIFT_LIST, 4);
+        writeListHeader(THRIFT_STRUCT, rowGroupCount);
+        for (int g = 0; g < rowGroupCount; g++) {
+            final long rowGroupSize = rowGroupSizes.getQuick(g);
+            long rowGroupBytes = 0;
+            beginStruct();
+            writeFieldHeader(THRIFT_LIST, 1);
+            writeListHeader(THRIFT_STRUCT, columnCount);
+            for (int i = 0; i < columnCount; i++) {
+                final int columnType = metadata.getColumnType(i);
+                final int physicalType = getPhysicalType(columnType);
+                final int base = (g * columnCount + i) * 5;
+                final long chunkOffset = chunks.getQuick(base);
+                final long chunkSize = chunks.getQuick(base + 1);
+                final long chunkNullCount = chunks.getQuick(base + 2);
+                final long chunkMin = chunks.getQuick(base + 3);
+                final long chunkMax = chunks.getQuick(base + 4);
+                rowGroupBytes += chunkSize;
+
+                // ColumnChunk
+                beginStruct();
+                writeI64Field(2, chunkOffset);
+                writeFieldHeader(THRIFT_STRUCT, 3);
+                // ColumnMetaData
+                beginStruct();
+                writeI32Field(1, physicalType);
+                writeFieldHeader(THRIFT_LIST, 2);
+                writeListHeader(THRIFT_I32, 2);
+                writeVarint(headerMem, zigzag(ENCODING_PLAIN));
+                writeVarint(headerMem, zigzag(ENCODING_RLE));
+                writeFieldHeader(THRIFT_LIST, 3);
+                writeListHeader(THRIFT_BINARY, 1);
+                writeBinary(metadata.getColumnName(i));
+                writeI32Field(4, CODEC_UNCOMPRESSED);
+                writeI64Field(5, rowGroupSize);
+                writeI64Field(6, chunkSize);
+                writeI64Field(7, chunkSize);
+                writeI64Field(9, chunkOffset);
+                // Statistics
+                writeFieldHeader(THRIFT_STRUCT, 12);
+                beginStruct();
+                writeI64Field(3, chunkNullCount);
+                if (chunkMin <= chunkMax && (physicalType == TYPE_INT32 || physicalType == TYPE_INT64)) {
+                    final int size = physicalType == TYPE_INT32 ? Integer.BYTES : Long.BYTES;
+                    writeFieldHeader(THRIFT_BINARY, 5);
+                    writeVarint(headerMem, size);
+                    writeStatisticsValue(chunkMax, size);
+                    writeFieldHeader(THRIFT_BINARY, 6);
+                    writeVarint(headerMem, size);
+                    writeStatisticsValue(chunkMin, size);
+                }
+                endStruct();
+                endStruct();
+                endStruct();
+            }
+            writeI64Field(2, rowGroupBytes);
+            writeI64Field(3, rowGroupSize);
+            endStruct();
+        }
+        writeBinaryField(6, CREATED_BY);
+        endStruct();
+
+        final long footerSize = headerMem.getAppendOffset();
+        headerMem.putInt((int) footerSize);
+        headerMem.putInt(MAGIC);
+        write(headerMem.addressOf(0), headerMem.getAppendOffset());
+    }
+
+    private void writeI32Field(int fieldId, int value) {
+        writeFieldHeader(THRIFT_I32, fieldId);
+        writeVarint(headerMem, zigzag(value));
+    }
+
+    private void writeI64Field(int fieldId, long value) {
+        writeFieldHeader(THRIFT_I64, fieldId);
+        writeVarint(headerMem, zigzag(value));
+    }
+
+    private void writeListHeader(int elementType, int size) {
+        if (size < 15) {
+            headerMem.putByte((byte) ((size << 4) | elementType));
+        } else {
+            headerMem.putByte((byte) (0xF0 | elementType));
+            writeVarint(headerMem, size);
+        }
+    }
+
+    private void writeStatisticsValue(long value, int size) {
+        if (size == Integer.BYTES) {
+            headerMem.putInt((int) value);
+        } else {
+            headerMem.putLong(value);
+        }
+    }
+
+    /**
+     * Data frame cursor over a single partition. The reader is owned by the caller.
+     */
+    private static class PartitionDataFrameCursor implements DataFrameCursor, DataFrame {
+        private boolean exhausted;
+        private int partitionIndex;
+        private TableReader reader;
+        private long rowHi;
+
+        @Override
+        public void close() {
+        }
+
+        @Override
+        public BitmapIndexReader getBitmapIndexReader(int columnIndex, int direction) {
+            return reader.getBitmapIndexReader(partitionIndex, columnIndex, direction);
+        }
+
+        @Override
+        public int getPartitionIndex() {
+            return partitionIndex;
+        }
+
+        @Override
+        public long getRowHi() {
+            return rowHi;
+        }
+
+        @Override
+        public long getRowLo() {
+            return 0;
+        }
+
+        @Override
+        public StaticSymbolTable getSymbolTable(int columnIndex) {
+            return reader.getSymbolMapReader(columnIndex);
+        }
+
+        @Override
+        public TableReader getTableReader() {
+            return reader;
+        }
+
+        @Override
+        public StaticSymbolTable newSymbolTable(int columnIndex) {
+            return reader.newSymbolTable(columnIndex);
+        }
+
+        @Override
+        public @Nullable DataFrame next() {
+            if (exhausted) {
+                return null;
+            }
+            exhausted = true;
+            return this;
+        }
+
+        public PartitionDataFrameCursor of(TableReader reader, int partitionIndex, long rowHi) {
+            this.reader = reader;
+            this.partitionIndex = partitionIndex;
+            this.rowHi = rowHi;
+            this.exhausted = false;
+            return this;
+        }
+
+        @Override
+        public boolean reload() {
+            return false;
+        }
+
+        @Override
+        public long size() {
+            return rowHi;
+        }
+
+        @Override
+        public void toTop() {
+            exhausted = false;
+        }
+    }
+}
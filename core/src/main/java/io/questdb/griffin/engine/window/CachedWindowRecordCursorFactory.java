@@ -25,7 +25,12 @@
 package io.questdb.griffin.engine.window;
 
 
+import io.questdb.MessageBus;
 import io.questdb.cairo.*;
+import io.questdb.cairo.map.Map;
+import io.questdb.cairo.map.MapFactory;
+import io.questdb.cairo.map.MapKey;
+import io.questdb.cairo.map.MapValue;
 import io.questdb.cairo.sql.Record;
 import io.questdb.cairo.sql.*;
 import io.questdb.griffin.PlanSink;
@@ -33,19 +38,40 @@ import io.questdb.griffin.SqlException;
 import io.questdb.griffin.SqlExecutionContext;
 import io.questdb.griffin.engine.RecordComparator;
 import io.questdb.griffin.engine.orderby.LongTreeChain;
-import io.questdb.std.IntList;
-import io.questdb.std.Misc;
-import io.questdb.std.ObjList;
-import io.questdb.std.Transient;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.mp.MCSequence;
+import io.questdb.mp.MPSequence;
+import io.questdb.mp.RingQueue;
+import io.questdb.mp.SOUnboundedCountDownLatch;
+import io.questdb.std.*;
+import io.questdb.tasks.WindowChunkTask;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+/**
+ * Materializes the base cursor into a record chain and computes window functions over it.
+ * <p>
+ * When chunks are provided, i.e. all window functions share the same PARTITION BY clause,
+ * partitions are spread across the chunks and the chunks are computed by worker threads
+ * once the chain and the trees are built. The query thread records the chunk index of
+ * each row in a reserved chain column, so that the rows of ordered groups can be handed
+ * over to the chunks in the order of the respective tree.
+ */
 public class CachedWindowRecordCursorFactory extends AbstractRecordCursorFactory {
+    private static final Log LOG = LogFactory.getLog(CachedWindowRecordCursorFactory.class);
     private final ObjList<WindowFunction> allFunctions;
     private final RecordCursorFactory base;
     private final GenericRecordMetadata chainMetadata;
+    private final int chunkColumnIndex;
+    private final ObjList<Function> chunkKeyFunctions;
+    private final Map chunkKeyMap;
+    private final VirtualRecord chunkKeyRecord;
+    private final RecordSink chunkKeySink;
+    private final ObjList<WindowChunk> chunks;
     private final ObjList<RecordComparator> comparators;
     private final CachedWindowRecordCursor cursor;
+    private final MessageBus messageBus;
     private final ObjList<ObjList<WindowFunction>> ordered2PassFunctions;
     private final ObjList<ObjList<WindowFunction>> orderedFunctions;
     private final int orderedGroupCount;
@@ -66,11 +92,30 @@ public class CachedWindowRecordCursorFactory extends AbstractRecordCursorFactory
             @Nullable ObjList<WindowFunction> unorderedFunctions,
             @NotNull IntList columnIndexes,
             @NotNull final ObjList<IntList> sortKeys,
-            @NotNull GenericRecordMetadata chainMetadata
+            @NotNull GenericRecordMetadata chainMetadata,
+            @Nullable MessageBus messageBus,
+            @Nullable ObjList<WindowChunk> chunks,
+            @Nullable ObjList<Function> chunkKeyFunctions,
+            @Nullable RecordSink chunkKeySink,
+            @Transient @Nullable ColumnTypes chunkKeyTypes,
+            int chunkColumnIndex
     ) {
         super(metadata);
         try {
             this.base = base;
+            this.messageBus = messageBus;
+            this.chunks = chunks;
+            this.chunkKeyFunctions = chunkKeyFunctions;
+            this.chunkKeySink = chunkKeySink;
+            this.chunkColumnIndex = chunkColumnIndex;
+            if (chunks != null) {
+                assert chunkKeyFunctions != null && chunkKeyTypes != null;
+                this.chunkKeyRecord = new VirtualRecord(chunkKeyFunctions);
+                this.chunkKeyMap = MapFactory.createOrderedMap(configuration, chunkKeyTypes, new SingleColumnType(ColumnType.INT));
+            } else {
+                this.chunkKeyRecord = null;
+                this.chunkKeyMap = null;
+            }
             this.orderedGroupCount = comparators.size();
             assert orderedGroupCount == orderedFunctions.size();
             this.orderedFunctions = orderedFunctions;
@@ -104,6 +149,11 @@ public class CachedWindowRecordCursorFactory extends AbstractRecordCursorFactory
             }
 
             this.cursor = new CachedWindowRecordCursor(columnIndexes, recordChain, orderedSources);
+            if (chunks != null) {
+                for (int i = 0, n = chunks.size(); i < n; i++) {
+                    chunks.getQuick(i).of(recordChain);
+                }
+            }
             this.allFunctions = new ObjList<>();
 
             ObjList<ObjList<WindowFunction>> orderedTmp = null;
@@ -190,6 +240,9 @@ public class CachedWindowRecordCursorFactory extends AbstractRecordCursorFactory
     @Override
     public void toPlan(PlanSink sink) {
         sink.type("CachedWindow");
+        if (chunks != null) {
+            sink.meta("workers").val(chunks.size());
+        }
 
         boolean oldVal = sink.getUseBaseMetadata();
         try {
@@ -257,6 +310,11 @@ public class CachedWindowRecordCursorFactory extends AbstractRecordCursorFactory
         for (int i = 0, n = allFunctions.size(); i < n; i++) {
             allFunctions.getQuick(i).reset();
         }
+        if (chunks != null) {
+            for (int i = 0, n = chunks.size(); i < n; i++) {
+                chunks.getQuick(i).resetFunctions();
+            }
+        }
     }
 
     @Override
@@ -268,16 +326,22 @@ public class CachedWindowRecordCursorFactory extends AbstractRecordCursorFactory
         Misc.free(base);
         Misc.free(cursor);
         Misc.freeObjList(allFunctions);
+        Misc.freeObjList(chunks);
+        Misc.freeObjList(chunkKeyFunctions);
+        Misc.free(chunkKeyMap);
     }
 
     class CachedWindowRecordCursor implements RecordCursor {
         private final IntList columnIndexes; // Used for symbol table lookups.
+        private final SOUnboundedCountDownLatch doneLatch = new SOUnboundedCountDownLatch();
         private final ObjList<LongTreeChain> orderedSources;
         private final RecordChain recordChain;
+        private final AtomicBooleanCircuitBreaker sharedCircuitBreaker = new AtomicBooleanCircuitBreaker();
         private RecordCursor baseCursor;
         private SqlExecutionCircuitBreaker circuitBreaker;
         private boolean isOpen;
         private boolean isRecordChainBuilt;
+        private int queuedCount;
         private long recordChainOffset;
 
         public CachedWindowRecordCursor(IntList columnIndexes, RecordChain recordChain, ObjList<LongTreeChain> orderedSources) {
@@ -304,6 +368,12 @@ public class CachedWindowRecordCursorFactory extends AbstractRecordCursorFactory
                 for (int i = 0, n = orderedSources.size(); i < n; i++) {
                     Misc.free(orderedSources.getQuick(i));
                 }
+                if (chunks != null) {
+                    Misc.free(chunkKeyMap);
+                    for (int i = 0, n = chunks.size(); i < n; i++) {
+                        chunks.getQuick(i).freeOffsets();
+                    }
+                }
                 resetFunctions();
                 isOpen = false;
             }
@@ -353,7 +423,30 @@ public class CachedWindowRecordCursorFactory extends AbstractRecordCursorFactory
             recordChain.toTop();
         }
 
+        private void awaitQueuedChunks() {
+            final RingQueue<WindowChunkTask> queue = messageBus.getWindowChunkQueue();
+            final MCSequence subSeq = messageBus.getWindowChunkSubSeq();
+            // we may end up computing chunks of other queries while we wait
+            while (!doneLatch.done(queuedCount)) {
+                if (circuitBreaker.checkIfTripped()) {
+                    sharedCircuitBreaker.cancel();
+                }
+
+                long cursor = subSeq.next();
+                if (cursor > -1) {
+                    WindowChunkJob.run(-1, queue.get(cursor), subSeq, cursor);
+                } else {
+                    Os.pause();
+                }
+            }
+        }
+
         private void buildRecordChain() {
+            if (chunks != null) {
+                buildRecordChainParallel();
+                return;
+            }
+
             // step #1: store source cursor in record list
             // - add record list's row ids to all trees, which will put these row ids in necessary order
             // for this we will be using out comparator, which helps tree compare long values
@@ -464,6 +557,97 @@ public class CachedWindowRecordCursorFactory extends AbstractRecordCursorFactory
             recordChain.toTop();
         }
 
+        private void buildRecordChainParallel() {
+            // step #1: store source cursor in record list, assign partitions to chunks
+            // and order row ids by the trees; chunk index of each row is kept in the chain
+            final Record record = baseCursor.getRecord();
+            final Record chainRecord = recordChain.getRecord();
+            final Record chainRightRecord = recordChain.getRecordB();
+            final int chunkCount = chunks.size();
+            chunkKeyRecord.of(chainRecord);
+            int nextChunkIndex = 0;
+            while (baseCursor.hasNext()) {
+                circuitBreaker.statefulThrowExceptionIfTripped();
+                recordChainOffset = recordChain.put(record, recordChainOffset);
+                recordChain.recordAt(chainRecord, recordChainOffset);
+
+                final MapKey key = chunkKeyMap.withKey();
+                key.put(chunkKeyRecord, chunkKeySink);
+                final MapValue value = key.createValue();
+                final int chunkIndex;
+                if (value.isNew()) {
+                    chunkIndex = nextChunkIndex;
+                    value.putInt(0, chunkIndex);
+                    nextChunkIndex = (nextChunkIndex + 1) % chunkCount;
+                } else {
+                    chunkIndex = value.getInt(0);
+                }
+                Unsafe.getUnsafe().putInt(recordChain.getAddress(recordChainOffset, chunkColumnIndex), chunkIndex);
+                chunks.getQuick(chunkIndex).addRow(recordChainOffset);
+
+                for (int i = 0; i < orderedGroupCount; i++) {
+                    orderedSources.getQuick(i).put(chainRecord, recordChain, chainRightRecord, comparators.getQuick(i));
+                }
+            }
+
+            // step #2: hand over row ids of ordered groups to the chunks in the order of the trees
+            for (int i = 0; i < orderedGroupCount; i++) {
+                final LongTreeChain.TreeCursor cursor = orderedSources.getQuick(i).getCursor();
+                while (cursor.hasNext()) {
+                    circuitBreaker.statefulThrowExceptionIfTripped();
+                    final long offset = cursor.next();
+                    final int chunkIndex = Unsafe.getUnsafe().getInt(recordChain.getAddress(offset, chunkColumnIndex));
+                    chunks.getQuick(chunkIndex).addOrderedRow(i, offset);
+                }
+            }
+
+            // step #3: compute the chunks, the last non-empty chunk is computed on the query thread
+            int lastChunkIndex = chunkCount - 1;
+            while (lastChunkIndex > 0 && chunks.getQuick(lastChunkIndex).getRowCount() == 0) {
+                lastChunkIndex--;
+            }
+            sharedCircuitBreaker.reset();
+            doneLatch.reset();
+            queuedCount = 0;
+            try {
+                final MPSequence pubSeq = messageBus.getWindowChunkPubSeq();
+                for (int i = 0; i < lastChunkIndex; i++) {
+                    final WindowChunk chunk = chunks.getQuick(i);
+                    if (chunk.getRowCount() == 0) {
+                        continue;
+                    }
+                    final long cursor = pubSeq.next();
+                    if (cursor < 0) {
+                        chunk.run(sharedCircuitBreaker);
+                    } else {
+                        messageBus.getWindowChunkQueue().get(cursor).of(sharedCircuitBreaker, doneLatch, chunk);
+                        pubSeq.done(cursor);
+                        queuedCount++;
+                    }
+                }
+                chunks.getQuick(lastChunkIndex).run(sharedCircuitBreaker);
+            } catch (Throwable th) {
+                sharedCircuitBreaker.cancel();
+                throw th;
+            } finally {
+                awaitQueuedChunks();
+            }
+
+            circuitBreaker.statefulThrowExceptionIfTrippedNoThrottle();
+            for (int i = 0; i < chunkCount; i++) {
+                final Throwable error = chunks.getQuick(i).getError();
+                if (error instanceof CairoException) {
+                    throw (CairoException) error;
+                }
+                if (error != null) {
+                    throw CairoException.nonCritical().put("could not compute window functions [error=").put(error.getMessage()).put(']');
+                }
+            }
+
+            LOG.debug().$("computed window chunks [chunkCount=").$(chunkCount).$(", queuedCount=").$(queuedCount).I$();
+            recordChain.toTop();
+        }
+
         private void of(RecordCursor baseCursor, SqlExecutionContext executionContext) throws SqlException {
             this.baseCursor = baseCursor;
             isRecordChainBuilt = false;
@@ -475,8 +659,21 @@ public class CachedWindowRecordCursorFactory extends AbstractRecordCursorFactory
                 recordChain.setSymbolTableResolver(this);
                 reopenTrees();
                 reopen(allFunctions);
+                if (chunks != null) {
+                    chunkKeyMap.reopen();
+                    reopen(chunks);
+                }
             }
             Function.init(allFunctions, this, executionContext);
+            if (chunks != null) {
+                Function.init(chunkKeyFunctions, this, executionContext);
+                chunkKeyMap.clear();
+                for (int i = 0, n = chunks.size(); i < n; i++) {
+                    final WindowChunk chunk = chunks.getQuick(i);
+                    chunk.clear();
+                    chunk.init(this, executionContext);
+                }
+            }
         }
 
         private void reopen(ObjList<?> list) {
@@ -0,0 +1,277 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin.engine.window;
+
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.RecordChain;
+import io.questdb.cairo.Reopenable;
+import io.questdb.cairo.sql.AtomicBooleanCircuitBreaker;
+import io.questdb.cairo.sql.Function;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.SymbolTableSource;
+import io.questdb.cairo.sql.WindowSPI;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.std.*;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * A subset of window partitions computed by parallel window factory. Every partition
+ * belongs to exactly one chunk and the chunk visits rows of its partitions in the same
+ * order as the single-threaded factory does, so the chunk's own copies of the window
+ * functions produce exactly the same values.
+ * <p>
+ * Row offsets are collected by the query thread, the chunk is then computed by a worker
+ * thread. Records are not shared with other chunks, but function results are written
+ * into the shared record chain.
+ */
+public class WindowChunk implements WindowSPI, Mutable, QuietCloseable, Reopenable {
+    private final ObjList<WindowFunction> allFunctions = new ObjList<>();
+    private final ObjList<ObjList<WindowFunction>> ordered2PassFunctions = new ObjList<>();
+    private final ObjList<ObjList<WindowFunction>> orderedFunctions;
+    private final ObjList<DirectLongList> orderedOffsets = new ObjList<>();
+    private final DirectLongList rowOffsets;
+    private final ObjList<WindowFunction> unordered2PassFunctions = new ObjList<>();
+    private final ObjList<WindowFunction> unorderedFunctions;
+    private RecordChain chain;
+    private volatile Throwable error;
+    private Record record;
+    private Record recordAt;
+
+    public WindowChunk(
+            @NotNull CairoConfiguration configuration,
+            @NotNull ObjList<ObjList<WindowFunction>> orderedFunctions,
+            @Nullable ObjList<WindowFunction> unorderedFunctions
+    ) {
+        try {
+            this.orderedFunctions = orderedFunctions;
+            this.unorderedFunctions = unorderedFunctions;
+            final long capacity = configuration.getSqlWindowRowIdPageSize() / Long.BYTES;
+            for (int i = 0, n = orderedFunctions.size(); i < n; i++) {
+                final ObjList<WindowFunction> functions = orderedFunctions.getQuick(i);
+                allFunctions.addAll(functions);
+                ObjList<WindowFunction> twoPassFunctions = null;
+                for (int j = 0, k = functions.size(); j < k; j++) {
+                    final WindowFunction function = functions.getQuick(j);
+                    if (function.getPassCount() > WindowFunction.ONE_PASS) {
+                        if (twoPassFunctions == null) {
+                            twoPassFunctions = new ObjList<>();
+                        }
+                        twoPassFunctions.add(function);
+                    }
+                }
+                ordered2PassFunctions.add(twoPassFunctions);
+                orderedOffsets.add(new DirectLongList(capacity, MemoryTag.NATIVE_TREE_CHAIN));
+            }
+            if (unorderedFunctions != null) {
+                allFunctions.addAll(unorderedFunctions);
+                for (int i = 0, n = unorderedFunctions.size(); i < n; i++) {
+                    final WindowFunction function = unorderedFunctions.getQuick(i);
+                    if (function.getPassCount() > WindowFunction.ONE_PASS) {
+                        unordered2PassFunctions.add(function);
+                    }
+                }
+            }
+            this.rowOffsets = new DirectLongList(capacity, MemoryTag.NATIVE_TREE_CHAIN);
+        } catch (Throwable th) {
+            close();
+            throw th;
+        }
+    }
+
+    public void addOrderedRow(int groupIndex, long offset) {
+        orderedOffsets.getQuick(groupIndex).add(offset);
+    }
+
+    public void addRow(long offset) {
+        rowOffsets.add(offset);
+    }
+
+    @Override
+    public void clear() {
+        for (int i = 0, n = orderedOffsets.size(); i < n; i++) {
+            orderedOffsets.getQuick(i).clear();
+        }
+        rowOffsets.clear();
+        error = null;
+    }
+
+    @Override
+    public void close() {
+        freeOffsets();
+        Misc.freeObjListAndClear(allFunctions);
+    }
+
+    public void freeOffsets() {
+        Misc.freeObjList(orderedOffsets);
+        Misc.free(rowOffsets);
+    }
+
+    @Override
+    public long getAddress(long recordOffset, int columnIndex) {
+        return chain.getAddress(recordOffset, columnIndex);
+    }
+
+    public Throwable getError() {
+        return error;
+    }
+
+    @Override
+    public Record getRecordAt(long recordOffset) {
+        chain.recordAt(recordAt, recordOffset);
+        return recordAt;
+    }
+
+    public long getRowCount() {
+        return rowOffsets.size();
+    }
+
+    public void init(SymbolTableSource symbolTableSource, SqlExecutionContext executionContext) throws SqlException {
+        // functions are evaluated by a worker thread, so they need their own symbol tables
+        final boolean current = executionContext.getCloneSymbolTables();
+        executionContext.setCloneSymbolTables(true);
+        try {
+            Function.init(allFunctions, symbolTableSource, executionContext);
+        } finally {
+            executionContext.setCloneSymbolTables(current);
+        }
+    }
+
+    public void of(RecordChain chain) {
+        this.chain = chain;
+        this.record = chain.newRecord();
+        this.recordAt = chain.newRecord();
+    }
+
+    @Override
+    public void reopen() {
+        for (int i = 0, n = orderedOffsets.size(); i < n; i++) {
+            orderedOffsets.getQuick(i).reopen();
+        }
+        rowOffsets.reopen();
+        for (int i = 0, n = allFunctions.size(); i < n; i++) {
+            if (allFunctions.getQuick(i) instanceof Reopenable) {
+                ((Reopenable) allFunctions.getQuick(i)).reopen();
+            }
+        }
+    }
+
+    public void resetFunctions() {
+        for (int i = 0, n = allFunctions.size(); i < n; i++) {
+            allFunctions.getQuick(i).reset();
+        }
+    }
+
+    public void run(AtomicBooleanCircuitBreaker circuitBreaker) {
+        // pass1 for ordered functions, rows of each group are in the order of the group's tree
+        for (int i = 0, n = orderedFunctions.size(); i < n; i++) {
+            if (!pass1(orderedFunctions.getQuick(i), orderedOffsets.getQuick(i), circuitBreaker)) {
+                return;
+            }
+        }
+
+        // pass1 for unordered functions, one function at a time
+        if (unorderedFunctions != null) {
+            for (int j = 0, n = unorderedFunctions.size(); j < n; j++) {
+                final WindowFunction function = unorderedFunctions.getQuick(j);
+                for (long p = 0, size = rowOffsets.size(); p < size; p++) {
+                    if (circuitBreaker.checkIfTripped()) {
+                        return;
+                    }
+                    final long offset = rowOffsets.get(p);
+                    chain.recordAt(record, offset);
+                    function.pass1(record, offset, this);
+                }
+            }
+        }
+
+        for (int i = 0, n = ordered2PassFunctions.size(); i < n; i++) {
+            final ObjList<WindowFunction> functions = ordered2PassFunctions.getQuick(i);
+            if (functions != null) {
+                for (int j = 0, k = functions.size(); j < k; j++) {
+                    functions.getQuick(j).preparePass2();
+                }
+            }
+        }
+        for (int j = 0, n = unordered2PassFunctions.size(); j < n; j++) {
+            unordered2PassFunctions.getQuick(j).preparePass2();
+        }
+
+        for (int i = 0, n = ordered2PassFunctions.size(); i < n; i++) {
+            final ObjList<WindowFunction> functions = ordered2PassFunctions.getQuick(i);
+            if (functions != null && !pass2(functions, orderedOffsets.getQuick(i), circuitBreaker)) {
+                return;
+            }
+        }
+
+        for (int j = 0, n = unordered2PassFunctions.size(); j < n; j++) {
+            final WindowFunction function = unordered2PassFunctions.getQuick(j);
+            for (long p = 0, size = rowOffsets.size(); p < size; p++) {
+                if (circuitBreaker.checkIfTripped()) {
+                    return;
+                }
+                final long offset = rowOffsets.get(p);
+                chain.recordAt(record, offset);
+                function.pass2(record, offset, this);
+            }
+        }
+    }
+
+    public void setError(Throwable error) {
+        this.error = error;
+    }
+
+    private boolean pass1(ObjList<WindowFunction> functions, DirectLongList offsets, AtomicBooleanCircuitBreaker circuitBreaker) {
+        final int functionCount = functions.size();
+        for (long p = 0, size = offsets.size(); p < size; p++) {
+            if (circuitBreaker.checkIfTripped()) {
+                return false;
+            }
+            final long offset = offsets.get(p);
+            chain.recordAt(record, offset);
+            for (int j = 0; j < functionCount; j++) {
+                functions.getQuick(j).pass1(record, offset, this);
+            }
+        }
+        return true;
+    }
+
+    private boolean pass2(ObjList<WindowFunction> functions, DirectLongList offsets, AtomicBooleanCircuitBreaker circuitBreaker) {
+        final int functionCount = functions.size();
+        for (long p = 0, size = offsets.size(); p < size; p++) {
+            if (circuitBreaker.checkIfTripped()) {
+                return false;
+            }
+            final long offset = offsets.get(p);
+            chain.recordAt(record, offset);
+            for (int j = 0; j < functionCount; j++) {
+                functions.getQuick(j).pass2(record, offset, this);
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,72 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin.engine.window;
+
+import io.questdb.MessageBus;
+import io.questdb.cairo.sql.AtomicBooleanCircuitBreaker;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.mp.AbstractQueueConsumerJob;
+import io.questdb.mp.CountDownLatchSPI;
+import io.questdb.mp.Sequence;
+import io.questdb.tasks.WindowChunkTask;
+
+public class WindowChunkJob extends AbstractQueueConsumerJob<WindowChunkTask> {
+    private static final Log LOG = LogFactory.getLog(WindowChunkJob.class);
+
+    public WindowChunkJob(MessageBus messageBus) {
+        super(messageBus.getWindowChunkQueue(), messageBus.getWindowChunkSubSeq());
+    }
+
+    public static void run(int workerId, WindowChunkTask task, Sequence subSeq, long cursor) {
+        final AtomicBooleanCircuitBreaker circuitBreaker = task.getCircuitBreaker();
+        final CountDownLatchSPI doneLatch = task.getDoneLatch();
+        final WindowChunk chunk = task.getChunk();
+
+        task.clear();
+        subSeq.done(cursor);
+
+        try {
+            if (circuitBreaker.checkIfTripped()) {
+                return;
+            }
+            chunk.run(circuitBreaker);
+        } catch (Throwable e) {
+            LOG.error().$("window chunk failed [workerId=").$(workerId).$(", ex=").$(e).I$();
+            chunk.setError(e);
+            circuitBreaker.cancel();
+        } finally {
+            doneLatch.countDown();
+        }
+    }
+
+    @Override
+    protected boolean doRun(int workerId, long cursor, RunStatus runStatus) {
+        final WindowChunkTask task = queue.get(cursor);
+        run(workerId, task, subSeq, cursor);
+        return true;
+    }
+}
@@ -41,9 +41,14 @@ public class IntrinsicModel implements Mutable {
     public static final int TRUE = 1;
     public static final int UNDEFINED = 0;
     private static final LongList INFINITE_INTERVAL;
+    // Values of the equality or IN list predicate on the column with Bloom filters.
+    public final ObjList<ExpressionNode> bloomFilterValueNodes = new ObjList<>();
     public final ObjList<Function> keyExcludedValueFuncs = new ObjList<>();
     public final ObjList<Function> keyValueFuncs = new ObjList<>();
     private final RuntimeIntervalModelBuilder runtimeIntervalBuilder = new RuntimeIntervalModelBuilder();
+    // Column with Bloom filters used to skip partitions. Unlike the key column,
+    // the predicate stays in the filter since Bloom filters have false positives.
+    public CharSequence bloomFilterColumn;
     public ExpressionNode filter;
     public int intrinsicValue = UNDEFINED;
     // Indexed symbol column used as the initial "efficient" filter for the query.
@@ -65,6 +70,8 @@ public class IntrinsicModel implements Mutable {
         intrinsicValue = UNDEFINED;
         keySubQuery = null;
         keyExcludedNodes.clear();
+        bloomFilterColumn = null;
+        bloomFilterValueNodes.clear();
     }
 
     public void clearBetweenTempParsing() {
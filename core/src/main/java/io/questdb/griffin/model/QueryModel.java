@@ -101,6 +101,8 @@ public class QueryModel implements Mutable, ExecutionModel, AliasTranslator, Sin
     private final LowerCaseCharSequenceObjHashMap<CharSequence> columnNameToAliasMap = new LowerCaseCharSequenceObjHashMap<>();
     private final IntHashSet dependencies = new IntHashSet();
     private final ObjList<ExpressionNode> expressionModels = new ObjList<>();
+    // fill values of "sample by" that was rewritten to "group by", see fillStride
+    private final ObjList<ExpressionNode> fillValues = new ObjList<>();
     private final ObjList<ExpressionNode> groupBy = new ObjList<>();
     private final ObjList<ExpressionNode> joinColumns = new ObjList<>(4);
     private final ObjList<QueryModel> joinModels = new ObjList<>();
@@ -139,6 +141,13 @@ public class QueryModel implements Mutable, ExecutionModel, AliasTranslator, Sin
     private JoinContext context;
     private boolean distinct = false;
     private boolean explicitTimestamp;
+    private ExpressionNode fillOffset;
+    // "sample by" stride of the group-by model that requires gaps to be filled after the
+    // group-by rows are sorted by the timestamp column, null when no fill is required
+    private ExpressionNode fillStride;
+    // group-by model column that holds the bucket timestamp
+    private ExpressionNode fillTimestamp;
+    private ExpressionNode fillTimezone;
     //simple flag to mark when limit x,y in current model (part of query) is already taken care of by existing factories e.g. LimitedSizeSortedLightRecordCursorFactory
     //and doesn't need to be enforced by LimitRecordCursor. We need it to detect whether current factory implements limit from this or inner query .
     private boolean isLimitImplemented;
@@ -433,6 +442,7 @@ public class QueryModel implements Mutable, ExecutionModel, AliasTranslator, Sin
         explicitTimestamp = false;
         showKind = -1;
         sampleByOffset = ZERO_OFFSET;
+        clearFill();
     }
 
     public void clearColumnMapStructs() {
@@ -442,6 +452,14 @@ public class QueryModel implements Mutable, ExecutionModel, AliasTranslator, Sin
         this.bottomUpColumns.clear();
     }
 
+    public void clearFill() {
+        fillStride = null;
+        fillOffset = null;
+        fillTimezone = null;
+        fillTimestamp = null;
+        fillValues.clear();
+    }
+
     public void clearOrderBy() {
         orderBy.clear();
         orderByDirection.clear();
@@ -590,6 +608,11 @@ public class QueryModel implements Mutable, ExecutionModel, AliasTranslator, Sin
                 && Objects.equals(orderHash, that.orderHash)
                 && Objects.equals(joinColumns, that.joinColumns)
                 && Objects.equals(sampleByFill, that.sampleByFill)
+                && Objects.equals(fillValues, that.fillValues)
+                && Objects.equals(fillStride, that.fillStride)
+                && Objects.equals(fillOffset, that.fillOffset)
+                && Objects.equals(fillTimezone, that.fillTimezone)
+                && Objects.equals(fillTimestamp, that.fillTimestamp)
                 && Objects.equals(latestBy, that.latestBy)
                 && Objects.equals(orderByAdvice, that.orderByAdvice)
                 && Objects.equals(orderByDirectionAdvice, that.orderByDirectionAdvice)
@@ -681,6 +704,26 @@ public class QueryModel implements Mutable, ExecutionModel, AliasTranslator, Sin
         return expressionModels;
     }
 
+    public ExpressionNode getFillOffset() {
+        return fillOffset;
+    }
+
+    public ExpressionNode getFillStride() {
+        return fillStride;
+    }
+
+    public ExpressionNode getFillTimestamp() {
+        return fillTimestamp;
+    }
+
+    public ExpressionNode getFillTimezone() {
+        return fillTimezone;
+    }
+
+    public ObjList<ExpressionNode> getFillValues() {
+        return fillValues;
+    }
+
     public ObjList<ExpressionNode> getGroupBy() {
         return groupBy;
     }
@@ -947,7 +990,8 @@ public class QueryModel implements Mutable, ExecutionModel, AliasTranslator, Sin
                 distinct, unionModel, setOperationType,
                 modelPosition, orderByAdviceMnemonic, tableId,
                 isUpdateModel, modelType, updateTableModel,
-                updateTableToken, artificialStar
+                updateTableToken, artificialStar, fillValues,
+                fillStride, fillOffset, fillTimezone, fillTimestamp
         );
     }
 
@@ -1056,6 +1100,12 @@ public class QueryModel implements Mutable, ExecutionModel, AliasTranslator, Sin
         }
     }
 
+    public void moveFillFrom(QueryModel model) {
+        setFill(model.fillStride, model.fillOffset, model.fillTimezone, model.fillTimestamp, model.fillValues);
+        // clear the source
+        model.clearFill();
+    }
+
     public void moveGroupByFrom(QueryModel model) {
         groupBy.addAll(model.groupBy);
         // clear the source
@@ -1180,6 +1230,21 @@ public class QueryModel implements Mutable, ExecutionModel, AliasTranslator, Sin
         this.explicitTimestamp = explicitTimestamp;
     }
 
+    public void setFill(
+            ExpressionNode fillStride,
+            ExpressionNode fillOffset,
+            ExpressionNode fillTimezone,
+            ExpressionNode fillTimestamp,
+            ObjList<ExpressionNode> fillValues
+    ) {
+        this.fillStride = fillStride;
+        this.fillOffset = fillOffset;
+        this.fillTimezone = fillTimezone;
+        this.fillTimestamp = fillTimestamp;
+        this.fillValues.clear();
+        this.fillValues.addAll(fillValues);
+    }
+
     public void setIsUpdate(boolean isUpdate) {
         this.isUpdateModel = isUpdate;
     }
@@ -1743,6 +1808,31 @@ public class QueryModel implements Mutable, ExecutionModel, AliasTranslator, Sin
             }
         }
 
+        if (fillStride != null) {
+            sink.putAscii(" fill");
+            final int fillCount = fillValues.size();
+            if (fillCount > 0) {
+                sink.putAscii('(');
+                for (int i = 0; i < fillCount; i++) {
+                    if (i > 0) {
+                        sink.putAscii(',');
+                    }
+                    sink.put(fillValues.getQuick(i));
+                }
+                sink.putAscii(')');
+            }
+            sink.putAscii(" stride ");
+            fillStride.toSink(sink);
+            if (fillTimezone != null) {
+                sink.putAscii(" time zone ");
+                sink.put(fillTimezone);
+            }
+            if (fillOffset != null) {
+                sink.putAscii(" with offset ");
+                sink.put(fillOffset);
+            }
+        }
+
         if (getLimitLo() != null || getLimitHi() != null) {
             sink.putAscii(" limit ");
             if (getLimitLo() != null) {
@@ -0,0 +1,80 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.metrics;
+
+import io.questdb.std.str.BorrowableUtf8Sink;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Read-only gauge with one label. Label values are not known upfront, the provider
+ * reports every label value and its current stat on each scrape.
+ */
+public class VirtualLongGaugeWithOneLabel implements Scrapable {
+    private final CharSequence labelName0;
+    private final CharSequence name;
+    private final StatProvider provider;
+    private final SampleSink sampleSink = this::putSample;
+    private BorrowableUtf8Sink sink;
+
+    public VirtualLongGaugeWithOneLabel(CharSequence name, CharSequence labelName0, StatProvider provider) {
+        this.name = name;
+        this.labelName0 = labelName0;
+        this.provider = provider;
+    }
+
+    @Override
+    public synchronized void scrapeIntoPrometheus(@NotNull BorrowableUtf8Sink sink) {
+        sink.putAscii(PrometheusFormatUtils.TYPE_PREFIX);
+        sink.put(name);
+        sink.putAscii(" gauge\n");
+        this.sink = sink;
+        try {
+            provider.scrape(sampleSink);
+        } finally {
+            this.sink = null;
+        }
+        PrometheusFormatUtils.appendNewLine(sink);
+    }
+
+    private void putSample(CharSequence labelValue0, long value) {
+        sink.putAscii(PrometheusFormatUtils.METRIC_NAME_PREFIX);
+        sink.put(name);
+        sink.putAscii('{');
+        PrometheusFormatUtils.appendLabel(sink, labelName0, labelValue0);
+        sink.putAscii('}');
+        PrometheusFormatUtils.appendSampleLineSuffix(sink, value);
+    }
+
+    @FunctionalInterface
+    public interface SampleSink {
+        void put(CharSequence labelValue0, long value);
+    }
+
+    @FunctionalInterface
+    public interface StatProvider {
+        void scrape(SampleSink sink);
+    }
+}
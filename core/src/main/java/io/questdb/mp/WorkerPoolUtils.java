@@ -31,7 +31,9 @@ import io.questdb.cairo.sql.async.PageFrameReduceJob;
 import io.questdb.griffin.SqlException;
 import io.questdb.griffin.engine.groupby.GroupByMergeShardJob;
 import io.questdb.griffin.engine.groupby.vect.GroupByVectorAggregateJob;
+import io.questdb.griffin.engine.orderby.SortRunJob;
 import io.questdb.griffin.engine.table.LatestByAllIndexedJob;
+import io.questdb.griffin.engine.window.WindowChunkJob;
 import io.questdb.std.NanosecondClock;
 import io.questdb.std.Rnd;
 import io.questdb.std.datetime.microtime.MicrosecondClock;
@@ -55,6 +57,14 @@ public class WorkerPoolUtils {
             workerPool.assign(new GroupByMergeShardJob(messageBus));
         }
 
+        if (configuration.isSqlParallelSortEnabled()) {
+            workerPool.assign(new SortRunJob(messageBus));
+        }
+
+        if (configuration.isSqlParallelWindowEnabled()) {
+            workerPool.assign(new WindowChunkJob(messageBus));
+        }
+
         if (configuration.isSqlParallelFilterEnabled() || configuration.isSqlParallelGroupByEnabled()) {
             final MicrosecondClock microsecondClock = messageBus.getConfiguration().getMicrosecondClock();
             final NanosecondClock nanosecondClock = messageBus.getConfiguration().getNanosecondClock();
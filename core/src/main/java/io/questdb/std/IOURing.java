@@ -38,6 +38,8 @@ public interface IOURing extends Closeable {
 
     long enqueueRead(int fd, long offset, long bufPtr, int len);
 
+    long enqueueWrite(int fd, long offset, long bufPtr, int len);
+
     long getCqeId();
 
     int getCqeRes();
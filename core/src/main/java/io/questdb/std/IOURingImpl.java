@@ -102,6 +102,11 @@ public class IOURingImpl implements IOURing {
         return enqueueSqe(IORING_OP_READ, fd, offset, bufAddr, len);
     }
 
+    @Override
+    public long enqueueWrite(int fd, long offset, long bufAddr, int len) {
+        return enqueueSqe(IORING_OP_WRITE, fd, offset, bufAddr, len);
+    }
+
     @Override
     public long getCqeId() {
         if (cachedIndex < cachedSize) {
@@ -1043,6 +1043,13 @@ public final class Timestamps {
         return sink.toString();
     }
 
+    public static long toUTC(long timestampWithTimezone, TimeZoneRules zoneRules) {
+        long offset = zoneRules.getOffset(timestampWithTimezone);
+        // getOffset really needs UTC date, not local
+        offset = zoneRules.getOffset(timestampWithTimezone - offset);
+        return timestampWithTimezone - offset;
+    }
+
     public static long toUTC(long timestampWithTimezone, DateLocale locale, CharSequence timezone) throws NumericException {
         return toUTC(timestampWithTimezone, locale, timezone, 0, timezone.length());
     }
@@ -24,10 +24,13 @@
 
 package io.questdb.tasks;
 
+import io.questdb.cairo.BloomFilterWriter;
 import io.questdb.cairo.ColumnIndexer;
 import io.questdb.mp.SOCountDownLatch;
 
 public class ColumnIndexerTask {
+    // when set, the task builds Bloom filter instead of indexing
+    public BloomFilterWriter bloomFilterWriter;
     public SOCountDownLatch countDownLatch;
     public long hi;
     public ColumnIndexer indexer;
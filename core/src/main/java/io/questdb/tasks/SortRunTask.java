@@ -0,0 +1,75 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.tasks;
+
+import io.questdb.cairo.sql.AtomicBooleanCircuitBreaker;
+import io.questdb.griffin.engine.RecordComparator;
+import io.questdb.griffin.engine.orderby.SortRun;
+import io.questdb.mp.CountDownLatchSPI;
+import io.questdb.std.Mutable;
+import org.jetbrains.annotations.Nullable;
+
+public class SortRunTask implements Mutable {
+    private AtomicBooleanCircuitBreaker circuitBreaker;
+    private RecordComparator comparator;
+    private CountDownLatchSPI doneLatch;
+    private SortRun run;
+
+    @Override
+    public void clear() {
+        run = null;
+        comparator = null;
+        circuitBreaker = null;
+    }
+
+    public AtomicBooleanCircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
+    }
+
+    public @Nullable RecordComparator getComparator() {
+        return comparator;
+    }
+
+    public CountDownLatchSPI getDoneLatch() {
+        return doneLatch;
+    }
+
+    public SortRun getRun() {
+        return run;
+    }
+
+    public void of(
+            AtomicBooleanCircuitBreaker circuitBreaker,
+            CountDownLatchSPI doneLatch,
+            SortRun run,
+            @Nullable RecordComparator comparator
+    ) {
+        this.circuitBreaker = circuitBreaker;
+        this.doneLatch = doneLatch;
+        this.run = run;
+        this.comparator = comparator;
+    }
+}
@@ -248,6 +248,9 @@ public class PropServerConfigurationTest {
         Assert.assertFalse(configuration.getLineUdpReceiverConfiguration().ownThread());
 
         Assert.assertTrue(configuration.getCairoConfiguration().isSqlParallelFilterPreTouchEnabled());
+        Assert.assertFalse(configuration.getCairoConfiguration().isSqlParallelFilterReadAheadEnabled());
+        Assert.assertEquals(1024 * 1024, configuration.getCairoConfiguration().getSqlParallelFilterReadAheadBufferSize());
+        Assert.assertEquals(4, configuration.getCairoConfiguration().getSqlParallelFilterReadAheadFrames());
         Assert.assertEquals(1_000_000, configuration.getCairoConfiguration().getSqlPageFrameMaxRows());
         Assert.assertEquals(100_000, configuration.getCairoConfiguration().getSqlPageFrameMinRows());
         Assert.assertEquals(256, configuration.getCairoConfiguration().getPageFrameReduceRowIdListCapacity());
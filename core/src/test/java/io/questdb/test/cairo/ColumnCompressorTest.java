@@ -0,0 +1,232 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.test.cairo;
+
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.ColumnCompressor;
+import io.questdb.cairo.CommitMode;
+import io.questdb.cairo.StringTypeDriver;
+import io.questdb.cairo.TableUtils;
+import io.questdb.std.*;
+import io.questdb.std.str.Path;
+import io.questdb.test.AbstractCairoTest;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ColumnCompressorTest extends AbstractCairoTest {
+    private static final int BLOCK_SIZE = 64 * 1024;
+
+    @Test
+    public void testDeflateRoundTrip() throws Exception {
+        final Rnd rnd = TestUtils.generateRandom(LOG);
+        assertRoundTrip(ColumnCompressor.CODEC_DEFLATE, Byte.BYTES, 700_001, (addr, i) -> Unsafe.getUnsafe().putByte(addr + i, (byte) ('a' + rnd.nextInt(4))));
+    }
+
+    @Test
+    public void testDodRoundTrip() throws Exception {
+        final Rnd rnd = TestUtils.generateRandom(LOG);
+        final long[] ts = {1704067200000000L};
+        assertRoundTrip(ColumnCompressor.CODEC_DOD, Long.BYTES, 100_003, (addr, i) -> {
+            ts[0] += 1_000_000L + rnd.nextInt(1000);
+            Unsafe.getUnsafe().putLong(addr + i * Long.BYTES, ts[0]);
+        });
+    }
+
+    @Test
+    public void testDodWithExtremeValues() throws Exception {
+        // deltas overflow, blocks fall back to other codecs
+        final Rnd rnd = TestUtils.generateRandom(LOG);
+        assertRoundTrip(ColumnCompressor.CODEC_DOD, Long.BYTES, 20_000, (addr, i) -> Unsafe.getUnsafe().putLong(addr + i * Long.BYTES, i % 3 == 0 ? Long.MIN_VALUE : (i % 3 == 1 ? Long.MAX_VALUE : rnd.nextLong())));
+    }
+
+    @Test
+    public void testForRoundTrip() throws Exception {
+        final Rnd rnd = TestUtils.generateRandom(LOG);
+        assertRoundTrip(ColumnCompressor.CODEC_FOR, Byte.BYTES, 100_001, (addr, i) -> Unsafe.getUnsafe().putByte(addr + i, (byte) (rnd.nextInt(16) - 8)));
+        assertRoundTrip(ColumnCompressor.CODEC_FOR, Short.BYTES, 100_001, (addr, i) -> Unsafe.getUnsafe().putShort(addr + i * Short.BYTES, (short) (rnd.nextInt(1000) - 500)));
+        assertRoundTrip(ColumnCompressor.CODEC_FOR, Integer.BYTES, 100_001, (addr, i) -> Unsafe.getUnsafe().putInt(addr + i * Integer.BYTES, rnd.nextInt(100_000)));
+        assertRoundTrip(ColumnCompressor.CODEC_FOR, Long.BYTES, 100_001, (addr, i) -> Unsafe.getUnsafe().putLong(addr + i * Long.BYTES, 1_000_000_000L + rnd.nextInt(1 << 20)));
+    }
+
+    @Test
+    public void testForWithNulls() throws Exception {
+        // null sentinels stretch the frame to the full width, those blocks are stored deflated or raw
+        final Rnd rnd = TestUtils.generateRandom(LOG);
+        assertRoundTrip(ColumnCompressor.CODEC_FOR, Integer.BYTES, 100_000, (addr, i) -> Unsafe.getUnsafe().putInt(addr + i * Integer.BYTES, rnd.nextInt(10) == 0 ? Numbers.INT_NULL : rnd.nextInt()));
+        assertRoundTrip(ColumnCompressor.CODEC_FOR, Long.BYTES, 100_000, (addr, i) -> Unsafe.getUnsafe().putLong(addr + i * Long.BYTES, i < 50_000 ? Numbers.LONG_NULL : i));
+    }
+
+    @Test
+    public void testRoundTripEmpty() throws Exception {
+        assertRoundTrip(ColumnCompressor.CODEC_FOR, Long.BYTES, 0, (addr, i) -> {
+        });
+    }
+
+    @Test
+    public void testVarSizeBlocksAreValueAligned() throws Exception {
+        assertMemoryLeak(() -> {
+            final FilesFacade ff = configuration.getFilesFacade();
+            final Rnd rnd = TestUtils.generateRandom(LOG);
+            final int rowCount = 10_000;
+            final long auxSize = StringTypeDriver.INSTANCE.getAuxVectorSize(rowCount);
+            final long aux = Unsafe.malloc(auxSize, MemoryTag.NATIVE_DEFAULT);
+            long size = 0;
+            for (int i = 0; i < rowCount; i++) {
+                Unsafe.getUnsafe().putLong(aux + (long) i * Long.BYTES, size);
+                size += Integer.BYTES + 2L * rnd.nextInt(200);
+            }
+            Unsafe.getUnsafe().putLong(aux + (long) rowCount * Long.BYTES, size);
+            final long raw = Unsafe.malloc(size, MemoryTag.NATIVE_DEFAULT);
+            final long decoded = Unsafe.malloc(size, MemoryTag.NATIVE_DEFAULT);
+            long compressedAddr = 0;
+            long compressedSize = 0;
+            try (
+                    Path src = new Path().of(root).concat("col.d");
+                    Path auxSrc = new Path().of(root).concat("col.i");
+                    Path dst = new Path().of(root).concat("col.d.z");
+                    ColumnCompressor compressor = new ColumnCompressor()
+            ) {
+                for (long i = 0; i < size; i++) {
+                    Unsafe.getUnsafe().putByte(raw + i, (byte) rnd.nextInt(8));
+                }
+                writeFile(ff, src, raw, size);
+                writeFile(ff, auxSrc, aux, auxSize);
+
+                compressedSize = compressor.compressVarSizeData(ff, src.$(), dst.$(), auxSrc.$(), StringTypeDriver.INSTANCE, rowCount, CommitMode.NOSYNC);
+                final int dstFd = TableUtils.openRO(ff, dst.$(), LOG);
+                try {
+                    compressedAddr = TableUtils.mapRO(ff, dstFd, compressedSize, MemoryTag.MMAP_DEFAULT);
+                } finally {
+                    ff.close(dstFd);
+                }
+
+                final int blockCount = ColumnCompressor.getBlockCount(compressedAddr);
+                Assert.assertTrue(blockCount > 1);
+                Assert.assertEquals(size, ColumnCompressor.getBlockRawLo(compressedAddr, blockCount));
+                int row = 0;
+                for (int b = 0; b < blockCount; b++) {
+                    // every block starts at a value
+                    final long blockLo = ColumnCompressor.getBlockRawLo(compressedAddr, b);
+                    while (Unsafe.getUnsafe().getLong(aux + (long) row * Long.BYTES) < blockLo) {
+                        row++;
+                    }
+                    Assert.assertEquals(blockLo, Unsafe.getUnsafe().getLong(aux + (long) row * Long.BYTES));
+                    Assert.assertEquals(b, ColumnCompressor.findBlock(compressedAddr, blockLo));
+                }
+
+                compressor.decompress(compressedAddr, compressedSize, 0, size, decoded);
+                assertBytes(raw, decoded, size);
+                ff.remove(src.$());
+                ff.remove(auxSrc.$());
+                ff.remove(dst.$());
+            } finally {
+                Unsafe.free(aux, auxSize, MemoryTag.NATIVE_DEFAULT);
+                Unsafe.free(raw, size, MemoryTag.NATIVE_DEFAULT);
+                Unsafe.free(decoded, size, MemoryTag.NATIVE_DEFAULT);
+                if (compressedAddr != 0) {
+                    ff.munmap(compressedAddr, compressedSize, MemoryTag.MMAP_DEFAULT);
+                }
+            }
+        });
+    }
+
+    private static void assertBytes(long expected, long actual, long size) {
+        for (long i = 0; i < size; i++) {
+            if (Unsafe.getUnsafe().getByte(expected + i) != Unsafe.getUnsafe().getByte(actual + i)) {
+                Assert.fail("mismatch at byte " + i);
+            }
+        }
+    }
+
+    private static void writeFile(FilesFacade ff, Path path, long addr, long size) {
+        final int fd = TableUtils.openRW(ff, path.$(), LOG, CairoConfiguration.O_NONE);
+        try {
+            Assert.assertEquals(size, ff.write(fd, addr, size, 0));
+        } finally {
+            ff.close(fd);
+        }
+    }
+
+    private void assertRoundTrip(int codec, int valueSize, int count, ValueWriter writer) throws Exception {
+        assertMemoryLeak(() -> {
+            final FilesFacade ff = configuration.getFilesFacade();
+            final long size = (long) count * valueSize;
+            final long raw = Unsafe.malloc(Math.max(size, 1), MemoryTag.NATIVE_DEFAULT);
+            long decoded = 0;
+            long compressedAddr = 0;
+            long compressedSize = 0;
+            try (
+                    Path src = new Path().of(root).concat("col.d");
+                    Path dst = new Path().of(root).concat("col.d.z");
+                    ColumnCompressor compressor = new ColumnCompressor()
+            ) {
+                for (int i = 0; i < count; i++) {
+                    writer.write(raw, i);
+                }
+                writeFile(ff, src, raw, size);
+
+                compressedSize = compressor.compress(ff, src.$(), dst.$(), codec, valueSize, CommitMode.NOSYNC);
+                Assert.assertEquals(compressedSize, ff.length(dst.$()));
+
+                final int dstFd = TableUtils.openRO(ff, dst.$(), LOG);
+                try {
+                    compressedAddr = TableUtils.mapRO(ff, dstFd, compressedSize, MemoryTag.MMAP_DEFAULT);
+                } finally {
+                    ff.close(dstFd);
+                }
+                Assert.assertEquals(size, ColumnCompressor.getRawSize(compressedAddr, compressedSize));
+                Assert.assertEquals(size == 0 ? 0 : (size + BLOCK_SIZE - 1) / BLOCK_SIZE, ColumnCompressor.getBlockCount(compressedAddr));
+                decoded = Unsafe.malloc(Math.max(size, 1), MemoryTag.NATIVE_DEFAULT);
+                compressor.decompress(compressedAddr, compressedSize, 0, size, decoded);
+                assertBytes(raw, decoded, size);
+
+                // random ranges decode only the blocks they overlap
+                final Rnd rnd = TestUtils.generateRandom(LOG);
+                for (int i = 0; i < 20 && size > 0; i++) {
+                    final long lo = rnd.nextLong(size);
+                    final long hi = lo + rnd.nextLong(size - lo) + 1;
+                    compressor.decompress(compressedAddr, compressedSize, lo, hi, decoded);
+                    assertBytes(raw + lo, decoded, hi - lo);
+                }
+                ff.remove(src.$());
+                ff.remove(dst.$());
+            } finally {
+                Unsafe.free(raw, Math.max(size, 1), MemoryTag.NATIVE_DEFAULT);
+                if (decoded != 0) {
+                    Unsafe.free(decoded, Math.max(size, 1), MemoryTag.NATIVE_DEFAULT);
+                }
+                if (compressedAddr != 0) {
+                    ff.munmap(compressedAddr, compressedSize, MemoryTag.MMAP_DEFAULT);
+                }
+            }
+        });
+    }
+
+    @FunctionalInterface
+    private interface ValueWriter {
+        void write(long addr, long index);
+    }
+}
@@ -0,0 +1,128 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.test.cairo;
+
+import io.questdb.PropertyKey;
+import io.questdb.cairo.O3ParallelDedupMerge;
+import io.questdb.std.MemoryTag;
+import io.questdb.std.Rnd;
+import io.questdb.std.Unsafe;
+import io.questdb.std.Vect;
+import io.questdb.test.AbstractCairoTest;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class O3ParallelDedupMergeTest extends AbstractCairoTest {
+
+    @Test
+    public void testDedupKeysMergedInParallel() throws Exception {
+        node1.setProperty(PropertyKey.CAIRO_O3_DEDUP_PARALLEL_MERGE_THRESHOLD, 1);
+        assertMemoryLeak(() -> {
+            ddl("create table x (ts timestamp, k int, v long) timestamp(ts) partition by DAY WAL dedup upsert keys(ts, k)");
+            insert("insert into x select dateadd('h', x::int - 1, '2024-01-01'::timestamp), x::int % 2, x from long_sequence(10)");
+            drainWalQueue();
+
+            insert("insert into x select dateadd('h', x::int + 1, '2024-01-01'::timestamp), x::int % 2, 100 + x from long_sequence(6)");
+            insert("insert into x values ('2024-01-01T04:00:00.000000Z', 2, 1000)");
+            drainWalQueue();
+
+            assertSql(
+                    "ts\tk\tv\n" +
+                            "2024-01-01T00:00:00.000000Z\t1\t1\n" +
+                            "2024-01-01T01:00:00.000000Z\t0\t2\n" +
+                            "2024-01-01T02:00:00.000000Z\t1\t101\n" +
+                            "2024-01-01T03:00:00.000000Z\t0\t102\n" +
+                            "2024-01-01T04:00:00.000000Z\t1\t103\n" +
+                            "2024-01-01T04:00:00.000000Z\t2\t1000\n" +
+                            "2024-01-01T05:00:00.000000Z\t0\t104\n" +
+                            "2024-01-01T06:00:00.000000Z\t1\t105\n" +
+                            "2024-01-01T07:00:00.000000Z\t0\t106\n" +
+                            "2024-01-01T08:00:00.000000Z\t1\t9\n" +
+                            "2024-01-01T09:00:00.000000Z\t0\t10\n",
+                    "x"
+            );
+        });
+    }
+
+    @Test
+    public void testMergeMatchesSingleThreadedMerge() throws Exception {
+        assertMemoryLeak(() -> {
+            final Rnd rnd = new Rnd();
+            final int dataCount = 10_000;
+            final int oooCount = 7_000;
+            final long dataSize = (long) dataCount * Long.BYTES;
+            final long oooSize = (long) oooCount * 2 * Long.BYTES;
+            final long destSize = (long) (dataCount + oooCount) * 2 * Long.BYTES;
+            final long dataAddr = Unsafe.malloc(dataSize, MemoryTag.NATIVE_DEFAULT);
+            final long oooAddr = Unsafe.malloc(oooSize, MemoryTag.NATIVE_DEFAULT);
+            final long expectedAddr = Unsafe.malloc(destSize, MemoryTag.NATIVE_DEFAULT);
+            final long actualAddr = Unsafe.malloc(destSize, MemoryTag.NATIVE_DEFAULT);
+            try {
+                // partition data may have duplicate timestamps, O3 index is already deduplicated
+                long ts = 1_000;
+                for (int i = 0; i < dataCount; i++) {
+                    ts += rnd.nextInt(3);
+                    Unsafe.getUnsafe().putLong(dataAddr + (long) i * Long.BYTES, ts);
+                }
+                ts = 1_000;
+                for (int i = 0; i < oooCount; i++) {
+                    ts += 1 + rnd.nextInt(3);
+                    Unsafe.getUnsafe().putLong(oooAddr + (long) i * 2 * Long.BYTES, ts);
+                    Unsafe.getUnsafe().putLong(oooAddr + (long) i * 2 * Long.BYTES + Long.BYTES, i);
+                }
+
+                final int[][] bounds = {{0, dataCount - 1, 0, oooCount - 1}, {100, 5_000, 10, 6_000}, {0, -1, 0, oooCount - 1}};
+                for (int[] b : bounds) {
+                    final long expectedCount = Vect.mergeDedupTimestampWithLongIndexAsc(dataAddr, b[0], b[1], oooAddr, b[2], b[3], expectedAddr);
+                    final long actualCount = new O3ParallelDedupMerge().merge(
+                            engine.getMessageBus(),
+                            dataAddr,
+                            b[0],
+                            b[1],
+                            oooAddr,
+                            b[2],
+                            b[3],
+                            actualAddr,
+                            0,
+                            0
+                    );
+                    Assert.assertEquals(expectedCount, actualCount);
+                    for (long i = 0; i < expectedCount * 2; i++) {
+                        Assert.assertEquals(
+                                Unsafe.getUnsafe().getLong(expectedAddr + i * Long.BYTES),
+                                Unsafe.getUnsafe().getLong(actualAddr + i * Long.BYTES)
+                        );
+                    }
+                }
+            } finally {
+                Unsafe.free(dataAddr, dataSize, MemoryTag.NATIVE_DEFAULT);
+                Unsafe.free(oooAddr, oooSize, MemoryTag.NATIVE_DEFAULT);
+                Unsafe.free(expectedAddr, destSize, MemoryTag.NATIVE_DEFAULT);
+                Unsafe.free(actualAddr, destSize, MemoryTag.NATIVE_DEFAULT);
+            }
+        });
+    }
+}
@@ -39,6 +39,8 @@ import org.junit.Assert;
 import org.junit.Test;
 
 import java.util.HashMap;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class OrderedMapTest extends AbstractCairoTest {
 
@@ -1546,6 +1548,173 @@ public class OrderedMapTest extends AbstractCairoTest {
         });
     }
 
+    @Test
+    public void testProbeKeyFixedSizeKey() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            ArrayColumnTypes keyTypes = new ArrayColumnTypes();
+            keyTypes.add(ColumnType.INT);
+            keyTypes.add(ColumnType.LONG);
+            final int N = 10000;
+            try (
+                    OrderedMap map = new OrderedMap(Numbers.SIZE_1MB, keyTypes, new SingleColumnType(ColumnType.LONG), 64, 0.8, Integer.MAX_VALUE);
+                    OrderedMap.ProbeKey probeKey = map.newProbeKey()
+            ) {
+                for (int i = 0; i < N; i++) {
+                    MapKey key = map.withKey();
+                    key.putInt(i);
+                    key.putLong(2L * i);
+                    MapValue value = key.createValue();
+                    Assert.assertTrue(value.isNew());
+                    value.putLong(0, i + 42);
+                }
+
+                long appendOffset = map.getAppendOffset();
+                for (int i = 0; i < 2 * N; i++) {
+                    probeKey.init();
+                    probeKey.putInt(i);
+                    probeKey.putLong(2L * i);
+                    MapValue value = probeKey.findValue(map, probeKey.hash());
+                    if (i < N) {
+                        Assert.assertNotNull(value);
+                        Assert.assertEquals(i + 42, value.getLong(0));
+                    } else {
+                        Assert.assertNull(value);
+                    }
+                }
+                // probe keys don't touch the map heap
+                Assert.assertEquals(appendOffset, map.getAppendOffset());
+                Assert.assertEquals(N, map.size());
+            }
+        });
+    }
+
+    @Test
+    public void testProbeKeyPartitionedMaps() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            ArrayColumnTypes keyTypes = new ArrayColumnTypes();
+            keyTypes.add(ColumnType.VARCHAR);
+            keyTypes.add(ColumnType.INT);
+            final int partitionCount = 4;
+            final int partitionCountShr = Long.numberOfLeadingZeros(partitionCount) + 1;
+            final int N = 10000;
+            final ObjList<OrderedMap> maps = new ObjList<>();
+            try {
+                for (int i = 0; i < partitionCount; i++) {
+                    maps.add(new OrderedMap(Numbers.SIZE_1MB, keyTypes, new SingleColumnType(ColumnType.LONG), 16, 0.8, Integer.MAX_VALUE));
+                }
+                try (OrderedMap.ProbeKey probeKey = maps.getQuick(0).newProbeKey()) {
+                    final Utf8StringSink sink = new Utf8StringSink();
+                    // insert each key twice, the second insert must find the first one
+                    for (int j = 0; j < 2; j++) {
+                        for (int i = 0; i < N; i++) {
+                            sink.clear();
+                            sink.put("key").put(i);
+                            probeKey.init();
+                            probeKey.putVarchar(sink);
+                            probeKey.putInt(i);
+                            final long hashCode = probeKey.hash();
+                            MapValue value = probeKey.createValue(maps.getQuick((int) (hashCode >>> partitionCountShr)), hashCode);
+                            Assert.assertEquals(j == 0, value.isNew());
+                            if (value.isNew()) {
+                                value.putLong(0, i);
+                            } else {
+                                Assert.assertEquals(i, value.getLong(0));
+                            }
+                        }
+                    }
+
+                    long totalSize = 0;
+                    for (int i = 0; i < partitionCount; i++) {
+                        final long size = maps.getQuick(i).size();
+                        // keys are spread across all partitions
+                        Assert.assertTrue(size > 0);
+                        totalSize += size;
+                    }
+                    Assert.assertEquals(N, totalSize);
+
+                    for (int i = 0; i < N; i++) {
+                        sink.clear();
+                        sink.put("key").put(i);
+                        probeKey.init();
+                        probeKey.putVarchar(sink);
+                        probeKey.putInt(i);
+                        final long hashCode = probeKey.hash();
+                        final int partitionIndex = (int) (hashCode >>> partitionCountShr);
+                        MapValue value = probeKey.findValue(maps.getQuick(partitionIndex), hashCode);
+                        Assert.assertNotNull(value);
+                        Assert.assertEquals(i, value.getLong(0));
+                        // other partitions don't have the key
+                        Assert.assertNull(probeKey.findValue(maps.getQuick((partitionIndex + 1) % partitionCount), hashCode));
+                    }
+                }
+            } finally {
+                Misc.freeObjList(maps);
+            }
+        });
+    }
+
+    @Test
+    public void testProbeKeyVarSizeKey() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            ArrayColumnTypes keyTypes = new ArrayColumnTypes();
+            keyTypes.add(ColumnType.STRING);
+            keyTypes.add(ColumnType.LONG);
+            final int N = 10000;
+            final int threadCount = 4;
+            try (OrderedMap map = new OrderedMap(Numbers.SIZE_1MB, keyTypes, new SingleColumnType(ColumnType.LONG), 64, 0.8, Integer.MAX_VALUE)) {
+                Rnd rnd = new Rnd();
+                for (int i = 0; i < N; i++) {
+                    MapKey key = map.withKey();
+                    // make some of the keys larger than the initial probe key memory
+                    key.putStr(rnd.nextChars(1 + rnd.nextInt(100)));
+                    key.putLong(i);
+                    MapValue value = key.createValue();
+                    Assert.assertTrue(value.isNew());
+                    value.putLong(0, i);
+                }
+
+                final CyclicBarrier barrier = new CyclicBarrier(threadCount);
+                final AtomicInteger errors = new AtomicInteger();
+                final ObjList<Thread> threads = new ObjList<>();
+                for (int t = 0; t < threadCount; t++) {
+                    final Thread thread = new Thread(() -> {
+                        try (OrderedMap.ProbeKey probeKey = map.newProbeKey()) {
+                            barrier.await();
+                            final Rnd threadRnd = new Rnd();
+                            for (int i = 0; i < N; i++) {
+                                probeKey.init();
+                                probeKey.putStr(threadRnd.nextChars(1 + threadRnd.nextInt(100)));
+                                probeKey.putLong(i);
+                                MapValue value = probeKey.findValue(map, probeKey.hash());
+                                if (value == null || value.getLong(0) != i) {
+                                    errors.incrementAndGet();
+                                }
+
+                                probeKey.init();
+                                probeKey.putStr("missing");
+                                probeKey.putLong(i);
+                                if (probeKey.findValue(map, probeKey.hash()) != null) {
+                                    errors.incrementAndGet();
+                                }
+                            }
+                        } catch (Throwable th) {
+                            th.printStackTrace(System.out);
+                            errors.incrementAndGet();
+                        }
+                    });
+                    threads.add(thread);
+                    thread.start();
+                }
+
+                for (int t = 0; t < threadCount; t++) {
+                    threads.getQuick(t).join();
+                }
+                Assert.assertEquals(0, errors.get());
+                Assert.assertEquals(N, map.size());
+            }
+        });
+    }
+
     @Test
     public void testRecordAsKey() throws Exception {
         TestUtils.assertMemoryLeak(() -> {
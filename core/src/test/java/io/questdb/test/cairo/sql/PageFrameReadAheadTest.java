@@ -0,0 +1,262 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.test.cairo.sql;
+
+import io.questdb.PropertyKey;
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.CairoConfigurationWrapper;
+import io.questdb.cairo.sql.DataFrameCursorFactory;
+import io.questdb.cairo.sql.PageFrame;
+import io.questdb.cairo.sql.PageFrameCursor;
+import io.questdb.cairo.sql.PageFrameReadAhead;
+import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.std.IOURing;
+import io.questdb.std.IOURingFacade;
+import io.questdb.std.IOURingFacadeImpl;
+import io.questdb.std.IOURingImpl;
+import io.questdb.std.LongList;
+import io.questdb.std.MemoryTag;
+import io.questdb.std.Os;
+import io.questdb.std.Unsafe;
+import io.questdb.test.AbstractCairoTest;
+import org.jetbrains.annotations.NotNull;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+public class PageFrameReadAheadTest extends AbstractCairoTest {
+    private static final int BUFFER_SIZE = 4096;
+    private static final int READ_AHEAD_FRAMES = 2;
+
+    @Override
+    @Before
+    public void setUp() {
+        super.setUp();
+        setProperty(PropertyKey.CAIRO_SQL_PAGE_FRAME_MAX_ROWS, 1000);
+        setProperty(PropertyKey.CAIRO_SQL_PAGE_FRAME_MIN_ROWS, 1000);
+    }
+
+    @Test
+    public void testClearFreesBuffers() throws Exception {
+        Assume.assumeTrue(IOURingFacadeImpl.INSTANCE.isAvailable());
+        assertMemoryLeak(() -> {
+            ddl("create table x as (select x l, timestamp_sequence('2024-01-01', 60000000) ts from long_sequence(3000)) timestamp(ts) partition by day");
+            final CountingIOURingFacade rf = new CountingIOURingFacade();
+            try (
+                    RecordCursorFactory factory = select("x");
+                    PageFrameCursor cursor = factory.getPageFrameCursor(sqlExecutionContext, DataFrameCursorFactory.ORDER_ASC);
+                    PageFrameReadAhead readAhead = new PageFrameReadAhead(new ReadAheadConfiguration(configuration, rf, true))
+            ) {
+                for (int i = 0; i < 2; i++) {
+                    cursor.toTop();
+                    PageFrame frame;
+                    while ((frame = cursor.next()) != null) {
+                        readAhead.add(frame);
+                    }
+                    final long memUsed = Unsafe.getMemUsedByTag(MemoryTag.NATIVE_TABLE_READER);
+                    final int readCount = rf.readCount;
+                    readAhead.readAhead(0);
+                    Assert.assertTrue(rf.readCount > readCount);
+                    // buffers are allocated on first read and kept until the frames are cleared
+                    final long buffersSize = Unsafe.getMemUsedByTag(MemoryTag.NATIVE_TABLE_READER) - memUsed;
+                    Assert.assertTrue(buffersSize >= BUFFER_SIZE);
+                    readAhead.clear();
+                    Assert.assertEquals(memUsed, Unsafe.getMemUsedByTag(MemoryTag.NATIVE_TABLE_READER));
+                }
+            }
+        });
+    }
+
+    @Test
+    public void testDisabled() throws Exception {
+        assertMemoryLeak(() -> {
+            ddl("create table x as (select x l, timestamp_sequence('2024-01-01', 60000000) ts from long_sequence(3000)) timestamp(ts) partition by day");
+            final CountingIOURingFacade rf = new CountingIOURingFacade();
+            try (
+                    RecordCursorFactory factory = select("x");
+                    PageFrameCursor cursor = factory.getPageFrameCursor(sqlExecutionContext, DataFrameCursorFactory.ORDER_ASC);
+                    PageFrameReadAhead readAhead = new PageFrameReadAhead(new ReadAheadConfiguration(configuration, rf, false))
+            ) {
+                Assert.assertFalse(readAhead.isEnabled());
+                int frameCount = 0;
+                PageFrame frame;
+                while ((frame = cursor.next()) != null) {
+                    readAhead.add(frame);
+                    frameCount++;
+                }
+                for (int i = 0; i < frameCount; i++) {
+                    readAhead.readAhead(i);
+                }
+                Assert.assertEquals(0, rf.readCount);
+            }
+        });
+    }
+
+    @Test
+    public void testReadsFramesAhead() throws Exception {
+        Assume.assumeTrue(IOURingFacadeImpl.INSTANCE.isAvailable());
+        assertMemoryLeak(() -> {
+            ddl("create table x as (select x::int i, x l, x * 0.5 d, timestamp_sequence('2024-01-01', 60000000) ts from long_sequence(3000)) timestamp(ts) partition by day");
+            ddl("alter table x add column j long");
+            ddl("insert into x(i, l, d, ts, j) select x::int, x, x * 0.5, timestamp_sequence('2024-01-03T02', 60000000), x from long_sequence(500)");
+
+            final CountingIOURingFacade rf = new CountingIOURingFacade();
+            try (
+                    RecordCursorFactory factory = select("x");
+                    PageFrameCursor cursor = factory.getPageFrameCursor(sqlExecutionContext, DataFrameCursorFactory.ORDER_ASC);
+                    PageFrameReadAhead readAhead = new PageFrameReadAhead(new ReadAheadConfiguration(configuration, rf, true))
+            ) {
+                Assert.assertTrue(readAhead.isEnabled());
+                // cumulative size of the mapped pages of the frames
+                final LongList frameSizes = new LongList();
+                long totalSize = 0;
+                PageFrame frame;
+                while ((frame = cursor.next()) != null) {
+                    readAhead.add(frame);
+                    for (int columnIndex = 0, n = factory.getMetadata().getColumnCount(); columnIndex < n; columnIndex++) {
+                        if (frame.getPageAddress(columnIndex) != 0) {
+                            totalSize += frame.getPageSize(columnIndex);
+                        }
+                    }
+                    frameSizes.add(totalSize);
+                }
+                final int frameCount = frameSizes.size();
+                Assert.assertTrue(frameCount > READ_AHEAD_FRAMES);
+
+                for (int i = 0; i < frameCount; i++) {
+                    final long expectedSize = frameSizes.getQuick(Math.min(i + READ_AHEAD_FRAMES, frameCount) - 1);
+                    for (int spin = 0; spin < 10_000 && rf.readSize < expectedSize; spin++) {
+                        readAhead.readAhead(i);
+                        Os.pause();
+                    }
+                    // frames beyond the read-ahead distance are not read
+                    Assert.assertEquals(expectedSize, rf.readSize);
+                }
+                Assert.assertEquals(totalSize, rf.readSize);
+
+                // start over, the frames are read again
+                readAhead.toTop();
+                readAhead.readAhead(0);
+                readAhead.clear();
+                Assert.assertTrue(rf.readSize > totalSize);
+            }
+        });
+    }
+
+    @Test
+    public void testVarSizeDataReadAfterAux() throws Exception {
+        Assume.assumeTrue(IOURingFacadeImpl.INSTANCE.isAvailable());
+        assertMemoryLeak(() -> {
+            final int rowCount = 1000;
+            ddl("create table x as (select x l, 's' || x s, timestamp_sequence('2024-01-01', 1000000) ts from long_sequence(" + rowCount + ")) timestamp(ts) partition by day");
+
+            final CountingIOURingFacade rf = new CountingIOURingFacade();
+            try (
+                    RecordCursorFactory factory = select("x");
+                    PageFrameCursor cursor = factory.getPageFrameCursor(sqlExecutionContext, DataFrameCursorFactory.ORDER_ASC);
+                    PageFrameReadAhead readAhead = new PageFrameReadAhead(new ReadAheadConfiguration(configuration, rf, true))
+            ) {
+                final PageFrame frame = cursor.next();
+                Assert.assertNotNull(frame);
+                Assert.assertEquals(rowCount, frame.getPartitionHi() - frame.getPartitionLo());
+                readAhead.add(frame);
+                Assert.assertNull(cursor.next());
+
+                // data vector range of the string column waits for its aux vector range
+                readAhead.readAhead(0);
+                Assert.assertEquals(8L * rowCount + 8L * rowCount, rf.readSize);
+
+                long dataSize = 0;
+                for (int i = 1; i <= rowCount; i++) {
+                    dataSize += Integer.BYTES + 2L * (1 + String.valueOf(i).length());
+                }
+                final long totalSize = 8L * rowCount + 8L * rowCount + dataSize + 8L * rowCount;
+                for (int spin = 0; spin < 10_000 && rf.readSize < totalSize; spin++) {
+                    readAhead.readAhead(0);
+                    Os.pause();
+                }
+                Assert.assertEquals(totalSize, rf.readSize);
+            }
+        });
+    }
+
+    private static class CountingIOURingFacade extends IOURingFacadeImpl {
+        private int readCount;
+        private long readSize;
+
+        @Override
+        public IOURing newInstance(int capacity) {
+            return new IOURingImpl(this, capacity) {
+                @Override
+                public long enqueueRead(int fd, long offset, long bufAddr, int len) {
+                    final long id = super.enqueueRead(fd, offset, bufAddr, len);
+                    if (id > -1) {
+                        readCount++;
+                        readSize += len;
+                    }
+                    return id;
+                }
+            };
+        }
+    }
+
+    private static class ReadAheadConfiguration extends CairoConfigurationWrapper {
+        private final boolean enabled;
+        private final IOURingFacade rf;
+
+        private ReadAheadConfiguration(CairoConfiguration delegate, IOURingFacade rf, boolean enabled) {
+            super(delegate);
+            this.rf = rf;
+            this.enabled = enabled;
+        }
+
+        @Override
+        public @NotNull IOURingFacade getIOURingFacade() {
+            return rf;
+        }
+
+        @Override
+        public int getSqlParallelFilterReadAheadBufferSize() {
+            // small buffers to read column ranges in several chunks
+            return BUFFER_SIZE;
+        }
+
+        @Override
+        public int getSqlParallelFilterReadAheadFrames() {
+            return READ_AHEAD_FRAMES;
+        }
+
+        @Override
+        public boolean isIOURingEnabled() {
+            return true;
+        }
+
+        @Override
+        public boolean isSqlParallelFilterReadAheadEnabled() {
+            return enabled;
+        }
+    }
+}
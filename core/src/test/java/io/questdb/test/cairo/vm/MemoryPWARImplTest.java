@@ -0,0 +1,187 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.test.cairo.vm;
+
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.CommitMode;
+import io.questdb.cairo.TableUtils;
+import io.questdb.cairo.vm.MemoryPWARImpl;
+import io.questdb.cairo.vm.Vm;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.std.*;
+import io.questdb.std.str.Path;
+import io.questdb.test.std.TestFilesFacadeImpl;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.util.function.LongUnaryOperator;
+
+public class MemoryPWARImplTest {
+    private static final Log LOG = LogFactory.getLog(MemoryPWARImplTest.class);
+    private static final FilesFacade ff = TestFilesFacadeImpl.INSTANCE;
+    private static final long pageSize = Files.PAGE_SIZE;
+    @ClassRule
+    public static TemporaryFolder temp = new TemporaryFolder();
+
+    @Test
+    public void testAppendIsWrittenOnPageSwitchAndFlush() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            try (Path path = new Path().of(temp.newFile().getAbsolutePath()).$()) {
+                final long count = (pageSize * 3 + pageSize / 2) / Long.BYTES;
+                try (MemoryPWARImpl mem = newMemory(path)) {
+                    for (long i = 0; i < count; i++) {
+                        mem.putLong(i);
+                    }
+                    // full pages are written once the memory moves past them
+                    Assert.assertEquals(3 * pageSize, ff.length(mem.getFd()));
+                    mem.flush();
+                    Assert.assertEquals(count * Long.BYTES, ff.length(mem.getFd()));
+                    mem.close(true, Vm.TRUNCATE_TO_POINTER);
+                }
+                assertFileLongs(path, count, i -> i);
+            }
+        });
+    }
+
+    @Test
+    public void testEnqueueFlush() throws Exception {
+        Assume.assumeTrue(IOURingFacadeImpl.INSTANCE.isAvailable());
+        TestUtils.assertMemoryLeak(() -> {
+            try (
+                    Path path = new Path().of(temp.newFile().getAbsolutePath()).$();
+                    IOURing ring = IOURingFacadeImpl.INSTANCE.newInstance(4)
+            ) {
+                final long count = (pageSize + pageSize / 4) / Long.BYTES;
+                try (MemoryPWARImpl mem = newMemory(path)) {
+                    for (long i = 0; i < count; i++) {
+                        mem.putLong(i * 3);
+                    }
+                    final int len = mem.enqueueFlush(ring);
+                    Assert.assertEquals(count * Long.BYTES - pageSize, len);
+                    Assert.assertEquals(0, mem.enqueueFlush(ring));
+                    Assert.assertEquals(1, ring.submitAndWait());
+                    while (!ring.nextCqe()) {
+                        Os.pause();
+                    }
+                    Assert.assertEquals(len, ring.getCqeRes());
+                    Assert.assertEquals(count * Long.BYTES, ff.length(mem.getFd()));
+                    mem.close(true, Vm.TRUNCATE_TO_POINTER);
+                }
+                assertFileLongs(path, count, i -> i * 3);
+            }
+        });
+    }
+
+    @Test
+    public void testJumpBackOverwrites() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            try (Path path = new Path().of(temp.newFile().getAbsolutePath()).$()) {
+                final long count = 3 * pageSize / Long.BYTES;
+                final long from = count / 6;
+                try (MemoryPWARImpl mem = newMemory(path)) {
+                    for (long i = 0; i < count; i++) {
+                        mem.putLong(i);
+                    }
+                    mem.flush();
+
+                    // back to the first page, which has to be read from the file
+                    mem.jumpTo(from * Long.BYTES);
+                    Assert.assertEquals(from - 1, mem.getLong((from - 1) * Long.BYTES));
+                    Assert.assertEquals(from, mem.getLong(from * Long.BYTES));
+                    for (long i = from; i < count; i++) {
+                        mem.putLong(-i);
+                    }
+
+                    // back within the current page
+                    mem.jumpTo((count - 10) * Long.BYTES);
+                    mem.putLong(42);
+                    mem.jumpTo(count * Long.BYTES);
+                    mem.close(true, Vm.TRUNCATE_TO_POINTER);
+                }
+                assertFileLongs(path, count, i -> i < from ? i : i == count - 10 ? 42 : -i);
+            }
+        });
+    }
+
+    @Test
+    public void testJumpForwardKeepsFileContent() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            try (Path path = new Path().of(temp.newFile().getAbsolutePath()).$()) {
+                final long prefixCount = 100;
+                final long count = pageSize / Long.BYTES + prefixCount;
+                try (MemoryPWARImpl mem = newMemory(path)) {
+                    mem.putLong(0);
+                    mem.flush();
+
+                    // the rest of the prefix is written to the file directly, as WalWriter does for nulls
+                    final long size = prefixCount * Long.BYTES;
+                    final long address = TableUtils.mapRW(ff, mem.getFd(), size, MemoryTag.MMAP_DEFAULT);
+                    try {
+                        for (long i = 1; i < prefixCount; i++) {
+                            Unsafe.getUnsafe().putLong(address + i * Long.BYTES, i);
+                        }
+                    } finally {
+                        ff.munmap(address, size, MemoryTag.MMAP_DEFAULT);
+                    }
+
+                    mem.jumpTo(size);
+                    Assert.assertEquals(prefixCount - 1, mem.getLong(size - Long.BYTES));
+                    for (long i = prefixCount; i < count; i++) {
+                        mem.putLong(i);
+                    }
+                    mem.close(true, Vm.TRUNCATE_TO_POINTER);
+                }
+                assertFileLongs(path, count, i -> i);
+            }
+        });
+    }
+
+    private static void assertFileLongs(Path path, long count, LongUnaryOperator expected) {
+        final long size = count * Long.BYTES;
+        Assert.assertEquals(size, ff.length(path.$()));
+        final int fd = TableUtils.openRO(ff, path.$(), LOG);
+        final long address = TableUtils.mapRO(ff, fd, size, MemoryTag.MMAP_DEFAULT);
+        try {
+            for (long i = 0; i < count; i++) {
+                Assert.assertEquals("offset " + i * Long.BYTES, expected.applyAsLong(i), Unsafe.getUnsafe().getLong(address + i * Long.BYTES));
+            }
+        } finally {
+            ff.munmap(address, size, MemoryTag.MMAP_DEFAULT);
+            ff.close(fd);
+        }
+    }
+
+    private static MemoryPWARImpl newMemory(Path path) {
+        MemoryPWARImpl mem = new MemoryPWARImpl(CommitMode.NOSYNC);
+        mem.of(ff, path.$(), pageSize, MemoryTag.MMAP_DEFAULT, CairoConfiguration.O_NONE);
+        return mem;
+    }
+}
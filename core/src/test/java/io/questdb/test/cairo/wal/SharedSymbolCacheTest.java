@@ -0,0 +1,188 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.test.cairo.wal;
+
+import io.questdb.PropertyKey;
+import io.questdb.cairo.TableToken;
+import io.questdb.cairo.TableWriter;
+import io.questdb.cairo.sql.SymbolTable;
+import io.questdb.cairo.wal.SharedSymbolCache;
+import io.questdb.cairo.wal.SharedSymbolCacheRegistry;
+import io.questdb.cairo.wal.WalWriter;
+import io.questdb.std.str.Utf8String;
+import io.questdb.test.AbstractCairoTest;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class SharedSymbolCacheTest extends AbstractCairoTest {
+
+    @Test
+    public void testConcurrentLookups() throws Exception {
+        final int symbolCount = 10_000;
+        final int readerCount = 4;
+        final SharedSymbolCache cache = new SharedSymbolCache(symbolCount);
+        final Utf8String[] values = new Utf8String[symbolCount];
+        for (int i = 0; i < symbolCount; i++) {
+            values[i] = new Utf8String("sym" + i);
+        }
+
+        final CyclicBarrier barrier = new CyclicBarrier(readerCount + 1);
+        final AtomicInteger errors = new AtomicInteger();
+        final Thread[] readers = new Thread[readerCount];
+        for (int t = 0; t < readerCount; t++) {
+            readers[t] = new Thread(() -> {
+                try {
+                    barrier.await();
+                    int found = 0;
+                    while (found < symbolCount) {
+                        found = 0;
+                        for (int i = 0; i < symbolCount; i++) {
+                            final int key = cache.keyOf(values[i]);
+                            if (key == i) {
+                                found++;
+                            } else if (key != SymbolTable.VALUE_NOT_FOUND) {
+                                errors.incrementAndGet();
+                                return;
+                            }
+                        }
+                    }
+                } catch (Throwable e) {
+                    e.printStackTrace();
+                    errors.incrementAndGet();
+                }
+            });
+            readers[t].start();
+        }
+
+        barrier.await();
+        for (int i = 0; i < symbolCount; i++) {
+            cache.put(values[i], i);
+        }
+        for (Thread reader : readers) {
+            reader.join();
+        }
+        Assert.assertEquals(0, errors.get());
+        Assert.assertEquals(symbolCount, cache.size());
+    }
+
+    @Test
+    public void testMaxSize() {
+        final SharedSymbolCache cache = new SharedSymbolCache(3);
+        for (int i = 0; i < 5; i++) {
+            cache.put(new Utf8String("sym" + i), i);
+        }
+        Assert.assertEquals(3, cache.size());
+        Assert.assertEquals(2, cache.keyOf(new Utf8String("sym2")));
+        Assert.assertEquals(SymbolTable.VALUE_NOT_FOUND, cache.keyOf(new Utf8String("sym3")));
+    }
+
+    @Test
+    public void testPutDuplicate() {
+        final SharedSymbolCache cache = new SharedSymbolCache(100);
+        cache.put(new Utf8String("a"), 0);
+        cache.put(new Utf8String("a"), 1);
+        Assert.assertEquals(1, cache.size());
+        Assert.assertEquals(0, cache.keyOf(new Utf8String("a")));
+        Assert.assertEquals(SymbolTable.VALUE_NOT_FOUND, cache.keyOf(new Utf8String("b")));
+    }
+
+    @Test
+    public void testRegistryDisabled() throws Exception {
+        node1.setProperty(PropertyKey.CAIRO_WAL_SHARED_SYMBOL_CACHE_MAX_SIZE, 0);
+        assertMemoryLeak(() -> {
+            TableToken tableToken = createTable();
+            Assert.assertNull(new SharedSymbolCacheRegistry(configuration).getSymbolCache(tableToken, 0));
+        });
+    }
+
+    @Test
+    public void testWalWritersShareCommittedSymbols() throws Exception {
+        assertMemoryLeak(() -> {
+            TableToken tableToken = createTable();
+            insert("insert into x values ('a', '2024-01-01T00')");
+            drainWalQueue();
+            // pooled writers keep the symbol counts they were opened with
+            engine.releaseAllWalWriters();
+
+            final SharedSymbolCacheRegistry registry = engine.getSharedSymbolCacheRegistry();
+            final SharedSymbolCache cache = registry.getSymbolCache(tableToken, 0);
+            Assert.assertNotNull(cache);
+            Assert.assertEquals(0, cache.size());
+
+            try (WalWriter walWriter = engine.getWalWriter(tableToken)) {
+                TableWriter.Row row = walWriter.newRow(1000);
+                TestUtils.putUtf8(row, "a", 0, true);
+                row.append();
+                row = walWriter.newRow(2000);
+                TestUtils.putUtf8(row, "b", 0, true);
+                row.append();
+                walWriter.commit();
+            }
+            // only the symbol committed to the table is shared, 'b' is local to the WAL transaction
+            Assert.assertEquals(1, cache.size());
+            Assert.assertEquals(0, cache.keyOf(new Utf8String("a")));
+            drainWalQueue();
+            engine.releaseAllWalWriters();
+
+            // a new writer resolves 'a' from the shared cache
+            try (WalWriter walWriter = engine.getWalWriter(tableToken)) {
+                TableWriter.Row row = walWriter.newRow(3000);
+                TestUtils.putUtf8(row, "a", 0, true);
+                row.append();
+                row = walWriter.newRow(4000);
+                TestUtils.putUtf8(row, "b", 0, true);
+                row.append();
+                walWriter.commit();
+            }
+            Assert.assertEquals(2, cache.size());
+            Assert.assertEquals(1, cache.keyOf(new Utf8String("b")));
+            drainWalQueue();
+
+            assertSql(
+                    "s\tts\n" +
+                            "a\t1970-01-01T00:00:00.001000Z\n" +
+                            "b\t1970-01-01T00:00:00.002000Z\n" +
+                            "a\t1970-01-01T00:00:00.003000Z\n" +
+                            "b\t1970-01-01T00:00:00.004000Z\n" +
+                            "a\t2024-01-01T00:00:00.000000Z\n",
+                    "x"
+            );
+
+            drop("drop table x");
+            drainWalQueue();
+            Assert.assertNotSame(cache, registry.getSymbolCache(tableToken, 0));
+        });
+    }
+
+    private TableToken createTable() throws Exception {
+        ddl("create table x (s symbol, ts timestamp) timestamp(ts) partition by day wal");
+        return engine.verifyTableName("x");
+    }
+}
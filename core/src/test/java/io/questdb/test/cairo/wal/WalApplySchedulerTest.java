@@ -0,0 +1,198 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.test.cairo.wal;
+
+import io.questdb.cairo.CairoException;
+import io.questdb.cairo.TableToken;
+import io.questdb.cairo.security.ReadOnlySecurityContext;
+import io.questdb.cairo.wal.WalApplyScheduler;
+import io.questdb.cairo.wal.WalUtils;
+import io.questdb.griffin.CompiledQuery;
+import io.questdb.griffin.SqlCompiler;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContextImpl;
+import io.questdb.std.str.Path;
+import io.questdb.test.AbstractCairoTest;
+import io.questdb.test.tools.TestUtils;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class WalApplySchedulerTest extends AbstractCairoTest {
+
+    @Override
+    @After
+    public void tearDown() throws Exception {
+        currentMicros = -1;
+        super.tearDown();
+    }
+
+    @Test
+    public void testDuplicateNotificationKeepsWaitTime() throws Exception {
+        assertMemoryLeak(() -> {
+            TableToken a = createWalTable("a");
+            TableToken b = createWalTable("b");
+            WalApplyScheduler scheduler = new WalApplyScheduler(configuration.getMicrosecondClock(), engine.getTableSequencerAPI());
+
+            currentMicros = 1_000_000;
+            scheduler.add(a);
+            currentMicros = 2_000_000;
+            scheduler.add(b);
+            currentMicros = 3_000_000;
+            scheduler.add(a);
+            Assert.assertEquals(2, scheduler.getPendingCount());
+
+            currentMicros = 4_000_000;
+            Assert.assertEquals(a, scheduler.poll());
+            Assert.assertEquals(b, scheduler.poll());
+            Assert.assertNull(scheduler.poll());
+        });
+    }
+
+    @Test
+    public void testEqualPrioritiesInArrivalOrder() throws Exception {
+        assertMemoryLeak(() -> {
+            TableToken a = createWalTable("a");
+            TableToken b = createWalTable("b");
+            TableToken c = createWalTable("c");
+            WalApplyScheduler scheduler = new WalApplyScheduler(configuration.getMicrosecondClock(), engine.getTableSequencerAPI());
+
+            currentMicros = 1_000_000;
+            scheduler.add(b);
+            currentMicros = 1_000_001;
+            scheduler.add(c);
+            currentMicros = 1_000_002;
+            scheduler.add(a);
+
+            currentMicros = 2_000_000;
+            Assert.assertEquals(b, scheduler.poll());
+            Assert.assertEquals(c, scheduler.poll());
+            Assert.assertEquals(a, scheduler.poll());
+            Assert.assertNull(scheduler.poll());
+            Assert.assertEquals(0, scheduler.getPendingCount());
+        });
+    }
+
+    @Test
+    public void testPriorityOutweighsWaitTime() throws Exception {
+        assertMemoryLeak(() -> {
+            TableToken hot = createWalTable("hot");
+            TableToken sla = createWalTable("sla");
+            ddl("alter table sla set wal priority 9");
+            WalApplyScheduler scheduler = new WalApplyScheduler(configuration.getMicrosecondClock(), engine.getTableSequencerAPI());
+
+            currentMicros = 1_000_000;
+            scheduler.add(hot);
+            currentMicros = 5_000_000;
+            scheduler.add(sla);
+
+            // hot waited 5s with weight 1, sla waited 1s with weight 10
+            currentMicros = 6_000_000;
+            Assert.assertEquals(sla, scheduler.poll());
+            Assert.assertEquals(hot, scheduler.poll());
+
+            // with long enough wait the low priority table goes first
+            currentMicros = 10_000_000;
+            scheduler.add(hot);
+            currentMicros = 30_000_000;
+            scheduler.add(sla);
+            currentMicros = 31_000_000;
+            Assert.assertEquals(hot, scheduler.poll());
+            Assert.assertEquals(sla, scheduler.poll());
+        });
+    }
+
+    @Test
+    public void testSetWalPriority() throws Exception {
+        assertMemoryLeak(() -> {
+            TableToken tableToken = createWalTable("x");
+            Assert.assertEquals(WalUtils.WAL_PRIORITY_DEFAULT, engine.getTableSequencerAPI().getWalPriority(tableToken));
+
+            try (SqlCompiler compiler = engine.getSqlCompiler()) {
+                Assert.assertEquals(CompiledQuery.TABLE_SET_WAL_PRIORITY, compiler.compile("alter table x set wal priority 42", sqlExecutionContext).getType());
+            }
+            Assert.assertEquals(42, engine.getTableSequencerAPI().getWalPriority(tableToken));
+            Assert.assertFalse(walPriorityTmpFileExists(tableToken));
+
+            // priority is persisted and survives tracker reload
+            engine.getTableSequencerAPI().releaseAll();
+            Assert.assertEquals(42, engine.getTableSequencerAPI().getTxnTracker(tableToken).getWalPriority());
+
+            ddl("alter table x set wal priority 0");
+            Assert.assertEquals(0, engine.getTableSequencerAPI().getWalPriority(tableToken));
+
+            // data is still applied
+            insert("insert into x values (1, '2024-01-01')");
+            drainWalQueue();
+            assertSql("i\tts\n1\t2024-01-01T00:00:00.000000Z\n", "x");
+        });
+    }
+
+    @Test
+    public void testSetWalPriorityErrors() throws Exception {
+        assertMemoryLeak(() -> {
+            createWalTable("x");
+            ddl("create table y (i int, ts timestamp) timestamp(ts) partition by day bypass wal");
+
+            assertException("alter table x set wal priority 101", 31, "WAL priority must be between 0 and 100");
+            assertException("alter table x set wal priority high", 31, "invalid value [value=high]");
+            assertException("alter table x set wal prio 1", 22, "'priority' expected");
+            assertException("alter table x set wal priority", 30, "priority value expected");
+            assertException("alter table y set wal priority 1", 12, "y is not a WAL table.");
+            assertException("alter table x set foo", 18, "'param', 'type' or 'wal' expected");
+        });
+    }
+
+    @Test
+    public void testSetWalPriorityReadOnly() throws Exception {
+        assertMemoryLeak(() -> {
+            TableToken tableToken = createWalTable("x");
+            try (
+                    SqlCompiler compiler = engine.getSqlCompiler();
+                    SqlExecutionContextImpl readOnlyContext = new SqlExecutionContextImpl(engine, 1)
+            ) {
+                readOnlyContext.with(ReadOnlySecurityContext.INSTANCE);
+                compiler.compile("alter table x set wal priority 1", readOnlyContext);
+                Assert.fail();
+            } catch (CairoException e) {
+                TestUtils.assertContains(e.getFlyweightMessage(), "Write permission denied");
+            }
+            Assert.assertEquals(WalUtils.WAL_PRIORITY_DEFAULT, engine.getTableSequencerAPI().getWalPriority(tableToken));
+        });
+    }
+
+    private static boolean walPriorityTmpFileExists(TableToken tableToken) {
+        try (Path path = new Path()) {
+            path.of(configuration.getRoot()).concat(tableToken).concat(WalUtils.SEQ_DIR).concat(WalUtils.WAL_PRIORITY_FILE_NAME).put(".tmp").$();
+            return configuration.getFilesFacade().exists(path);
+        }
+    }
+
+    private TableToken createWalTable(String tableName) throws SqlException {
+        ddl("create table " + tableName + " (i int, ts timestamp) timestamp(ts) partition by day wal");
+        return engine.verifyTableName(tableName);
+    }
+}
@@ -275,6 +275,9 @@ public class LineSenderBuilderTest extends AbstractLineTcpReceiverTest {
             assertConfStrError("http::addr=localhost;auto_flush=off;auto_flush_interval=1;", "cannot set auto flush interval when interval based auto-flush is already disabled");
             assertConfStrError("http::addr=localhost;auto_flush=off;auto_flush_rows=1;", "cannot set auto flush rows when auto-flush is already disabled");
             assertConfStrError("http::addr=localhost;auto_flush_bytes=1024;", "auto_flush_bytes is only supported for TCP transport");
+            assertConfStrError("http::addr=localhost;max_in_flight=0;", "max in-flight requests must be positive [maxInFlightRequests=0]");
+            assertConfStrError("http::addr=localhost;max_in_flight=notanumber;", "invalid max_in_flight [value=notanumber]");
+            assertConfStrError("tcp::addr=localhost;max_in_flight=2;", "in-flight requests are not supported for TCP protocol");
 
             assertConfStrOk("addr=localhost:8080", "auto_flush_rows=100");
             assertConfStrOk("addr=localhost:8080", "auto_flush=on", "auto_flush_rows=100");
@@ -298,6 +301,7 @@ public class LineSenderBuilderTest extends AbstractLineTcpReceiverTest {
             assertConfStrOk("http::addr=localhost;auto_flush_interval=off;");
             assertConfStrOk("http::addr=localhost;auto_flush_rows=off;");
             assertConfStrOk("http::addr=localhost;auto_flush_interval=off;auto_flush_rows=off;");
+            assertConfStrOk("http::addr=localhost;max_in_flight=4;");
             assertConfStrOk("http::addr=localhost;auto_flush_interval=off;auto_flush_rows=1;");
             assertConfStrOk("http::addr=localhost;auto_flush_rows=off;auto_flush_interval=1;");
             assertConfStrOk("http::addr=localhost;auto_flush_interval=off;auto_flush_rows=off;auto_flush=off;");
@@ -740,6 +744,18 @@ public class LineSenderBuilderTest extends AbstractLineTcpReceiverTest {
         });
     }
 
+    @Test
+    public void testMaxInFlightRequestsNotSupportedForTcp() throws Exception {
+        assertMemoryLeak(() -> {
+            try {
+                Sender.builder(Sender.Transport.TCP).address(LOCALHOST).maxInFlightRequests(2).build();
+                fail("in-flight requests should not be supported for TCP");
+            } catch (LineSenderException e) {
+                TestUtils.assertContains(e.getMessage(), "in-flight requests are not supported for TCP protocol");
+            }
+        });
+    }
+
     @Test
     public void testMaxRetriesNotSupportedForTcp() throws Exception {
         assertMemoryLeak(() -> {
@@ -351,20 +351,52 @@ public class LineHttpSenderMockServerTest extends AbstractTest {
             } catch (LineSenderException e) {
                 TestUtils.assertContains(e.getMessage(), "Could not flush buffer: Internal Server Error [http-status=500]");
             }
-        }, DEFAULT_FACTORY.andThen(b -> b.retryTimeoutMillis(1000)));
+            // the row is kept for another flush, the server keeps failing, so close() must not flush it
+        }, DEFAULT_FACTORY.andThen(b -> b.retryTimeoutMillis(1000).disableAutoFlush()));
     }
 
     @Test
     public void testRetryingDisabled() throws Exception {
         MockHttpProcessor mockHttpProcessor = new MockHttpProcessor()
                 .withExpectedContent("test,sym=bol x=1.0\n")
-                .replyWithContent(500, "do not dare to retry", "plain/text");
+                .replyWithContent(500, "do not dare to retry", "plain/text")
+                .withExpectedContent("test,sym=bol x=1.0\n")
+                .replyWithStatus(204);
 
+        // the row survives the error and is flushed on close
         testWithMock(mockHttpProcessor, errorVerifier("Could not flush buffer: do not dare to retry [http-status=500]"),
                 DEFAULT_FACTORY.andThen(b -> b.retryTimeoutMillis(0))
         );
     }
 
+    @Test
+    public void testServerErrorKeepsRows() throws Exception {
+        MockHttpProcessor mockHttpProcessor = new MockHttpProcessor()
+                .withExpectedContent("test,sym=bol x=1.0\n")
+                .replyWithContent(500, "Internal Server Error", "text/plain")
+                .withExpectedContent("test,sym=bol x=1.0\ntest,sym=bol x=2.0\n")
+                .replyWithStatus(204);
+
+        testWithMock(mockHttpProcessor, sender -> {
+            sender.table("test")
+                    .symbol("sym", "bol")
+                    .doubleColumn("x", 1.0)
+                    .atNow();
+            try {
+                sender.flush();
+                Assert.fail("Exception expected");
+            } catch (LineSenderException e) {
+                TestUtils.assertContains(e.getMessage(), "Could not flush buffer: Internal Server Error [http-status=500]");
+            }
+            // rows the server failed to process are sent again with the next flush
+            sender.table("test")
+                    .symbol("sym", "bol")
+                    .doubleColumn("x", 2.0)
+                    .atNow();
+            sender.flush();
+        }, DEFAULT_FACTORY.andThen(b -> b.retryTimeoutMillis(0)), true);
+    }
+
     @Test
     public void testTextPlainError() throws Exception {
         MockHttpProcessor mockHttpProcessor = new MockHttpProcessor()
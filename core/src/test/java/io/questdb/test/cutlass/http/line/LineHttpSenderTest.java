@@ -27,13 +27,16 @@ package io.questdb.test.cutlass.http.line;
 import io.questdb.DefaultHttpClientConfiguration;
 import io.questdb.PropertyKey;
 import io.questdb.ServerMain;
+import io.questdb.client.ColumnarBatch;
 import io.questdb.client.Sender;
 import io.questdb.cutlass.line.LineSenderException;
 import io.questdb.cutlass.line.http.LineHttpSender;
 import io.questdb.griffin.model.IntervalUtils;
 import io.questdb.std.NumericException;
+import io.questdb.std.ObjList;
 import io.questdb.std.Os;
 import io.questdb.std.Rnd;
+import io.questdb.std.datetime.microtime.Timestamps;
 import io.questdb.test.AbstractBootstrapTest;
 import io.questdb.test.TestServerMain;
 import io.questdb.test.tools.TestUtils;
@@ -43,6 +46,8 @@ import org.junit.Test;
 
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 import static io.questdb.PropertyKey.DEBUG_FORCE_RECV_FRAGMENTATION_CHUNK_SIZE;
 import static io.questdb.PropertyKey.LINE_HTTP_ENABLED;
@@ -115,6 +120,148 @@ public class LineHttpSenderTest extends AbstractBootstrapTest {
         });
     }
 
+    @Test
+    public void testColumnarBatch() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            try (final TestServerMain serverMain = startWithEnvVariables(
+                    PropertyKey.HTTP_RECEIVE_BUFFER_SIZE.getEnvVarName(), "2048"
+            )) {
+                serverMain.start();
+                serverMain.compile("create table col_tbl (sym symbol, i int, l long, d double, f float, b boolean, s varchar, str string, tss timestamp, ts timestamp) timestamp(ts) partition by DAY WAL");
+
+                // blocks are smaller than the receive buffer, but the batch spans several receive chunks
+                final int blockCount = 30;
+                final int rowsPerBlock = 10;
+                final String[] symbols = new String[rowsPerBlock];
+                final long[] longs = new long[rowsPerBlock];
+                final double[] doubles = new double[rowsPerBlock];
+                final boolean[] booleans = new boolean[rowsPerBlock];
+                final String[] strings = new String[rowsPerBlock];
+                final long[] millis = new long[rowsPerBlock];
+                final long[] timestamps = new long[rowsPerBlock];
+
+                int port = serverMain.getHttpServerPort();
+                try (
+                        Sender sender = Sender.builder(Sender.Transport.HTTP)
+                                .address("localhost:" + port)
+                                .autoFlushRows(Integer.MAX_VALUE)
+                                .build();
+                        ColumnarBatch batch = new ColumnarBatch(256)
+                ) {
+                    // rows added with the row API are sent ahead of the batch
+                    sender.table("col_tbl").symbol("sym", "row").longColumn("l", -1).at(0, ChronoUnit.MICROS);
+
+                    for (int b = 0; b < blockCount; b++) {
+                        for (int r = 0; r < rowsPerBlock; r++) {
+                            final int row = b * rowsPerBlock + r;
+                            symbols[r] = "s" + (row % 3);
+                            longs[r] = row;
+                            doubles[r] = row * 0.5;
+                            booleans[r] = row % 2 == 0;
+                            strings[r] = r == 0 ? null : "v" + row;
+                            millis[r] = row;
+                            timestamps[r] = (row + 1) * Timestamps.SECOND_MICROS;
+                        }
+                        batch.table("col_tbl")
+                                .symbolColumn("sym", symbols)
+                                .longColumn("i", longs)
+                                .longColumn("l", longs)
+                                .doubleColumn("d", doubles)
+                                .doubleColumn("f", doubles)
+                                .boolColumn("b", booleans)
+                                .stringColumn("s", strings)
+                                .stringColumn("str", strings)
+                                .timestampColumn("tss", millis, ChronoUnit.MILLIS)
+                                .longColumn("new_col", longs)
+                                .at(timestamps, ChronoUnit.MICROS);
+                    }
+                    Assert.assertEquals(blockCount * rowsPerBlock, batch.getRowCount());
+                    sender.columnarBatch(batch);
+                }
+
+                serverMain.awaitTable("col_tbl");
+                serverMain.assertSql(
+                        "select count(), count(s), count(str), sum(i), sum(l), sum(d), sum(f), sum(new_col) from col_tbl",
+                        "count\tcount1\tcount2\tsum\tsum1\tsum2\tsum3\tsum4\n" +
+                                "301\t270\t270\t44850\t44849\t22425.0\t22425.0000\t44850\n"
+                );
+                serverMain.assertSql(
+                        "select * from col_tbl limit 3",
+                        "sym\ti\tl\td\tf\tb\ts\tstr\ttss\tts\tnew_col\n" +
+                                "row\tnull\t-1\tnull\tnull\tfalse\t\t\t\t1970-01-01T00:00:00.000000Z\tnull\n" +
+                                "s0\t0\t0\t0.0\t0.0000\ttrue\t\t\t1970-01-01T00:00:00.000000Z\t1970-01-01T00:00:01.000000Z\t0\n" +
+                                "s1\t1\t1\t0.5\t0.5000\tfalse\tv1\tv1\t1970-01-01T00:00:00.001000Z\t1970-01-01T00:00:02.000000Z\t1\n"
+                );
+            }
+        });
+    }
+
+    @Test
+    public void testColumnarBatchErrors() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            try (final TestServerMain serverMain = startWithEnvVariables(
+                    PropertyKey.HTTP_RECEIVE_BUFFER_SIZE.getEnvVarName(), "2048"
+            )) {
+                serverMain.start();
+                serverMain.compile("create table col_tbl (b byte, s symbol, ts timestamp) timestamp(ts) partition by DAY WAL");
+
+                int port = serverMain.getHttpServerPort();
+                try (
+                        Sender sender = Sender.builder(Sender.Transport.HTTP)
+                                .address("localhost:" + port)
+                                .build();
+                        ColumnarBatch batch = new ColumnarBatch()
+                ) {
+                    batch.table("col_tbl").doubleColumn("b", new double[]{1.5}).at(new long[]{1}, ChronoUnit.MICROS);
+                    sendBatchAndAssertError(
+                            sender,
+                            batch,
+                            "http-status=400",
+                            "error in block 1: table: col_tbl, column: b; cast error from protocol type: DOUBLE to column type: BYTE"
+                    );
+
+                    batch.clear();
+                    batch.table("col_tbl").longColumn("b", new long[]{1, 1024}).at(new long[]{1, 2}, ChronoUnit.MICROS);
+                    sendBatchAndAssertError(
+                            sender,
+                            batch,
+                            "http-status=400",
+                            "error in block 1: table: col_tbl, column: b; line protocol value: 1024 is out bounds of column type: BYTE"
+                    );
+
+                    batch.clear();
+                    batch.table("no_such_tbl").longColumn("b", new long[]{1}).at(new long[]{1}, ChronoUnit.MICROS);
+                    sendBatchAndAssertError(
+                            sender,
+                            batch,
+                            "http-status=400",
+                            "error in block 1: table does not exist, columnar blocks require an existing table"
+                    );
+
+                    batch.clear();
+                    final long[] values = new long[1024];
+                    batch.table("col_tbl").longColumn("l", values).at(values, ChronoUnit.MICROS);
+                    sendBatchAndAssertError(
+                            sender,
+                            batch,
+                            "http-status=413",
+                            "columnar block does not fit QuestDB ILP buffer size"
+                    );
+
+                    try {
+                        batch.table("col_tbl").longColumn("b", new long[]{1}).longColumn("s", new long[]{1, 2});
+                        Assert.fail("Expected exception");
+                    } catch (LineSenderException e) {
+                        TestUtils.assertContains(e.getMessage(), "all columns of a block must have the same number of rows [expected=1, actual=2]");
+                    }
+                }
+
+                serverMain.awaitTable("col_tbl");
+                serverMain.assertSql("select count() from col_tbl", "count\n0\n");
+            }
+        });
+    }
+
     @Test
     public void testFlushAfterTimeout() throws Exception {
         // this is a regression test
@@ -161,6 +308,64 @@ public class LineHttpSenderTest extends AbstractBootstrapTest {
         });
     }
 
+    @Test
+    public void testFlushAsync() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            try (final TestServerMain serverMain = startWithEnvVariables()) {
+                int httpPort = serverMain.getHttpServerPort();
+
+                int batchCount = 20;
+                int batchSize = 1000;
+                String confString = "http::addr=localhost:" + httpPort + ";auto_flush=off;max_in_flight=4;";
+                try (Sender sender = Sender.fromConfig(confString)) {
+                    ObjList<CompletableFuture<Void>> futures = new ObjList<>();
+                    for (int i = 0; i < batchCount; i++) {
+                        for (int j = 0; j < batchSize; j++) {
+                            sender.table("async_tbl")
+                                    .symbol("sym", "s" + j % 10)
+                                    .longColumn("l", i * batchSize + j)
+                                    .at(i * batchSize + j, ChronoUnit.MICROS);
+                        }
+                        futures.add(sender.flushAsync());
+                    }
+                    for (int i = 0, n = futures.size(); i < n; i++) {
+                        futures.getQuick(i).join();
+                    }
+                    sender.flush();
+                }
+                serverMain.awaitTable("async_tbl");
+                serverMain.assertSql(
+                        "select count(), count_distinct(l), min(l), max(l) from async_tbl",
+                        "count\tcount_distinct\tmin\tmax\n" +
+                                batchCount * batchSize + "\t" + batchCount * batchSize + "\t0\t" + (batchCount * batchSize - 1) + "\n"
+                );
+
+                try (Sender sender = Sender.fromConfig(confString)) {
+                    sender.table("async_tbl").stringColumn("l", "not a long").atNow();
+                    CompletableFuture<Void> future = sender.flushAsync();
+                    try {
+                        future.join();
+                        Assert.fail("cast error expected");
+                    } catch (CompletionException e) {
+                        TestUtils.assertContains(e.getCause().getMessage(), "cast error from protocol type: STRING to column type: LONG");
+                    }
+                    // the error is reported by flush as well, even if the future was already inspected
+                    try {
+                        sender.flush();
+                        Assert.fail("cast error expected");
+                    } catch (LineSenderException e) {
+                        TestUtils.assertContains(e.getMessage(), "cast error from protocol type: STRING to column type: LONG");
+                    }
+                    // the sender stays usable after the error was reported
+                    sender.table("async_tbl").longColumn("l", -1).atNow();
+                    sender.flush();
+                }
+                serverMain.awaitTable("async_tbl");
+                serverMain.assertSql("select count() from async_tbl", "count\n" + (batchCount * batchSize + 1) + "\n");
+            }
+        });
+    }
+
     @Test
     public void testAutoFlush() throws Exception {
         Rnd rnd = TestUtils.generateRandom(LOG);
@@ -435,6 +640,17 @@ public class LineHttpSenderTest extends AbstractBootstrapTest {
         }
     }
 
+    private static void sendBatchAndAssertError(Sender sender, ColumnarBatch batch, String... errors) {
+        try {
+            sender.columnarBatch(batch);
+            Assert.fail("Expected exception");
+        } catch (LineSenderException e) {
+            for (String error : errors) {
+                TestUtils.assertContains(e.getMessage(), error);
+            }
+        }
+    }
+
     private static void sendIlp(String tableName, int count, ServerMain serverMain) throws NumericException {
         long timestamp = IntervalUtils.parseFloorPartialTimestamp("2023-11-27T18:53:24.834Z");
         int i = 0;
@@ -119,6 +119,8 @@ public class AbstractLineTcpReceiverTest extends AbstractCairoTest {
     };
     protected int partitionByDefault = PartitionBy.DAY;
     protected boolean useLegacyStringDefault = true;
+    protected boolean walDispatchEnabled = false;
+    protected long writerRebalanceInterval = 0;
 
     protected final LineTcpReceiverConfiguration lineConfiguration = new DefaultLineTcpReceiverConfiguration() {
         @Override
@@ -200,10 +202,20 @@ public class AbstractLineTcpReceiverTest extends AbstractCairoTest {
             return 4;
         }
 
+        @Override
+        public long getWriterRebalanceInterval() {
+            return writerRebalanceInterval;
+        }
+
         @Override
         public boolean isUseLegacyStringDefault() {
             return useLegacyStringDefault;
         }
+
+        @Override
+        public boolean isWalDispatchEnabled() {
+            return walDispatchEnabled;
+        }
     };
 
     public static void assertTableExists(CairoEngine engine, CharSequence tableName) {
@@ -249,6 +261,8 @@ public class AbstractLineTcpReceiverTest extends AbstractCairoTest {
         commitIntervalDefault = 2000;
         partitionByDefault = PartitionBy.DAY;
         disconnectOnError = false;
+        walDispatchEnabled = false;
+        writerRebalanceInterval = 0;
         nf = NetworkFacadeImpl.INSTANCE;
     }
 
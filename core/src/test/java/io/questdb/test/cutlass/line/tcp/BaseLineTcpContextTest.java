@@ -35,6 +35,7 @@ import io.questdb.cutlass.auth.LineAuthenticatorFactory;
 import io.questdb.cutlass.line.tcp.*;
 import io.questdb.log.Log;
 import io.questdb.log.LogFactory;
+import io.questdb.mp.Job;
 import io.questdb.mp.WorkerPool;
 import io.questdb.mp.WorkerPoolConfiguration;
 import io.questdb.network.IODispatcher;
@@ -48,6 +49,7 @@ import io.questdb.std.str.DirectUtf8Sequence;
 import io.questdb.std.str.Utf8String;
 import io.questdb.test.AbstractCairoTest;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import org.junit.Assert;
 import org.junit.Before;
 
@@ -62,6 +64,8 @@ abstract class BaseLineTcpContextTest extends AbstractCairoTest {
     static final int FD = 1_000_000;
     static final Log LOG = LogFactory.getLog(BaseLineTcpContextTest.class);
     protected final AtomicInteger netMsgBufferSize = new AtomicInteger();
+    // writer jobs by worker id, they can be run by hand when the writer pool is not started
+    protected final ObjList<Job> writerJobs = new ObjList<>();
     protected boolean autoCreateNewColumns = true;
     protected boolean autoCreateNewTables = true;
     protected LineTcpConnectionContext context;
@@ -76,9 +80,14 @@ abstract class BaseLineTcpContextTest extends AbstractCairoTest {
     protected NoNetworkIOJob noNetworkIOJob;
     protected String recvBuffer;
     protected LineTcpMeasurementScheduler scheduler;
+    protected boolean startWriterPool;
     protected boolean stringToCharCastAllowed;
     protected boolean symbolAsFieldSupported;
+    protected boolean walDispatchEnabled;
     protected WorkerPool workerPool;
+    protected long writerIdleTimeout;
+    protected int writerQueueCapacity;
+    protected long writerRebalanceInterval;
 
     @Before
     @Override
@@ -95,11 +104,17 @@ abstract class BaseLineTcpContextTest extends AbstractCairoTest {
         useLegacyString = true;
         autoCreateNewColumns = true;
         autoCreateNewTables = true;
+        startWriterPool = true;
+        walDispatchEnabled = false;
+        writerIdleTimeout = 150;
+        writerQueueCapacity = 64;
+        writerRebalanceInterval = 0;
+        writerJobs.clear();
         lineTcpConfiguration = createNoAuthReceiverConfiguration(provideLineTcpNetworkFacade());
         noNetworkIOJob = new NoNetworkIOJob(lineTcpConfiguration);
     }
 
-    private static WorkerPool createWorkerPool(final int workerCount, final boolean haltOnError) {
+    private static WorkerPool createWorkerPool(final int workerCount, final boolean haltOnError, @Nullable ObjList<Job> assignedJobs) {
         return new WorkerPool(new WorkerPoolConfiguration() {
             @Override
             public long getSleepTimeout() {
@@ -115,7 +130,15 @@ abstract class BaseLineTcpContextTest extends AbstractCairoTest {
             public boolean haltOnError() {
                 return haltOnError;
             }
-        }, metrics);
+        }, metrics) {
+            @Override
+            public void assign(int worker, Job job) {
+                if (assignedJobs != null) {
+                    assignedJobs.extendAndSet(worker, job);
+                }
+                super.assign(worker, job);
+            }
+        };
     }
 
     protected void assertTable(CharSequence expected, String tableName) {
@@ -221,16 +244,35 @@ abstract class BaseLineTcpContextTest extends AbstractCairoTest {
 
             @Override
             public long getWriterIdleTimeout() {
-                return 150;
+                return writerIdleTimeout;
+            }
+
+            @Override
+            public int getWriterQueueCapacity() {
+                return writerQueueCapacity;
+            }
+
+            @Override
+            public long getWriterRebalanceInterval() {
+                return writerRebalanceInterval;
             }
 
             @Override
             public boolean isStringToCharCastAllowed() {
                 return stringToCharCastAllowed;
             }
+
+            @Override
+            public boolean isWalDispatchEnabled() {
+                return walDispatchEnabled;
+            }
         };
     }
 
+    protected TableUpdateDetails getTableUpdateDetails(String tableName) {
+        return noNetworkIOJob.localTableUpdateDetailsByTableName.get(new Utf8String(tableName));
+    }
+
     protected boolean handleContextIO0() {
         switch (context.handleIO(noNetworkIOJob)) {
             case QUEUE_FULL:
@@ -278,15 +320,23 @@ abstract class BaseLineTcpContextTest extends AbstractCairoTest {
         });
     }
 
+    protected void runMaintenance(long millis) {
+        scheduler.doMaintenance(noNetworkIOJob.localTableUpdateDetailsByTableName, noNetworkIOJob.getWorkerId(), millis);
+    }
+
+    protected boolean runWriterJob(int workerId) {
+        return writerJobs.getQuick(workerId).run(workerId);
+    }
+
     protected void setupContext(UnstableRunnable onCommitNewEvent) {
         disconnected = false;
         recvBuffer = null;
         scheduler = new LineTcpMeasurementScheduler(
                 lineTcpConfiguration,
                 engine,
-                createWorkerPool(1, true),
+                createWorkerPool(1, true, null),
                 null,
-                workerPool = createWorkerPool(nWriterThreads, false)
+                workerPool = createWorkerPool(nWriterThreads, false, writerJobs)
         ) {
 
             @Override
@@ -351,7 +401,9 @@ abstract class BaseLineTcpContextTest extends AbstractCairoTest {
         });
         Assert.assertFalse(context.invalid());
         Assert.assertEquals(FD, context.getFd());
-        workerPool.start(LOG);
+        if (startWriterPool) {
+            workerPool.start(LOG);
+        }
     }
 
     protected void waitForIOCompletion() {
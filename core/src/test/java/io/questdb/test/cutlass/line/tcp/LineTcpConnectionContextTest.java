@@ -26,6 +26,8 @@ package io.questdb.test.cutlass.line.tcp;
 
 import io.questdb.PropertyKey;
 import io.questdb.cairo.*;
+import io.questdb.cutlass.line.tcp.LineTcpConnectionContext;
+import io.questdb.cutlass.line.tcp.TableUpdateDetails;
 import io.questdb.std.Files;
 import io.questdb.std.Os;
 import io.questdb.std.Rnd;
@@ -39,6 +41,7 @@ import io.questdb.test.std.TestFilesFacadeImpl;
 import io.questdb.test.tools.TestUtils;
 import org.jetbrains.annotations.NotNull;
 import org.junit.Assert;
+import org.junit.Assume;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -1937,6 +1940,125 @@ public class LineTcpConnectionContextTest extends BaseLineTcpContextTest {
         });
     }
 
+    @Test
+    public void testWalDispatchAppendsOnWriterThread() throws Exception {
+        Assume.assumeTrue(walEnabled);
+        walDispatchEnabled = true;
+        startWriterPool = false;
+        runInContext(() -> {
+            dispatch("walDispatch v=1i 1000\nwalDispatch v=2i 2000\n");
+            final TableUpdateDetails tud = getTableUpdateDetails("walDispatch");
+            Assert.assertTrue(tud.getTableToken().isWal());
+            Assert.assertFalse(tud.isWal());
+            Assert.assertEquals(0, tud.getWriterThreadId());
+
+            // the I/O thread only queues the rows
+            tud.commit(false);
+            assertTable("v\ttimestamp\n", "walDispatch");
+
+            Assert.assertTrue(runWriterJob(0));
+            Assert.assertTrue(tud.isAssignedToJob());
+            tud.commit(false);
+            assertTable(
+                    "v\ttimestamp\n" +
+                            "1\t1970-01-01T00:00:00.000001Z\n" +
+                            "2\t1970-01-01T00:00:00.000002Z\n",
+                    "walDispatch"
+            );
+        });
+    }
+
+    @Test
+    public void testWriterReshuffleSourceQueueFull() throws Exception {
+        walDispatchEnabled = true;
+        startWriterPool = false;
+        writerIdleTimeout = Long.MAX_VALUE;
+        writerQueueCapacity = 4;
+        writerRebalanceInterval = 1;
+        runInContext(() -> {
+            long millis = configuration.getMillisecondClock().getTicks() + 10;
+            final TableUpdateDetails y = assignToFirstWriterThread(millis);
+
+            // fill up the first writer thread's queue
+            dispatch("x v=2i 1000\ny v=2i 1000\n");
+
+            // y is moved, but its reshuffle event does not fit into the source queue
+            runMaintenance(millis + 10);
+            Assert.assertEquals(1, y.getWriterThreadId());
+            Assert.assertTrue(y.isReshufflePending());
+
+            dispatch("y v=3i 1000\n");
+            // the target thread retries to publish the reshuffle event and leaves y's rows in its queue
+            Assert.assertFalse(runWriterJob(1));
+            Assert.assertTrue(runWriterJob(0));
+            Assert.assertTrue(y.isReshufflePending());
+
+            // the source queue has room now
+            Assert.assertFalse(runWriterJob(1));
+            Assert.assertTrue(runWriterJob(0));
+            Assert.assertFalse(y.isReshufflePending());
+            assertTable("v\ttimestamp\n1\t1970-01-01T00:00:00.000001Z\n2\t1970-01-01T00:00:00.000001Z\n", "y");
+
+            Assert.assertTrue(runWriterJob(1));
+            Assert.assertTrue(y.isAssignedToJob());
+            closeContext();
+            assertTable("v\ttimestamp\n1\t1970-01-01T00:00:00.000001Z\n2\t1970-01-01T00:00:00.000001Z\n", "x");
+            assertTable(
+                    "v\ttimestamp\n" +
+                            "1\t1970-01-01T00:00:00.000001Z\n" +
+                            "2\t1970-01-01T00:00:00.000001Z\n" +
+                            "3\t1970-01-01T00:00:00.000001Z\n",
+                    "y"
+            );
+        });
+    }
+
+    @Test
+    public void testWriterReshuffleWithQueuedEvents() throws Exception {
+        walDispatchEnabled = true;
+        startWriterPool = false;
+        writerIdleTimeout = Long.MAX_VALUE;
+        writerRebalanceInterval = 1;
+        runInContext(() -> {
+            long millis = configuration.getMillisecondClock().getTicks() + 10;
+            final TableUpdateDetails y = assignToFirstWriterThread(millis);
+
+            // rows are queued on the first writer thread while y is moved away from it
+            dispatch("x v=2i 1000\ny v=2i 1000\ny v=3i 1000\n");
+            runMaintenance(millis + 10);
+            Assert.assertEquals(1, y.getWriterThreadId());
+            Assert.assertTrue(y.isReshufflePending());
+
+            dispatch("y v=4i 1000\nx v=3i 1000\ny v=5i 1000\n");
+            // the target thread must not append y's rows ahead of the queued ones
+            Assert.assertFalse(runWriterJob(1));
+            Assert.assertFalse(y.isAssignedToJob());
+
+            Assert.assertTrue(runWriterJob(0));
+            Assert.assertFalse(y.isReshufflePending());
+            Assert.assertTrue(runWriterJob(1));
+            Assert.assertTrue(y.isAssignedToJob());
+
+            closeContext();
+            assertTable(
+                    "v\ttimestamp\n" +
+                            "1\t1970-01-01T00:00:00.000001Z\n" +
+                            "2\t1970-01-01T00:00:00.000001Z\n" +
+                            "3\t1970-01-01T00:00:00.000001Z\n",
+                    "x"
+            );
+            assertTable(
+                    "v\ttimestamp\n" +
+                            "1\t1970-01-01T00:00:00.000001Z\n" +
+                            "2\t1970-01-01T00:00:00.000001Z\n" +
+                            "3\t1970-01-01T00:00:00.000001Z\n" +
+                            "4\t1970-01-01T00:00:00.000001Z\n" +
+                            "5\t1970-01-01T00:00:00.000001Z\n",
+                    "y"
+            );
+        });
+    }
+
     private void addTable(String table) {
         TableModel model = new TableModel(configuration, table, walEnabled ? PartitionBy.DAY : PartitionBy.NONE)
                 .col("location", ColumnType.SYMBOL)
@@ -1949,6 +2071,18 @@ public class LineTcpConnectionContextTest extends BaseLineTcpContextTest {
         engine.releaseInactive();
     }
 
+    private TableUpdateDetails assignToFirstWriterThread(long millis) {
+        dispatch("x v=1i 1000\n");
+        // resets the load, x alone cannot be moved
+        runMaintenance(millis);
+        // with no load on either writer thread, y joins x on the first one
+        dispatch("y v=1i 1000\n");
+        Assert.assertEquals(0, getTableUpdateDetails("x").getWriterThreadId());
+        final TableUpdateDetails y = getTableUpdateDetails("y");
+        Assert.assertEquals(0, y.getWriterThreadId());
+        return y;
+    }
+
     private void assertTableCount(CharSequence tableName, int nExpectedRows, long maxExpectedTimestampNanos) {
         try (TableReader reader = newOffPoolReader(configuration, tableName)) {
             Assert.assertEquals(maxExpectedTimestampNanos / 1000, reader.getMaxTimestamp());
@@ -1966,6 +2100,12 @@ public class LineTcpConnectionContextTest extends BaseLineTcpContextTest {
         }
     }
 
+    private void dispatch(String lines) {
+        recvBuffer = lines;
+        Assert.assertEquals(LineTcpConnectionContext.IOContextResult.NEEDS_READ, context.handleIO(noNetworkIOJob));
+        Assert.assertEquals("", recvBuffer);
+    }
+
     private void handleIO() {
         do {
             handleContextIO0();
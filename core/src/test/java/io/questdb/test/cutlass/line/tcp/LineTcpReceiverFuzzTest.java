@@ -113,6 +113,14 @@ public class LineTcpReceiverFuzzTest extends AbstractLineTcpReceiverFuzzTest {
         runTest();
     }
 
+    @Test
+    public void testLoadWriterRebalance() throws Exception {
+        walDispatchEnabled = true;
+        writerRebalanceInterval = 1;
+        initLoadParameters(100, Os.isWindows() ? 3 : 5, 7, 12, 20);
+        runTest();
+    }
+
     @Test
     public void testOnSingleConnectionSingeWalUsed() throws Exception {
         Assume.assumeTrue(walEnabled);
@@ -3265,8 +3265,9 @@ if __name__ == "__main__":
                     try (ResultSet rs = statement.getResultSet()) {
                         assertResultSet(
                                 "QUERY PLAN[VARCHAR]\n" +
-                                        "Async Filter workers: 2\n" +
+                                        "Async JIT Filter workers: 2\n" +
                                         "  limit: 10\n" +
+                                        "  jit filter: x > $1\n" +
                                         "  filter: ($0::long<x and x<$1::double)\n" +
                                         "    DataFrame\n" +
                                         "        Row forward scan\n" +
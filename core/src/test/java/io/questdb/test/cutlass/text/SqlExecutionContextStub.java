@@ -101,6 +101,11 @@ public class SqlExecutionContextStub implements SqlExecutionContext {
         return null;
     }
 
+    @Override
+    public long getRandomUseCount() {
+        return 0;
+    }
+
     @Override
     public int getRequestFd() {
         return 0;
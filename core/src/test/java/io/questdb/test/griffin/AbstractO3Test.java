@@ -59,6 +59,7 @@ public class AbstractO3Test extends AbstractTest {
     protected static boolean mixedIOEnabled;
     protected static boolean mixedIOEnabledFFDefault;
     protected static int o3MemMaxPages = -1;
+    protected static int o3ParallelSortThreshold = -1;
     protected static long partitionO3SplitThreshold = -1;
 
     @Rule
@@ -96,6 +97,7 @@ public class AbstractO3Test extends AbstractTest {
         dataAppendPageSize = -1;
         o3ColumnMemorySize = -1;
         o3MemMaxPages = -1;
+        o3ParallelSortThreshold = -1;
         partitionO3SplitThreshold = -1;
         super.tearDown();
     }
@@ -325,6 +327,11 @@ public class AbstractO3Test extends AbstractTest {
                         return o3MemMaxPages > 0 ? o3MemMaxPages : super.getO3MemMaxPages();
                     }
 
+                    @Override
+                    public int getO3ParallelSortThreshold() {
+                        return o3ParallelSortThreshold > -1 ? o3ParallelSortThreshold : super.getO3ParallelSortThreshold();
+                    }
+
                     @Override
                     public long getPartitionO3SplitMinSize() {
                         return partitionO3SplitThreshold > -1 ? partitionO3SplitThreshold : super.getPartitionO3SplitMinSize();
@@ -384,6 +391,11 @@ public class AbstractO3Test extends AbstractTest {
                         return o3MemMaxPages > 0 ? o3MemMaxPages : super.getO3MemMaxPages();
                     }
 
+                    @Override
+                    public int getO3ParallelSortThreshold() {
+                        return o3ParallelSortThreshold > -1 ? o3ParallelSortThreshold : super.getO3ParallelSortThreshold();
+                    }
+
                     @Override
                     public int getO3OpenColumnQueueCapacity() {
                         return 0;
@@ -250,6 +250,159 @@ public class AggregateTest extends AbstractCairoTest {
         testAggregations(aggregateFunctions, aggregateColTypes);
     }
 
+    @Test
+    public void testGroupByLongKey() throws Exception {
+        node1.setProperty(PropertyKey.CAIRO_SQL_PARALLEL_GROUPBY_VECTOR_KEY_ENCODING_MAX_CARDINALITY, 1000);
+        assertMemoryLeak(() -> {
+            ddl("create table t as (select case when x % 4 = 0 then null else x % 3 end id, x::double v from long_sequence(300))");
+            if (enableParallelGroupBy) {
+                assertPlanNoLeakCheck(
+                        "select id, count(), sum(v), max(v) from t",
+                        "GroupBy vectorized: true workers: 1\n" +
+                                "  keys: [id]\n" +
+                                "  values: [count(*),sum(v),max(v)]\n" +
+                                "    DataFrame\n" +
+                                "        Row forward scan\n" +
+                                "        Frame forward scan on: t\n"
+                );
+            }
+            assertQueryNoLeakCheck(
+                    "id\tcount\tsum\tmax\n" +
+                            "null\t75\t11400.0\t300.0\n" +
+                            "0\t75\t11250.0\t297.0\n" +
+                            "1\t75\t11250.0\t298.0\n" +
+                            "2\t75\t11250.0\t299.0\n",
+                    "select id, count(), sum(v), max(v) from t order by id",
+                    null,
+                    true,
+                    true
+            );
+        });
+    }
+
+    @Test
+    public void testGroupByLongKeyCardinalityAboveThreshold() throws Exception {
+        node1.setProperty(PropertyKey.CAIRO_SQL_PARALLEL_GROUPBY_VECTOR_KEY_ENCODING_MAX_CARDINALITY, 299);
+        assertMemoryLeak(() -> {
+            ddl("create table t as (select x % 3 id, x from long_sequence(300))");
+            final String query = "select id, count(), sum(x) from t order by id";
+            if (enableParallelGroupBy) {
+                // the row count is above the threshold, so the keys are not encoded
+                assertPlanNoLeakCheck(
+                        query,
+                        "Sort light\n" +
+                                "  keys: [id]\n" +
+                                "    Async Group By workers: 1\n" +
+                                "      keys: [id]\n" +
+                                "      values: [count(*),sum(x)]\n" +
+                                "      filter: null\n" +
+                                "        DataFrame\n" +
+                                "            Row forward scan\n" +
+                                "            Frame forward scan on: t\n"
+                );
+            }
+            assertQueryNoLeakCheck(
+                    "id\tcount\tsum\n" +
+                            "0\t100\t15150\n" +
+                            "1\t100\t14950\n" +
+                            "2\t100\t15050\n",
+                    query,
+                    null,
+                    true,
+                    true
+            );
+        });
+    }
+
+    @Test
+    public void testGroupByLongKeyWideRange() throws Exception {
+        node1.setProperty(PropertyKey.CAIRO_SQL_PARALLEL_GROUPBY_VECTOR_KEY_ENCODING_MAX_CARDINALITY, 1000);
+        assertMemoryLeak(() -> {
+            // the range of keys doesn't fit into int, so the keys are dictionary-encoded
+            ddl(
+                    "create table t as (" +
+                            "select case " +
+                            "  when x % 5 = 0 then null " +
+                            "  when x % 3 = 0 then -1 " +
+                            "  when x % 3 = 1 then 0 " +
+                            "  when x % 2 = 0 then 4000000000 " +
+                            "  else -4000000000 " +
+                            "end id, x " +
+                            "from long_sequence(300))"
+            );
+            assertQueryNoLeakCheck(
+                    "id\tcount\tsum\n" +
+                            "null\t60\t9150\n" +
+                            "-4000000000\t40\t6200\n" +
+                            "-1\t80\t12000\n" +
+                            "0\t80\t11900\n" +
+                            "4000000000\t40\t5900\n",
+                    "select id, count(), sum(x) from t order by id",
+                    null,
+                    true,
+                    true
+            );
+        });
+    }
+
+    @Test
+    public void testGroupBySymbolPairKey() throws Exception {
+        node1.setProperty(PropertyKey.CAIRO_SQL_PARALLEL_GROUPBY_VECTOR_KEY_ENCODING_MAX_CARDINALITY, 1000);
+        assertMemoryLeak(() -> {
+            ddl("create table t as (select ('a' || x % 3)::symbol s1, x from long_sequence(150))");
+            // the second key is in column top in the first rows
+            ddl("alter table t add column s2 symbol");
+            insert("insert into t select ('a' || x % 3)::symbol, x, case when x % 5 = 0 then null else ('b' || x % 2) end from long_sequence(150)");
+
+            final String query = "select s1, s2, count(), sum(x) from t order by s1, s2";
+            if (enableParallelGroupBy) {
+                assertPlanNoLeakCheck(
+                        query,
+                        "Sort light\n" +
+                                "  keys: [s1, s2]\n" +
+                                "    GroupBy vectorized: true workers: 1\n" +
+                                "      keys: [s1,s2]\n" +
+                                "      values: [count(*),sum(x)]\n" +
+                                "        DataFrame\n" +
+                                "            Row forward scan\n" +
+                                "            Frame forward scan on: t\n"
+                );
+            }
+            assertQueryNoLeakCheck(
+                    "s1\ts2\tcount\tsum\n" +
+                            "a0\t\t60\t4650\n" +
+                            "a0\tb0\t20\t1500\n" +
+                            "a0\tb1\t20\t1500\n" +
+                            "a1\t\t60\t4500\n" +
+                            "a1\tb0\t20\t1550\n" +
+                            "a1\tb1\t20\t1400\n" +
+                            "a2\t\t60\t4500\n" +
+                            "a2\tb0\t20\t1450\n" +
+                            "a2\tb1\t20\t1600\n",
+                    query,
+                    null,
+                    true,
+                    true
+            );
+            assertQueryNoLeakCheck(
+                    "s2\ts1\n" +
+                            "\ta0\n" +
+                            "\ta1\n" +
+                            "\ta2\n" +
+                            "b0\ta0\n" +
+                            "b0\ta1\n" +
+                            "b0\ta2\n" +
+                            "b1\ta0\n" +
+                            "b1\ta1\n" +
+                            "b1\ta2\n",
+                    "select s2, s1 from t group by s2, s1 order by s2, s1",
+                    null,
+                    true,
+                    true
+            );
+        });
+    }
+
     @Test
     public void testGroupByWithIndexedSymbolKey() throws Exception {
         assertMemoryLeak(() -> {
@@ -1535,6 +1688,31 @@ public class AggregateTest extends AbstractCairoTest {
         executeWithPool(0, 0, AggregateTest::runCountTestWithKeyColTops);
     }
 
+    @Test
+    public void testRostiWithLongKeyDictionaryAndManyWorkers() throws Exception {
+        node1.setProperty(PropertyKey.CAIRO_SQL_PARALLEL_GROUPBY_VECTOR_KEY_ENCODING_MAX_CARDINALITY, 1_000_000);
+        executeWithPool(4, 16, (CairoEngine engine, SqlCompiler compiler, SqlExecutionContext sqlExecutionContext) -> {
+            // the key range doesn't fit into int, so page frames are scanned for distinct keys by all workers
+            engine.ddl(
+                    "create table tab as (" +
+                            "select case when x % 7 = 0 then null else (x % 1000) * 10000000000L - 5000000000000L end id, x v " +
+                            "from long_sequence(100000))",
+                    sqlExecutionContext
+            );
+            final String query = "select id, count(), sum(v) from tab order by id";
+            TestUtils.printSql(compiler, sqlExecutionContext, "explain " + query, sink);
+            TestUtils.assertContains(sink, "GroupBy vectorized: true");
+            // filter makes the keys go through the hash table based group by
+            TestUtils.assertSqlCursors(
+                    compiler,
+                    sqlExecutionContext,
+                    "select id, count(), sum(v) from tab where v > 0 order by id",
+                    query,
+                    LOG
+            );
+        });
+    }
+
     @Test
     public void testRostiWithManyAggregateFunctions1() throws Exception {
         executeWithPool(1, 32, AggregateTest::runGroupByIntWithAgg);
@@ -1984,6 +2162,11 @@ public class AggregateTest extends AbstractCairoTest {
                         return rostiAllocFacade;
                     }
 
+                    @Override
+                    public long getGroupByVectorKeyEncodingMaxCardinality() {
+                        return configuration.getGroupByVectorKeyEncodingMaxCardinality();
+                    }
+
                     @Override
                     public int getSqlPageFrameMaxRows() {
                         return configuration.getSqlPageFrameMaxRows();
@@ -0,0 +1,257 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.test.griffin;
+
+import io.questdb.cairo.CairoException;
+import io.questdb.cairo.TableReader;
+import io.questdb.cairo.TableToken;
+import io.questdb.cairo.TableUtils;
+import io.questdb.griffin.engine.table.parquet.PartitionEncoder;
+import io.questdb.std.FilesFacade;
+import io.questdb.std.MemoryTag;
+import io.questdb.std.Unsafe;
+import io.questdb.std.str.Path;
+import io.questdb.test.AbstractCairoTest;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class AlterTableAttachParquetPartitionTest extends AbstractCairoTest {
+    private static final String QUERY_ALL = "select * from x";
+    private static final String QUERY_SYMBOL = "select sym, count(), sum(l), min(ts), max(ts) from x where sym = 'b'";
+
+    @Test
+    public void testAttachParquetCompressedChunk() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable("x");
+            ddl("create table y as (select * from x where 1 = 0), index(sym) timestamp(ts) partition by DAY bypass wal");
+            encodePartition("x", 0, "y", "2024-01-01");
+            setChunkCodec("y", "2024-01-01", "l", 1);
+            try {
+                ddl("alter table y attach partition list '2024-01-01'");
+                Assert.fail();
+            } catch (CairoException e) {
+                TestUtils.assertContains(e.getFlyweightMessage(), "parquet compression codec is not supported [column=l, codec=1]");
+            }
+            assertSql("count\n0\n", "select count() from y");
+            Assert.assertFalse(attachableDirExists("y", "2024-01-01"));
+            Assert.assertTrue(parquetFileExists("y", "2024-01-01"));
+        });
+    }
+
+    @Test
+    public void testAttachParquetIntoEmptyTable() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable("x");
+            printSql("select * from x where ts in '2024-01-02'");
+            final String expected = sink.toString();
+            ddl("create table y as (select * from x where 1 = 0), index(sym) timestamp(ts) partition by DAY bypass wal");
+
+            // symbols are added to the symbol map of the target table and the index is built
+            encodePartition("x", 1, "y", "2024-01-02");
+            ddl("alter table y attach partition list '2024-01-02'");
+
+            assertSql(expected, "select * from y");
+            assertSql(
+                    "sym\tcount\nb\t" + countSymbol("x", "2024-01-02") + "\n",
+                    "select sym, count() from y where sym = 'b'"
+            );
+            assertReadOnly("y", true);
+        });
+    }
+
+    @Test
+    public void testAttachParquetPartition() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable("x");
+            final String expectedAll = snapshot(QUERY_ALL);
+            final String expectedSymbol = snapshot(QUERY_SYMBOL);
+
+            encodePartition("x", 0, "x", "2024-01-01");
+            ddl("alter table x drop partition list '2024-01-01'");
+            assertSql("count\n17280\n", "select count() from x");
+
+            ddl("alter table x attach partition list '2024-01-01'");
+            assertSql(expectedAll, QUERY_ALL);
+            assertSql(expectedSymbol, QUERY_SYMBOL);
+            assertReadOnly("x", true, false, false);
+
+            // the Parquet file stays in place as the archived copy
+            Assert.assertTrue(parquetFileExists("x", "2024-01-01"));
+        });
+    }
+
+    @Test
+    public void testAttachParquetTimestampsOutsidePartition() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable("x");
+            ddl("create table y as (select * from x where 1 = 0), index(sym) timestamp(ts) partition by DAY bypass wal");
+            encodePartition("x", 0, "y", "2024-01-02");
+            try {
+                ddl("alter table y attach partition list '2024-01-02'");
+                Assert.fail();
+            } catch (CairoException e) {
+                TestUtils.assertContains(e.getFlyweightMessage(), "parquet timestamps must be ascending and within partition");
+            }
+            assertSql("count\n0\n", "select count() from y");
+            assertSql("count\n0\n", "select count() from y where sym = 'b'");
+            Assert.assertFalse(attachableDirExists("y", "2024-01-02"));
+        });
+    }
+
+    @Test
+    public void testAttachParquetTypeMismatch() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable("x");
+            ddl("create table y as (select * from x where 1 = 0), index(sym) timestamp(ts) partition by DAY bypass wal");
+            ddl("alter table y drop column i");
+            ddl("alter table y add column i long");
+            encodePartition("x", 0, "y", "2024-01-01");
+            try {
+                ddl("alter table y attach partition list '2024-01-01'");
+                Assert.fail();
+            } catch (CairoException e) {
+                TestUtils.assertContains(e.getFlyweightMessage(), "parquet column type does not match table column type [column=i");
+            }
+            assertSql("count\n0\n", "select count() from y");
+            Assert.assertFalse(attachableDirExists("y", "2024-01-01"));
+
+            // table remains usable
+            ddl("alter table y drop column i");
+            ddl("alter table y attach partition list '2024-01-01'");
+            assertSql("count\n8640\n", "select count() from y");
+        });
+    }
+
+    private static boolean attachableDirExists(String tableName, String partitionName) {
+        final TableToken tableToken = engine.verifyTableName(tableName);
+        try (Path path = new Path()) {
+            path.of(configuration.getRoot()).concat(tableToken).concat(partitionName).put(configuration.getAttachPartitionSuffix()).$();
+            return configuration.getFilesFacade().exists(path);
+        }
+    }
+
+    private static String countSymbol(String tableName, String partitionName) throws Exception {
+        printSql("select count() from " + tableName + " where sym = 'b' and ts in '" + partitionName + "'");
+        return sink.toString().substring("count\n".length()).trim();
+    }
+
+    private static void createTable(String tableName) throws Exception {
+        // 3 daily partitions, 10 seconds apart with sub-millisecond jitter
+        ddl("create table " + tableName + " as (select" +
+                " rnd_byte() b," +
+                " rnd_short() s," +
+                " rnd_char() c," +
+                " rnd_int(0, 1000, 2) i," +
+                " rnd_long(0, 1000000, 2) l," +
+                " rnd_date(to_date('2020', 'yyyy'), to_date('2021', 'yyyy'), 2) d," +
+                " rnd_timestamp(to_timestamp('2020', 'yyyy'), to_timestamp('2021', 'yyyy'), 2) t," +
+                " rnd_float(2) f," +
+                " rnd_double(2) dbl," +
+                " rnd_boolean() bool," +
+                " rnd_str(3, 10, 2) str," +
+                " rnd_varchar(3, 40, 2) vch," +
+                " rnd_bin(4, 16, 2) bin," +
+                " rnd_symbol('a', 'b', 'c', null) sym," +
+                " rnd_uuid4() u," +
+                " rnd_long256() l256," +
+                " rnd_ipv4() ip," +
+                " rnd_geohash(30) g," +
+                " cast(1704067200000000L + (x - 1) * 10000000L + rnd_long(0, 999, 0) as timestamp) ts" +
+                " from long_sequence(25920)" +
+                "), index(sym) timestamp(ts) partition by DAY bypass wal");
+    }
+
+    private static void encodePartition(String sourceTable, int partitionIndex, String targetTable, String partitionName) {
+        final TableToken targetToken = engine.verifyTableName(targetTable);
+        try (
+                TableReader reader = getReader(sourceTable);
+                PartitionEncoder encoder = new PartitionEncoder(configuration);
+                Path path = new Path()
+        ) {
+            path.of(configuration.getRoot()).concat(targetToken).concat(partitionName).put(TableUtils.PARQUET_FILE_MARKER);
+            encoder.encode(reader, partitionIndex, path);
+        }
+    }
+
+    private static boolean parquetFileExists(String tableName, String partitionName) {
+        final TableToken tableToken = engine.verifyTableName(tableName);
+        try (Path path = new Path()) {
+            path.of(configuration.getRoot()).concat(tableToken).concat(partitionName).put(TableUtils.PARQUET_FILE_MARKER).$();
+            final FilesFacade ff = configuration.getFilesFacade();
+            return ff.exists(path);
+        }
+    }
+
+    private static void setChunkCodec(String tableName, String partitionName, String columnName, int codec) {
+        // the footer encodes path_in_schema as a single element binary list
+        // immediately followed by the i32 codec field, which is 0 (uncompressed)
+        final TableToken tableToken = engine.verifyTableName(tableName);
+        final FilesFacade ff = configuration.getFilesFacade();
+        try (Path path = new Path()) {
+            path.of(configuration.getRoot()).concat(tableToken).concat(partitionName).put(TableUtils.PARQUET_FILE_MARKER).$();
+            final int fd = ff.openRW(path, configuration.getWriterFileOpenOpts());
+            Assert.assertTrue(fd > -1);
+            final long size = ff.length(fd);
+            final long buf = Unsafe.malloc(size, MemoryTag.NATIVE_DEFAULT);
+            try {
+                Assert.assertEquals(size, ff.read(fd, buf, size, 0));
+                final int nameLen = columnName.length();
+                for (long p = buf, lim = buf + size - nameLen - 4; p < lim; p++) {
+                    if (Unsafe.getUnsafe().getByte(p) != 0x18 || Unsafe.getUnsafe().getByte(p + 1) != nameLen) {
+                        continue;
+                    }
+                    boolean match = Unsafe.getUnsafe().getByte(p + nameLen + 2) == 0x15 && Unsafe.getUnsafe().getByte(p + nameLen + 3) == 0;
+                    for (int i = 0; match && i < nameLen; i++) {
+                        match = Unsafe.getUnsafe().getByte(p + 2 + i) == columnName.charAt(i);
+                    }
+                    if (match) {
+                        Unsafe.getUnsafe().putByte(p + nameLen + 3, (byte) (codec << 1));
+                        Assert.assertEquals(1, ff.write(fd, p + nameLen + 3, 1, p + nameLen + 3 - buf));
+                        return;
+                    }
+                }
+                Assert.fail("column chunk not found [column=" + columnName + ']');
+            } finally {
+                Unsafe.free(buf, size, MemoryTag.NATIVE_DEFAULT);
+                ff.close(fd);
+            }
+        }
+    }
+
+    private static String snapshot(String query) throws Exception {
+        printSql(query);
+        return sink.toString();
+    }
+
+    private void assertReadOnly(String tableName, boolean... expected) {
+        try (TableReader reader = getReader(tableName)) {
+            Assert.assertEquals(expected.length, reader.getPartitionCount());
+            for (int i = 0; i < expected.length; i++) {
+                Assert.assertEquals("partition " + i, expected[i], reader.getTxFile().isPartitionReadOnly(i));
+            }
+        }
+    }
+}
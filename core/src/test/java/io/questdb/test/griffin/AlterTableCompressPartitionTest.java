@@ -0,0 +1,318 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.test.griffin;
+
+import io.questdb.cairo.CairoException;
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.TableReader;
+import io.questdb.cairo.TableToken;
+import io.questdb.cairo.TableUtils;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.cairo.vm.Vm;
+import io.questdb.cairo.vm.api.MemoryMR;
+import io.questdb.std.MemoryTag;
+import io.questdb.std.Unsafe;
+import io.questdb.std.str.Path;
+import io.questdb.test.AbstractCairoTest;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.File;
+
+public class AlterTableCompressPartitionTest extends AbstractCairoTest {
+    private static final String QUERY_ALL = "select * from x";
+    private static final String QUERY_SYMBOL = "select sym, count(), sum(l), min(ts), max(ts) from x where sym = 'b'";
+
+    @Test
+    public void testCannotCompressActivePartition() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable(false);
+            try {
+                ddl("alter table x compress partition list '2024-01-04'");
+                Assert.fail();
+            } catch (CairoException e) {
+                TestUtils.assertContains(e.getFlyweightMessage(), "could not compress partition");
+                TestUtils.assertContains(e.getFlyweightMessage(), "COMPRESS_ERR_ACTIVE");
+            }
+        });
+    }
+
+    @Test
+    public void testCannotDetachCompressedPartition() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable(false);
+            ddl("alter table x compress partition list '2024-01-01'");
+            try {
+                ddl("alter table x detach partition list '2024-01-01'");
+                Assert.fail();
+            } catch (CairoException e) {
+                TestUtils.assertContains(e.getFlyweightMessage(), "DETACH_ERR_COMPRESSED");
+            }
+            // compressed partitions can still be dropped
+            ddl("alter table x drop partition list '2024-01-01'");
+            assertSql("count\n259200\n", "select count() from x");
+        });
+    }
+
+    @Test
+    public void testCompressPartitionList() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable(false);
+            final String expectedAll = snapshot(QUERY_ALL);
+            final String expectedSymbol = snapshot(QUERY_SYMBOL);
+
+            ddl("alter table x compress partition list '2024-01-01', '2024-01-02'");
+
+            assertSql(expectedAll, QUERY_ALL);
+            assertSql(expectedSymbol, QUERY_SYMBOL);
+            assertCompressed(true, true, false, false);
+            assertTimestampFileCompressed();
+
+            // column added after compression has no files in the compressed partitions
+            ddl("alter table x add column n int");
+            assertSql("count\n345600\n", "select count() from x where n = null");
+        });
+    }
+
+    @Test
+    public void testCompressPartitionWal() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable(true);
+            final String expectedAll = snapshot(QUERY_ALL);
+
+            ddl("alter table x compress partition list '2024-01-02'");
+            drainWalQueue();
+
+            assertSql(expectedAll, QUERY_ALL);
+            assertCompressed(false, true, false, false);
+            assertMetaVersion(ColumnType.VERSION | TableUtils.META_VERSION_COMPRESSED_PARTITIONS);
+        });
+    }
+
+    @Test
+    public void testCompressPartitionWhere() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable(false);
+            final String expectedAll = snapshot(QUERY_ALL);
+            final String expectedSymbol = snapshot(QUERY_SYMBOL);
+
+            ddl("alter table x compress partition where ts < '2024-01-03'");
+            // age based compression matches the compressed partitions again
+            ddl("alter table x compress partition where ts < '2024-01-04'");
+
+            assertSql(expectedAll, QUERY_ALL);
+            assertSql(expectedSymbol, QUERY_SYMBOL);
+            assertCompressed(true, true, true, false);
+        });
+    }
+
+    @Test
+    public void testCompressedPartitionRejectsColumnTypeChange() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable(false);
+            ddl("alter table x compress partition list '2024-01-01'");
+            try {
+                ddl("alter table x alter column i type long");
+                Assert.fail();
+            } catch (CairoException e) {
+                TestUtils.assertContains(e.getFlyweightMessage(), "table has compressed partitions");
+            }
+        });
+    }
+
+    @Test
+    public void testOlderVersionsRefuseCompressedTable() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable(false);
+            assertMetaVersion(ColumnType.VERSION);
+
+            ddl("alter table x compress partition list '2024-01-01'");
+            // _meta is rewritten on structure changes and keeps the flag
+            ddl("alter table x add column n int");
+            engine.releaseAllReaders();
+            engine.releaseAllWriters();
+
+            final TableToken tableToken = engine.verifyTableName("x");
+            try (Path path = new Path()) {
+                path.of(configuration.getRoot()).concat(tableToken).concat(TableUtils.META_FILE_NAME).$();
+                try (MemoryMR metaMem = Vm.getMRInstance(configuration.getFilesFacade(), path, -1, MemoryTag.MMAP_DEFAULT)) {
+                    Assert.assertEquals(ColumnType.VERSION | TableUtils.META_VERSION_COMPRESSED_PARTITIONS, metaMem.getInt(TableUtils.META_OFFSET_VERSION));
+                    // builds without compressed partitions check the version for an exact match
+                    try {
+                        TableUtils.validateMetaVersion(metaMem, TableUtils.META_OFFSET_VERSION, ColumnType.VERSION);
+                        Assert.fail();
+                    } catch (CairoException e) {
+                        TestUtils.assertContains(e.getFlyweightMessage(), "Metadata version does not match runtime version");
+                    }
+                    TableUtils.validateMeta(metaMem, null, ColumnType.VERSION);
+                }
+            }
+            assertSql("count\n345600\n", "select count() from x");
+        });
+    }
+
+    @Test
+    public void testReaderMemoryStaysBounded() throws Exception {
+        assertMemoryLeak(() -> {
+            // 20 daily partitions, 19 of them get compressed
+            ddl("create table y as (select" +
+                    " rnd_long() l," +
+                    " rnd_double() dbl," +
+                    " rnd_str(3, 10, 2) str," +
+                    " rnd_varchar(3, 40, 2) vch," +
+                    " rnd_symbol('a', 'b', 'c') sym," +
+                    " timestamp_sequence('2024-01-01', 2000000) ts" +
+                    " from long_sequence(864000)" +
+                    "), index(sym) timestamp(ts) partition by DAY bypass wal");
+            final String[] queries = {
+                    "select count(), sum(l), sum(dbl), sum(length(str)), sum(length(vch)) from y",
+                    "select count(), min(ts), max(ts) from y where dbl > 0.5 and vch is not null",
+                    "select sym, count(), avg(dbl), max(l) from y order by sym",
+                    "select * from y order by ts desc limit 3",
+                    "select * from y where l > 0 limit -3",
+                    "select * from y latest on ts partition by sym",
+                    "select ts, count(), sum(l) from y sample by 5d align to first observation"
+            };
+            final String[] expected = new String[queries.length];
+            for (int i = 0; i < queries.length; i++) {
+                expected[i] = snapshot(queries[i]);
+            }
+            final long rawSize = getColumnFilesSize("y");
+
+            ddl("alter table y compress partition where ts < '2024-01-20'");
+
+            final long memBefore = Unsafe.getMemUsedByTag(MemoryTag.NATIVE_TABLE_READER);
+            long memPeak = memBefore;
+            try (RecordCursorFactory factory = select("select * from y")) {
+                try (RecordCursor cursor = factory.getCursor(sqlExecutionContext)) {
+                    final Record record = cursor.getRecord();
+                    long rows = 0;
+                    long strLen = 0;
+                    while (cursor.hasNext()) {
+                        strLen += record.getStrLen(2);
+                        rows++;
+                        memPeak = Math.max(memPeak, Unsafe.getMemUsedByTag(MemoryTag.NATIVE_TABLE_READER));
+                    }
+                    Assert.assertEquals(864000, rows);
+                    Assert.assertTrue(strLen > 0);
+                }
+            }
+            for (int i = 0; i < queries.length; i++) {
+                assertSql(expected[i], queries[i]);
+                memPeak = Math.max(memPeak, Unsafe.getMemUsedByTag(MemoryTag.NATIVE_TABLE_READER));
+            }
+            // readers decode one frame or a few blocks at a time, never the whole column
+            final long memUsed = memPeak - memBefore;
+            Assert.assertTrue("reader memory " + memUsed + " is not bounded by raw size " + rawSize, memUsed < rawSize / 8);
+        });
+    }
+
+    private static void createTable(boolean wal) throws Exception {
+        // timestamps are one second apart with sub-millisecond jitter, 4 daily partitions
+        ddl("create table x as (select" +
+                " rnd_byte() b," +
+                " rnd_short() s," +
+                " rnd_char() c," +
+                " rnd_int(0, 1000, 2) i," +
+                " rnd_long(0, 1000000, 2) l," +
+                " rnd_date(to_date('2020', 'yyyy'), to_date('2021', 'yyyy'), 2) d," +
+                " rnd_timestamp(to_timestamp('2020', 'yyyy'), to_timestamp('2021', 'yyyy'), 2) t," +
+                " rnd_float(2) f," +
+                " rnd_double(2) dbl," +
+                " rnd_boolean() bool," +
+                " rnd_str(3, 10, 2) str," +
+                " rnd_varchar(3, 40, 2) vch," +
+                " rnd_bin(4, 16, 2) bin," +
+                " rnd_symbol('a', 'b', 'c', null) sym," +
+                " rnd_uuid4() u," +
+                " rnd_long256() l256," +
+                " rnd_ipv4() ip," +
+                " rnd_geohash(30) g," +
+                " cast(1704067200000000L + (x - 1) * 1000000L + rnd_long(0, 999, 0) as timestamp) ts" +
+                " from long_sequence(345600)" +
+                "), index(sym) timestamp(ts) partition by DAY" + (wal ? " wal" : " bypass wal"));
+        if (wal) {
+            drainWalQueue();
+        }
+    }
+
+    private static long getColumnFilesSize(String tableName) {
+        final TableToken tableToken = engine.verifyTableName(tableName);
+        final File[] partitions = new File(configuration.getRoot(), tableToken.getDirName()).listFiles(File::isDirectory);
+        Assert.assertNotNull(partitions);
+        long size = 0;
+        for (File partition : partitions) {
+            final File[] files = partition.listFiles((dir, name) -> name.endsWith(".d") || name.endsWith(".i"));
+            Assert.assertNotNull(files);
+            for (File file : files) {
+                size += file.length();
+            }
+        }
+        return size;
+    }
+
+    private static String snapshot(String query) throws Exception {
+        printSql(query);
+        return sink.toString();
+    }
+
+    private void assertCompressed(boolean... expected) {
+        try (TableReader reader = getReader("x")) {
+            Assert.assertEquals(expected.length, reader.getPartitionCount());
+            for (int i = 0; i < expected.length; i++) {
+                Assert.assertEquals("partition " + i, expected[i], reader.getTxFile().isPartitionCompressed(i));
+                Assert.assertEquals("partition " + i, expected[i], reader.getTxFile().isPartitionReadOnly(i));
+            }
+        }
+    }
+
+    private void assertMetaVersion(int expected) {
+        final TableToken tableToken = engine.verifyTableName("x");
+        try (Path path = new Path()) {
+            path.of(configuration.getRoot()).concat(tableToken).concat(TableUtils.META_FILE_NAME).$();
+            try (MemoryMR metaMem = Vm.getMRInstance(configuration.getFilesFacade(), path, -1, MemoryTag.MMAP_DEFAULT)) {
+                Assert.assertEquals(expected, metaMem.getInt(TableUtils.META_OFFSET_VERSION));
+            }
+        }
+    }
+
+    private void assertTimestampFileCompressed() {
+        final TableToken tableToken = engine.verifyTableName("x");
+        try (TableReader reader = getReader("x"); Path path = new Path()) {
+            path.of(configuration.getRoot()).concat(tableToken).concat("2024-01-01");
+            final long nameTxn = reader.getTxFile().getPartitionNameTxn(0);
+            if (nameTxn > -1) {
+                path.put('.').put(nameTxn);
+            }
+            path.concat("ts.d").$();
+            final long rawSize = reader.getTxFile().getPartitionSize(0) * Long.BYTES;
+            final long compressedSize = configuration.getFilesFacade().length(path);
+            Assert.assertTrue("compressed size " + compressedSize + " is not less than a quarter of " + rawSize, compressedSize > 0 && compressedSize < rawSize / 4);
+        }
+    }
+}
@@ -285,6 +285,84 @@ public class CompiledFilterTest extends AbstractCairoTest {
         });
     }
 
+    @Test
+    public void testPartialFilterDisabled() throws Exception {
+        assertMemoryLeak(() -> {
+            node1.setProperty(PropertyKey.CAIRO_SQL_JIT_PARTIAL_FILTER_ENABLED, false);
+            ddl("create table x as (select" +
+                    " x l," +
+                    " rnd_varchar('foo','bar','baz') v," +
+                    " timestamp_sequence(400000000000, 500000000) ts" +
+                    " from long_sequence(10)) timestamp(ts)");
+
+            assertPlanNoLeakCheck(
+                    "select * from x where l > 3 and v = 'foo'",
+                    "Async Filter workers: 1\n" +
+                            "  filter: (3<l and v='foo')\n" +
+                            "    DataFrame\n" +
+                            "        Row forward scan\n" +
+                            "        Frame forward scan on: x\n"
+            );
+        });
+    }
+
+    @Test
+    public void testPartialFilterWithBindVariables() throws Exception {
+        assertMemoryLeak(() -> {
+            ddl("create table x as (select" +
+                    " x l," +
+                    " rnd_str('foo','bar','baz') s," +
+                    " timestamp_sequence(400000000000, 500000000) ts" +
+                    " from long_sequence(20)) timestamp(ts)");
+
+            bindVariableService.clear();
+            bindVariableService.setLong("l", 5);
+            bindVariableService.setStr("s", "baz");
+
+            final String query = "select * from x where l > :l and s = :s";
+            sqlExecutionContext.setJitMode(SqlJitMode.JIT_MODE_DISABLED);
+            printSql(query);
+            final String expected = sink.toString();
+
+            sqlExecutionContext.setJitMode(SqlJitMode.JIT_MODE_ENABLED);
+            assertSql(expected, query);
+            assertSqlRunWithJit(query);
+        });
+    }
+
+    @Test
+    public void testPartialFilterWithVarSizeColumns() throws Exception {
+        assertMemoryLeak(() -> {
+            ddl("create table x as (select" +
+                    " x l," +
+                    " rnd_varchar('foo','bar','baz') v," +
+                    " rnd_str('a','b') s," +
+                    " timestamp_sequence(400000000000, 500000000) ts" +
+                    " from long_sequence(20)) timestamp(ts)");
+
+            final String query = "select * from x where l > 3 and v = 'foo' and l < 18 and s like 'a%'";
+            assertPlanNoLeakCheck(
+                    query,
+                    "Async JIT Filter workers: 1\n" +
+                            "  jit filter: l > 3 and l < 18\n" +
+                            "  filter: (3<l and v='foo' and l<18 and s like a%)\n" +
+                            "    DataFrame\n" +
+                            "        Row forward scan\n" +
+                            "        Frame forward scan on: x\n"
+            );
+
+            sqlExecutionContext.setJitMode(SqlJitMode.JIT_MODE_DISABLED);
+            printSql(query);
+            final String expected = sink.toString();
+
+            sqlExecutionContext.setJitMode(SqlJitMode.JIT_MODE_ENABLED);
+            assertSql(expected, query);
+            assertSqlRunWithJit(query);
+            // the varchar predicate alone can't be compiled
+            assertSqlRunWithJit("select * from x where v = 'foo' and l > 3");
+        });
+    }
+
     @Test
     public void testRandomAccessAfterToTop() throws Exception {
         assertMemoryLeak(() -> {
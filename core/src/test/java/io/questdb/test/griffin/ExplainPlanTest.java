@@ -52,6 +52,8 @@ import io.questdb.griffin.engine.functions.lt.LtStrIPv4FunctionFactory;
 import io.questdb.griffin.engine.functions.rnd.LongSequenceFunctionFactory;
 import io.questdb.griffin.engine.functions.rnd.RndIPv4CCFunctionFactory;
 import io.questdb.griffin.engine.functions.test.TestSumXDoubleGroupByFunctionFactory;
+import io.questdb.griffin.engine.functions.window.LagDoubleWindowFunctionFactory;
+import io.questdb.griffin.engine.functions.window.LeadDoubleWindowFunctionFactory;
 import io.questdb.griffin.engine.table.DataFrameRecordCursorFactory;
 import io.questdb.griffin.model.WindowColumn;
 import io.questdb.jit.JitUtil;
@@ -1467,6 +1469,7 @@ public class ExplainPlanTest extends AbstractCairoTest {
                         "      functions: [20,d+rnd_double()]\n" +
                         "        Async Filter workers: 1\n" +
                         "          filter: d<100.0\n" +
+                        "          batch: true\n" +
                         "            DataFrame\n" +
                         "                Row forward scan\n" +
                         "                Interval forward scan on: a\n" +
@@ -2324,6 +2327,8 @@ public class ExplainPlanTest extends AbstractCairoTest {
                                         sigArgType = ColumnType.DOUBLE;
                                     } else if (factory instanceof LevelTwoPriceFunctionFactory) {
                                         sigArgType = ColumnType.DOUBLE;
+                                    } else if (factory instanceof LagDoubleWindowFunctionFactory || factory instanceof LeadDoubleWindowFunctionFactory) {
+                                        sigArgType = ColumnType.INT;
                                     } else {
                                         sigArgType = ColumnType.STRING;
                                     }
@@ -2356,6 +2361,12 @@ public class ExplainPlanTest extends AbstractCairoTest {
                                     args.add(new StrConstant("123.456"));
                                 } else if (factory instanceof TimestampFloorFunctionFactory && p == 0) {
                                     args.add(new StrConstant("d"));
+                                } else if (factory instanceof TimestampFloorOffsetFunctionFactory && p == 0) {
+                                    args.add(new StrConstant("d"));
+                                } else if (factory instanceof TimestampFloorOffsetFunctionFactory && p == 2) {
+                                    args.add(new StrConstant("00:30"));
+                                } else if (factory instanceof TimestampFloorOffsetFunctionFactory && p == 3) {
+                                    args.add(new StrConstant("Europe/London"));
                                 } else if (factory instanceof DateTruncFunctionFactory && p == 0) {
                                     args.add(new StrConstant("year"));
                                 } else if (factory instanceof ToUTCTimestampFunctionFactory && p == 1) {
@@ -8443,7 +8454,8 @@ public class ExplainPlanTest extends AbstractCairoTest {
         assertPlan(
                 "create table tab ( s symbol, ts timestamp);",
                 "select * from tab where ts in ( '2020-01-01', '2020-01-03' ) and s = 'ABC'",
-                "Async Filter workers: 1\n" +
+                "Async JIT Filter workers: 1\n" +
+                        "  jit filter: s = 'ABC'\n" +
                         "  filter: (ts in [1577836800000000,1578009600000000] and s='ABC')\n" +
                         "    DataFrame\n" +
                         "        Row forward scan\n" +
@@ -8456,7 +8468,8 @@ public class ExplainPlanTest extends AbstractCairoTest {
         assertPlan(
                 "create table tab ( s symbol, ts timestamp);",
                 "select * from tab where ts in ( '2020-01-01' ) and s = 'ABC'",
-                "Async Filter workers: 1\n" +
+                "Async JIT Filter workers: 1\n" +
+                        "  jit filter: s = 'ABC'\n" +
                         "  filter: (ts in [1577836800000000,1577923199999999] and s='ABC')\n" +
                         "    DataFrame\n" +
                         "        Row forward scan\n" +
@@ -8747,12 +8760,13 @@ public class ExplainPlanTest extends AbstractCairoTest {
         );
     }
 
-    @Test // TODO: this one should use jit !
+    @Test
     public void testSelectWithJittedFilter3() throws Exception {
         assertPlan(
                 "create table tab ( l long, ts timestamp);",
                 "select * from tab where l > 100 and l < 1000 and ts = '2022-01-01' ",
-                "Async Filter workers: 1\n" +
+                "Async JIT Filter workers: 1\n" +
+                        "  jit filter: l > 100 and l < 1000\n" +
                         "  filter: (100<l and l<1000 and ts=1640995200000000)\n" +
                         "    DataFrame\n" +
                         "        Row forward scan\n" +
@@ -8935,6 +8949,7 @@ public class ExplainPlanTest extends AbstractCairoTest {
                 "select * from tab where l = 1024::long ",
                 "Async Filter workers: 1\n" +
                         "  filter: l=1024::long\n" +
+                        "  batch: true\n" +
                         "    DataFrame\n" +
                         "        Row forward scan\n" +
                         "        Frame forward scan on: tab\n"
@@ -8948,6 +8963,7 @@ public class ExplainPlanTest extends AbstractCairoTest {
                 "select * from tab where d = 1024.1::double ",
                 "Async Filter workers: 1\n" +
                         "  filter: d=1024.1\n" +
+                        "  batch: true\n" +
                         "    DataFrame\n" +
                         "        Row forward scan\n" +
                         "        Frame forward scan on: tab\n"
@@ -9289,7 +9305,8 @@ public class ExplainPlanTest extends AbstractCairoTest {
                         "  keys: [k]\n" +
                         "  values: [max(ts)]\n" +
                         "    SelectedRecord\n" +
-                        "        Async Filter workers: 1\n" +
+                        "        Async JIT Filter workers: 1\n" +
+                        "          jit filter: l < 0\n" +
                         "          filter: (l::short<i and l<0)\n" +
                         "            DataFrame\n" +
                         "                Row forward scan\n" +
@@ -24,13 +24,18 @@
 
 package io.questdb.test.griffin;
 
+import io.questdb.PropertyKey;
 import io.questdb.cairo.CairoException;
 import io.questdb.cairo.CursorPrinter;
 import io.questdb.cairo.ImplicitCastException;
 import io.questdb.cairo.TableWriter;
+import io.questdb.cairo.sql.Record;
 import io.questdb.cairo.sql.RecordCursor;
 import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.griffin.SqlCompiler;
 import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.mp.WorkerPool;
 import io.questdb.std.Chars;
 import io.questdb.std.Files;
 import io.questdb.std.datetime.microtime.TimestampFormatUtils;
@@ -3862,6 +3867,164 @@ public class JoinTest extends AbstractCairoTest {
 
     }
 
+    @Test
+    public void testParallelHashJoinLight() throws Exception {
+        // small frames, so that the hash table is built by several workers and then merged
+        node1.setProperty(PropertyKey.CAIRO_SQL_PAGE_FRAME_MAX_ROWS, 2);
+        WorkerPool pool = new WorkerPool(() -> 4);
+        TestUtils.execute(pool, (engine, compiler, sqlExecutionContext) -> {
+                    ddl(compiler, "create table x as (select x, x % 4 l, timestamp_sequence(0, 1000) ts from long_sequence(10)) timestamp(ts)", sqlExecutionContext);
+                    ddl(compiler, "create table y as (select x v, x % 3 l, timestamp_sequence(0, 1000) ts from long_sequence(6)) timestamp(ts)", sqlExecutionContext);
+                    node1.setProperty(PropertyKey.CAIRO_SQL_PARALLEL_HASH_JOIN_ENABLED, true);
+
+                    TestUtils.assertSql(
+                            engine,
+                            sqlExecutionContext,
+                            "explain select x.x, x.l, y.v from x join y on l",
+                            sink,
+                            "QUERY PLAN\n" +
+                                    "SelectedRecord\n" +
+                                    "    Async Hash Join Light workers: 4\n" +
+                                    "      condition: y.l=x.l\n" +
+                                    "        DataFrame\n" +
+                                    "            Row forward scan\n" +
+                                    "            Frame forward scan on: x\n" +
+                                    "        Hash\n" +
+                                    "            DataFrame\n" +
+                                    "                Row forward scan\n" +
+                                    "                Frame forward scan on: y\n"
+                    );
+
+                    // the order of slave matches is undefined, hence the order by
+                    TestUtils.assertSql(
+                            engine,
+                            sqlExecutionContext,
+                            "select x.x, x.l, y.v from x join y on l order by x.x, y.v",
+                            sink,
+                            "x\tl\tv\n" +
+                                    "1\t1\t1\n" +
+                                    "1\t1\t4\n" +
+                                    "2\t2\t2\n" +
+                                    "2\t2\t5\n" +
+                                    "4\t0\t3\n" +
+                                    "4\t0\t6\n" +
+                                    "5\t1\t1\n" +
+                                    "5\t1\t4\n" +
+                                    "6\t2\t2\n" +
+                                    "6\t2\t5\n" +
+                                    "8\t0\t3\n" +
+                                    "8\t0\t6\n" +
+                                    "9\t1\t1\n" +
+                                    "9\t1\t4\n" +
+                                    "10\t2\t2\n" +
+                                    "10\t2\t5\n"
+                    );
+                },
+                configuration,
+                LOG
+        );
+    }
+
+    @Test
+    public void testParallelHashJoinLightDescendingMaster() throws Exception {
+        // slave keys are unique, so the master's descending order is preserved as is
+        assertParallelHashJoinSameAsSerial("select x.ts, x.l, y.v from (x order by ts desc) x join y on x.l = y.v");
+    }
+
+    @Test
+    public void testParallelHashJoinLightFilteredMaster() throws Exception {
+        assertParallelHashJoinSameAsSerial("select x.ts, x.l, y.v from x join y on l where x.ts in '1970-01-01T00:00:03;5s' order by x.ts, y.v");
+    }
+
+    @Test
+    public void testParallelHashJoinLightLongKey() throws Exception {
+        assertParallelHashJoinSameAsSerial("select x.ts, x.l, x.s, y.v from x join y on l order by x.ts, y.v");
+    }
+
+    @Test
+    public void testParallelHashJoinLightMultipleKeys() throws Exception {
+        assertParallelHashJoinSameAsSerial("select x.ts, x.l, x.i, y.v from x join y on (l, i) order by x.ts, y.v");
+    }
+
+    @Test
+    public void testParallelHashJoinLightNoMatches() throws Exception {
+        assertParallelHashJoinSameAsSerial(
+                "select x.ts, z.v from x join z on l",
+                "create table z as (select * from y where l > 1000)"
+        );
+    }
+
+    @Test
+    public void testParallelHashJoinLightStringKey() throws Exception {
+        assertParallelHashJoinSameAsSerial("select x.ts, x.str, y.v from x join y on str order by x.ts, y.v");
+    }
+
+    @Test
+    public void testParallelHashJoinLightSymbolKeyFallsBackToSerial() throws Exception {
+        WorkerPool pool = new WorkerPool(() -> 4);
+        TestUtils.execute(pool, (engine, compiler, sqlExecutionContext) -> {
+                    createParallelHashJoinTables(compiler, sqlExecutionContext);
+                    node1.setProperty(PropertyKey.CAIRO_SQL_PARALLEL_HASH_JOIN_ENABLED, true);
+                    // symbol keys are not supported by the parallel build
+                    TestUtils.assertSql(
+                            engine,
+                            sqlExecutionContext,
+                            "explain select x.l, y.v from x join y on s",
+                            sink,
+                            "QUERY PLAN\n" +
+                                    "SelectedRecord\n" +
+                                    "    Hash Join Light\n" +
+                                    "      condition: y.s=x.s\n" +
+                                    "        DataFrame\n" +
+                                    "            Row forward scan\n" +
+                                    "            Frame forward scan on: x\n" +
+                                    "        Hash\n" +
+                                    "            DataFrame\n" +
+                                    "                Row forward scan\n" +
+                                    "                Frame forward scan on: y\n"
+                    );
+                },
+                configuration,
+                LOG
+        );
+    }
+
+    @Test
+    public void testParallelHashJoinLightToTop() throws Exception {
+        WorkerPool pool = new WorkerPool(() -> 4);
+        TestUtils.execute(pool, (engine, compiler, sqlExecutionContext) -> {
+                    createParallelHashJoinTables(compiler, sqlExecutionContext);
+                    node1.setProperty(PropertyKey.CAIRO_SQL_PARALLEL_HASH_JOIN_ENABLED, false);
+                    TestUtils.printSql(compiler, sqlExecutionContext, "select count(), sum(y.v) from x join y on l", sink);
+                    final String expected = sink.toString();
+
+                    node1.setProperty(PropertyKey.CAIRO_SQL_PARALLEL_HASH_JOIN_ENABLED, true);
+                    try (RecordCursorFactory factory = compiler.compile("select x.l, y.v from x join y on l", sqlExecutionContext).getRecordCursorFactory()) {
+                        try (RecordCursor cursor = factory.getCursor(sqlExecutionContext)) {
+                            final Record record = cursor.getRecord();
+                            for (int i = 0; i < 2; i++) {
+                                long count = 0;
+                                long sum = 0;
+                                while (cursor.hasNext()) {
+                                    count++;
+                                    sum += record.getLong(1);
+                                }
+                                TestUtils.assertEquals(expected, "count\tsum\n" + count + "\t" + sum + "\n");
+                                cursor.toTop();
+                            }
+                        }
+                    }
+                },
+                configuration,
+                LOG
+        );
+    }
+
+    @Test
+    public void testParallelHashJoinLightVarcharKey() throws Exception {
+        assertParallelHashJoinSameAsSerial("select x.ts, x.vch, y.v from x join y on vch order by x.ts, y.v");
+    }
+
     @Test
     public void testSelectAliasTest() throws Exception {
         assertMemoryLeak(() -> {
@@ -4740,6 +4903,28 @@ public class JoinTest extends AbstractCairoTest {
         testJoinForCursorLeaks("with crj as (select x, ts from xx latest by x) select x from xx union select x from crj", false);
     }
 
+    private static void createParallelHashJoinTables(SqlCompiler compiler, SqlExecutionContext sqlExecutionContext) throws SqlException {
+        node1.setProperty(PropertyKey.CAIRO_SQL_PAGE_FRAME_MAX_ROWS, 1000);
+        ddl(
+                compiler,
+                "create table x as (" +
+                        "select timestamp_sequence(0, 1000) ts, rnd_long(0, 200, 0) l, rnd_int(0, 3, 0) i, rnd_symbol('a','b','c') s, " +
+                        "rnd_str(3,3,1) str, rnd_varchar(1,3,1) vch " +
+                        "from long_sequence(10123)" +
+                        ") timestamp(ts) partition by hour",
+                sqlExecutionContext
+        );
+        ddl(
+                compiler,
+                "create table y as (" +
+                        "select timestamp_sequence(0, 1000) ts, rnd_long(0, 100, 0) l, rnd_int(0, 3, 0) i, rnd_symbol('a','b','c') s, " +
+                        "rnd_str(3,3,1) str, rnd_varchar(1,3,1) vch, x v " +
+                        "from long_sequence(3000)" +
+                        ") timestamp(ts)",
+                sqlExecutionContext
+        );
+    }
+
     private void assertFailure(String query, String expectedMessage, int position) {
         try {
             ddl(query, sqlExecutionContext);
@@ -4756,6 +4941,28 @@ public class JoinTest extends AbstractCairoTest {
         TestUtils.assertEquals("full fat join", expected, sink);
     }
 
+    private void assertParallelHashJoinSameAsSerial(String query, String... ddls) throws Exception {
+        WorkerPool pool = new WorkerPool(() -> 4);
+        TestUtils.execute(pool, (engine, compiler, sqlExecutionContext) -> {
+                    createParallelHashJoinTables(compiler, sqlExecutionContext);
+                    for (String ddl : ddls) {
+                        ddl(compiler, ddl, sqlExecutionContext);
+                    }
+
+                    node1.setProperty(PropertyKey.CAIRO_SQL_PARALLEL_HASH_JOIN_ENABLED, false);
+                    TestUtils.printSql(compiler, sqlExecutionContext, query, sink);
+                    final String expected = sink.toString();
+
+                    node1.setProperty(PropertyKey.CAIRO_SQL_PARALLEL_HASH_JOIN_ENABLED, true);
+                    TestUtils.printSql(compiler, sqlExecutionContext, "explain " + query, sink);
+                    TestUtils.assertContains(sink, "Async Hash Join Light workers: 4");
+                    TestUtils.assertSql(compiler, sqlExecutionContext, query, sink, expected);
+                },
+                configuration,
+                LOG
+        );
+    }
+
     private void assertRepeatedJoinQuery(String query, String left, boolean expectSize) throws Exception {
         assertQueryNoLeakCheck("id\n1\n", query.replace("#JOIN_TYPE#", left), null, false, expectSize);
     }
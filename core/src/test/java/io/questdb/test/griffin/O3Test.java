@@ -168,6 +168,18 @@ public class O3Test extends AbstractO3Test {
         executeWithPool(4, O3Test::testAppendOrderStability);
     }
 
+    @Test
+    public void testAppendOrderStabilityParallelSort() throws Exception {
+        o3ParallelSortThreshold = 1000;
+        executeWithPool(4, O3Test::testAppendOrderStability);
+    }
+
+    @Test
+    public void testAppendOrderStabilityParallelSortContended() throws Exception {
+        o3ParallelSortThreshold = 1000;
+        executeWithPool(0, O3Test::testAppendOrderStability);
+    }
+
     @Test
     public void testAppendToLastPartition() throws Exception {
         executeWithPool(4, O3Test::testAppendToLastPartition);
@@ -25,16 +25,32 @@
 package io.questdb.test.griffin;
 
 import io.questdb.PropertyKey;
+import io.questdb.cairo.BloomFilterReader;
+import io.questdb.cairo.BloomFilterUtils;
 import io.questdb.cairo.CairoException;
 import io.questdb.cairo.SqlJitMode;
+import io.questdb.cairo.TableReader;
+import io.questdb.cairo.TableToken;
+import io.questdb.cairo.ZoneMapReader;
+import io.questdb.cairo.ZoneMapUtils;
+import io.questdb.cairo.sql.DataFrameCursorFactory;
 import io.questdb.cairo.sql.NetworkSqlExecutionCircuitBreaker;
+import io.questdb.cairo.sql.PageFrame;
+import io.questdb.cairo.sql.PageFrameCursor;
 import io.questdb.cairo.sql.Record;
 import io.questdb.cairo.sql.RecordCursor;
 import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.cairo.sql.RecordMetadata;
 import io.questdb.griffin.DefaultSqlExecutionCircuitBreakerConfiguration;
 import io.questdb.griffin.SqlException;
 import io.questdb.griffin.SqlExecutionContext;
 import io.questdb.griffin.SqlExecutionContextImpl;
+import io.questdb.griffin.engine.QueryProgress;
+import io.questdb.griffin.engine.table.AsyncFilteredRecordCursorFactory;
+import io.questdb.griffin.engine.table.AsyncJitFilteredRecordCursorFactory;
+import io.questdb.griffin.engine.table.BloomFilterDataFrameCursorFactory;
+import io.questdb.griffin.engine.table.DataFrameRecordCursorFactory;
+import io.questdb.griffin.engine.table.ZoneMapFilter;
 import io.questdb.jit.JitUtil;
 import io.questdb.mp.SOCountDownLatch;
 import io.questdb.mp.WorkerPool;
@@ -42,7 +58,9 @@ import io.questdb.std.LongList;
 import io.questdb.std.MemoryTag;
 import io.questdb.std.Misc;
 import io.questdb.std.datetime.millitime.MillisecondClock;
+import io.questdb.std.str.Path;
 import io.questdb.std.str.StringSink;
+import io.questdb.std.str.Utf8String;
 import io.questdb.test.AbstractCairoTest;
 import io.questdb.test.tools.TestUtils;
 import org.jetbrains.annotations.NotNull;
@@ -58,9 +76,88 @@ import static io.questdb.PropertyKey.CAIRO_PAGE_FRAME_SHARD_COUNT;
 
 public class ParallelFilterTest extends AbstractCairoTest {
 
+    private static final String BATCH_FILTER_DDL = "create table x as (" +
+            "select x l, (x % 10)::int i, x * 0.5 d, timestamp_sequence('2024-01-01', 60000000) ts from long_sequence(400)" +
+            ") timestamp(ts) partition by hour";
+    private static final String[] BLOOM_FILTERS = {
+            "l = 10",
+            "l = 2000",
+            "10 = l",
+            "l in (10, 2000, 2999)",
+            "l = 999999",
+            "l = null",
+            "l = 10 and v = 'v10'",
+            "l = 10 or l = 2000",
+            "l != 10",
+            "v = 'v10'",
+            "v = 'v2999'",
+            "v in ('v10', 'v1500', 'missing')",
+            "v = 'missing'",
+            "v = null",
+            "u = to_uuid(10, 10)",
+            "u = to_uuid(2000, 2000)",
+            "u = to_uuid(1, 2)",
+            "u = '00000000-0000-0064-0000-000000000064'",
+            "u = null",
+            "ip = '0.0.0.10'",
+            "ip = '0.0.7.208'",
+            "ip = '1.2.3.4'",
+            "ip = null",
+    };
     private static final int PAGE_FRAME_COUNT = 4; // also used to set queue size, so must be a power of 2
     private static final int PAGE_FRAME_MAX_ROWS = 100;
     private static final int ROW_COUNT = PAGE_FRAME_COUNT * PAGE_FRAME_MAX_ROWS;
+    private static final String[] ZONE_MAP_FILTERS = {
+            "i > 2500",
+            "i < 10",
+            "i = 1234",
+            "i != 5",
+            "i = null",
+            "i != null",
+            "10 > i",
+            "i > -1",
+            "i < 1.5",
+            "i > 3000000000",
+            "l >= 2999",
+            "l <= 3",
+            "l = 100 and i = 100",
+            "l > 2000 and d < 1100",
+            "d > 1400.5",
+            "d < 1.0",
+            "d = 1000.5",
+            "d = 1000",
+            "d = null",
+            "d != null",
+            "s = 50",
+            "b < 0",
+            "r > 95",
+            "r = null",
+            "i > 2500 or i < 10",
+    };
+    // filters with the number of data frames they skip on the table created by createBloomFilterTable()
+    private static final String expectedBloomFilterSkippedFrames = "l = 10\t2\n" +
+            "l = 2000\t2\n" +
+            "10 = l\t2\n" +
+            "l in (10, 2000, 2999)\t0\n" +
+            "l = 999999\t3\n" +
+            "l = null\t-1\n" +
+            "l = 10 and v = 'v10'\t2\n" +
+            "l = 10 or l = 2000\t-1\n" +
+            "l != 10\t-1\n" +
+            "v = 'v10'\t2\n" +
+            "v = 'v2999'\t2\n" +
+            "v in ('v10', 'v1500', 'missing')\t1\n" +
+            "v = 'missing'\t3\n" +
+            "v = null\t-1\n" +
+            "u = to_uuid(10, 10)\t2\n" +
+            "u = to_uuid(2000, 2000)\t2\n" +
+            "u = to_uuid(1, 2)\t3\n" +
+            "u = '00000000-0000-0064-0000-000000000064'\t2\n" +
+            "u = null\t-1\n" +
+            "ip = '0.0.0.10'\t2\n" +
+            "ip = '0.0.7.208'\t2\n" +
+            "ip = '1.2.3.4'\t3\n" +
+            "ip = null\t-1\n";
     private static final String expectedNegativeLimit = "v\n" +
             "4039070554630775695\n" +
             "3424747151763089683\n" +
@@ -127,6 +224,32 @@ public class ParallelFilterTest extends AbstractCairoTest {
             "3927079694554322589\tg\uECF9J9漫\uDBDB\uDDDB1fÄ}o輖NI\n" +
             "4171842711013652287\t\n" +
             "4290056275098552124\t=ܼDdjvsoߛ)*EB\n";
+    // filters with the number of page frames they skip on the table created by createZoneMapTable()
+    private static final String expectedZoneMapSkippedFrames = "i > 2500\t25\n" +
+            "i < 10\t31\n" +
+            "i = 1234\t31\n" +
+            "i != 5\t0\n" +
+            "i = null\t0\n" +
+            "i != null\t0\n" +
+            "10 > i\t31\n" +
+            "i > -1\t0\n" +
+            "i < 1.5\t31\n" +
+            "i > 3000000000\t32\n" +
+            "l >= 2999\t31\n" +
+            "l <= 3\t31\n" +
+            "l = 100 and i = 100\t31\n" +
+            "l > 2000 and d < 1100\t23\n" +
+            "d > 1400.5\t28\n" +
+            "d < 1.0\t5\n" +
+            "d = 1000.5\t23\n" +
+            "d = 1000\t23\n" +
+            "d = null\t0\n" +
+            "d != null\t0\n" +
+            "s = 50\t1\n" +
+            "b < 0\t32\n" +
+            "r > 95\t1\n" +
+            "r = null\t0\n" +
+            "i > 2500 or i < 10\t-1\n";
     private static final String symbolQueryNegativeLimit = "select v from x where v > 3326086085493629941L and v < 4326086085493629941L limit -10";
     private static final String symbolQueryNoLimit = "select v from x where v > 3326086085493629941L and v < 4326086085493629941L order by v";
     private static final String symbolQueryPositiveLimit = "select v from x where v > 3326086085493629941L and v < 4326086085493629941L limit 10";
@@ -189,6 +312,261 @@ public class ParallelFilterTest extends AbstractCairoTest {
                 "WHERE type IN (SELECT id FROM mapping WHERE ext in ('s1'))");
     }
 
+    @Test
+    public void testBatchFilterArithmetic() throws Exception {
+        testBatchFilter(
+                "select * from x where l * 2 - i > 770 and d / 2 < 98.5 or l = 3",
+                "Async Filter workers: 1\n" +
+                        "  filter: ((770<l*2-i and d/2<98.5) or l=3)\n" +
+                        "  batch: true\n" +
+                        "    DataFrame\n" +
+                        "        Row forward scan\n" +
+                        "        Frame forward scan on: x\n",
+                "l\ti\td\tts\n" +
+                        "3\t3\t1.5\t2024-01-01T00:02:00.000000Z\n" +
+                        "390\t0\t195.0\t2024-01-01T06:29:00.000000Z\n" +
+                        "391\t1\t195.5\t2024-01-01T06:30:00.000000Z\n" +
+                        "392\t2\t196.0\t2024-01-01T06:31:00.000000Z\n" +
+                        "393\t3\t196.5\t2024-01-01T06:32:00.000000Z\n"
+        );
+    }
+
+    @Test
+    public void testBatchFilterCasts() throws Exception {
+        testBatchFilter(
+                "select * from x where i::long + 390 = l and l::double > 396.5",
+                "Async Filter workers: 1\n" +
+                        "  filter: (i::long+390=l and 396.5<l::double)\n" +
+                        "  batch: true\n" +
+                        "    DataFrame\n" +
+                        "        Row forward scan\n" +
+                        "        Frame forward scan on: x\n",
+                "l\ti\td\tts\n" +
+                        "397\t7\t198.5\t2024-01-01T06:36:00.000000Z\n" +
+                        "398\t8\t199.0\t2024-01-01T06:37:00.000000Z\n" +
+                        "399\t9\t199.5\t2024-01-01T06:38:00.000000Z\n"
+        );
+    }
+
+    @Test
+    public void testBatchFilterColumnTops() throws Exception {
+        assertMemoryLeak(() -> {
+            sqlExecutionContext.setJitMode(SqlJitMode.JIT_MODE_DISABLED);
+            ddl(BATCH_FILTER_DDL);
+            ddl("alter table x add column l2 long");
+            insert(
+                    "insert into x select x, (x % 10)::int, x * 0.5, timestamp_sequence('2024-01-02', 60000000), " +
+                            "case when x % 3 = 0 then null else x end from long_sequence(10)"
+            );
+
+            final String query = "select * from x where l2 + 1 > 8 or l < 3";
+            assertPlanNoLeakCheck(
+                    query,
+                    "Async Filter workers: 1\n" +
+                            "  filter: (8<l2+1 or l<3)\n" +
+                            "  batch: true\n" +
+                            "    DataFrame\n" +
+                            "        Row forward scan\n" +
+                            "        Frame forward scan on: x\n"
+            );
+            assertSql(
+                    "l\ti\td\tts\tl2\n" +
+                            "1\t1\t0.5\t2024-01-01T00:00:00.000000Z\tnull\n" +
+                            "2\t2\t1.0\t2024-01-01T00:01:00.000000Z\tnull\n" +
+                            "1\t1\t0.5\t2024-01-02T00:00:00.000000Z\t1\n" +
+                            "2\t2\t1.0\t2024-01-02T00:01:00.000000Z\t2\n" +
+                            "8\t8\t4.0\t2024-01-02T00:07:00.000000Z\t8\n" +
+                            "10\t0\t5.0\t2024-01-02T00:09:00.000000Z\t10\n",
+                    query
+            );
+        });
+    }
+
+    @Test
+    public void testBatchFilterLogicalOperators() throws Exception {
+        testBatchFilter(
+                "select * from x where not (l > 4 or i < 2) or l >= 399",
+                "Async Filter workers: 1\n" +
+                        "  filter: ((4>=l and i>=2) or l>=399)\n" +
+                        "  batch: true\n" +
+                        "    DataFrame\n" +
+                        "        Row forward scan\n" +
+                        "        Frame forward scan on: x\n",
+                "l\ti\td\tts\n" +
+                        "2\t2\t1.0\t2024-01-01T00:01:00.000000Z\n" +
+                        "3\t3\t1.5\t2024-01-01T00:02:00.000000Z\n" +
+                        "4\t4\t2.0\t2024-01-01T00:03:00.000000Z\n" +
+                        "399\t9\t199.5\t2024-01-01T06:38:00.000000Z\n" +
+                        "400\t0\t200.0\t2024-01-01T06:39:00.000000Z\n"
+        );
+    }
+
+    @Test
+    public void testBatchFilterUnsupportedFunctionFallsBackToRowByRow() throws Exception {
+        testBatchFilter(
+                "select * from x where abs(l) < 3 and i > 0",
+                "Async Filter workers: 1\n" +
+                        "  filter: (abs(l)<3 and 0<i)\n" +
+                        "    DataFrame\n" +
+                        "        Row forward scan\n" +
+                        "        Frame forward scan on: x\n",
+                "l\ti\td\tts\n" +
+                        "1\t1\t0.5\t2024-01-01T00:00:00.000000Z\n" +
+                        "2\t2\t1.0\t2024-01-01T00:01:00.000000Z\n"
+        );
+    }
+
+    @Test
+    public void testBloomFilterColumnTops() throws Exception {
+        setProperty(PropertyKey.CAIRO_BLOOM_FILTER_ENABLED, "true");
+        assertMemoryLeak(() -> {
+            createBloomFilterTable("");
+            ddl("alter table x add column j long");
+            ddl("insert into x(l, u, v, ip, ts, j) select 5000 + x, to_uuid(x, x), ('v' || x)::varchar, x::int::ipv4, timestamp_sequence('2024-01-03T03', 60000000), x from long_sequence(500)");
+            assertBloomFilters(
+                    "j = 10\t2\n" +
+                            "j = null\t-1\n" +
+                            "j in (1, 500, 501)\t2\n" +
+                            "l = 5010\t2\n",
+                    "j = 10",
+                    "j = null",
+                    "j in (1, 500, 501)",
+                    "l = 5010"
+            );
+        });
+    }
+
+    @Test
+    public void testBloomFilterFiles() throws Exception {
+        setProperty(PropertyKey.CAIRO_BLOOM_FILTER_ENABLED, "true");
+        assertMemoryLeak(() -> {
+            createBloomFilterTable("");
+
+            final TableToken tableToken = engine.verifyTableName("x");
+            try (Path path = new Path()) {
+                path.of(configuration.getRoot()).concat(tableToken).concat("2024-01-01").concat("l.bf").$();
+                Assert.assertTrue(configuration.getFilesFacade().exists(path.$()));
+                path.of(configuration.getRoot()).concat(tableToken).concat("2024-01-01").concat("ts.bf").$();
+                Assert.assertFalse(configuration.getFilesFacade().exists(path.$()));
+            }
+
+            try (
+                    TableReader reader = getReader("x");
+                    BloomFilterReader bloomFilterReader = new BloomFilterReader(configuration.getFilesFacade())
+            ) {
+                Assert.assertEquals(3, reader.getPartitionCount());
+                final long partitionSize = reader.openPartition(0);
+                Assert.assertTrue(reader.loadBloomFilter(0, 0, bloomFilterReader));
+                Assert.assertEquals(partitionSize, bloomFilterReader.getCoveredRowCount());
+                for (long l = 1; l <= partitionSize; l++) {
+                    // every 97th value is null and is not added to the filter
+                    Assert.assertTrue(l % 97 == 0 || bloomFilterReader.mightContain(BloomFilterUtils.hashLong(l)));
+                }
+                Assert.assertFalse(bloomFilterReader.mightContain(BloomFilterUtils.hashLong(2000)));
+
+                Assert.assertTrue(reader.loadBloomFilter(0, 2, bloomFilterReader));
+                Assert.assertTrue(bloomFilterReader.mightContain(BloomFilterUtils.hashVarchar(new Utf8String("v10"))));
+                Assert.assertFalse(bloomFilterReader.mightContain(BloomFilterUtils.hashVarchar(new Utf8String("v2000"))));
+            }
+        });
+    }
+
+    @Test
+    public void testBloomFilterInOrderAndO3Commits() throws Exception {
+        setProperty(PropertyKey.CAIRO_BLOOM_FILTER_ENABLED, "true");
+        assertMemoryLeak(() -> {
+            createBloomFilterTable("");
+            assertBloomFilters(expectedBloomFilterSkippedFrames, BLOOM_FILTERS);
+
+            // append to the last partition
+            ddl("insert into x select 10000 + x, to_uuid(x, 0), ('w' || x)::varchar, (10000 + x)::int::ipv4, timestamp_sequence('2024-01-03T02', 60000000) from long_sequence(300)");
+            // merge into the first partition, grows it past the initial filter capacity
+            ddl("insert into x select 20000 + x, to_uuid(0, x), ('o' || x)::varchar, (20000 + x)::int::ipv4, timestamp_sequence('2024-01-01T00:00:30', 30000000) from long_sequence(2000)");
+            assertBloomFiltersCoverPartitions();
+            assertBloomFilters(expectedBloomFilterSkippedFrames, BLOOM_FILTERS);
+            assertBloomFilters(
+                    "l = 20001\t2\n" +
+                            "v in ('o1', 'w300')\t1\n" +
+                            "u = to_uuid(0, 2000)\t2\n",
+                    "l = 20001",
+                    "v in ('o1', 'w300')",
+                    "u = to_uuid(0, 2000)"
+            );
+        });
+    }
+
+    @Test
+    public void testBloomFilterSkipsPartitions() throws Exception {
+        setProperty(PropertyKey.CAIRO_BLOOM_FILTER_ENABLED, "true");
+        assertMemoryLeak(() -> {
+            sqlExecutionContext.setJitMode(SqlJitMode.JIT_MODE_DISABLED);
+            createBloomFilterTable("");
+            assertPlanNoLeakCheck(
+                    "select * from x where l = 10",
+                    "Async Filter workers: 1\n" +
+                            "  filter: l=10\n" +
+                            "  batch: true\n" +
+                            "    DataFrame\n" +
+                            "        Row forward scan\n" +
+                            "        Frame forward scan on: x\n" +
+                            "          bloom filter: l in [10]\n"
+            );
+            // not an intrinsic, no Bloom filter
+            assertPlanNoLeakCheck(
+                    "select * from x where l = 10 or l = 2000",
+                    "Async Filter workers: 1\n" +
+                            "  filter: (l=10 or l=2000)\n" +
+                            "  batch: true\n" +
+                            "    DataFrame\n" +
+                            "        Row forward scan\n" +
+                            "        Frame forward scan on: x\n"
+            );
+
+            assertPartitions("select * from x where l = 2000", 1);
+            assertPartitions("select * from x where v = 'v2999'", 2);
+            assertPartitions("select * from x where ip = '0.0.0.10'", 0);
+            assertPartitions("select * from x where l in (10, 2999)", 0, 2);
+            assertPartitions("select * from x where l = 999999");
+            assertPartitions("select * from x where l = 10 or l = 2000", 0, 1, 2);
+        });
+    }
+
+    @Test
+    public void testBloomFilterWal() throws Exception {
+        setProperty(PropertyKey.CAIRO_BLOOM_FILTER_ENABLED, "true");
+        assertMemoryLeak(() -> {
+            createBloomFilterTable(" wal");
+            drainWalQueue();
+            ddl("insert into x select 10000 + x, to_uuid(x, 0), ('w' || x)::varchar, (10000 + x)::int::ipv4, timestamp_sequence('2024-01-01T00:00:10', 60000000) from long_sequence(300)");
+            ddl("insert into x select 20000 + x, null, null, null, timestamp_sequence('2024-01-03T03', 60000000) from long_sequence(300)");
+            drainWalQueue();
+            assertBloomFiltersCoverPartitions();
+            assertBloomFilters(expectedBloomFilterSkippedFrames, BLOOM_FILTERS);
+            assertBloomFilters(
+                    "l = 10001\t2\n" +
+                            "v = 'w300'\t2\n",
+                    "l = 10001",
+                    "v = 'w300'"
+            );
+        });
+    }
+
+    @Test
+    public void testColumnTopRowByRowFilter() throws Exception {
+        assertMemoryLeak(() -> {
+            sqlExecutionContext.setJitMode(SqlJitMode.JIT_MODE_DISABLED);
+            ddl(BATCH_FILTER_DDL);
+            ddl("alter table x add column l2 long");
+            // frames have no pages for the added column and abs() is evaluated row by row
+            assertSql(
+                    "l\ti\td\tts\tl2\n" +
+                            "1\t1\t0.5\t2024-01-01T00:00:00.000000Z\tnull\n" +
+                            "2\t2\t1.0\t2024-01-01T00:01:00.000000Z\tnull\n",
+                    "select * from x where l2 != null or abs(l) < 3"
+            );
+        });
+    }
+
     @Test
     public void testEqStrFunctionFactory() throws Exception {
         final int threadCount = 4;
@@ -405,6 +783,204 @@ public class ParallelFilterTest extends AbstractCairoTest {
         testStrBindVariable("VARCHAR", SqlJitMode.JIT_MODE_ENABLED);
     }
 
+    @Test
+    public void testZoneMapFilterColumnTops() throws Exception {
+        enableZoneMaps();
+        assertMemoryLeak(() -> {
+            sqlExecutionContext.setJitMode(SqlJitMode.JIT_MODE_DISABLED);
+            createZoneMapTable("");
+            ddl("alter table x add column j int");
+            ddl("insert into x(i, l, d, s, b, r, ts, j) select x::int, x, x * 0.5, x::short, x::byte, 1, timestamp_sequence('2024-01-04', 60000000), x::int from long_sequence(500)");
+            // partitions written before the column was added have no zone maps for it
+            assertZoneMapFilters(
+                    "j > 400\t4\n" +
+                            "j != null\t0\n" +
+                            "j = null\t5\n" +
+                            "j < 100 and i < 200\t34\n",
+                    "j > 400",
+                    "j != null",
+                    "j = null",
+                    "j < 100 and i < 200"
+            );
+        });
+    }
+
+    @Test
+    public void testZoneMapFilterInOrderAndO3Commits() throws Exception {
+        enableZoneMaps();
+        assertMemoryLeak(() -> {
+            sqlExecutionContext.setJitMode(SqlJitMode.JIT_MODE_DISABLED);
+            createZoneMapTable("");
+            assertZoneMapFilters(expectedZoneMapSkippedFrames, ZONE_MAP_FILTERS);
+
+            // append to the last partition
+            ddl("insert into x select x::int, x, x * 0.5, x::short, x::byte, 1, timestamp_sequence('2024-01-03T02', 60000000) from long_sequence(300)");
+            // merge into the first partition
+            ddl("insert into x select (3000 + x)::int, 3000 + x, x * 0.25, x::short, x::byte, 99, timestamp_sequence('2024-01-01T00:00:30', 60000000) from long_sequence(200)");
+            assertZoneMapsCoverPartitions();
+            assertZoneMapFilters(
+                    "i > 2500\t26\n" +
+                            "i < 10\t35\n" +
+                            "i = 1234\t31\n" +
+                            "i != 5\t0\n" +
+                            "i = null\t3\n" +
+                            "i != null\t0\n" +
+                            "10 > i\t35\n" +
+                            "i > -1\t0\n" +
+                            "i < 1.5\t35\n" +
+                            "i > 3000000000\t37\n" +
+                            "l >= 2999\t32\n" +
+                            "l <= 3\t35\n" +
+                            "l = 100 and i = 100\t33\n" +
+                            "l > 2000 and d < 1100\t23\n" +
+                            "d > 1400.5\t33\n" +
+                            "d < 1.0\t8\n" +
+                            "d = 1000.5\t27\n" +
+                            "d = 1000\t27\n" +
+                            "d = null\t3\n" +
+                            "d != null\t0\n" +
+                            "s = 50\t4\n" +
+                            "b < 0\t33\n" +
+                            "r > 95\t4\n" +
+                            "r = null\t3\n" +
+                            "i > 2500 or i < 10\t-1\n",
+                    ZONE_MAP_FILTERS
+            );
+        });
+    }
+
+    @Test
+    public void testZoneMapFilterJit() throws Exception {
+        Assume.assumeTrue(JitUtil.isJitSupported());
+        enableZoneMaps();
+        assertMemoryLeak(() -> {
+            sqlExecutionContext.setJitMode(SqlJitMode.JIT_MODE_ENABLED);
+            createZoneMapTable("");
+            assertPlanNoLeakCheck(
+                    "select * from x where i > 2500 and d != null",
+                    "Async JIT Filter workers: 1\n" +
+                            "  filter: (2500<i and d is not null)\n" +
+                            "  zone map: i>2500 and d!=null\n" +
+                            "    DataFrame\n" +
+                            "        Row forward scan\n" +
+                            "        Frame forward scan on: x\n"
+            );
+            assertZoneMapFilters(expectedZoneMapSkippedFrames, ZONE_MAP_FILTERS);
+        });
+    }
+
+    @Test
+    public void testZoneMapFilterPlan() throws Exception {
+        enableZoneMaps();
+        assertMemoryLeak(() -> {
+            sqlExecutionContext.setJitMode(SqlJitMode.JIT_MODE_DISABLED);
+            createZoneMapTable("");
+            assertPlanNoLeakCheck(
+                    "select * from x where 10 > i and d = null and l >= -5 and d < 1.5 and abs(l) = 3",
+                    "Async Filter workers: 1\n" +
+                            "  filter: ((i<10 and d is null and l>=-5 and d<1.5) and abs(l)=3)\n" +
+                            "  zone map: i<10 and d=null and l>=-5 and d<1.5\n" +
+                            "    DataFrame\n" +
+                            "        Row forward scan\n" +
+                            "        Frame forward scan on: x\n"
+            );
+            // disjunctions can't be checked against zone maps
+            assertPlanNoLeakCheck(
+                    "select * from x where i > 2500 or i < 10",
+                    "Async Filter workers: 1\n" +
+                            "  filter: (2500<i or i<10)\n" +
+                            "  batch: true\n" +
+                            "    DataFrame\n" +
+                            "        Row forward scan\n" +
+                            "        Frame forward scan on: x\n"
+            );
+        });
+    }
+
+    @Test
+    public void testZoneMapFilterSkipsFrames() throws Exception {
+        enableZoneMaps();
+        assertMemoryLeak(() -> {
+            sqlExecutionContext.setJitMode(SqlJitMode.JIT_MODE_DISABLED);
+            ddl("create table y as (select x::int i, timestamp_sequence('2024-01-01', 1000000) ts from long_sequence(1000)) timestamp(ts) partition by day");
+
+            final TableToken tableToken = engine.verifyTableName("y");
+            try (Path path = new Path()) {
+                path.of(configuration.getRoot()).concat(tableToken).concat("2024-01-01").concat("i.zm").$();
+                Assert.assertTrue(configuration.getFilesFacade().exists(path.$()));
+            }
+
+            final String query = "select count() from y where i > 900";
+            assertPlanNoLeakCheck(
+                    query,
+                    "Count\n" +
+                            "    Async Filter workers: 1\n" +
+                            "      filter: 900<i\n" +
+                            "      batch: true\n" +
+                            "      zone map: i>900\n" +
+                            "        DataFrame\n" +
+                            "            Row forward scan\n" +
+                            "            Frame forward scan on: y\n"
+            );
+            assertSql("count\n100\n", query);
+
+            try (
+                    RecordCursorFactory factory = select("y where i > 900");
+                    RecordCursor cursor = factory.getCursor(sqlExecutionContext)
+            ) {
+                int rowCount = 0;
+                while (cursor.hasNext()) {
+                    rowCount++;
+                }
+                Assert.assertEquals(100, rowCount);
+                // 10 frames of 100 rows, all but the last one are below the bound
+                Assert.assertEquals(9, getZoneMapFilter(factory).getSkippedFrameCount());
+            }
+        });
+    }
+
+    @Test
+    public void testZoneMapFilterWal() throws Exception {
+        enableZoneMaps();
+        assertMemoryLeak(() -> {
+            sqlExecutionContext.setJitMode(SqlJitMode.JIT_MODE_DISABLED);
+            createZoneMapTable(" wal");
+            drainWalQueue();
+            ddl("insert into x select (5000 + x)::int, x, x * 0.5, x::short, x::byte, 1, timestamp_sequence('2024-01-01T00:00:10', 60000000) from long_sequence(300)");
+            ddl("insert into x select x::int, x, null, x::short, x::byte, null, timestamp_sequence('2024-01-03T03', 60000000) from long_sequence(300)");
+            drainWalQueue();
+            assertZoneMapsCoverPartitions();
+            assertZoneMapFilters(
+                    "i > 2500\t25\n" +
+                            "i < 10\t36\n" +
+                            "i = 1234\t30\n" +
+                            "i != 5\t0\n" +
+                            "i = null\t3\n" +
+                            "i != null\t0\n" +
+                            "10 > i\t36\n" +
+                            "i > -1\t0\n" +
+                            "i < 1.5\t36\n" +
+                            "i > 3000000000\t38\n" +
+                            "l >= 2999\t37\n" +
+                            "l <= 3\t36\n" +
+                            "l = 100 and i = 100\t35\n" +
+                            "l > 2000 and d < 1100\t29\n" +
+                            "d > 1400.5\t34\n" +
+                            "d < 1.0\t10\n" +
+                            "d = 1000.5\t29\n" +
+                            "d = 1000\t29\n" +
+                            "d = null\t0\n" +
+                            "d != null\t3\n" +
+                            "s = 50\t4\n" +
+                            "b < 0\t32\n" +
+                            "r > 95\t5\n" +
+                            "r = null\t0\n" +
+                            "i > 2500 or i < 10\t-1\n",
+                    ZONE_MAP_FILTERS
+            );
+        });
+    }
+
     private static boolean assertCursor(
             CharSequence expected,
             RecordCursorFactory factory,
@@ -461,6 +1037,192 @@ public class ParallelFilterTest extends AbstractCairoTest {
         );
     }
 
+    private static void enableZoneMaps() {
+        // frames of a partition have distinct zone maps when their bounds are aligned with zone map blocks
+        setProperty(PropertyKey.CAIRO_SQL_PAGE_FRAME_MIN_ROWS, PAGE_FRAME_MAX_ROWS);
+        setProperty(PropertyKey.CAIRO_ZONE_MAP_BLOCK_ROWS, 4);
+        setProperty(PropertyKey.CAIRO_ZONE_MAP_ENABLED, "true");
+    }
+
+    private static BloomFilterDataFrameCursorFactory getBloomFilter(RecordCursorFactory factory) {
+        while (factory != null && !(factory instanceof DataFrameRecordCursorFactory)) {
+            factory = factory.getBaseFactory();
+        }
+        if (factory != null) {
+            final DataFrameCursorFactory dataFrameCursorFactory = ((DataFrameRecordCursorFactory) factory).getDataFrameCursorFactory();
+            if (dataFrameCursorFactory instanceof BloomFilterDataFrameCursorFactory) {
+                return (BloomFilterDataFrameCursorFactory) dataFrameCursorFactory;
+            }
+        }
+        return null;
+    }
+
+    private static ZoneMapFilter getZoneMapFilter(RecordCursorFactory factory) {
+        if (factory instanceof QueryProgress) {
+            factory = factory.getBaseFactory();
+        }
+        if (factory instanceof AsyncJitFilteredRecordCursorFactory) {
+            return ((AsyncJitFilteredRecordCursorFactory) factory).getZoneMapFilter();
+        }
+        if (factory instanceof AsyncFilteredRecordCursorFactory) {
+            return ((AsyncFilteredRecordCursorFactory) factory).getZoneMapFilter();
+        }
+        return null;
+    }
+
+    /**
+     * Runs the query with and without Bloom filters and compares the results.
+     *
+     * @return number of data frames skipped with Bloom filters or -1 when the filter can't use them
+     */
+    private int assertBloomFilter(String filter) throws Exception {
+        final String query = "select * from x where " + filter;
+        node1.setProperty(PropertyKey.CAIRO_BLOOM_FILTER_ENABLED, false);
+        printSql(query);
+        final String expected = sink.toString();
+
+        node1.setProperty(PropertyKey.CAIRO_BLOOM_FILTER_ENABLED, true);
+        try (RecordCursorFactory factory = select(query)) {
+            assertQuery(expected, factory, sqlExecutionContext);
+            final BloomFilterDataFrameCursorFactory bloomFilter = getBloomFilter(factory);
+            return bloomFilter != null ? bloomFilter.getSkippedFrameCount() : -1;
+        }
+    }
+
+    /**
+     * Checks the filters against full scans.
+     *
+     * @param expectedSkippedFrames filters with the number of data frames they skip, -1 stands for a filter that can't use Bloom filters
+     */
+    private void assertBloomFilters(String expectedSkippedFrames, String... filters) throws Exception {
+        final StringSink skippedFrames = new StringSink();
+        for (String filter : filters) {
+            final int skippedFrameCount = assertBloomFilter(filter);
+            skippedFrames.put(filter).put('\t').put(skippedFrameCount).put('\n');
+        }
+        TestUtils.assertEquals(expectedSkippedFrames, skippedFrames);
+    }
+
+    private void assertBloomFiltersCoverPartitions() {
+        try (
+                TableReader reader = getReader("x");
+                BloomFilterReader bloomFilterReader = new BloomFilterReader(configuration.getFilesFacade())
+        ) {
+            final RecordMetadata metadata = reader.getMetadata();
+            Assert.assertTrue(reader.getPartitionCount() > 1);
+            for (int partitionIndex = 0, n = reader.getPartitionCount(); partitionIndex < n; partitionIndex++) {
+                final long partitionSize = reader.openPartition(partitionIndex);
+                for (int columnIndex = 0, m = metadata.getColumnCount(); columnIndex < m; columnIndex++) {
+                    if (BloomFilterUtils.isSupported(metadata.getColumnType(columnIndex))) {
+                        Assert.assertTrue(reader.loadBloomFilter(partitionIndex, columnIndex, bloomFilterReader));
+                        Assert.assertEquals(partitionSize, bloomFilterReader.getCoveredRowCount());
+                    }
+                }
+            }
+        }
+    }
+
+    private void assertPartitions(String query, int... expectedPartitions) throws Exception {
+        try (
+                RecordCursorFactory factory = select(query);
+                PageFrameCursor cursor = factory.getBaseFactory().getBaseFactory().getPageFrameCursor(sqlExecutionContext, DataFrameCursorFactory.ORDER_ASC)
+        ) {
+            // partitions are split into multiple page frames
+            int count = 0;
+            int lastPartitionIndex = -1;
+            PageFrame frame;
+            while ((frame = cursor.next()) != null) {
+                if (frame.getPartitionIndex() != lastPartitionIndex) {
+                    lastPartitionIndex = frame.getPartitionIndex();
+                    Assert.assertTrue(count < expectedPartitions.length);
+                    Assert.assertEquals(expectedPartitions[count++], lastPartitionIndex);
+                }
+            }
+            Assert.assertEquals(expectedPartitions.length, count);
+        }
+    }
+
+    /**
+     * Runs the query with and without zone maps and compares the results.
+     *
+     * @return number of page frames skipped with zone maps or -1 when the filter can't use them
+     */
+    private int assertZoneMapFilter(String filter) throws Exception {
+        final String query = "select * from x where " + filter;
+        node1.setProperty(PropertyKey.CAIRO_ZONE_MAP_ENABLED, false);
+        printSql(query);
+        final String expected = sink.toString();
+
+        node1.setProperty(PropertyKey.CAIRO_ZONE_MAP_ENABLED, true);
+        try (RecordCursorFactory factory = select(query)) {
+            assertQuery(expected, factory, sqlExecutionContext);
+            final ZoneMapFilter zoneMapFilter = getZoneMapFilter(factory);
+            return zoneMapFilter != null ? zoneMapFilter.getSkippedFrameCount() : -1;
+        }
+    }
+
+    /**
+     * Checks the filters against full scans.
+     *
+     * @param expectedSkippedFrames filters with the number of page frames they skip, -1 stands for a filter that can't use zone maps
+     */
+    private void assertZoneMapFilters(String expectedSkippedFrames, String... filters) throws Exception {
+        final StringSink skippedFrames = new StringSink();
+        for (String filter : filters) {
+            final int skippedFrameCount = assertZoneMapFilter(filter);
+            skippedFrames.put(filter).put('\t').put(skippedFrameCount).put('\n');
+        }
+        TestUtils.assertEquals(expectedSkippedFrames, skippedFrames);
+    }
+
+    private void assertZoneMapsCoverPartitions() {
+        try (
+                TableReader reader = getReader("x");
+                ZoneMapReader zoneMapReader = new ZoneMapReader(configuration.getFilesFacade())
+        ) {
+            final RecordMetadata metadata = reader.getMetadata();
+            Assert.assertTrue(reader.getPartitionCount() > 1);
+            for (int partitionIndex = 0, n = reader.getPartitionCount(); partitionIndex < n; partitionIndex++) {
+                final long partitionSize = reader.openPartition(partitionIndex);
+                for (int columnIndex = 0, m = metadata.getColumnCount(); columnIndex < m; columnIndex++) {
+                    if (ZoneMapUtils.isSupported(metadata.getColumnType(columnIndex)) && columnIndex != metadata.getTimestampIndex()) {
+                        Assert.assertTrue(reader.loadZoneMap(partitionIndex, columnIndex, zoneMapReader));
+                        Assert.assertTrue(zoneMapReader.aggregate(0, partitionSize));
+                        Assert.assertTrue(zoneMapReader.hasValues());
+                    }
+                }
+            }
+        }
+    }
+
+    private void createBloomFilterTable(String suffix) throws Exception {
+        ddl(
+                "create table x as (" +
+                        "select case when x % 97 = 0 then null else x end l, " +
+                        "case when x % 89 = 0 then null else to_uuid(x, x) end u, " +
+                        "case when x % 83 = 0 then null else ('v' || x)::varchar end v, " +
+                        "case when x % 79 = 0 then null else x::int::ipv4 end ip, " +
+                        "timestamp_sequence('2024-01-01', 60000000) ts " +
+                        "from long_sequence(3000)" +
+                        ") timestamp(ts) partition by day" + suffix
+        );
+    }
+
+    private void createZoneMapTable(String suffix) throws Exception {
+        ddl(
+                "create table x as (" +
+                        "select case when x % 13 = 0 then null else x::int end i, " +
+                        "x l, " +
+                        "case when x % 10 = 0 then null when x % 97 = 0 then -x * 0.5 else x * 0.5 end d, " +
+                        "(x % 100)::short s, " +
+                        "(x % 7)::byte b, " +
+                        "rnd_int(0, 100, 2) r, " +
+                        "timestamp_sequence('2024-01-01', 60000000) ts " +
+                        "from long_sequence(3000)" +
+                        ") timestamp(ts) partition by day" + suffix
+        );
+    }
+
     private void testAsyncOffloadNegativeLimitTimeout() throws Exception {
         assertMemoryLeak(() -> {
             SqlExecutionContextImpl context = (SqlExecutionContextImpl) sqlExecutionContext;
@@ -611,6 +1373,16 @@ public class ParallelFilterTest extends AbstractCairoTest {
         );
     }
 
+    private void testBatchFilter(String query, String expectedPlan, String expected) throws Exception {
+        assertMemoryLeak(() -> {
+            // batch evaluation is only used by the Java filter path
+            sqlExecutionContext.setJitMode(SqlJitMode.JIT_MODE_DISABLED);
+            ddl(BATCH_FILTER_DDL);
+            assertPlanNoLeakCheck(query, expectedPlan);
+            assertSql(expected, query);
+        });
+    }
+
     private void testParallelStressSymbol(String query, String expected, int workerCount, int threadCount, int jitMode) throws Exception {
         node1.setProperty(PropertyKey.CAIRO_SQL_JIT_MODE, SqlJitMode.toString(jitMode));
 
@@ -0,0 +1,277 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.test.griffin;
+
+import io.questdb.PropertyKey;
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.griffin.QueryResultCache;
+import io.questdb.test.AbstractCairoTest;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class QueryResultCacheTest extends AbstractCairoTest {
+
+    @Override
+    @Before
+    public void setUp() {
+        super.setUp();
+        node1.setProperty(PropertyKey.CAIRO_SQL_RESULT_CACHE_ENABLED, true);
+    }
+
+    @Test
+    public void testBindVariablesArePartOfKey() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            final QueryResultCache cache = engine.getQueryResultCache();
+            final String query = "select count() from x where l > $1";
+
+            bindVariableService.clear();
+            bindVariableService.setLong(0, 2);
+            assertSql("count\n8\n", query);
+
+            bindVariableService.clear();
+            bindVariableService.setLong(0, 5);
+            assertSql("count\n5\n", query);
+            Assert.assertEquals(2, cache.getEntryCount());
+
+            final long hits = cache.getHitCount();
+            bindVariableService.clear();
+            bindVariableService.setLong(0, 2);
+            assertSql("count\n8\n", query);
+            Assert.assertEquals(hits + 1, cache.getHitCount());
+        });
+    }
+
+    @Test
+    public void testCacheHit() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            final QueryResultCache cache = engine.getQueryResultCache();
+            final String query = "select s, sum(l) sum, last(str) str, last(v) v from x order by s";
+            final String expected = "s\tsum\tstr\tv\n" +
+                    "a\t22\tf\tqq\n" +
+                    "b\t15\tb\tu\n" +
+                    "c\t18\t\t\n";
+
+            final long hits = cache.getHitCount();
+            final long misses = cache.getMissCount();
+            assertSql(expected, query);
+            Assert.assertEquals(misses + 1, cache.getMissCount());
+            Assert.assertEquals(1, cache.getEntryCount());
+            Assert.assertTrue(cache.getMemoryUsed() > 0);
+
+            assertSql(expected, query);
+            assertSql(expected, query);
+            Assert.assertEquals(hits + 2, cache.getHitCount());
+            Assert.assertEquals(misses + 1, cache.getMissCount());
+        });
+    }
+
+    @Test
+    public void testCursorFunctionsNotCached() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            assertSql("x\n1\n2\n", "select x from long_sequence(2)");
+            assertSql("table_name\nx\n", "select table_name from tables()");
+            Assert.assertEquals(0, engine.getQueryResultCache().getEntryCount());
+        });
+    }
+
+    @Test
+    public void testInvalidatedOnCommit() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            final QueryResultCache cache = engine.getQueryResultCache();
+            final String query = "select count(), sum(l) from x";
+
+            assertSql("count\tsum\n10\t55\n", query);
+            insert("insert into x values ('a', 100, 'z', 'z', '2024-01-02T00:00:00.000000Z')");
+
+            final long hits = cache.getHitCount();
+            assertSql("count\tsum\n11\t155\n", query);
+            Assert.assertEquals(hits, cache.getHitCount());
+            Assert.assertEquals(1, cache.getEntryCount());
+
+            assertSql("count\tsum\n11\t155\n", query);
+            Assert.assertEquals(hits + 1, cache.getHitCount());
+        });
+    }
+
+    @Test
+    public void testInvalidatedOnJoinedTableCommit() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            ddl("create table y (s symbol, name string)");
+            insert("insert into y values ('a', 'alpha'), ('b', 'beta')");
+            final String query = "select y.name, count() from x join y on s order by 1";
+
+            assertSql("name\tcount\nalpha\t4\nbeta\t3\n", query);
+            insert("insert into y values ('c', 'gamma')");
+            assertSql("name\tcount\nalpha\t4\nbeta\t3\ngamma\t3\n", query);
+        });
+    }
+
+    @Test
+    public void testMaxRows() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            node1.setProperty(PropertyKey.CAIRO_SQL_RESULT_CACHE_MAX_ROWS, 5);
+            assertSql("l\n1\n2\n3\n4\n5\n", "select l from x limit 5");
+            assertSql("l\n10\n", "select l from x limit -1");
+            Assert.assertEquals(2, engine.getQueryResultCache().getEntryCount());
+
+            printSql("select l from x");
+            Assert.assertEquals(2, engine.getQueryResultCache().getEntryCount());
+        });
+    }
+
+    @Test
+    public void testMemoryBudgetEvictsLeastRecentlyUsed() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            final QueryResultCache cache = engine.getQueryResultCache();
+            assertSql("l\n1\n", "select l from x limit 1");
+            final long entrySize = cache.getMemoryUsed();
+            node1.setProperty(PropertyKey.CAIRO_SQL_RESULT_CACHE_MEMORY_BUDGET, 2 * entrySize);
+
+            assertSql("l\n2\n", "select l from x limit 1, 2");
+            // touch the first entry, so that the second one is evicted
+            assertSql("l\n1\n", "select l from x limit 1");
+            assertSql("l\n3\n", "select l from x limit 2, 3");
+            Assert.assertEquals(2, cache.getEntryCount());
+            Assert.assertEquals(2 * entrySize, cache.getMemoryUsed());
+
+            final long hits = cache.getHitCount();
+            assertSql("l\n1\n", "select l from x limit 1");
+            assertSql("l\n3\n", "select l from x limit 2, 3");
+            Assert.assertEquals(hits + 2, cache.getHitCount());
+            assertSql("l\n2\n", "select l from x limit 1, 2");
+            Assert.assertEquals(hits + 2, cache.getHitCount());
+        });
+    }
+
+    @Test
+    public void testNonDeterministicFunctionsNotCached() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            printSql("select rnd_int() from x");
+            printSql("select l from x where ts < now()");
+            printSql("select systimestamp(), l from x");
+            Assert.assertEquals(0, engine.getQueryResultCache().getEntryCount());
+        });
+    }
+
+    @Test
+    public void testPartiallyIteratedCursorNotCached() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            try (RecordCursorFactory factory = select("select * from x")) {
+                try (RecordCursor cursor = factory.getCursor(sqlExecutionContext)) {
+                    Assert.assertTrue(cursor.hasNext());
+                    Assert.assertTrue(cursor.hasNext());
+                }
+                Assert.assertEquals(0, engine.getQueryResultCache().getEntryCount());
+
+                try (RecordCursor cursor = factory.getCursor(sqlExecutionContext)) {
+                    TestUtils.assertCursor(
+                            "s\tl\tstr\tv\tts\n" +
+                                    "a\t1\ta\tqq\t2024-01-01T00:00:00.000000Z\n" +
+                                    "b\t2\tb\tu\t2024-01-01T01:00:00.000000Z\n" +
+                                    "c\t3\t\t\t2024-01-01T02:00:00.000000Z\n" +
+                                    "a\t4\td\tqq\t2024-01-01T03:00:00.000000Z\n" +
+                                    "b\t5\te\tu\t2024-01-01T04:00:00.000000Z\n" +
+                                    "c\t6\t\t\t2024-01-01T05:00:00.000000Z\n" +
+                                    "a\t7\tf\tqq\t2024-01-01T06:00:00.000000Z\n" +
+                                    "b\t8\tb\tu\t2024-01-01T07:00:00.000000Z\n" +
+                                    "c\t9\t\t\t2024-01-01T08:00:00.000000Z\n" +
+                                    "a\t10\tf\tqq\t2024-01-01T09:00:00.000000Z\n",
+                            cursor,
+                            factory.getMetadata(),
+                            true,
+                            sink
+                    );
+                }
+                Assert.assertEquals(1, engine.getQueryResultCache().getEntryCount());
+            }
+        });
+    }
+
+    @Test
+    public void testRandomGeneratorUseNotCached() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            try (RecordCursorFactory factory = select("select l from x")) {
+                try (RecordCursor cursor = factory.getCursor(sqlExecutionContext)) {
+                    Assert.assertTrue(cursor.hasNext());
+                    // same as a function that takes the random generator while the cursor is iterated
+                    sqlExecutionContext.getRandom();
+                    while (cursor.hasNext()) {
+                        cursor.getRecord();
+                    }
+                }
+                Assert.assertEquals(0, engine.getQueryResultCache().getEntryCount());
+
+                // the query remains non-cacheable
+                try (RecordCursor cursor = factory.getCursor(sqlExecutionContext)) {
+                    while (cursor.hasNext()) {
+                        cursor.getRecord();
+                    }
+                }
+                Assert.assertEquals(0, engine.getQueryResultCache().getEntryCount());
+            }
+        });
+    }
+
+    @Test
+    public void testTimestampShuffleNotCached() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            printSql("select timestamp_shuffle('2024-01-01', '2024-01-02') ts, l from x");
+            printSql("select l from x where ts < timestamp_shuffle('2024-01-01', '2024-01-02')");
+            Assert.assertEquals(0, engine.getQueryResultCache().getEntryCount());
+        });
+    }
+
+    private void createTable() throws Exception {
+        ddl("create table x (s symbol, l long, str string, v varchar, ts timestamp) timestamp(ts) partition by day");
+        insert(
+                "insert into x values " +
+                        "('a', 1, 'a', 'qq', '2024-01-01T00:00:00.000000Z')," +
+                        "('b', 2, 'b', 'u', '2024-01-01T01:00:00.000000Z')," +
+                        "('c', 3, null, null, '2024-01-01T02:00:00.000000Z')," +
+                        "('a', 4, 'd', 'qq', '2024-01-01T03:00:00.000000Z')," +
+                        "('b', 5, 'e', 'u', '2024-01-01T04:00:00.000000Z')," +
+                        "('c', 6, null, null, '2024-01-01T05:00:00.000000Z')," +
+                        "('a', 7, 'f', 'qq', '2024-01-01T06:00:00.000000Z')," +
+                        "('b', 8, 'b', 'u', '2024-01-01T07:00:00.000000Z')," +
+                        "('c', 9, null, null, '2024-01-01T08:00:00.000000Z')," +
+                        "('a', 10, 'f', 'qq', '2024-01-01T09:00:00.000000Z')"
+        );
+    }
+}
@@ -24,7 +24,13 @@
 
 package io.questdb.test.griffin;
 
+import io.questdb.PropertyKey;
+import io.questdb.griffin.SqlCompiler;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.mp.WorkerPool;
 import io.questdb.test.AbstractCairoTest;
+import io.questdb.test.tools.TestUtils;
 import org.junit.Test;
 
 public class SortAndLimitTest extends AbstractCairoTest {
@@ -297,6 +303,172 @@ public class SortAndLimitTest extends AbstractCairoTest {
         assertQueryExpectSize("i\n8\n9\n9\n10\n10\n", "select i from sorttest order by i limit -5");
     }
 
+    @Test
+    public void testParallelTopK() throws Exception {
+        // a few rows per frame, so that every worker keeps its own top k
+        node1.setProperty(PropertyKey.CAIRO_SQL_PAGE_FRAME_MAX_ROWS, 2);
+        WorkerPool pool = new WorkerPool(() -> 4);
+        TestUtils.execute(pool, (engine, compiler, sqlExecutionContext) -> {
+                    ddl(compiler, "create table x as (select x l, (x % 3)::int i, timestamp_sequence(0, 1000) ts from long_sequence(20)) timestamp(ts)", sqlExecutionContext);
+                    node1.setProperty(PropertyKey.CAIRO_SQL_PARALLEL_TOPK_ENABLED, true);
+                    TestUtils.assertSql(
+                            engine,
+                            sqlExecutionContext,
+                            "explain select * from x order by l desc limit 3",
+                            sink,
+                            "QUERY PLAN\n" +
+                                    "Sort light lo: 3\n" +
+                                    "  keys: [l desc]\n" +
+                                    "    Async Top K workers: 4\n" +
+                                    "      keys: [l desc]\n" +
+                                    "      filter: null\n" +
+                                    "        DataFrame\n" +
+                                    "            Row forward scan\n" +
+                                    "            Frame forward scan on: x\n"
+                    );
+                    TestUtils.assertSql(
+                            engine,
+                            sqlExecutionContext,
+                            "select l, i from x order by l desc limit 3",
+                            sink,
+                            "l\ti\n" +
+                                    "20\t2\n" +
+                                    "19\t1\n" +
+                                    "18\t0\n"
+                    );
+                    // ties come in the same order as with the serial sort
+                    TestUtils.assertSql(
+                            engine,
+                            sqlExecutionContext,
+                            "select l, i from x where l > 4 order by i limit 4",
+                            sink,
+                            "l\ti\n" +
+                                    "15\t0\n" +
+                                    "12\t0\n" +
+                                    "9\t0\n" +
+                                    "6\t0\n"
+                    );
+                },
+                configuration,
+                LOG
+        );
+    }
+
+    @Test
+    public void testParallelTopKBackwardScan() throws Exception {
+        assertParallelTopKSameAsSerial("select * from (x order by ts desc) order by i limit 150");
+    }
+
+    @Test
+    public void testParallelTopKFilter() throws Exception {
+        assertParallelTopKSameAsSerial("select * from x where l > 10 order by d desc limit 100");
+    }
+
+    @Test
+    public void testParallelTopKFilterLastN() throws Exception {
+        assertParallelTopKSameAsSerial("select * from x where l > 10 and i < 20 order by i limit -75");
+    }
+
+    @Test
+    public void testParallelTopKLimitLargerThanFrame() throws Exception {
+        assertParallelTopKSameAsSerial("select * from x where i > 3 order by l desc, ts limit 1000");
+    }
+
+    @Test
+    public void testParallelTopKLimitZero() throws Exception {
+        assertParallelTopKSameAsSerial("select * from x where l > 10 order by d limit 0");
+    }
+
+    @Test
+    public void testParallelTopKLoHi() throws Exception {
+        assertParallelTopKSameAsSerial("select * from x order by i, str limit 20, 140");
+    }
+
+    @Test
+    public void testParallelTopKMultipleKeys() throws Exception {
+        assertParallelTopKSameAsSerial("select * from x where d > 0.1 order by i desc, str limit 77");
+    }
+
+    @Test
+    public void testParallelTopKNegativeLoHi() throws Exception {
+        assertParallelTopKSameAsSerial("select * from x order by i desc limit -140, -20");
+    }
+
+    @Test
+    public void testParallelTopKNoFilterTies() throws Exception {
+        // i has only 31 distinct values, so the order of ties matters
+        assertParallelTopKSameAsSerial("select * from x order by i limit 130");
+    }
+
+    @Test
+    public void testParallelTopKNonThreadSafeFilter() throws Exception {
+        assertParallelTopKSameAsSerial("select * from x where str ~ '[A-M]' order by l limit 50");
+    }
+
+    @Test
+    public void testParallelTopKSymbolKeyIsSerial() throws Exception {
+        WorkerPool pool = new WorkerPool(() -> 4);
+        TestUtils.execute(pool, (engine, compiler, sqlExecutionContext) -> {
+                    createParallelTopKTable(compiler, sqlExecutionContext);
+                    node1.setProperty(PropertyKey.CAIRO_SQL_PARALLEL_TOPK_ENABLED, true);
+                    // symbol tables can't be shared between workers
+                    TestUtils.assertSql(
+                            engine,
+                            sqlExecutionContext,
+                            "explain select * from x order by s, l limit 10",
+                            sink,
+                            "QUERY PLAN\n" +
+                                    "Sort light lo: 10\n" +
+                                    "  keys: [s, l]\n" +
+                                    "    DataFrame\n" +
+                                    "        Row forward scan\n" +
+                                    "        Frame forward scan on: x\n"
+                    );
+                },
+                configuration,
+                LOG
+        );
+    }
+
+    @Test
+    public void testParallelTopKVarcharKey() throws Exception {
+        assertParallelTopKSameAsSerial("select * from x where l < 100 order by vch desc limit 120");
+    }
+
+    private static void createParallelTopKTable(SqlCompiler compiler, SqlExecutionContext sqlExecutionContext) throws SqlException {
+        ddl(
+                compiler,
+                "create table x as (" +
+                        "select timestamp_sequence(0, 1000) ts, rnd_long(0, 200, 1) l, rnd_int(0, 30, 1) i, rnd_double(1) d, " +
+                        "rnd_symbol('a','b','c', null) s, rnd_str(1,2,1) str, rnd_varchar(1,3,1) vch " +
+                        "from long_sequence(5000)" +
+                        ") timestamp(ts) partition by hour",
+                sqlExecutionContext
+        );
+    }
+
+    private void assertParallelTopKSameAsSerial(String query) throws Exception {
+        // plenty of page frames, each one larger than most of the limits
+        node1.setProperty(PropertyKey.CAIRO_SQL_PAGE_FRAME_MAX_ROWS, 100);
+        WorkerPool pool = new WorkerPool(() -> 4);
+        TestUtils.execute(pool, (engine, compiler, sqlExecutionContext) -> {
+                    createParallelTopKTable(compiler, sqlExecutionContext);
+
+                    node1.setProperty(PropertyKey.CAIRO_SQL_PARALLEL_TOPK_ENABLED, false);
+                    TestUtils.printSql(compiler, sqlExecutionContext, query, sink);
+                    final String expected = sink.toString();
+
+                    node1.setProperty(PropertyKey.CAIRO_SQL_PARALLEL_TOPK_ENABLED, true);
+                    TestUtils.printSql(compiler, sqlExecutionContext, "explain " + query, sink);
+                    // the filter may or may not be compiled
+                    TestUtils.assertContains(sink, "Top K workers: 4");
+                    TestUtils.assertSql(compiler, sqlExecutionContext, query, sink, expected);
+                },
+                configuration,
+                LOG
+        );
+    }
+
     private void assertQuery(String expected, String query) throws Exception {
         assertQuery(
                 expected,
@@ -24,6 +24,7 @@
 
 package io.questdb.test.griffin;
 
+import io.questdb.PropServerConfiguration;
 import io.questdb.PropertyKey;
 import io.questdb.cairo.*;
 import io.questdb.cairo.sql.Record;
@@ -37,7 +38,9 @@ import io.questdb.griffin.SqlExecutionContext;
 import io.questdb.griffin.engine.functions.test.TestMatchFunctionFactory;
 import io.questdb.griffin.engine.groupby.vect.GroupByVectorAggregateJob;
 import io.questdb.mp.SOCountDownLatch;
+import io.questdb.mp.WorkerPool;
 import io.questdb.std.FilesFacade;
+import io.questdb.std.LongList;
 import io.questdb.std.Misc;
 import io.questdb.std.str.LPSZ;
 import io.questdb.std.str.Utf8s;
@@ -51,9 +54,13 @@ import org.junit.Assert;
 import org.junit.Ignore;
 import org.junit.Test;
 
+import java.io.File;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 public class SqlCodeGeneratorTest extends AbstractCairoTest {
+    private static final int PARALLEL_SORT_ROW_COUNT = 5_000;
+    // union makes the base cursor non-random-access, so that whole records are sorted
+    private static final String PARALLEL_SORT_UNION = "(select * from x union all select * from x where l < 50)";
 
     @Test
     public void testAliasedColumnFollowedByWildcard() throws Exception {
@@ -5947,6 +5954,165 @@ public class SqlCodeGeneratorTest extends AbstractCairoTest {
                         "-235358133\tY\t1970-01-01T01:40:00.000000Z\tCXZOUICWEK\n", true, true, false);
     }
 
+    @Test
+    public void testOrderByParallelSort() throws Exception {
+        // tiny runs, so that every few records are sorted by a worker and spilled
+        node1.setProperty(PropertyKey.CAIRO_SQL_SORT_RUN_MAX_SIZE, 64);
+        WorkerPool pool = new WorkerPool(() -> 4);
+        TestUtils.execute(pool, (engine, compiler, sqlExecutionContext) -> {
+                    ddl(compiler, "create table x as (select x l, (x % 3)::int i, timestamp_sequence(0, 1000) ts from long_sequence(10)) timestamp(ts)", sqlExecutionContext);
+                    node1.setProperty(PropertyKey.CAIRO_SQL_PARALLEL_SORT_ENABLED, true);
+                    TestUtils.assertSql(
+                            engine,
+                            sqlExecutionContext,
+                            "explain select l, i from (x union all x) order by i, l desc",
+                            sink,
+                            "QUERY PLAN\n" +
+                                    "Parallel Sort workers: 4\n" +
+                                    "  keys: [i, l desc]\n" +
+                                    "    Union All\n" +
+                                    "        DataFrame\n" +
+                                    "            Row forward scan\n" +
+                                    "            Frame forward scan on: x\n" +
+                                    "        DataFrame\n" +
+                                    "            Row forward scan\n" +
+                                    "            Frame forward scan on: x\n"
+                    );
+                    TestUtils.assertSql(
+                            engine,
+                            sqlExecutionContext,
+                            "select l, i from (x union all x) order by i, l desc",
+                            sink,
+                            "l\ti\n" +
+                                    "9\t0\n" +
+                                    "9\t0\n" +
+                                    "6\t0\n" +
+                                    "6\t0\n" +
+                                    "3\t0\n" +
+                                    "3\t0\n" +
+                                    "10\t1\n" +
+                                    "10\t1\n" +
+                                    "7\t1\n" +
+                                    "7\t1\n" +
+                                    "4\t1\n" +
+                                    "4\t1\n" +
+                                    "1\t1\n" +
+                                    "1\t1\n" +
+                                    "8\t2\n" +
+                                    "8\t2\n" +
+                                    "5\t2\n" +
+                                    "5\t2\n" +
+                                    "2\t2\n" +
+                                    "2\t2\n"
+                    );
+                },
+                configuration,
+                LOG
+        );
+    }
+
+    @Test
+    public void testOrderByParallelSortKeys() throws Exception {
+        assertParallelSortSameAsSerial(
+                "select * from " + PARALLEL_SORT_UNION + " order by d",
+                "select * from " + PARALLEL_SORT_UNION + " order by i",
+                "select * from " + PARALLEL_SORT_UNION + " order by l",
+                "select * from " + PARALLEL_SORT_UNION + " order by l desc",
+                "select * from " + PARALLEL_SORT_UNION + " order by i, l desc, d",
+                "select * from " + PARALLEL_SORT_UNION + " order by str",
+                "select * from " + PARALLEL_SORT_UNION + " order by str desc, l",
+                "select * from " + PARALLEL_SORT_UNION + " order by s desc, l",
+                "select * from " + PARALLEL_SORT_UNION + " order by ts desc",
+                "select * from " + PARALLEL_SORT_UNION + " order by vch desc"
+        );
+    }
+
+    @Test
+    public void testOrderByParallelSortRandomAccess() throws Exception {
+        node1.setProperty(PropertyKey.CAIRO_SQL_SORT_RUN_MAX_SIZE, 16 * 1024);
+        WorkerPool pool = new WorkerPool(() -> 4);
+        TestUtils.execute(pool, (engine, compiler, sqlExecutionContext) -> {
+                    createParallelSortTable(compiler, sqlExecutionContext);
+                    node1.setProperty(PropertyKey.CAIRO_SQL_PARALLEL_SORT_ENABLED, true);
+                    try (RecordCursorFactory factory = compiler.compile("select * from " + PARALLEL_SORT_UNION + " order by str, l", sqlExecutionContext).getRecordCursorFactory()) {
+                        Assert.assertTrue(factory.recordCursorSupportsRandomAccess());
+                        try (RecordCursor cursor = factory.getCursor(sqlExecutionContext)) {
+                            final Record record = cursor.getRecord();
+                            final LongList rowIds = new LongList();
+                            final LongList values = new LongList();
+                            while (cursor.hasNext()) {
+                                rowIds.add(record.getRowId());
+                                values.add(record.getLong(1));
+                            }
+                            Assert.assertTrue(rowIds.size() > PARALLEL_SORT_ROW_COUNT);
+
+                            final Record recordB = cursor.getRecordB();
+                            for (int i = rowIds.size() - 1; i > -1; i--) {
+                                cursor.recordAt(recordB, rowIds.getQuick(i));
+                                Assert.assertEquals(values.getQuick(i), recordB.getLong(1));
+                            }
+
+                            cursor.toTop();
+                            int count = 0;
+                            while (cursor.hasNext()) {
+                                Assert.assertEquals(values.getQuick(count++), record.getLong(1));
+                            }
+                            Assert.assertEquals(values.size(), count);
+                        }
+                    }
+                },
+                configuration,
+                LOG
+        );
+    }
+
+    @Test
+    public void testOrderByParallelSortSpillsToDefaultSpillRoot() throws Exception {
+        node1.setProperty(PropertyKey.CAIRO_SQL_SORT_RUN_MAX_SIZE, 16 * 1024);
+        WorkerPool pool = new WorkerPool(() -> 4);
+        TestUtils.execute(pool, (engine, compiler, sqlExecutionContext) -> {
+                    createParallelSortTable(compiler, sqlExecutionContext);
+                    node1.setProperty(PropertyKey.CAIRO_SQL_PARALLEL_SORT_ENABLED, true);
+                    final String spillRoot = configuration.getSqlSortSpillRoot().toString();
+                    Assert.assertTrue(spillRoot.endsWith(PropServerConfiguration.TMP_DIRECTORY + File.separator + PropServerConfiguration.SORT_SPILL_DIRECTORY));
+
+                    try (RecordCursorFactory factory = compiler.compile("select * from " + PARALLEL_SORT_UNION + " order by str, l", sqlExecutionContext).getRecordCursorFactory()) {
+                        String prevSpillDir = null;
+                        for (int i = 0; i < 2; i++) {
+                            try (RecordCursor cursor = factory.getCursor(sqlExecutionContext)) {
+                                Assert.assertTrue(cursor.hasNext());
+                                // each execution spills into its own directory
+                                final String[] spillDirs = listSortSpillDirs(spillRoot);
+                                Assert.assertEquals(1, spillDirs.length);
+                                Assert.assertNotEquals(prevSpillDir, spillDirs[0]);
+                                prevSpillDir = spillDirs[0];
+                                final String[] runFiles = new File(spillRoot, spillDirs[0]).list((dir, name) -> name.startsWith("run_"));
+                                Assert.assertNotNull(runFiles);
+                                Assert.assertTrue(runFiles.length > 0);
+                            }
+                            // spill directory is removed once the cursor is closed
+                            Assert.assertEquals(0, listSortSpillDirs(spillRoot).length);
+                        }
+                    }
+                },
+                configuration,
+                LOG
+        );
+    }
+
+    @Test
+    public void testOrderByParallelSortStaleSpillFilesRemovedOnStartup() throws Exception {
+        assertMemoryLeak(() -> {
+            final File staleDir = new File(configuration.getSqlSortSpillRoot().toString(), "sort_1_1");
+            Assert.assertTrue(staleDir.mkdirs());
+            Assert.assertTrue(new File(staleDir, "run_0.d").createNewFile());
+            try (CairoEngine ignore = new CairoEngine(configuration)) {
+                Assert.assertFalse(staleDir.exists());
+                Assert.assertEquals(0, listSortSpillDirs(configuration.getSqlSortSpillRoot().toString()).length);
+            }
+        });
+    }
+
     @Test
     public void testOrderByPositionalOnAggregateColumn() throws Exception {
         final String expected = "a\tcount\n" +
@@ -7885,6 +8051,45 @@ public class SqlCodeGeneratorTest extends AbstractCairoTest {
         );
     }
 
+    private static void createParallelSortTable(SqlCompiler compiler, SqlExecutionContext sqlExecutionContext) throws SqlException {
+        ddl(
+                compiler,
+                "create table x as (" +
+                        "select timestamp_sequence(0, 1000) ts, rnd_long(0, 200, 1) l, rnd_int(0, 30, 1) i, rnd_double(1) d, " +
+                        "rnd_symbol('a','b','c', null) s, rnd_str(1,2,1) str, rnd_varchar(1,3,1) vch, rnd_bin(1,8,1) bin " +
+                        "from long_sequence(" + PARALLEL_SORT_ROW_COUNT + ")" +
+                        ") timestamp(ts) partition by hour",
+                sqlExecutionContext
+        );
+    }
+
+    private static String[] listSortSpillDirs(String spillRoot) {
+        final String[] dirs = new File(spillRoot).list((dir, name) -> name.startsWith("sort_"));
+        return dirs != null ? dirs : new String[0];
+    }
+
+    private void assertParallelSortSameAsSerial(String... queries) throws Exception {
+        // force plenty of small runs
+        node1.setProperty(PropertyKey.CAIRO_SQL_SORT_RUN_MAX_SIZE, 16 * 1024);
+        WorkerPool pool = new WorkerPool(() -> 4);
+        TestUtils.execute(pool, (engine, compiler, sqlExecutionContext) -> {
+                    createParallelSortTable(compiler, sqlExecutionContext);
+                    for (String query : queries) {
+                        node1.setProperty(PropertyKey.CAIRO_SQL_PARALLEL_SORT_ENABLED, false);
+                        TestUtils.printSql(compiler, sqlExecutionContext, query, sink);
+                        final String expected = sink.toString();
+
+                        node1.setProperty(PropertyKey.CAIRO_SQL_PARALLEL_SORT_ENABLED, true);
+                        TestUtils.printSql(compiler, sqlExecutionContext, "explain " + query, sink);
+                        TestUtils.assertContains(sink, "Parallel Sort workers: 4");
+                        TestUtils.assertSql(compiler, sqlExecutionContext, query, sink, expected);
+                    }
+                },
+                configuration,
+                LOG
+        );
+    }
+
     private void createGeoHashTable(int chars) throws SqlException {
         ddl(String.format("create table pos(time timestamp, uuid symbol, hash geohash(%dc))", chars) + ", index(uuid) timestamp(time) partition by DAY");
 
@@ -6305,7 +6305,7 @@ public class SqlParserTest extends AbstractSqlParserTest {
     @Test
     public void testNonWindowFunctionInWindowContext() throws Exception {
         assertException(
-                "select max(price) over (partition by symbol) from trades",
+                "select ksum(price) over (partition by symbol) from trades",
                 "create table trades " +
                         "(" +
                         " price double," +
@@ -9495,7 +9495,7 @@ public class SqlParserTest extends AbstractSqlParserTest {
     @Test
     public void testTooManyArgumentsInWindowFunction() throws Exception {
         assertException(
-                "select row_number(1,2,3) over (partition by symbol) from trades",
+                "select row_number(1,2,3,4) over (partition by symbol) from trades",
                 "create table trades " +
                         "(" +
                         " price double," +
@@ -62,6 +62,10 @@ import java.util.concurrent.atomic.AtomicInteger;
 
 public class SampleByTest extends AbstractCairoTest {
     private static final Log LOG = LogFactory.getLog(SampleByTest.class);
+    private static final String PARALLEL_SAMPLE_BY_DDL = "create table x as (" +
+            "select rnd_symbol('a','b') s, x, timestamp_sequence('2024-03-10T04:00:00', 5400000000) ts " +
+            "from long_sequence(6)" +
+            ") timestamp(ts) partition by day";
 
     @Test
     public void testBadFunction() throws Exception {
@@ -2801,6 +2805,183 @@ public class SampleByTest extends AbstractCairoTest {
         });
     }
 
+    @Test
+    public void testParallelSampleByFillKeyedNull() throws Exception {
+        assertMemoryLeak(() -> {
+            node1.setProperty(PropertyKey.CAIRO_SQL_PARALLEL_SAMPLEBY_ENABLED, true);
+            ddl(PARALLEL_SAMPLE_BY_DDL);
+            final String query = "select * from (select ts, s, sum(x) from x sample by 1h fill(null)) order by ts, s";
+            assertPlanNoLeakCheck(
+                    query,
+                    "Sort\n" +
+                            "  keys: [ts, s]\n" +
+                            "    Fill\n" +
+                            "      stride: 1h\n" +
+                            "      values: [null]\n" +
+                            "        Sort light\n" +
+                            "          keys: [ts]\n" +
+                            "            Async Group By workers: 1\n" +
+                            "              keys: [ts,s]\n" +
+                            "              values: [sum(x)]\n" +
+                            "              filter: null\n" +
+                            "                DataFrame\n" +
+                            "                    Row forward scan\n" +
+                            "                    Frame forward scan on: x\n"
+            );
+            assertSql(
+                    "ts\ts\tsum\n" +
+                            "2024-03-10T04:00:00.000000Z\ta\t1\n" +
+                            "2024-03-10T04:00:00.000000Z\tb\tnull\n" +
+                            "2024-03-10T05:00:00.000000Z\ta\t2\n" +
+                            "2024-03-10T05:00:00.000000Z\tb\tnull\n" +
+                            "2024-03-10T06:00:00.000000Z\ta\tnull\n" +
+                            "2024-03-10T06:00:00.000000Z\tb\tnull\n" +
+                            "2024-03-10T07:00:00.000000Z\ta\tnull\n" +
+                            "2024-03-10T07:00:00.000000Z\tb\t3\n" +
+                            "2024-03-10T08:00:00.000000Z\ta\tnull\n" +
+                            "2024-03-10T08:00:00.000000Z\tb\t4\n" +
+                            "2024-03-10T09:00:00.000000Z\ta\tnull\n" +
+                            "2024-03-10T09:00:00.000000Z\tb\tnull\n" +
+                            "2024-03-10T10:00:00.000000Z\ta\tnull\n" +
+                            "2024-03-10T10:00:00.000000Z\tb\t5\n" +
+                            "2024-03-10T11:00:00.000000Z\ta\tnull\n" +
+                            "2024-03-10T11:00:00.000000Z\tb\t6\n",
+                    query
+            );
+        });
+    }
+
+    @Test
+    public void testParallelSampleByFillLinear() throws Exception {
+        assertMemoryLeak(() -> {
+            node1.setProperty(PropertyKey.CAIRO_SQL_PARALLEL_SAMPLEBY_ENABLED, true);
+            ddl(PARALLEL_SAMPLE_BY_DDL);
+            final String query = "select ts, sum(x), avg(x) from x sample by 30m fill(linear)";
+            assertPlanNoLeakCheck(
+                    query,
+                    "Fill\n" +
+                            "  stride: 30m\n" +
+                            "  values: [linear]\n" +
+                            "    Sort light\n" +
+                            "      keys: [ts]\n" +
+                            "        Async Group By workers: 1\n" +
+                            "          keys: [ts]\n" +
+                            "          values: [sum(x),avg(x)]\n" +
+                            "          filter: null\n" +
+                            "            DataFrame\n" +
+                            "                Row forward scan\n" +
+                            "                Frame forward scan on: x\n"
+            );
+            assertSql(
+                    "ts\tsum\tavg\n" +
+                            "2024-03-10T04:00:00.000000Z\t1\t1.0\n" +
+                            "2024-03-10T04:30:00.000000Z\t1\t1.3333333333333333\n" +
+                            "2024-03-10T05:00:00.000000Z\t1\t1.6666666666666667\n" +
+                            "2024-03-10T05:30:00.000000Z\t2\t2.0\n" +
+                            "2024-03-10T06:00:00.000000Z\t2\t2.3333333333333335\n" +
+                            "2024-03-10T06:30:00.000000Z\t2\t2.6666666666666665\n" +
+                            "2024-03-10T07:00:00.000000Z\t3\t3.0\n" +
+                            "2024-03-10T07:30:00.000000Z\t3\t3.3333333333333335\n" +
+                            "2024-03-10T08:00:00.000000Z\t3\t3.6666666666666665\n" +
+                            "2024-03-10T08:30:00.000000Z\t4\t4.0\n" +
+                            "2024-03-10T09:00:00.000000Z\t4\t4.333333333333333\n" +
+                            "2024-03-10T09:30:00.000000Z\t4\t4.666666666666667\n" +
+                            "2024-03-10T10:00:00.000000Z\t5\t5.0\n" +
+                            "2024-03-10T10:30:00.000000Z\t5\t5.333333333333333\n" +
+                            "2024-03-10T11:00:00.000000Z\t5\t5.666666666666667\n" +
+                            "2024-03-10T11:30:00.000000Z\t6\t6.0\n",
+                    query
+            );
+        });
+    }
+
+    @Test
+    public void testParallelSampleByFillNotEnoughValues() throws Exception {
+        assertMemoryLeak(() -> {
+            node1.setProperty(PropertyKey.CAIRO_SQL_PARALLEL_SAMPLEBY_ENABLED, true);
+            ddl(PARALLEL_SAMPLE_BY_DDL);
+            assertException(
+                    "select ts, sum(x), avg(x) from x sample by 1h fill(1)",
+                    51,
+                    "not enough values"
+            );
+        });
+    }
+
+    @Test
+    public void testParallelSampleByFillPrevTimeZone() throws Exception {
+        assertMemoryLeak(() -> {
+            node1.setProperty(PropertyKey.CAIRO_SQL_PARALLEL_SAMPLEBY_ENABLED, true);
+            // the gap in data spans over daylight savings transition in New York
+            ddl(PARALLEL_SAMPLE_BY_DDL);
+            final String query = "select ts, sum(x), first(x) from x sample by 1h fill(prev) align to calendar time zone 'America/New_York'";
+            assertPlanNoLeakCheck(
+                    query,
+                    "Fill\n" +
+                            "  stride: 1h\n" +
+                            "  values: [prev]\n" +
+                            "    Sort light\n" +
+                            "      keys: [ts]\n" +
+                            "        Async Group By workers: 1\n" +
+                            "          keys: [ts]\n" +
+                            "          values: [sum(x),first(x)]\n" +
+                            "          filter: null\n" +
+                            "            DataFrame\n" +
+                            "                Row forward scan\n" +
+                            "                Frame forward scan on: x\n"
+            );
+            assertSql(
+                    "ts\tsum\tfirst\n" +
+                            "2024-03-10T04:00:00.000000Z\t1\t1\n" +
+                            "2024-03-10T05:00:00.000000Z\t2\t2\n" +
+                            "2024-03-10T06:00:00.000000Z\t2\t2\n" +
+                            "2024-03-10T07:00:00.000000Z\t3\t3\n" +
+                            "2024-03-10T08:00:00.000000Z\t4\t4\n" +
+                            "2024-03-10T09:00:00.000000Z\t4\t4\n" +
+                            "2024-03-10T10:00:00.000000Z\t5\t5\n" +
+                            "2024-03-10T11:00:00.000000Z\t6\t6\n",
+                    query
+            );
+        });
+    }
+
+    @Test
+    public void testParallelSampleByFillValuesTimeZoneOffset() throws Exception {
+        assertMemoryLeak(() -> {
+            node1.setProperty(PropertyKey.CAIRO_SQL_PARALLEL_SAMPLEBY_ENABLED, true);
+            ddl(PARALLEL_SAMPLE_BY_DDL);
+            final String query = "select ts, sum(x), count() from x sample by 1h fill(0, 100) align to calendar time zone 'Europe/Berlin' with offset '00:30'";
+            assertPlanNoLeakCheck(
+                    query,
+                    "Fill\n" +
+                            "  stride: 1h\n" +
+                            "  values: [0,100]\n" +
+                            "    Sort light\n" +
+                            "      keys: [ts]\n" +
+                            "        Async Group By workers: 1\n" +
+                            "          keys: [ts]\n" +
+                            "          values: [sum(x),count(*)]\n" +
+                            "          filter: null\n" +
+                            "            DataFrame\n" +
+                            "                Row forward scan\n" +
+                            "                Frame forward scan on: x\n"
+            );
+            assertSql(
+                    "ts\tsum\tcount\n" +
+                            "2024-03-10T03:30:00.000000Z\t1\t1\n" +
+                            "2024-03-10T04:30:00.000000Z\t0\t100\n" +
+                            "2024-03-10T05:30:00.000000Z\t2\t1\n" +
+                            "2024-03-10T06:30:00.000000Z\t3\t1\n" +
+                            "2024-03-10T07:30:00.000000Z\t0\t100\n" +
+                            "2024-03-10T08:30:00.000000Z\t4\t1\n" +
+                            "2024-03-10T09:30:00.000000Z\t5\t1\n" +
+                            "2024-03-10T10:30:00.000000Z\t0\t100\n" +
+                            "2024-03-10T11:30:00.000000Z\t6\t1\n",
+                    query
+            );
+        });
+    }
+
     @Test
     public void testSampleBadFunction() throws Exception {
         String stringType = ColumnType.nameOf(ColumnType.STRING);
@@ -11171,7 +11352,7 @@ public class SampleByTest extends AbstractCairoTest {
                         " from" +
                         " long_sequence(20)" +
                         ") timestamp(k) partition by NONE",
-                0,
+                101,
                 "not enough values"
         );
     }
@@ -546,6 +546,33 @@ public class AsyncFilteredRecordCursorFactoryTest extends AbstractCairoTest {
         });
     }
 
+    @Test
+    public void testReadAhead() throws Exception {
+        withPool((engine, compiler, sqlExecutionContext) -> {
+            node1.setProperty(PropertyKey.CAIRO_SQL_PAGE_FRAME_MAX_ROWS, 1000);
+            node1.setProperty(PropertyKey.CAIRO_SQL_PARALLEL_FILTER_READ_AHEAD_BUFFER_SIZE, 4096);
+            node1.setProperty(PropertyKey.CAIRO_SQL_PARALLEL_FILTER_READ_AHEAD_FRAMES, 2);
+
+            ddl("create table x as (select rnd_double() a, rnd_varchar(1, 40, 1) v, rnd_str(1, 20, 1) s, timestamp_sequence(20000000, 100000) t from long_sequence(100000)) timestamp(t) partition by hour", sqlExecutionContext);
+            ddl("alter table x add column l long", sqlExecutionContext);
+            ddl("insert into x select rnd_double(), rnd_varchar(1, 40, 1), rnd_str(1, 20, 1), timestamp_sequence(10020000000, 100000), x from long_sequence(10000)", sqlExecutionContext);
+
+            final String[] queries = {
+                    "select * from x where a > 0.9 and (v like '%a%' or l > 5000)",
+                    "select * from x where s like '%b%' limit 10",
+                    "select * from x where l < 100 limit -10",
+                    "select count(), max(a) from x where v like '%c%'",
+            };
+            for (String sql : queries) {
+                node1.setProperty(PropertyKey.CAIRO_SQL_PARALLEL_FILTER_READ_AHEAD_ENABLED, false);
+                TestUtils.printSql(engine, sqlExecutionContext, sql, sink);
+                final String expected = sink.toString();
+                node1.setProperty(PropertyKey.CAIRO_SQL_PARALLEL_FILTER_READ_AHEAD_ENABLED, true);
+                TestUtils.assertSql(engine, sqlExecutionContext, sql, sink, expected);
+            }
+        });
+    }
+
     @Test
     public void testSymbolEqualsBindVariableFilter() throws Exception {
         testSymbolEqualsBindVariableFilter(SqlJitMode.JIT_MODE_DISABLED, AsyncFilteredRecordCursorFactory.class);
@@ -984,6 +1011,11 @@ public class AsyncFilteredRecordCursorFactoryTest extends AbstractCairoTest {
             return sqlExecutionContext.getRandom();
         }
 
+        @Override
+        public long getRandomUseCount() {
+            return sqlExecutionContext.getRandomUseCount();
+        }
+
         @Override
         public int getRequestFd() {
             return sqlExecutionContext.getRequestFd();
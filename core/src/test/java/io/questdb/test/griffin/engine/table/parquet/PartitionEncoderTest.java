@@ -0,0 +1,150 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.test.griffin.engine.table.parquet;
+
+import io.questdb.PropertyKey;
+import io.questdb.cairo.CairoException;
+import io.questdb.cairo.TableReader;
+import io.questdb.cairo.TableUtils;
+import io.questdb.griffin.engine.table.parquet.PartitionDecoder;
+import io.questdb.griffin.engine.table.parquet.PartitionEncoder;
+import io.questdb.std.FilesFacade;
+import io.questdb.std.MemoryTag;
+import io.questdb.std.Unsafe;
+import io.questdb.std.str.Path;
+import io.questdb.test.AbstractCairoTest;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class PartitionEncoderTest extends AbstractCairoTest {
+
+    @Test
+    public void testDecoderRejectsNonParquetFile() throws Exception {
+        assertMemoryLeak(() -> {
+            final FilesFacade ff = configuration.getFilesFacade();
+            try (Path path = new Path(); PartitionDecoder decoder = new PartitionDecoder()) {
+                path.of(configuration.getRoot()).concat("not_parquet.parquet").$();
+                final int fd = ff.openRW(path, configuration.getWriterFileOpenOpts());
+                final long buf = Unsafe.malloc(64, MemoryTag.NATIVE_DEFAULT);
+                try {
+                    for (int i = 0; i < 64; i++) {
+                        Unsafe.getUnsafe().putByte(buf + i, (byte) i);
+                    }
+                    Assert.assertEquals(64, ff.write(fd, buf, 64, 0));
+                } finally {
+                    Unsafe.free(buf, 64, MemoryTag.NATIVE_DEFAULT);
+                    ff.close(fd);
+                }
+
+                try {
+                    decoder.of(ff, path);
+                    Assert.fail();
+                } catch (CairoException e) {
+                    TestUtils.assertContains(e.getFlyweightMessage(), "not a parquet file");
+                }
+            }
+        });
+    }
+
+    @Test
+    public void testRowGroupsFollowPageFrames() throws Exception {
+        setProperty(PropertyKey.CAIRO_SQL_PAGE_FRAME_MAX_ROWS, 1000);
+        setProperty(PropertyKey.CAIRO_SQL_PAGE_FRAME_MIN_ROWS, 1000);
+        assertMemoryLeak(() -> {
+            ddl("create table x as (select" +
+                    " rnd_int(0, 1000, 2) i," +
+                    " rnd_str(3, 10, 2) str," +
+                    " rnd_symbol('a', 'b', null) sym," +
+                    " timestamp_sequence('2024-01-01', 10000000L) ts" +
+                    " from long_sequence(10000)" +
+                    ") timestamp(ts) partition by DAY");
+
+            try (
+                    TableReader reader = getReader("x");
+                    PartitionEncoder encoder = new PartitionEncoder(configuration);
+                    PartitionDecoder decoder = new PartitionDecoder();
+                    Path path = new Path()
+            ) {
+                path.of(configuration.getRoot()).concat("x.parquet");
+                encoder.encode(reader, 0, path);
+                final long partitionSize = reader.getPartitionRowCount(0);
+
+                decoder.of(configuration.getFilesFacade(), path.$());
+                Assert.assertEquals(partitionSize, decoder.getRowCount());
+                Assert.assertEquals((partitionSize + 999) / 1000, decoder.getRowGroupCount());
+                long rows = 0;
+                for (int i = 0, n = decoder.getRowGroupCount(); i < n; i++) {
+                    Assert.assertTrue(decoder.getRowGroupSize(i) <= 1000);
+                    rows += decoder.getRowGroupSize(i);
+                }
+                Assert.assertEquals(partitionSize, rows);
+
+                Assert.assertEquals(4, decoder.getColumnCount());
+                Assert.assertEquals("i", decoder.getColumnName(0));
+                Assert.assertEquals(3, decoder.getColumnIndex("TS"));
+                Assert.assertEquals(-1, decoder.getColumnIndex("missing"));
+            }
+        });
+    }
+
+    @Test
+    public void testRoundTripColumnTop() throws Exception {
+        assertMemoryLeak(() -> {
+            ddl("create table x as (select" +
+                    " rnd_long(0, 1000, 2) l," +
+                    " timestamp_sequence('2024-01-01', 1000000L) ts" +
+                    " from long_sequence(1000)" +
+                    ") timestamp(ts) partition by DAY");
+            ddl("alter table x add column s symbol");
+            ddl("alter table x add column v varchar");
+            insert("insert into x select rnd_long(0, 1000, 2), timestamp_sequence('2024-01-01T01', 1000000L), rnd_symbol('a', 'b', null), rnd_varchar(1, 30, 1)" +
+                    " from long_sequence(1000)");
+            insert("insert into x values (1, '2024-01-02', 'c', 'last')");
+
+            final String expected = "select * from x where ts in '2024-01-01'";
+            printSql(expected);
+            final String expectedData = sink.toString();
+
+            encodePartition("x", 0, "2024-01-01");
+            ddl("alter table x drop partition list '2024-01-01'");
+            ddl("alter table x attach partition list '2024-01-01'");
+
+            assertSql(expectedData, expected);
+            assertSql("count\n2001\n", "select count() from x");
+        });
+    }
+
+    private static void encodePartition(String tableName, int partitionIndex, String partitionName) {
+        try (
+                TableReader reader = getReader(tableName);
+                PartitionEncoder encoder = new PartitionEncoder(configuration);
+                Path path = new Path()
+        ) {
+            path.of(configuration.getRoot()).concat(reader.getTableToken()).concat(partitionName).put(TableUtils.PARQUET_FILE_MARKER);
+            encoder.encode(reader, partitionIndex, path);
+        }
+    }
+}
@@ -0,0 +1,358 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.test.griffin.engine.window;
+
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.std.DoubleList;
+import io.questdb.std.IntList;
+import io.questdb.std.Numbers;
+import io.questdb.test.AbstractCairoTest;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class SlidingWindowFunctionTest extends AbstractCairoTest {
+
+    @Test
+    public void testDenseRank() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            assertQueryNoLeakCheck(
+                    "ts\ts\tdr\tr\n" +
+                            "1970-01-01T00:00:00.000000Z\ta\t1\t1\n" +
+                            "1970-01-01T00:00:01.000000Z\tb\t2\t5\n" +
+                            "1970-01-01T00:00:02.000000Z\ta\t1\t1\n" +
+                            "1970-01-01T00:00:03.000000Z\ta\t1\t1\n" +
+                            "1970-01-01T00:00:04.000000Z\tb\t2\t5\n" +
+                            "1970-01-01T00:00:05.000000Z\ta\t1\t1\n",
+                    "select ts, s, dense_rank() over (order by s) dr, rank() over (order by s) r from t",
+                    "ts",
+                    true,
+                    false
+            );
+        });
+    }
+
+    @Test
+    public void testInvalidArguments() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            assertExceptionNoLeakCheck("select lag(x, 'a') over () from t", 14, "offset must be an integer constant");
+            assertExceptionNoLeakCheck("select lag(x, -1) over () from t", 14, "offset must be non-negative");
+            assertExceptionNoLeakCheck("select lead(x, 1, x) over () from t", 18, "default value must be a numeric constant");
+            assertExceptionNoLeakCheck("select lead(x, 1, 0, 2) over () from t", 7, "too many arguments");
+            assertExceptionNoLeakCheck(
+                    "select max(x) over (order by s range between 10 preceding and current row) from t",
+                    29,
+                    "RANGE is supported only for queries ordered by designated timestamp"
+            );
+        });
+    }
+
+    @Test
+    public void testLagLead() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            assertQueryNoLeakCheck(
+                    "ts\ts\tx\tlg\tld\tlg2\n" +
+                            "1970-01-01T00:00:00.000000Z\ta\t1.0\tnull\t3.0\t0.0\n" +
+                            "1970-01-01T00:00:01.000000Z\tb\t5.0\tnull\t2.0\t0.0\n" +
+                            "1970-01-01T00:00:02.000000Z\ta\t3.0\t1.0\tnull\t1.0\n" +
+                            "1970-01-01T00:00:03.000000Z\ta\tnull\t3.0\t2.0\t5.0\n" +
+                            "1970-01-01T00:00:04.000000Z\tb\t2.0\t5.0\t-1.0\t3.0\n" +
+                            "1970-01-01T00:00:05.000000Z\ta\t2.0\tnull\t-1.0\tnull\n",
+                    "select ts, s, x, " +
+                            "lag(x) over (partition by s order by ts) lg, " +
+                            "lead(x, 1, -1.0) over (partition by s order by ts) ld, " +
+                            "lag(x, 2, 0) over (order by ts) lg2 " +
+                            "from t",
+                    "ts",
+                    true,
+                    false
+            );
+        });
+    }
+
+    @Test
+    public void testPlan() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            assertPlanNoLeakCheck(
+                    "select ts, max(x) over (partition by s order by ts rows between 3 preceding and 1 preceding), " +
+                            "count() over (order by ts range between unbounded preceding and 10 preceding), " +
+                            "lag(x, 2, 0) over (partition by s) " +
+                            "from t",
+                    "Window\n" +
+                            "  functions: [max(x) over (partition by [s] rows between 3 preceding and 1 preceding)," +
+                            "count(*) over (range between unbounded preceding and 10 preceding)," +
+                            "lag(x,2,0.0) over (partition by [s])]\n" +
+                            "    DataFrame\n" +
+                            "        Row forward scan\n" +
+                            "        Frame forward scan on: t\n"
+            );
+        });
+    }
+
+    @Test
+    public void testRandomRowsFrameAgainstBruteForce() throws Exception {
+        assertMemoryLeak(() -> {
+            ddl(
+                    "create table r as (" +
+                            "select rnd_int(0, 4, 0) k, rnd_double(2) x, timestamp_sequence(0, 1000000) ts " +
+                            "from long_sequence(2000)" +
+                            ") timestamp(ts) partition by day"
+            );
+
+            final IntList keys = new IntList();
+            final DoubleList values = new DoubleList();
+            try (
+                    RecordCursorFactory factory = select("select k, x from r");
+                    RecordCursor cursor = factory.getCursor(sqlExecutionContext)
+            ) {
+                final Record record = cursor.getRecord();
+                while (cursor.hasNext()) {
+                    keys.add(record.getInt(0));
+                    values.add(record.getDouble(1));
+                }
+            }
+
+            try (
+                    RecordCursorFactory factory = select(
+                            "select max(x) over (partition by k order by ts rows between 7 preceding and 2 preceding), " +
+                                    "min(x) over (partition by k order by ts rows between 7 preceding and current row), " +
+                                    "count(x) over (order by ts rows between 50 preceding and 3 preceding), " +
+                                    "last_value(x) over (partition by k order by ts rows between 4 preceding and 1 preceding) " +
+                                    "from r"
+                    );
+                    RecordCursor cursor = factory.getCursor(sqlExecutionContext)
+            ) {
+                final Record record = cursor.getRecord();
+                int row = 0;
+                while (cursor.hasNext()) {
+                    Assert.assertEquals(frameMax(keys, values, row, 7, 2), record.getDouble(0), 0);
+                    Assert.assertEquals(frameMin(keys, values, row, 7), record.getDouble(1), 0);
+                    long count = 0;
+                    for (int i = Math.max(0, row - 50); i <= row - 3; i++) {
+                        if (Numbers.isFinite(values.getQuick(i))) {
+                            count++;
+                        }
+                    }
+                    Assert.assertEquals(count, record.getLong(2));
+                    Assert.assertEquals(frameLast(keys, values, row, 4, 1), record.getDouble(3), 0);
+                    row++;
+                }
+                Assert.assertEquals(keys.size(), row);
+            }
+        });
+    }
+
+    @Test
+    public void testRangeFrame() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            assertQueryNoLeakCheck(
+                    "ts\tx\tmx\tmn\tcx\tca\tlv\n" +
+                            "1970-01-01T00:00:00.000000Z\t1.0\tnull\tnull\t0\t0\tnull\n" +
+                            "1970-01-01T00:00:01.000000Z\t5.0\t1.0\t1.0\t1\t1\t1.0\n" +
+                            "1970-01-01T00:00:02.000000Z\t3.0\t5.0\t1.0\t2\t2\t5.0\n" +
+                            "1970-01-01T00:00:03.000000Z\tnull\t5.0\t3.0\t2\t2\t3.0\n" +
+                            "1970-01-01T00:00:04.000000Z\t2.0\t3.0\t3.0\t1\t2\tnull\n" +
+                            "1970-01-01T00:00:05.000000Z\t2.0\t2.0\t2.0\t1\t2\t2.0\n",
+                    "select ts, x, " +
+                            "max(x) over (order by ts range between 2000000 preceding and 1000000 preceding) mx, " +
+                            "min(x) over (order by ts range between 2000000 preceding and 1000000 preceding) mn, " +
+                            "count(x) over (order by ts range between 2000000 preceding and 1000000 preceding) cx, " +
+                            "count() over (order by ts range between 2000000 preceding and 1000000 preceding) ca, " +
+                            "last_value(x) over (order by ts range between 2000000 preceding and 1000000 preceding) lv " +
+                            "from t",
+                    "ts",
+                    false,
+                    true
+            );
+        });
+    }
+
+    @Test
+    public void testRangeFrameDescending() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            assertQueryNoLeakCheck(
+                    "ts\tx\tmx\tca\n" +
+                            "1970-01-01T00:00:05.000000Z\t2.0\t2.0\t1\n" +
+                            "1970-01-01T00:00:04.000000Z\t2.0\t2.0\t2\n" +
+                            "1970-01-01T00:00:03.000000Z\tnull\t2.0\t2\n" +
+                            "1970-01-01T00:00:02.000000Z\t3.0\t3.0\t2\n" +
+                            "1970-01-01T00:00:01.000000Z\t5.0\t5.0\t2\n" +
+                            "1970-01-01T00:00:00.000000Z\t1.0\t5.0\t2\n",
+                    "select ts, x, " +
+                            "max(x) over (order by ts desc range between 1000000 preceding and current row) mx, " +
+                            "count() over (order by ts desc range between 1000000 preceding and current row) ca " +
+                            "from t order by ts desc",
+                    "ts###DESC",
+                    false,
+                    true
+            );
+        });
+    }
+
+    @Test
+    public void testRowsFrame() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            assertQueryNoLeakCheck(
+                    "ts\ts\tx\tmx\tmn\tcx\tca\tlv\n" +
+                            "1970-01-01T00:00:00.000000Z\ta\t1.0\t1.0\t1.0\t1\t1\t1.0\n" +
+                            "1970-01-01T00:00:01.000000Z\tb\t5.0\t5.0\t5.0\t1\t1\t5.0\n" +
+                            "1970-01-01T00:00:02.000000Z\ta\t3.0\t3.0\t1.0\t2\t2\t3.0\n" +
+                            "1970-01-01T00:00:03.000000Z\ta\tnull\t3.0\t3.0\t1\t2\tnull\n" +
+                            "1970-01-01T00:00:04.000000Z\tb\t2.0\t5.0\t2.0\t2\t2\t2.0\n" +
+                            "1970-01-01T00:00:05.000000Z\ta\t2.0\t2.0\t2.0\t1\t2\t2.0\n",
+                    "select ts, s, x, " +
+                            "max(x) over (partition by s order by ts rows between 1 preceding and current row) mx, " +
+                            "min(x) over (partition by s order by ts rows between 1 preceding and current row) mn, " +
+                            "count(x) over (partition by s order by ts rows between 1 preceding and current row) cx, " +
+                            "count() over (partition by s order by ts rows between 1 preceding and current row) ca, " +
+                            "last_value(x) over (partition by s order by ts rows between 1 preceding and current row) lv " +
+                            "from t",
+                    "ts",
+                    false,
+                    true
+            );
+        });
+    }
+
+    @Test
+    public void testUnboundedPreceding() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            assertQueryNoLeakCheck(
+                    "ts\ts\tmx\tca\n" +
+                            "1970-01-01T00:00:00.000000Z\ta\tnull\t0\n" +
+                            "1970-01-01T00:00:01.000000Z\tb\tnull\t0\n" +
+                            "1970-01-01T00:00:02.000000Z\ta\t1.0\t1\n" +
+                            "1970-01-01T00:00:03.000000Z\ta\t3.0\t2\n" +
+                            "1970-01-01T00:00:04.000000Z\tb\t5.0\t1\n" +
+                            "1970-01-01T00:00:05.000000Z\ta\t3.0\t3\n",
+                    "select ts, s, " +
+                            "max(x) over (partition by s order by ts rows between unbounded preceding and 1 preceding) mx, " +
+                            "count() over (partition by s order by ts rows between unbounded preceding and 1 preceding) ca " +
+                            "from t",
+                    "ts",
+                    false,
+                    true
+            );
+        });
+    }
+
+    @Test
+    public void testWholePartition() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            assertQueryNoLeakCheck(
+                    "ts\ts\tmx\tmn\tca\tcx\tlv\n" +
+                            "1970-01-01T00:00:00.000000Z\ta\t3.0\t1.0\t4\t5\t2.0\n" +
+                            "1970-01-01T00:00:01.000000Z\tb\t5.0\t1.0\t2\t5\t2.0\n" +
+                            "1970-01-01T00:00:02.000000Z\ta\t3.0\t1.0\t4\t5\t2.0\n" +
+                            "1970-01-01T00:00:03.000000Z\ta\t3.0\t1.0\t4\t5\t2.0\n" +
+                            "1970-01-01T00:00:04.000000Z\tb\t5.0\t1.0\t2\t5\t2.0\n" +
+                            "1970-01-01T00:00:05.000000Z\ta\t3.0\t1.0\t4\t5\t2.0\n",
+                    "select ts, s, " +
+                            "max(x) over (partition by s) mx, " +
+                            "min(x) over () mn, " +
+                            "count() over (partition by s) ca, " +
+                            "count(x) over () cx, " +
+                            "last_value(x) over (partition by s) lv " +
+                            "from t",
+                    "ts",
+                    true,
+                    false
+            );
+        });
+    }
+
+    private static double frameLast(IntList keys, DoubleList values, int row, int lo, int hi) {
+        final int key = keys.getQuick(row);
+        int seen = 0;
+        for (int i = row - 1; i >= 0; i--) {
+            if (keys.getQuick(i) == key) {
+                seen++;
+                if (seen > lo) {
+                    break;
+                }
+                if (seen >= hi) {
+                    return values.getQuick(i);
+                }
+            }
+        }
+        return Double.NaN;
+    }
+
+    private static double frameMax(IntList keys, DoubleList values, int row, int lo, int hi) {
+        final int key = keys.getQuick(row);
+        double max = Double.NaN;
+        int seen = 0;
+        for (int i = row; i >= 0 && seen <= lo; i--) {
+            if (keys.getQuick(i) == key) {
+                final double d = values.getQuick(i);
+                if (seen >= hi && Numbers.isFinite(d) && (Double.isNaN(max) || d > max)) {
+                    max = d;
+                }
+                seen++;
+            }
+        }
+        return max;
+    }
+
+    private static double frameMin(IntList keys, DoubleList values, int row, int lo) {
+        final int key = keys.getQuick(row);
+        double min = Double.NaN;
+        int seen = 0;
+        for (int i = row; i >= 0 && seen <= lo; i--) {
+            if (keys.getQuick(i) == key) {
+                final double d = values.getQuick(i);
+                if (Numbers.isFinite(d) && (Double.isNaN(min) || d < min)) {
+                    min = d;
+                }
+                seen++;
+            }
+        }
+        return min;
+    }
+
+    private void createTable() throws Exception {
+        ddl("create table t (ts timestamp, s symbol, x double) timestamp(ts)");
+        insert(
+                "insert into t values " +
+                        "(0, 'a', 1.0), " +
+                        "(1000000, 'b', 5.0), " +
+                        "(2000000, 'a', 3.0), " +
+                        "(3000000, 'a', null), " +
+                        "(4000000, 'b', 2.0), " +
+                        "(5000000, 'a', 2.0)"
+        );
+    }
+}
@@ -27,8 +27,11 @@ package io.questdb.test.griffin.engine.window;
 import io.questdb.PropertyKey;
 import io.questdb.cairo.sql.Function;
 import io.questdb.griffin.FunctionFactory;
+import io.questdb.griffin.SqlCompiler;
 import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
 import io.questdb.griffin.engine.functions.window.*;
+import io.questdb.mp.WorkerPool;
 import io.questdb.std.Chars;
 import io.questdb.std.IntList;
 import io.questdb.std.Misc;
@@ -2047,6 +2050,125 @@ public class WindowFunctionTest extends AbstractCairoTest {
         });
     }
 
+    @Test
+    public void testParallelWindow() throws Exception {
+        WorkerPool pool = new WorkerPool(() -> 4);
+        TestUtils.execute(pool, (engine, compiler, sqlExecutionContext) -> {
+                    ddl(compiler, "create table x as (select x l, (x % 3)::int k, x * 0.5 d, timestamp_sequence(0, 1000) ts from long_sequence(9)) timestamp(ts)", sqlExecutionContext);
+                    node1.setProperty(PropertyKey.CAIRO_SQL_PARALLEL_WINDOW_ENABLED, true);
+                    TestUtils.assertSql(
+                            engine,
+                            sqlExecutionContext,
+                            "explain select ts, k, sum(d) over (partition by k), rank() over (partition by k order by l desc) from x",
+                            sink,
+                            "QUERY PLAN\n" +
+                                    "CachedWindow workers: 4\n" +
+                                    "  orderedFunctions: [[l desc] => [rank() over (partition by [k])]]\n" +
+                                    "  unorderedFunctions: [sum(d) over (partition by [k])]\n" +
+                                    "    DataFrame\n" +
+                                    "        Row forward scan\n" +
+                                    "        Frame forward scan on: x\n"
+                    );
+                    TestUtils.assertSql(
+                            engine,
+                            sqlExecutionContext,
+                            "select ts, k, sum(d) over (partition by k), rank() over (partition by k order by l desc) from x",
+                            sink,
+                            "ts\tk\tsum\trank\n" +
+                                    "1970-01-01T00:00:00.000000Z\t1\t6.0\t3\n" +
+                                    "1970-01-01T00:00:00.001000Z\t2\t7.5\t3\n" +
+                                    "1970-01-01T00:00:00.002000Z\t0\t9.0\t3\n" +
+                                    "1970-01-01T00:00:00.003000Z\t1\t6.0\t2\n" +
+                                    "1970-01-01T00:00:00.004000Z\t2\t7.5\t2\n" +
+                                    "1970-01-01T00:00:00.005000Z\t0\t9.0\t2\n" +
+                                    "1970-01-01T00:00:00.006000Z\t1\t6.0\t1\n" +
+                                    "1970-01-01T00:00:00.007000Z\t2\t7.5\t1\n" +
+                                    "1970-01-01T00:00:00.008000Z\t0\t9.0\t1\n"
+                    );
+                },
+                configuration,
+                LOG
+        );
+    }
+
+    @Test
+    public void testParallelWindowDifferentPartitionByIsSerial() throws Exception {
+        assertParallelWindowPlan(
+                "select ts, avg(d) over (partition by s), sum(d) over (partition by k) from x",
+                "QUERY PLAN\n" +
+                        "CachedWindow\n" +
+                        "  unorderedFunctions: [avg(d) over (partition by [s]),sum(d) over (partition by [k])]\n" +
+                        "    DataFrame\n" +
+                        "        Row forward scan\n" +
+                        "        Frame forward scan on: x\n"
+        );
+    }
+
+    @Test
+    public void testParallelWindowFramedOrdered() throws Exception {
+        assertParallelWindowSameAsSerial(
+                "select ts, s, first_value(d) over (partition by s order by l rows between 3 preceding and current row), " +
+                        "avg(d) over (partition by s order by l, ts rows between 10 preceding and 2 preceding) from x"
+        );
+    }
+
+    @Test
+    public void testParallelWindowMixedOrderedAndUnordered() throws Exception {
+        assertParallelWindowSameAsSerial(
+                "select ts, k, avg(d) over (partition by k), rank() over (partition by k order by l desc), " +
+                        "row_number() over (partition by k order by d), sum(d) over (partition by k order by ts desc) from x"
+        );
+    }
+
+    @Test
+    public void testParallelWindowMultiplePartitionByKeys() throws Exception {
+        assertParallelWindowSameAsSerial(
+                "select ts, s, k, sum(d) over (partition by s, k), rank() over (partition by s, k order by l) from x"
+        );
+    }
+
+    @Test
+    public void testParallelWindowOrdered() throws Exception {
+        assertParallelWindowSameAsSerial("select ts, s, sum(d) over (partition by s order by ts desc), row_number() over (partition by s order by l, ts) from x");
+    }
+
+    @Test
+    public void testParallelWindowSinglePartition() throws Exception {
+        assertParallelWindowSameAsSerial("select ts, avg(d) over (partition by c), rank() over (partition by c order by l) from x");
+    }
+
+    @Test
+    public void testParallelWindowSymbolOrderIsSerial() throws Exception {
+        // symbol tables can't be shared between workers
+        assertParallelWindowPlan(
+                "select ts, rank() over (partition by k order by s) from x",
+                "QUERY PLAN\n" +
+                        "CachedWindow\n" +
+                        "  orderedFunctions: [[s] => [rank() over (partition by [k])]]\n" +
+                        "    DataFrame\n" +
+                        "        Row forward scan\n" +
+                        "        Frame forward scan on: x\n"
+        );
+    }
+
+    @Test
+    public void testParallelWindowUnordered() throws Exception {
+        assertParallelWindowSameAsSerial("select ts, s, avg(d) over (partition by s), first_value(l) over (partition by s), sum(d) over (partition by s) from x");
+    }
+
+    @Test
+    public void testParallelWindowVarSizeColumnIsSerial() throws Exception {
+        assertParallelWindowPlan(
+                "select str, avg(d) over (partition by s) from y",
+                "QUERY PLAN\n" +
+                        "CachedWindow\n" +
+                        "  unorderedFunctions: [avg(d) over (partition by [s])]\n" +
+                        "    DataFrame\n" +
+                        "        Row forward scan\n" +
+                        "        Frame forward scan on: y\n"
+        );
+    }
+
     @Test
     public void testPartitionByAndOrderByColumnPushdown() throws Exception {
         assertMemoryLeak(() -> {
@@ -3187,9 +3309,9 @@ public class WindowFunctionTest extends AbstractCairoTest {
                 //TODO: inspect
                 assertPlanNoLeakCheck(
                         "select ts, i, j, #FUNCT_NAME(1) over (partition by i order by ts asc rows between 1 preceding and current row) from tab where sym in ( 'A', 'B') ".replace("#FUNCT_NAME", func),
-                        "first_value".equals(func) ?
+                        isValueFunction(func) ?
                                 "Window\n" +
-                                        "  functions: [first_value(1) over (partition by [i] rows between 1 preceding and current row)]\n" +
+                                        "  functions: [#FUNCT_NAME(1) over (partition by [i] rows between 1 preceding and current row)]\n".replace("#FUNCT_NAME", func.trim()) +
                                         "    FilterOnValues\n" +
                                         "        Table-order scan\n" +
                                         "            Index forward scan on: sym deferred: true\n" +
@@ -3418,6 +3540,23 @@ public class WindowFunctionTest extends AbstractCairoTest {
         });
     }
 
+    private static void createParallelWindowTables(SqlCompiler compiler, SqlExecutionContext sqlExecutionContext) throws SqlException {
+        ddl(
+                compiler,
+                "create table x as (" +
+                        "select timestamp_sequence(0, 1000) ts, rnd_symbol(40, 2, 4, 1) s, rnd_int(0, 25, 1) k, rnd_symbol('a') c, " +
+                        "rnd_long(0, 100, 1) l, rnd_double(1) d " +
+                        "from long_sequence(10000)" +
+                        ") timestamp(ts) partition by hour",
+                sqlExecutionContext
+        );
+        ddl(compiler, "create table y as (select rnd_symbol('a','b') s, rnd_str(1,2,1) str, rnd_double() d from long_sequence(10))", sqlExecutionContext);
+    }
+
+    private static boolean isValueFunction(String func) {
+        return "first_value".equals(func.trim()) || "last_value".equals(func.trim());
+    }
+
     private static void normalizeSuffix(List<String> values) {
         int maxLength = 0;
         for (int i = 0, n = values.size(); i < n; i++) {
@@ -3441,6 +3580,37 @@ public class WindowFunctionTest extends AbstractCairoTest {
         }
     }
 
+    private void assertParallelWindowPlan(String query, String expectedPlan) throws Exception {
+        WorkerPool pool = new WorkerPool(() -> 4);
+        TestUtils.execute(pool, (engine, compiler, sqlExecutionContext) -> {
+                    createParallelWindowTables(compiler, sqlExecutionContext);
+                    node1.setProperty(PropertyKey.CAIRO_SQL_PARALLEL_WINDOW_ENABLED, true);
+                    TestUtils.assertSql(compiler, sqlExecutionContext, "explain " + query, sink, expectedPlan);
+                },
+                configuration,
+                LOG
+        );
+    }
+
+    private void assertParallelWindowSameAsSerial(String query) throws Exception {
+        WorkerPool pool = new WorkerPool(() -> 4);
+        TestUtils.execute(pool, (engine, compiler, sqlExecutionContext) -> {
+                    createParallelWindowTables(compiler, sqlExecutionContext);
+
+                    node1.setProperty(PropertyKey.CAIRO_SQL_PARALLEL_WINDOW_ENABLED, false);
+                    TestUtils.printSql(compiler, sqlExecutionContext, query, sink);
+                    final String expected = sink.toString();
+
+                    node1.setProperty(PropertyKey.CAIRO_SQL_PARALLEL_WINDOW_ENABLED, true);
+                    TestUtils.printSql(compiler, sqlExecutionContext, "explain " + query, sink);
+                    TestUtils.assertContains(sink, "CachedWindow workers: 4");
+                    TestUtils.assertSql(compiler, sqlExecutionContext, query, sink, expected);
+                },
+                configuration,
+                LOG
+        );
+    }
+
     private void assertQueryAndPlan(String query, String plan, String expectedResult, String expectedTimestamp, boolean supportsRandomAccess, boolean expectSize) throws Exception {
         assertPlanNoLeakCheck(query, plan);
 
@@ -3460,9 +3630,9 @@ public class WindowFunctionTest extends AbstractCairoTest {
     }
 
     static {
-        FRAME_FUNCTIONS = Arrays.asList("avg", "sum", "first_value");
+        FRAME_FUNCTIONS = Arrays.asList("avg", "sum", "first_value", "last_value", "max", "min", "count");
 
-        WINDOW_ONLY_FUNCTIONS = Arrays.asList("rank()", "row_number()", "first_value(1.0)");
+        WINDOW_ONLY_FUNCTIONS = Arrays.asList("rank()", "dense_rank()", "row_number()", "first_value(1.0)", "last_value(1.0)", "lag(1.0)", "lead(1.0)");
 
         normalizeSuffix(FRAME_FUNCTIONS);
         normalizeSuffix(WINDOW_ONLY_FUNCTIONS);
@@ -1362,6 +1362,11 @@ public class WalTableSqlTest extends AbstractCairoTest {
         });
     }
 
+    @Test
+    public void testParallelSymbolRemap() throws Exception {
+        testSymbolRemap(true);
+    }
+
     @Test
     public void testQueryNullSymbols() throws Exception {
         assertMemoryLeak(() -> {
@@ -1720,6 +1725,113 @@ public class WalTableSqlTest extends AbstractCairoTest {
         });
     }
 
+    @Test
+    public void testSerialSymbolRemap() throws Exception {
+        testSymbolRemap(false);
+    }
+
+    @Test
+    public void testSquashInOrderTransactions() throws Exception {
+        assertMemoryLeak(() -> {
+            String tableName = testName.getMethodName();
+            ddl("create table " + tableName + " (" +
+                    "x long," +
+                    "sym symbol," +
+                    "ts timestamp" +
+                    ") timestamp(ts) partition by DAY WAL");
+
+            insert("insert into " + tableName + " values (1, 'a', '2022-02-24T00')");
+            drainWalQueue();
+
+            TableToken token = engine.verifyTableName(tableName);
+            try (TxReader txReader = new TxReader(engine.getConfiguration().getFilesFacade())) {
+                txReader.ofRO(Path.getThreadLocal(root).concat(token).concat(TXN_FILE_NAME).$(), PartitionBy.DAY);
+                txReader.unsafeLoadAll();
+                final long txn = txReader.getTxn();
+
+                for (int i = 1; i < 6; i++) {
+                    insert("insert into " + tableName + " values (" + (i + 1) + ", '" + (char) ('a' + i) + "', '2022-02-24T0" + i + "')");
+                }
+                drainWalQueue();
+                txReader.unsafeLoadAll();
+
+                // all 5 transactions are applied with a single commit
+                Assert.assertEquals(txn + 1, txReader.getTxn());
+                Assert.assertEquals(6, txReader.getSeqTxn());
+                Assert.assertEquals(0, txReader.getLagTxnCount());
+                Assert.assertEquals(0, txReader.getLagRowCount());
+                Assert.assertEquals("2022-02-24T05:00:00.000Z", Timestamps.toString(txReader.getMaxTimestamp()));
+            }
+
+            assertSql(
+                    "x\tsym\tts\n" +
+                            "1\ta\t2022-02-24T00:00:00.000000Z\n" +
+                            "2\tb\t2022-02-24T01:00:00.000000Z\n" +
+                            "3\tc\t2022-02-24T02:00:00.000000Z\n" +
+                            "4\td\t2022-02-24T03:00:00.000000Z\n" +
+                            "5\te\t2022-02-24T04:00:00.000000Z\n" +
+                            "6\tf\t2022-02-24T05:00:00.000000Z\n",
+                    tableName
+            );
+        });
+    }
+
+    @Test
+    public void testSquashedTransactionsCommittedOnEjection() throws Exception {
+        assertMemoryLeak(() -> {
+            String tableName = testName.getMethodName();
+            ddl("create table " + tableName + " (" +
+                    "x long," +
+                    "sym symbol index," +
+                    "ts timestamp" +
+                    ") timestamp(ts) partition by DAY WAL");
+
+            insert("insert into " + tableName + " values (1, 'a', '2022-02-24T00')");
+            drainWalQueue();
+
+            insert("insert into " + tableName + " values (2, 'b', '2022-02-24T01')");
+            insert("insert into " + tableName + " values (3, 'c', '2022-02-24T02')");
+            insert("insert into " + tableName + " values (4, 'd', '2022-02-24T03')");
+
+            // the job is ejected after the first transaction, which is squashed with the next one
+            node1.setProperty(PropertyKey.CAIRO_WAL_APPLY_TABLE_TIME_QUOTA, 0);
+            runApplyOnce();
+
+            TableToken token = engine.verifyTableName(tableName);
+            try (TxReader txReader = new TxReader(engine.getConfiguration().getFilesFacade())) {
+                txReader.ofRO(Path.getThreadLocal(root).concat(token).concat(TXN_FILE_NAME).$(), PartitionBy.DAY);
+                txReader.unsafeLoadAll();
+
+                Assert.assertEquals(2, txReader.getSeqTxn());
+                Assert.assertEquals(0, txReader.getLagTxnCount());
+                Assert.assertEquals(0, txReader.getLagRowCount());
+                Assert.assertEquals("2022-02-24T01:00:00.000Z", Timestamps.toString(txReader.getMaxTimestamp()));
+            }
+
+            assertSql(
+                    "x\tsym\tts\n" +
+                            "1\ta\t2022-02-24T00:00:00.000000Z\n" +
+                            "2\tb\t2022-02-24T01:00:00.000000Z\n",
+                    tableName
+            );
+            assertSql(
+                    "x\tsym\tts\n" +
+                            "2\tb\t2022-02-24T01:00:00.000000Z\n",
+                    tableName + " where sym = 'b'"
+            );
+
+            drainWalQueue();
+            assertSql(
+                    "x\tsym\tts\n" +
+                            "1\ta\t2022-02-24T00:00:00.000000Z\n" +
+                            "2\tb\t2022-02-24T01:00:00.000000Z\n" +
+                            "3\tc\t2022-02-24T02:00:00.000000Z\n" +
+                            "4\td\t2022-02-24T03:00:00.000000Z\n",
+                    tableName
+            );
+        });
+    }
+
     @Test
     public void testVarSizeColumnBeforeInsertCommit() throws Exception {
         assertMemoryLeak(() -> {
@@ -2000,4 +2112,59 @@ public class WalTableSqlTest extends AbstractCairoTest {
 
         });
     }
+
+    private void testSymbolRemap(boolean parallel) throws Exception {
+        node1.setProperty(PropertyKey.CAIRO_WAL_APPLY_PARALLEL_SYMBOL_REMAP_ENABLED, parallel);
+        assertMemoryLeak(() -> {
+            String tableName = testName.getMethodName();
+            ddl("create table " + tableName + " (" +
+                    "s1 symbol," +
+                    "s2 symbol," +
+                    "s3 symbol," +
+                    "ts timestamp" +
+                    ") timestamp(ts) partition by DAY WAL");
+
+            try (
+                    WalWriter walWriter1 = getWalWriter(tableName);
+                    WalWriter walWriter2 = getWalWriter(tableName)
+            ) {
+                // both WALs allocate symbol keys from 0, so the second one has to be remapped on apply
+                for (int i = 0; i < 3; i++) {
+                    TableWriter.Row row = walWriter1.newRow(IntervalUtils.parseFloorPartialTimestamp("2022-02-24T0" + i));
+                    row.putSym(0, "a" + i);
+                    row.putSym(1, "b" + i);
+                    row.putSym(2, "c" + i);
+                    row.append();
+
+                    row = walWriter2.newRow(IntervalUtils.parseFloorPartialTimestamp("2022-02-24T0" + i + ":30"));
+                    row.putSym(0, "a" + (i + 1));
+                    row.putSym(1, "x" + i);
+                    row.putSym(2, i % 2 == 0 ? null : "c" + i);
+                    row.append();
+                }
+                walWriter1.commit();
+                walWriter2.commit();
+            }
+            drainWalQueue();
+
+            assertSql(
+                    "s1\ts2\ts3\tts\n" +
+                            "a0\tb0\tc0\t2022-02-24T00:00:00.000000Z\n" +
+                            "a1\tx0\t\t2022-02-24T00:30:00.000000Z\n" +
+                            "a1\tb1\tc1\t2022-02-24T01:00:00.000000Z\n" +
+                            "a2\tx1\tc1\t2022-02-24T01:30:00.000000Z\n" +
+                            "a2\tb2\tc2\t2022-02-24T02:00:00.000000Z\n" +
+                            "a3\tx2\t\t2022-02-24T02:30:00.000000Z\n",
+                    tableName
+            );
+            assertSql(
+                    "s1\tcount\n" +
+                            "a0\t1\n" +
+                            "a1\t2\n" +
+                            "a2\t2\n" +
+                            "a3\t1\n",
+                    "select s1, count() from " + tableName + " order by s1"
+            );
+        });
+    }
 }